@@ -118,6 +118,31 @@ public interface ClientOptions {
    */
   ClientOptions setExecuteQueryMaxResultRows(int maxRows);
 
+  /**
+   * Sets whether query results should be requested in the binary format, rather than as JSON.
+   * The binary format is smaller and faster to encode and decode, particularly for rows of
+   * mostly numbers, and decimal values are returned as {@code BigDecimal}s without loss of
+   * precision. Servers that do not support the binary format return JSON. Defaults to false.
+   *
+   * @param useBinaryQueryFormat whether the binary format should be requested
+   * @return a reference to this
+   */
+  ClientOptions setUseBinaryQueryFormat(boolean useBinaryQueryFormat);
+
+  /**
+   * Sets whether pull queries that look up a single key of a table should be sent straight to a
+   * server that stores the key, rather than to the configured server, which would otherwise
+   * forward the query to such a server. The client fetches which servers store each partition of
+   * a table from the configured server, and refreshes this periodically. Queries it can not
+   * route, such as those for tables it has not yet fetched, or whose keys it can not serialize,
+   * are sent to the configured server. Requires the servers' internal listeners to be reachable
+   * from the client. Defaults to false.
+   *
+   * @param usePartitionAwareRouting whether pull queries should be routed by key
+   * @return a reference to this
+   */
+  ClientOptions setUsePartitionAwareRouting(boolean usePartitionAwareRouting);
+
   /**
    * Returns the host name of the ksqlDB server to connect to.
    *
@@ -209,6 +234,20 @@ public interface ClientOptions {
    */
   int getExecuteQueryMaxResultRows();
 
+  /**
+   * Returns whether query results will be requested in the binary format.
+   *
+   * @return whether the binary format will be requested
+   */
+  boolean isUseBinaryQueryFormat();
+
+  /**
+   * Returns whether pull queries for a single key will be routed to a server that stores the key.
+   *
+   * @return whether pull queries will be routed by key
+   */
+  boolean isUsePartitionAwareRouting();
+
   /**
    * Creates a copy of these {@code ClientOptions}.
    *
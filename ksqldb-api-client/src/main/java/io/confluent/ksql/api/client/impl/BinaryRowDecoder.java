@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.api.client.impl;
+
+import static io.confluent.ksql.rest.BinaryValueCodec.ARRAY;
+import static io.confluent.ksql.rest.BinaryValueCodec.BOOLEAN;
+import static io.confluent.ksql.rest.BinaryValueCodec.DECIMAL;
+import static io.confluent.ksql.rest.BinaryValueCodec.DOUBLE;
+import static io.confluent.ksql.rest.BinaryValueCodec.INT;
+import static io.confluent.ksql.rest.BinaryValueCodec.LONG;
+import static io.confluent.ksql.rest.BinaryValueCodec.MAP;
+import static io.confluent.ksql.rest.BinaryValueCodec.NULL;
+import static io.confluent.ksql.rest.BinaryValueCodec.STRING;
+import static io.confluent.ksql.rest.BinaryValueCodec.STRUCT;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes the body of a row frame of a binary query-stream response into the same values as the
+ * equivalent JSON response, except that decimals are read back as {@code BigDecimal}s rather
+ * than doubles, so no precision is lost.
+ *
+ * <p>Values are read in place from the buffer, without copying the frame.
+ *
+ * @see io.confluent.ksql.rest.BinaryValueCodec
+ */
+final class BinaryRowDecoder {
+
+  private final Buffer buffer;
+  private int pos;
+
+  private BinaryRowDecoder(final Buffer buffer, final int pos) {
+    this.buffer = buffer;
+    this.pos = pos;
+  }
+
+  /**
+   * @param frame the row frame, starting with its frame type.
+   * @return the values of the columns of the row.
+   */
+  static JsonArray decodeRow(final Buffer frame) {
+    final BinaryRowDecoder decoder = new BinaryRowDecoder(frame, 1);
+    final int numColumns = decoder.readInt();
+    final List<Object> values = new ArrayList<>(numColumns);
+    for (int i = 0; i != numColumns; ++i) {
+      values.add(decoder.readValue());
+    }
+    return new JsonArray(values);
+  }
+
+  private Object readValue() {
+    final byte type = buffer.getByte(pos++);
+    switch (type) {
+      case NULL:
+        return null;
+      case BOOLEAN:
+        return buffer.getByte(pos++) != 0;
+      case INT:
+        return readInt();
+      case LONG:
+        final long longValue = buffer.getLong(pos);
+        pos += Long.BYTES;
+        return longValue;
+      case DOUBLE:
+        final double doubleValue = buffer.getDouble(pos);
+        pos += Double.BYTES;
+        return doubleValue;
+      case STRING:
+        return readString();
+      case DECIMAL:
+        final int scale = readInt();
+        final int size = readInt();
+        final byte[] unscaled = buffer.getBytes(pos, pos + size);
+        pos += size;
+        return new BigDecimal(new BigInteger(unscaled), scale);
+      case ARRAY:
+        final int numElements = readInt();
+        final List<Object> list = new ArrayList<>(numElements);
+        for (int i = 0; i != numElements; ++i) {
+          list.add(readValue());
+        }
+        return new JsonArray(list);
+      case MAP:
+        final int numEntries = readInt();
+        final Map<String, Object> map = new LinkedHashMap<>(numEntries * 2);
+        for (int i = 0; i != numEntries; ++i) {
+          final Object key = readValue();
+          map.put(key == null ? null : String.valueOf(key), readValue());
+        }
+        return new JsonObject(map);
+      case STRUCT:
+        final int numFields = readInt();
+        final Map<String, Object> struct = new LinkedHashMap<>(numFields * 2);
+        for (int i = 0; i != numFields; ++i) {
+          struct.put(readString(), readValue());
+        }
+        return new JsonObject(struct);
+      default:
+        throw new IllegalStateException("Unknown value type: " + type);
+    }
+  }
+
+  private int readInt() {
+    final int value = buffer.getInt(pos);
+    pos += Integer.BYTES;
+    return value;
+  }
+
+  private String readString() {
+    final int size = readInt();
+    final String value = buffer.getString(pos, pos + size);
+    pos += size;
+    return value;
+  }
+}
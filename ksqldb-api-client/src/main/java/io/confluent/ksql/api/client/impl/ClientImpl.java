@@ -16,7 +16,9 @@
 package io.confluent.ksql.api.client.impl;
 
 import static io.confluent.ksql.api.client.impl.DdlDmlRequestValidators.validateExecuteStatementRequest;
+import static io.netty.handler.codec.http.HttpHeaderNames.ACCEPT;
 import static io.netty.handler.codec.http.HttpHeaderNames.AUTHORIZATION;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 
 import io.confluent.ksql.api.client.AcksPublisher;
@@ -32,6 +34,7 @@ import io.confluent.ksql.api.client.StreamedQueryResult;
 import io.confluent.ksql.api.client.TableInfo;
 import io.confluent.ksql.api.client.TopicInfo;
 import io.confluent.ksql.api.client.exception.KsqlClientException;
+import io.confluent.ksql.rest.QueryStreamBinaryFormat;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
@@ -47,13 +50,18 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.JksOptions;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.parsetools.RecordParser;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import org.reactivestreams.Publisher;
 
@@ -65,6 +73,11 @@ public class ClientImpl implements Client {
   private static final String INSERTS_ENDPOINT = "/inserts-stream";
   private static final String CLOSE_QUERY_ENDPOINT = "/close-query";
   private static final String KSQL_ENDPOINT = "/ksql";
+  private static final String ROUTING_ENDPOINT = "/routing/";
+
+  // Servers that do not support the binary format fall back to the delimited format:
+  private static final String BINARY_QUERY_STREAM_ACCEPT = QueryStreamBinaryFormat.CONTENT_TYPE
+      + ", application/vnd.ksqlapi.delimited.v1;q=0.9";
 
   private final ClientOptions clientOptions;
   private final Vertx vertx;
@@ -72,6 +85,7 @@ public class ClientImpl implements Client {
   private final SocketAddress serverSocketAddress;
   private final String basicAuthHeader;
   private final boolean ownedVertx;
+  private final Optional<PullQueryRouter> pullQueryRouter;
 
   /**
    * {@code Client} instances should be created via {@link Client#create(ClientOptions)}, NOT via
@@ -98,6 +112,9 @@ public class ClientImpl implements Client {
     this.basicAuthHeader = createBasicAuthHeader(clientOptions);
     this.serverSocketAddress =
         SocketAddress.inetSocketAddress(clientOptions.getPort(), clientOptions.getHost());
+    this.pullQueryRouter = clientOptions.isUsePartitionAwareRouting()
+        ? Optional.of(new PullQueryRouter(this::fetchTableRouting, System::currentTimeMillis))
+        : Optional.empty();
   }
 
   @Override
@@ -112,7 +129,8 @@ public class ClientImpl implements Client {
   ) {
     final CompletableFuture<StreamedQueryResult> cf = new CompletableFuture<>();
     makeQueryRequest(sql, properties, cf,
-        (ctx, rp, fut, req) -> new StreamQueryResponseHandler(ctx, rp, fut));
+        (ctx, rp, fut, resp) ->
+            new StreamQueryResponseHandler(ctx, rp, fut, isBinaryQueryStream(resp)));
     return cf;
   }
 
@@ -131,8 +149,9 @@ public class ClientImpl implements Client {
         sql,
         properties,
         result,
-        (context, recordParser, cf, request) -> new ExecuteQueryResponseHandler(
-            context, recordParser, cf, clientOptions.getExecuteQueryMaxResultRows())
+        (context, recordParser, cf, response) -> new ExecuteQueryResponseHandler(
+            context, recordParser, cf, clientOptions.getExecuteQueryMaxResultRows(),
+            isBinaryQueryStream(response))
     );
     return result;
   }
@@ -151,7 +170,7 @@ public class ClientImpl implements Client {
         requestBody,
         cf,
         response -> handleStreamedResponse(response, cf,
-            (ctx, rp, fut, req) -> new InsertIntoResponseHandler(ctx, rp, fut))
+            (ctx, rp, fut, resp) -> new InsertIntoResponseHandler(ctx, rp, fut))
     );
 
     return cf;
@@ -172,8 +191,8 @@ public class ClientImpl implements Client {
         requestBody,
         cf,
         response -> handleStreamedResponse(response, cf,
-            (ctx, rp, fut, req) ->
-                new StreamInsertsResponseHandler(ctx, rp, fut, req, insertsPublisher)),
+            (ctx, rp, fut, resp) ->
+                new StreamInsertsResponseHandler(ctx, rp, fut, resp.request(), insertsPublisher)),
         false
     );
 
@@ -307,7 +326,8 @@ public class ClientImpl implements Client {
 
   @FunctionalInterface
   private interface StreamedResponseHandlerSupplier<T extends CompletableFuture<?>> {
-    ResponseHandler<T> get(Context ctx, RecordParser recordParser, T cf, HttpClientRequest request);
+    ResponseHandler<T> get(
+        Context ctx, RecordParser recordParser, T cf, HttpClientResponse response);
   }
 
   @FunctionalInterface
@@ -323,14 +343,95 @@ public class ClientImpl implements Client {
   ) {
     final JsonObject requestBody = new JsonObject().put("sql", sql).put("properties", properties);
 
+    final Map<String, String> headers = clientOptions.isUseBinaryQueryFormat()
+        ? Collections.singletonMap(ACCEPT.toString(), BINARY_QUERY_STREAM_ACCEPT)
+        : Collections.emptyMap();
+
+    final List<SocketAddress> hosts = pullQueryRouter
+        .map(router -> router.route(sql))
+        .orElse(Collections.emptyList());
+
+    makeQueryRequest(hosts, 0, requestBody.toBuffer(), headers, cf, responseHandlerSupplier);
+  }
+
+  /**
+   * Sends the query to the host at {@code hostIndex} of the hosts it is routed to, failing over
+   * to the next host if that host can not be reached, and finally to the configured server.
+   */
+  private <T extends CompletableFuture<?>> void makeQueryRequest(
+      final List<SocketAddress> hosts,
+      final int hostIndex,
+      final Buffer requestBody,
+      final Map<String, String> headers,
+      final T cf,
+      final StreamedResponseHandlerSupplier<T> responseHandlerSupplier
+  ) {
+    if (hostIndex == hosts.size()) {
+      makeRequest(
+          QUERY_STREAM_ENDPOINT,
+          requestBody,
+          cf,
+          response -> handleStreamedResponse(response, cf, responseHandlerSupplier),
+          true,
+          headers
+      );
+      return;
+    }
+
+    final SocketAddress host = hosts.get(hostIndex);
+    final AtomicBoolean responded = new AtomicBoolean();
     makeRequest(
+        host,
         QUERY_STREAM_ENDPOINT,
         requestBody,
-        cf,
-        response -> handleStreamedResponse(response, cf, responseHandlerSupplier)
+        response -> {
+          responded.set(true);
+          handleStreamedResponse(response, cf, responseHandlerSupplier);
+        },
+        e -> {
+          // Once the host has responded, the query may have partly run, so can not be retried:
+          if (responded.get()) {
+            cf.completeExceptionally(e);
+            return;
+          }
+          pullQueryRouter.ifPresent(router -> router.hostFailed(host));
+          makeQueryRequest(
+              hosts, hostIndex + 1, requestBody, headers, cf, responseHandlerSupplier);
+        },
+        true,
+        headers
     );
   }
 
+  private CompletableFuture<JsonObject> fetchTableRouting(final String table) {
+    final CompletableFuture<JsonObject> cf = new CompletableFuture<>();
+    final String path;
+    try {
+      path = ROUTING_ENDPOINT + URLEncoder.encode(table, StandardCharsets.UTF_8.name())
+          .replace("+", "%20");
+    } catch (final UnsupportedEncodingException e) {
+      cf.completeExceptionally(e);
+      return cf;
+    }
+
+    HttpClientRequest request = httpClient.request(HttpMethod.GET,
+        serverSocketAddress, clientOptions.getPort(), clientOptions.getHost(),
+        path,
+        response -> {
+          if (response.statusCode() == OK.code()) {
+            response.bodyHandler(buffer -> cf.complete(buffer.toJsonObject()));
+          } else {
+            handleErrorResponse(response, cf);
+          }
+        })
+        .exceptionHandler(cf::completeExceptionally);
+    if (clientOptions.isUseBasicAuth()) {
+      request = configureBasicAuth(request);
+    }
+    request.end();
+    return cf;
+  }
+
   private <T extends CompletableFuture<?>> void makeRequest(
       final String path,
       final JsonObject requestBody,
@@ -353,14 +454,37 @@ public class ClientImpl implements Client {
       final T cf,
       final Handler<HttpClientResponse> responseHandler,
       final boolean endRequest) {
+    makeRequest(path, requestBody, cf, responseHandler, endRequest, Collections.emptyMap());
+  }
+
+  private <T extends CompletableFuture<?>> void makeRequest(
+      final String path,
+      final Buffer requestBody,
+      final T cf,
+      final Handler<HttpClientResponse> responseHandler,
+      final boolean endRequest,
+      final Map<String, String> headers) {
+    makeRequest(serverSocketAddress, path, requestBody, responseHandler,
+        cf::completeExceptionally, endRequest, headers);
+  }
+
+  private void makeRequest(
+      final SocketAddress host,
+      final String path,
+      final Buffer requestBody,
+      final Handler<HttpClientResponse> responseHandler,
+      final Handler<Throwable> exceptionHandler,
+      final boolean endRequest,
+      final Map<String, String> headers) {
     HttpClientRequest request = httpClient.request(HttpMethod.POST,
-        serverSocketAddress, clientOptions.getPort(), clientOptions.getHost(),
+        host, host.port(), host.host(),
         path,
         responseHandler)
-        .exceptionHandler(cf::completeExceptionally);
+        .exceptionHandler(exceptionHandler);
     if (clientOptions.isUseBasicAuth()) {
       request = configureBasicAuth(request);
     }
+    headers.forEach(request::putHeader);
     if (endRequest) {
       request.end(requestBody);
     } else {
@@ -380,11 +504,18 @@ public class ClientImpl implements Client {
       final T cf,
       final StreamedResponseHandlerSupplier<T> responseHandlerSupplier) {
     if (response.statusCode() == OK.code()) {
-      final RecordParser recordParser = RecordParser.newDelimited("\n", response);
+      final boolean binary = isBinaryQueryStream(response);
+      final RecordParser recordParser = binary
+          ? RecordParser.newFixed(QueryStreamBinaryFormat.FRAME_SIZE_SIZE, response)
+          : RecordParser.newDelimited("\n", response);
       final ResponseHandler<T> responseHandler =
-          responseHandlerSupplier.get(Vertx.currentContext(), recordParser, cf, response.request());
+          responseHandlerSupplier.get(Vertx.currentContext(), recordParser, cf, response);
 
-      recordParser.handler(responseHandler::handleBodyBuffer);
+      if (binary) {
+        recordParser.handler(new BinaryFrameHandler(recordParser, responseHandler));
+      } else {
+        recordParser.handler(responseHandler::handleBodyBuffer);
+      }
       recordParser.endHandler(responseHandler::handleBodyEnd);
       recordParser.exceptionHandler(responseHandler::handleException);
     } else {
@@ -392,6 +523,42 @@ public class ClientImpl implements Client {
     }
   }
 
+  private static boolean isBinaryQueryStream(final HttpClientResponse response) {
+    return QueryStreamBinaryFormat.CONTENT_TYPE
+        .equals(response.getHeader(CONTENT_TYPE.toString()));
+  }
+
+  /**
+   * Splits a binary response into frames, by alternately reading the size of the next frame and
+   * then the frame itself, which is passed on without its size.
+   */
+  private static final class BinaryFrameHandler implements Handler<Buffer> {
+
+    private final RecordParser recordParser;
+    private final ResponseHandler<?> responseHandler;
+    private boolean readingSize = true;
+
+    BinaryFrameHandler(
+        final RecordParser recordParser,
+        final ResponseHandler<?> responseHandler
+    ) {
+      this.recordParser = Objects.requireNonNull(recordParser);
+      this.responseHandler = Objects.requireNonNull(responseHandler);
+    }
+
+    @Override
+    public void handle(final Buffer buffer) {
+      if (readingSize) {
+        recordParser.fixedSizeMode(buffer.getInt(0));
+        readingSize = false;
+      } else {
+        recordParser.fixedSizeMode(QueryStreamBinaryFormat.FRAME_SIZE_SIZE);
+        readingSize = true;
+        responseHandler.handleBodyBuffer(buffer);
+      }
+    }
+  }
+
   private static void handleCloseQueryResponse(
       final HttpClientResponse response,
       final CompletableFuture<Void> cf
@@ -33,6 +33,8 @@ public class ClientOptionsImpl implements ClientOptions {
   private String basicAuthUsername;
   private String basicAuthPassword;
   private int executeQueryMaxResultRows = ClientOptions.DEFAULT_EXECUTE_QUERY_MAX_RESULT_ROWS;
+  private boolean useBinaryQueryFormat = false;
+  private boolean usePartitionAwareRouting = false;
 
   /**
    * {@code ClientOptions} should be instantiated via {@link ClientOptions#create}, NOT via this
@@ -50,7 +52,9 @@ public class ClientOptionsImpl implements ClientOptions {
       final String trustStorePath, final String trustStorePassword,
       final String keyStorePath, final String keyStorePassword,
       final String basicAuthUsername, final String basicAuthPassword,
-      final int executeQueryMaxResultRows) {
+      final int executeQueryMaxResultRows,
+      final boolean useBinaryQueryFormat,
+      final boolean usePartitionAwareRouting) {
     this.host = Objects.requireNonNull(host);
     this.port = port;
     this.useTls = useTls;
@@ -64,6 +68,8 @@ public class ClientOptionsImpl implements ClientOptions {
     this.basicAuthUsername = basicAuthUsername;
     this.basicAuthPassword = basicAuthPassword;
     this.executeQueryMaxResultRows = executeQueryMaxResultRows;
+    this.useBinaryQueryFormat = useBinaryQueryFormat;
+    this.usePartitionAwareRouting = usePartitionAwareRouting;
   }
 
   @Override
@@ -134,6 +140,18 @@ public class ClientOptionsImpl implements ClientOptions {
     return this;
   }
 
+  @Override
+  public ClientOptions setUseBinaryQueryFormat(final boolean useBinaryQueryFormat) {
+    this.useBinaryQueryFormat = useBinaryQueryFormat;
+    return this;
+  }
+
+  @Override
+  public ClientOptions setUsePartitionAwareRouting(final boolean usePartitionAwareRouting) {
+    this.usePartitionAwareRouting = usePartitionAwareRouting;
+    return this;
+  }
+
   @Override
   public String getHost() {
     return host == null ? "" : host;
@@ -199,6 +217,16 @@ public class ClientOptionsImpl implements ClientOptions {
     return executeQueryMaxResultRows;
   }
 
+  @Override
+  public boolean isUseBinaryQueryFormat() {
+    return useBinaryQueryFormat;
+  }
+
+  @Override
+  public boolean isUsePartitionAwareRouting() {
+    return usePartitionAwareRouting;
+  }
+
   @Override
   public ClientOptions copy() {
     return new ClientOptionsImpl(
@@ -208,7 +236,9 @@ public class ClientOptionsImpl implements ClientOptions {
         trustStorePath, trustStorePassword,
         keyStorePath, keyStorePassword,
         basicAuthUsername, basicAuthPassword,
-        executeQueryMaxResultRows);
+        executeQueryMaxResultRows,
+        useBinaryQueryFormat,
+        usePartitionAwareRouting);
   }
 
   // CHECKSTYLE_RULES.OFF: CyclomaticComplexity
@@ -227,6 +257,8 @@ public class ClientOptionsImpl implements ClientOptions {
         && verifyHost == that.verifyHost
         && useAlpn == that.useAlpn
         && executeQueryMaxResultRows == that.executeQueryMaxResultRows
+        && useBinaryQueryFormat == that.useBinaryQueryFormat
+        && usePartitionAwareRouting == that.usePartitionAwareRouting
         && host.equals(that.host)
         && Objects.equals(trustStorePath, that.trustStorePath)
         && Objects.equals(trustStorePassword, that.trustStorePassword)
@@ -240,7 +272,7 @@ public class ClientOptionsImpl implements ClientOptions {
   public int hashCode() {
     return Objects.hash(host, port, useTls, verifyHost, useAlpn, trustStorePath,
         trustStorePassword, keyStorePath, keyStorePassword, basicAuthUsername, basicAuthPassword,
-        executeQueryMaxResultRows);
+        executeQueryMaxResultRows, useBinaryQueryFormat, usePartitionAwareRouting);
   }
 
   @Override
@@ -258,6 +290,8 @@ public class ClientOptionsImpl implements ClientOptions {
         + ", basicAuthUsername='" + basicAuthUsername + '\''
         + ", basicAuthPassword='" + basicAuthPassword + '\''
         + ", executeQueryMaxResultRows=" + executeQueryMaxResultRows
+        + ", useBinaryQueryFormat=" + useBinaryQueryFormat
+        + ", usePartitionAwareRouting=" + usePartitionAwareRouting
         + '}';
   }
 }
\ No newline at end of file
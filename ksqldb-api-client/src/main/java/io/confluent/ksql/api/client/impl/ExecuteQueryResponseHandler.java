@@ -19,11 +19,12 @@ import io.confluent.ksql.api.client.BatchedQueryResult;
 import io.confluent.ksql.api.client.ColumnType;
 import io.confluent.ksql.api.client.Row;
 import io.confluent.ksql.api.client.exception.KsqlClientException;
+import io.confluent.ksql.api.client.exception.KsqlException;
 import io.confluent.ksql.api.client.util.RowUtil;
 import io.confluent.ksql.rest.entity.QueryResponseMetadata;
 import io.vertx.core.Context;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.parsetools.RecordParser;
 import java.util.ArrayList;
 import java.util.List;
@@ -45,8 +46,9 @@ public class ExecuteQueryResponseHandler extends QueryResponseHandler<BatchedQue
       final Context context,
       final RecordParser recordParser,
       final BatchedQueryResult cf,
-      final int maxRows) {
-    super(context, recordParser, cf);
+      final int maxRows,
+      final boolean binaryFormat) {
+    super(context, recordParser, cf, binaryFormat);
     this.maxRows = maxRows;
     this.rows = new ArrayList<>();
   }
@@ -60,8 +62,7 @@ public class ExecuteQueryResponseHandler extends QueryResponseHandler<BatchedQue
   }
 
   @Override
-  protected void handleRow(final Buffer buff) {
-    final JsonArray values = new JsonArray(buff);
+  protected void handleRow(final JsonArray values) {
     if (rows.size() < maxRows) {
       rows.add(new RowImpl(columnNames, columnTypes, values, columnNameToIndex));
     } else {
@@ -72,6 +73,14 @@ public class ExecuteQueryResponseHandler extends QueryResponseHandler<BatchedQue
     }
   }
 
+  @Override
+  protected void handleError(final JsonObject error) {
+    cf.completeExceptionally(new KsqlException(
+        error.getInteger("error_code"),
+        error.getString("message")
+    ));
+  }
+
   @Override
   protected void doHandleBodyEnd() {
     if (!hasReadArguments) {
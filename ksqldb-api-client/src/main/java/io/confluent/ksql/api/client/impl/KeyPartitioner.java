@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.api.client.impl;
+
+import io.vertx.core.json.Json;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Computes the partition of a key of a table as Kafka Streams does: by serializing the key, as
+ * the server serializes keys of the table's key format, and taking the murmur2 hash of the bytes.
+ *
+ * <p>Only single primitive keys of the {@code KAFKA} and {@code JSON} formats are supported, as
+ * keys of other formats can not be serialized without their schemas.
+ */
+final class KeyPartitioner {
+
+  private KeyPartitioner() {
+  }
+
+  /**
+   * @param keyFormat the key format of the table, e.g. {@code KAFKA}.
+   * @param keyType the SQL type of the key column, e.g. {@code BIGINT}.
+   * @param key the key, of the Java type of the SQL type.
+   * @return the serialized key, if the format and type are supported.
+   */
+  static Optional<byte[]> serialize(
+      final String keyFormat,
+      final String keyType,
+      final Object key
+  ) {
+    switch (keyFormat) {
+      case "KAFKA":
+        return serializeKafka(keyType, key);
+      case "JSON":
+        return serializeJson(keyType, key);
+      default:
+        return Optional.empty();
+    }
+  }
+
+  /**
+   * @param serializedKey the serialized key.
+   * @param numPartitions the number of partitions of the table.
+   * @return the partition of the key.
+   */
+  static int partition(final byte[] serializedKey, final int numPartitions) {
+    return (murmur2(serializedKey) & 0x7fffffff) % numPartitions;
+  }
+
+  private static Optional<byte[]> serializeKafka(final String keyType, final Object key) {
+    switch (keyType) {
+      case "INTEGER":
+        return Optional.of(ByteBuffer.allocate(Integer.BYTES).putInt((Integer) key).array());
+      case "BIGINT":
+        return Optional.of(ByteBuffer.allocate(Long.BYTES).putLong((Long) key).array());
+      case "DOUBLE":
+        return Optional.of(ByteBuffer.allocate(Double.BYTES).putDouble((Double) key).array());
+      case "STRING":
+        return Optional.of(((String) key).getBytes(StandardCharsets.UTF_8));
+      default:
+        return Optional.empty();
+    }
+  }
+
+  private static Optional<byte[]> serializeJson(final String keyType, final Object key) {
+    switch (keyType) {
+      case "INTEGER":
+      case "BIGINT":
+        return Optional.of(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+      case "STRING":
+        return Optional.of(Json.encode(key).getBytes(StandardCharsets.UTF_8));
+      default:
+        return Optional.empty();
+    }
+  }
+
+  /**
+   * The 32-bit murmur2 hash, with the seed Kafka uses to partition keys.
+   */
+  private static int murmur2(final byte[] data) {
+    final int length = data.length;
+    final int seed = 0x9747b28c;
+    final int m = 0x5bd1e995;
+    final int r = 24;
+
+    int h = seed ^ length;
+    final int length4 = length / 4;
+
+    for (int i = 0; i < length4; i++) {
+      final int i4 = i * 4;
+      int k = (data[i4] & 0xff)
+          + ((data[i4 + 1] & 0xff) << 8)
+          + ((data[i4 + 2] & 0xff) << 16)
+          + ((data[i4 + 3] & 0xff) << 24);
+      k *= m;
+      k ^= k >>> r;
+      k *= m;
+      h *= m;
+      h ^= k;
+    }
+
+    final int tail = length4 * 4;
+    switch (length % 4) {
+      case 3:
+        h ^= (data[tail + 2] & 0xff) << 16;
+        // fall through
+      case 2:
+        h ^= (data[tail + 1] & 0xff) << 8;
+        // fall through
+      case 1:
+        h ^= data[tail] & 0xff;
+        h *= m;
+        break;
+      default:
+        break;
+    }
+
+    h ^= h >>> 13;
+    h *= m;
+    h ^= h >>> 15;
+
+    return h;
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.api.client.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the servers to send a pull query for a single key of a table to: those that store the
+ * partition of the key, the active server first, then its standbys.
+ *
+ * <p>Only queries of the form {@code SELECT ... FROM <table> WHERE <key column> = <literal>} are
+ * routed. Which servers store each partition of a table, and how its key is serialized, is
+ * fetched the first time a table is queried, and refreshed periodically in the background, so
+ * routing never waits on a fetch: a query for a table that has not yet been fetched is not
+ * routed. Routing on stale info is safe, as a server that does not store a key forwards the query
+ * to one that does.
+ */
+final class PullQueryRouter {
+
+  static final long REFRESH_INTERVAL_MS = 30_000;
+
+  private static final String IDENTIFIER = "`(?:[^`]|``)+`|[A-Za-z_][A-Za-z0-9_@$]*";
+  private static final String LITERAL = "'(?:[^']|'')*'|-?\\d+(?:\\.\\d+)?";
+  private static final Pattern KEY_LOOKUP = Pattern.compile(
+      "\\s*SELECT\\s+.+?\\s+FROM\\s+(" + IDENTIFIER + ")"
+          + "\\s+WHERE\\s+(" + IDENTIFIER + ")\\s*=\\s*(" + LITERAL + ")\\s*;?\\s*",
+      Pattern.CASE_INSENSITIVE | Pattern.DOTALL
+  );
+
+  private final Function<String, CompletableFuture<JsonObject>> routingFetcher;
+  private final LongSupplier clock;
+  private final Map<String, TableRouting> routings = new ConcurrentHashMap<>();
+  private final Set<String> fetching = ConcurrentHashMap.newKeySet();
+
+  /**
+   * @param routingFetcher fetches the routing info of a table from the server.
+   * @param clock supplies the current time in milliseconds.
+   */
+  PullQueryRouter(
+      final Function<String, CompletableFuture<JsonObject>> routingFetcher,
+      final LongSupplier clock
+  ) {
+    this.routingFetcher = Objects.requireNonNull(routingFetcher, "routingFetcher");
+    this.clock = Objects.requireNonNull(clock, "clock");
+  }
+
+  /**
+   * @param sql the query.
+   * @return the servers to send the query to, in order of preference, or an empty list if the
+   *     query can not be routed.
+   */
+  List<SocketAddress> route(final String sql) {
+    final Matcher matcher = KEY_LOOKUP.matcher(sql);
+    if (!matcher.matches()) {
+      return Collections.emptyList();
+    }
+
+    final String table = identifier(matcher.group(1));
+    final TableRouting routing = routings.get(table);
+    if (routing == null || clock.getAsLong() - routing.fetchedMs >= REFRESH_INTERVAL_MS) {
+      refresh(table);
+    }
+
+    if (routing == null || !routing.keyColumn.equals(identifier(matcher.group(2)))) {
+      return Collections.emptyList();
+    }
+
+    return routing.hostsFor(matcher.group(3));
+  }
+
+  /**
+   * Called when a server that a query was routed to could not be reached, so that the routing
+   * info of the tables it serves is refreshed.
+   *
+   * @param host the server.
+   */
+  void hostFailed(final SocketAddress host) {
+    routings.values().removeIf(routing -> routing.hasHost(host));
+  }
+
+  private void refresh(final String table) {
+    if (!fetching.add(table)) {
+      return;
+    }
+
+    routingFetcher.apply(table).whenComplete((json, e) -> {
+      // Tables that can not be routed, e.g. as they are not materialized, or as the server does
+      // not support routing, are also held, so they are not fetched again until refreshed:
+      routings.put(table, e == null
+          ? TableRouting.from(json, clock.getAsLong())
+          : TableRouting.unroutable(clock.getAsLong()));
+      fetching.remove(table);
+    });
+  }
+
+  private static String identifier(final String text) {
+    if (text.startsWith("`")) {
+      return text.substring(1, text.length() - 1).replace("``", "`");
+    }
+    return text.toUpperCase(Locale.ROOT);
+  }
+
+  private static final class TableRouting {
+
+    private final String keyColumn;
+    private final String keyType;
+    private final String keyFormat;
+    private final List<List<SocketAddress>> partitionHosts;
+    private final long fetchedMs;
+
+    private TableRouting(
+        final String keyColumn,
+        final String keyType,
+        final String keyFormat,
+        final List<List<SocketAddress>> partitionHosts,
+        final long fetchedMs
+    ) {
+      this.keyColumn = keyColumn;
+      this.keyType = keyType;
+      this.keyFormat = keyFormat;
+      this.partitionHosts = partitionHosts;
+      this.fetchedMs = fetchedMs;
+    }
+
+    static TableRouting unroutable(final long fetchedMs) {
+      return new TableRouting("", "", "", Collections.emptyList(), fetchedMs);
+    }
+
+    static TableRouting from(final JsonObject json, final long fetchedMs) {
+      // Windowed keys are serialized with their windows, so can not be routed by key alone:
+      if (json.getBoolean("windowed", true)) {
+        return unroutable(fetchedMs);
+      }
+
+      final List<List<SocketAddress>> partitionHosts = new ArrayList<>();
+      for (final Object hosts : json.getJsonArray("partitionHosts", new JsonArray())) {
+        final List<SocketAddress> addresses = new ArrayList<>();
+        for (final Object host : (JsonArray) hosts) {
+          final URI uri = URI.create((String) host);
+          if (uri.getHost() != null && uri.getPort() != -1) {
+            addresses.add(SocketAddress.inetSocketAddress(uri.getPort(), uri.getHost()));
+          }
+        }
+        partitionHosts.add(addresses);
+      }
+
+      return new TableRouting(
+          json.getString("keyColumn", ""),
+          json.getString("keyType", ""),
+          json.getString("keyFormat", ""),
+          partitionHosts,
+          fetchedMs
+      );
+    }
+
+    List<SocketAddress> hostsFor(final String literal) {
+      if (partitionHosts.isEmpty()) {
+        return Collections.emptyList();
+      }
+
+      return keyValue(literal)
+          .flatMap(key -> KeyPartitioner.serialize(keyFormat, keyType, key))
+          .map(key -> partitionHosts.get(KeyPartitioner.partition(key, partitionHosts.size())))
+          .orElse(Collections.emptyList());
+    }
+
+    boolean hasHost(final SocketAddress host) {
+      return partitionHosts.stream().anyMatch(hosts -> hosts.contains(host));
+    }
+
+    private Optional<Object> keyValue(final String literal) {
+      final boolean isString = literal.startsWith("'");
+      try {
+        switch (keyType) {
+          case "STRING":
+            return isString
+                ? Optional.of(literal.substring(1, literal.length() - 1).replace("''", "'"))
+                : Optional.empty();
+          case "INTEGER":
+            return isString ? Optional.empty() : Optional.of(Integer.parseInt(literal));
+          case "BIGINT":
+            return isString ? Optional.empty() : Optional.of(Long.parseLong(literal));
+          case "DOUBLE":
+            return isString ? Optional.empty() : Optional.of(Double.parseDouble(literal));
+          default:
+            return Optional.empty();
+        }
+      } catch (final NumberFormatException e) {
+        return Optional.empty();
+      }
+    }
+  }
+}
@@ -17,9 +17,12 @@ package io.confluent.ksql.api.client.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.confluent.ksql.api.client.util.JsonMapper;
+import io.confluent.ksql.rest.QueryStreamBinaryFormat;
 import io.confluent.ksql.rest.entity.QueryResponseMetadata;
 import io.vertx.core.Context;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.parsetools.RecordParser;
 import java.util.concurrent.CompletableFuture;
 
@@ -27,18 +30,39 @@ abstract class QueryResponseHandler<T extends CompletableFuture<?>> extends Resp
 
   private static ObjectMapper JSON_MAPPER = JsonMapper.get();
 
+  private final boolean binaryFormat;
+
   protected boolean hasReadArguments;
 
-  QueryResponseHandler(final Context context, final RecordParser recordParser, final T cf) {
+  /**
+   * @param binaryFormat whether the response is in the binary format, in which case each buffer
+   *                     is a frame without its size. See {@link QueryStreamBinaryFormat}.
+   */
+  QueryResponseHandler(
+      final Context context,
+      final RecordParser recordParser,
+      final T cf,
+      final boolean binaryFormat
+  ) {
     super(context, recordParser, cf);
+    this.binaryFormat = binaryFormat;
   }
 
   @Override
   protected void doHandleBodyBuffer(final Buffer buff) {
-    if (!hasReadArguments) {
+    if (binaryFormat) {
+      handleFrame(buff);
+    } else if (!hasReadArguments) {
       handleArgs(buff);
     } else {
-      handleRow(buff);
+      final Object json = buff.toJson();
+      if (json instanceof JsonArray) {
+        handleRow((JsonArray) json);
+      } else if (json instanceof JsonObject) {
+        handleError((JsonObject) json);
+      } else {
+        throw new RuntimeException("Could not decode JSON: " + json);
+      }
     }
   }
 
@@ -53,10 +77,29 @@ abstract class QueryResponseHandler<T extends CompletableFuture<?>> extends Resp
 
   protected abstract void handleMetadata(QueryResponseMetadata queryResponseMetadata);
 
-  protected abstract void handleRow(Buffer buff);
+  protected abstract void handleRow(JsonArray values);
+
+  protected abstract void handleError(JsonObject error);
 
   protected abstract void handleExceptionAfterFutureCompleted(Throwable t);
 
+  private void handleFrame(final Buffer frame) {
+    final byte frameType = frame.getByte(0);
+    switch (frameType) {
+      case QueryStreamBinaryFormat.METADATA_FRAME:
+        handleArgs(frame.slice(1, frame.length()));
+        break;
+      case QueryStreamBinaryFormat.ROW_FRAME:
+        handleRow(BinaryRowDecoder.decodeRow(frame));
+        break;
+      case QueryStreamBinaryFormat.ERROR_FRAME:
+        handleError(frame.slice(1, frame.length()).toJsonObject());
+        break;
+      default:
+        throw new IllegalStateException("Unknown frame type: " + frameType);
+    }
+  }
+
   private void handleArgs(final Buffer buff) {
     hasReadArguments = true;
 
@@ -21,7 +21,6 @@ import io.confluent.ksql.api.client.exception.KsqlException;
 import io.confluent.ksql.api.client.util.RowUtil;
 import io.confluent.ksql.rest.entity.QueryResponseMetadata;
 import io.vertx.core.Context;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
@@ -41,8 +40,8 @@ public class StreamQueryResponseHandler
   private boolean paused;
 
   StreamQueryResponseHandler(final Context context, final RecordParser recordParser,
-      final CompletableFuture<StreamedQueryResult> cf) {
-    super(context, recordParser, cf);
+      final CompletableFuture<StreamedQueryResult> cf, final boolean binaryFormat) {
+    super(context, recordParser, cf, binaryFormat);
   }
 
   @Override
@@ -55,36 +54,37 @@ public class StreamQueryResponseHandler
   }
 
   @Override
-  protected void handleRow(final Buffer buff) {
+  protected void handleRow(final JsonArray values) {
     if (queryResult == null) {
       throw new IllegalStateException("handleRow called before metadata processed");
     }
 
-    final Object json = buff.toJson();
-    if (json instanceof JsonArray) {
-      final Row row = new RowImpl(
-          queryResult.columnNames(),
-          queryResult.columnTypes(),
-          (JsonArray) json,
-          columnNameToIndex
-      );
-      final boolean full = queryResult.accept(row);
-      if (full && !paused) {
-        recordParser.pause();
-        queryResult.drainHandler(this::publisherReceptive);
-        paused = true;
-      }
-    } else if (json instanceof JsonObject) {
-      final JsonObject error = (JsonObject) json;
-      queryResult.handleError(new KsqlException(
-          error.getInteger("error_code"),
-          error.getString("message")
-      ));
-    } else {
-      throw new RuntimeException("Could not decode JSON: " + json);
+    final Row row = new RowImpl(
+        queryResult.columnNames(),
+        queryResult.columnTypes(),
+        values,
+        columnNameToIndex
+    );
+    final boolean full = queryResult.accept(row);
+    if (full && !paused) {
+      recordParser.pause();
+      queryResult.drainHandler(this::publisherReceptive);
+      paused = true;
     }
   }
 
+  @Override
+  protected void handleError(final JsonObject error) {
+    if (queryResult == null) {
+      throw new IllegalStateException("handleError called before metadata processed");
+    }
+
+    queryResult.handleError(new KsqlException(
+        error.getInteger("error_code"),
+        error.getString("message")
+    ));
+  }
+
   @Override
   protected void doHandleBodyEnd() {
     queryResult.complete();
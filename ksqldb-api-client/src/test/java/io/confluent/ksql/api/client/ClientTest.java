@@ -471,6 +471,48 @@ public class ClientTest extends BaseApiTest {
     verifyPullQueryServerState();
   }
 
+  @Test
+  public void shouldStreamPushQueryInBinaryFormat() throws Exception {
+    // Given
+    final Client binaryClient =
+        Client.create(createJavaClientOptions().setUseBinaryQueryFormat(true), vertx);
+
+    // When
+    final StreamedQueryResult streamedQueryResult = binaryClient
+        .streamQuery(DEFAULT_PUSH_QUERY, DEFAULT_PUSH_QUERY_REQUEST_PROPERTIES).get();
+
+    // Then
+    assertThat(streamedQueryResult.columnNames(), is(DEFAULT_COLUMN_NAMES));
+    assertThat(streamedQueryResult.columnTypes(), is(DEFAULT_COLUMN_TYPES));
+
+    for (int i = 0; i < DEFAULT_JSON_ROWS.size(); i++) {
+      verifyBinaryRowWithIndex(streamedQueryResult.poll(), i);
+    }
+
+    assertThat(streamedQueryResult.queryID(), is(notNullValue()));
+    binaryClient.close();
+  }
+
+  @Test
+  public void shouldExecutePullQueryInBinaryFormat() throws Exception {
+    // Given
+    final Client binaryClient =
+        Client.create(createJavaClientOptions().setUseBinaryQueryFormat(true), vertx);
+
+    // When
+    final BatchedQueryResult batchedQueryResult = binaryClient.executeQuery(DEFAULT_PULL_QUERY);
+
+    // Then
+    final List<Row> rows = batchedQueryResult.get();
+    assertThat(rows, hasSize(DEFAULT_JSON_ROWS.size()));
+    for (int i = 0; i < DEFAULT_JSON_ROWS.size(); i++) {
+      verifyBinaryRowWithIndex(rows.get(i), i);
+    }
+
+    verifyPullQueryServerState();
+    binaryClient.close();
+  }
+
   @Test
   public void shouldExecutePushWithLimitQuery() throws Exception {
     // When
@@ -1443,6 +1485,26 @@ public class ClientTest extends BaseApiTest {
     }
   }
 
+  /**
+   * Rows read in the binary format are the same as those read as JSON, except that decimals are
+   * read as {@code BigDecimal}s rather than doubles.
+   */
+  private static void verifyBinaryRowWithIndex(final Row row, final int index) {
+    assertThat(row.columnNames(), equalTo(DEFAULT_COLUMN_NAMES));
+    assertThat(row.columnTypes(), equalTo(DEFAULT_COLUMN_TYPES));
+    assertThat(row.getString("f_str"), is("foo" + index));
+    assertThat(row.getInteger("f_int"), is(index));
+    assertThat(row.getBoolean("f_bool"), is(index % 2 == 0));
+    assertThat(row.getLong("f_long"), is(Long.valueOf(index) * index));
+    assertThat(row.getDouble("f_double"), is(index + 0.1111));
+    assertThat(row.getValue("f_decimal"), is(BigDecimal.valueOf(index + 0.1)));
+    assertThat(row.getKsqlArray("f_array"), is(new KsqlArray().add("s" + index).add("t" + index)));
+    assertThat(row.getKsqlObject("f_map"), is(new KsqlObject().put("k" + index, "v" + index)));
+    assertThat(row.getKsqlObject("f_struct"),
+        is(new KsqlObject().put("F1", "v" + index).put("F2", index)));
+    assertThat(row.isNull("f_null"), is(true));
+  }
+
   private static void verifyRowWithIndex(final Row row, final int index) {
     // verify metadata
     assertThat(row.values(), equalTo(EXPECTED_ROWS.get(index)));
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.api.client.impl;
+
+import static io.confluent.ksql.rest.QueryStreamBinaryFormat.FRAME_SIZE_SIZE;
+import static io.confluent.ksql.rest.QueryStreamBinaryFormat.ROW_FRAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.api.server.BinaryQueryStreamResponseWriter;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BinaryRowDecoderTest {
+
+  private static final Schema INNER_SCHEMA = SchemaBuilder.struct()
+      .field("X", Schema.OPTIONAL_STRING_SCHEMA)
+      .optional()
+      .build();
+
+  private static final Schema OUTER_SCHEMA = SchemaBuilder.struct()
+      .field("A", Schema.OPTIONAL_INT32_SCHEMA)
+      .field("B", SchemaBuilder
+          .array(SchemaBuilder.map(Schema.OPTIONAL_STRING_SCHEMA, INNER_SCHEMA).optional().build())
+          .optional()
+          .build())
+      .optional()
+      .build();
+
+  @Mock
+  private HttpServerResponse response;
+
+  private BinaryQueryStreamResponseWriter writer;
+
+  @Before
+  public void setUp() {
+    writer = new BinaryQueryStreamResponseWriter(response);
+  }
+
+  @Test
+  public void shouldRoundTripEmptyRow() {
+    // When:
+    final JsonArray decoded = roundTrip(new GenericRow());
+
+    // Then:
+    assertThat(decoded, is(new JsonArray()));
+  }
+
+  @Test
+  public void shouldRoundTripPrimitives() {
+    // When:
+    final JsonArray decoded = roundTrip(GenericRow.genericRow(
+        true, 1, 2L, 3.5, "four", null, (short) 5, (byte) 6, 7.5f));
+
+    // Then:
+    assertThat(decoded, is(new JsonArray(Arrays.asList(
+        true, 1, 2L, 3.5, "four", null, 5, 6, 7.5))));
+  }
+
+  @Test
+  public void shouldRoundTripDecimals() {
+    // Given:
+    final BigDecimal scaled = new BigDecimal("123.4500");
+    final BigDecimal negative = new BigDecimal("-98765432109876543210.123");
+    final BigDecimal unscaled = new BigDecimal("0");
+
+    // When:
+    final JsonArray decoded = roundTrip(GenericRow.genericRow(scaled, negative, unscaled));
+
+    // Then:
+    assertThat(decoded.getValue(0), is(scaled));
+    assertThat(decoded.getValue(1), is(negative));
+    assertThat(decoded.getValue(2), is(unscaled));
+  }
+
+  @Test
+  public void shouldRoundTripNullMapKeysAndValues() {
+    // Given:
+    final Map<String, Object> map = new HashMap<>();
+    map.put(null, 1);
+    map.put("a", null);
+
+    // When:
+    final JsonArray decoded = roundTrip(GenericRow.genericRow(map));
+
+    // Then:
+    final Map<String, Object> expected = new HashMap<>();
+    expected.put(null, 1);
+    expected.put("a", null);
+    assertThat(decoded.getJsonObject(0).getMap(), is(expected));
+  }
+
+  @Test
+  public void shouldRoundTripNestedStructArrayAndMap() {
+    // Given:
+    final Struct struct = new Struct(OUTER_SCHEMA)
+        .put("A", 1)
+        .put("B", Arrays.asList(
+            Collections.singletonMap("k", new Struct(INNER_SCHEMA).put("X", "v")),
+            null
+        ));
+
+    // When:
+    final JsonArray decoded = roundTrip(GenericRow.genericRow(struct));
+
+    // Then:
+    final Map<String, Object> inner = new LinkedHashMap<>();
+    inner.put("k", new JsonObject().put("X", "v"));
+    assertThat(decoded, is(new JsonArray().add(new JsonObject()
+        .put("A", 1)
+        .put("B", new JsonArray().add(new JsonObject(inner)).addNull()))));
+  }
+
+  private JsonArray roundTrip(final GenericRow row) {
+    writer.writeRow(row);
+
+    final ArgumentCaptor<Buffer> written = ArgumentCaptor.forClass(Buffer.class);
+    verify(response).write(written.capture());
+    final Buffer frame = written.getValue();
+
+    assertThat(frame.getInt(0), is(frame.length() - FRAME_SIZE_SIZE));
+    assertThat(frame.getByte(FRAME_SIZE_SIZE), is(ROW_FRAME));
+    return BinaryRowDecoder.decodeRow(frame.slice(FRAME_SIZE_SIZE, frame.length()));
+  }
+}
@@ -63,6 +63,12 @@ public class ClientOptionsImplTest {
         .addEqualityGroup(
             ClientOptions.create().setExecuteQueryMaxResultRows(10)
         )
+        .addEqualityGroup(
+            ClientOptions.create().setUseBinaryQueryFormat(true)
+        )
+        .addEqualityGroup(
+            ClientOptions.create().setUsePartitionAwareRouting(true)
+        )
         .testEquals();
   }
 
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.api.client.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PullQueryRouterTest {
+
+  private static final int NUM_PARTITIONS = 6;
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<String> fetched = new ArrayList<>();
+  private CompletableFuture<JsonObject> routing;
+  private PullQueryRouter router;
+
+  @Before
+  public void setUp() {
+    routing = CompletableFuture.completedFuture(routing("ID", "BIGINT", "KAFKA"));
+    router = new PullQueryRouter(
+        table -> {
+          fetched.add(table);
+          return routing;
+        },
+        clock::get
+    );
+  }
+
+  @Test
+  public void shouldPartitionKeysAsKafkaDoes() {
+    // Given:
+    final byte[] longKey = new LongSerializer().serialize("t", 10L);
+    final byte[] stringKey = new StringSerializer().serialize("t", "foobar");
+
+    // Then:
+    assertThat(KeyPartitioner.partition(longKey, NUM_PARTITIONS), is(kafkaPartition(longKey)));
+    assertThat(KeyPartitioner.partition(stringKey, NUM_PARTITIONS), is(kafkaPartition(stringKey)));
+  }
+
+  @Test
+  public void shouldSerializeKafkaKeysAsKafkaDoes() {
+    assertThat(KeyPartitioner.serialize("KAFKA", "BIGINT", 10L).get(),
+        is(new LongSerializer().serialize("t", 10L)));
+    assertThat(KeyPartitioner.serialize("KAFKA", "STRING", "foo").get(),
+        is(new StringSerializer().serialize("t", "foo")));
+  }
+
+  @Test
+  public void shouldSerializeJsonKeys() {
+    assertThat(KeyPartitioner.serialize("JSON", "STRING", "foo").get(),
+        is("\"foo\"".getBytes(StandardCharsets.UTF_8)));
+    assertThat(KeyPartitioner.serialize("JSON", "INTEGER", 10).get(),
+        is("10".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void shouldNotRouteBeforeRoutingIsFetched() {
+    // When:
+    final List<SocketAddress> hosts = router.route("SELECT * FROM t WHERE id = 10;");
+
+    // Then:
+    assertThat(hosts, is(empty()));
+    assertThat(fetched, contains("T"));
+  }
+
+  @Test
+  public void shouldRouteToHostsOfPartitionOfKey() {
+    // Given:
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // When:
+    final List<SocketAddress> hosts = router.route("SELECT * FROM t WHERE id = 10;");
+
+    // Then:
+    final int partition = kafkaPartition(new LongSerializer().serialize("t", 10L));
+    assertThat(hosts, contains(host(partition, 0), host(partition, 1)));
+    assertThat(fetched, contains("T"));
+  }
+
+  @Test
+  public void shouldRouteStringKeysOfQuotedTables() {
+    // Given:
+    routing = CompletableFuture.completedFuture(routing("name", "STRING", "KAFKA"));
+    router.route("SELECT * FROM `t` WHERE `name` = 'it''s';");
+
+    // When:
+    final List<SocketAddress> hosts = router.route("select *\nfrom `t`\nwhere `name`='it''s'");
+
+    // Then:
+    final int partition = kafkaPartition(new StringSerializer().serialize("t", "it's"));
+    assertThat(hosts, contains(host(partition, 0), host(partition, 1)));
+    assertThat(fetched, contains("t"));
+  }
+
+  @Test
+  public void shouldNotRouteQueriesThatAreNotKeyLookups() {
+    // Given:
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // Then:
+    assertThat(router.route("SELECT * FROM t WHERE other = 10;"), is(empty()));
+    assertThat(router.route("SELECT * FROM t WHERE id = 'ten';"), is(empty()));
+    assertThat(router.route("SELECT * FROM t WHERE id = 10 AND other = 1;"), is(empty()));
+    assertThat(router.route("SELECT * FROM t WHERE id = 10 EMIT CHANGES;"), is(empty()));
+    assertThat(router.route("SELECT * FROM t;"), is(empty()));
+  }
+
+  @Test
+  public void shouldNotRouteWindowedTables() {
+    // Given:
+    routing = CompletableFuture.completedFuture(
+        routing("ID", "BIGINT", "KAFKA").put("windowed", true));
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // Then:
+    assertThat(router.route("SELECT * FROM t WHERE id = 10;"), is(empty()));
+  }
+
+  @Test
+  public void shouldNotRouteIfRoutingCanNotBeFetched() {
+    // Given:
+    routing = new CompletableFuture<>();
+    routing.completeExceptionally(new RuntimeException("Boom"));
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // Then:
+    assertThat(router.route("SELECT * FROM t WHERE id = 10;"), is(empty()));
+    assertThat(fetched, contains("T"));
+  }
+
+  @Test
+  public void shouldRefreshRoutingOnlyOnceIntervalHasPassed() {
+    // Given:
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // When:
+    clock.set(PullQueryRouter.REFRESH_INTERVAL_MS - 1);
+    router.route("SELECT * FROM t WHERE id = 10;");
+    clock.set(PullQueryRouter.REFRESH_INTERVAL_MS);
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // Then:
+    assertThat(fetched, contains("T", "T"));
+  }
+
+  @Test
+  public void shouldNotFetchTableAgainWhileFetching() {
+    // Given:
+    routing = new CompletableFuture<>();
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // When:
+    router.route("SELECT * FROM t WHERE id = 11;");
+
+    // Then:
+    assertThat(fetched, contains("T"));
+  }
+
+  @Test
+  public void shouldDropRoutingOfFailedHost() {
+    // Given:
+    router.route("SELECT * FROM t WHERE id = 10;");
+
+    // When:
+    router.hostFailed(host(0, 1));
+
+    // Then:
+    assertThat(router.route("SELECT * FROM t WHERE id = 10;"), is(empty()));
+    assertThat(fetched, contains("T", "T"));
+  }
+
+  private static JsonObject routing(
+      final String keyColumn,
+      final String keyType,
+      final String keyFormat
+  ) {
+    final JsonArray partitionHosts = new JsonArray();
+    for (int partition = 0; partition != NUM_PARTITIONS; ++partition) {
+      partitionHosts.add(new JsonArray()
+          .add("http://host" + partition + "-0:8088")
+          .add("http://host" + partition + "-1:8088"));
+    }
+
+    return new JsonObject()
+        .put("table", "T")
+        .put("keyColumn", keyColumn)
+        .put("keyType", keyType)
+        .put("keyFormat", keyFormat)
+        .put("windowed", false)
+        .put("partitionHosts", partitionHosts);
+  }
+
+  private static SocketAddress host(final int partition, final int replica) {
+    return SocketAddress.inetSocketAddress(8088, "host" + partition + "-" + replica);
+  }
+
+  private static int kafkaPartition(final byte[] key) {
+    return Utils.toPositive(Utils.murmur2(key)) % NUM_PARTITIONS;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.benchmark;
+
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.function.udaf.KudafAggregator;
+import io.confluent.ksql.function.AggregateFunctionInitArguments;
+import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.function.InternalFunctionRegistry;
+import io.confluent.ksql.function.KsqlAggregateFunction;
+import io.confluent.ksql.function.UdafAggregateFunction;
+import io.confluent.ksql.function.udaf.average.AverageUdaf;
+import io.confluent.ksql.name.FunctionName;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks the records per second the aggregator of an aggregation step aggregates, for
+ * combinations of the built-in numeric aggregate functions, both copying the aggregate row,
+ * as when aggregating into a Kafka Streams store, and updating it in place, as when combining
+ * records into partial aggregates. Aggregations only update in place when
+ * {@code ksql.query.aggregate.combine.enabled} is set, and then only before the repartition.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(3)
+public class KudafAggregatorBenchmark {
+
+  private static final int NUM_ROWS = 1024;
+
+  @State(Scope.Thread)
+  public static class AggregatorState {
+
+    @Param({"SUM", "COUNT", "MIN,MAX", "AVG", "SUM,COUNT,MIN,MAX,AVG"})
+    public String functions;
+
+    private final List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    private KudafAggregator<Struct> aggregator;
+    private Aggregator<Struct, GenericRow, GenericRow> inPlaceAggregator;
+    private GenericRow aggregate;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      final FunctionRegistry functionRegistry = new InternalFunctionRegistry();
+      final List<KsqlAggregateFunction<?, ?, ?>> aggregateFunctions = new ArrayList<>();
+      for (final String name : functions.split(",")) {
+        // Rows are (GROUP_KEY, VALUE), and every function aggregates VALUE:
+        final AggregateFunctionInitArguments initArgs = new AggregateFunctionInitArguments(1);
+        aggregateFunctions.add(name.equals("AVG")
+            ? averageLong(initArgs)
+            : functionRegistry.getAggregateFunction(
+                FunctionName.of(name), SqlTypes.BIGINT, initArgs));
+      }
+
+      aggregator = new KudafAggregator<>(1, aggregateFunctions);
+      inPlaceAggregator = aggregator.getInPlaceAggregator();
+
+      aggregate = new GenericRow(1 + aggregateFunctions.size()).append(null);
+      for (final KsqlAggregateFunction<?, ?, ?> function : aggregateFunctions) {
+        aggregate.append(function.getInitialValueSupplier().get());
+      }
+
+      final Random random = new Random(0);
+      rows.clear();
+      for (int i = 0; i < NUM_ROWS; i++) {
+        rows.add(GenericRow.genericRow("key", random.nextLong() % 1_000_000));
+      }
+    }
+
+    private GenericRow nextRow() {
+      next = (next + 1) & (NUM_ROWS - 1);
+      return rows.get(next);
+    }
+
+    /**
+     * AVG is a UDAF, which the function registry only has once the UDAFs on the class path are
+     * loaded, and the benchmark jar is not scanned for them, so build the function directly.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static KsqlAggregateFunction<?, ?, ?> averageLong(
+        final AggregateFunctionInitArguments initArgs
+    ) {
+      return new UdafAggregateFunction(
+          "AVG",
+          initArgs.udafIndex(),
+          AverageUdaf.averageLong(),
+          SqlTypes.struct()
+              .field("SUM", SqlTypes.BIGINT)
+              .field("COUNT", SqlTypes.BIGINT)
+              .build(),
+          SqlTypes.DOUBLE,
+          Collections.emptyList(),
+          "",
+          Optional.empty(),
+          "averageLong"
+      ) {
+      };
+    }
+  }
+
+  @Benchmark
+  public GenericRow aggregate(final AggregatorState state) {
+    state.aggregate = state.aggregator.apply(null, state.nextRow(), state.aggregate);
+    return state.aggregate;
+  }
+
+  @Benchmark
+  public GenericRow aggregateInPlace(final AggregatorState state) {
+    return state.inPlaceAggregator.apply(null, state.nextRow(), state.aggregate);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+        .include(KudafAggregatorBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
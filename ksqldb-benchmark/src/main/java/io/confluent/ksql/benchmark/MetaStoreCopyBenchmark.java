@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.execution.ddl.commands.KsqlTopic;
+import io.confluent.ksql.function.InternalFunctionRegistry;
+import io.confluent.ksql.metastore.MetaStoreImpl;
+import io.confluent.ksql.metastore.MutableMetaStore;
+import io.confluent.ksql.metastore.model.DataSource;
+import io.confluent.ksql.metastore.model.KsqlStream;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.name.SourceName;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import io.confluent.ksql.serde.FormatFactory;
+import io.confluent.ksql.serde.FormatInfo;
+import io.confluent.ksql.serde.KeyFormat;
+import io.confluent.ksql.serde.SerdeFeatures;
+import io.confluent.ksql.serde.ValueFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks copying the metastore, as is done for the sandbox each statement is validated in,
+ * for catalogs of different sizes, both on its own and followed by the changes validating a
+ * {@code CREATE STREAM AS SELECT} makes to the copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(3)
+public class MetaStoreCopyBenchmark {
+
+  private static final LogicalSchema SCHEMA = LogicalSchema.builder()
+      .keyColumn(ColumnName.of("K"), SqlTypes.STRING)
+      .valueColumn(ColumnName.of("V"), SqlTypes.BIGINT)
+      .build();
+
+  @State(Scope.Thread)
+  public static class MetaStoreState {
+
+    @Param({"10", "1000", "10000"})
+    public int numSources;
+
+    private MutableMetaStore metaStore;
+    private DataSource newSource;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      metaStore = new MetaStoreImpl(new InternalFunctionRegistry());
+      for (int i = 0; i < numSources; i++) {
+        final DataSource source = source("S" + i);
+        metaStore.putSource(source, false);
+        // Each source but the first is written by a query reading the source before it:
+        if (i > 0) {
+          metaStore.updateForPersistentQuery(
+              "CSAS_S" + i,
+              ImmutableSet.of(SourceName.of("S" + (i - 1))),
+              ImmutableSet.of(source.getName()));
+        }
+      }
+      newSource = source("NEW");
+    }
+
+    private static DataSource source(final String name) {
+      return new KsqlStream<>(
+          "",
+          SourceName.of(name),
+          SCHEMA,
+          Optional.empty(),
+          true,
+          new KsqlTopic(
+              name,
+              KeyFormat.nonWindowed(FormatInfo.of(FormatFactory.KAFKA.name()), SerdeFeatures.of()),
+              ValueFormat.of(FormatInfo.of(FormatFactory.JSON.name()), SerdeFeatures.of())
+          )
+      );
+    }
+  }
+
+  @Benchmark
+  public MutableMetaStore copy(final MetaStoreState state) {
+    return state.metaStore.copy();
+  }
+
+  @Benchmark
+  public MutableMetaStore copyAndCreateStreamAsSelect(final MetaStoreState state) {
+    final MutableMetaStore sandbox = state.metaStore.copy();
+    sandbox.putSource(state.newSource, false);
+    sandbox.updateForPersistentQuery(
+        "CSAS_NEW",
+        ImmutableSet.of(SourceName.of("S0")),
+        ImmutableSet.of(state.newSource.getName()));
+    return sandbox;
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+        .include(MetaStoreCopyBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.metrics.ConsumerCollector;
+import io.confluent.ksql.metrics.ProducerCollector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of the metric collectors the consumers and producers of queries are
+ * intercepted by, with a collector shared by all threads, as a shared producer's is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 4, time = 10)
+@Measurement(iterations = 4, time = 10)
+@Threads(4)
+@Fork(3)
+public class MetricCollectorsBenchmark {
+
+  private static final String TOPIC = "Benchmark-Topic";
+
+  @State(Scope.Benchmark)
+  public static class CollectorState {
+
+    @Param({"4"})
+    public int numPartitions;
+
+    @Param({"500"})
+    public int recordsPerPartition;
+
+    ConsumerCollector consumerCollector;
+    ProducerCollector producerCollector;
+    ConsumerRecords<Object, Object> consumerRecords;
+    ProducerRecord<Object, Object> producerRecord;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      consumerCollector = new ConsumerCollector();
+      consumerCollector.configure(ImmutableMap.of(ConsumerConfig.GROUP_ID_CONFIG, "benchmark"));
+      producerCollector = new ProducerCollector();
+      producerCollector.configure(ImmutableMap.of(ProducerConfig.CLIENT_ID_CONFIG, "benchmark"));
+
+      final Map<TopicPartition, List<ConsumerRecord<Object, Object>>> records = new HashMap<>();
+      for (int partition = 0; partition < numPartitions; partition++) {
+        final List<ConsumerRecord<Object, Object>> batch = new ArrayList<>();
+        for (int offset = 0; offset < recordsPerPartition; offset++) {
+          batch.add(new ConsumerRecord<>(TOPIC, partition, offset, 1L,
+              TimestampType.CREATE_TIME, 1L, 8, 64, "key", "value"));
+        }
+        records.put(new TopicPartition(TOPIC, partition), batch);
+      }
+      consumerRecords = new ConsumerRecords<>(records);
+      producerRecord = new ProducerRecord<>(TOPIC, 0, "key", "value");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      consumerCollector.close();
+      producerCollector.close();
+    }
+  }
+
+  @Benchmark
+  public ConsumerRecords<Object, Object> consume(final CollectorState state) {
+    return state.consumerCollector.onConsume(state.consumerRecords);
+  }
+
+  @Benchmark
+  public ProducerRecord<Object, Object> send(final CollectorState state) {
+    return state.producerCollector.onSend(state.producerRecord);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+        .include(MetricCollectorsBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.confluent.ksql.function.InternalFunctionRegistry;
+import io.confluent.ksql.metastore.MetaStoreImpl;
+import io.confluent.ksql.metastore.TypeRegistry;
+import io.confluent.ksql.parser.DefaultKsqlParser;
+import io.confluent.ksql.parser.KsqlParser;
+import io.confluent.ksql.parser.KsqlParser.ParsedStatement;
+import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarks parsing statements, and building the AST of parsed statements, which is the work the
+ * engine's statement cache saves when the same statement is sent again.
+ *
+ * <p>The statements are those of the query-validation tests of the functional tests, read from
+ * {@value #DEFAULT_CORPUS_DIR} relative to the working directory, or from the directory set in the
+ * {@value #CORPUS_DIR_PROPERTY} system property. Each invocation handles the next statement, so
+ * the results are the average over all the statements that parse and prepare successfully.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(3)
+public class ParserBenchmark {
+
+  static final String CORPUS_DIR_PROPERTY = "ksql.benchmark.parser.corpus.dir";
+  static final String DEFAULT_CORPUS_DIR =
+      "ksqldb-functional-tests/src/test/resources/query-validation-tests";
+
+  @State(Scope.Thread)
+  public static class CorpusState {
+
+    private final KsqlParser parser = new DefaultKsqlParser();
+    private final TypeRegistry typeRegistry = new MetaStoreImpl(new InternalFunctionRegistry());
+    private List<String> statements;
+    private List<ParsedStatement> parsed;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      statements = new ArrayList<>();
+      parsed = new ArrayList<>();
+      for (final String sql : readCorpus()) {
+        try {
+          final List<ParsedStatement> stmts = parser.parse(sql);
+          if (stmts.size() != 1) {
+            continue;
+          }
+          parser.prepare(stmts.get(0), typeRegistry);
+          statements.add(sql);
+          parsed.add(stmts.get(0));
+        } catch (final Exception e) {
+          // Skip statements that are expected to fail, or that use placeholders or variables:
+        }
+      }
+
+      if (statements.isEmpty()) {
+        throw new IllegalStateException("No statements in corpus");
+      }
+    }
+
+    private int nextIndex() {
+      next = (next + 1) % statements.size();
+      return next;
+    }
+
+    private static List<String> readCorpus() throws IOException {
+      final Path dir = Paths.get(System.getProperty(CORPUS_DIR_PROPERTY, DEFAULT_CORPUS_DIR));
+      final ObjectMapper mapper = new ObjectMapper();
+      final List<String> sql = new ArrayList<>();
+      final List<Path> files;
+      try (Stream<Path> paths = Files.list(dir)) {
+        files = paths
+            .filter(path -> path.toString().endsWith(".json"))
+            .sorted()
+            .collect(Collectors.toList());
+      }
+
+      for (final Path file : files) {
+        for (final JsonNode test : mapper.readTree(file.toFile()).path("tests")) {
+          test.path("statements").forEach(statement -> sql.add(statement.asText()));
+        }
+      }
+      return sql;
+    }
+  }
+
+  @Benchmark
+  public List<ParsedStatement> parse(final CorpusState state) {
+    return state.parser.parse(state.statements.get(state.nextIndex()));
+  }
+
+  @Benchmark
+  public PreparedStatement<?> prepare(final CorpusState state) {
+    return state.parser.prepare(state.parsed.get(state.nextIndex()), state.typeRegistry);
+  }
+
+  @Benchmark
+  public PreparedStatement<?> parseAndPrepare(final CorpusState state) {
+    final ParsedStatement parsed = state.parser
+        .parse(state.statements.get(state.nextIndex()))
+        .get(0);
+    return state.parser.prepare(parsed, state.typeRegistry);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+        .include(ParserBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
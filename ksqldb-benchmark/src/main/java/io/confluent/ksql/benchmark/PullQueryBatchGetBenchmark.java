@@ -0,0 +1,258 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.streams.materialization.MaterializedTable;
+import io.confluent.ksql.execution.streams.materialization.ks.KsMaterializationFactory;
+import io.confluent.ksql.execution.util.StructKeyUtil;
+import io.confluent.ksql.execution.util.StructKeyUtil.KeyBuilder;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import io.confluent.ksql.util.KsqlConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading the keys of a pull query's {@code IN} list from a materialized table one at a
+ * time with reading them as a single batch.
+ *
+ * <p>The Kafka Streams instance is never started: its state store is replaced with a sorted
+ * in-memory store keyed on the serialized key, as RocksDB is. Each store lookup creates a new
+ * wrapper, as Kafka Streams does, so the cost of resolving the store is included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 4, time = 10)
+@Measurement(iterations = 4, time = 10)
+@Threads(4)
+@Fork(3)
+public class PullQueryBatchGetBenchmark {
+
+  private static final int NUM_ROWS = 100_000;
+  private static final int PARTITION = 0;
+  private static final ColumnName KEY_COLUMN = ColumnName.of("K");
+
+  private static final LogicalSchema SCHEMA = LogicalSchema.builder()
+      .keyColumn(KEY_COLUMN, SqlTypes.STRING)
+      .valueColumn(ColumnName.of("V0"), SqlTypes.BIGINT)
+      .valueColumn(ColumnName.of("V1"), SqlTypes.STRING)
+      .build();
+
+  @State(Scope.Thread)
+  public static class BatchGetState {
+
+    @Param({"1", "100", "1000"})
+    public int numKeys;
+
+    private StubKafkaStreams kafkaStreams;
+    private MaterializedTable table;
+    private List<Struct> keys;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      final KeyBuilder keyBuilder = StructKeyUtil.keyBuilder(KEY_COLUMN, SqlTypes.STRING);
+      final Serializer<Struct> keySerializer = new StringKeySerializer();
+
+      final TreeMap<Bytes, ValueAndTimestamp<GenericRow>> rows = new TreeMap<>();
+      for (int i = 0; i != NUM_ROWS; ++i) {
+        final Struct key = keyBuilder.build("key-" + i);
+        rows.put(
+            Bytes.wrap(keySerializer.serialize(null, key)),
+            ValueAndTimestamp.make(GenericRow.genericRow((long) i, "value-" + i), i)
+        );
+      }
+
+      // IN lists rarely arrive in store order:
+      final Random random = new Random(42);
+      keys = new ArrayList<>(numKeys);
+      for (int i = 0; i != numKeys; ++i) {
+        keys.add(keyBuilder.build("key-" + random.nextInt(NUM_ROWS)));
+      }
+
+      kafkaStreams = new StubKafkaStreams(rows, keySerializer);
+
+      table = new KsMaterializationFactory()
+          .create(
+              "store",
+              kafkaStreams,
+              SCHEMA,
+              keySerializer,
+              Optional.empty(),
+              ImmutableMap.of(StreamsConfig.APPLICATION_SERVER_CONFIG, "http://localhost:8088"),
+              new KsqlConfig(Collections.emptyMap()),
+              "benchmark"
+          )
+          .orElseThrow(IllegalStateException::new)
+          .nonWindowed();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      kafkaStreams.close();
+    }
+  }
+
+  @Benchmark
+  public void perKeyGet(final BatchGetState state, final Blackhole blackhole) {
+    for (final Struct key : state.keys) {
+      blackhole.consume(state.table.get(key, PARTITION));
+    }
+  }
+
+  @Benchmark
+  public void batchGet(final BatchGetState state, final Blackhole blackhole) {
+    blackhole.consume(state.table.get(state.keys, PARTITION));
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    final Options opt = new OptionsBuilder()
+        .include(PullQueryBatchGetBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  /**
+   * Serializes the single STRING key column as the KAFKA format does.
+   */
+  private static final class StringKeySerializer implements Serializer<Struct> {
+
+    @Override
+    public byte[] serialize(final String topic, final Struct key) {
+      return key.getString(KEY_COLUMN.text()).getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  private static final class StubKafkaStreams extends KafkaStreams {
+
+    private final Map<Bytes, ValueAndTimestamp<GenericRow>> rows;
+    private final Serializer<Struct> keySerializer;
+
+    StubKafkaStreams(
+        final Map<Bytes, ValueAndTimestamp<GenericRow>> rows,
+        final Serializer<Struct> keySerializer
+    ) {
+      super(topology(), properties());
+      this.rows = rows;
+      this.keySerializer = keySerializer;
+    }
+
+    @Override
+    public State state() {
+      return State.RUNNING;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T store(final StoreQueryParameters<T> storeQueryParameters) {
+      return (T) new InMemoryStore(rows, keySerializer);
+    }
+
+    private static Topology topology() {
+      final StreamsBuilder builder = new StreamsBuilder();
+      builder.stream("source");
+      return builder.build();
+    }
+
+    private static Properties properties() {
+      final Properties props = new Properties();
+      props.put(StreamsConfig.APPLICATION_ID_CONFIG, "pull-query-batch-get-benchmark");
+      props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+      props.put(StreamsConfig.STATE_DIR_CONFIG, Files.createTempDir().getAbsolutePath());
+      return props;
+    }
+  }
+
+  private static final class InMemoryStore
+      implements ReadOnlyKeyValueStore<Struct, ValueAndTimestamp<GenericRow>> {
+
+    private final Map<Bytes, ValueAndTimestamp<GenericRow>> rows;
+    private final Serializer<Struct> keySerializer;
+
+    InMemoryStore(
+        final Map<Bytes, ValueAndTimestamp<GenericRow>> rows,
+        final Serializer<Struct> keySerializer
+    ) {
+      this.rows = rows;
+      this.keySerializer = keySerializer;
+    }
+
+    @Override
+    public ValueAndTimestamp<GenericRow> get(final Struct key) {
+      return rows.get(Bytes.wrap(keySerializer.serialize(null, key)));
+    }
+
+    @Override
+    public KeyValueIterator<Struct, ValueAndTimestamp<GenericRow>> range(
+        final Struct from,
+        final Struct to
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public KeyValueIterator<Struct, ValueAndTimestamp<GenericRow>> all() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long approximateNumEntries() {
+      return rows.size();
+    }
+  }
+}
@@ -32,6 +32,7 @@ import io.confluent.ksql.serde.GenericRowSerDe;
 import io.confluent.ksql.serde.SerdeFeature;
 import io.confluent.ksql.serde.SerdeFeatures;
 import io.confluent.ksql.serde.avro.AvroFormat;
+import io.confluent.ksql.serde.json.JsonFormat;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.Pair;
 import java.io.FileNotFoundException;
@@ -39,7 +40,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
@@ -90,7 +90,11 @@ public class SerdeBenchmark {
   private static final String SEPARATOR = "/";
 
   private static final String JSON_FORMAT = "JSON";
+  // JSON, deserialized by first reading each value into a tree:
+  private static final String JSON_TREE_FORMAT = "JSON_TREE";
   private static final String AVRO_FORMAT = "Avro";
+  // Avro, deserialized through Connect rather than straight to ksqlDB values:
+  private static final String AVRO_CONNECT_FORMAT = "AVRO_CONNECT";
   private static final String PROTOBUF_FORMAT = "Protobuf";
   private static final String DELIMITED_FORMAT = "Delimited";
   private static final String KAFKA_FORMAT = "Kafka";
@@ -129,19 +133,25 @@ public class SerdeBenchmark {
         SINGLE_KEY_SCHEMA + SEPARATOR + KAFKA_FORMAT,
         // SINGLE_KEY + PROTOBUF excluded as PB isn't yet supported for single key schemas
         SINGLE_KEY_SCHEMA + SEPARATOR + JSON_FORMAT,
+        SINGLE_KEY_SCHEMA + SEPARATOR + JSON_TREE_FORMAT,
         SINGLE_KEY_SCHEMA + SEPARATOR + AVRO_FORMAT,
+        SINGLE_KEY_SCHEMA + SEPARATOR + AVRO_CONNECT_FORMAT,
 
         IMPRESSIONS_SCHEMA + SEPARATOR + DELIMITED_FORMAT,
         // IMPRESSIONS + KAFKA excluded as KAFKA does not support multiple columns
         IMPRESSIONS_SCHEMA + SEPARATOR + PROTOBUF_FORMAT,
         IMPRESSIONS_SCHEMA + SEPARATOR + JSON_FORMAT,
+        IMPRESSIONS_SCHEMA + SEPARATOR + JSON_TREE_FORMAT,
         IMPRESSIONS_SCHEMA + SEPARATOR + AVRO_FORMAT,
+        IMPRESSIONS_SCHEMA + SEPARATOR + AVRO_CONNECT_FORMAT,
 
         // METRICS + DELIMITED_FORMAT excluded as DELIMITED does not support complex types
         // METRICS + KAFKA excluded as KAFKA does not support multiple columns
         METRICS_SCHEMA + SEPARATOR + PROTOBUF_FORMAT,
         METRICS_SCHEMA + SEPARATOR + JSON_FORMAT,
-        METRICS_SCHEMA + SEPARATOR + AVRO_FORMAT
+        METRICS_SCHEMA + SEPARATOR + JSON_TREE_FORMAT,
+        METRICS_SCHEMA + SEPARATOR + AVRO_FORMAT,
+        METRICS_SCHEMA + SEPARATOR + AVRO_CONNECT_FORMAT
     })
     public String params;
 
@@ -200,7 +210,11 @@ public class SerdeBenchmark {
     }
 
     private static FormatInfo getFormatInfo(final String formatName) {
-      if (AvroFormat.NAME.equals(formatName)) {
+      if (JSON_TREE_FORMAT.equals(formatName)) {
+        return FormatInfo.of(JsonFormat.NAME);
+      }
+
+      if (AvroFormat.NAME.equals(formatName) || AVRO_CONNECT_FORMAT.equals(formatName)) {
         return FormatInfo.of(
             FormatFactory.AVRO.name(),
             ImmutableMap.of(AvroFormat.FULL_SCHEMA_NAME, "benchmarkSchema")
@@ -210,6 +224,15 @@ public class SerdeBenchmark {
       return FormatInfo.of(formatName);
     }
 
+    private static KsqlConfig getKsqlConfig(final String formatName) {
+      return new KsqlConfig(ImmutableMap.of(
+          KsqlConfig.KSQL_JSON_STREAMING_DESERIALIZER_ENABLED,
+          !JSON_TREE_FORMAT.equals(formatName),
+          KsqlConfig.KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED,
+          !AVRO_CONNECT_FORMAT.equals(formatName)
+      ));
+    }
+
     private static Serde<Struct> getGenericKeySerde(
         final LogicalSchema schema,
         final String formatName
@@ -224,7 +247,7 @@ public class SerdeBenchmark {
       return new GenericKeySerDe().create(
           formatInfo,
           persistenceSchema,
-          new KsqlConfig(Collections.emptyMap()),
+          getKsqlConfig(formatName),
           () -> srClient,
           "benchmark",
           ProcessingLogContext.create(),
@@ -243,7 +266,7 @@ public class SerdeBenchmark {
       return GenericRowSerDe.from(
           format,
           PersistenceSchema.from(schema.value(), SerdeFeatures.of()),
-          new KsqlConfig(Collections.emptyMap()),
+          getKsqlConfig(formatName),
           () -> srClient,
           "benchmark",
           ProcessingLogContext.create()
@@ -50,6 +50,8 @@ public class UdfInvokerBenchmark {
 
     private PluggableUdf simple;
     private PluggableUdf varargs;
+    private PluggableUdf reflectiveSimple;
+    private PluggableUdf reflectiveVarargs;
     private Method simpleMethod;
     private Method varArgsMethod;
 
@@ -57,8 +59,12 @@ public class UdfInvokerBenchmark {
     public void setUp() {
       simpleMethod = createMethod("simpleMethod", int.class);
       varArgsMethod = createMethod("varArgsMethod", int.class, long[].class);
-      simple = createPluggableUdf(simpleMethod);
-      varargs = createPluggableUdf(varArgsMethod);
+      simple = createPluggableUdf(FunctionLoaderUtils.createFunctionInvoker(simpleMethod));
+      varargs = createPluggableUdf(FunctionLoaderUtils.createFunctionInvoker(varArgsMethod));
+      reflectiveSimple = createPluggableUdf(
+          FunctionLoaderUtils.createReflectiveFunctionInvoker(simpleMethod));
+      reflectiveVarargs = createPluggableUdf(
+          FunctionLoaderUtils.createReflectiveFunctionInvoker(varArgsMethod));
     }
 
     private Method createMethod(final String methodName, final Class<?>... params) {
@@ -69,13 +75,8 @@ public class UdfInvokerBenchmark {
       }
     }
 
-    private PluggableUdf createPluggableUdf(final Method method) {
-      try {
-        final FunctionInvoker invoker = FunctionLoaderUtils.createFunctionInvoker(method);
-        return new PluggableUdf(invoker, this);
-      } catch (final Exception e) {
-        throw new RuntimeException(e);
-      }
+    private PluggableUdf createPluggableUdf(final FunctionInvoker invoker) {
+      return new PluggableUdf(invoker, this);
     }
 
     public int simpleMethod(final int x) {
@@ -115,6 +116,16 @@ public class UdfInvokerBenchmark {
     return (Integer) state.varargs.evaluate(vargs);
   }
 
+  @Benchmark
+  public int invokeSimpleReflective(final UdfInvokerState state) {
+    return (Integer) state.reflectiveSimple.evaluate(1);
+  }
+
+  @Benchmark
+  public int invokeVarargsReflective(final UdfInvokerState state) {
+    return (Integer) state.reflectiveVarargs.evaluate(vargs);
+  }
+
   static Object[] vargs = new Object[]{1, 1L, 2L, 3L, 4L, 5L};
   static long[] vargs2 = new long[] {1L, 2L, 3L, 4L, 5L};
 
@@ -81,6 +81,31 @@ public class ProcessingLogConfig extends AbstractConfig {
   private static final String INCLUDE_ROWS_DOC =
       "Toggles whether or not the processing log should include rows in log messages";
 
+  public static final String ASYNC_BUFFER_SIZE = propertyName("async.buffer.size");
+  private static final int ASYNC_BUFFER_SIZE_DEFAULT = 0;
+  private static final String ASYNC_BUFFER_SIZE_DOC =
+      "If greater than zero, processing log messages are queued in a buffer of this many "
+          + "messages and written by a background thread, rather than by the thread that hit "
+          + "the error. Messages logged while the buffer is full are dropped and counted. "
+          + "If zero, messages are written synchronously.";
+
+  public static final String RATE_LIMIT_PER_SECOND = propertyName("rate.limit.per.second");
+  private static final int RATE_LIMIT_PER_SECOND_DEFAULT = 0;
+  private static final String RATE_LIMIT_PER_SECOND_DOC =
+      "If greater than zero, the number of processing log messages of each type that each "
+          + "query can write per second, with bursts of up to this many messages. Messages "
+          + "over the limit are counted rather than written. If zero, messages are not rate "
+          + "limited.";
+
+  public static final String SUMMARY_INTERVAL_MS = propertyName("summary.interval.ms");
+  private static final long SUMMARY_INTERVAL_MS_DEFAULT = 60000L;
+  private static final String SUMMARY_INTERVAL_MS_DOC = String.format(
+      "If either \"%s\" or \"%s\" is set, the interval, in milliseconds, at which a summary "
+          + "of the processing log messages of each type and query that were rate limited or "
+          + "dropped in the last interval is written to the server log.",
+      ASYNC_BUFFER_SIZE,
+      RATE_LIMIT_PER_SECOND);
+
   private static final ConfigDef CONFIG_DEF = new ConfigDef()
       .define(
           STREAM_AUTO_CREATE,
@@ -124,6 +149,27 @@ public class ProcessingLogConfig extends AbstractConfig {
           false,
           Importance.HIGH,
           INCLUDE_ROWS_DOC
+      ).define(
+          ASYNC_BUFFER_SIZE,
+          Type.INT,
+          ASYNC_BUFFER_SIZE_DEFAULT,
+          ConfigDef.Range.atLeast(0),
+          Importance.LOW,
+          ASYNC_BUFFER_SIZE_DOC
+      ).define(
+          RATE_LIMIT_PER_SECOND,
+          Type.INT,
+          RATE_LIMIT_PER_SECOND_DEFAULT,
+          ConfigDef.Range.atLeast(0),
+          Importance.LOW,
+          RATE_LIMIT_PER_SECOND_DOC
+      ).define(
+          SUMMARY_INTERVAL_MS,
+          Type.LONG,
+          SUMMARY_INTERVAL_MS_DEFAULT,
+          ConfigDef.Range.atLeast(1),
+          Importance.LOW,
+          SUMMARY_INTERVAL_MS_DOC
       );
 
   public static Set<String> configNames() {
@@ -28,6 +28,13 @@ public interface ProcessingLogContext {
    */
   ProcessingLoggerFactory getLoggerFactory();
 
+  /**
+   * Closes the context, writing any processing log messages it has buffered and stopping any
+   * thread it writes them on. Called once no more messages will be logged.
+   */
+  default void close() {
+  }
+
   /**
    * Creates a processing log context that uses the supplied config.
    * @param config the processing log config
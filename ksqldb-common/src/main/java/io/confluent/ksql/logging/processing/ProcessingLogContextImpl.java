@@ -16,16 +16,20 @@
 package io.confluent.ksql.logging.processing;
 
 import io.confluent.common.logging.StructuredLoggerFactory;
+import java.util.Optional;
 
 public final class ProcessingLogContextImpl implements ProcessingLogContext {
   private final ProcessingLogConfig config;
+  private final Optional<ProcessingLogDispatcher> dispatcher;
   private final ProcessingLoggerFactory loggerFactory;
 
   ProcessingLogContextImpl(final ProcessingLogConfig config) {
     this.config = config;
+    this.dispatcher = ProcessingLogDispatcher.create(config);
     this.loggerFactory = new ProcessingLoggerFactoryImpl(
         config,
-        new StructuredLoggerFactory(ProcessingLogConstants.PREFIX)
+        new StructuredLoggerFactory(ProcessingLogConstants.PREFIX),
+        dispatcher
     );
   }
 
@@ -37,4 +41,9 @@ public final class ProcessingLogContextImpl implements ProcessingLogContext {
   public ProcessingLoggerFactory getLoggerFactory() {
     return loggerFactory;
   }
+
+  @Override
+  public void close() {
+    dispatcher.ifPresent(ProcessingLogDispatcher::close);
+  }
 }
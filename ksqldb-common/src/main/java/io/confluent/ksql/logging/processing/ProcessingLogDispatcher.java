@@ -0,0 +1,330 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.logging.processing;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.confluent.ksql.logging.processing.ProcessingLogger.ErrorMessage;
+import io.confluent.ksql.metrics.MetricCollectors;
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.CumulativeSum;
+import org.apache.kafka.common.metrics.stats.Rate;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes processing log messages on behalf of the threads that hit the errors, so that a flood
+ * of errors, e.g. from a bad upstream deploy, does not stall processing.
+ *
+ * <p>The messages of each type from each query are rate limited by a token bucket. Messages over
+ * the limit are counted rather than written. If async, the messages within the limit are queued
+ * in a bounded buffer and written by a background thread. Messages that arrive while the buffer
+ * is full are dropped and counted. A summary of the messages that were not written is logged to
+ * the server log once per summary interval.
+ */
+public final class ProcessingLogDispatcher implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProcessingLogDispatcher.class);
+
+  private static final String METRIC_GROUP = "processing-log";
+  private static final long POLL_MS = 100;
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+
+  private final int ratePerSecond;
+  private final long summaryIntervalMs;
+  private final Optional<BlockingQueue<Runnable>> buffer;
+  private final Time time;
+  private final Metrics metrics;
+  private final Sensor rateLimitedSensor;
+  private final Sensor droppedSensor;
+  private final Map<Key, Counts> counts = new ConcurrentHashMap<>();
+  private final Thread writer;
+  private volatile boolean closed;
+  private long lastSummaryMs;
+
+  /**
+   * @param config the processing log config.
+   * @return a dispatcher, if the config enables async writes or rate limiting.
+   */
+  public static Optional<ProcessingLogDispatcher> create(final ProcessingLogConfig config) {
+    final int bufferSize = config.getInt(ProcessingLogConfig.ASYNC_BUFFER_SIZE);
+    final int ratePerSecond = config.getInt(ProcessingLogConfig.RATE_LIMIT_PER_SECOND);
+    if (bufferSize == 0 && ratePerSecond == 0) {
+      return Optional.empty();
+    }
+
+    final ProcessingLogDispatcher dispatcher = new ProcessingLogDispatcher(
+        bufferSize,
+        ratePerSecond,
+        config.getLong(ProcessingLogConfig.SUMMARY_INTERVAL_MS),
+        Time.SYSTEM,
+        MetricCollectors.getMetrics()
+    );
+    dispatcher.start();
+    return Optional.of(dispatcher);
+  }
+
+  @VisibleForTesting
+  ProcessingLogDispatcher(
+      final int bufferSize,
+      final int ratePerSecond,
+      final long summaryIntervalMs,
+      final Time time,
+      final Metrics metrics
+  ) {
+    this.ratePerSecond = ratePerSecond;
+    this.summaryIntervalMs = summaryIntervalMs;
+    this.buffer = bufferSize == 0
+        ? Optional.empty()
+        : Optional.of(new ArrayBlockingQueue<>(bufferSize));
+    this.time = Objects.requireNonNull(time, "time");
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+    this.lastSummaryMs = time.milliseconds();
+    this.rateLimitedSensor = sensor(
+        "messages-rate-limited",
+        "processing log messages not written as they were over the rate limit"
+    );
+    this.droppedSensor = sensor(
+        "messages-dropped",
+        "processing log messages dropped as the async buffer was full"
+    );
+    this.writer = new Thread(this::run, "ksql-processing-log-writer");
+    this.writer.setDaemon(true);
+  }
+
+  /**
+   * @param loggerName the name of the logger, which starts with the id of the query.
+   * @param logger the logger that writes the messages.
+   * @return a logger that writes the messages through this dispatcher.
+   */
+  public ProcessingLogger wrap(final String loggerName, final ProcessingLogger logger) {
+    final String queryId = loggerName.split("\\.", 2)[0];
+    return msg -> dispatch(queryId, msg, logger);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      writer.join(CLOSE_TIMEOUT_MS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    writeBuffered();
+    metrics.removeSensor(rateLimitedSensor.name());
+    metrics.removeSensor(droppedSensor.name());
+  }
+
+  @VisibleForTesting
+  void dispatch(final String queryId, final ErrorMessage msg, final ProcessingLogger logger) {
+    final Counts keyCounts = counts.computeIfAbsent(
+        new Key(queryId, msg.getClass().getSimpleName()),
+        k -> new Counts(ratePerSecond, time.nanoseconds())
+    );
+    keyCounts.used.set(true);
+
+    if (!keyCounts.tryAcquire(time.nanoseconds())) {
+      keyCounts.rateLimited.increment();
+      rateLimitedSensor.record();
+      return;
+    }
+
+    if (!buffer.isPresent()) {
+      logger.error(msg);
+      return;
+    }
+
+    if (!buffer.get().offer(() -> logger.error(msg))) {
+      keyCounts.dropped.increment();
+      droppedSensor.record();
+    }
+  }
+
+  /**
+   * Write all buffered messages.
+   */
+  @VisibleForTesting
+  void writeBuffered() {
+    if (!buffer.isPresent()) {
+      return;
+    }
+
+    Runnable write;
+    while ((write = buffer.get().poll()) != null) {
+      write(write);
+    }
+  }
+
+  /**
+   * Log a summary of the messages that were not written, if the summary interval has elapsed.
+   */
+  @VisibleForTesting
+  void maybeLogSummary() {
+    final long now = time.milliseconds();
+    if (now - lastSummaryMs < summaryIntervalMs) {
+      return;
+    }
+
+    final long intervalMs = now - lastSummaryMs;
+    lastSummaryMs = now;
+
+    counts.forEach((key, keyCounts) -> {
+      final long rateLimited = keyCounts.rateLimited.sumThenReset();
+      final long dropped = keyCounts.dropped.sumThenReset();
+
+      if (rateLimited + dropped > 0) {
+        LOG.warn("{} occurrences of {} from query {} in the last {} ms were not written to the "
+                + "processing log: {} were over the rate limit of {} per second and {} were "
+                + "dropped as the buffer was full.",
+            rateLimited + dropped, key.errorType, key.queryId, intervalMs,
+            rateLimited, ratePerSecond, dropped);
+      } else if (!keyCounts.used.getAndSet(false)) {
+        // Not used since the last summary, e.g. the query has been terminated:
+        counts.remove(key, keyCounts);
+      }
+    });
+  }
+
+  @VisibleForTesting
+  long notWritten(final String queryId, final ErrorMessage msg) {
+    final Counts keyCounts = counts.get(new Key(queryId, msg.getClass().getSimpleName()));
+    return keyCounts == null ? 0 : keyCounts.rateLimited.sum() + keyCounts.dropped.sum();
+  }
+
+  @VisibleForTesting
+  void start() {
+    writer.start();
+  }
+
+  private void run() {
+    while (!closed) {
+      try {
+        if (buffer.isPresent()) {
+          final Runnable write = buffer.get().poll(POLL_MS, TimeUnit.MILLISECONDS);
+          if (write != null) {
+            write(write);
+          }
+        } else {
+          Thread.sleep(POLL_MS);
+        }
+        maybeLogSummary();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (final Exception e) {
+        LOG.warn("Processing log writer failed", e);
+      }
+    }
+  }
+
+  private static void write(final Runnable write) {
+    try {
+      write.run();
+    } catch (final Exception e) {
+      LOG.warn("Failed to write processing log message", e);
+    }
+  }
+
+  private Sensor sensor(final String name, final String description) {
+    final Sensor sensor = metrics.sensor(METRIC_GROUP + "-" + name);
+    sensor.add(
+        metrics.metricName(name + "-total", METRIC_GROUP, "Total number of " + description),
+        new CumulativeSum()
+    );
+    sensor.add(
+        metrics.metricName(name + "-rate", METRIC_GROUP, "Rate of " + description),
+        new Rate()
+    );
+    return sensor;
+  }
+
+  private static final class Key {
+
+    private final String queryId;
+    private final String errorType;
+
+    Key(final String queryId, final String errorType) {
+      this.queryId = Objects.requireNonNull(queryId, "queryId");
+      this.errorType = Objects.requireNonNull(errorType, "errorType");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key that = (Key) o;
+      return queryId.equals(that.queryId)
+          && errorType.equals(that.errorType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(queryId, errorType);
+    }
+  }
+
+  /**
+   * The token bucket and counts of the messages of one type from one query.
+   */
+  private static final class Counts {
+
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicBoolean used = new AtomicBoolean();
+    private final int ratePerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    Counts(final int ratePerSecond, final long nowNanos) {
+      this.ratePerSecond = ratePerSecond;
+      this.tokens = ratePerSecond;
+      this.lastRefillNanos = nowNanos;
+    }
+
+    synchronized boolean tryAcquire(final long nowNanos) {
+      if (ratePerSecond == 0) {
+        return true;
+      }
+
+      final double refill = (nowNanos - lastRefillNanos) * ratePerSecond
+          / (double) TimeUnit.SECONDS.toNanos(1);
+      tokens = Math.min(ratePerSecond, tokens + refill);
+      lastRefillNanos = nowNanos;
+
+      if (tokens < 1) {
+        return false;
+      }
+
+      tokens--;
+      return true;
+    }
+  }
+}
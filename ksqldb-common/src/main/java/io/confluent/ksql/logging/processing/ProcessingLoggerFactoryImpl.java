@@ -18,32 +18,54 @@ package io.confluent.ksql.logging.processing;
 import io.confluent.common.logging.StructuredLogger;
 import io.confluent.common.logging.StructuredLoggerFactory;
 import java.util.Collection;
+import java.util.Optional;
 import java.util.function.BiFunction;
 
 public class ProcessingLoggerFactoryImpl implements ProcessingLoggerFactory {
   private final ProcessingLogConfig config;
   private final StructuredLoggerFactory innerFactory;
   private final BiFunction<ProcessingLogConfig, StructuredLogger, ProcessingLogger> loggerFactory;
+  private final Optional<ProcessingLogDispatcher> dispatcher;
 
   ProcessingLoggerFactoryImpl(
       final ProcessingLogConfig config,
       final StructuredLoggerFactory innerFactory) {
-    this(config, innerFactory, ProcessingLoggerImpl::new);
+    this(config, innerFactory, ProcessingLoggerImpl::new, Optional.empty());
+  }
+
+  ProcessingLoggerFactoryImpl(
+      final ProcessingLogConfig config,
+      final StructuredLoggerFactory innerFactory,
+      final Optional<ProcessingLogDispatcher> dispatcher) {
+    this(config, innerFactory, ProcessingLoggerImpl::new, dispatcher);
   }
 
   ProcessingLoggerFactoryImpl(
       final ProcessingLogConfig config,
       final StructuredLoggerFactory innerFactory,
       final BiFunction<ProcessingLogConfig, StructuredLogger, ProcessingLogger> loggerFactory
+  ) {
+    this(config, innerFactory, loggerFactory, Optional.empty());
+  }
+
+  ProcessingLoggerFactoryImpl(
+      final ProcessingLogConfig config,
+      final StructuredLoggerFactory innerFactory,
+      final BiFunction<ProcessingLogConfig, StructuredLogger, ProcessingLogger> loggerFactory,
+      final Optional<ProcessingLogDispatcher> dispatcher
   ) {
     this.config = config;
     this.innerFactory = innerFactory;
     this.loggerFactory = loggerFactory;
+    this.dispatcher = dispatcher;
   }
 
   @Override
   public ProcessingLogger getLogger(final String name) {
-    return loggerFactory.apply(config, innerFactory.getLogger(name));
+    final ProcessingLogger logger = loggerFactory.apply(config, innerFactory.getLogger(name));
+    return dispatcher
+        .map(d -> d.wrap(name, logger))
+        .orElse(logger);
   }
 
   @Override
@@ -20,12 +20,11 @@ import io.confluent.common.utils.Time;
 import io.confluent.ksql.metrics.TopicSensors.SensorMetric;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerInterceptor;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -34,19 +33,28 @@ import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.metrics.KafkaMetric;
-import org.apache.kafka.common.metrics.MeasurableStat;
+import org.apache.kafka.common.metrics.Measurable;
 import org.apache.kafka.common.metrics.Metrics;
-import org.apache.kafka.common.metrics.Sensor;
-import org.apache.kafka.common.metrics.stats.CumulativeSum;
-import org.apache.kafka.common.metrics.stats.Rate;
 
+/**
+ * Collects the number of messages and bytes consumed from each topic.
+ *
+ * <p>Each batch of consumed records is recorded a partition at a time: one lookup of the topic's
+ * sensors and one increment of each of its counters per partition. The counters are striped, so
+ * consumers do not contend on them, and the metrics are measured from them when read.
+ */
 public class ConsumerCollector implements MetricCollector, ConsumerInterceptor<Object, Object> {
   public static final String CONSUMER_MESSAGES_PER_SEC = "consumer-messages-per-sec";
   public static final String CONSUMER_TOTAL_MESSAGES = "consumer-total-messages";
   public static final String CONSUMER_TOTAL_BYTES = "consumer-total-bytes";
 
-  private final Map<String, TopicSensors<ConsumerRecord<Object, Object>>> topicSensors =
-      new HashMap<>();
+  // Keyed by the lower-cased topic name the metrics are named after:
+  private final Map<String, TopicSensors<List<ConsumerRecord<Object, Object>>>> topicSensors =
+      new ConcurrentHashMap<>();
+  // The same sensors, keyed by the topic name as consumed, so its case need only be normalized
+  // the first time the topic is consumed:
+  private final Map<String, TopicSensors<List<ConsumerRecord<Object, Object>>>> sensorsByTopic =
+      new ConcurrentHashMap<>();
   private Metrics metrics;
   private String id;
   private String groupId;
@@ -92,43 +100,47 @@ public class ConsumerCollector implements MetricCollector, ConsumerInterceptor<O
   }
 
   private void collect(final ConsumerRecords<Object, Object> consumerRecords) {
-    final Stream<ConsumerRecord<Object, Object>> stream =
-        StreamSupport.stream(consumerRecords.spliterator(), false);
-    stream.forEach(record -> record(record.topic().toLowerCase(), false, record));
+    for (final TopicPartition partition : consumerRecords.partitions()) {
+      sensorsFor(partition.topic()).increment(consumerRecords.records(partition), false);
+    }
   }
 
-  private void record(
-      final String topic,
-      final boolean isError,
-      final ConsumerRecord<Object, Object> record
-  ) {
-    topicSensors.computeIfAbsent(getCounterKey(topic), k ->
-        new TopicSensors<>(topic, buildSensors(k))
-    ).increment(record, isError);
+  private TopicSensors<List<ConsumerRecord<Object, Object>>> sensorsFor(final String topic) {
+    final TopicSensors<List<ConsumerRecord<Object, Object>>> cached = sensorsByTopic.get(topic);
+    if (cached != null) {
+      return cached;
+    }
+
+    final String key = getCounterKey(topic.toLowerCase());
+    final TopicSensors<List<ConsumerRecord<Object, Object>>> sensors = topicSensors
+        .computeIfAbsent(key, k -> new TopicSensors<>(k, buildSensors(k)));
+    sensorsByTopic.putIfAbsent(topic, sensors);
+    return sensors;
   }
 
   private String getCounterKey(final String topic) {
     return topic;
   }
 
-  private List<SensorMetric<ConsumerRecord<Object, Object>>> buildSensors(
+  private List<SensorMetric<List<ConsumerRecord<Object, Object>>>> buildSensors(
       final String key
   ) {
-    final List<SensorMetric<ConsumerRecord<Object, Object>>> sensors = new ArrayList<>();
+    final List<SensorMetric<List<ConsumerRecord<Object, Object>>>> sensors = new ArrayList<>();
+    final LongAdder messages = new LongAdder();
+    final LongAdder bytes = new LongAdder();
 
     // Note: synchronized due to metrics registry not handling concurrent add/check-exists
     // activity in a reliable way
     synchronized (this.metrics) {
-      addSensor(key, CONSUMER_MESSAGES_PER_SEC, new Rate(), sensors, false);
-      addSensor(key, CONSUMER_TOTAL_MESSAGES, new CumulativeSum(), sensors, false);
-      addSensor(key, CONSUMER_TOTAL_BYTES, new CumulativeSum(), sensors, false,
-          (r) -> {
-            if (r == null) {
-              return 0.0;
-            } else {
-              return ((double) r.serializedValueSize() + r.serializedKeySize());
-            }
-          });
+      addSensor(key, CONSUMER_MESSAGES_PER_SEC,
+          new CounterRate(messages, time.milliseconds()), sensors,
+          batch -> { });
+      addSensor(key, CONSUMER_TOTAL_MESSAGES,
+          (config, now) -> messages.sum(), sensors,
+          batch -> messages.add(batch.size()));
+      addSensor(key, CONSUMER_TOTAL_BYTES,
+          (config, now) -> bytes.sum(), sensors,
+          batch -> bytes.add(serializedSize(batch)));
     }
     return sensors;
   }
@@ -136,20 +148,9 @@ public class ConsumerCollector implements MetricCollector, ConsumerInterceptor<O
   private void addSensor(
       final String key,
       final String metricNameString,
-      final MeasurableStat stat,
-      final List<SensorMetric<ConsumerRecord<Object, Object>>> sensors,
-      final boolean isError
-  ) {
-    addSensor(key, metricNameString, stat, sensors, isError, (r) -> (double)1);
-  }
-
-  private void addSensor(
-      final String key,
-      final String metricNameString,
-      final MeasurableStat stat,
-      final List<SensorMetric<ConsumerRecord<Object, Object>>> sensors,
-      final boolean isError,
-      final Function<ConsumerRecord<Object, Object>, Double> recordValue
+      final Measurable measurable,
+      final List<SensorMetric<List<ConsumerRecord<Object, Object>>>> sensors,
+      final Consumer<List<ConsumerRecord<Object, Object>>> recorder
   ) {
     final String name = "cons-" + key + "-" + metricNameString + "-" + id;
 
@@ -159,24 +160,25 @@ public class ConsumerCollector implements MetricCollector, ConsumerInterceptor<O
         "consumer-" + name,
         ImmutableMap.of("key", key, "id", id)
     );
-    final Sensor existingSensor = metrics.getSensor(name);
-    final Sensor sensor = metrics.sensor(name);
 
-    // re-use the existing measurable stats to share between consumers
-    if (existingSensor == null || metrics.metrics().get(metricName) == null) {
-      sensor.add(metricName, stat);
-    }
+    final KafkaMetric metric = TopicSensors.addMetric(metrics, metricName, measurable);
 
-    final KafkaMetric metric = metrics.metrics().get(metricName);
-
-    sensors.add(new SensorMetric<ConsumerRecord<Object, Object>>(sensor, metric, time, isError) {
-      void record(final ConsumerRecord<Object, Object> record) {
-        sensor.record(recordValue.apply(record));
-        super.record(record);
+    sensors.add(new SensorMetric<List<ConsumerRecord<Object, Object>>>(metric, time, false) {
+      void record(final List<ConsumerRecord<Object, Object>> batch) {
+        recorder.accept(batch);
+        super.record(batch);
       }
     });
   }
 
+  private static long serializedSize(final List<ConsumerRecord<Object, Object>> batch) {
+    long size = 0;
+    for (final ConsumerRecord<Object, Object> record : batch) {
+      size += record.serializedValueSize() + record.serializedKeySize();
+    }
+    return size;
+  }
+
   public void close() {
     MetricCollectors.remove(this.id);
     topicSensors.values().forEach(v -> v.close(metrics));
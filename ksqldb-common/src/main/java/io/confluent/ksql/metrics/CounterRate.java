@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.common.metrics.Measurable;
+import org.apache.kafka.common.metrics.MetricConfig;
+
+/**
+ * The per second rate of a counter, measured when the metric is read.
+ *
+ * <p>Unlike a {@link org.apache.kafka.common.metrics.stats.Rate}, nothing is recorded per event:
+ * events just increment the counter. Each read snapshots the counter, at most once per sample
+ * window, and the rate is the change in the counter since the oldest snapshot still within the
+ * metric's time window.
+ */
+final class CounterRate implements Measurable {
+
+  private final LongAdder counter;
+  private final Deque<Snapshot> snapshots = new ArrayDeque<>();
+
+  /**
+   * @param counter the counter.
+   * @param nowMs the time the counter started counting.
+   */
+  CounterRate(final LongAdder counter, final long nowMs) {
+    this.counter = Objects.requireNonNull(counter, "counter");
+    this.snapshots.add(new Snapshot(nowMs, counter.sum()));
+  }
+
+  @Override
+  public synchronized double measure(final MetricConfig config, final long nowMs) {
+    final long count = counter.sum();
+    final long windowMs = config.timeWindowMs() * config.samples();
+
+    // Drop the oldest snapshot while the next oldest is old enough to measure from:
+    while (snapshots.size() > 1 && nowMs - secondOldest().timeMs >= windowMs) {
+      snapshots.removeFirst();
+    }
+
+    if (nowMs - snapshots.getLast().timeMs >= config.timeWindowMs()) {
+      snapshots.addLast(new Snapshot(nowMs, count));
+    }
+
+    // As with Rate, measure over at least all but one of the sample windows, so that a burst
+    // shortly after the counter started does not read as a huge rate:
+    final Snapshot oldest = snapshots.getFirst();
+    final long elapsedMs = Math.max(
+        nowMs - oldest.timeMs,
+        config.timeWindowMs() * (config.samples() - 1)
+    );
+    return elapsedMs <= 0 ? 0 : (count - oldest.count) * 1000.0 / elapsedMs;
+  }
+
+  private Snapshot secondOldest() {
+    final Iterator<Snapshot> it = snapshots.iterator();
+    it.next();
+    return it.next();
+  }
+
+  private static final class Snapshot {
+
+    private final long timeMs;
+    private final long count;
+
+    Snapshot(final long timeMs, final long count) {
+      this.timeMs = timeMs;
+      this.count = count;
+    }
+  }
+}
@@ -20,27 +20,37 @@ import io.confluent.common.utils.Time;
 import io.confluent.ksql.metrics.TopicSensors.SensorMetric;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerInterceptor;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.metrics.KafkaMetric;
-import org.apache.kafka.common.metrics.MeasurableStat;
+import org.apache.kafka.common.metrics.Measurable;
 import org.apache.kafka.common.metrics.Metrics;
-import org.apache.kafka.common.metrics.Sensor;
-import org.apache.kafka.common.metrics.stats.CumulativeSum;
-import org.apache.kafka.common.metrics.stats.Rate;
 
+/**
+ * Collects the number of messages produced to each topic.
+ *
+ * <p>Each message sent just increments a striped counter of its topic, so producers shared
+ * between threads do not contend on it, and the metrics are measured from the counter when read.
+ */
 public class ProducerCollector implements MetricCollector, ProducerInterceptor<Object, Object> {
   public static final String PRODUCER_MESSAGES_PER_SEC = "messages-per-sec";
   public static final String PRODUCER_TOTAL_MESSAGES = "total-messages";
 
+  // Keyed by the lower-cased topic name the metrics are named after:
   private final Map<String, TopicSensors<ProducerRecord<Object, Object>>> topicSensors =
-      new HashMap<>();
+      new ConcurrentHashMap<>();
+  // The same sensors, keyed by the topic name as produced to, so its case need only be
+  // normalized the first time the topic is produced to:
+  private final Map<String, TopicSensors<ProducerRecord<Object, Object>>> sensorsByTopic =
+      new ConcurrentHashMap<>();
   private Metrics metrics;
   private String id;
   private Time time;
@@ -72,24 +82,35 @@ public class ProducerCollector implements MetricCollector, ProducerInterceptor<O
   }
 
   private void collect(final ProducerRecord<Object, Object> record, final boolean isError) {
-    collect(isError, record.topic().toLowerCase());
+    sensorsFor(record.topic()).increment(record, isError);
   }
 
-  private void collect(final boolean isError, final String topic) {
-    topicSensors
-        .computeIfAbsent(getKey(topic), k -> new TopicSensors<>(topic, buildSensors(k)))
-        .increment(null, isError);
-  }
+  private TopicSensors<ProducerRecord<Object, Object>> sensorsFor(final String topic) {
+    final TopicSensors<ProducerRecord<Object, Object>> cached = sensorsByTopic.get(topic);
+    if (cached != null) {
+      return cached;
+    }
 
+    final String key = getKey(topic.toLowerCase());
+    final TopicSensors<ProducerRecord<Object, Object>> sensors = topicSensors
+        .computeIfAbsent(key, k -> new TopicSensors<>(k, buildSensors(k)));
+    sensorsByTopic.putIfAbsent(topic, sensors);
+    return sensors;
+  }
 
   private List<SensorMetric<ProducerRecord<Object, Object>>> buildSensors(final String key) {
     final List<SensorMetric<ProducerRecord<Object, Object>>> sensors = new ArrayList<>();
+    final LongAdder messages = new LongAdder();
 
     // Note: synchronized due to metrics registry not handling concurrent add/check-exists
     // activity in a reliable way
     synchronized (metrics) {
-      addSensor(key, PRODUCER_MESSAGES_PER_SEC, new Rate(), sensors);
-      addSensor(key, PRODUCER_TOTAL_MESSAGES, new CumulativeSum(), sensors);
+      addSensor(key, PRODUCER_MESSAGES_PER_SEC,
+          new CounterRate(messages, time.milliseconds()), sensors,
+          record -> { });
+      addSensor(key, PRODUCER_TOTAL_MESSAGES,
+          (config, now) -> messages.sum(), sensors,
+          record -> messages.increment());
     }
     return sensors;
   }
@@ -97,8 +118,9 @@ public class ProducerCollector implements MetricCollector, ProducerInterceptor<O
   private void addSensor(
       final String key,
       final String metricNameString,
-      final MeasurableStat stat,
-      final List<SensorMetric<ProducerRecord<Object, Object>>> results
+      final Measurable measurable,
+      final List<SensorMetric<ProducerRecord<Object, Object>>> results,
+      final Consumer<ProducerRecord<Object, Object>> recorder
   ) {
     final String name = "prod-" + key + "-" + metricNameString + "-" + id;
 
@@ -108,19 +130,13 @@ public class ProducerCollector implements MetricCollector, ProducerInterceptor<O
         "producer-" + name,
         ImmutableMap.of("key", key, "id", id)
     );
-    final Sensor existingSensor = metrics.getSensor(name);
-    final Sensor sensor = metrics.sensor(name);
 
-    // either a new sensor or a new metric with different id
-    if (existingSensor == null || metrics.metrics().get(metricName) == null) {
-      sensor.add(metricName, stat);
-    }
-    final KafkaMetric metric = metrics.metrics().get(metricName);
+    final KafkaMetric metric = TopicSensors.addMetric(metrics, metricName, measurable);
 
     results.add(
-        new SensorMetric<ProducerRecord<Object, Object>>(sensor, metric, time, false) {
+        new SensorMetric<ProducerRecord<Object, Object>>(metric, time, false) {
           void record(final ProducerRecord<Object, Object> record) {
-            sensor.record(1);
+            recorder.accept(record);
             super.record(record);
           }
         });
@@ -24,8 +24,11 @@ import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.metrics.KafkaMetric;
+import org.apache.kafka.common.metrics.Measurable;
 import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.metrics.Sensor;
 import org.apache.kafka.common.metrics.stats.Rate;
@@ -41,17 +44,31 @@ class TopicSensors<R> {
   }
 
   void increment(final R record, final boolean isError) {
-    sensors.forEach((SensorMetric<R> v) -> {
-      if (v.isError() == isError) {
-        v.record(record);
+    for (final SensorMetric<R> sensor : sensors) {
+      if (sensor.isError() == isError) {
+        sensor.record(record);
       }
-    });
+    }
   }
 
   public void close(final Metrics metrics) {
     sensors.forEach(v -> v.close(metrics));
   }
 
+  /**
+   * Add a metric whose value is measured when it is read, replacing any existing metric of the
+   * same name. Callers must synchronize on the metrics.
+   */
+  static KafkaMetric addMetric(
+      final Metrics metrics,
+      final MetricName metricName,
+      final Measurable measurable
+  ) {
+    metrics.removeMetric(metricName);
+    metrics.addMetric(metricName, measurable);
+    return metrics.metric(metricName);
+  }
+
   boolean isTopic(final String topic) {
     return this.topic.equals(topic);
   }
@@ -165,14 +182,26 @@ class TopicSensors<R> {
 
   static class SensorMetric<P> {
 
-    private final Sensor sensor;
+    private final Optional<Sensor> sensor;
     private final KafkaMetric metric;
     private final Time time;
     private final boolean errorMetric;
-    private long lastEvent = 0;
+    private volatile long lastEvent = 0;
 
     SensorMetric(final Sensor sensor, final KafkaMetric metric,
                  final Time time, final boolean errorMetric) {
+      this(Optional.of(sensor), metric, time, errorMetric);
+    }
+
+    /**
+     * For a metric that is not recorded on a sensor, but measures a counter when read.
+     */
+    SensorMetric(final KafkaMetric metric, final Time time, final boolean errorMetric) {
+      this(Optional.empty(), metric, time, errorMetric);
+    }
+
+    private SensorMetric(final Optional<Sensor> sensor, final KafkaMetric metric,
+                         final Time time, final boolean errorMetric) {
       this.sensor = sensor;
       this.metric = metric;
       this.time = time;
@@ -195,12 +224,12 @@ class TopicSensors<R> {
     }
 
     public void close(final Metrics metrics) {
-      metrics.removeSensor(sensor.name());
+      sensor.ifPresent(s -> metrics.removeSensor(s.name()));
       metrics.removeMetric(metric.metricName());
     }
 
     public boolean isRate() {
-      return metric.measurable() instanceof Rate;
+      return metric.measurable() instanceof Rate || metric.measurable() instanceof CounterRate;
     }
 
     @Override
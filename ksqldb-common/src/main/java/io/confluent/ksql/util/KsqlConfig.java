@@ -15,6 +15,7 @@
 
 package io.confluent.ksql.util;
 
+import static io.confluent.ksql.configdef.ConfigValidators.oneOrMore;
 import static io.confluent.ksql.configdef.ConfigValidators.zeroOrPositive;
 
 import com.google.common.base.Splitter;
@@ -239,6 +240,168 @@ public class KsqlConfig extends AbstractConfig {
   public static final String KSQL_QUERY_PULL_THREAD_POOL_SIZE_DOC =
       "Size of thread pool used for sending/executing pull queries";
 
+  public static final String KSQL_QUERY_PULL_PLAN_CACHE_SIZE_CONFIG
+      = "ksql.query.pull.plan.cache.size";
+  public static final Integer KSQL_QUERY_PULL_PLAN_CACHE_SIZE_DEFAULT = 1000;
+  public static final String KSQL_QUERY_PULL_PLAN_CACHE_SIZE_DOC =
+      "The maximum number of pull query plans cached by a server. Pull queries that differ only "
+          + "in the key or window bounds of their WHERE clause share a plan, avoiding repeated "
+          + "analysis and code generation. Set to 0 to disable the cache.";
+
+  public static final String KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED =
+      "ksql.query.pull.internal.binary.enabled";
+  public static final boolean KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED_DEFAULT = true;
+  public static final String KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED_DOC =
+      "If true, pull queries forwarded to other servers are sent to their internal API in a "
+          + "binary format, multiplexed over a single HTTP/2 connection per server. Servers that "
+          + "do not support this are sent the query over the REST API instead. If false, the "
+          + "REST API is always used.";
+
+  public static final String KSQL_QUERY_PULL_TABLE_SCAN_ENABLED =
+      "ksql.query.pull.table.scan.enabled";
+  public static final boolean KSQL_QUERY_PULL_TABLE_SCAN_ENABLED_DEFAULT = false;
+  public static final String KSQL_QUERY_PULL_TABLE_SCAN_ENABLED_DOC =
+      "If true, pull queries on non-windowed tables whose WHERE clause does not look up the key "
+          + "by equality are answered by scanning the table, rather than being rejected. Such "
+          + "scans may read every row of the table, so are rate limited separately from key "
+          + "lookups.";
+
+  public static final String KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_CONFIG =
+      "ksql.query.pull.table.scan.max.qps";
+  public static final Integer KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_DEFAULT = 10;
+  public static final String KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_DOC = "The maximum qps allowed "
+      + "for pull queries that scan a table. Once the limit is hit, such queries will fail "
+      + "immediately. Key lookups are not affected.";
+
+  public static final String KSQL_QUERY_PULL_TABLE_SCAN_THREAD_POOL_SIZE_CONFIG =
+      "ksql.query.pull.table.scan.thread.pool.size";
+  public static final Integer KSQL_QUERY_PULL_TABLE_SCAN_THREAD_POOL_SIZE_DEFAULT = 10;
+  public static final String KSQL_QUERY_PULL_TABLE_SCAN_THREAD_POOL_SIZE_DOC =
+      "Size of thread pool used for scanning the local partitions of tables for pull queries. "
+          + "This is separate from the pool used for key lookups, so that scans can not starve "
+          + "them.";
+
+  public static final String KSQL_QUERY_PULL_ROUTING_LATENCY_AWARE_ENABLED =
+      "ksql.query.pull.routing.latency.aware.enabled";
+  public static final boolean KSQL_QUERY_PULL_ROUTING_LATENCY_AWARE_ENABLED_DEFAULT = false;
+  public static final String KSQL_QUERY_PULL_ROUTING_LATENCY_AWARE_ENABLED_DOC =
+      "If true, the hosts able to serve each partition of a pull query are tried in order of "
+          + "their expected latency, estimated from a moving average of the latency of recent "
+          + "requests to each host and the number of requests still in flight to it, rather "
+          + "than active first. Standbys are only considered if "
+          + KSQL_QUERY_PULL_ENABLE_STANDBY_READS + " is true.";
+
+  public static final String KSQL_QUERY_PULL_MAX_BLOCKED_MS_CONFIG =
+      "ksql.query.pull.max.blocked.ms";
+  public static final Long KSQL_QUERY_PULL_MAX_BLOCKED_MS_DEFAULT = 10_000L;
+  public static final String KSQL_QUERY_PULL_MAX_BLOCKED_MS_DOC =
+      "The maximum total time the threads reading the rows of a pull query may wait for its "
+          + "client to consume the rows already read. A query whose client reads more slowly "
+          + "than this is failed, so that slow clients can not hold on to the threads that "
+          + "serve all pull queries.";
+
+  public static final String KSQL_QUERY_PULL_HEDGE_DELAY_MS_CONFIG =
+      "ksql.query.pull.hedge.delay.ms";
+  public static final Long KSQL_QUERY_PULL_HEDGE_DELAY_MS_DEFAULT = 0L;
+  public static final String KSQL_QUERY_PULL_HEDGE_DELAY_MS_DOC =
+      "If greater than zero, a pull query request to a host that has not returned a row "
+          + "within this many milliseconds is duplicated to the next host able to serve the "
+          + "same partitions. The first host to answer is used, and the other request is "
+          + "abandoned. Set to 0 to disable hedging.";
+
+  public static final String KSQL_CODEGEN_FUSED_PROJECTION_ENABLED =
+      "ksql.codegen.fused.projection.enabled";
+  public static final boolean KSQL_CODEGEN_FUSED_PROJECTION_ENABLED_DEFAULT = false;
+  public static final String KSQL_CODEGEN_FUSED_PROJECTION_ENABLED_DOC =
+      "If true, all expressions in a projection are compiled into a single generated class that "
+          + "reads each input column once and evaluates every expression in one call, rather "
+          + "than compiling and evaluating each expression separately. This reduces both the "
+          + "per-record cost of wide projections and the time taken to compile them. A stream "
+          + "filter followed by a projection is also evaluated in a single processor. This "
+          + "changes the topology of such queries, so the value in effect when a query is "
+          + "created is kept for the life of the query.";
+
+  public static final String KSQL_QUERY_PUSH_SCALABLE_ENABLED =
+      "ksql.query.push.scalable.enabled";
+  public static final boolean KSQL_QUERY_PUSH_SCALABLE_ENABLED_DEFAULT = false;
+  public static final String KSQL_QUERY_PUSH_SCALABLE_ENABLED_DOC =
+      "If true, push queries that only filter and project a single stream, and that do not "
+          + "override any properties, share one Kafka Streams application per source stream "
+          + "rather than each running their own. Such queries only return rows produced after "
+          + "the shared application started, and a query that can not keep up with the rate "
+          + "of its source is terminated rather than slowing down the others.";
+
+  public static final String KSQL_JSON_STREAMING_DESERIALIZER_ENABLED =
+      "ksql.json.streaming.deserializer.enabled";
+  public static final boolean KSQL_JSON_STREAMING_DESERIALIZER_ENABLED_DEFAULT = true;
+  public static final String KSQL_JSON_STREAMING_DESERIALIZER_ENABLED_DOC =
+      "If true, JSON and JSON_SR values are deserialized a token at a time by a reader built "
+          + "once per schema, skipping fields not in the schema, rather than each value first "
+          + "being read into a tree. Both coerce values and report errors in the same way.";
+
+  public static final String KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED =
+      "ksql.avro.direct.deserializer.enabled";
+  public static final boolean KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED_DEFAULT = true;
+  public static final String KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED_DOC =
+      "If true, AVRO values are decoded straight from their binary encoding by a reader built "
+          + "once per writer schema, rather than each value being read into an Avro record, "
+          + "then converted to a Connect struct, before being converted to ksqlDB types. Writer "
+          + "schemas the reader does not support are still converted through Connect.";
+
+  public static final String KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED =
+      "ksql.query.join.prune.columns.enabled";
+  public static final boolean KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED_DEFAULT = false;
+  public static final String KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED_DOC =
+      "If true, the value columns of a join source that a query does not reference are dropped "
+          + "before the source is repartitioned or joined, so that they are not written to "
+          + "repartition topics or held in the join's state stores and changelogs. This "
+          + "changes the execution plan of join queries, so only applies to queries created "
+          + "after it is set.";
+
+  public static final String KSQL_QUERY_PROFILING_SAMPLE_INTERVAL =
+      "ksql.query.profiling.sample.interval";
+  public static final int KSQL_QUERY_PROFILING_SAMPLE_INTERVAL_DEFAULT = 0;
+  public static final String KSQL_QUERY_PROFILING_SAMPLE_INTERVAL_DOC =
+      "If greater than zero, the steps of each query count the records they take in and put "
+          + "out, and time one record in this many, recording its processing time, CPU time, "
+          + "allocated bytes and serde time. The profiles are exposed as JMX metrics and by "
+          + "the /queryProfiles endpoint. Zero, the default, turns profiling off. Only applies "
+          + "to queries started after it is set.";
+
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_ENABLED =
+      "ksql.query.aggregate.combine.enabled";
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_ENABLED_DOC =
+      "If true, a non-windowed GROUP BY aggregation that re-keys a stream first combines the "
+          + "records of each new key into partial aggregates in memory, and only writes these "
+          + "to the repartition topic, where they are merged into the aggregate. Only queries "
+          + "whose aggregate functions are all SUM, COUNT, MIN, MAX or AVG, whose results do not "
+          + "depend on the order partial aggregates are merged in, are combined. This changes "
+          + "the topology of the query, so the value in effect when a query is created is kept "
+          + "for the life of the query.";
+
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_MAX_RECORDS =
+      "ksql.query.aggregate.combine.max.records";
+  public static final int KSQL_QUERY_AGGREGATE_COMBINE_MAX_RECORDS_DEFAULT = 10_000;
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_MAX_RECORDS_DOC =
+      "The number of records a task combines into partial aggregates before writing them to "
+          + "the repartition topic, when " + KSQL_QUERY_AGGREGATE_COMBINE_ENABLED + " is set.";
+
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_MAX_BYTES =
+      "ksql.query.aggregate.combine.max.bytes";
+  public static final long KSQL_QUERY_AGGREGATE_COMBINE_MAX_BYTES_DEFAULT = 10 * 1024 * 1024;
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_MAX_BYTES_DOC =
+      "The estimated size, in bytes, of the partial aggregates a task holds in memory before "
+          + "writing them to the repartition topic, when " + KSQL_QUERY_AGGREGATE_COMBINE_ENABLED
+          + " is set.";
+
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_INTERVAL_MS =
+      "ksql.query.aggregate.combine.interval.ms";
+  public static final long KSQL_QUERY_AGGREGATE_COMBINE_INTERVAL_MS_DEFAULT = 1000;
+  public static final String KSQL_QUERY_AGGREGATE_COMBINE_INTERVAL_MS_DOC =
+      "The longest time, in milliseconds, a task holds partial aggregates before writing them "
+          + "to the repartition topic, when " + KSQL_QUERY_AGGREGATE_COMBINE_ENABLED + " is set. "
+          + "Partial aggregates are also written whenever the task commits.";
+
   public static final String KSQL_STRING_CASE_CONFIG_TOGGLE = "ksql.cast.strings.preserve.nulls";
   public static final String KSQL_STRING_CASE_CONFIG_TOGGLE_DOC =
       "When casting a SQLType to string, if false, use String.valueof(), else if true use"
@@ -380,6 +543,22 @@ public class KsqlConfig extends AbstractConfig {
           Importance.LOW,
           Optional.empty(),
           KSQL_STRING_CASE_CONFIG_TOGGLE_DOC
+      ), new CompatibilityBreakingConfigDef(
+          KSQL_QUERY_AGGREGATE_COMBINE_ENABLED,
+          Type.BOOLEAN,
+          false,
+          false,
+          Importance.LOW,
+          Optional.empty(),
+          KSQL_QUERY_AGGREGATE_COMBINE_ENABLED_DOC
+      ), new CompatibilityBreakingConfigDef(
+          KSQL_CODEGEN_FUSED_PROJECTION_ENABLED,
+          Type.BOOLEAN,
+          false,
+          KSQL_CODEGEN_FUSED_PROJECTION_ENABLED_DEFAULT,
+          Importance.LOW,
+          Optional.empty(),
+          KSQL_CODEGEN_FUSED_PROJECTION_ENABLED_DOC
       ));
 
   public static class CompatibilityBreakingConfigDef {
@@ -765,6 +944,125 @@ public class KsqlConfig extends AbstractConfig {
             Importance.LOW,
             KSQL_QUERY_PULL_THREAD_POOL_SIZE_DOC
         )
+        .define(
+            KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED,
+            Type.BOOLEAN,
+            KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED_DEFAULT,
+            Importance.LOW,
+            KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED_DOC
+        )
+        .define(
+            KSQL_QUERY_PULL_TABLE_SCAN_ENABLED,
+            Type.BOOLEAN,
+            KSQL_QUERY_PULL_TABLE_SCAN_ENABLED_DEFAULT,
+            Importance.LOW,
+            KSQL_QUERY_PULL_TABLE_SCAN_ENABLED_DOC
+        )
+        .define(
+            KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_CONFIG,
+            Type.INT,
+            KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_DEFAULT,
+            Importance.LOW,
+            KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_DOC
+        )
+        .define(
+            KSQL_QUERY_PULL_TABLE_SCAN_THREAD_POOL_SIZE_CONFIG,
+            Type.INT,
+            KSQL_QUERY_PULL_TABLE_SCAN_THREAD_POOL_SIZE_DEFAULT,
+            Importance.LOW,
+            KSQL_QUERY_PULL_TABLE_SCAN_THREAD_POOL_SIZE_DOC
+        )
+        .define(
+            KSQL_QUERY_PULL_ROUTING_LATENCY_AWARE_ENABLED,
+            Type.BOOLEAN,
+            KSQL_QUERY_PULL_ROUTING_LATENCY_AWARE_ENABLED_DEFAULT,
+            Importance.LOW,
+            KSQL_QUERY_PULL_ROUTING_LATENCY_AWARE_ENABLED_DOC
+        )
+        .define(
+            KSQL_QUERY_PULL_MAX_BLOCKED_MS_CONFIG,
+            Type.LONG,
+            KSQL_QUERY_PULL_MAX_BLOCKED_MS_DEFAULT,
+            zeroOrPositive(),
+            Importance.LOW,
+            KSQL_QUERY_PULL_MAX_BLOCKED_MS_DOC
+        )
+        .define(
+            KSQL_QUERY_PULL_HEDGE_DELAY_MS_CONFIG,
+            Type.LONG,
+            KSQL_QUERY_PULL_HEDGE_DELAY_MS_DEFAULT,
+            zeroOrPositive(),
+            Importance.LOW,
+            KSQL_QUERY_PULL_HEDGE_DELAY_MS_DOC
+        )
+        .define(
+            KSQL_QUERY_PUSH_SCALABLE_ENABLED,
+            Type.BOOLEAN,
+            KSQL_QUERY_PUSH_SCALABLE_ENABLED_DEFAULT,
+            Importance.LOW,
+            KSQL_QUERY_PUSH_SCALABLE_ENABLED_DOC
+        )
+        .define(
+            KSQL_JSON_STREAMING_DESERIALIZER_ENABLED,
+            Type.BOOLEAN,
+            KSQL_JSON_STREAMING_DESERIALIZER_ENABLED_DEFAULT,
+            Importance.LOW,
+            KSQL_JSON_STREAMING_DESERIALIZER_ENABLED_DOC
+        )
+        .define(
+            KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED,
+            Type.BOOLEAN,
+            KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED_DEFAULT,
+            Importance.LOW,
+            KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED_DOC
+        )
+        .define(
+            KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED,
+            Type.BOOLEAN,
+            KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED_DEFAULT,
+            Importance.LOW,
+            KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED_DOC
+        )
+        .define(
+            KSQL_QUERY_PROFILING_SAMPLE_INTERVAL,
+            Type.INT,
+            KSQL_QUERY_PROFILING_SAMPLE_INTERVAL_DEFAULT,
+            zeroOrPositive(),
+            Importance.LOW,
+            KSQL_QUERY_PROFILING_SAMPLE_INTERVAL_DOC
+        )
+        .define(
+            KSQL_QUERY_AGGREGATE_COMBINE_MAX_RECORDS,
+            Type.INT,
+            KSQL_QUERY_AGGREGATE_COMBINE_MAX_RECORDS_DEFAULT,
+            oneOrMore(),
+            Importance.LOW,
+            KSQL_QUERY_AGGREGATE_COMBINE_MAX_RECORDS_DOC
+        )
+        .define(
+            KSQL_QUERY_AGGREGATE_COMBINE_MAX_BYTES,
+            Type.LONG,
+            KSQL_QUERY_AGGREGATE_COMBINE_MAX_BYTES_DEFAULT,
+            oneOrMore(),
+            Importance.LOW,
+            KSQL_QUERY_AGGREGATE_COMBINE_MAX_BYTES_DOC
+        )
+        .define(
+            KSQL_QUERY_AGGREGATE_COMBINE_INTERVAL_MS,
+            Type.LONG,
+            KSQL_QUERY_AGGREGATE_COMBINE_INTERVAL_MS_DEFAULT,
+            oneOrMore(),
+            Importance.LOW,
+            KSQL_QUERY_AGGREGATE_COMBINE_INTERVAL_MS_DOC
+        )
+        .define(
+            KSQL_QUERY_PULL_PLAN_CACHE_SIZE_CONFIG,
+            Type.INT,
+            KSQL_QUERY_PULL_PLAN_CACHE_SIZE_DEFAULT,
+            zeroOrPositive(),
+            Importance.LOW,
+            KSQL_QUERY_PULL_PLAN_CACHE_SIZE_DOC
+        )
         .define(
             KSQL_ERROR_CLASSIFIER_REGEX_PREFIX,
             Type.STRING,
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.logging.processing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.confluent.ksql.logging.processing.ProcessingLogger.ErrorMessage;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProcessingLogDispatcherTest {
+
+  private static final long SUMMARY_INTERVAL_MS = 60_000;
+
+  private static final ErrorMessage ERROR = new SomeError();
+  private static final ErrorMessage OTHER_ERROR = new OtherError();
+
+  @Mock
+  private Time time;
+  @Mock
+  private ProcessingLogger logger;
+
+  private final Metrics metrics = new Metrics();
+  private ProcessingLogDispatcher dispatcher;
+
+  @After
+  public void tearDown() {
+    metrics.close();
+  }
+
+  @Test
+  public void shouldWriteSynchronouslyIfNotAsync() {
+    // Given:
+    givenDispatcher(0, 0);
+
+    // When:
+    dispatcher.wrap("query.ctx", logger).error(ERROR);
+
+    // Then:
+    verify(logger).error(ERROR);
+  }
+
+  @Test
+  public void shouldNotWriteOnCallingThreadIfAsync() {
+    // Given:
+    givenDispatcher(10, 0);
+
+    // When:
+    dispatcher.wrap("query.ctx", logger).error(ERROR);
+
+    // Then:
+    verify(logger, never()).error(ERROR);
+    dispatcher.writeBuffered();
+    verify(logger).error(ERROR);
+  }
+
+  @Test
+  public void shouldDropMessagesIfBufferFull() {
+    // Given:
+    givenDispatcher(2, 0);
+    final ProcessingLogger wrapped = dispatcher.wrap("query.ctx", logger);
+
+    // When:
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+
+    // Then:
+    dispatcher.writeBuffered();
+    verify(logger, times(2)).error(ERROR);
+    assertThat(metricValue("messages-dropped-total"), is(1.0));
+    assertThat(metricValue("messages-rate-limited-total"), is(0.0));
+  }
+
+  @Test
+  public void shouldRateLimitPerQueryAndErrorType() {
+    // Given:
+    givenDispatcher(0, 2);
+    final ProcessingLogger wrapped = dispatcher.wrap("query.ctx", logger);
+    final ProcessingLogger otherQuery = dispatcher.wrap("other.ctx", logger);
+
+    // When:
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+    wrapped.error(OTHER_ERROR);
+    otherQuery.error(ERROR);
+
+    // Then:
+    verify(logger, times(3)).error(ERROR);
+    verify(logger).error(OTHER_ERROR);
+    assertThat(metricValue("messages-rate-limited-total"), is(1.0));
+  }
+
+  @Test
+  public void shouldRefillTokensOverTime() {
+    // Given:
+    givenDispatcher(0, 2);
+    final ProcessingLogger wrapped = dispatcher.wrap("query.ctx", logger);
+    when(time.nanoseconds()).thenReturn(0L);
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+    when(time.nanoseconds()).thenReturn(TimeUnit.MILLISECONDS.toNanos(500));
+
+    // When:
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+
+    // Then:
+    verify(logger, times(3)).error(ERROR);
+    assertThat(metricValue("messages-rate-limited-total"), is(2.0));
+  }
+
+  @Test
+  public void shouldResetCountsOnSummary() {
+    // Given:
+    givenDispatcher(1, 0);
+    final ProcessingLogger wrapped = dispatcher.wrap("query.ctx", logger);
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+    when(time.milliseconds()).thenReturn(SUMMARY_INTERVAL_MS);
+
+    // When:
+    dispatcher.maybeLogSummary();
+
+    // Then:
+    assertThat(dispatcher.notWritten("query", ERROR), is(0L));
+    assertThat(metricValue("messages-dropped-total"), is(1.0));
+  }
+
+  @Test
+  public void shouldNotResetCountsBeforeSummaryInterval() {
+    // Given:
+    givenDispatcher(1, 0);
+    final ProcessingLogger wrapped = dispatcher.wrap("query.ctx", logger);
+    wrapped.error(ERROR);
+    wrapped.error(ERROR);
+    when(time.milliseconds()).thenReturn(SUMMARY_INTERVAL_MS - 1);
+
+    // When:
+    dispatcher.maybeLogSummary();
+
+    // Then:
+    assertThat(dispatcher.notWritten("query", ERROR), is(1L));
+  }
+
+  @Test
+  public void shouldWriteBufferedMessagesOnClose() {
+    // Given:
+    givenDispatcher(10, 0);
+    dispatcher.wrap("query.ctx", logger).error(ERROR);
+
+    // When:
+    dispatcher.close();
+
+    // Then:
+    verify(logger).error(ERROR);
+  }
+
+  @Test
+  public void shouldWriteBufferedMessagesInBackground() {
+    // Given:
+    givenDispatcher(10, 0);
+    dispatcher.start();
+
+    // When:
+    dispatcher.wrap("query.ctx", logger).error(ERROR);
+
+    // Then:
+    verify(logger, timeout(30_000)).error(ERROR);
+    dispatcher.close();
+  }
+
+  private void givenDispatcher(final int bufferSize, final int ratePerSecond) {
+    dispatcher = new ProcessingLogDispatcher(
+        bufferSize, ratePerSecond, SUMMARY_INTERVAL_MS, time, metrics);
+  }
+
+  private double metricValue(final String name) {
+    return (double) metrics.metric(metrics.metricName(name, "processing-log"))
+        .metricValue();
+  }
+
+  private static final class SomeError implements ErrorMessage {
+    @Override
+    public SchemaAndValue get(final ProcessingLogConfig config) {
+      return SchemaAndValue.NULL;
+    }
+  }
+
+  private static final class OtherError implements ErrorMessage {
+    @Override
+    public SchemaAndValue get(final ProcessingLogConfig config) {
+      return SchemaAndValue.NULL;
+    }
+  }
+}
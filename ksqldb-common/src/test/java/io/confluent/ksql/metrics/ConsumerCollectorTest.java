@@ -58,4 +58,30 @@ public class ConsumerCollectorTest {
     assertThat( stats.toString(), containsString("name=consumer-messages-per-sec,"));
     assertThat( stats.toString(), containsString("total-messages, value=100.0"));
   }
+
+  @Test
+  public void shouldCountRecordsAndBytesOfEachPartitionOfBatch() {
+    // Given:
+    final ConsumerCollector collector = new ConsumerCollector();
+    collector.configure(new Metrics(), "group", new SystemTime());
+
+    final ConsumerRecords<Object, Object> consumerRecords = new ConsumerRecords<>(ImmutableMap.of(
+        new TopicPartition(TEST_TOPIC, 0), Arrays.asList(record(0, 0), record(0, 1)),
+        new TopicPartition("TestTopic", 1), Arrays.asList(record(1, 0))
+    ));
+
+    // When:
+    collector.onConsume(consumerRecords);
+    collector.onConsume(consumerRecords);
+
+    // Then:
+    final String stats = collector.stats(TEST_TOPIC, false).toString();
+    assertThat(stats, containsString("consumer-total-messages, value=6.0"));
+    assertThat(stats, containsString("consumer-total-bytes, value=120.0"));
+  }
+
+  private static ConsumerRecord<Object, Object> record(final int partition, final long offset) {
+    return new ConsumerRecord<>(
+        TEST_TOPIC, partition, offset, 1L, TimestampType.CREATE_TIME, 1L, 10, 10, "key", "value");
+  }
 }
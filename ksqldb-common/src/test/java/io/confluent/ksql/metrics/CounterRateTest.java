@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CounterRateTest {
+
+  private static final MetricConfig CONFIG = new MetricConfig()
+      .samples(2)
+      .timeWindow(30, TimeUnit.SECONDS);
+
+  private LongAdder counter;
+  private CounterRate rate;
+
+  @Before
+  public void setUp() {
+    counter = new LongAdder();
+    rate = new CounterRate(counter, 0);
+  }
+
+  @Test
+  public void shouldMeasureOverAtLeastAllButOneSampleWindow() {
+    // Given:
+    counter.add(60);
+
+    // When:
+    final double measured = rate.measure(CONFIG, 1_000);
+
+    // Then:
+    assertThat(measured, is(2.0));
+  }
+
+  @Test
+  public void shouldMeasureSinceCounterStarted() {
+    // Given:
+    counter.add(90);
+
+    // When:
+    final double measured = rate.measure(CONFIG, 45_000);
+
+    // Then:
+    assertThat(measured, is(2.0));
+  }
+
+  @Test
+  public void shouldOnlyMeasureOverTimeWindow() {
+    // Given:
+    counter.add(1_000);
+    rate.measure(CONFIG, 30_000);
+    counter.add(60);
+    rate.measure(CONFIG, 60_000);
+    counter.add(60);
+
+    // When:
+    final double measured = rate.measure(CONFIG, 90_000);
+
+    // Then:
+    assertThat(measured, is(2.0));
+  }
+}
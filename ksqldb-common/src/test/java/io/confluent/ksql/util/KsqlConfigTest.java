@@ -440,6 +440,40 @@ public class KsqlConfigTest {
     assertThat(udfProps.keySet(), contains(correctConfigName));
   }
 
+  @Test
+  public void shouldKeepOriginalFusedProjectionSettingOfExistingQuery() {
+    // Given:
+    final KsqlConfig currentConfig = new KsqlConfig(
+        ImmutableMap.of(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED, true));
+    final Map<String, String> originalProperties =
+        ImmutableMap.of(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED, "false");
+
+    // When:
+    final KsqlConfig compatibleConfig =
+        currentConfig.overrideBreakingConfigsWithOriginalValues(originalProperties);
+
+    // Then:
+    assertThat(
+        compatibleConfig.getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED),
+        is(false));
+  }
+
+  @Test
+  public void shouldNotFuseProjectionsOfQueriesCreatedBeforeFusedProjectionSetting() {
+    // Given:
+    final KsqlConfig currentConfig = new KsqlConfig(
+        ImmutableMap.of(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED, true));
+
+    // When:
+    final KsqlConfig compatibleConfig =
+        currentConfig.overrideBreakingConfigsWithOriginalValues(Collections.emptyMap());
+
+    // Then:
+    assertThat(
+        compatibleConfig.getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED),
+        is(false));
+  }
+
   @Test
   public void shouldReturnUdfConfigAfterMerge() {
     final String functionName = "BOB";
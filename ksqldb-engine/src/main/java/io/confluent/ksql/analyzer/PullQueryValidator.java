@@ -18,6 +18,7 @@ package io.confluent.ksql.analyzer;
 import static io.confluent.ksql.links.DocumentationLinks.PUSH_PULL_QUERY_DOC_LINK;
 
 import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.execution.expression.tree.Expression;
 import io.confluent.ksql.util.KsqlException;
 import java.util.List;
 import java.util.Objects;
@@ -55,10 +56,6 @@ public class PullQueryValidator implements QueryValidator {
           analysis -> !analysis.getHavingExpression().isPresent(),
           "Pull queries don't support HAVING clauses."
       ),
-      Rule.of(
-          analysis -> !analysis.getLimitClause().isPresent(),
-          "Pull queries don't support LIMIT clauses."
-      ),
       Rule.of(
           analysis -> !analysis.getRefinementInfo().isPresent(),
           "Pull queries don't support EMIT clauses."
@@ -74,6 +71,18 @@ public class PullQueryValidator implements QueryValidator {
     }
   }
 
+  /**
+   * Validate a {@code WHERE} clause against the analysis of a pull query without one, as the
+   * analyzer would have validated it as part of the query.
+   *
+   * @param analysis the analysis of the query, without its {@code WHERE} clause.
+   * @param where the {@code WHERE} clause.
+   */
+  public static void validateWhere(final ImmutableAnalysis analysis, final Expression where) {
+    new ColumnReferenceValidator(analysis.getFromSourceSchemas(true), false)
+        .analyzeExpression(where, "WHERE");
+  }
+
   private static final class Rule {
 
     private final Predicate<Analysis> condition;
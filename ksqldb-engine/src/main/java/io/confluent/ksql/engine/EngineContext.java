@@ -17,8 +17,11 @@ package io.confluent.ksql.engine;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import io.confluent.ksql.config.SessionConfig;
 import io.confluent.ksql.ddl.commands.CommandFactories;
 import io.confluent.ksql.ddl.commands.DdlCommandExec;
@@ -36,6 +39,7 @@ import io.confluent.ksql.parser.VariableSubstitutor;
 import io.confluent.ksql.parser.tree.ExecutableDdlStatement;
 import io.confluent.ksql.query.QueryExecutor;
 import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.query.ScalablePushQueryRuntime;
 import io.confluent.ksql.query.id.QueryIdGenerator;
 import io.confluent.ksql.services.SandboxedServiceContext;
 import io.confluent.ksql.services.ServiceContext;
@@ -44,7 +48,7 @@ import io.confluent.ksql.util.PersistentQueryMetadata;
 import io.confluent.ksql.util.QueryMetadata;
 import io.confluent.ksql.util.SandboxedPersistentQueryMetadata;
 import io.confluent.ksql.util.TransientQueryMetadata;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -70,9 +74,23 @@ final class EngineContext {
   private final QueryIdGenerator queryIdGenerator;
   private final ProcessingLogContext processingLogContext;
   private final KsqlParser parser;
-  private final Map<QueryId, PersistentQueryMetadata> persistentQueries;
+  private final StatementCache statementCache;
+  private final Object persistentQueriesLock = new Object();
+  // Copy-on-write, as the sources of the metastore are: the queries are a map shared with the
+  // sandboxes created from this context, plus the queries changed since it was last shared,
+  // so that registering a query takes constant time, as do creating a sandbox and getting the
+  // queries while they are unchanged:
+  private volatile ImmutableMap<QueryId, PersistentQueryMetadata> sharedQueries;
+  // Empty if removed:
+  private final Map<QueryId, Optional<PersistentQueryMetadata>> changedQueries =
+      new ConcurrentHashMap<>();
+  // The queries of the context a sandbox was created from, which the sandbox wraps the first
+  // time they are got, so that it can't change them:
+  private final ImmutableMap<QueryId, PersistentQueryMetadata> parentQueries;
+  private final Map<QueryId, PersistentQueryMetadata> sandboxedQueries = new ConcurrentHashMap<>();
   private final Set<QueryMetadata> allLiveQueries = ConcurrentHashMap.newKeySet();
   private final QueryCleanupService cleanupService;
+  private final Optional<ScalablePushQueryRuntime> scalablePushQueryRuntime;
 
   static EngineContext create(
       final ServiceContext serviceContext,
@@ -87,7 +105,15 @@ final class EngineContext {
         metaStore,
         queryIdGenerator,
         new DefaultKsqlParser(),
-        cleanupService
+        new StatementCache(StatementCache.DEFAULT_MAX_ENTRIES),
+        cleanupService,
+        ImmutableMap.of(),
+        Optional.of(new ScalablePushQueryRuntime(applicationId ->
+            cleanupService.addCleanupTask(new QueryCleanupService.QueryCleanupTask(
+                serviceContext,
+                applicationId,
+                true
+            ))))
     );
   }
 
@@ -97,42 +123,53 @@ final class EngineContext {
       final MutableMetaStore metaStore,
       final QueryIdGenerator queryIdGenerator,
       final KsqlParser parser,
-      final QueryCleanupService cleanupService
+      final StatementCache statementCache,
+      final QueryCleanupService cleanupService,
+      final ImmutableMap<QueryId, PersistentQueryMetadata> parentQueries,
+      final Optional<ScalablePushQueryRuntime> scalablePushQueryRuntime
   ) {
     this.serviceContext = requireNonNull(serviceContext, "serviceContext");
     this.metaStore = requireNonNull(metaStore, "metaStore");
     this.queryIdGenerator = requireNonNull(queryIdGenerator, "queryIdGenerator");
     this.ddlCommandFactory = new CommandFactories(serviceContext, metaStore);
     this.ddlCommandExec = new DdlCommandExec(metaStore);
-    this.persistentQueries = new ConcurrentHashMap<>();
+    this.parentQueries = requireNonNull(parentQueries, "parentQueries");
+    this.sharedQueries = parentQueries;
     this.processingLogContext = requireNonNull(processingLogContext, "processingLogContext");
     this.parser = requireNonNull(parser, "parser");
+    this.statementCache = requireNonNull(statementCache, "statementCache");
     this.cleanupService = requireNonNull(cleanupService, "cleanupService");
+    this.scalablePushQueryRuntime =
+        requireNonNull(scalablePushQueryRuntime, "scalablePushQueryRuntime");
   }
 
   EngineContext createSandbox(final ServiceContext serviceContext) {
-    final EngineContext sandBox = EngineContext.create(
+    final ImmutableMap<QueryId, PersistentQueryMetadata> queries = shareQueries();
+
+    return new EngineContext(
         SandboxedServiceContext.create(serviceContext),
         processingLogContext,
         metaStore.copy(),
         queryIdGenerator.createSandbox(),
-        cleanupService
+        new DefaultKsqlParser(),
+        statementCache,
+        cleanupService,
+        queries,
+        Optional.empty()
     );
-
-    persistentQueries.forEach((queryId, query) ->
-        sandBox.persistentQueries.put(
-            query.getQueryId(),
-            SandboxedPersistentQueryMetadata.of(query, sandBox::closeQuery)));
-
-    return sandBox;
   }
 
   Optional<PersistentQueryMetadata> getPersistentQuery(final QueryId queryId) {
-    return Optional.ofNullable(persistentQueries.get(queryId));
+    // Read the changes before the shared queries, which are replaced before changes are cleared:
+    final Optional<PersistentQueryMetadata> changed = changedQueries.get(queryId);
+    if (changed != null) {
+      return changed.map(this::sandboxed);
+    }
+    return Optional.ofNullable(sharedQueries.get(queryId)).map(this::sandboxed);
   }
 
   Map<QueryId, PersistentQueryMetadata> getPersistentQueries() {
-    return Collections.unmodifiableMap(persistentQueries);
+    return Maps.transformValues(shareQueries(), this::sandboxed);
   }
 
   MutableMetaStore getMetaStore() {
@@ -148,7 +185,11 @@ final class EngineContext {
   }
 
   List<ParsedStatement> parse(final String sql) {
-    return parser.parse(sql);
+    return statementCache.parse(sql, parser::parse);
+  }
+
+  CacheStats getStatementCacheStats() {
+    return statementCache.stats();
   }
 
   QueryIdGenerator idGenerator() {
@@ -170,12 +211,14 @@ final class EngineContext {
 
   PreparedStatement<?> prepare(final ParsedStatement stmt, final Map<String, String> variablesMap) {
     try {
-      final PreparedStatement<?> preparedStatement =
-          parser.prepare(substituteVariables(stmt, variablesMap), metaStore);
-      return PreparedStatement.of(
-          preparedStatement.getStatementText(),
-          AstSanitizer.sanitize(preparedStatement.getStatement(), metaStore)
-      );
+      return statementCache.prepare(stmt, variablesMap, metaStore, () -> {
+        final PreparedStatement<?> preparedStatement =
+            parser.prepare(substituteVariables(stmt, variablesMap), metaStore);
+        return PreparedStatement.of(
+            preparedStatement.getStatementText(),
+            AstSanitizer.sanitize(preparedStatement.getStatement(), metaStore)
+        );
+      });
     } catch (final KsqlStatementException e) {
       throw e;
     } catch (final Exception e) {
@@ -200,7 +243,8 @@ final class EngineContext {
         processingLogContext,
         serviceContext,
         metaStore,
-        this::closeQuery
+        this::closeQuery,
+        scalablePushQueryRuntime
     );
   }
 
@@ -237,7 +281,7 @@ final class EngineContext {
       // don't use persistentQueries.put(queryId) here because oldQuery.close()
       // will remove any query with oldQuery.getQueryId() from the map of persistent
       // queries
-      final PersistentQueryMetadata oldQuery = persistentQueries.get(queryId);
+      final PersistentQueryMetadata oldQuery = getPersistentQuery(queryId).orElse(null);
       if (oldQuery != null) {
         oldQuery.getPhysicalPlan()
             .validateUpgrade(((PersistentQueryMetadata) query).getPhysicalPlan());
@@ -248,7 +292,7 @@ final class EngineContext {
         unregisterQuery(oldQuery);
       }
 
-      persistentQueries.put(queryId, persistentQuery);
+      putPersistentQuery(queryId, persistentQuery);
       metaStore.updateForPersistentQuery(
           queryId.toString(),
           persistentQuery.getSourceNames(),
@@ -264,7 +308,7 @@ final class EngineContext {
 
   private boolean unregisterQuery(final QueryMetadata query) {
     if (query instanceof PersistentQueryMetadata) {
-      persistentQueries.remove(query.getQueryId());
+      removePersistentQuery(query.getQueryId());
       metaStore.removePersistentQuery(query.getQueryId().toString());
     }
 
@@ -278,6 +322,57 @@ final class EngineContext {
     return allLiveQueries.remove(query);
   }
 
+  private void putPersistentQuery(final QueryId queryId, final PersistentQueryMetadata query) {
+    synchronized (persistentQueriesLock) {
+      changedQueries.put(queryId, Optional.of(query));
+    }
+  }
+
+  private void removePersistentQuery(final QueryId queryId) {
+    synchronized (persistentQueriesLock) {
+      changedQueries.put(queryId, Optional.empty());
+    }
+  }
+
+  /**
+   * Apply the queries changed since the queries were last shared, so that they are only copied
+   * once per batch of changes, however often they are got.
+   *
+   * @return the queries.
+   */
+  private ImmutableMap<QueryId, PersistentQueryMetadata> shareQueries() {
+    synchronized (persistentQueriesLock) {
+      if (changedQueries.isEmpty()) {
+        return sharedQueries;
+      }
+
+      final Map<QueryId, PersistentQueryMetadata> queries = new LinkedHashMap<>(sharedQueries);
+      changedQueries.forEach((queryId, changed) -> {
+        if (changed.isPresent()) {
+          queries.put(queryId, changed.get());
+        } else {
+          queries.remove(queryId);
+        }
+      });
+
+      // Set the shared queries before clearing the changes, so readers never miss a change:
+      sharedQueries = ImmutableMap.copyOf(queries);
+      changedQueries.clear();
+      return sharedQueries;
+    }
+  }
+
+  private PersistentQueryMetadata sandboxed(final PersistentQueryMetadata query) {
+    if (parentQueries.get(query.getQueryId()) != query) {
+      return query;
+    }
+
+    return sandboxedQueries.computeIfAbsent(
+        query.getQueryId(),
+        queryId -> SandboxedPersistentQueryMetadata.of(query, this::closeQuery)
+    );
+  }
+
   private void cleanupExternalQueryResources(
       final QueryMetadata query
   ) {
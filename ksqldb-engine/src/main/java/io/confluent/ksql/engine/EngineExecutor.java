@@ -61,6 +61,7 @@ import io.confluent.ksql.util.TransientQueryMetadata;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -117,6 +118,30 @@ final class EngineExecutor {
     return ExecuteResult.of(executePersistentQuery(queryPlan, plan.getStatementText()));
   }
 
+  /**
+   * Execute the DDL of a plan with a query, deferring the build of the query.
+   *
+   * <p>Everything the build reads from the engine is read up front, so the returned supplier may
+   * be called on any thread, even while later DDL is executed. The query it builds is not
+   * registered with the engine.
+   *
+   * <p>The suppliers of different plans may also be called concurrently. Each has its own
+   * {@link QueryExecutor}, and so its own {@code StreamsBuilder} and query builder. What the
+   * builds share is thread safe: the function registry, whose lookups are synchronized, the
+   * processing log context, which pull queries already use concurrently, the Kafka and Schema
+   * Registry clients of the service context, and the Kafka metrics registry.
+   *
+   * @param plan the plan, which must have a query.
+   * @return the supplier of the query.
+   */
+  Supplier<PersistentQueryMetadata> executeDeferringQuery(final KsqlPlan plan) {
+    final QueryPlan queryPlan = plan.getQueryPlan()
+        .orElseThrow(() -> new IllegalArgumentException("Plan has no query"));
+
+    plan.getDdlCommand().map(ddl -> executeDdl(ddl, plan.getStatementText(), true));
+    return prepareQuery(queryPlan, plan.getStatementText());
+  }
+
   @SuppressWarnings("OptionalGetWithoutIsPresent") // Known to be non-empty
   TransientQueryMetadata executeQuery(
       final ConfiguredStatement<Query> statement,
@@ -382,23 +407,34 @@ final class EngineExecutor {
   private PersistentQueryMetadata executePersistentQuery(
       final QueryPlan queryPlan,
       final String statementText
+  ) {
+    final PersistentQueryMetadata queryMetadata = prepareQuery(queryPlan, statementText).get();
+
+    engineContext.registerQuery(queryMetadata);
+    return queryMetadata;
+  }
+
+  private Supplier<PersistentQueryMetadata> prepareQuery(
+      final QueryPlan queryPlan,
+      final String statementText
   ) {
     final QueryExecutor executor = engineContext.createQueryExecutor(
         config,
         serviceContext
     );
 
-    final PersistentQueryMetadata queryMetadata = executor.buildPersistentQuery(
+    final DataSource sinkDataSource = engineContext.getMetaStore().getSource(queryPlan.getSink());
+    final String planSummary =
+        buildPlanSummary(queryPlan.getQueryId(), queryPlan.getPhysicalPlan());
+
+    return () -> executor.buildPersistentQuery(
         statementText,
         queryPlan.getQueryId(),
-        engineContext.getMetaStore().getSource(queryPlan.getSink()),
+        sinkDataSource,
         queryPlan.getSources(),
         queryPlan.getPhysicalPlan(),
-        buildPlanSummary(queryPlan.getQueryId(), queryPlan.getPhysicalPlan())
+        planSummary
     );
-
-    engineContext.registerQuery(queryMetadata);
-    return queryMetadata;
   }
 
   private String buildPlanSummary(final QueryId queryId, final ExecutionStep<?> plan) {
@@ -101,6 +101,14 @@ public class InsertValuesExecutor {
     );
   }
 
+  public InsertValuesExecutor(
+      final RecordProducer producer,
+      final KeySerdeFactory keySerdeFactory,
+      final ValueSerdeFactory valueSerdeFactory
+  ) {
+    this(producer, true, System::currentTimeMillis, keySerdeFactory, valueSerdeFactory);
+  }
+
   @VisibleForTesting
   InsertValuesExecutor(
       final LongSupplier clock,
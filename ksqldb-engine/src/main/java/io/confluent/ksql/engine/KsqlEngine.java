@@ -16,6 +16,7 @@
 package io.confluent.ksql.engine;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import io.confluent.ksql.KsqlExecutionContext;
 import io.confluent.ksql.ServiceInfo;
@@ -51,6 +52,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -162,6 +164,14 @@ public class KsqlEngine implements KsqlExecutionContext, Closeable {
     return serviceId;
   }
 
+  /**
+   * @return the stats of the cache of the statements parsed and prepared by the engine and its
+   *     sandboxes.
+   */
+  public CacheStats getStatementCacheStats() {
+    return primaryContext.getStatementCacheStats();
+  }
+
   @VisibleForTesting
   QueryCleanupService getCleanupService() {
     return cleanupService;
@@ -215,6 +225,58 @@ public class KsqlEngine implements KsqlExecutionContext, Closeable {
     }
   }
 
+  /**
+   * Execute the DDL of a plan with a persistent query, deferring the build of the query's
+   * topology, the slow part of its execution.
+   *
+   * <p>Used to restore many queries in parallel: the supplier may be called on any thread, even
+   * while the DDL of later plans is executed. The query it builds must then be registered with
+   * {@link #registerDeferredQuery}, in plan order.
+   *
+   * @param serviceContext the service context.
+   * @param plan the plan, which must have a query.
+   * @return the supplier of the built, but unregistered, query.
+   */
+  public Supplier<PersistentQueryMetadata> executeDeferringQuery(
+      final ServiceContext serviceContext,
+      final ConfiguredKsqlPlan plan
+  ) {
+    final String statementText = plan.getPlan().getStatementText();
+    final Supplier<PersistentQueryMetadata> query;
+    try {
+      query = EngineExecutor
+          .create(primaryContext, serviceContext, plan.getConfig())
+          .executeDeferringQuery(plan.getPlan());
+    } catch (final KsqlException e) {
+      throw withStatementText(e, statementText);
+    }
+
+    return () -> {
+      try {
+        return query.get();
+      } catch (final KsqlException e) {
+        throw withStatementText(e, statementText);
+      }
+    };
+  }
+
+  /**
+   * Register a query built by a supplier returned from {@link #executeDeferringQuery}.
+   *
+   * @param query the query.
+   * @return the result of executing the plan of the query.
+   */
+  public ExecuteResult registerDeferredQuery(final PersistentQueryMetadata query) {
+    try {
+      primaryContext.registerQuery(query);
+    } catch (final KsqlException e) {
+      throw withStatementText(e, query.getStatementString());
+    }
+
+    registerQuery(query);
+    return ExecuteResult.of(query);
+  }
+
   @Override
   public ExecuteResult execute(
       final ServiceContext serviceContext,
@@ -292,4 +354,16 @@ public class KsqlEngine implements KsqlExecutionContext, Closeable {
     engineMetrics.registerQuery(query);
   }
 
+  private static KsqlStatementException withStatementText(
+      final KsqlException e,
+      final String statementText
+  ) {
+    if (e instanceof KsqlStatementException) {
+      return (KsqlStatementException) e;
+    }
+
+    // add the statement text to the KsqlException
+    return new KsqlStatementException(e.getMessage(), statementText, e.getCause());
+  }
+
 }
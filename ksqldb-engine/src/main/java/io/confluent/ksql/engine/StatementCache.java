@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.engine;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.metastore.MetaStore;
+import io.confluent.ksql.parser.KsqlParser.ParsedStatement;
+import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Caches the statements parsed and prepared by the engine, keyed by their SQL text, so that a
+ * statement sent again and again, such as the same pull query, is parsed and prepared only once.
+ *
+ * <p>A prepared statement depends on the sources and types of the metastore it is prepared
+ * against, and on the variables substituted into it, so it is also keyed by the version of the
+ * metastore and the variables. A change to the metastore changes its version, so the statements
+ * prepared against the old version are no longer hit, and are in time evicted as the least
+ * recently used. As a sandbox's metastore starts at the version of the metastore it is copied
+ * from, the engine shares the cache with its sandboxes.
+ */
+@ThreadSafe
+final class StatementCache {
+
+  static final int DEFAULT_MAX_ENTRIES = 1000;
+
+  private final Cache<String, List<ParsedStatement>> parsed;
+  private final Cache<PreparedKey, PreparedStatement<?>> prepared;
+
+  /**
+   * @param maxEntries the maximum number of parsed, and of prepared, statements to cache.
+   */
+  StatementCache(final int maxEntries) {
+    this.parsed = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .recordStats()
+        .build();
+    this.prepared = CacheBuilder.newBuilder()
+        .maximumSize(maxEntries)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @param sql the SQL text to parse.
+   * @param parser parses the text, if not already cached.
+   * @return the statements parsed from the text.
+   */
+  List<ParsedStatement> parse(
+      final String sql,
+      final Function<String, List<ParsedStatement>> parser
+  ) {
+    final List<ParsedStatement> cached = parsed.getIfPresent(sql);
+    if (cached != null) {
+      return cached;
+    }
+
+    final List<ParsedStatement> statements = ImmutableList.copyOf(parser.apply(sql));
+    parsed.put(sql, statements);
+    return statements;
+  }
+
+  /**
+   * @param stmt the statement to prepare.
+   * @param variables the variables to substitute into the statement.
+   * @param metaStore the metastore the statement is prepared against.
+   * @param preparer prepares the statement, if not already cached.
+   * @return the prepared statement.
+   */
+  PreparedStatement<?> prepare(
+      final ParsedStatement stmt,
+      final Map<String, String> variables,
+      final MetaStore metaStore,
+      final Supplier<PreparedStatement<?>> preparer
+  ) {
+    final PreparedKey key =
+        new PreparedKey(stmt.getStatementText(), variables, metaStore.getVersion());
+
+    final PreparedStatement<?> cached = prepared.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    final PreparedStatement<?> statement = preparer.get();
+
+    // Only cache the statement if the metastore did not change while it was being prepared:
+    if (metaStore.getVersion() == key.metaStoreVersion) {
+      prepared.put(key, statement);
+    }
+    return statement;
+  }
+
+  /**
+   * @return the combined stats of the parsed and prepared statements.
+   */
+  CacheStats stats() {
+    return parsed.stats().plus(prepared.stats());
+  }
+
+  private static final class PreparedKey {
+
+    private final String statementText;
+    private final ImmutableMap<String, String> variables;
+    private final long metaStoreVersion;
+
+    PreparedKey(
+        final String statementText,
+        final Map<String, String> variables,
+        final long metaStoreVersion
+    ) {
+      this.statementText = Objects.requireNonNull(statementText, "statementText");
+      this.variables = ImmutableMap.copyOf(variables);
+      this.metaStoreVersion = metaStoreVersion;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final PreparedKey that = (PreparedKey) o;
+      return metaStoreVersion == that.metaStoreVersion
+          && statementText.equals(that.statementText)
+          && variables.equals(that.variables);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(statementText, variables, metaStoreVersion);
+    }
+  }
+}
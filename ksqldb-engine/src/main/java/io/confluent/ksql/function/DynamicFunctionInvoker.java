@@ -28,6 +28,11 @@ public class DynamicFunctionInvoker implements FunctionInvoker {
   private final Method method;
 
   DynamicFunctionInvoker(final Method method) {
+    validateMethod(method);
+    this.method = method;
+  }
+
+  static void validateMethod(final Method method) {
     final Class<?>[] types = method.getParameterTypes();
     for (int i = 0; i < types.length; i++) {
       if (method.getParameterTypes()[i].isArray()
@@ -43,7 +48,6 @@ public class DynamicFunctionInvoker implements FunctionInvoker {
       final Class<?> type = types[i];
       UdafTypes.checkSupportedType(method, type);
     }
-    this.method = method;
   }
 
   @Override
@@ -92,6 +92,11 @@ public final class FunctionLoaderUtils {
 
   @VisibleForTesting
   public static FunctionInvoker createFunctionInvoker(final Method method) {
+    return new MethodHandleFunctionInvoker(method);
+  }
+
+  @VisibleForTesting
+  public static FunctionInvoker createReflectiveFunctionInvoker(final Method method) {
     return new DynamicFunctionInvoker(method);
   }
 
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An implementation of UdfInvoker which invokes the UDF through a {@link MethodHandle} bound
+ * once, when the function is loaded.
+ *
+ * <p>Unlike {@link DynamicFunctionInvoker}, the unboxing of primitive arguments and the
+ * collection of var-args into an array of the right component type are done by the handle,
+ * rather than by {@link Method#invoke} and {@link java.lang.reflect.Array} on each call.
+ */
+public class MethodHandleFunctionInvoker implements FunctionInvoker {
+
+  private final Method method;
+  private final MethodHandle handle;
+  private final ConcurrentMap<Integer, MethodHandle> varArgHandles = new ConcurrentHashMap<>();
+
+  MethodHandleFunctionInvoker(final Method method) {
+    DynamicFunctionInvoker.validateMethod(method);
+    this.method = method;
+
+    try {
+      final MethodHandle unreflected = MethodHandles.publicLookup().unreflect(method);
+      this.handle = method.isVarArgs()
+          ? unreflected.asFixedArity()
+          : spread(unreflected);
+    } catch (final IllegalAccessException e) {
+      throw new KsqlFunctionException("Failed to create invoker for function " + method, e);
+    }
+  }
+
+  @Override
+  public Object eval(final Object udf, final Object... args) {
+    final MethodHandle target = method.isVarArgs()
+        ? varArgHandle(args.length)
+        : handle;
+
+    try {
+      return target.invokeExact(udf, args);
+    } catch (final Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new KsqlFunctionException("Failed to invoke function " + method, e);
+    }
+  }
+
+  /*
+  Each call site passes a fixed number of var-args, so the collecting handle for each arity
+  is built on first use and reused from then on.
+   */
+  private MethodHandle varArgHandle(final int numArgs) {
+    final MethodHandle cached = varArgHandles.get(numArgs);
+    if (cached != null) {
+      return cached;
+    }
+
+    final int numVarArgs = numArgs - (method.getParameterCount() - 1);
+    if (numVarArgs < 0) {
+      throw new KsqlFunctionException("Failed to invoke function " + method
+          + ": expected at least " + (method.getParameterCount() - 1)
+          + " arguments, got " + numArgs);
+    }
+
+    final Class<?> arrayType = method.getParameterTypes()[method.getParameterCount() - 1];
+    final MethodHandle collecting = spread(handle.asCollector(arrayType, numVarArgs));
+    final MethodHandle existing = varArgHandles.putIfAbsent(numArgs, collecting);
+    return existing == null ? collecting : existing;
+  }
+
+  /**
+   * Adapt {@code target} to take the UDF instance as an {@code Object} and all its arguments
+   * as a single {@code Object[]}, unboxing and casting each argument as required.
+   */
+  private static MethodHandle spread(final MethodHandle target) {
+    final int numParams = target.type().parameterCount() - 1;
+    final MethodType generic = MethodType.genericMethodType(numParams + 1);
+    return target
+        .asType(generic)
+        .asSpreader(Object[].class, numParams);
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.function.udaf.count;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.confluent.ksql.function.KsqlFunctionException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch whose state is held in a plain {@code String}, so that it can be used as
+ * a UDAF aggregate in any value format.
+ *
+ * <p>Each character of the state holds one 6-bit value, written using the Base64 alphabet. The
+ * first two characters hold the encoding and the precision, {@code p}, of the sketch. They are
+ * followed by either:
+ * <ul>
+ *   <li>sparse: a 4-character entry for each non-zero register, sorted by register index. The
+ *   first three characters hold the index and the fourth the register's value.</li>
+ *   <li>dense: one character per register, {@code 2^p} in all.</li>
+ * </ul>
+ *
+ * <p>A sketch starts sparse, and is converted to dense once the sparse form would be larger.
+ * Values are offered through a {@link Sketch}, which raises registers in place. Offering a value
+ * that does not raise any register returns the same state instance.
+ */
+final class CompactHyperLogLog {
+
+  static final int MIN_PRECISION = 4;
+  static final int MAX_PRECISION = 16;
+
+  private static final char[] ALPHABET =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+  private static final byte[] VALUES = new byte[128];
+
+  private static final int SPARSE = 1;
+  private static final int DENSE = 2;
+  private static final int HEADER_LENGTH = 2;
+  private static final int ENTRY_LENGTH = 4;
+
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  static {
+    Arrays.fill(VALUES, (byte) -1);
+    for (int i = 0; i < ALPHABET.length; i++) {
+      VALUES[ALPHABET[i]] = (byte) i;
+    }
+  }
+
+  private CompactHyperLogLog() {
+  }
+
+  static String empty(final int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new KsqlFunctionException("precision must be between "
+          + MIN_PRECISION + " and " + MAX_PRECISION + ", got: " + precision);
+    }
+
+    return new String(new char[]{ALPHABET[SPARSE], ALPHABET[precision]});
+  }
+
+  static String merge(final String one, final String two) {
+    final int precision = precision(one);
+    if (precision != precision(two)) {
+      throw new KsqlFunctionException("Can not merge sketches of different precision: "
+          + precision + " and " + precision(two));
+    }
+
+    final byte[] registers = registers(one);
+    final byte[] other = registers(two);
+    for (int i = 0; i < registers.length; i++) {
+      if (other[i] > registers[i]) {
+        registers[i] = other[i];
+      }
+    }
+
+    return encode(precision, registers);
+  }
+
+  static long cardinality(final String state) {
+    final int m = 1 << precision(state);
+
+    int zeros = 0;
+    double sum = 0;
+    for (final byte register : registers(state)) {
+      if (register == 0) {
+        zeros++;
+      }
+      sum += 1.0 / (1L << register);
+    }
+
+    final double estimate = alpha(m) * m * m / sum;
+    if (estimate <= 2.5 * m && zeros != 0) {
+      // small range correction:
+      return Math.round(m * Math.log((double) m / zeros));
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * A working copy of the state of a sketch, whose registers are raised in place in a char array
+   * that is reused from state to state, so that offering a value to a sketch does not decode or
+   * copy its state. A new state string is only built when a register is raised.
+   *
+   * <p>Not thread safe.
+   */
+  static final class Sketch {
+
+    private char[] chars = new char[HEADER_LENGTH + 16 * ENTRY_LENGTH];
+    private int length;
+    private String state;
+
+    /**
+     * @param current the current state of the sketch.
+     * @param value the value to offer.
+     * @return the new state, or {@code current} if no register was raised.
+     */
+    String offer(final String current, final Object value) {
+      if (current != state) {
+        load(current);
+      }
+
+      final long hash = HASH.hashString(value.toString(), StandardCharsets.UTF_8).asLong();
+      final int precision = value(current, 1);
+      final int index = (int) (hash >>> (Long.SIZE - precision));
+      final int rank =
+          Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+
+      final boolean raised = value(current, 0) == DENSE
+          ? raiseDense(index, rank)
+          : raiseSparse(precision, index, rank);
+
+      if (raised) {
+        state = new String(chars, 0, length);
+      }
+      return state;
+    }
+
+    private void load(final String current) {
+      length = current.length();
+      ensureCapacity(length);
+      current.getChars(0, length, chars, 0);
+      state = current;
+    }
+
+    private boolean raiseDense(final int index, final int rank) {
+      final int pos = HEADER_LENGTH + index;
+      if (valueAt(pos) >= rank) {
+        return false;
+      }
+
+      chars[pos] = ALPHABET[rank];
+      return true;
+    }
+
+    private boolean raiseSparse(final int precision, final int index, final int rank) {
+      final int numEntries = (length - HEADER_LENGTH) / ENTRY_LENGTH;
+
+      int low = 0;
+      int high = numEntries - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        final int pos = HEADER_LENGTH + mid * ENTRY_LENGTH;
+        final int midIndex = (valueAt(pos) << 12) | (valueAt(pos + 1) << 6) | valueAt(pos + 2);
+        if (midIndex < index) {
+          low = mid + 1;
+        } else if (midIndex > index) {
+          high = mid - 1;
+        } else {
+          if (valueAt(pos + 3) >= rank) {
+            return false;
+          }
+
+          chars[pos + 3] = ALPHABET[rank];
+          return true;
+        }
+      }
+
+      if ((numEntries + 1) * ENTRY_LENGTH >= 1 << precision) {
+        final byte[] registers = registers(state);
+        registers[index] = (byte) rank;
+        toDense(precision, registers);
+        return true;
+      }
+
+      final int pos = HEADER_LENGTH + low * ENTRY_LENGTH;
+      ensureCapacity(length + ENTRY_LENGTH);
+      System.arraycopy(chars, pos, chars, pos + ENTRY_LENGTH, length - pos);
+      chars[pos] = ALPHABET[(index >>> 12) & 0x3F];
+      chars[pos + 1] = ALPHABET[(index >>> 6) & 0x3F];
+      chars[pos + 2] = ALPHABET[index & 0x3F];
+      chars[pos + 3] = ALPHABET[rank];
+      length += ENTRY_LENGTH;
+      return true;
+    }
+
+    private void toDense(final int precision, final byte[] registers) {
+      length = HEADER_LENGTH + registers.length;
+      ensureCapacity(length);
+      chars[0] = ALPHABET[DENSE];
+      chars[1] = ALPHABET[precision];
+      for (int i = 0; i < registers.length; i++) {
+        chars[HEADER_LENGTH + i] = ALPHABET[registers[i]];
+      }
+    }
+
+    private void ensureCapacity(final int capacity) {
+      if (chars.length < capacity) {
+        chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+      }
+    }
+
+    private int valueAt(final int pos) {
+      return value(chars[pos], pos);
+    }
+  }
+
+  private static byte[] registers(final String state) {
+    final byte[] registers = new byte[1 << precision(state)];
+
+    if (isDense(state)) {
+      for (int i = 0; i < registers.length; i++) {
+        registers[i] = (byte) value(state, HEADER_LENGTH + i);
+      }
+    } else {
+      for (int pos = HEADER_LENGTH; pos < state.length(); pos += ENTRY_LENGTH) {
+        registers[sparseIndex(state, pos)] = (byte) value(state, pos + 3);
+      }
+    }
+
+    return registers;
+  }
+
+  private static String encode(final int precision, final byte[] registers) {
+    int numEntries = 0;
+    for (final byte register : registers) {
+      if (register != 0) {
+        numEntries++;
+      }
+    }
+
+    if (numEntries * ENTRY_LENGTH >= registers.length) {
+      return dense(precision, registers);
+    }
+
+    final char[] chars = new char[HEADER_LENGTH + numEntries * ENTRY_LENGTH];
+    chars[0] = ALPHABET[SPARSE];
+    chars[1] = ALPHABET[precision];
+
+    int pos = HEADER_LENGTH;
+    for (int i = 0; i < registers.length; i++) {
+      if (registers[i] != 0) {
+        chars[pos++] = ALPHABET[(i >>> 12) & 0x3F];
+        chars[pos++] = ALPHABET[(i >>> 6) & 0x3F];
+        chars[pos++] = ALPHABET[i & 0x3F];
+        chars[pos++] = ALPHABET[registers[i]];
+      }
+    }
+    return new String(chars);
+  }
+
+  private static String dense(final int precision, final byte[] registers) {
+    final char[] chars = new char[HEADER_LENGTH + registers.length];
+    chars[0] = ALPHABET[DENSE];
+    chars[1] = ALPHABET[precision];
+    for (int i = 0; i < registers.length; i++) {
+      chars[HEADER_LENGTH + i] = ALPHABET[registers[i]];
+    }
+    return new String(chars);
+  }
+
+  private static boolean isDense(final String state) {
+    return value(state, 0) == DENSE;
+  }
+
+  private static int precision(final String state) {
+    return value(state, 1);
+  }
+
+  private static int sparseIndex(final String state, final int pos) {
+    return (value(state, pos) << 12) | (value(state, pos + 1) << 6) | value(state, pos + 2);
+  }
+
+  private static int value(final String state, final int pos) {
+    return value(state.charAt(pos), pos);
+  }
+
+  private static int value(final char c, final int pos) {
+    final int value = c < VALUES.length ? VALUES[c] : -1;
+    if (value < 0) {
+      throw new KsqlFunctionException("Invalid HyperLogLog state at position " + pos);
+    }
+    return value;
+  }
+
+  private static double alpha(final int m) {
+    switch (m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / m);
+    }
+  }
+}
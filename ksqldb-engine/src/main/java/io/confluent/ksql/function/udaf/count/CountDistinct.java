@@ -87,6 +87,40 @@ public final class CountDistinct {
     };
   }
 
+  private static <T> Udaf<T, String, Long> compactCountDistinct(final int precision) {
+    final String empty = CompactHyperLogLog.empty(precision);
+    // The aggregator is shared by the stream threads of the query:
+    final ThreadLocal<CompactHyperLogLog.Sketch> sketches =
+        ThreadLocal.withInitial(CompactHyperLogLog.Sketch::new);
+
+    return new Udaf<T, String, Long>() {
+
+      @Override
+      public String initialize() {
+        return empty;
+      }
+
+      @Override
+      public String aggregate(final T current, final String aggregate) {
+        if (current == null) {
+          return aggregate;
+        }
+
+        return sketches.get().offer(aggregate, current);
+      }
+
+      @Override
+      public String merge(final String aggOne, final String aggTwo) {
+        return CompactHyperLogLog.merge(aggOne, aggTwo);
+      }
+
+      @Override
+      public Long map(final String agg) {
+        return CompactHyperLogLog.cardinality(agg);
+      }
+    };
+  }
+
   @SuppressWarnings("deprecation")
   private static HyperLogLog toHyperLogLog(final RegisterSet set) {
     return new HyperLogLog(LOG_2_M, set);
@@ -97,4 +131,13 @@ public final class CountDistinct {
     return countDistinct();
   }
 
+  // Queries created before this variant was added keep the ARRAY<INTEGER> state of the one
+  // argument variant above, so that their existing state stores and changelogs stay readable.
+  @UdafFactory(description = "Count distinct, keeping a compact sketch of 2^precision registers,"
+      + " where precision is between 4 and 16. A precision of 14 matches the accuracy of the"
+      + " single argument variant.")
+  public static <T> Udaf<T, String, Long> distinct(final int precision) {
+    return compactCountDistinct(precision);
+  }
+
 }
@@ -40,6 +40,11 @@ public class PluggableUdf implements Kudf {
 
   @Override
   public Object evaluate(final Object... args) {
+    if (System.getSecurityManager() != ExtensionSecurityManager.INSTANCE) {
+      // Nothing checks whether a UDF is executing unless the extension manager is installed:
+      return udf.eval(actualUdf, args);
+    }
+
     try {
       ExtensionSecurityManager.INSTANCE.pushInUdf();
       return udf.eval(actualUdf, args);
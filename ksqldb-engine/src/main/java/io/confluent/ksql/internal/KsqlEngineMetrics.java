@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.metrics.Gauge;
@@ -102,6 +103,7 @@ public class KsqlEngineMetrics implements Closeable {
     configureLivenessIndicator();
     configureNumActiveQueries();
     configureNumPersistentQueries();
+    configureStatementCacheMetrics();
     this.messagesIn = configureMessagesIn();
     this.totalMessagesIn = configureTotalMessagesIn();
     this.totalBytesIn = configureTotalBytesIn();
@@ -251,6 +253,44 @@ public class KsqlEngineMetrics implements Closeable {
     createSensor(KsqlMetric.of(metricName, description, statSupplier));
   }
 
+  private void configureStatementCacheMetrics() {
+    configureGauge(
+        "statement-cache-hit-rate",
+        "The ratio of statements parsed and prepared that were found in the statement cache",
+        () -> ksqlEngine.getStatementCacheStats().hitRate()
+    );
+    configureGauge(
+        "statement-cache-hits-total",
+        "The number of statements parsed and prepared that were found in the statement cache",
+        () -> ksqlEngine.getStatementCacheStats().hitCount()
+    );
+    configureGauge(
+        "statement-cache-misses-total",
+        "The number of statements parsed and prepared that were not in the statement cache",
+        () -> ksqlEngine.getStatementCacheStats().missCount()
+    );
+  }
+
+  private void configureGauge(
+      final String metricName,
+      final String description,
+      final DoubleSupplier value
+  ) {
+    final Supplier<MeasurableStat> statSupplier =
+        () -> new MeasurableStat() {
+          @Override
+          public double measure(final MetricConfig metricConfig, final long l) {
+            return value.getAsDouble();
+          }
+
+          @Override
+          public void record(final MetricConfig metricConfig, final double v, final long l) {
+            // Nothing to record, as the value is measured when read
+          }
+        };
+    createSensor(KsqlMetric.of(metricName, description, statSupplier));
+  }
+
   private Sensor configureIdleQueriesSensor() {
     final String metricName = "num-idle-queries";
     final String description = "Number of inactive queries";
@@ -15,6 +15,8 @@
 
 package io.confluent.ksql.planner;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.confluent.ksql.analyzer.AggregateAnalysisResult;
 import io.confluent.ksql.analyzer.AggregateAnalyzer;
 import io.confluent.ksql.analyzer.Analysis.AliasedDataSource;
@@ -43,12 +45,15 @@ import io.confluent.ksql.execution.windows.KsqlWindowExpression;
 import io.confluent.ksql.function.udf.AsValue;
 import io.confluent.ksql.metastore.MetaStore;
 import io.confluent.ksql.metastore.model.DataSource;
+import io.confluent.ksql.metastore.model.DataSource.DataSourceType;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.name.SourceName;
 import io.confluent.ksql.parser.NodeLocation;
 import io.confluent.ksql.parser.OutputRefinement;
+import io.confluent.ksql.parser.tree.AllColumns;
 import io.confluent.ksql.parser.tree.GroupBy;
 import io.confluent.ksql.parser.tree.PartitionBy;
+import io.confluent.ksql.parser.tree.SingleColumn;
 import io.confluent.ksql.parser.tree.WindowExpression;
 import io.confluent.ksql.planner.JoinTree.Join;
 import io.confluent.ksql.planner.JoinTree.Leaf;
@@ -65,6 +70,7 @@ import io.confluent.ksql.planner.plan.OutputNode;
 import io.confluent.ksql.planner.plan.PlanNode;
 import io.confluent.ksql.planner.plan.PlanNodeId;
 import io.confluent.ksql.planner.plan.PreJoinProjectNode;
+import io.confluent.ksql.planner.plan.PreJoinPruneNode;
 import io.confluent.ksql.planner.plan.PreJoinRepartitionNode;
 import io.confluent.ksql.planner.plan.ProjectNode;
 import io.confluent.ksql.planner.plan.SelectionUtil;
@@ -74,6 +80,7 @@ import io.confluent.ksql.schema.ksql.Column;
 import io.confluent.ksql.schema.ksql.ColumnNames;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.LogicalSchema.Builder;
+import io.confluent.ksql.schema.ksql.SystemColumns;
 import io.confluent.ksql.schema.ksql.types.SqlType;
 import io.confluent.ksql.schema.ksql.types.SqlTypes;
 import io.confluent.ksql.serde.FormatFactory;
@@ -88,6 +95,7 @@ import io.confluent.ksql.serde.none.NoneFormat;
 import io.confluent.ksql.util.GrammaticalJoiner;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.KsqlException;
+import io.confluent.ksql.util.Repartitioning;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -333,12 +341,14 @@ public class LogicalPlanner {
   private static ProjectNode buildInternalProjectNode(
       final PlanNode parent,
       final String id,
-      final SourceName sourceAlias
+      final SourceName sourceAlias,
+      final Set<ColumnName> prunedColumns
   ) {
     return new PreJoinProjectNode(
         new PlanNodeId(id),
         parent,
-        sourceAlias
+        sourceAlias,
+        prunedColumns
     );
   }
 
@@ -424,16 +434,103 @@ public class LogicalPlanner {
           }
         };
 
+    final Set<ColumnName> prunedColumns = getPrunedColumns(source.getAlias(), sourceNode);
+
+    final PlanNode pruned = buildInternalPruneNode(
+        sourceNode,
+        side,
+        ExpressionTreeRewriter.rewriteWith(rewriter::process, joinExpression),
+        prunedColumns
+    );
+
     final PlanNode repartition =
-        buildInternalRepartitionNode(sourceNode, side, joinExpression, rewriter::process);
+        buildInternalRepartitionNode(pruned, side, joinExpression, rewriter::process);
 
     return buildInternalProjectNode(
         repartition,
         "PrependAlias" + side,
-        source.getAlias()
+        source.getAlias(),
+        prunedColumns
+    );
+  }
+
+  private static PlanNode buildInternalPruneNode(
+      final DataSourceNode sourceNode,
+      final String side,
+      final Expression partitionBy,
+      final Set<ColumnName> prunedColumns
+  ) {
+    // Columns need only be dropped before the join's projection if the source is repartitioned:
+    final boolean repartitioned = sourceNode.getNodeOutputType() == DataSourceType.KSTREAM
+        && Repartitioning.repartitionNeeded(sourceNode.getSchema(), ImmutableList.of(partitionBy));
+
+    if (prunedColumns.isEmpty() || !repartitioned) {
+      return sourceNode;
+    }
+
+    return new PreJoinPruneNode(
+        new PlanNodeId("PrunedColumns" + side),
+        sourceNode,
+        prunedColumns
     );
   }
 
+  /**
+   * Determines the value columns of a join source that can be dropped before the join, being
+   * those the query does not reference.
+   *
+   * <p>{@code ROWTIME} is always kept, as it is the default argument of aggregate functions, and
+   * so that a source never has an empty value.
+   *
+   * @param alias the alias of the join source.
+   * @param sourceNode the node of the join source.
+   * @return the value columns that can be dropped.
+   */
+  private Set<ColumnName> getPrunedColumns(final SourceName alias, final PlanNode sourceNode) {
+    if (!ksqlConfig.getBoolean(KsqlConfig.KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED)) {
+      return ImmutableSet.of();
+    }
+
+    final ImmutableAnalysis original = analysis.original();
+
+    final boolean allColumnsSelected = original.getSelectItems().stream()
+        .filter(AllColumns.class::isInstance)
+        .map(AllColumns.class::cast)
+        .anyMatch(all -> !all.getSource().isPresent() || all.getSource().get().equals(alias));
+
+    if (allColumnsSelected) {
+      return ImmutableSet.of();
+    }
+
+    final RequiredColumns.Builder builder = RequiredColumns.builder();
+
+    original.getSelectItems().stream()
+        .filter(SingleColumn.class::isInstance)
+        .map(SingleColumn.class::cast)
+        .forEach(select -> builder.add(select.getExpression()));
+
+    original.getWhereExpression().ifPresent(builder::add);
+    original.getGroupBy().ifPresent(groupBy -> builder.addAll(groupBy.getGroupingExpressions()));
+    original.getHavingExpression().ifPresent(builder::add);
+    original.getPartitionBy().ifPresent(partitionBy -> builder.add(partitionBy.getExpression()));
+    original.getJoin().forEach(join -> builder
+        .add(join.getLeftJoinExpression())
+        .add(join.getRightJoinExpression()));
+
+    // Unqualified references may be to any source, e.g. synthetic join keys, so are kept by all:
+    final Set<ColumnName> referenced = builder.build().get().stream()
+        .filter(ref -> !ref.maybeQualifier().isPresent()
+            || ref.maybeQualifier().get().equals(alias))
+        .map(ColumnReferenceExp::getColumnName)
+        .collect(Collectors.toSet());
+
+    return sourceNode.getSchema().value().stream()
+        .map(Column::name)
+        .filter(name -> !referenced.contains(name))
+        .filter(name -> !name.equals(SystemColumns.ROWTIME_NAME))
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
   private PlanNode buildSourceForJoin(
       final Join join,
       final PlanNode joinedSource,
@@ -17,6 +17,7 @@ package io.confluent.ksql.planner.plan;
 
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.confluent.ksql.execution.expression.tree.ColumnReferenceExp;
 import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
 import io.confluent.ksql.execution.plan.SelectExpression;
@@ -38,6 +39,9 @@ import java.util.stream.Stream;
  * Logical plan node that prepends a source's alias to the start of each column name.
  *
  * <p>This aliasing avoids column name clashes between the sources within a join.
+ *
+ * <p>Any pruned value columns are dropped, so that they are not held in the join's state stores
+ * or copied into its output.
  */
 public class PreJoinProjectNode extends ProjectNode implements JoiningNode {
 
@@ -50,15 +54,31 @@ public class PreJoinProjectNode extends ProjectNode implements JoiningNode {
       final PlanNodeId id,
       final PlanNode source,
       final SourceName alias
+  ) {
+    this(id, source, alias, ImmutableSet.of());
+  }
+
+  /**
+   * @param id the id of the node.
+   * @param source the source node.
+   * @param alias the alias of the source.
+   * @param prunedColumns the value columns of the source to drop.
+   */
+  public PreJoinProjectNode(
+      final PlanNodeId id,
+      final PlanNode source,
+      final SourceName alias,
+      final Set<ColumnName> prunedColumns
   ) {
     super(id, source);
 
     this.selectExpressions = ImmutableList.copyOf(buildSelectExpressions(
         alias,
-        source.getSchema()
+        source.getSchema(),
+        prunedColumns
     ));
     this.aliases = buildAliasMapping(selectExpressions);
-    this.schema = buildSchema(alias, source.getSchema());
+    this.schema = buildSchema(alias, source.getSchema(), prunedColumns);
     this.joiningSource = (JoiningNode) source;
   }
 
@@ -131,11 +151,13 @@ public class PreJoinProjectNode extends ProjectNode implements JoiningNode {
 
   private static LogicalSchema buildSchema(
       final SourceName alias,
-      final LogicalSchema parentSchema
+      final LogicalSchema parentSchema,
+      final Set<ColumnName> prunedColumns
   ) {
     final LogicalSchema.Builder builder = LogicalSchema.builder();
 
-    parentSchema.columns()
+    parentSchema.columns().stream()
+        .filter(c -> c.namespace() == Namespace.KEY || !prunedColumns.contains(c.name()))
         .forEach(c -> {
           final ColumnName aliasedName = ColumnNames.generatedJoinColumnAlias(alias, c.name());
 
@@ -151,9 +173,11 @@ public class PreJoinProjectNode extends ProjectNode implements JoiningNode {
 
   private static List<SelectExpression> buildSelectExpressions(
       final SourceName alias,
-      final LogicalSchema schema
+      final LogicalSchema schema,
+      final Set<ColumnName> prunedColumns
   ) {
     return schema.value().stream()
+        .filter(c -> !prunedColumns.contains(c.name()))
         .map(c -> SelectExpression.of(
             ColumnNames.generatedJoinColumnAlias(alias, c.name()),
             new UnqualifiedColumnReferenceExp(c.name()))
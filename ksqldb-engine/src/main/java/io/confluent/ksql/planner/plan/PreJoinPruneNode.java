@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.planner.plan;
+
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
+import io.confluent.ksql.execution.plan.SelectExpression;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Logical plan node that drops the value columns of a join source that the query does not
+ * reference before the source is repartitioned, so that they are not written to the repartition
+ * topic.
+ *
+ * <p>Unlike {@link PreJoinProjectNode}, column names are left unchanged.
+ */
+public class PreJoinPruneNode extends ProjectNode {
+
+  private final ImmutableList<SelectExpression> selectExpressions;
+  private final LogicalSchema schema;
+
+  public PreJoinPruneNode(
+      final PlanNodeId id,
+      final PlanNode source,
+      final Set<ColumnName> prunedColumns
+  ) {
+    super(id, source);
+    Objects.requireNonNull(prunedColumns, "prunedColumns");
+
+    final LogicalSchema sourceSchema = source.getSchema();
+
+    this.selectExpressions = sourceSchema.value().stream()
+        .filter(c -> !prunedColumns.contains(c.name()))
+        .map(c -> SelectExpression.of(c.name(), new UnqualifiedColumnReferenceExp(c.name())))
+        .collect(ImmutableList.toImmutableList());
+
+    this.schema = LogicalSchema.builder()
+        .keyColumns(sourceSchema.key())
+        .valueColumns(sourceSchema.value().stream()
+            .filter(c -> !prunedColumns.contains(c.name()))
+            .collect(Collectors.toList()))
+        .build();
+  }
+
+  @Override
+  public LogicalSchema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public List<SelectExpression> getSelectExpressions() {
+    return selectExpressions;
+  }
+}
@@ -19,6 +19,7 @@ import static io.confluent.ksql.util.KsqlConfig.KSQL_SHUTDOWN_TIMEOUT_MS_CONFIG;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.config.SessionConfig;
@@ -32,16 +33,20 @@ import io.confluent.ksql.execution.plan.ExecutionStep;
 import io.confluent.ksql.execution.plan.KStreamHolder;
 import io.confluent.ksql.execution.plan.KTableHolder;
 import io.confluent.ksql.execution.plan.PlanBuilder;
+import io.confluent.ksql.execution.plan.StreamSource;
 import io.confluent.ksql.execution.streams.KSPlanBuilder;
 import io.confluent.ksql.execution.streams.materialization.KsqlMaterializationFactory;
 import io.confluent.ksql.execution.streams.materialization.ks.KsMaterializationFactory;
 import io.confluent.ksql.execution.streams.metrics.RocksDBMetricsCollector;
+import io.confluent.ksql.execution.streams.transform.KsTransformer;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
 import io.confluent.ksql.execution.util.StructKeyUtil;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.logging.processing.ProcessingLogContext;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
 import io.confluent.ksql.metastore.model.DataSource;
 import io.confluent.ksql.metrics.ConsumerCollector;
+import io.confluent.ksql.metrics.MetricCollectors;
 import io.confluent.ksql.metrics.ProducerCollector;
 import io.confluent.ksql.name.SourceName;
 import io.confluent.ksql.properties.PropertiesUtil;
@@ -68,6 +73,7 @@ import java.util.Set;
 import java.util.function.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
@@ -80,6 +86,9 @@ public final class QueryExecutor {
   private static final String KSQL_THREAD_EXCEPTION_UNCAUGHT_LOGGER
       = "ksql.logger.thread.exception.uncaught";
 
+  // Queries sharing a pipeline can not block it when their queue is full, so allow more slack:
+  private static final int SHARED_QUERY_QUEUE_CAPACITY = 5_000;
+
   // CHECKSTYLE_RULES.ON: ClassDataAbstractionCoupling
   private final SessionConfig config;
   private final ProcessingLogContext processingLogContext;
@@ -89,19 +98,22 @@ public final class QueryExecutor {
   private final Consumer<QueryMetadata> queryCloseCallback;
   private final StreamsBuilder streamsBuilder;
   private final MaterializationProviderBuilderFactory materializationProviderBuilderFactory;
+  private final Optional<ScalablePushQueryRuntime> scalablePushQueryRuntime;
 
   public QueryExecutor(
       final SessionConfig config,
       final ProcessingLogContext processingLogContext,
       final ServiceContext serviceContext,
       final FunctionRegistry functionRegistry,
-      final Consumer<QueryMetadata> queryCloseCallback) {
+      final Consumer<QueryMetadata> queryCloseCallback,
+      final Optional<ScalablePushQueryRuntime> scalablePushQueryRuntime) {
     this(
         config,
         processingLogContext,
         serviceContext,
         functionRegistry,
         queryCloseCallback,
+        scalablePushQueryRuntime,
         new KafkaStreamsBuilderImpl(
             Objects.requireNonNull(serviceContext, "serviceContext").getKafkaClientSupplier()),
         new StreamsBuilder(),
@@ -120,6 +132,7 @@ public final class QueryExecutor {
       final ServiceContext serviceContext,
       final FunctionRegistry functionRegistry,
       final Consumer<QueryMetadata> queryCloseCallback,
+      final Optional<ScalablePushQueryRuntime> scalablePushQueryRuntime,
       final KafkaStreamsBuilder kafkaStreamsBuilder,
       final StreamsBuilder streamsBuilder,
       final MaterializationProviderBuilderFactory materializationProviderBuilderFactory
@@ -135,6 +148,10 @@ public final class QueryExecutor {
         queryCloseCallback,
         "queryCloseCallback"
     );
+    this.scalablePushQueryRuntime = Objects.requireNonNull(
+        scalablePushQueryRuntime,
+        "scalablePushQueryRuntime"
+    );
     this.kafkaStreamsBuilder = Objects.requireNonNull(kafkaStreamsBuilder, "kafkaStreamsBuilder");
     this.streamsBuilder = Objects.requireNonNull(streamsBuilder, "streamsBuilder");
     this.materializationProviderBuilderFactory = Objects.requireNonNull(
@@ -154,6 +171,25 @@ public final class QueryExecutor {
       final Optional<WindowInfo> windowInfo,
       final boolean excludeTombstones
   ) {
+    if (scalablePushQueryRuntime.isPresent()) {
+      final Optional<StreamSource> sharedSource = ScalablePushQueryRuntime
+          .shareableSource(config, physicalPlan);
+
+      if (sharedSource.isPresent()) {
+        return buildSharedTransientQuery(
+            statementText,
+            queryId,
+            sources,
+            physicalPlan,
+            planSummary,
+            schema,
+            limit,
+            scalablePushQueryRuntime.get(),
+            sharedSource.get()
+        );
+      }
+    }
+
     final KsqlQueryBuilder ksqlQueryBuilder = queryBuilder(queryId);
     final Object buildResult = buildQueryImplementation(physicalPlan, ksqlQueryBuilder);
 
@@ -170,7 +206,7 @@ public final class QueryExecutor {
         ? windowInfo.isPresent() ? ResultType.WINDOWED_TABLE : ResultType.TABLE
         : ResultType.STREAM;
 
-    return new TransientQueryMetadata(
+    final TransientQueryMetadata query = new TransientQueryMetadata(
         statementText,
         schema,
         sources,
@@ -186,6 +222,84 @@ public final class QueryExecutor {
         ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_ERROR_MAX_QUEUE_SIZE),
         resultType
     );
+
+    ksqlQueryBuilder.getQueryProfile().ifPresent(query::setQueryProfile);
+    return query;
+  }
+
+  // CHECKSTYLE_RULES.OFF: ParameterNumberCheck
+  private TransientQueryMetadata buildSharedTransientQuery(
+      final String statementText,
+      final QueryId queryId,
+      final Set<SourceName> sources,
+      final ExecutionStep<?> physicalPlan,
+      final String planSummary,
+      final LogicalSchema schema,
+      final OptionalInt limit,
+      final ScalablePushQueryRuntime runtime,
+      final StreamSource source
+  ) {
+    // CHECKSTYLE_RULES.ON: ParameterNumberCheck
+    final KsqlConfig ksqlConfig = config.getConfig(true);
+
+    final SharedSourcePipeline pipeline = runtime
+        .acquire(source, () -> buildSharedSourcePipeline(source));
+
+    try {
+      final KsqlQueryBuilder ksqlQueryBuilder = queryBuilder(queryId);
+      final KsqlTransformer<Struct, Optional<GenericRow>> transformer = ScalablePushQueryRuntime
+          .buildTransformer(physicalPlan, pipeline.getSchema(), ksqlQueryBuilder);
+
+      final String applicationId = QueryApplicationId.build(ksqlConfig, false, queryId);
+
+      final TransientQueryMetadata query = new SharedTransientQueryMetadata(
+          statementText,
+          schema,
+          sources,
+          planSummary,
+          new TransientQueryQueue(limit, SHARED_QUERY_QUEUE_CAPACITY, 100),
+          applicationId,
+          new Topology(),
+          kafkaStreamsBuilder,
+          ImmutableMap.of(),
+          config.getOverrides(),
+          queryCloseCallback,
+          ksqlConfig.getLong(KSQL_SHUTDOWN_TIMEOUT_MS_CONFIG),
+          ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_ERROR_MAX_QUEUE_SIZE),
+          pipeline,
+          transformer,
+          () -> runtime.release(source, pipeline)
+      );
+
+      ksqlQueryBuilder.getQueryProfile().ifPresent(query::setQueryProfile);
+      return query;
+    } catch (final RuntimeException e) {
+      runtime.release(source, pipeline);
+      throw e;
+    }
+  }
+
+  private SharedSourcePipeline buildSharedSourcePipeline(final StreamSource source) {
+    final KsqlConfig ksqlConfig = config.getConfig(true);
+    final QueryId pipelineId = new QueryId("SHARED_" + source.getTopicName());
+    final String applicationId = QueryApplicationId.build(ksqlConfig, false, pipelineId);
+    final KStreamHolder<Struct> stream = source.build(new KSPlanBuilder(queryBuilder(pipelineId)));
+    final Map<String, Object> streamsProperties =
+        buildStreamsProperties(applicationId, pipelineId);
+
+    return new SharedSourcePipeline(
+        applicationId,
+        source.getTopicName(),
+        stream.getSchema(),
+        publisher -> {
+          stream.getStream().transformValues(() -> new KsTransformer<>(publisher));
+          final Topology topology =
+              streamsBuilder.build(PropertiesUtil.asProperties(streamsProperties));
+          return kafkaStreamsBuilder.build(topology, streamsProperties);
+        },
+        ksqlConfig.getLong(KSQL_SHUTDOWN_TIMEOUT_MS_CONFIG),
+        MetricCollectors.getMetrics()
+    );
   }
 
   private static Optional<MaterializationInfo> getMaterializationInfo(final Object result) {
@@ -195,6 +309,12 @@ public final class QueryExecutor {
     return Optional.empty();
   }
 
+  /**
+   * Build a persistent query, without starting or registering it.
+   *
+   * <p>May be called concurrently on different executors, as when restoring queries in
+   * parallel: the state it mutates, the streams builder and query builder, is per executor.
+   */
   public PersistentQueryMetadata buildPersistentQuery(
       final String statementText,
       final QueryId queryId,
@@ -233,7 +353,7 @@ public final class QueryExecutor {
         .map(topicClassifier::and)
         .orElse(topicClassifier);
 
-    return new PersistentQueryMetadata(
+    final PersistentQueryMetadata query = new PersistentQueryMetadata(
         statementText,
         querySchema,
         sources,
@@ -254,6 +374,9 @@ public final class QueryExecutor {
         ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_ERROR_MAX_QUEUE_SIZE),
         getUncaughtExceptionProcessingLogger(queryId)
     );
+
+    ksqlQueryBuilder.getQueryProfile().ifPresent(query::setQueryProfile);
+    return query;
   }
 
   private ProcessingLogger getUncaughtExceptionProcessingLogger(final QueryId queryId) {
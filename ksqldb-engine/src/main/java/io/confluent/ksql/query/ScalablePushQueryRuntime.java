@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.query;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.config.SessionConfig;
+import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
+import io.confluent.ksql.execution.plan.ExecutionStep;
+import io.confluent.ksql.execution.plan.StreamFilter;
+import io.confluent.ksql.execution.plan.StreamSelect;
+import io.confluent.ksql.execution.plan.StreamSource;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
+import io.confluent.ksql.execution.transform.select.Selection;
+import io.confluent.ksql.execution.transform.sqlpredicate.SqlPredicate;
+import io.confluent.ksql.logging.processing.ProcessingLogger;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.connect.data.Struct;
+
+/**
+ * Runs push queries that only filter and project a single stream on Kafka Streams applications
+ * shared by all such queries on the same source.
+ *
+ * <p>The first such query on a source starts a {@link SharedSourcePipeline} to consume it. Later
+ * queries on the same source subscribe to that pipeline, each applying its own filter and
+ * projection to the rows the pipeline reads and buffering its results in its own queue. The
+ * pipeline is closed once its last subscriber is closed.
+ */
+public final class ScalablePushQueryRuntime {
+
+  private final Consumer<String> cleanup;
+  private final Map<StreamSource, SharedSourcePipeline> pipelines = new HashMap<>();
+  private final Map<SharedSourcePipeline, Integer> references = new HashMap<>();
+
+  /**
+   * @param cleanup called with the application id of each pipeline once it is closed, to
+   *     clean up its external resources.
+   */
+  public ScalablePushQueryRuntime(final Consumer<String> cleanup) {
+    this.cleanup = Objects.requireNonNull(cleanup, "cleanup");
+  }
+
+  /**
+   * @return the source stream of the supplied plan, if the query can share it with others.
+   */
+  static Optional<StreamSource> shareableSource(
+      final SessionConfig config,
+      final ExecutionStep<?> physicalPlan
+  ) {
+    final KsqlConfig ksqlConfig = config.getConfig(true);
+    if (!ksqlConfig.getBoolean(KsqlConfig.KSQL_QUERY_PUSH_SCALABLE_ENABLED)) {
+      return Optional.empty();
+    }
+
+    // A shared pipeline only sees rows produced after it started, and applies server defaults:
+    if (!config.getOverrides().isEmpty()) {
+      return Optional.empty();
+    }
+
+    final Object offsetReset = ksqlConfig.getKsqlStreamConfigProps()
+        .get(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG);
+    if (offsetReset != null && !"latest".equals(offsetReset)) {
+      return Optional.empty();
+    }
+
+    ExecutionStep<?> step = physicalPlan;
+    while (step instanceof StreamSelect || step instanceof StreamFilter) {
+      step = step.getSources().get(0);
+    }
+
+    return step instanceof StreamSource
+        ? Optional.of((StreamSource) step)
+        : Optional.empty();
+  }
+
+  /**
+   * Build the transformer a subscriber applies to each row of a shared pipeline.
+   *
+   * @param physicalPlan a plan for which {@link #shareableSource} returned a source.
+   * @param sourceSchema the schema of the rows produced by the pipeline.
+   * @param queryBuilder the builder of the subscribing query.
+   * @return the transformer, which returns empty for rows filtered out.
+   */
+  static KsqlTransformer<Struct, Optional<GenericRow>> buildTransformer(
+      final ExecutionStep<?> physicalPlan,
+      final LogicalSchema sourceSchema,
+      final KsqlQueryBuilder queryBuilder
+  ) {
+    final Deque<ExecutionStep<?>> steps = new ArrayDeque<>();
+    ExecutionStep<?> step = physicalPlan;
+    while (!(step instanceof StreamSource)) {
+      steps.push(step);
+      step = step.getSources().get(0);
+    }
+
+    LogicalSchema schema = sourceSchema;
+    final List<KsqlTransformer<Struct, Optional<GenericRow>>> transformers = new ArrayList<>();
+    for (final ExecutionStep<?> current : steps) {
+      final ProcessingLogger logger = queryBuilder
+          .getProcessingLogger(current.getProperties().getQueryContext());
+
+      if (current instanceof StreamFilter) {
+        final SqlPredicate predicate = new SqlPredicate(
+            ((StreamFilter<?>) current).getFilterExpression(),
+            schema,
+            queryBuilder.getKsqlConfig(),
+            queryBuilder.getFunctionRegistry()
+        );
+
+        transformers.add(predicate.getTransformer(logger));
+      } else {
+        final StreamSelect<?> select = (StreamSelect<?>) current;
+        final Selection<Struct> selection = Selection.of(
+            schema,
+            select.getKeyColumnNames(),
+            select.getSelectExpressions(),
+            queryBuilder.getKsqlConfig(),
+            queryBuilder.getFunctionRegistry()
+        );
+
+        final KsqlTransformer<Struct, GenericRow> mapper = selection.getMapper()
+            .getTransformer(logger);
+
+        transformers.add((key, value, ctx) ->
+            Optional.ofNullable(mapper.transform(key, value, ctx)));
+        schema = selection.getSchema();
+      }
+    }
+
+    return (key, value, ctx) -> {
+      Optional<GenericRow> row = Optional.of(value);
+      for (final KsqlTransformer<Struct, Optional<GenericRow>> transformer : transformers) {
+        row = transformer.transform(key, row.get(), ctx);
+        if (!row.isPresent()) {
+          break;
+        }
+      }
+      return row;
+    };
+  }
+
+  /**
+   * Get the pipeline for the supplied {@code source}, creating it if needed. Each call must be
+   * matched with a call to {@link #release}.
+   */
+  synchronized SharedSourcePipeline acquire(
+      final StreamSource source,
+      final Supplier<SharedSourcePipeline> pipelineFactory
+  ) {
+    final SharedSourcePipeline pipeline = pipelines
+        .computeIfAbsent(source, ignored -> pipelineFactory.get());
+
+    references.merge(pipeline, 1, Integer::sum);
+    return pipeline;
+  }
+
+  /**
+   * Release a pipeline obtained from {@link #acquire}, closing it if this was the last
+   * reference to it.
+   */
+  void release(final StreamSource source, final SharedSourcePipeline pipeline) {
+    synchronized (this) {
+      final int remaining = references.merge(pipeline, -1, Integer::sum);
+      if (remaining > 0) {
+        return;
+      }
+
+      references.remove(pipeline);
+      pipelines.remove(source, pipeline);
+    }
+
+    pipeline.close();
+    cleanup.accept(pipeline.getApplicationId());
+  }
+
+  @VisibleForTesting
+  synchronized int numPipelines() {
+    return pipelines.size();
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.query;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.transform.KsqlProcessingContext;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KafkaStreams.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Kafka Streams application that consumes a single source stream on behalf of any number of
+ * {@link SharedTransientQueryMetadata subscribers}, passing each row it reads to all of them.
+ *
+ * <p>The application is built and started when the first subscriber starts.
+ */
+final class SharedSourcePipeline {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SharedSourcePipeline.class);
+
+  private final String applicationId;
+  private final LogicalSchema schema;
+  private final Function<KsqlTransformer<Struct, Void>, KafkaStreams> streamsFactory;
+  private final long closeTimeout;
+  private final Metrics metrics;
+  private final MetricName subscribersMetricName;
+  private final List<SharedTransientQueryMetadata> subscribers = new CopyOnWriteArrayList<>();
+  private KafkaStreams kafkaStreams;
+  private boolean closed;
+
+  /**
+   * @param applicationId the application id of the pipeline.
+   * @param sourceTopic the topic the pipeline consumes.
+   * @param schema the schema of the rows passed to subscribers.
+   * @param streamsFactory builds the application, given the transformer it should pass each row
+   *     it reads to.
+   * @param closeTimeout the timeout when closing the application, in milliseconds.
+   * @param metrics the metrics to register the pipeline's metrics with.
+   */
+  SharedSourcePipeline(
+      final String applicationId,
+      final String sourceTopic,
+      final LogicalSchema schema,
+      final Function<KsqlTransformer<Struct, Void>, KafkaStreams> streamsFactory,
+      final long closeTimeout,
+      final Metrics metrics
+  ) {
+    this.applicationId = Objects.requireNonNull(applicationId, "applicationId");
+    this.schema = Objects.requireNonNull(schema, "schema");
+    this.streamsFactory = Objects.requireNonNull(streamsFactory, "streamsFactory");
+    this.closeTimeout = closeTimeout;
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+
+    this.subscribersMetricName = metrics.metricName(
+        "push-query-shared-pipeline-subscribers",
+        "ksql-queries",
+        "The number of push queries subscribed to the shared pipeline consuming the given topic.",
+        ImmutableMap.of(
+            "pipeline", applicationId,
+            "topic", Objects.requireNonNull(sourceTopic, "sourceTopic")
+        )
+    );
+
+    metrics.addMetric(subscribersMetricName, (Gauge<Integer>) (config, now) -> subscribers.size());
+  }
+
+  String getApplicationId() {
+    return applicationId;
+  }
+
+  LogicalSchema getSchema() {
+    return schema;
+  }
+
+  int numSubscribers() {
+    return subscribers.size();
+  }
+
+  synchronized State getState() {
+    if (kafkaStreams == null) {
+      return closed ? State.NOT_RUNNING : State.CREATED;
+    }
+    return kafkaStreams.state();
+  }
+
+  synchronized void subscribe(final SharedTransientQueryMetadata subscriber) {
+    if (closed) {
+      throw new IllegalStateException("Pipeline closed: " + applicationId);
+    }
+
+    subscribers.add(subscriber);
+
+    if (kafkaStreams == null) {
+      LOG.info("Starting shared push query pipeline with application id: {}", applicationId);
+      kafkaStreams = streamsFactory.apply(this::publish);
+      kafkaStreams.setStateListener(this::onStateChange);
+      kafkaStreams.setUncaughtExceptionHandler(this::onUncaughtException);
+      kafkaStreams.start();
+    }
+  }
+
+  void unsubscribe(final SharedTransientQueryMetadata subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  synchronized void close() {
+    closed = true;
+    metrics.removeMetric(subscribersMetricName);
+
+    if (kafkaStreams != null) {
+      LOG.info("Closing shared push query pipeline with application id: {}", applicationId);
+      kafkaStreams.close(Duration.ofMillis(closeTimeout));
+      kafkaStreams.cleanUp();
+    }
+  }
+
+  private Void publish(
+      final Struct key,
+      final GenericRow value,
+      final KsqlProcessingContext ctx
+  ) {
+    // Null value for a stream is invalid:
+    if (value != null) {
+      subscribers.forEach(subscriber -> subscriber.onRow(key, value, ctx));
+    }
+    return null;
+  }
+
+  private void onStateChange(final State newState, final State oldState) {
+    subscribers.forEach(subscriber -> subscriber.onStateChange(newState, oldState));
+  }
+
+  private void onUncaughtException(final Thread thread, final Throwable e) {
+    LOG.error("Unhandled exception caught in shared pipeline thread {}.", thread.getName(), e);
+    subscribers.forEach(subscriber -> subscriber.onPipelineError(thread, e));
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.query;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.profile.QueryProfile;
+import io.confluent.ksql.execution.transform.KsqlProcessingContext;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
+import io.confluent.ksql.internal.QueryStateListener;
+import io.confluent.ksql.name.SourceName;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.util.KsqlException;
+import io.confluent.ksql.util.QueryMetadata;
+import io.confluent.ksql.util.TransientQueryMetadata;
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KafkaStreams.State;
+import org.apache.kafka.streams.LagInfo;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.state.StreamsMetadata;
+
+/**
+ * A push query subscribed to a {@link SharedSourcePipeline}, rather than running its own Kafka
+ * Streams application.
+ *
+ * <p>Rows are filtered and projected on the pipeline's stream thread, and buffered in the query's
+ * own queue. A full queue can not block the pipeline, as that would stall every other subscriber.
+ * Instead, a query that falls that far behind is unsubscribed and fails.
+ */
+final class SharedTransientQueryMetadata extends TransientQueryMetadata {
+
+  private final SharedSourcePipeline pipeline;
+  private final KsqlTransformer<Struct, Optional<GenericRow>> transformer;
+  private final TransientQueryQueue queue;
+  private final Runnable release;
+
+  private volatile boolean subscribed;
+  private volatile UncaughtExceptionHandler uncaughtExceptionHandler = this::uncaughtHandler;
+  private volatile Optional<QueryStateListener> stateListener = Optional.empty();
+
+  // CHECKSTYLE_RULES.OFF: ParameterNumberCheck
+  SharedTransientQueryMetadata(
+      final String statementString,
+      final LogicalSchema logicalSchema,
+      final Set<SourceName> sourceNames,
+      final String executionPlan,
+      final TransientQueryQueue queue,
+      final String queryApplicationId,
+      final Topology topology,
+      final KafkaStreamsBuilder kafkaStreamsBuilder,
+      final Map<String, Object> streamsProperties,
+      final Map<String, Object> overriddenProperties,
+      final Consumer<QueryMetadata> closeCallback,
+      final long closeTimeout,
+      final int maxQueryErrorsQueueSize,
+      final SharedSourcePipeline pipeline,
+      final KsqlTransformer<Struct, Optional<GenericRow>> transformer,
+      final Runnable release
+  ) {
+    // CHECKSTYLE_RULES.ON: ParameterNumberCheck
+    super(
+        statementString,
+        logicalSchema,
+        sourceNames,
+        executionPlan,
+        queue,
+        queryApplicationId,
+        topology,
+        kafkaStreamsBuilder,
+        streamsProperties,
+        overriddenProperties,
+        closeCallback,
+        closeTimeout,
+        maxQueryErrorsQueueSize,
+        ResultType.STREAM,
+        false
+    );
+    this.queue = Objects.requireNonNull(queue, "queue");
+    this.pipeline = Objects.requireNonNull(pipeline, "pipeline");
+    this.transformer = Objects.requireNonNull(transformer, "transformer");
+    this.release = Objects.requireNonNull(release, "release");
+  }
+
+  @Override
+  public void start() {
+    if (subscribed || isClosed()) {
+      return;
+    }
+
+    subscribed = true;
+    super.start();
+  }
+
+  @Override
+  protected void startKafkaStreams() {
+    pipeline.subscribe(this);
+  }
+
+  @Override
+  public synchronized void close() {
+    if (isClosed()) {
+      return;
+    }
+
+    closed = true;
+    queue.close();
+    pipeline.unsubscribe(this);
+    release.run();
+    stateListener.ifPresent(QueryStateListener::close);
+    getQueryProfile().ifPresent(QueryProfile::unregisterMetrics);
+    closeCallback.accept(this);
+  }
+
+  @Override
+  public boolean isRunning() {
+    return !isClosed();
+  }
+
+  @Override
+  public State getState() {
+    return isClosed() ? State.NOT_RUNNING : pipeline.getState();
+  }
+
+  @Override
+  public void setQueryStateListener(final QueryStateListener queryStateListener) {
+    stateListener = Optional.of(queryStateListener);
+    final State state = getState();
+    queryStateListener.onChange(state, state);
+  }
+
+  @Override
+  public void setUncaughtExceptionHandler(final UncaughtExceptionHandler handler) {
+    uncaughtExceptionHandler = Objects.requireNonNull(handler, "handler");
+  }
+
+  @Override
+  public Map<String, Map<Integer, LagInfo>> getAllLocalStorePartitionLags() {
+    return ImmutableMap.of();
+  }
+
+  @Override
+  public Collection<StreamsMetadata> getAllMetadata() {
+    return ImmutableList.of();
+  }
+
+  @Override
+  public long uptime() {
+    return stateListener.map(QueryStateListener::uptime).orElse(0L);
+  }
+
+  void onRow(final Struct key, final GenericRow value, final KsqlProcessingContext ctx) {
+    if (isClosed()) {
+      return;
+    }
+
+    final Optional<GenericRow> row = transformer.transform(key, value, ctx);
+    if (!row.isPresent() || queue.tryAcceptRow(null, row.get())) {
+      return;
+    }
+
+    // Must not close from the pipeline's stream thread, so leave that to the consumer of the
+    // query, which is notified via the error handler:
+    pipeline.unsubscribe(this);
+    queue.close();
+    uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), new KsqlException(
+        "Push query " + getQueryApplicationId() + " fell too far behind the shared pipeline "
+            + pipeline.getApplicationId() + " consuming its source, and was terminated."));
+  }
+
+  void onStateChange(final State newState, final State oldState) {
+    stateListener.ifPresent(listener -> listener.onChange(newState, oldState));
+  }
+
+  void onPipelineError(final Thread thread, final Throwable e) {
+    uncaughtExceptionHandler.uncaughtException(thread, e);
+  }
+}
@@ -17,7 +17,6 @@ package io.confluent.ksql.query;
 
 import static io.confluent.ksql.util.KeyValue.keyValue;
 
-import com.google.common.annotations.VisibleForTesting;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.util.KeyValue;
 import java.util.Collection;
@@ -43,7 +42,6 @@ public class TransientQueryQueue implements BlockingRowQueue {
     this(limit, BLOCKING_QUEUE_CAPACITY, 100);
   }
 
-  @VisibleForTesting
   TransientQueryQueue(
       final OptionalInt limit,
       final int queueSizeLimit,
@@ -134,4 +132,22 @@ public class TransientQueryQueue implements BlockingRowQueue {
       Thread.currentThread().interrupt();
     }
   }
+
+  /**
+   * Like {@link #acceptRow}, but does not wait for space in the queue.
+   *
+   * @return {@code false} if the queue was full and the row was not queued.
+   */
+  public boolean tryAcceptRow(final List<?> key, final GenericRow value) {
+    if (closed || !callback.shouldQueue()) {
+      return true;
+    }
+
+    if (!rowQueue.offer(keyValue(key, value))) {
+      return false;
+    }
+
+    callback.onQueued();
+    return true;
+  }
 }
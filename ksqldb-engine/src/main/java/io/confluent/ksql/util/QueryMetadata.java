@@ -20,6 +20,7 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.EvictingQueue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.execution.profile.QueryProfile;
 import io.confluent.ksql.internal.QueryStateListener;
 import io.confluent.ksql.name.SourceName;
 import io.confluent.ksql.query.KafkaStreamsBuilder;
@@ -68,10 +69,11 @@ public abstract class QueryMetadata {
 
   private Optional<QueryStateListener> queryStateListener = Optional.empty();
   private boolean everStarted = false;
-  protected boolean closed = false;
+  protected volatile boolean closed = false;
   private UncaughtExceptionHandler uncaughtExceptionHandler = this::uncaughtHandler;
   private KafkaStreams kafkaStreams;
   private Consumer<Boolean> onStop = (ignored) -> { };
+  private Optional<QueryProfile> queryProfile = Optional.empty();
 
   // CHECKSTYLE_RULES.OFF: ParameterNumberCheck
   @VisibleForTesting
@@ -90,6 +92,49 @@ public abstract class QueryMetadata {
       final QueryId queryId,
       final QueryErrorClassifier errorClassifier,
       final int maxQueryErrorsQueueSize
+  ) {
+    // CHECKSTYLE_RULES.ON: ParameterNumberCheck
+    this(
+        statementString,
+        logicalSchema,
+        sourceNames,
+        executionPlan,
+        queryApplicationId,
+        topology,
+        kafkaStreamsBuilder,
+        streamsProperties,
+        overriddenProperties,
+        closeCallback,
+        closeTimeout,
+        queryId,
+        errorClassifier,
+        maxQueryErrorsQueueSize,
+        true
+    );
+  }
+
+  /**
+   * @param ownsKafkaStreams {@code false} if the query's rows come from a Kafka Streams
+   *     application it shares with other queries. No application is built for the query, and the
+   *     subclass must override every method that would otherwise act on one.
+   */
+  // CHECKSTYLE_RULES.OFF: ParameterNumberCheck
+  protected QueryMetadata(
+      final String statementString,
+      final LogicalSchema logicalSchema,
+      final Set<SourceName> sourceNames,
+      final String executionPlan,
+      final String queryApplicationId,
+      final Topology topology,
+      final KafkaStreamsBuilder kafkaStreamsBuilder,
+      final Map<String, Object> streamsProperties,
+      final Map<String, Object> overriddenProperties,
+      final Consumer<QueryMetadata> closeCallback,
+      final long closeTimeout,
+      final QueryId queryId,
+      final QueryErrorClassifier errorClassifier,
+      final int maxQueryErrorsQueueSize,
+      final boolean ownsKafkaStreams
   ) {
     // CHECKSTYLE_RULES.ON: ParameterNumberCheck
     this.statementString = Objects.requireNonNull(statementString, "statementString");
@@ -111,9 +156,11 @@ public abstract class QueryMetadata {
     this.errorClassifier = Objects.requireNonNull(errorClassifier, "errorClassifier");
     this.queryErrors = EvictingQueue.create(maxQueryErrorsQueueSize);
 
-    // initialize the first KafkaStreams
-    this.kafkaStreams = kafkaStreamsBuilder.build(topology, streamsProperties);
-    kafkaStreams.setUncaughtExceptionHandler(this::uncaughtHandler);
+    if (ownsKafkaStreams) {
+      // initialize the first KafkaStreams
+      this.kafkaStreams = kafkaStreamsBuilder.build(topology, streamsProperties);
+      kafkaStreams.setUncaughtExceptionHandler(this::uncaughtHandler);
+    }
   }
 
   protected QueryMetadata(final QueryMetadata other, final Consumer<QueryMetadata> closeCallback) {
@@ -137,6 +184,17 @@ public abstract class QueryMetadata {
     this.queryErrors = other.queryErrors;
   }
 
+  /**
+   * Set the profile of the query, whose metrics are registered while the query runs.
+   */
+  public void setQueryProfile(final QueryProfile queryProfile) {
+    this.queryProfile = Optional.of(queryProfile);
+  }
+
+  public Optional<QueryProfile> getQueryProfile() {
+    return queryProfile;
+  }
+
   public void setQueryStateListener(final QueryStateListener queryStateListener) {
     this.queryStateListener = Optional.of(queryStateListener);
     kafkaStreams.setStateListener(queryStateListener);
@@ -310,6 +368,7 @@ public abstract class QueryMetadata {
     }
 
     queryStateListener.ifPresent(QueryStateListener::close);
+    queryProfile.ifPresent(QueryProfile::unregisterMetrics);
 
     if (cleanUp) {
       closeCallback.accept(this);
@@ -320,6 +379,11 @@ public abstract class QueryMetadata {
   public void start() {
     LOG.info("Starting query with application id: {}", queryApplicationId);
     everStarted = true;
+    queryProfile.ifPresent(QueryProfile::registerMetrics);
+    startKafkaStreams();
+  }
+
+  protected void startKafkaStreams() {
     kafkaStreams.start();
   }
 
@@ -61,6 +61,49 @@ public class TransientQueryMetadata extends QueryMetadata {
       final long closeTimeout,
       final int maxQueryErrorsQueueSize,
       final ResultType resultType
+  ) {
+    // CHECKSTYLE_RULES.ON: ParameterNumberCheck
+    this(
+        statementString,
+        logicalSchema,
+        sourceNames,
+        executionPlan,
+        rowQueue,
+        queryApplicationId,
+        topology,
+        kafkaStreamsBuilder,
+        streamsProperties,
+        overriddenProperties,
+        closeCallback,
+        closeTimeout,
+        maxQueryErrorsQueueSize,
+        resultType,
+        true
+    );
+  }
+
+  /**
+   * @see QueryMetadata#QueryMetadata(String, LogicalSchema, Set, String, String, Topology,
+   *     KafkaStreamsBuilder, Map, Map, Consumer, long, QueryId, QueryErrorClassifier, int,
+   *     boolean)
+   */
+  // CHECKSTYLE_RULES.OFF: ParameterNumberCheck
+  protected TransientQueryMetadata(
+      final String statementString,
+      final LogicalSchema logicalSchema,
+      final Set<SourceName> sourceNames,
+      final String executionPlan,
+      final BlockingRowQueue rowQueue,
+      final String queryApplicationId,
+      final Topology topology,
+      final KafkaStreamsBuilder kafkaStreamsBuilder,
+      final Map<String, Object> streamsProperties,
+      final Map<String, Object> overriddenProperties,
+      final Consumer<QueryMetadata> closeCallback,
+      final long closeTimeout,
+      final int maxQueryErrorsQueueSize,
+      final ResultType resultType,
+      final boolean ownsKafkaStreams
   ) {
     // CHECKSTYLE_RULES.ON: ParameterNumberCheck
     super(
@@ -77,7 +120,8 @@ public class TransientQueryMetadata extends QueryMetadata {
         closeTimeout,
         new QueryId(queryApplicationId),
         QueryErrorClassifier.DEFAULT_CLASSIFIER,
-        maxQueryErrorsQueueSize
+        maxQueryErrorsQueueSize,
+        ownsKafkaStreams
     );
     this.rowQueue = Objects.requireNonNull(rowQueue, "rowQueue");
     this.resultType = Objects.requireNonNull(resultType, "resultType");
@@ -31,7 +31,6 @@ import io.confluent.ksql.parser.tree.WindowExpression;
 import io.confluent.ksql.serde.RefinementInfo;
 import io.confluent.ksql.util.KsqlException;
 import java.util.Optional;
-import java.util.OptionalInt;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -168,17 +167,13 @@ public class PullQueryValidatorTest {
   }
 
   @Test
-  public void shouldThrowOnLimitClause() {
+  public void shouldNotThrowOnLimitClause() {
     // Given:
-    when(analysis.getLimitClause()).thenReturn(OptionalInt.of(1));
+    when(analysis.getRefinementInfo()).thenReturn(Optional.empty());
 
     // When:
-    final Exception e = assertThrows(
-        KsqlException.class,
-        () -> validator.validate(analysis)
-    );
+    validator.validate(analysis);
 
-    // Then:
-    assertThat(e.getMessage(), containsString("Pull queries don't support LIMIT clauses."));
+    // Then: did not throw.
   }
-}
\ No newline at end of file
+}
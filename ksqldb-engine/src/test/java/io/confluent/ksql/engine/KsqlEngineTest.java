@@ -22,6 +22,7 @@ import static io.confluent.ksql.util.KsqlExceptionMatcher.statementText;
 import static java.util.Collections.emptyMap;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
@@ -62,6 +63,7 @@ import io.confluent.ksql.parser.tree.CreateStream;
 import io.confluent.ksql.parser.tree.CreateStreamAsSelect;
 import io.confluent.ksql.parser.tree.CreateTable;
 import io.confluent.ksql.parser.tree.DropTable;
+import io.confluent.ksql.planner.plan.ConfiguredKsqlPlan;
 import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.schema.ksql.SystemColumns;
 import io.confluent.ksql.services.FakeKafkaConsumerGroupClient;
@@ -84,6 +86,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.avro.Schema;
@@ -162,6 +168,68 @@ public class KsqlEngineTest {
     assertThat(((PersistentQueryMetadata) queries.get(1)).getSinkName(), is(SourceName.of("FOO")));
   }
 
+  @Test
+  public void shouldExecuteDdlButDeferBuildOfQuery() {
+    // Given:
+    final ConfiguredKsqlPlan plan = planStatement("create table bar as select * from test2;");
+
+    // When:
+    final Supplier<PersistentQueryMetadata> query =
+        ksqlEngine.executeDeferringQuery(serviceContext, plan);
+
+    // Then:
+    assertThat(metaStore.getSource(SourceName.of("BAR")), is(notNullValue()));
+    assertThat(ksqlEngine.getPersistentQueries(), is(empty()));
+
+    // When:
+    final PersistentQueryMetadata built = query.get();
+    final ExecuteResult result = ksqlEngine.registerDeferredQuery(built);
+
+    // Then:
+    assertThat(result.getQuery(), is(Optional.of(built)));
+    assertThat(ksqlEngine.getPersistentQueries(), contains(built));
+    assertThat(ksqlEngine.getPersistentQuery(built.getQueryId()), is(Optional.of(built)));
+  }
+
+  @Test
+  public void shouldBuildDeferredQueriesConcurrently() throws Exception {
+    // Given:
+    final List<Callable<PersistentQueryMetadata>> builds = new ArrayList<>();
+    for (int i = 0; i != 8; ++i) {
+      final Supplier<PersistentQueryMetadata> build = ksqlEngine.executeDeferringQuery(
+          serviceContext, planStatement("create table t" + i + " as select * from test2;"));
+      builds.add(build::get);
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(builds.size());
+
+    // When:
+    try {
+      for (final Future<PersistentQueryMetadata> built : executor.invokeAll(builds)) {
+        ksqlEngine.registerDeferredQuery(built.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Then:
+    assertThat(
+        ksqlEngine.getPersistentQueries().stream()
+            .map(PersistentQueryMetadata::getSinkName)
+            .collect(Collectors.toList()),
+        containsInAnyOrder(
+            SourceName.of("T0"), SourceName.of("T1"), SourceName.of("T2"), SourceName.of("T3"),
+            SourceName.of("T4"), SourceName.of("T5"), SourceName.of("T6"), SourceName.of("T7")
+        )
+    );
+    assertThat(
+        ksqlEngine.getPersistentQueries().stream()
+            .map(PersistentQueryMetadata::getQueryId)
+            .distinct()
+            .count(),
+        is(8L)
+    );
+  }
+
   @Test
   public void shouldNotHaveRowTimeAndRowKeyColumnsInPersistentQueryValueSchema() {
     // When:
@@ -1563,6 +1631,15 @@ public class KsqlEngineTest {
     return ksqlEngine.parse(sql);
   }
 
+  private ConfiguredKsqlPlan planStatement(final String sql) {
+    final SessionConfig config = SessionConfig.of(KSQL_CONFIG, Collections.emptyMap());
+    final KsqlPlan plan = ksqlEngine.plan(
+        serviceContext,
+        ConfiguredStatement.of(prepare(parse(sql).get(0)), config)
+    );
+    return ConfiguredKsqlPlan.of(plan, config);
+  }
+
   private PreparedStatement<?> prepare(final ParsedStatement stmt) {
     return ksqlEngine.prepare(stmt);
   }
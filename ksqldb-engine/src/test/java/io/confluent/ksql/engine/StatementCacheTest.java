@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.engine;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.metastore.MetaStore;
+import io.confluent.ksql.parser.DefaultKsqlParser;
+import io.confluent.ksql.parser.KsqlParser.ParsedStatement;
+import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
+import io.confluent.ksql.parser.tree.Statement;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatementCacheTest {
+
+  private static final String SQL = "SELECT * FROM FOO;";
+  private static final ParsedStatement PARSED = new DefaultKsqlParser().parse(SQL).get(0);
+
+  @Mock
+  private Function<String, List<ParsedStatement>> parser;
+  @Mock
+  private Supplier<PreparedStatement<?>> preparer;
+  @Mock
+  private MetaStore metaStore;
+  @Mock
+  private Statement statement;
+  private PreparedStatement<?> prepared;
+  private StatementCache cache;
+
+  @Before
+  public void setUp() {
+    prepared = PreparedStatement.of(SQL, statement);
+    cache = new StatementCache(10);
+
+    when(metaStore.getVersion()).thenReturn(1L);
+  }
+
+  @Test
+  public void shouldParseSqlOnlyOnce() {
+    // Given:
+    when(parser.apply(SQL)).thenReturn(ImmutableList.of(PARSED));
+
+    // When:
+    cache.parse(SQL, parser);
+    final List<ParsedStatement> result = cache.parse(SQL, parser);
+
+    // Then:
+    assertThat(result, is(ImmutableList.of(PARSED)));
+    verify(parser, times(1)).apply(SQL);
+    assertThat(cache.stats().hitCount(), is(1L));
+    assertThat(cache.stats().missCount(), is(1L));
+  }
+
+  @Test
+  public void shouldPrepareStatementOnlyOnceForSameVersionAndVariables() {
+    // Given:
+    when(preparer.get()).thenReturn(prepared);
+
+    // When:
+    cache.prepare(PARSED, ImmutableMap.of("a", "b"), metaStore, preparer);
+    final PreparedStatement<?> result =
+        cache.prepare(PARSED, ImmutableMap.of("a", "b"), metaStore, preparer);
+
+    // Then:
+    assertThat(result, is(sameInstance(prepared)));
+    verify(preparer, times(1)).get();
+  }
+
+  @Test
+  public void shouldPrepareStatementAgainWithDifferentVariables() {
+    // Given:
+    when(preparer.get()).thenReturn(prepared);
+
+    // When:
+    cache.prepare(PARSED, ImmutableMap.of("a", "b"), metaStore, preparer);
+    cache.prepare(PARSED, ImmutableMap.of("a", "c"), metaStore, preparer);
+
+    // Then:
+    verify(preparer, times(2)).get();
+  }
+
+  @Test
+  public void shouldPrepareStatementAgainOnceMetaStoreChanges() {
+    // Given:
+    when(preparer.get()).thenReturn(prepared);
+    cache.prepare(PARSED, ImmutableMap.of(), metaStore, preparer);
+    when(metaStore.getVersion()).thenReturn(2L);
+
+    // When:
+    cache.prepare(PARSED, ImmutableMap.of(), metaStore, preparer);
+
+    // Then:
+    verify(preparer, times(2)).get();
+  }
+
+  @Test
+  public void shouldNotCacheStatementIfMetaStoreChangesWhilePreparing() {
+    // Given:
+    when(metaStore.getVersion()).thenReturn(1L, 2L, 2L, 2L);
+    when(preparer.get()).thenReturn(prepared);
+    cache.prepare(PARSED, ImmutableMap.of(), metaStore, preparer);
+
+    // When:
+    cache.prepare(PARSED, ImmutableMap.of(), metaStore, preparer);
+
+    // Then:
+    verify(preparer, times(2)).get();
+  }
+}
@@ -700,6 +700,22 @@ public class UdfLoaderTest {
     assertThat(udf.eval(this, 1, 1), equalTo(2));
   }
 
+  @Test
+  public void shouldInvokeFunctionWithDifferentNumbersOfVarArgs() throws Exception {
+    final FunctionInvoker udf = FunctionLoaderUtils
+        .createFunctionInvoker(getClass().getMethod("udfPrimitive", int[].class));
+    assertThat(udf.eval(this), equalTo(0));
+    assertThat(udf.eval(this, 1, 2, 3), equalTo(6));
+    assertThat(udf.eval(this, 1, 2), equalTo(3));
+  }
+
+  @Test
+  public void shouldInvokeFunctionReflectively() throws Exception {
+    final FunctionInvoker udf = FunctionLoaderUtils
+        .createReflectiveFunctionInvoker(getClass().getMethod("udf", String[].class));
+    assertThat(udf.eval(this, "foo", "bar"), equalTo("foobar"));
+  }
+
   @Test
   public void shouldInvokeFunctionWithPrimitiveLongArgument() throws Exception {
     final FunctionInvoker udf = FunctionLoaderUtils
@@ -16,9 +16,15 @@
 package io.confluent.ksql.function.udaf.count;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
 
 import com.google.common.primitives.Ints;
+import io.confluent.ksql.function.KsqlFunctionException;
 import io.confluent.ksql.function.udaf.Udaf;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -105,4 +111,143 @@ public class CountDistinctKudafTest {
     assertThat(udaf.map(udaf.merge(agg1, agg2)), is(5L));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void shouldCountStringsWithCompactState() {
+    // Given:
+    final Udaf<String, String, Long> udaf = CountDistinct.distinct(14);
+    String agg = udaf.initialize();
+
+    // When:
+    for (int i = 0; i < 100; i++) {
+      agg = udaf.aggregate(String.valueOf(i % 4), agg);
+    }
+
+    // Then:
+    assertThat(udaf.map(agg), is(4L));
+  }
+
+  @Test
+  public void shouldIgnoreNullsWithCompactState() {
+    // Given:
+    final Udaf<String, String, Long> udaf = CountDistinct.distinct(14);
+    final String initial = udaf.initialize();
+
+    // When:
+    final String agg = udaf.aggregate(null, initial);
+
+    // Then:
+    assertThat(agg, is(sameInstance(initial)));
+    assertThat(udaf.map(agg), is(0L));
+  }
+
+  @Test
+  public void shouldNotChangeCompactStateForRepeatedValue() {
+    // Given:
+    final Udaf<String, String, Long> udaf = CountDistinct.distinct(14);
+    final String agg = udaf.aggregate("a", udaf.initialize());
+
+    // When:
+    final String result = udaf.aggregate("a", agg);
+
+    // Then:
+    assertThat(result, is(sameInstance(agg)));
+  }
+
+  @Test
+  public void shouldKeepCompactStatesOfDifferentKeysApart() {
+    // Given:
+    final Udaf<Integer, String, Long> udaf = CountDistinct.distinct(8);
+    final Udaf<Integer, String, Long> oneOnly = CountDistinct.distinct(8);
+    final Udaf<Integer, String, Long> twoOnly = CountDistinct.distinct(8);
+    String one = udaf.initialize();
+    String two = udaf.initialize();
+    String expectedOne = udaf.initialize();
+    String expectedTwo = udaf.initialize();
+
+    // When:
+    for (int i = 0; i < 1000; i++) {
+      one = udaf.aggregate(i, one);
+      two = udaf.aggregate(-i % 7, two);
+      expectedOne = oneOnly.aggregate(i, expectedOne);
+      expectedTwo = twoOnly.aggregate(-i % 7, expectedTwo);
+    }
+
+    // Then:
+    assertThat(one, is(expectedOne));
+    assertThat(two, is(expectedTwo));
+  }
+
+  @Test
+  public void shouldKeepCompactStateSmallForFewDistinctValues() {
+    // Given:
+    final Udaf<String, String, Long> udaf = CountDistinct.distinct(14);
+    String agg = udaf.initialize();
+
+    // When:
+    for (int i = 0; i < 10; i++) {
+      agg = udaf.aggregate(String.valueOf(i), agg);
+    }
+
+    // Then:
+    assertThat(agg.length(), is(lessThan(100)));
+    assertThat(udaf.map(agg), is(10L));
+  }
+
+  @Test
+  public void shouldEstimateHighCardinalityWithCompactState() {
+    // Given:
+    final Udaf<Integer, String, Long> udaf = CountDistinct.distinct(14);
+    String agg = udaf.initialize();
+
+    // When:
+    for (int i = 0; i < 100_000; i++) {
+      agg = udaf.aggregate(i, agg);
+    }
+
+    // Then:
+    assertThat(agg.length(), is(lessThan(20_000)));
+    assertThat(udaf.map(agg), is(both(greaterThan(97_000L)).and(lessThan(103_000L))));
+  }
+
+  @Test
+  public void shouldMergeCompactState() {
+    // Given:
+    final Udaf<String, String, Long> udaf = CountDistinct.distinct(14);
+    String agg1 = udaf.initialize();
+    String agg2 = udaf.initialize();
+
+    // When:
+    for (int i = 0; i < 100; i++) {
+      agg1 = udaf.aggregate(String.valueOf(i % 4), agg1);
+    }
+    agg2 = udaf.aggregate("5", agg2);
+
+    // Then:
+    assertThat(udaf.map(udaf.merge(agg1, agg2)), is(5L));
+  }
+
+  @Test
+  public void shouldMergeSparseAndDenseCompactState() {
+    // Given:
+    final Udaf<Integer, String, Long> udaf = CountDistinct.distinct(10);
+    String dense = udaf.initialize();
+    for (int i = 0; i < 10_000; i++) {
+      dense = udaf.aggregate(i, dense);
+    }
+    final String sparse = udaf.aggregate(-1, udaf.initialize());
+
+    // When:
+    final long merged = udaf.map(udaf.merge(sparse, dense));
+
+    // Then:
+    assertThat(merged, is(udaf.map(udaf.merge(dense, sparse))));
+    assertThat(merged, is(both(greaterThan(9_000L)).and(lessThan(11_000L))));
+  }
+
+  @Test
+  public void shouldThrowOnInvalidPrecision() {
+    assertThrows(KsqlFunctionException.class, () -> CountDistinct.distinct(17));
+    assertThrows(KsqlFunctionException.class, () -> CountDistinct.distinct(3));
+  }
+
+}
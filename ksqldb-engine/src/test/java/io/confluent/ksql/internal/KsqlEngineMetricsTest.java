@@ -25,6 +25,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.confluent.ksql.engine.KsqlEngine;
@@ -207,6 +208,19 @@ public class KsqlEngineMetricsTest {
     assertThat(legacyValue, equalTo(3.0));
   }
 
+  @Test
+  public void shouldRecordStatementCacheStats() {
+    when(ksqlEngine.getStatementCacheStats()).thenReturn(new CacheStats(3, 1, 0, 0, 0, 0));
+
+    final double hitRate = getMetricValue("statement-cache-hit-rate");
+    final double hits = getMetricValue("statement-cache-hits-total");
+    final double misses = getMetricValue("statement-cache-misses-total");
+
+    assertThat(hitRate, equalTo(0.75));
+    assertThat(hits, equalTo(3.0));
+    assertThat(misses, equalTo(1.0));
+  }
+
   @Test
   public void shouldRecordMessagesConsumed() {
     final int numMessagesConsumed = 500;
@@ -21,6 +21,7 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThrows;
 
 import com.google.common.collect.ImmutableMap;
@@ -38,6 +39,7 @@ import io.confluent.ksql.planner.plan.DataSourceNode;
 import io.confluent.ksql.planner.plan.FilterNode;
 import io.confluent.ksql.planner.plan.JoinNode;
 import io.confluent.ksql.planner.plan.PlanNode;
+import io.confluent.ksql.planner.plan.PreJoinPruneNode;
 import io.confluent.ksql.planner.plan.PreJoinRepartitionNode;
 import io.confluent.ksql.planner.plan.ProjectNode;
 import io.confluent.ksql.planner.plan.SuppressNode;
@@ -191,6 +193,91 @@ public class LogicalPlannerTest {
     ));
   }
 
+  @Test
+  public void shouldPruneUnreferencedColumnsFromJoinSourcesIfEnabled() {
+    // Given:
+    givenJoinColumnPruningEnabled();
+    final String simpleQuery = "SELECT t1.col1, t2.col2 FROM test1 t1 JOIN test2 t2 ON t1.col0 = t2.col0 WHERE t2.col3 > 1.0 EMIT CHANGES;";
+
+    // When:
+    final PlanNode logicalPlan = buildLogicalPlan(simpleQuery);
+
+    // Then:
+    final JoinNode joinNode = (JoinNode) logicalPlan.getSources().get(0).getSources().get(0)
+        .getSources().get(0);
+    final ProjectNode left = (ProjectNode) joinNode.getSources().get(0);
+    assertThat(left.getSelectExpressions(), contains(
+        selectCol("COL1", "T1_COL1"),
+        selectCol("ROWTIME", "T1_ROWTIME"),
+        selectCol("COL0", "T1_COL0")
+    ));
+    final ProjectNode right = (ProjectNode) joinNode.getSources().get(1);
+    assertThat(right.getSelectExpressions(), contains(
+        selectCol("COL2", "T2_COL2"),
+        selectCol("COL3", "T2_COL3"),
+        selectCol("ROWTIME", "T2_ROWTIME"),
+        selectCol("COL0", "T2_COL0")
+    ));
+  }
+
+  @Test
+  public void shouldNotPruneColumnsOfJoinSourceWithAllColumnsSelected() {
+    // Given:
+    givenJoinColumnPruningEnabled();
+    final String simpleQuery = "SELECT t1.*, t2.col1 FROM test1 t1 JOIN test2 t2 ON t1.col0 = t2.col0 EMIT CHANGES;";
+
+    // When:
+    final PlanNode logicalPlan = buildLogicalPlan(simpleQuery);
+
+    // Then:
+    final JoinNode joinNode = (JoinNode) logicalPlan.getSources().get(0).getSources().get(0);
+    final ProjectNode left = (ProjectNode) joinNode.getSources().get(0);
+    assertThat(left.getSelectExpressions(), hasSize(7));
+    final ProjectNode right = (ProjectNode) joinNode.getSources().get(1);
+    assertThat(right.getSelectExpressions(), contains(
+        selectCol("COL1", "T2_COL1"),
+        selectCol("ROWTIME", "T2_ROWTIME"),
+        selectCol("COL0", "T2_COL0")
+    ));
+  }
+
+  @Test
+  public void shouldPruneColumnsBeforeRepartitioningJoinSourceIfEnabled() {
+    // Given:
+    givenJoinColumnPruningEnabled();
+    final String simpleQuery = "SELECT o.itemid, t.col1 FROM orders o JOIN test1 t WITHIN 1 HOUR ON o.orderid = t.col0 EMIT CHANGES;";
+
+    // When:
+    final PlanNode logicalPlan = buildLogicalPlan(simpleQuery);
+
+    // Then:
+    final JoinNode joinNode = (JoinNode) logicalPlan.getSources().get(0).getSources().get(0);
+    final PlanNode repartition = joinNode.getSources().get(0).getSources().get(0);
+    assertThat(repartition, instanceOf(PreJoinRepartitionNode.class));
+    final PreJoinPruneNode prune = (PreJoinPruneNode) repartition.getSources().get(0);
+    assertThat(prune.getSelectExpressions(), contains(
+        selectCol("ORDERID", "ORDERID"),
+        selectCol("ITEMID", "ITEMID"),
+        selectCol("ROWTIME", "ROWTIME")
+    ));
+    assertThat(prune.getSources().get(0), instanceOf(DataSourceNode.class));
+  }
+
+  @Test
+  public void shouldNotPruneJoinSourceColumnsByDefault() {
+    // Given:
+    final String simpleQuery = "SELECT o.itemid, t.col1 FROM orders o JOIN test1 t WITHIN 1 HOUR ON o.orderid = t.col0 EMIT CHANGES;";
+
+    // When:
+    final PlanNode logicalPlan = buildLogicalPlan(simpleQuery);
+
+    // Then:
+    final JoinNode joinNode = (JoinNode) logicalPlan.getSources().get(0).getSources().get(0);
+    final PlanNode repartition = joinNode.getSources().get(0).getSources().get(0);
+    assertThat(repartition.getSources().get(0), instanceOf(DataSourceNode.class));
+    assertThat(((ProjectNode) joinNode.getSources().get(0)).getSelectExpressions(), hasSize(9));
+  }
+
   @Test
   public void shouldRewriteFinalSelectsForJoin() {
     // Given:
@@ -343,6 +430,11 @@ public class LogicalPlannerTest {
     assertThat(e.getMessage(), containsString("Suppression is currently disabled. You can enable it by setting ksql.suppress.enabled to true"));
   }
 
+  private void givenJoinColumnPruningEnabled() {
+    ksqlConfig = ksqlConfig.cloneWithPropertyOverwrite(
+        ImmutableMap.of(KsqlConfig.KSQL_QUERY_JOIN_PRUNE_COLUMNS_ENABLED, true));
+  }
+
   private PlanNode buildLogicalPlan(final String query) {
     return AnalysisTestUtil.buildLogicalPlan(ksqlConfig, query, metaStore);
   }
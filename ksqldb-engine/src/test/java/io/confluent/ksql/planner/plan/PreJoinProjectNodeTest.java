@@ -17,11 +17,13 @@ package io.confluent.ksql.planner.plan;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import io.confluent.ksql.metastore.model.DataSource.DataSourceType;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.name.SourceName;
@@ -119,4 +121,23 @@ public class PreJoinProjectNodeTest {
     final List<ColumnName> columns = result.collect(Collectors.toList());
     assertThat(columns, contains(K, unknown));
   }
+
+  @Test
+  public void shouldDropPrunedValueColumns() {
+    // When:
+    final PreJoinProjectNode pruned = new PreJoinProjectNode(NODE_ID,
+        source,
+        ALIAS,
+        ImmutableSet.of(K, COL_1)
+    );
+
+    // Then:
+    assertThat(pruned.getSchema(), is(LogicalSchema.builder()
+        .keyColumn(ColumnNames.generatedJoinColumnAlias(ALIAS, K), SqlTypes.STRING)
+        .valueColumn(ColumnNames.generatedJoinColumnAlias(ALIAS, COL_0), SqlTypes.STRING)
+        .valueColumn(ColumnNames.generatedJoinColumnAlias(ALIAS, COL_2), SqlTypes.STRING)
+        .build()
+    ));
+    assertThat(pruned.getSelectExpressions().size(), is(2));
+  }
 }
\ No newline at end of file
@@ -217,6 +217,7 @@ public class QueryExecutorTest {
         serviceContext,
         functionRegistry,
         closeCallback,
+        Optional.empty(),
         kafkaStreamsBuilder,
         streamsBuilder,
         new MaterializationProviderBuilderFactory(
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.query;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.config.SessionConfig;
+import io.confluent.ksql.execution.plan.ExecutionStep;
+import io.confluent.ksql.execution.plan.StreamFilter;
+import io.confluent.ksql.execution.plan.StreamSource;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ScalablePushQueryRuntimeTest {
+
+  private static final Map<String, Object> ENABLED = ImmutableMap.of(
+      KsqlConfig.KSQL_QUERY_PUSH_SCALABLE_ENABLED, true
+  );
+
+  @Mock
+  private StreamSource source;
+  @Mock
+  private StreamFilter<?> filter;
+  @Mock
+  private ExecutionStep<?> otherStep;
+  @Mock
+  private SharedSourcePipeline pipeline;
+  @Mock
+  private Consumer<String> cleanup;
+  private ScalablePushQueryRuntime runtime;
+
+  @Before
+  public void setUp() {
+    runtime = new ScalablePushQueryRuntime(cleanup);
+  }
+
+  @Test
+  public void shouldShareSourceOfFilteredStream() {
+    // Given:
+    when(filter.getSources()).thenReturn(ImmutableList.of(source));
+
+    // When:
+    final Optional<StreamSource> result = ScalablePushQueryRuntime
+        .shareableSource(SessionConfig.of(new KsqlConfig(ENABLED), ImmutableMap.of()), filter);
+
+    // Then:
+    assertThat(result, is(Optional.of(source)));
+  }
+
+  @Test
+  public void shouldNotShareIfDisabled() {
+    // When:
+    final Optional<StreamSource> result = ScalablePushQueryRuntime.shareableSource(
+        SessionConfig.of(new KsqlConfig(ImmutableMap.of()), ImmutableMap.of()), source);
+
+    // Then:
+    assertThat(result, is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldNotShareIfPropertiesOverridden() {
+    // When:
+    final Optional<StreamSource> result = ScalablePushQueryRuntime.shareableSource(
+        SessionConfig.of(
+            new KsqlConfig(ENABLED),
+            ImmutableMap.of(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest")
+        ),
+        source
+    );
+
+    // Then:
+    assertThat(result, is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldNotShareIfServerReadsFromEarliest() {
+    // Given:
+    final KsqlConfig ksqlConfig = new KsqlConfig(ImmutableMap.of(
+        KsqlConfig.KSQL_QUERY_PUSH_SCALABLE_ENABLED, true,
+        ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest"
+    ));
+
+    // When:
+    final Optional<StreamSource> result = ScalablePushQueryRuntime
+        .shareableSource(SessionConfig.of(ksqlConfig, ImmutableMap.of()), source);
+
+    // Then:
+    assertThat(result, is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldNotShareIfPlanHasOtherSteps() {
+    // Given:
+    when(filter.getSources()).thenReturn(ImmutableList.of(otherStep));
+
+    // When:
+    final Optional<StreamSource> result = ScalablePushQueryRuntime
+        .shareableSource(SessionConfig.of(new KsqlConfig(ENABLED), ImmutableMap.of()), filter);
+
+    // Then:
+    assertThat(result, is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldReuseAcquiredPipeline() {
+    // Given:
+    runtime.acquire(source, () -> pipeline);
+
+    // When:
+    final SharedSourcePipeline result = runtime.acquire(source, () -> {
+      throw new AssertionError("should not create second pipeline");
+    });
+
+    // Then:
+    assertThat(result, is(sameInstance(pipeline)));
+    assertThat(runtime.numPipelines(), is(1));
+  }
+
+  @Test
+  public void shouldNotClosePipelineWhileReferenced() {
+    // Given:
+    runtime.acquire(source, () -> pipeline);
+    runtime.acquire(source, () -> pipeline);
+
+    // When:
+    runtime.release(source, pipeline);
+
+    // Then:
+    verify(pipeline, never()).close();
+    assertThat(runtime.numPipelines(), is(1));
+  }
+
+  @Test
+  public void shouldCloseAndCleanUpPipelineOnLastRelease() {
+    // Given:
+    when(pipeline.getApplicationId()).thenReturn("appId");
+    runtime.acquire(source, () -> pipeline);
+    runtime.acquire(source, () -> pipeline);
+    runtime.release(source, pipeline);
+
+    // When:
+    runtime.release(source, pipeline);
+
+    // Then:
+    verify(pipeline).close();
+    verify(cleanup).accept("appId");
+    assertThat(runtime.numPipelines(), is(0));
+  }
+}
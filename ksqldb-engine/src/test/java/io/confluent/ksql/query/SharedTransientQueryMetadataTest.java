@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.query;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.profile.QueryProfile;
+import io.confluent.ksql.execution.transform.KsqlProcessingContext;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.util.KsqlException;
+import io.confluent.ksql.util.QueryMetadata;
+import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.Topology;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SharedTransientQueryMetadataTest {
+
+  private static final GenericRow ROW = GenericRow.genericRow("a");
+
+  @Mock
+  private LogicalSchema schema;
+  @Mock
+  private KafkaStreamsBuilder kafkaStreamsBuilder;
+  @Mock
+  private SharedSourcePipeline pipeline;
+  @Mock
+  private KsqlTransformer<Struct, Optional<GenericRow>> transformer;
+  @Mock
+  private Runnable release;
+  @Mock
+  private Consumer<QueryMetadata> closeCallback;
+  @Mock
+  private QueryProfile profile;
+  @Mock
+  private UncaughtExceptionHandler uncaughtExceptionHandler;
+  @Mock
+  private Struct key;
+  @Mock
+  private KsqlProcessingContext ctx;
+  private TransientQueryQueue queue;
+  private SharedTransientQueryMetadata query;
+
+  @Before
+  public void setUp() {
+    queue = new TransientQueryQueue(OptionalInt.empty(), 2, 1);
+    query = new SharedTransientQueryMetadata(
+        "sql",
+        schema,
+        ImmutableSet.of(),
+        "plan",
+        queue,
+        "appId",
+        new Topology(),
+        kafkaStreamsBuilder,
+        ImmutableMap.of(),
+        ImmutableMap.of(),
+        closeCallback,
+        10L,
+        10,
+        pipeline,
+        transformer,
+        release
+    );
+    query.setQueryProfile(profile);
+    query.setUncaughtExceptionHandler(uncaughtExceptionHandler);
+  }
+
+  @Test
+  public void shouldNotBuildKafkaStreams() {
+    verify(kafkaStreamsBuilder, never()).build(any(), any());
+  }
+
+  @Test
+  public void shouldSubscribeAndRegisterProfileOnStart() {
+    // When:
+    query.start();
+
+    // Then:
+    verify(pipeline).subscribe(query);
+    verify(profile).registerMetrics();
+    assertThat(query.hasEverBeenStarted(), is(true));
+  }
+
+  @Test
+  public void shouldOnlySubscribeOnce() {
+    // When:
+    query.start();
+    query.start();
+
+    // Then:
+    verify(pipeline, times(1)).subscribe(query);
+  }
+
+  @Test
+  public void shouldUnsubscribeAndReleaseOnClose() {
+    // Given:
+    query.start();
+
+    // When:
+    query.close();
+
+    // Then:
+    verify(pipeline).unsubscribe(query);
+    verify(release).run();
+    verify(profile).unregisterMetrics();
+    verify(closeCallback).accept(query);
+    assertThat(query.isRunning(), is(false));
+  }
+
+  @Test
+  public void shouldOnlyReleaseOnceIfClosedTwice() {
+    // When:
+    query.close();
+    query.close();
+
+    // Then:
+    verify(release, times(1)).run();
+    verify(closeCallback, times(1)).accept(query);
+  }
+
+  @Test
+  public void shouldNotSubscribeOnceClosed() {
+    // Given:
+    query.close();
+
+    // When:
+    query.start();
+
+    // Then:
+    verify(pipeline, never()).subscribe(any());
+  }
+
+  @Test
+  public void shouldQueueTransformedRows() {
+    // Given:
+    when(transformer.transform(key, ROW, ctx)).thenReturn(Optional.of(ROW));
+
+    // When:
+    query.onRow(key, ROW, ctx);
+
+    // Then:
+    assertThat(queue.size(), is(1));
+    verify(uncaughtExceptionHandler, never()).uncaughtException(any(), any());
+  }
+
+  @Test
+  public void shouldNotQueueFilteredOutRows() {
+    // Given:
+    when(transformer.transform(key, ROW, ctx)).thenReturn(Optional.empty());
+
+    // When:
+    query.onRow(key, ROW, ctx);
+
+    // Then:
+    assertThat(queue.size(), is(0));
+  }
+
+  @Test
+  public void shouldUnsubscribeAndFailInsteadOfBlockingWhenQueueIsFull() {
+    // Given:
+    when(transformer.transform(key, ROW, ctx)).thenReturn(Optional.of(ROW));
+    query.onRow(key, ROW, ctx);
+    query.onRow(key, ROW, ctx);
+
+    // When:
+    query.onRow(key, ROW, ctx);
+
+    // Then:
+    verify(pipeline).unsubscribe(query);
+    verify(uncaughtExceptionHandler)
+        .uncaughtException(eq(Thread.currentThread()), any(KsqlException.class));
+    verify(release, never()).run();
+    assertThat(queue.size(), is(2));
+  }
+
+  @Test
+  public void shouldIgnoreRowsOnceClosed() {
+    // Given:
+    query.close();
+
+    // When:
+    query.onRow(key, ROW, ctx);
+
+    // Then:
+    verify(transformer, never()).transform(any(), any(), any());
+  }
+
+  @Test
+  public void shouldPassPipelineErrorsToHandler() {
+    // Given:
+    final Exception e = new RuntimeException("Boom");
+
+    // When:
+    query.onPipelineError(Thread.currentThread(), e);
+
+    // Then:
+    verify(uncaughtExceptionHandler).uncaughtException(Thread.currentThread(), e);
+  }
+}
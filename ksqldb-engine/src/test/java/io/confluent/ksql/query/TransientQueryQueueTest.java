@@ -178,6 +178,32 @@ public class TransientQueryQueueTest {
     assertThat(queue.size(), is(MAX_LIMIT));
   }
 
+  @Test
+  public void shouldTryQueueUntilQueueLimitReached() {
+    // Given:
+    givenQueue(OptionalInt.empty());
+
+    IntStream.range(0, MAX_LIMIT)
+        .forEach(idx -> assertThat(queue.tryAcceptRow(KEY_ONE, VAL_ONE), is(true)));
+
+    // When:
+    final boolean result = queue.tryAcceptRow(KEY_TWO, VAL_TWO);
+
+    // Then: did not block and:
+    assertThat(result, is(false));
+    assertThat(queue.size(), is(MAX_LIMIT));
+  }
+
+  @Test
+  public void shouldCallLimitHandlerOnTryQueueAsLimitReached() {
+    // When:
+    IntStream.range(0, SOME_LIMIT)
+        .forEach(idx -> queue.tryAcceptRow(KEY_ONE, VAL_ONE));
+
+    // Then:
+    verify(limitHandler).limitReached();
+  }
+
   private void givenWillCloseQueueAsync() {
     executorService = Executors.newSingleThreadScheduledExecutor();
     executorService.schedule(queue::close, 200, TimeUnit.MILLISECONDS);
@@ -21,6 +21,9 @@ import com.google.common.annotations.VisibleForTesting;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.execution.context.QueryContext;
 import io.confluent.ksql.execution.context.QueryLoggerUtil;
+import io.confluent.ksql.execution.profile.ProfiledSerde;
+import io.confluent.ksql.execution.profile.QueryProfile;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.logging.processing.ProcessingLogContext;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
@@ -60,6 +63,7 @@ public final class KsqlQueryBuilder {
   private final KeySerdeFactory keySerdeFactory;
   private final ValueSerdeFactory valueSerdeFactory;
   private final QueryId queryId;
+  private final Optional<QueryProfile> queryProfile;
   private final QuerySchemas schemas = new QuerySchemas();
 
   public static KsqlQueryBuilder of(
@@ -78,7 +82,8 @@ public final class KsqlQueryBuilder {
         functionRegistry,
         queryId,
         new GenericKeySerDe(),
-        new GenericRowSerDe()
+        new GenericRowSerDe(),
+        QueryProfile.create(queryId, ksqlConfig)
     );
   }
 
@@ -92,6 +97,30 @@ public final class KsqlQueryBuilder {
       final QueryId queryId,
       final KeySerdeFactory keySerdeFactory,
       final ValueSerdeFactory valueSerdeFactory
+  ) {
+    this(
+        streamsBuilder,
+        ksqlConfig,
+        serviceContext,
+        processingLogContext,
+        functionRegistry,
+        queryId,
+        keySerdeFactory,
+        valueSerdeFactory,
+        Optional.empty()
+    );
+  }
+
+  private KsqlQueryBuilder(
+      final StreamsBuilder streamsBuilder,
+      final KsqlConfig ksqlConfig,
+      final ServiceContext serviceContext,
+      final ProcessingLogContext processingLogContext,
+      final FunctionRegistry functionRegistry,
+      final QueryId queryId,
+      final KeySerdeFactory keySerdeFactory,
+      final ValueSerdeFactory valueSerdeFactory,
+      final Optional<QueryProfile> queryProfile
   ) {
     this.streamsBuilder = requireNonNull(streamsBuilder, "streamsBuilder");
     this.ksqlConfig = requireNonNull(ksqlConfig, "ksqlConfig");
@@ -101,6 +130,7 @@ public final class KsqlQueryBuilder {
     this.queryId = requireNonNull(queryId, "queryId");
     this.keySerdeFactory = requireNonNull(keySerdeFactory, "keySerdeFactory");
     this.valueSerdeFactory = requireNonNull(valueSerdeFactory, "valueSerdeFactory");
+    this.queryProfile = requireNonNull(queryProfile, "queryProfile");
   }
 
   public ProcessingLogger getProcessingLogger(final QueryContext queryContext) {
@@ -133,14 +163,32 @@ public final class KsqlQueryBuilder {
     return queryId;
   }
 
+  /**
+   * @return the profile of the query, if profiling is enabled.
+   */
+  public Optional<QueryProfile> getQueryProfile() {
+    return queryProfile;
+  }
+
+  /**
+   * @param queryContext the context of the step.
+   * @return the profile of the step, if profiling is enabled.
+   */
+  public Optional<StepProfile> getStepProfile(final QueryContext queryContext) {
+    return queryProfile.map(profile -> profile.getStep(queryContext));
+  }
+
   public KsqlQueryBuilder withKsqlConfig(final KsqlConfig newConfig) {
-    return of(
+    return new KsqlQueryBuilder(
         streamsBuilder,
         newConfig,
         serviceContext,
         processingLogContext,
         functionRegistry,
-        queryId
+        queryId,
+        keySerdeFactory,
+        valueSerdeFactory,
+        queryProfile
     );
   }
 
@@ -211,7 +259,7 @@ public final class KsqlQueryBuilder {
         ValueFormat.of(format, schema.valueSchema().features())
     );
 
-    return valueSerdeFactory.create(
+    final Serde<GenericRow> serde = valueSerdeFactory.create(
         format,
         schema.valueSchema(),
         ksqlConfig,
@@ -220,6 +268,10 @@ public final class KsqlQueryBuilder {
         processingLogContext,
         getSerdeTracker(loggerNamePrefix)
     );
+
+    return getStepProfile(queryContext)
+        .map(profile -> ProfiledSerde.wrap(serde, profile))
+        .orElse(serde);
   }
 
   private Optional<TrackedCallback> getSerdeTracker(final String loggerNamePrefix) {
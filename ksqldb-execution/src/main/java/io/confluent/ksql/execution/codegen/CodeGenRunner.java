@@ -17,6 +17,12 @@ package io.confluent.ksql.execution.codegen;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.codegen.CodeGenSpec.ArgumentSpec;
+import io.confluent.ksql.execution.codegen.CodeGenSpec.ValueArgumentSpec;
 import io.confluent.ksql.execution.expression.tree.CreateArrayExpression;
 import io.confluent.ksql.execution.expression.tree.CreateMapExpression;
 import io.confluent.ksql.execution.expression.tree.CreateStructExpression;
@@ -31,6 +37,7 @@ import io.confluent.ksql.execution.util.ExpressionTypeManager;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.function.KsqlScalarFunction;
 import io.confluent.ksql.function.UdfFactory;
+import io.confluent.ksql.function.udf.Kudf;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.name.FunctionName;
 import io.confluent.ksql.schema.ksql.Column;
@@ -41,13 +48,16 @@ import io.confluent.ksql.schema.ksql.types.SqlType;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.KsqlException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.kafka.connect.data.Schema;
 import org.codehaus.commons.compiler.CompileException;
 import org.codehaus.commons.compiler.CompilerFactoryFactory;
+import org.codehaus.commons.compiler.IClassBodyEvaluator;
 import org.codehaus.commons.compiler.IExpressionEvaluator;
 
 public class CodeGenRunner {
@@ -55,6 +65,20 @@ public class CodeGenRunner {
   private static final SqlToJavaTypeConverter SQL_TO_JAVA_TYPE_CONVERTER =
       SchemaConverters.sqlToJavaConverter();
 
+  private static final List<String> FUSED_JAVA_IMPORTS = ImmutableList.<String>builder()
+      .addAll(SqlToJavaVisitor.JAVA_IMPORTS)
+      .add(GenericRow.class.getCanonicalName())
+      .add(FusedEvaluator.class.getCanonicalName())
+      .build();
+
+  /**
+   * The most expressions evaluated by one generated method. HotSpot does not JIT compile
+   * methods of more than 8000 bytes of bytecode, which a method evaluating a few hundred
+   * expressions would exceed.
+   */
+  @VisibleForTesting
+  static final int EXPRESSIONS_PER_METHOD = 64;
+
   private final LogicalSchema schema;
   private final FunctionRegistry functionRegistry;
   private final ExpressionTypeManager expressionTypeManager;
@@ -156,14 +180,240 @@ public class CodeGenRunner {
     }
   }
 
+  /**
+   * Compile all the supplied expressions into a single generated {@link FusedEvaluator}.
+   *
+   * <p>Each column referenced by any of the expressions is read from the row once, and all the
+   * expressions are evaluated in a single call. Each expression is generated as a method of its
+   * own, and the expressions are evaluated by methods of at most
+   * {@link #EXPRESSIONS_PER_METHOD} expressions each, so that the methods of wide projections
+   * are not too big for HotSpot to JIT compile.
+   *
+   * @param expressions the expressions to compile.
+   * @param type the type of the expressions, used in error messages.
+   * @return the compiled expressions.
+   */
+  public FusedExpressionMetadata buildFusedCodeGenFromParseTrees(
+      final List<Expression> expressions,
+      final String type
+  ) {
+    try {
+      final Visitor visitor = new Visitor();
+      final List<Set<ColumnName>> referencedColumns = expressions.stream()
+          .map(visitor::processColumns)
+          .collect(Collectors.toList());
+      final CodeGenSpec spec = visitor.spec.build();
+
+      final List<Set<String>> expressionColumns = referencedColumns.stream()
+          .map(columns -> columns.stream()
+              .map(spec::getCodeName)
+              .collect(Collectors.toSet()))
+          .collect(Collectors.toList());
+
+      // A single visitor must be used, in the same order as above, so that function instances
+      // are resolved to the same code names as they were registered with in the spec:
+      final SqlToJavaVisitor sqlToJava = SqlToJavaVisitor.of(
+          schema,
+          functionRegistry,
+          spec,
+          ksqlConfig
+      );
+
+      final List<SqlType> expressionTypes = new ArrayList<>(expressions.size());
+      final List<String> javaCode = new ArrayList<>(expressions.size());
+      for (final Expression expression : expressions) {
+        final SqlType expressionType = expressionTypeManager.getExpressionSqlType(expression);
+        if (expressionType == null) {
+          // expressionType can be null if expression is NULL.
+          throw new KsqlException("NULL expression not supported");
+        }
+
+        expressionTypes.add(expressionType);
+        javaCode.add(sqlToJava.process(expression));
+      }
+
+      final IClassBodyEvaluator cbe =
+          CompilerFactoryFactory.getDefaultCompilerFactory().newClassBodyEvaluator();
+      cbe.setDefaultImports(FUSED_JAVA_IMPORTS.toArray(new String[0]));
+      cbe.setImplementedInterfaces(new Class<?>[]{FusedEvaluator.class});
+      cbe.cook(fusedClassBody(spec, javaCode, expressionTypes, expressionColumns));
+
+      final FusedEvaluator evaluator = (FusedEvaluator) cbe.getClazz()
+          .getDeclaredConstructor()
+          .newInstance();
+
+      final Object[] constants = new Object[spec.arguments().size()];
+      for (int i = 0; i < constants.length; i++) {
+        final ArgumentSpec arg = spec.arguments().get(i);
+        if (!(arg instanceof ValueArgumentSpec)) {
+          constants[i] = arg.resolve(null);
+        }
+      }
+      evaluator.init(constants);
+
+      return new FusedExpressionMetadata(evaluator, expressions, expressionTypes);
+    } catch (KsqlException | CompileException e) {
+      throw new KsqlException("Invalid " + type + ": " + e.getMessage()
+          + ". expressions:" + expressions + ", schema:" + schema, e);
+    } catch (final Exception e) {
+      throw new RuntimeException("Unexpected error generating code for " + type
+          + ". expressions:" + expressions, e);
+    }
+  }
+
+  private static String fusedClassBody(
+      final CodeGenSpec spec,
+      final List<String> javaCode,
+      final List<SqlType> expressionTypes,
+      final List<Set<String>> expressionColumns
+  ) {
+    final List<ArgumentSpec> args = spec.arguments();
+    final StringBuilder body = new StringBuilder();
+
+    for (final ArgumentSpec arg : args) {
+      if (!(arg instanceof ValueArgumentSpec)) {
+        body.append("private ").append(fieldTypeName(arg)).append(' ').append(arg.name())
+            .append(";\n");
+      }
+    }
+
+    body.append("public void init(final Object[] constants) {\n");
+    for (int i = 0; i < args.size(); i++) {
+      final ArgumentSpec arg = args.get(i);
+      if (!(arg instanceof ValueArgumentSpec)) {
+        body.append("  ").append(arg.name()).append(" = (").append(fieldTypeName(arg))
+            .append(") constants[").append(i).append("];\n");
+      }
+    }
+    body.append("}\n");
+
+    // Split the expressions between methods, so that no generated method is too big to compile:
+    final int numMethods = (javaCode.size() + EXPRESSIONS_PER_METHOD - 1) / EXPRESSIONS_PER_METHOD;
+    body.append("public void evaluate(final GenericRow row, final GenericRow out, ")
+        .append("final FusedEvaluator.ErrorHandler errors) {\n");
+    for (int m = 0; m < numMethods; m++) {
+      body.append("  evaluate").append(m).append("(row, out, errors);\n");
+    }
+    body.append("}\n");
+
+    for (int m = 0; m < numMethods; m++) {
+      final int start = m * EXPRESSIONS_PER_METHOD;
+      final int end = Math.min(start + EXPRESSIONS_PER_METHOD, javaCode.size());
+      appendEvaluateMethod(body, m, start, end, spec, expressionColumns);
+    }
+
+    for (int i = 0; i < javaCode.size(); i++) {
+      final Class<?> javaType = SQL_TO_JAVA_TYPE_CONVERTER.toJavaType(expressionTypes.get(i));
+      body.append("private ").append(javaType.getCanonicalName())
+          .append(" expression").append(i).append('(')
+          .append(columnParams(spec, expressionColumns.get(i), true))
+          .append(") {\n")
+          .append("  return (").append(javaCode.get(i)).append(");\n")
+          .append("}\n");
+    }
+
+    return body.toString();
+  }
+
+  /**
+   * Appends a method that evaluates the expressions from {@code start} to {@code end}, reading
+   * each column they reference from the row once, and calling the method of each expression.
+   */
+  private static void appendEvaluateMethod(
+      final StringBuilder body,
+      final int method,
+      final int start,
+      final int end,
+      final CodeGenSpec spec,
+      final List<Set<String>> expressionColumns
+  ) {
+    final Set<String> columns = new HashSet<>();
+    for (int i = start; i < end; i++) {
+      columns.addAll(expressionColumns.get(i));
+    }
+
+    final List<ValueArgumentSpec> columnArgs = spec.arguments().stream()
+        .filter(ValueArgumentSpec.class::isInstance)
+        .map(ValueArgumentSpec.class::cast)
+        .filter(arg -> columns.contains(arg.name()))
+        .collect(Collectors.toList());
+
+    body.append("private void evaluate").append(method)
+        .append("(final GenericRow row, final GenericRow out, ")
+        .append("final FusedEvaluator.ErrorHandler errors) {\n");
+
+    for (final ValueArgumentSpec arg : columnArgs) {
+      body.append("  ").append(arg.type().getCanonicalName()).append(' ').append(arg.name())
+          .append(" = null;\n");
+    }
+    body.append("  try {\n");
+    for (final ValueArgumentSpec arg : columnArgs) {
+      body.append("    ").append(arg.name()).append(" = (")
+          .append(arg.type().getCanonicalName()).append(") row.get(")
+          .append(arg.columnIndex()).append(");\n");
+    }
+    body.append("  } catch (final Exception e) {\n")
+        .append("    for (int i = ").append(start).append("; i < ").append(end).append("; i++) {\n")
+        .append("      out.append(errors.onError(i, e, row));\n")
+        .append("    }\n")
+        .append("    return;\n")
+        .append("  }\n");
+
+    // Evaluate each expression, isolating failures to the failing expression:
+    for (int i = start; i < end; i++) {
+      body.append("  try {\n")
+          .append("    out.append(expression").append(i).append('(')
+          .append(columnParams(spec, expressionColumns.get(i), false)).append("));\n")
+          .append("  } catch (final Exception e) {\n")
+          .append("    out.append(errors.onError(").append(i).append(", e, row));\n")
+          .append("  }\n");
+    }
+
+    body.append("}\n");
+  }
+
+  private static String columnParams(
+      final CodeGenSpec spec,
+      final Set<String> columns,
+      final boolean declare
+  ) {
+    return spec.arguments().stream()
+        .filter(ValueArgumentSpec.class::isInstance)
+        .filter(arg -> columns.contains(arg.name()))
+        .map(arg -> declare
+            ? "final " + arg.type().getCanonicalName() + " " + arg.name()
+            : arg.name())
+        .collect(Collectors.joining(", "));
+  }
+
+  private static String fieldTypeName(final ArgumentSpec arg) {
+    // Function instances may be of non-public or anonymous types, so are held as Kudf, which
+    // exposes the evaluate method the generated code calls:
+    return Kudf.class.isAssignableFrom(arg.type())
+        ? Kudf.class.getCanonicalName()
+        : arg.type().getCanonicalName();
+  }
+
   private final class Visitor extends TraversalExpressionVisitor<Void> {
 
     private final CodeGenSpec.Builder spec;
+    private final Set<ColumnName> columns = new HashSet<>();
 
     private Visitor() {
       this.spec = new CodeGenSpec.Builder();
     }
 
+    /**
+     * Adds the columns, functions and schemas of the expression to the spec.
+     *
+     * @return the value columns the expression references.
+     */
+    private Set<ColumnName> processColumns(final Expression expression) {
+      columns.clear();
+      process(expression, null);
+      return ImmutableSet.copyOf(columns);
+    }
+
     @Override
     public Void visitLikePredicate(final LikePredicate node, final Void context) {
       process(node.getValue(), null);
@@ -254,6 +504,7 @@ public class CodeGenRunner {
                   + " field: " + columnName
                   + ", schema: " + schema.value()));
 
+      columns.add(column.name());
       spec.addParameter(
           column.name(),
           SQL_TO_JAVA_TYPE_CONVERTER.toJavaType(column.type()),
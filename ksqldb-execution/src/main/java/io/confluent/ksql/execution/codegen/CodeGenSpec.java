@@ -111,6 +111,11 @@ public final class CodeGenSpec {
         final Class<?> type,
         final int colIndex
     ) {
+      if (columnRefToName.containsKey(columnName)) {
+        // Column already bound to a parameter:
+        return;
+      }
+
       final String codeName = CodeGenUtil.paramName(argumentCount++);
       columnRefToName.put(columnName, codeName);
       argumentBuilder.add(new ValueArgumentSpec(codeName, type, colIndex));
@@ -224,6 +229,10 @@ public final class CodeGenSpec {
       this.columnIndex = columnIndex;
     }
 
+    public int columnIndex() {
+      return columnIndex;
+    }
+
     @Override
     public Object resolve(final GenericRow value) {
       return value.get(columnIndex);
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.codegen;
+
+import io.confluent.ksql.GenericRow;
+
+/**
+ * Implemented by the classes generated by
+ * {@link CodeGenRunner#buildFusedCodeGenFromParseTrees}, which evaluate several expressions
+ * against a row in a single call.
+ *
+ * <p>Must be public so that generated classes can implement it.
+ */
+public interface FusedEvaluator {
+
+  /**
+   * Called once, before any call to {@link #evaluate}, with the function instances and schemas
+   * the expressions reference.
+   *
+   * @param constants the resolved value of each non-column argument in the spec, indexed as the
+   *                  spec's arguments.
+   */
+  void init(Object[] constants);
+
+  /**
+   * Evaluates each expression against {@code row}, appending the results to {@code out}.
+   *
+   * <p>Failure to evaluate one expression does not stop the others from being evaluated: the
+   * value returned by {@code errors} is appended in its place.
+   *
+   * @param row the row to evaluate the expressions against.
+   * @param out the row to append results to.
+   * @param errors called for each expression that fails.
+   */
+  void evaluate(GenericRow row, GenericRow out, ErrorHandler errors);
+
+  interface ErrorHandler {
+
+    /**
+     * @param index the index of the failed expression.
+     * @param e the cause of the failure.
+     * @param row the row the expression was evaluated against.
+     * @return the value to use for the failed expression.
+     */
+    Object onError(int index, Exception e, GenericRow row);
+  }
+}
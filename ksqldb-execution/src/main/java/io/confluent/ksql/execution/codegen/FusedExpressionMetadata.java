@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.codegen;
+
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.Immutable;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.codegen.FusedEvaluator.ErrorHandler;
+import io.confluent.ksql.execution.expression.tree.Expression;
+import io.confluent.ksql.logging.processing.ProcessingLogger;
+import io.confluent.ksql.logging.processing.RecordProcessingError;
+import io.confluent.ksql.schema.ksql.types.SqlType;
+import io.confluent.ksql.testing.EffectivelyImmutable;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * A list of expressions compiled into a single generated class.
+ *
+ * <p>Unlike {@link ExpressionMetadata}, which compiles and evaluates each expression on its
+ * own, this reads each referenced column from the row once and evaluates all expressions in one
+ * direct call, without a per-expression parameter array.
+ */
+@Immutable
+public final class FusedExpressionMetadata {
+
+  @EffectivelyImmutable
+  private final FusedEvaluator evaluator;
+  private final ImmutableList<Expression> expressions;
+  private final ImmutableList<SqlType> expressionTypes;
+
+  FusedExpressionMetadata(
+      final FusedEvaluator evaluator,
+      final List<Expression> expressions,
+      final List<SqlType> expressionTypes
+  ) {
+    this.evaluator = Objects.requireNonNull(evaluator, "evaluator");
+    this.expressions = ImmutableList.copyOf(expressions);
+    this.expressionTypes = ImmutableList.copyOf(expressionTypes);
+  }
+
+  public List<Expression> getExpressions() {
+    return expressions;
+  }
+
+  public List<SqlType> getExpressionTypes() {
+    return expressionTypes;
+  }
+
+  /**
+   * Evaluate the expressions against the supplied {@code row}, appending the results, in order,
+   * to {@code out}.
+   *
+   * @param row the row of data to evaluate the expressions against.
+   * @param out the row to append the results to.
+   * @param errorHandler the handler for expressions that fail, from {@link #errorHandler}.
+   */
+  public void evaluate(
+      final GenericRow row,
+      final GenericRow out,
+      final ErrorHandler errorHandler
+  ) {
+    evaluator.evaluate(row, out, errorHandler);
+  }
+
+  /**
+   * Build a handler that logs each failed expression to the supplied {@code logger} and
+   * substitutes {@code null} as its result.
+   *
+   * @param logger the logger to log errors to.
+   * @param errorMsg called with the index of the failed expression to get the logged error text.
+   * @return the handler.
+   */
+  public static ErrorHandler errorHandler(
+      final ProcessingLogger logger,
+      final IntFunction<String> errorMsg
+  ) {
+    return (index, e, row) -> {
+      logger.error(RecordProcessingError.recordProcessingError(errorMsg.apply(index), e, row));
+      return null;
+    };
+  }
+}
@@ -25,20 +25,26 @@ import io.confluent.ksql.execution.transform.KsqlTransformer;
 import io.confluent.ksql.function.KsqlAggregateFunction;
 import java.util.List;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.kstream.Aggregator;
 import org.apache.kafka.streams.kstream.Merger;
+import org.apache.kafka.streams.kstream.Reducer;
 
 public class KudafAggregator<K> implements UdafAggregator<K> {
 
   private final int nonAggColumnCount;
-  private final List<KsqlAggregateFunction<?, ?, ?>> aggregateFunctions;
   private final int columnCount;
+  // The functions, and the indexes of their arguments, by column, resolved up front so that
+  // aggregating a record does no list look-ups or casts:
+  private final KsqlAggregateFunction<Object, Object, Object>[] functionsByColumn;
+  private final int[] argIndexesByColumn;
 
   public KudafAggregator(
       final int nonAggColumnCount,
       final List<KsqlAggregateFunction<?, ?, ?>> functions
   ) {
+    final List<KsqlAggregateFunction<?, ?, ?>> aggregateFunctions =
+        ImmutableList.copyOf(requireNonNull(functions, "functions"));
     this.nonAggColumnCount = nonAggColumnCount;
-    this.aggregateFunctions = ImmutableList.copyOf(requireNonNull(functions, "functions"));
     this.columnCount = nonAggColumnCount + aggregateFunctions.size();
 
     if (aggregateFunctions.isEmpty()) {
@@ -48,29 +54,51 @@ public class KudafAggregator<K> implements UdafAggregator<K> {
     if (nonAggColumnCount < 0) {
       throw new IllegalArgumentException("negative nonAggColumnCount: " + nonAggColumnCount);
     }
+
+    this.functionsByColumn = functionsByColumn(nonAggColumnCount, aggregateFunctions);
+    this.argIndexesByColumn = new int[columnCount];
+    for (int idx = nonAggColumnCount; idx < columnCount; idx++) {
+      argIndexesByColumn[idx] = functionsByColumn[idx].getArgIndexInValue();
+    }
   }
 
   @Override
   public GenericRow apply(final K k, final GenericRow rowValue, final GenericRow aggRowValue) {
-    final GenericRow result = GenericRow.fromList(aggRowValue.values());
+    final GenericRow result = new GenericRow(columnCount);
+    result.appendAll(aggRowValue.values());
+    aggregateInto(rowValue, result);
+    return result;
+  }
 
+  /**
+   * Get an aggregator that updates the aggregate row it is passed in place, rather than copying
+   * it.
+   *
+   * <p>Only for aggregates nothing else holds a reference to. Kafka Streams can hold on to the
+   * aggregate it passes to {@link #apply}, to forward as the old value of the key, so this is
+   * only for aggregates the caller builds and holds itself.
+   */
+  public Aggregator<K, GenericRow, GenericRow> getInPlaceAggregator() {
+    return (key, rowValue, aggRowValue) -> {
+      aggregateInto(rowValue, aggRowValue);
+      return aggRowValue;
+    };
+  }
+
+  private void aggregateInto(final GenericRow rowValue, final GenericRow aggRowValue) {
     // copy over group-by and aggregate parameter columns into the output row
     for (int idx = 0; idx < nonAggColumnCount; idx++) {
-      result.set(idx, rowValue.get(idx));
+      aggRowValue.set(idx, rowValue.get(idx));
     }
 
     // compute the aggregation and write it into the output row. Its assumed that
     // the columns written by this statement do not overlap with those written by
     // the above statement.
     for (int idx = nonAggColumnCount; idx < columnCount; idx++) {
-      final KsqlAggregateFunction<Object, Object, Object> func = aggregateFunctionForColumn(idx);
-      final Object currentValue = rowValue.get(func.getArgIndexInValue());
-      final Object currentAggregate = result.get(idx);
-      final Object newAggregate = func.aggregate(currentValue, currentAggregate);
-      result.set(idx, newAggregate);
+      final Object currentValue = rowValue.get(argIndexesByColumn[idx]);
+      final Object currentAggregate = aggRowValue.get(idx);
+      aggRowValue.set(idx, functionsByColumn[idx].aggregate(currentValue, currentAggregate));
     }
-
-    return result;
   }
 
   public KsqlTransformer<K, GenericRow> getResultMapper() {
@@ -93,7 +121,7 @@ public class KudafAggregator<K> implements UdafAggregator<K> {
       }
 
       for (int idx = nonAggColumnCount; idx < columnCount; idx++) {
-        final KsqlAggregateFunction<Object, Object, Object> func = aggregateFunctionForColumn(idx);
+        final KsqlAggregateFunction<Object, Object, Object> func = functionsByColumn[idx];
         final Object aggOne = aggRowOne.get(idx);
         final Object aggTwo = aggRowTwo.get(idx);
         final Object merged = func.getMerger().apply(key, aggOne, aggTwo);
@@ -104,11 +132,45 @@ public class KudafAggregator<K> implements UdafAggregator<K> {
     };
   }
 
+  /**
+   * Get a reducer that merges a partial aggregate, built by this aggregator from later records
+   * of a key, into the aggregate of the key.
+   *
+   * <p>The non-aggregate columns are taken from the partial aggregate, as they are from the
+   * latest record when aggregating records.
+   *
+   * <p>Partial aggregates may be merged in a different order to that of their records, so this
+   * must only be used if the mergers of all the functions are independent of order.
+   */
+  public Reducer<GenericRow> getPartialMerger() {
+    return (aggregate, partial) -> {
+      final GenericRow output = new GenericRow(columnCount);
+
+      for (int idx = 0; idx < nonAggColumnCount; idx++) {
+        output.append(partial.get(idx));
+      }
+
+      for (int idx = nonAggColumnCount; idx < columnCount; idx++) {
+        final KsqlAggregateFunction<Object, Object, Object> func = functionsByColumn[idx];
+        final Object merged = func.getMerger().apply(null, aggregate.get(idx), partial.get(idx));
+        output.append(merged);
+      }
+
+      return output;
+    };
+  }
+
   @SuppressWarnings({"unchecked", "rawtypes"}) // Types have already been checked
-  private KsqlAggregateFunction<Object, Object, Object> aggregateFunctionForColumn(
-      final int columnIndex
+  private static KsqlAggregateFunction<Object, Object, Object>[] functionsByColumn(
+      final int nonAggColumnCount,
+      final List<KsqlAggregateFunction<?, ?, ?>> functions
   ) {
-    return (KsqlAggregateFunction) aggregateFunctions.get(columnIndex - nonAggColumnCount);
+    final KsqlAggregateFunction[] byColumn =
+        new KsqlAggregateFunction[nonAggColumnCount + functions.size()];
+    for (int i = 0; i < functions.size(); i++) {
+      byColumn[nonAggColumnCount + i] = functions.get(i);
+    }
+    return byColumn;
   }
 
   private final class ResultTransformer implements KsqlTransformer<K, GenericRow> {
@@ -130,8 +192,7 @@ public class KudafAggregator<K> implements UdafAggregator<K> {
       }
 
       for (int idx = nonAggColumnCount; idx < columnCount; idx++) {
-        final KsqlAggregateFunction<Object, Object, Object> function =
-            aggregateFunctionForColumn(idx);
+        final KsqlAggregateFunction<Object, Object, Object> function = functionsByColumn[idx];
 
         final Object agg = value.get(idx);
         final Object reduced = function.getResultMapper().apply(agg);
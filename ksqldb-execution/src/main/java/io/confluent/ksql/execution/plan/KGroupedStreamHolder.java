@@ -27,18 +27,33 @@ public final class KGroupedStreamHolder {
 
   private final KGroupedStream<Struct, GenericRow> groupedStream;
   private final LogicalSchema schema;
+  private final boolean partialAggregates;
 
   private KGroupedStreamHolder(
       final KGroupedStream<Struct, GenericRow> groupedStream,
-      final LogicalSchema schema) {
+      final LogicalSchema schema,
+      final boolean partialAggregates) {
     this.groupedStream = Objects.requireNonNull(groupedStream, "groupedStream");
     this.schema = Objects.requireNonNull(schema, "schema");
+    this.partialAggregates = partialAggregates;
   }
 
   public static KGroupedStreamHolder of(
       final KGroupedStream<Struct, GenericRow> groupedStream,
       final LogicalSchema schema) {
-    return new KGroupedStreamHolder(groupedStream, schema);
+    return new KGroupedStreamHolder(groupedStream, schema, false);
+  }
+
+  /**
+   * @param groupedStream the grouped stream, whose values are partial aggregates of the records
+   *     of each key, rather than the records themselves.
+   * @param schema the schema of the records that were aggregated.
+   * @return the holder.
+   */
+  public static KGroupedStreamHolder ofPartialAggregates(
+      final KGroupedStream<Struct, GenericRow> groupedStream,
+      final LogicalSchema schema) {
+    return new KGroupedStreamHolder(groupedStream, schema, true);
   }
 
   public LogicalSchema getSchema() {
@@ -48,4 +63,8 @@ public final class KGroupedStreamHolder {
   public KGroupedStream<Struct, GenericRow> getGroupedStream() {
     return groupedStream;
   }
+
+  public boolean hasPartialAggregates() {
+    return partialAggregates;
+  }
 }
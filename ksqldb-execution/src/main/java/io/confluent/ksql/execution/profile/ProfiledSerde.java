@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.profile;
+
+import java.util.Map;
+import java.util.Objects;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Wraps a serde to record the time its sampled operations take in the profile of a step.
+ */
+public final class ProfiledSerde {
+
+  private ProfiledSerde() {
+  }
+
+  public static <T> Serde<T> wrap(final Serde<T> serde, final StepProfile profile) {
+    return Serdes.serdeFrom(
+        new ProfiledSerializer<>(serde.serializer(), profile),
+        new ProfiledDeserializer<>(serde.deserializer(), profile)
+    );
+  }
+
+  private static final class ProfiledSerializer<T> implements Serializer<T> {
+
+    private final Serializer<T> delegate;
+    private final StepProfile profile;
+
+    ProfiledSerializer(final Serializer<T> delegate, final StepProfile profile) {
+      this.delegate = Objects.requireNonNull(delegate, "delegate");
+      this.profile = Objects.requireNonNull(profile, "profile");
+    }
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+      delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(final String topic, final T data) {
+      if (!profile.sampleSerdeOp()) {
+        return delegate.serialize(topic, data);
+      }
+
+      final long start = System.nanoTime();
+      final byte[] serialized = delegate.serialize(topic, data);
+      profile.recordSerdeOp(System.nanoTime() - start);
+      return serialized;
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+
+  private static final class ProfiledDeserializer<T> implements Deserializer<T> {
+
+    private final Deserializer<T> delegate;
+    private final StepProfile profile;
+
+    ProfiledDeserializer(final Deserializer<T> delegate, final StepProfile profile) {
+      this.delegate = Objects.requireNonNull(delegate, "delegate");
+      this.profile = Objects.requireNonNull(profile, "profile");
+    }
+
+    @Override
+    public void configure(final Map<String, ?> configs, final boolean isKey) {
+      delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(final String topic, final byte[] data) {
+      if (!profile.sampleSerdeOp()) {
+        return delegate.deserialize(topic, data);
+      }
+
+      final long start = System.nanoTime();
+      final T deserialized = delegate.deserialize(topic, data);
+      profile.recordSerdeOp(System.nanoTime() - start);
+      return deserialized;
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.profile;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.execution.context.QueryContext;
+import io.confluent.ksql.metrics.MetricCollectors;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.Metrics;
+
+/**
+ * The profile of a query: the profiles of each of its instrumented steps.
+ *
+ * <p>While registered, the profile of each step, and the totals of the query, are exposed as
+ * metrics in the {@value #METRIC_GROUP} group, tagged with the query id and step.
+ *
+ * @see StepProfile
+ */
+public final class QueryProfile {
+
+  public static final String METRIC_GROUP = "ksql-query-profile";
+
+  private static final Map<String, ToLongFunction<StepProfile>> METRICS =
+      ImmutableMap.<String, ToLongFunction<StepProfile>>builder()
+          .put("records-in-total", StepProfile::getRecordsIn)
+          .put("records-out-total", StepProfile::getRecordsOut)
+          .put("processing-time-ns-total", StepProfile::getEstimatedProcessingNanos)
+          .put("cpu-time-ns-total", StepProfile::getEstimatedCpuNanos)
+          .put("allocated-bytes-total", StepProfile::getEstimatedAllocatedBytes)
+          .put("serde-time-ns-total", StepProfile::getEstimatedSerdeNanos)
+          .build();
+
+  private final QueryId queryId;
+  private final int sampleInterval;
+  private final Metrics metrics;
+  private final Map<String, StepProfile> steps = new ConcurrentHashMap<>();
+  private final List<MetricName> metricNames = new ArrayList<>();
+
+  /**
+   * @param queryId the id of the query.
+   * @param ksqlConfig the config the query is built with.
+   * @return the profile of the query, if profiling is enabled.
+   */
+  public static Optional<QueryProfile> create(final QueryId queryId, final KsqlConfig ksqlConfig) {
+    final int sampleInterval = ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_PROFILING_SAMPLE_INTERVAL);
+    if (sampleInterval == 0) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new QueryProfile(queryId, sampleInterval, MetricCollectors.getMetrics()));
+  }
+
+  @VisibleForTesting
+  QueryProfile(final QueryId queryId, final int sampleInterval, final Metrics metrics) {
+    this.queryId = Objects.requireNonNull(queryId, "queryId");
+    this.sampleInterval = sampleInterval;
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+  }
+
+  public QueryId getQueryId() {
+    return queryId;
+  }
+
+  /**
+   * @param queryContext the context of the step.
+   * @return the profile of the step, created if this is the first call for the step.
+   */
+  public StepProfile getStep(final QueryContext queryContext) {
+    return steps.computeIfAbsent(
+        queryContext.formatContext(),
+        stepId -> new StepProfile(stepId, sampleInterval)
+    );
+  }
+
+  /**
+   * @return the profiles of the steps, ordered by step id.
+   */
+  public List<StepProfile> getSteps() {
+    return steps.values().stream()
+        .sorted(Comparator.comparing(StepProfile::getStepId))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  public long getRecordsIn() {
+    return total(StepProfile::getRecordsIn);
+  }
+
+  public long getEstimatedProcessingNanos() {
+    return total(StepProfile::getEstimatedProcessingNanos);
+  }
+
+  public long getEstimatedCpuNanos() {
+    return total(StepProfile::getEstimatedCpuNanos);
+  }
+
+  public long getEstimatedAllocatedBytes() {
+    return total(StepProfile::getEstimatedAllocatedBytes);
+  }
+
+  public long getEstimatedSerdeNanos() {
+    return total(StepProfile::getEstimatedSerdeNanos);
+  }
+
+  /**
+   * Register the metrics of the query and each of its steps, if not already registered.
+   */
+  public synchronized void registerMetrics() {
+    if (!metricNames.isEmpty()) {
+      return;
+    }
+
+    final Map<String, String> queryTags = ImmutableMap.of("query-id", queryId.toString());
+    METRICS.forEach((name, getter) -> addMetric(
+        metrics.metricName(name, METRIC_GROUP, description(name, "query"), queryTags),
+        () -> total(getter)
+    ));
+
+    for (final StepProfile step : getSteps()) {
+      final Map<String, String> stepTags = ImmutableMap.of(
+          "query-id", queryId.toString(),
+          "step", step.getStepId()
+      );
+      METRICS.forEach((name, getter) -> addMetric(
+          metrics.metricName(name, METRIC_GROUP, description(name, "step"), stepTags),
+          () -> getter.applyAsLong(step)
+      ));
+    }
+  }
+
+  /**
+   * Remove any registered metrics of the query.
+   */
+  public synchronized void unregisterMetrics() {
+    metricNames.forEach(metrics::removeMetric);
+    metricNames.clear();
+  }
+
+  private long total(final ToLongFunction<StepProfile> getter) {
+    return steps.values().stream()
+        .mapToLong(getter)
+        .sum();
+  }
+
+  private void addMetric(final MetricName name, final LongSupplier getter) {
+    metrics.addMetric(name, (Gauge<Long>) (config, now) -> getter.getAsLong());
+    metricNames.add(name);
+  }
+
+  private static String description(final String metricName, final String of) {
+    return "Total " + metricName.replace("-total", "").replace('-', ' ') + " of the " + of
+        + ". Times and allocations are estimated from the sampled records.";
+  }
+}
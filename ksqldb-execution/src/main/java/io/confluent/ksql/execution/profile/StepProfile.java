@@ -0,0 +1,196 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.profile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The profile of one step of a query.
+ *
+ * <p>Every record is counted, but only one record in each sample interval is timed, as reading
+ * the thread's CPU time and allocated bytes costs more than processing a simple record. Totals
+ * are estimated by scaling up the figures of the sampled records.
+ */
+public final class StepProfile {
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME_SUPPORTED = isCpuTimeSupported();
+  private static final boolean ALLOCATED_BYTES_SUPPORTED = isAllocatedBytesSupported();
+
+  private final String stepId;
+  private final int sampleInterval;
+  private final LongAdder recordsIn = new LongAdder();
+  private final LongAdder recordsOut = new LongAdder();
+  private final LongAdder sampledRecords = new LongAdder();
+  private final LongAdder sampledNanos = new LongAdder();
+  private final LongAdder sampledCpuNanos = new LongAdder();
+  private final LongAdder sampledAllocatedBytes = new LongAdder();
+  private final LongAdder serdeOps = new LongAdder();
+  private final LongAdder sampledSerdeOps = new LongAdder();
+  private final LongAdder sampledSerdeNanos = new LongAdder();
+
+  /**
+   * @param stepId the id of the step.
+   * @param sampleInterval the number of records per record sampled.
+   */
+  public StepProfile(final String stepId, final int sampleInterval) {
+    this.stepId = Objects.requireNonNull(stepId, "stepId");
+    if (sampleInterval <= 0) {
+      throw new IllegalArgumentException("sampleInterval must be positive: " + sampleInterval);
+    }
+    this.sampleInterval = sampleInterval;
+  }
+
+  public String getStepId() {
+    return stepId;
+  }
+
+  /**
+   * @return a recorder for a single processor of the step. Not thread safe.
+   */
+  public Recorder newRecorder() {
+    return new Recorder();
+  }
+
+  /**
+   * @return whether to time the next serde operation of the step.
+   */
+  public boolean sampleSerdeOp() {
+    serdeOps.increment();
+    return shouldSample();
+  }
+
+  /**
+   * Record the time taken by a sampled serde operation.
+   *
+   * @param nanos the time taken.
+   */
+  public void recordSerdeOp(final long nanos) {
+    sampledSerdeOps.increment();
+    sampledSerdeNanos.add(nanos);
+  }
+
+  public long getRecordsIn() {
+    return recordsIn.sum();
+  }
+
+  public long getRecordsOut() {
+    return recordsOut.sum();
+  }
+
+  public long getEstimatedProcessingNanos() {
+    return estimate(sampledNanos, sampledRecords, recordsIn);
+  }
+
+  public long getEstimatedCpuNanos() {
+    return estimate(sampledCpuNanos, sampledRecords, recordsIn);
+  }
+
+  public long getEstimatedAllocatedBytes() {
+    return estimate(sampledAllocatedBytes, sampledRecords, recordsIn);
+  }
+
+  public long getEstimatedSerdeNanos() {
+    return estimate(sampledSerdeNanos, sampledSerdeOps, serdeOps);
+  }
+
+  private boolean shouldSample() {
+    return sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+  }
+
+  private static long estimate(
+      final LongAdder sampledTotal,
+      final LongAdder sampled,
+      final LongAdder all
+  ) {
+    final long numSampled = sampled.sum();
+    if (numSampled == 0) {
+      return 0;
+    }
+    return (long) (sampledTotal.sum() * ((double) all.sum() / numSampled));
+  }
+
+  private static long cpuNanos() {
+    return CPU_TIME_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : 0;
+  }
+
+  private static long allocatedBytes() {
+    return ALLOCATED_BYTES_SUPPORTED
+        ? ((com.sun.management.ThreadMXBean) THREADS)
+            .getThreadAllocatedBytes(Thread.currentThread().getId())
+        : 0;
+  }
+
+  private static boolean isCpuTimeSupported() {
+    return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+  }
+
+  private static boolean isAllocatedBytesSupported() {
+    if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+      return false;
+    }
+
+    final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+    return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+  }
+
+  /**
+   * Records the records processed by a single processor of the step.
+   */
+  public final class Recorder {
+
+    private boolean sampling;
+    private long startNanos;
+    private long startCpuNanos;
+    private long startAllocatedBytes;
+
+    private Recorder() {
+    }
+
+    /**
+     * Called before the processor processes a record.
+     */
+    public void start() {
+      recordsIn.increment();
+      sampling = shouldSample();
+      if (sampling) {
+        startAllocatedBytes = allocatedBytes();
+        startCpuNanos = cpuNanos();
+        startNanos = System.nanoTime();
+      }
+    }
+
+    /**
+     * Called after the processor has processed a record.
+     *
+     * @param numOut the number of records the processor put out.
+     */
+    public void end(final int numOut) {
+      recordsOut.add(numOut);
+      if (sampling) {
+        sampledNanos.add(System.nanoTime() - startNanos);
+        sampledCpuNanos.add(cpuNanos() - startCpuNanos);
+        sampledAllocatedBytes.add(allocatedBytes() - startAllocatedBytes);
+        sampledRecords.increment();
+        sampling = false;
+      }
+    }
+  }
+}
@@ -20,31 +20,79 @@ import static java.util.Objects.requireNonNull;
 import com.google.common.collect.ImmutableList;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.execution.codegen.ExpressionMetadata;
+import io.confluent.ksql.execution.codegen.FusedEvaluator.ErrorHandler;
+import io.confluent.ksql.execution.codegen.FusedExpressionMetadata;
 import io.confluent.ksql.execution.transform.KsqlProcessingContext;
 import io.confluent.ksql.execution.transform.KsqlTransformer;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
 import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.schema.ksql.Column;
+import io.confluent.ksql.schema.ksql.Column.Namespace;
 import io.confluent.ksql.schema.utils.FormatOptions;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 public class SelectValueMapper<K> {
 
   private final ImmutableList<SelectInfo> selects;
+  private final Optional<FusedSelect> fused;
 
   SelectValueMapper(final List<SelectInfo> selects) {
     this.selects = ImmutableList.copyOf(requireNonNull(selects, "selects"));
+    this.fused = Optional.empty();
   }
 
+  SelectValueMapper(
+      final List<ColumnName> fieldNames,
+      final FusedExpressionMetadata evaluator
+  ) {
+    this.selects = ImmutableList.of();
+    this.fused = Optional.of(new FusedSelect(fieldNames, evaluator));
+  }
+
+  /**
+   * @return the per-expression selects, or an empty list if the expressions are fused.
+   */
   List<SelectInfo> getSelects() {
     return selects;
   }
 
+  /**
+   * @return the columns produced by the mapper, in order.
+   */
+  public List<Column> getValueColumns() {
+    final ImmutableList.Builder<Column> columns = ImmutableList.builder();
+    if (fused.isPresent()) {
+      final List<ColumnName> fieldNames = fused.get().fieldNames;
+      for (int i = 0; i < fieldNames.size(); i++) {
+        columns.add(Column.of(
+            fieldNames.get(i),
+            fused.get().evaluator.getExpressionTypes().get(i),
+            Namespace.VALUE,
+            i
+        ));
+      }
+    } else {
+      for (int i = 0; i < selects.size(); i++) {
+        columns.add(Column.of(
+            selects.get(i).getFieldName(),
+            selects.get(i).getEvaluator().getExpressionType(),
+            Namespace.VALUE,
+            i
+        ));
+      }
+    }
+    return columns.build();
+  }
+
   public KsqlTransformer<K, GenericRow> getTransformer(
       final ProcessingLogger processingLogger
   ) {
-    return new SelectMapper<>(selects, processingLogger);
+    return fused
+        .<KsqlTransformer<K, GenericRow>>map(f -> new FusedSelectMapper<>(f, processingLogger))
+        .orElseGet(() -> new SelectMapper<>(selects, processingLogger));
   }
 
   public static final class SelectInfo {
@@ -131,4 +179,59 @@ public class SelectValueMapper<K> {
       return select.evaluator.evaluate(row, null, processingLogger, errorMsgSupplier);
     }
   }
+
+  private static final class FusedSelect {
+
+    private final ImmutableList<ColumnName> fieldNames;
+    private final FusedExpressionMetadata evaluator;
+
+    private FusedSelect(
+        final List<ColumnName> fieldNames,
+        final FusedExpressionMetadata evaluator
+    ) {
+      this.fieldNames = ImmutableList.copyOf(requireNonNull(fieldNames, "fieldNames"));
+      this.evaluator = requireNonNull(evaluator, "evaluator");
+
+      if (fieldNames.size() != evaluator.getExpressions().size()) {
+        throw new IllegalArgumentException("field name count mismatch. "
+            + "names: " + fieldNames + ", "
+            + "expressions: " + evaluator.getExpressions());
+      }
+    }
+  }
+
+  private static final class FusedSelectMapper<K> implements KsqlTransformer<K, GenericRow> {
+
+    private final FusedSelect select;
+    private final ErrorHandler errorHandler;
+
+    private FusedSelectMapper(
+        final FusedSelect select,
+        final ProcessingLogger processingLogger
+    ) {
+      this.select = requireNonNull(select, "select");
+      this.errorHandler = FusedExpressionMetadata.errorHandler(
+          requireNonNull(processingLogger, "processingLogger"),
+          column -> "Error computing expression "
+              + select.evaluator.getExpressions().get(column)
+              + " for column " + select.fieldNames.get(column).toString(FormatOptions.noEscape())
+              + " with index " + column
+      );
+    }
+
+    @Override
+    public GenericRow transform(
+        final K readOnlyKey,
+        final GenericRow value,
+        final KsqlProcessingContext ctx
+    ) {
+      if (value == null) {
+        return null;
+      }
+
+      final GenericRow row = new GenericRow(select.fieldNames.size());
+      select.evaluator.evaluate(value, row, errorHandler);
+      return row;
+    }
+  }
 }
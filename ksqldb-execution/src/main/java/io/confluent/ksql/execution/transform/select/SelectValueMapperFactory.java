@@ -20,9 +20,12 @@ import static java.util.Objects.requireNonNull;
 import com.google.common.annotations.VisibleForTesting;
 import io.confluent.ksql.execution.codegen.CodeGenRunner;
 import io.confluent.ksql.execution.codegen.ExpressionMetadata;
+import io.confluent.ksql.execution.codegen.FusedExpressionMetadata;
+import io.confluent.ksql.execution.expression.tree.Expression;
 import io.confluent.ksql.execution.plan.SelectExpression;
 import io.confluent.ksql.execution.transform.select.SelectValueMapper.SelectInfo;
 import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.util.KsqlConfig;
 import java.util.List;
@@ -49,8 +52,11 @@ public final class SelectValueMapperFactory {
       final FunctionRegistry functionRegistry
   ) {
     final CodeGenRunner codeGen = new CodeGenRunner(sourceSchema, ksqlConfig, functionRegistry);
+    final SelectValueMapperFactory factory = new SelectValueMapperFactory(codeGen);
 
-    return new SelectValueMapperFactory(codeGen).create(selectExpressions);
+    return ksqlConfig.getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED)
+        ? factory.createFused(selectExpressions)
+        : factory.create(selectExpressions);
   }
 
   @VisibleForTesting
@@ -60,6 +66,24 @@ public final class SelectValueMapperFactory {
     return new SelectValueMapper<>(buildSelects(selectExpressions));
   }
 
+  @VisibleForTesting
+  <K> SelectValueMapper<K> createFused(
+      final List<SelectExpression> selectExpressions
+  ) {
+    final List<ColumnName> fieldNames = selectExpressions.stream()
+        .map(SelectExpression::getAlias)
+        .collect(Collectors.toList());
+
+    final List<Expression> expressions = selectExpressions.stream()
+        .map(SelectExpression::getExpression)
+        .collect(Collectors.toList());
+
+    final FusedExpressionMetadata evaluator = codeGenerator
+        .buildFusedCodeGenFromParseTrees(expressions, EXP_TYPE);
+
+    return new SelectValueMapper<>(fieldNames, evaluator);
+  }
+
   private List<SelectInfo> buildSelects(final List<SelectExpression> selectExpressions) {
     return selectExpressions.stream()
         .map(this::buildSelect)
@@ -18,7 +18,6 @@ package io.confluent.ksql.execution.transform.select;
 import static java.util.Objects.requireNonNull;
 
 import io.confluent.ksql.execution.plan.SelectExpression;
-import io.confluent.ksql.execution.transform.select.SelectValueMapper.SelectInfo;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.schema.ksql.Column;
@@ -76,9 +75,7 @@ public final class Selection<K> {
       );
     }
 
-    for (final SelectInfo select : mapper.getSelects()) {
-      schemaBuilder.valueColumn(select.getFieldName(), select.getEvaluator().getExpressionType());
-    }
+    schemaBuilder.valueColumns(mapper.getValueColumns());
 
     return schemaBuilder.build();
   }
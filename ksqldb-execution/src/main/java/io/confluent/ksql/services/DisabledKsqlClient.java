@@ -22,8 +22,8 @@ import io.confluent.ksql.rest.entity.LagReportingMessage;
 import io.confluent.ksql.rest.entity.StreamedRow;
 import io.confluent.ksql.util.KsqlHostInfo;
 import java.net.URI;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * A KSQL client implementation for use when communication with other nodes is not supported.
@@ -46,11 +46,23 @@ public final class DisabledKsqlClient implements SimpleKsqlClient {
   }
 
   @Override
-  public RestResponse<List<StreamedRow>> makeQueryRequest(
+  public RestResponse<Integer> makeQueryRequest(
       final URI serverEndPoint,
       final String sql,
       final Map<String, ?> configOverrides,
-      final Map<String, ?> requestProperties
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer
+  ) {
+    throw new UnsupportedOperationException("KSQL client is disabled");
+  }
+
+  @Override
+  public RestResponse<Integer> makeInternalPullQueryRequest(
+      final URI serverEndPoint,
+      final String sql,
+      final Map<String, ?> configOverrides,
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer
   ) {
     throw new UnsupportedOperationException("KSQL client is disabled");
   }
@@ -22,8 +22,8 @@ import io.confluent.ksql.rest.entity.LagReportingMessage;
 import io.confluent.ksql.rest.entity.StreamedRow;
 import io.confluent.ksql.util.KsqlHostInfo;
 import java.net.URI;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import javax.annotation.concurrent.ThreadSafe;
 
 @ThreadSafe
@@ -44,17 +44,46 @@ public interface SimpleKsqlClient {
 
   /**
    * Send pull query request to remote Ksql server.
+   *
+   * <p>Rows are passed to {@code rowConsumer} on the calling thread as they are received, rather
+   * than once the whole result is available. Once {@code rowConsumer} returns {@code false} no
+   * further rows are read.
+   *
    * @param serverEndPoint the remote destination
    * @param sql the pull query statement
    * @param configOverrides the config overrides provided by the client
    * @param requestProperties the request metadata provided by the server
-   * @return the result of pull query evaluation
+   * @param rowConsumer receives each row of the result, returning {@code false} to stop reading
+   * @return the number of rows passed to {@code rowConsumer}
    */
-  RestResponse<List<StreamedRow>> makeQueryRequest(
+  RestResponse<Integer> makeQueryRequest(
       URI serverEndPoint,
       String sql,
       Map<String, ?> configOverrides,
-      Map<String, ?> requestProperties
+      Map<String, ?> requestProperties,
+      Predicate<StreamedRow> rowConsumer
+  );
+
+  /**
+   * Send pull query request to the internal API of a remote Ksql server.
+   *
+   * <p>As {@link #makeQueryRequest}, except the request and response are sent in a binary format
+   * rather than JSON, and requests to the same server share a single connection. Servers that do
+   * not support the internal API respond with a {@code 404}.
+   *
+   * @param serverEndPoint the remote destination
+   * @param sql the pull query statement
+   * @param configOverrides the config overrides provided by the client
+   * @param requestProperties the request metadata provided by the server
+   * @param rowConsumer receives each row of the result, returning {@code false} to stop reading
+   * @return the number of rows passed to {@code rowConsumer}
+   */
+  RestResponse<Integer> makeInternalPullQueryRequest(
+      URI serverEndPoint,
+      String sql,
+      Map<String, ?> configOverrides,
+      Map<String, ?> requestProperties,
+      Predicate<StreamedRow> rowConsumer
   );
 
   /**
@@ -166,6 +166,16 @@ public class KsqlQueryBuilderTest {
     assertThat(result, is(new Stacker().push("some-id")));
   }
 
+  @Test
+  public void shouldNotProfileStepsIfProfilingDisabled() {
+    // When:
+    final Optional<?> result = ksqlQueryBuilder.getStepProfile(queryContext);
+
+    // Then:
+    assertThat(result, is(Optional.empty()));
+    assertThat(ksqlQueryBuilder.getQueryProfile(), is(Optional.empty()));
+  }
+
   @Test
   public void shouldSwapInKsqlConfig() {
     // Given:
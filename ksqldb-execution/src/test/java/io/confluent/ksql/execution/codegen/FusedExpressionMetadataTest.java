@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.codegen;
+
+import static io.confluent.ksql.GenericRow.genericRow;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.codegen.FusedEvaluator.ErrorHandler;
+import io.confluent.ksql.execution.expression.tree.ArithmeticBinaryExpression;
+import io.confluent.ksql.execution.expression.tree.Expression;
+import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
+import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.logging.processing.ProcessingLogger;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.schema.Operator;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class FusedExpressionMetadataTest {
+
+  private static final int NUM_COLUMNS = 3 * CodeGenRunner.EXPRESSIONS_PER_METHOD + 10;
+  private static final LogicalSchema SCHEMA = buildSchema();
+
+  @Mock
+  private FunctionRegistry functionRegistry;
+  @Mock
+  private KsqlConfig ksqlConfig;
+  @Mock
+  private ProcessingLogger processingLogger;
+
+  @Rule
+  public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+  private CodeGenRunner codeGenRunner;
+  private ErrorHandler errorHandler;
+
+  @Before
+  public void setUp() {
+    codeGenRunner = new CodeGenRunner(SCHEMA, ksqlConfig, functionRegistry);
+    errorHandler = FusedExpressionMetadata.errorHandler(
+        processingLogger,
+        index -> "Error computing expression " + index
+    );
+  }
+
+  @Test
+  public void shouldEvaluateWideProjectionAcrossMethods() {
+    // Given:
+    final List<Expression> expressions = new ArrayList<>();
+    for (int i = 0; i < NUM_COLUMNS; i++) {
+      expressions.add(add(column(i), column((i + 1) % NUM_COLUMNS)));
+    }
+    final FusedExpressionMetadata fused = codeGenRunner
+        .buildFusedCodeGenFromParseTrees(expressions, "Select");
+
+    // When:
+    final GenericRow out = new GenericRow();
+    fused.evaluate(row(), out, errorHandler);
+
+    // Then:
+    assertThat(out.size(), is(NUM_COLUMNS));
+    for (int i = 0; i < NUM_COLUMNS; i++) {
+      assertThat(out.get(i), is(i + (i + 1) % NUM_COLUMNS));
+    }
+    verify(processingLogger, never()).error(any());
+  }
+
+  @Test
+  public void shouldReturnNullForNullColumns() {
+    // Given:
+    final FusedExpressionMetadata fused = codeGenRunner.buildFusedCodeGenFromParseTrees(
+        ImmutableList.of(column(0), column(1)),
+        "Select"
+    );
+    final GenericRow row = row();
+    row.set(0, null);
+
+    // When:
+    final GenericRow out = new GenericRow();
+    fused.evaluate(row, out, errorHandler);
+
+    // Then:
+    assertThat(out, is(genericRow(null, 1)));
+    verify(processingLogger, never()).error(any());
+  }
+
+  @Test
+  public void shouldLogAndReturnNullOnlyForFailingExpression() {
+    // Given:
+    final FusedExpressionMetadata fused = codeGenRunner.buildFusedCodeGenFromParseTrees(
+        ImmutableList.of(
+            column(1),
+            new ArithmeticBinaryExpression(Operator.DIVIDE, column(1), column(0)),
+            column(2)
+        ),
+        "Select"
+    );
+
+    // When:
+    final GenericRow out = new GenericRow();
+    fused.evaluate(row(), out, errorHandler);
+
+    // Then:
+    assertThat(out, is(genericRow(1, null, 2)));
+    verify(processingLogger, times(1)).error(any());
+  }
+
+  @Test
+  public void shouldOnlyFailExpressionsOfMethodThatFailsToReadColumn() {
+    // Given:
+    final List<Expression> expressions = new ArrayList<>();
+    for (int i = 0; i < 2 * CodeGenRunner.EXPRESSIONS_PER_METHOD; i++) {
+      expressions.add(column(i));
+    }
+    final FusedExpressionMetadata fused = codeGenRunner
+        .buildFusedCodeGenFromParseTrees(expressions, "Select");
+    final GenericRow row = row();
+    row.set(0, "not an integer");
+
+    // When:
+    final GenericRow out = new GenericRow();
+    fused.evaluate(row, out, errorHandler);
+
+    // Then:
+    assertThat(out.size(), is(expressions.size()));
+    for (int i = 0; i < CodeGenRunner.EXPRESSIONS_PER_METHOD; i++) {
+      assertThat(out.get(i), is(nullValue()));
+    }
+    for (int i = CodeGenRunner.EXPRESSIONS_PER_METHOD; i < expressions.size(); i++) {
+      assertThat(out.get(i), is(i));
+    }
+    verify(processingLogger, times(CodeGenRunner.EXPRESSIONS_PER_METHOD)).error(any());
+  }
+
+  private static Expression column(final int index) {
+    return new UnqualifiedColumnReferenceExp(ColumnName.of("C" + index));
+  }
+
+  private static Expression add(final Expression left, final Expression right) {
+    return new ArithmeticBinaryExpression(Operator.ADD, left, right);
+  }
+
+  private static GenericRow row() {
+    final GenericRow row = new GenericRow(NUM_COLUMNS);
+    for (int i = 0; i < NUM_COLUMNS; i++) {
+      row.append(i);
+    }
+    return row;
+  }
+
+  private static LogicalSchema buildSchema() {
+    final LogicalSchema.Builder builder = LogicalSchema.builder()
+        .keyColumn(ColumnName.of("K0"), SqlTypes.BIGINT);
+    for (int i = 0; i < NUM_COLUMNS; i++) {
+      builder.valueColumn(ColumnName.of("C" + i), SqlTypes.INTEGER);
+    }
+    return builder.build();
+  }
+}
@@ -18,7 +18,9 @@ package io.confluent.ksql.execution.function.udaf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
@@ -76,6 +78,21 @@ public class KudafAggregatorTest {
     assertThat("invalid test", result, is(not(GenericRow.genericRow(1, 2L, 3))));
   }
 
+  @Test
+  public void shouldUpdateAggregateInPlaceWithInPlaceAggregator() {
+    // Given:
+    final GenericRow value = GenericRow.genericRow(1, 2L);
+    final GenericRow agg = GenericRow.genericRow(null, null, "func1-initial");
+
+    // When:
+    final GenericRow result = aggregator.getInPlaceAggregator().apply("key", value, agg);
+
+    // Then:
+    assertThat(result, is(sameInstance(agg)));
+    assertThat(agg, is(GenericRow.genericRow(1, 2L, "func1-result")));
+    assertThat(value, is(GenericRow.genericRow(1, 2L)));
+  }
+
   @Test
   public void shouldNotMutateParametersOnMerge() {
     // Given:
@@ -92,6 +109,22 @@ public class KudafAggregatorTest {
     assertThat("invalid test", result, is(not(GenericRow.genericRow(1, 2L, 3))));
   }
 
+  @Test
+  public void shouldMergePartialAggregate() {
+    // Given:
+    final GenericRow aggregate = GenericRow.genericRow(1, 2L, "agg");
+    final GenericRow partial = GenericRow.genericRow(3, 4L, "partial");
+
+    // When:
+    final GenericRow result = aggregator.getPartialMerger().apply(aggregate, partial);
+
+    // Then:
+    assertThat(result, is(GenericRow.genericRow(3, 4L, "func1-merged")));
+    verify(func1Merger).apply(null, "agg", "partial");
+    assertThat(aggregate, is(GenericRow.genericRow(1, 2L, "agg")));
+    assertThat(partial, is(GenericRow.genericRow(3, 4L, "partial")));
+  }
+
   @Test
   public void shouldNotMutateParametersOnResultsMap() {
     // Given:
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.ksql.execution.profile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.execution.context.QueryContext;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.Map;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.KafkaMetric;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryProfileTest {
+
+  private static final QueryId QUERY_ID = new QueryId("CSAS_1");
+  private static final QueryContext SELECT = new QueryContext.Stacker()
+      .push("Project")
+      .getQueryContext();
+  private static final QueryContext FILTER = new QueryContext.Stacker()
+      .push("WhereFilter")
+      .getQueryContext();
+
+  private final Metrics metrics = new Metrics();
+  private QueryProfile profile;
+
+  @Before
+  public void setUp() {
+    profile = new QueryProfile(QUERY_ID, 1, metrics);
+  }
+
+  @After
+  public void tearDown() {
+    metrics.close();
+  }
+
+  @Test
+  public void shouldNotCreateProfileIfProfilingDisabled() {
+    assertThat(QueryProfile.create(QUERY_ID, new KsqlConfig(ImmutableMap.of())).isPresent(),
+        is(false));
+  }
+
+  @Test
+  public void shouldCreateProfileIfProfilingEnabled() {
+    // Given:
+    final KsqlConfig config = new KsqlConfig(ImmutableMap.of(
+        KsqlConfig.KSQL_QUERY_PROFILING_SAMPLE_INTERVAL, 100
+    ));
+
+    // Then:
+    assertThat(QueryProfile.create(QUERY_ID, config).isPresent(), is(true));
+  }
+
+  @Test
+  public void shouldReturnSameProfileForSameStep() {
+    // When:
+    final StepProfile step = profile.getStep(SELECT);
+
+    // Then:
+    assertThat(profile.getStep(SELECT), is(sameInstance(step)));
+  }
+
+  @Test
+  public void shouldOrderStepsById() {
+    // Given:
+    final StepProfile select = profile.getStep(SELECT);
+    final StepProfile filter = profile.getStep(FILTER);
+
+    // Then:
+    assertThat(profile.getSteps(), contains(select, filter));
+  }
+
+  @Test
+  public void shouldTotalSteps() {
+    // Given:
+    profile.getStep(SELECT).sampleSerdeOp();
+    profile.getStep(SELECT).recordSerdeOp(10);
+    profile.getStep(FILTER).sampleSerdeOp();
+    profile.getStep(FILTER).recordSerdeOp(20);
+    recordRecord(profile.getStep(FILTER));
+
+    // Then:
+    assertThat(profile.getEstimatedSerdeNanos(), is(30L));
+    assertThat(profile.getRecordsIn(), is(1L));
+  }
+
+  @Test
+  public void shouldRegisterMetricsOfQueryAndSteps() {
+    // Given:
+    recordRecord(profile.getStep(SELECT));
+    recordRecord(profile.getStep(FILTER));
+
+    // When:
+    profile.registerMetrics();
+
+    // Then:
+    assertThat(metricValue(ImmutableMap.of("query-id", "CSAS_1")), is(2L));
+    assertThat(metricValue(ImmutableMap.of("query-id", "CSAS_1", "step", "Project")), is(1L));
+  }
+
+  @Test
+  public void shouldRegisterMetricsOnlyOnce() {
+    // Given:
+    profile.getStep(SELECT);
+    profile.registerMetrics();
+
+    // When:
+    profile.registerMetrics();
+
+    // Then: did not throw on registering the same metrics again
+  }
+
+  @Test
+  public void shouldUnregisterMetrics() {
+    // Given:
+    profile.getStep(SELECT);
+    profile.registerMetrics();
+
+    // When:
+    profile.unregisterMetrics();
+
+    // Then:
+    assertThat(metric(ImmutableMap.of("query-id", "CSAS_1")), is(nullValue()));
+    assertThat(metric(ImmutableMap.of("query-id", "CSAS_1", "step", "Project")),
+        is(nullValue()));
+  }
+
+  private static void recordRecord(final StepProfile step) {
+    final StepProfile.Recorder recorder = step.newRecorder();
+    recorder.start();
+    recorder.end(1);
+  }
+
+  private long metricValue(final Map<String, String> tags) {
+    return (long) metric(tags).metricValue();
+  }
+
+  private KafkaMetric metric(final Map<String, String> tags) {
+    final MetricName name = metrics.metricName(
+        "records-in-total", QueryProfile.METRIC_GROUP, "", tags);
+    return metrics.metric(name);
+  }
+}
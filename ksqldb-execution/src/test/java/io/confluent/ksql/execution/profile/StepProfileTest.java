@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.confluent.ksql.execution.profile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import io.confluent.ksql.execution.profile.StepProfile.Recorder;
+import org.junit.Test;
+
+public class StepProfileTest {
+
+  @Test
+  public void shouldCountRecordsInAndOut() {
+    // Given:
+    final StepProfile profile = new StepProfile("step", 10);
+    final Recorder recorder = profile.newRecorder();
+
+    // When:
+    recorder.start();
+    recorder.end(2);
+    recorder.start();
+    recorder.end(0);
+
+    // Then:
+    assertThat(profile.getRecordsIn(), is(2L));
+    assertThat(profile.getRecordsOut(), is(2L));
+  }
+
+  @Test
+  public void shouldTimeEveryRecordIfSampleIntervalIsOne() {
+    // Given:
+    final StepProfile profile = new StepProfile("step", 1);
+    final Recorder recorder = profile.newRecorder();
+
+    // When:
+    recorder.start();
+    recorder.end(1);
+
+    // Then:
+    assertThat(profile.getEstimatedProcessingNanos(), is(greaterThanOrEqualTo(0L)));
+    assertThat(profile.getEstimatedCpuNanos(), is(greaterThanOrEqualTo(0L)));
+    assertThat(profile.getEstimatedAllocatedBytes(), is(greaterThanOrEqualTo(0L)));
+  }
+
+  @Test
+  public void shouldScaleSampledSerdeTimeUpToAllOps() {
+    // Given:
+    final StepProfile profile = new StepProfile("step", 1);
+    profile.sampleSerdeOp();
+    profile.sampleSerdeOp();
+
+    // When:
+    profile.recordSerdeOp(100);
+
+    // Then:
+    assertThat(profile.getEstimatedSerdeNanos(), is(200L));
+  }
+
+  @Test
+  public void shouldEstimateZeroIfNothingSampled() {
+    // Given:
+    final StepProfile profile = new StepProfile("step", 1);
+
+    // Then:
+    assertThat(profile.getEstimatedProcessingNanos(), is(0L));
+    assertThat(profile.getEstimatedSerdeNanos(), is(0L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowOnNonPositiveSampleInterval() {
+    new StepProfile("step", 0);
+  }
+}
@@ -15,16 +15,23 @@
 
 package io.confluent.ksql.execution.transform.select;
 
+import static io.confluent.ksql.GenericRow.genericRow;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.execution.expression.tree.ArithmeticBinaryExpression;
 import io.confluent.ksql.execution.expression.tree.Expression;
 import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
 import io.confluent.ksql.execution.plan.SelectExpression;
+import io.confluent.ksql.execution.transform.KsqlProcessingContext;
 import io.confluent.ksql.execution.transform.select.SelectValueMapper.SelectInfo;
 import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.logging.processing.ProcessingLogger;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.schema.Operator;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
@@ -66,6 +73,10 @@ public class SelectionTest {
   private KsqlConfig ksqlConfig;
   @Mock
   private FunctionRegistry functionRegistry;
+  @Mock
+  private ProcessingLogger processingLogger;
+  @Mock
+  private KsqlProcessingContext ctx;
 
   private Selection<String> selection;
 
@@ -134,4 +145,30 @@ public class SelectionTest {
         .build()
     ));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldBuildFusedMapperWithSameSchemaAndResults() {
+    // Given:
+    when(ksqlConfig.getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED))
+        .thenReturn(true);
+
+    // When:
+    final Selection<String> fused = Selection.of(
+        SCHEMA,
+        ImmutableList.of(ALIASED_KEY),
+        SELECT_EXPRESSIONS,
+        ksqlConfig,
+        functionRegistry
+    );
+
+    // Then:
+    assertThat(fused.getSchema(), equalTo(selection.getSchema()));
+    assertThat(fused.getMapper().getSelects(), is(empty()));
+
+    final GenericRow row = genericRow("g", 2, 3L, 0L, 10L);
+    final GenericRow result = fused.getMapper()
+        .getTransformer(processingLogger)
+        .transform("k", row, ctx);
+    assertThat(result, equalTo(genericRow("g", 5L)));
+  }
+}
@@ -32,4 +32,10 @@ public interface MetaStore extends FunctionRegistry, TypeRegistry {
   Set<String> getQueriesWithSink(SourceName sourceName);
 
   MetaStore copy();
+
+  /**
+   * @return the version of the sources and types of the metastore, which changes whenever they
+   *     do. Two metastores of the same version hold the same sources and types.
+   */
+  long getVersion();
 }
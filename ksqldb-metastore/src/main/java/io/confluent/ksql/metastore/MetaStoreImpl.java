@@ -15,6 +15,7 @@
 
 package io.confluent.ksql.metastore;
 
+import com.google.common.collect.ImmutableMap;
 import io.confluent.ksql.function.AggregateFunctionFactory;
 import io.confluent.ksql.function.AggregateFunctionInitArguments;
 import io.confluent.ksql.function.FunctionRegistry;
@@ -30,6 +31,7 @@ import io.confluent.ksql.schema.utils.FormatOptions;
 import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.KsqlReferentialIntegrityException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -37,39 +39,63 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.concurrent.ThreadSafe;
 
+/**
+ * Holds the sources and types known to the engine, and the functions of its registry.
+ *
+ * <p>Copying the metastore, as every sandbox does, takes constant time however many sources it
+ * holds. The sources are held copy-on-write: the metastore and its copies share an immutable map
+ * of sources, and each holds the changes it has made since in a map of its own. A change never
+ * updates a source's entry in place, but replaces it, so the shared entries are never changed.
+ * Copying a metastore that has changes first folds them into a new shared map, so the first copy
+ * after a change takes time linear in the number of sources.
+ *
+ * <p>Versions are unique across all metastores, and a copy starts at the version of the
+ * metastore it is copied from, so a copy shares the version of the original until either changes.
+ */
 @ThreadSafe
 public final class MetaStoreImpl implements MutableMetaStore {
 
-  private final Map<SourceName, SourceInfo> dataSources = new ConcurrentHashMap<>();
-  private final Object referentialIntegrityLock = new Object();
+  private static final AtomicLong VERSIONS = new AtomicLong();
+
+  private final Object writeLock = new Object();
+  private volatile long version;
+  private volatile ImmutableMap<SourceName, SourceInfo> sharedSources;
+  // The sources changed since the shared sources were last shared. Empty if deleted:
+  private final Map<SourceName, Optional<SourceInfo>> changedSources = new ConcurrentHashMap<>();
   private final FunctionRegistry functionRegistry;
   private final TypeRegistry typeRegistry;
 
   public MetaStoreImpl(final FunctionRegistry functionRegistry) {
     this.functionRegistry = Objects.requireNonNull(functionRegistry, "functionRegistry");
     this.typeRegistry = new TypeRegistryImpl();
+    this.sharedSources = ImmutableMap.of();
+    this.version = VERSIONS.incrementAndGet();
   }
 
   private MetaStoreImpl(
-      final Map<SourceName, SourceInfo> dataSources,
+      final ImmutableMap<SourceName, SourceInfo> sharedSources,
       final FunctionRegistry functionRegistry,
-      final TypeRegistry typeRegistry
+      final TypeRegistry typeRegistry,
+      final long version
   ) {
     this.functionRegistry = Objects.requireNonNull(functionRegistry, "functionRegistry");
     this.typeRegistry = new TypeRegistryImpl();
+    this.sharedSources = Objects.requireNonNull(sharedSources, "sharedSources");
+    this.version = version;
 
-    dataSources.forEach((name, info) -> this.dataSources.put(name, info.copy()));
     typeRegistry.types()
         .forEachRemaining(type -> this.typeRegistry.registerType(type.getName(), type.getType()));
   }
 
   @Override
   public DataSource getSource(final SourceName sourceName) {
-    final SourceInfo source = dataSources.get(sourceName);
+    final SourceInfo source = sourceInfo(sourceName);
     if (source == null) {
       return null;
     }
@@ -78,63 +104,66 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public void putSource(final DataSource dataSource, final boolean allowReplace) {
-    final SourceInfo existing = dataSources.get(dataSource.getName());
-    if (existing != null && !allowReplace) {
-      final SourceName name = dataSource.getName();
-      final String newType = dataSource.getDataSourceType().getKsqlType().toLowerCase();
-      final String existingType = existing.source.getDataSourceType().getKsqlType().toLowerCase();
-
-      throw new KsqlException(String.format(
-          "Cannot add %s '%s': A %s with the same name already exists",
-          newType, name.text(), existingType));
-    } else if (existing != null) {
-      existing.source.canUpgradeTo(dataSource).ifPresent(msg -> {
-        throw new KsqlException("Cannot upgrade data source: " + msg);
-      });
-    }
+    synchronized (writeLock) {
+      final SourceInfo existing = sourceInfo(dataSource.getName());
+      if (existing != null && !allowReplace) {
+        final SourceName name = dataSource.getName();
+        final String newType = dataSource.getDataSourceType().getKsqlType().toLowerCase();
+        final String existingType =
+            existing.source.getDataSourceType().getKsqlType().toLowerCase();
+
+        throw new KsqlException(String.format(
+            "Cannot add %s '%s': A %s with the same name already exists",
+            newType, name.text(), existingType));
+      } else if (existing != null) {
+        existing.source.canUpgradeTo(dataSource).ifPresent(msg -> {
+          throw new KsqlException("Cannot upgrade data source: " + msg);
+        });
+      }
 
-    dataSources.put(dataSource.getName(), new SourceInfo(dataSource));
+      changing(() ->
+          changedSources.put(dataSource.getName(), Optional.of(new SourceInfo(dataSource))));
+    }
   }
 
   @Override
   public void deleteSource(final SourceName sourceName) {
-    synchronized (referentialIntegrityLock) {
-      dataSources.compute(sourceName, (ignored, source) -> {
-        if (source == null) {
-          throw new KsqlException(String.format("No data source with name %s exists.",
-              sourceName.text()));
-        }
+    synchronized (writeLock) {
+      final SourceInfo source = sourceInfo(sourceName);
+      if (source == null) {
+        throw new KsqlException(String.format("No data source with name %s exists.",
+            sourceName.text()));
+      }
 
-        final String sourceForQueriesMessage = source.referentialIntegrity
-            .getSourceForQueries()
-            .stream()
-            .collect(Collectors.joining(", "));
-
-        final String sinkForQueriesMessage = source.referentialIntegrity
-            .getSinkForQueries()
-            .stream()
-            .collect(Collectors.joining(", "));
-
-        if (!sourceForQueriesMessage.isEmpty() || !sinkForQueriesMessage.isEmpty()) {
-          throw new KsqlReferentialIntegrityException(
-              String.format("Cannot drop %s.%n"
-                      + "The following queries read from this source: [%s].%n"
-                      + "The following queries write into this source: [%s].%n"
-                      + "You need to terminate them before dropping %s.",
-                  sourceName.toString(FormatOptions.noEscape()),
-                  sourceForQueriesMessage,
-                  sinkForQueriesMessage,
-                  sourceName.toString(FormatOptions.noEscape())));
-        }
+      final String sourceForQueriesMessage = source.referentialIntegrity
+          .getSourceForQueries()
+          .stream()
+          .collect(Collectors.joining(", "));
+
+      final String sinkForQueriesMessage = source.referentialIntegrity
+          .getSinkForQueries()
+          .stream()
+          .collect(Collectors.joining(", "));
+
+      if (!sourceForQueriesMessage.isEmpty() || !sinkForQueriesMessage.isEmpty()) {
+        throw new KsqlReferentialIntegrityException(
+            String.format("Cannot drop %s.%n"
+                    + "The following queries read from this source: [%s].%n"
+                    + "The following queries write into this source: [%s].%n"
+                    + "You need to terminate them before dropping %s.",
+                sourceName.toString(FormatOptions.noEscape()),
+                sourceForQueriesMessage,
+                sinkForQueriesMessage,
+                sourceName.toString(FormatOptions.noEscape())));
+      }
 
-        return null;
-      });
+      changing(() -> changedSources.put(sourceName, Optional.empty()));
     }
   }
 
   @Override
   public Map<SourceName, DataSource> getAllDataSources() {
-    return dataSources
+    return allSources()
         .entrySet()
         .stream()
         .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().source));
@@ -146,7 +175,7 @@ public final class MetaStoreImpl implements MutableMetaStore {
       final Set<SourceName> sourceNames,
       final Set<SourceName> sinkNames
   ) {
-    synchronized (referentialIntegrityLock) {
+    synchronized (writeLock) {
       final String sourceAlreadyRegistered = streamSources(sourceNames)
           .filter(source -> source.referentialIntegrity.getSourceForQueries().contains(queryId))
           .map(source -> source.source.getName())
@@ -166,25 +195,33 @@ public final class MetaStoreImpl implements MutableMetaStore {
             + ", registeredAgainstSink: " + sinkAlreadyRegistered);
       }
 
-      streamSources(sourceNames)
-          .forEach(source -> source.referentialIntegrity.addSourceForQueries(queryId));
-      streamSources(sinkNames)
-          .forEach(source -> source.referentialIntegrity.addSinkForQueries(queryId));
+      // Update copies of the entries, as the entries may be shared:
+      final Map<SourceName, SourceInfo> updated = new HashMap<>();
+      sourceNames.forEach(name -> updated.computeIfAbsent(name, n -> sourceInfo(n).copy())
+          .referentialIntegrity.addSourceForQueries(queryId));
+      sinkNames.forEach(name -> updated.computeIfAbsent(name, n -> sourceInfo(n).copy())
+          .referentialIntegrity.addSinkForQueries(queryId));
+      updated.forEach((name, sourceInfo) -> changedSources.put(name, Optional.of(sourceInfo)));
     }
   }
 
   @Override
   public void removePersistentQuery(final String queryId) {
-    synchronized (referentialIntegrityLock) {
-      for (final SourceInfo sourceInfo : dataSources.values()) {
-        sourceInfo.referentialIntegrity.removeQuery(queryId);
-      }
+    synchronized (writeLock) {
+      allSources().forEach((name, sourceInfo) -> {
+        if (sourceInfo.referentialIntegrity.getSourceForQueries().contains(queryId)
+            || sourceInfo.referentialIntegrity.getSinkForQueries().contains(queryId)) {
+          final SourceInfo updated = sourceInfo.copy();
+          updated.referentialIntegrity.removeQuery(queryId);
+          changedSources.put(name, Optional.of(updated));
+        }
+      });
     }
   }
 
   @Override
   public Set<String> getQueriesWithSource(final SourceName sourceName) {
-    final SourceInfo sourceInfo = dataSources.get(sourceName);
+    final SourceInfo sourceInfo = sourceInfo(sourceName);
     if (sourceInfo == null) {
       return Collections.emptySet();
     }
@@ -193,7 +230,7 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public Set<String> getQueriesWithSink(final SourceName sourceName) {
-    final SourceInfo sourceInfo = dataSources.get(sourceName);
+    final SourceInfo sourceInfo = sourceInfo(sourceName);
     if (sourceInfo == null) {
       return Collections.emptySet();
     }
@@ -202,11 +239,21 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public MutableMetaStore copy() {
-    synchronized (referentialIntegrityLock) {
-      return new MetaStoreImpl(dataSources, functionRegistry, typeRegistry);
+    synchronized (writeLock) {
+      if (!changedSources.isEmpty()) {
+        // Set the shared sources before clearing the changes, so readers never miss a change:
+        sharedSources = ImmutableMap.copyOf(allSources());
+        changedSources.clear();
+      }
+      return new MetaStoreImpl(sharedSources, functionRegistry, typeRegistry, version);
     }
   }
 
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
   @Override
   public UdfFactory getUdfFactory(final FunctionName functionName) {
     return functionRegistry.getUdfFactory(functionName);
@@ -260,10 +307,47 @@ public final class MetaStoreImpl implements MutableMetaStore {
     return functionRegistry.listTableFunctions();
   }
 
+  /**
+   * Make a change to the sources or types, changing the version both before and after, so that
+   * anyone who might have seen the change sees a different version from before the change, and a
+   * version read during the change is never the version of the metastore once changed.
+   */
+  private <T> T changing(final Supplier<T> change) {
+    version = VERSIONS.incrementAndGet();
+    try {
+      return change.get();
+    } finally {
+      version = VERSIONS.incrementAndGet();
+    }
+  }
+
+  private SourceInfo sourceInfo(final SourceName sourceName) {
+    // Read the changes before the shared sources, which are replaced before changes are cleared:
+    final Optional<SourceInfo> changed = changedSources.get(sourceName);
+    if (changed != null) {
+      return changed.orElse(null);
+    }
+    return sharedSources.get(sourceName);
+  }
+
+  private Map<SourceName, SourceInfo> allSources() {
+    synchronized (writeLock) {
+      final Map<SourceName, SourceInfo> sources = new HashMap<>(sharedSources);
+      changedSources.forEach((name, changed) -> {
+        if (changed.isPresent()) {
+          sources.put(name, changed.get());
+        } else {
+          sources.remove(name);
+        }
+      });
+      return sources;
+    }
+  }
+
   private Stream<SourceInfo> streamSources(final Set<SourceName> sourceNames) {
     return sourceNames.stream()
         .map(sourceName -> {
-          final SourceInfo sourceInfo = dataSources.get(sourceName);
+          final SourceInfo sourceInfo = sourceInfo(sourceName);
           if (sourceInfo == null) {
             throw new KsqlException("Unknown source: " + sourceName.text());
           }
@@ -274,12 +358,12 @@ public final class MetaStoreImpl implements MutableMetaStore {
 
   @Override
   public boolean registerType(final String name, final SqlType type) {
-    return typeRegistry.registerType(name, type);
+    return changing(() -> typeRegistry.registerType(name, type));
   }
 
   @Override
   public boolean deleteType(final String name) {
-    return typeRegistry.deleteType(name);
+    return changing(() -> typeRegistry.deleteType(name));
   }
 
   @Override
@@ -312,6 +396,10 @@ public final class MetaStoreImpl implements MutableMetaStore {
       this.referentialIntegrity = referentialIntegrity.copy();
     }
 
+    /**
+     * @return a copy of the entry, with its own copy of the referential integrity data, which
+     *     unlike the data of the entry can be updated.
+     */
     public SourceInfo copy() {
       return new SourceInfo(source, referentialIntegrity);
     }
@@ -22,6 +22,8 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -142,6 +144,80 @@ public class MetaStoreImplTest {
     assertThat(metaStore.getQueriesWithSink(dataSource.getName()), is(empty()));
   }
 
+  @Test
+  public void shouldNotChangeOriginalOnChangesToCopy() {
+    // Given:
+    metaStore.putSource(dataSource, false);
+    final MutableMetaStore copy = metaStore.copy();
+
+    // When:
+    copy.putSource(dataSource1, false);
+    copy.updateForPersistentQuery(
+        "some query",
+        ImmutableSet.of(dataSource.getName()),
+        ImmutableSet.of(dataSource1.getName()));
+
+    // Then:
+    assertThat(metaStore.getAllDataSources().keySet(), contains(dataSource.getName()));
+    assertThat(metaStore.getQueriesWithSource(dataSource.getName()), is(empty()));
+    assertThat(copy.getQueriesWithSource(dataSource.getName()), contains("some query"));
+    assertThat(copy.getQueriesWithSink(dataSource1.getName()), contains("some query"));
+  }
+
+  @Test
+  public void shouldCopyChangesMadeSinceLastCopy() {
+    // Given:
+    metaStore.putSource(dataSource, false);
+    final MetaStore first = metaStore.copy();
+    metaStore.putSource(dataSource1, false);
+    metaStore.deleteSource(dataSource.getName());
+
+    // When:
+    final MetaStore second = metaStore.copy();
+
+    // Then:
+    assertThat(first.getAllDataSources().keySet(), contains(dataSource.getName()));
+    assertThat(second.getAllDataSources().keySet(), contains(dataSource1.getName()));
+    assertThat(second.getSource(dataSource.getName()), is(nullValue()));
+    assertThat(second.getSource(dataSource1.getName()), is(dataSource1));
+  }
+
+  @Test
+  public void shouldShareVersionWithCopyUntilEitherChanges() {
+    // Given:
+    metaStore.putSource(dataSource, false);
+    final MutableMetaStore copy = metaStore.copy();
+    final long version = metaStore.getVersion();
+
+    // Then:
+    assertThat(copy.getVersion(), is(version));
+
+    // When:
+    copy.putSource(dataSource1, false);
+    metaStore.registerType("foo", SqlPrimitiveType.of(SqlBaseType.STRING));
+
+    // Then:
+    assertThat(copy.getVersion(), is(not(version)));
+    assertThat(metaStore.getVersion(), is(not(version)));
+    assertThat(metaStore.getVersion(), is(not(copy.getVersion())));
+  }
+
+  @Test
+  public void shouldNotChangeVersionOnUpdateForPersistentQuery() {
+    // Given:
+    metaStore.putSource(dataSource, false);
+    final long version = metaStore.getVersion();
+
+    // When:
+    metaStore.updateForPersistentQuery(
+        "some query",
+        ImmutableSet.of(dataSource.getName()),
+        ImmutableSet.of());
+
+    // Then:
+    assertThat(metaStore.getVersion(), is(version));
+  }
+
   @Test
   public void shouldNotAllowModificationViaGetAllDataSources() {
     // Given:
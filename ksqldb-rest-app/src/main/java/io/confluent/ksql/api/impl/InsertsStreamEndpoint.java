@@ -26,7 +26,8 @@ import io.confluent.ksql.metastore.MetaStore;
 import io.confluent.ksql.metastore.model.DataSource;
 import io.confluent.ksql.metastore.model.DataSource.DataSourceType;
 import io.confluent.ksql.name.SourceName;
-import io.confluent.ksql.services.ServiceContext;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
+import io.confluent.ksql.security.KsqlSecurityContext;
 import io.confluent.ksql.util.Identifiers;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.ReservedInternalTopics;
@@ -41,19 +42,22 @@ public class InsertsStreamEndpoint {
   private final KsqlEngine ksqlEngine;
   private final KsqlConfig ksqlConfig;
   private final ReservedInternalTopics reservedInternalTopics;
+  private final InsertsProducerPool insertsProducerPool;
 
   public InsertsStreamEndpoint(final KsqlEngine ksqlEngine, final KsqlConfig ksqlConfig,
-      final ReservedInternalTopics reservedInternalTopics) {
+      final ReservedInternalTopics reservedInternalTopics,
+      final InsertsProducerPool insertsProducerPool) {
     this.ksqlEngine = ksqlEngine;
     this.ksqlConfig = ksqlConfig;
     this.reservedInternalTopics = reservedInternalTopics;
+    this.insertsProducerPool = insertsProducerPool;
   }
 
   public InsertsStreamSubscriber createInsertsSubscriber(final String caseInsensitiveTarget,
       final JsonObject properties,
       final Subscriber<InsertResult> acksSubscriber, final Context context,
       final WorkerExecutor workerExecutor,
-      final ServiceContext serviceContext) {
+      final KsqlSecurityContext ksqlSecurityContext) {
     VertxUtils.checkIsWorker();
 
     if (!ksqlConfig.getBoolean(KsqlConfig.KSQL_INSERT_INTO_VALUES_ENABLED)) {
@@ -76,8 +80,9 @@ public class InsertsStreamEndpoint {
     if (dataSource.getDataSourceType() == DataSourceType.KTABLE) {
       throw new KsqlApiException("Cannot insert into a table", ERROR_CODE_BAD_STATEMENT);
     }
-    return InsertsSubscriber.createInsertsSubscriber(serviceContext, properties, dataSource,
-        ksqlConfig, context, acksSubscriber, workerExecutor);
+    return InsertsSubscriber.createInsertsSubscriber(ksqlSecurityContext.getServiceContext(),
+        ksqlSecurityContext.getUserPrincipal(), properties, dataSource, ksqlConfig, context,
+        acksSubscriber, workerExecutor, insertsProducerPool);
   }
 
   private DataSource getDataSource(
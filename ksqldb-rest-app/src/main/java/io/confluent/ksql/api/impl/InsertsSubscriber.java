@@ -25,10 +25,10 @@ import io.confluent.ksql.logging.processing.NoopProcessingLogContext;
 import io.confluent.ksql.metastore.model.DataSource;
 import io.confluent.ksql.reactive.BaseSubscriber;
 import io.confluent.ksql.reactive.BufferedPublisher;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool.Lease;
 import io.confluent.ksql.schema.ksql.PhysicalSchema;
 import io.confluent.ksql.schema.ksql.SqlValueCoercer;
-import io.confluent.ksql.serde.GenericKeySerDe;
-import io.confluent.ksql.serde.GenericRowSerDe;
 import io.confluent.ksql.serde.KeySerdeFactory;
 import io.confluent.ksql.serde.ValueSerdeFactory;
 import io.confluent.ksql.serde.connect.ConnectSchemas;
@@ -38,10 +38,10 @@ import io.confluent.ksql.util.VertxUtils;
 import io.vertx.core.Context;
 import io.vertx.core.WorkerExecutor;
 import io.vertx.core.json.JsonObject;
+import java.security.Principal;
 import java.util.Objects;
 import java.util.Optional;
 import org.apache.kafka.clients.producer.Callback;
-import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.serialization.Serde;
@@ -60,7 +60,7 @@ public final class InsertsSubscriber extends BaseSubscriber<JsonObject> implemen
   private static final int REQUEST_BATCH_SIZE = 200;
   private static final SqlValueCoercer SQL_VALUE_COERCER = ApiSqlValueCoercer.INSTANCE;
 
-  private final Producer<byte[], byte[]> producer;
+  private final Lease producer;
   private final DataSource dataSource;
   private final ConnectSchema keySchema;
   private final Serializer<Struct> keySerializer;
@@ -71,27 +71,26 @@ public final class InsertsSubscriber extends BaseSubscriber<JsonObject> implemen
   private boolean drainHandlerSet;
   private long sequence;
 
+  // CHECKSTYLE_RULES.OFF: ParameterNumber
   public static InsertsSubscriber createInsertsSubscriber(
       final ServiceContext serviceContext,
+      final Optional<Principal> principal,
       final JsonObject properties,
       final DataSource dataSource,
       final KsqlConfig ksqlConfig,
       final Context context,
       final Subscriber<InsertResult> acksSubscriber,
-      final WorkerExecutor workerExecutor
+      final WorkerExecutor workerExecutor,
+      final InsertsProducerPool insertsProducerPool
   ) {
-    final KsqlConfig configCopy = ksqlConfig.cloneWithPropertyOverwrite(properties.getMap());
-    final Producer<byte[], byte[]> producer = serviceContext
-        .getKafkaClientSupplier()
-        .getProducer(configCopy.originals());
-
+    // CHECKSTYLE_RULES.ON: ParameterNumber
     final PhysicalSchema physicalSchema = PhysicalSchema.from(
         dataSource.getSchema(),
         dataSource.getKsqlTopic().getKeyFormat().getFeatures(),
         dataSource.getKsqlTopic().getValueFormat().getFeatures()
     );
 
-    final KeySerdeFactory keySerdeFactory = new GenericKeySerDe();
+    final KeySerdeFactory keySerdeFactory = insertsProducerPool.keySerdeFactory(principal);
     final Serde<Struct> keySerde = keySerdeFactory.create(
         dataSource.getKsqlTopic().getKeyFormat().getFormatInfo(),
         physicalSchema.keySchema(),
@@ -102,7 +101,7 @@ public final class InsertsSubscriber extends BaseSubscriber<JsonObject> implemen
         Optional.empty()
     );
 
-    final ValueSerdeFactory valueSerdeFactory = new GenericRowSerDe();
+    final ValueSerdeFactory valueSerdeFactory = insertsProducerPool.valueSerdeFactory(principal);
     final Serde<GenericRow> valueSerde = valueSerdeFactory.create(
         dataSource.getKsqlTopic().getValueFormat().getFormatInfo(),
         physicalSchema.valueSchema(),
@@ -113,6 +112,10 @@ public final class InsertsSubscriber extends BaseSubscriber<JsonObject> implemen
         Optional.empty()
     );
 
+    final KsqlConfig configCopy = ksqlConfig.cloneWithPropertyOverwrite(properties.getMap());
+    final Lease producer = insertsProducerPool
+        .lease(principal, serviceContext, configCopy.originals());
+
     final BufferedPublisher<InsertResult> acksPublisher = new BufferedPublisher<>(context);
     acksPublisher.subscribe(acksSubscriber);
     return new InsertsSubscriber(context, producer, dataSource, keySerde.serializer(),
@@ -121,7 +124,7 @@ public final class InsertsSubscriber extends BaseSubscriber<JsonObject> implemen
 
   private InsertsSubscriber(
       final Context context,
-      final Producer<byte[], byte[]> producer,
+      final Lease producer,
       final DataSource dataSource,
       final Serializer<Struct> keySerializer,
       final Serializer<GenericRow> valueSerializer,
@@ -140,8 +143,8 @@ public final class InsertsSubscriber extends BaseSubscriber<JsonObject> implemen
 
   @Override
   public void close() {
-    // Run async as it can block
-    executeOnWorker(producer::close);
+    // Run async as it can block, if the pool closes idle producers
+    executeOnWorker(producer::release);
   }
 
   @Override
@@ -216,7 +219,7 @@ public final class InsertsSubscriber extends BaseSubscriber<JsonObject> implemen
   private void executeOnWorker(final Runnable runnable) {
     workerExecutor.executeBlocking(p -> runnable.run(), false, ar -> {
       if (ar.failed()) {
-        log.error("Failed to close producer", ar.cause());
+        log.error("Failed to release producer", ar.cause());
       }
     });
   }
@@ -17,40 +17,41 @@ package io.confluent.ksql.api.impl;
 
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.api.spi.QueryPublisher;
-import io.confluent.ksql.reactive.BufferedPublisher;
-import io.confluent.ksql.rest.entity.TableRows;
+import io.confluent.ksql.reactive.BasePublisher;
+import io.confluent.ksql.rest.server.execution.PullQueryQueue;
+import io.confluent.ksql.rest.server.execution.PullQueryResult;
+import io.confluent.ksql.rest.server.execution.PullQueryRow;
 import io.confluent.ksql.util.KeyValue;
 import io.vertx.core.Context;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-public class PullQueryPublisher
-    extends BufferedPublisher<KeyValue<List<?>, GenericRow>>
+/**
+ * A query publisher for pull queries, delivering rows as they are read from the result's queue
+ * rather than once the whole result has been gathered.
+ */
+public class PullQueryPublisher extends BasePublisher<KeyValue<List<?>, GenericRow>>
     implements QueryPublisher {
 
+  public static final int SEND_MAX_BATCH_SIZE = 200;
+
+  private final PullQueryResult result;
+  private final PullQueryQueue queue;
   private final List<String> columnNames;
   private final List<String> columnTypes;
+  private volatile boolean closed;
 
-  public PullQueryPublisher(final Context ctx, final TableRows tableRows,
+  public PullQueryPublisher(final Context ctx, final PullQueryResult result,
       final List<String> columnNames, final List<String> columnTypes) {
-    super(ctx, toGenericRows(tableRows));
+    super(ctx);
+    this.result = Objects.requireNonNull(result);
+    this.queue = result.getRowQueue();
     this.columnNames = Objects.requireNonNull(columnNames);
     this.columnTypes = Objects.requireNonNull(columnTypes);
   }
 
-  @SuppressWarnings({"unchecked", "rawtypes"})
-  private static List<KeyValue<List<?>, GenericRow>> toGenericRows(final TableRows tableRows) {
-    final List<KeyValue<List<?>, GenericRow>> genericRows =
-        new ArrayList<>(tableRows.getRows().size());
-
-    for (List row : tableRows.getRows()) {
-      final GenericRow genericRow = GenericRow.fromList(row);
-      genericRows.add(KeyValue.keyValue(null, genericRow));
-    }
-    return genericRows;
-  }
-
   @Override
   public List<String> getColumnNames() {
     return columnNames;
@@ -65,4 +66,64 @@ public class PullQueryPublisher
   public boolean isPullQuery() {
     return true;
   }
+
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    result.stop();
+    super.close();
+  }
+
+  @Override
+  protected void maybeSend() {
+    ctx.runOnContext(v -> doSend());
+  }
+
+  @Override
+  protected void afterSubscribe() {
+    queue.setQueuedCallback(this::maybeSend);
+    result.getCompletion().whenComplete((v, t) -> maybeSend());
+  }
+
+  private void doSend() {
+    checkContext();
+
+    if (getSubscriber() == null || hasSentComplete() || isFailed()) {
+      return;
+    }
+
+    int num = 0;
+    while (getDemand() > 0 && !queue.isEmpty()) {
+      if (num < SEND_MAX_BATCH_SIZE) {
+        final PullQueryRow row = queue.poll();
+        if (row == null) {
+          // Queue closed concurrently
+          return;
+        }
+        doOnNext(KeyValue.keyValue(null, row.getGenericRow()));
+        num++;
+      } else {
+        // Schedule another batch async
+        ctx.runOnContext(v -> doSend());
+        return;
+      }
+    }
+
+    final CompletableFuture<Void> completion = result.getCompletion();
+    if (!completion.isDone() || !queue.isEmpty()) {
+      return;
+    }
+
+    try {
+      completion.join();
+      sendComplete();
+    } catch (final CompletionException e) {
+      final Throwable cause = e.getCause() == null ? e : e.getCause();
+      sendError(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+    } catch (final RuntimeException e) {
+      sendError(e);
+    }
+  }
 }
@@ -26,7 +26,6 @@ import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
 import io.confluent.ksql.parser.tree.Query;
 import io.confluent.ksql.parser.tree.Statement;
 import io.confluent.ksql.query.BlockingRowQueue;
-import io.confluent.ksql.rest.entity.TableRows;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutorMetrics;
 import io.confluent.ksql.rest.server.execution.PullQueryResult;
@@ -111,14 +110,14 @@ public class QueryEndpoint {
   ) {
     final PullQueryResult result = pullQueryExecutor.execute(
         statement, ImmutableMap.of(), serviceContext, Optional.of(false), pullQueryMetrics);
-    pullQueryMetrics.ifPresent(p -> p.recordLatency(startTimeNanos));
-    final TableRows tableRows = result.getTableRows();
+    result.getCompletion().whenComplete((v, t) ->
+        pullQueryMetrics.ifPresent(p -> p.recordLatency(startTimeNanos)));
 
     return new PullQueryPublisher(
         context,
-        tableRows,
-        colNamesFromSchema(tableRows.getSchema().columns()),
-        colTypesFromSchema(tableRows.getSchema().columns())
+        result,
+        colNamesFromSchema(result.getSchema().columns()),
+        colTypesFromSchema(result.getSchema().columns())
     );
   }
 
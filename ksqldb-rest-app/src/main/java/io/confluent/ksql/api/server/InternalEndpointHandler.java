@@ -27,7 +27,7 @@ public class InternalEndpointHandler implements Handler<RoutingContext> {
   public static final String CONTEXT_DATA_IS_INTERNAL = "isInternal";
 
   private static final Set<String> INTERNAL_PATHS = ImmutableSet.of(
-      "/heartbeat", "/lag");
+      "/heartbeat", "/lag", "/pull-query-internal");
 
   private final boolean isFromInternalListener;
 
@@ -15,6 +15,8 @@
 
 package io.confluent.ksql.api.server;
 
+import static io.confluent.ksql.rest.Errors.ERROR_CODE_BAD_REQUEST;
+import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
 import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
 import static io.netty.handler.codec.http.HttpResponseStatus.METHOD_NOT_ALLOWED;
 import static org.apache.hc.core5.http.HttpHeaders.TRANSFER_ENCODING;
@@ -23,9 +25,12 @@ import io.confluent.ksql.api.auth.ApiSecurityContext;
 import io.confluent.ksql.api.auth.DefaultApiSecurityContext;
 import io.confluent.ksql.rest.EndpointResponse;
 import io.confluent.ksql.rest.Errors;
+import io.confluent.ksql.rest.PullQueryCodec;
 import io.confluent.ksql.rest.entity.KsqlErrorMessage;
+import io.confluent.ksql.rest.entity.KsqlRequest;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutorMetrics;
 import io.confluent.ksql.rest.server.resources.KsqlRestException;
+import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.VertxCompletableFuture;
 import io.vertx.core.WorkerExecutor;
 import io.vertx.core.buffer.Buffer;
@@ -40,6 +45,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.apache.kafka.common.utils.Time;
 
 public final class OldApiUtils {
@@ -87,6 +93,54 @@ public final class OldApiUtils {
     });
   }
 
+  /**
+   * Handle a pull query forwarded from another server in the binary format of
+   * {@link PullQueryCodec}.
+   *
+   * <p>Unlike the old {@code /query} endpoint, the results are streamed over HTTP/2 as well as
+   * HTTP/1.1, as they are not chunked. Errors before the first row are returned as JSON, as they
+   * are from {@code /query}.
+   *
+   * @param responseClosedFuture completed once the response is closed, which for HTTP/2 may be
+   *     because this request's stream was reset while the connection stays open.
+   */
+  static void handleInternalPullQueryRequest(
+      final Server server,
+      final RoutingContext routingContext,
+      final CompletableFuture<Void> responseClosedFuture,
+      final Optional<PullQueryExecutorMetrics> pullQueryMetrics,
+      final Function<KsqlRequest, CompletableFuture<EndpointResponse>> requestor) {
+    final long startTimeNanos = Time.SYSTEM.nanoseconds();
+    final KsqlRequest request;
+    try {
+      request = PullQueryCodec.decodeRequest(routingContext.getBody().getBytes());
+    } catch (final KsqlException e) {
+      routingContext.fail(BAD_REQUEST.code(),
+          new KsqlApiException("Invalid pull query request: " + e.getMessage(),
+              ERROR_CODE_BAD_REQUEST));
+      return;
+    }
+    pullQueryMetrics
+        .ifPresent(pullQueryExecutorMetrics -> pullQueryExecutorMetrics.recordRequestSize(
+            routingContext.request().bytesRead()));
+    requestor.apply(request).thenAccept(endpointResponse -> {
+      if (endpointResponse.getEntity() instanceof StreamingOutput) {
+        handleInternalPullQueryResponse(server, routingContext, endpointResponse,
+            responseClosedFuture, pullQueryMetrics, startTimeNanos);
+      } else {
+        handleOldApiResponse(
+            server, routingContext, endpointResponse, pullQueryMetrics, startTimeNanos);
+      }
+    }).exceptionally(t -> {
+      if (t instanceof CompletionException) {
+        t = t.getCause();
+      }
+      handleOldApiResponse(
+          server, routingContext, mapException(t), pullQueryMetrics, startTimeNanos);
+      return null;
+    });
+  }
+
   static void handleOldApiResponse(
       final Server server, final RoutingContext routingContext,
       final EndpointResponse endpointResponse,
@@ -163,6 +217,46 @@ public final class OldApiUtils {
     }, vcf);
   }
 
+  private static void handleInternalPullQueryResponse(
+      final Server server,
+      final RoutingContext routingContext,
+      final EndpointResponse endpointResponse,
+      final CompletableFuture<Void> responseClosedFuture,
+      final Optional<PullQueryExecutorMetrics> pullQueryMetrics,
+      final long startTimeNanos
+  ) {
+    final HttpServerResponse response = routingContext.response();
+    response.putHeader(CONTENT_TYPE_HEADER, PullQueryCodec.CONTENT_TYPE);
+    response.setStatusCode(endpointResponse.getStatus());
+    if (routingContext.request().version() != HttpVersion.HTTP_2) {
+      response.putHeader(TRANSFER_ENCODING, CHUNKED_ENCODING);
+    }
+
+    final StreamingOutput streamingOutput = (StreamingOutput) endpointResponse.getEntity();
+    final WorkerExecutor workerExecutor = server.getWorkerExecutor();
+    final VertxCompletableFuture<Void> vcf = new VertxCompletableFuture<>();
+    workerExecutor.executeBlocking(promise -> {
+      final ResponseOutputStream ros = new ResponseOutputStream(response);
+      // Close the OutputStream on close of the response, rather than of the HTTP connection,
+      // which other requests may still be using
+      responseClosedFuture.thenRun(ros::close);
+      try {
+        streamingOutput.write(new BufferedOutputStream(ros));
+        promise.complete();
+      } catch (Exception e) {
+        promise.fail(e);
+      } finally {
+        ros.close();
+      }
+    }, vcf);
+
+    pullQueryMetrics
+        .ifPresent(pullQueryExecutorMetrics -> pullQueryExecutorMetrics.recordResponseSize(
+            response.bytesWritten()));
+    pullQueryMetrics.ifPresent(pullQueryExecutorMetrics -> pullQueryExecutorMetrics
+        .recordLatency(startTimeNanos));
+  }
+
   public static EndpointResponse mapException(final Throwable exception) {
     if (exception instanceof KsqlRestException) {
       final KsqlRestException restException = (KsqlRestException) exception;
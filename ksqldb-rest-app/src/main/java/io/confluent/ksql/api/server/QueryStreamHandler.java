@@ -19,6 +19,7 @@ import static io.confluent.ksql.api.server.ServerUtils.checkHttp2;
 
 import io.confluent.ksql.api.auth.DefaultApiSecurityContext;
 import io.confluent.ksql.api.spi.Endpoints;
+import io.confluent.ksql.rest.QueryStreamBinaryFormat;
 import io.confluent.ksql.rest.entity.QueryResponseMetadata;
 import io.confluent.ksql.rest.entity.QueryStreamArgs;
 import io.vertx.core.Context;
@@ -66,6 +67,9 @@ public class QueryStreamHandler implements Handler<RoutingContext> {
       // Default
       queryStreamResponseWriter =
           new DelimitedQueryStreamResponseWriter(routingContext.response());
+    } else if (QueryStreamBinaryFormat.CONTENT_TYPE.equals(contentType)) {
+      queryStreamResponseWriter =
+          new BinaryQueryStreamResponseWriter(routingContext.response());
     } else {
       queryStreamResponseWriter = new JsonQueryStreamResponseWriter(routingContext.response());
     }
@@ -86,6 +90,10 @@ public class QueryStreamHandler implements Handler<RoutingContext> {
             metadata = new QueryResponseMetadata(
                 queryPublisher.getColumnNames(),
                 queryPublisher.getColumnTypes());
+
+            // When response is complete, or the client goes away, stop reading further rows
+            routingContext.response().endHandler(v -> queryPublisher.close());
+            routingContext.response().closeHandler(v -> queryPublisher.close());
           } else {
             final PushQueryHolder query = connectionQueryManager
                 .createApiQuery(queryPublisher, routingContext.request());
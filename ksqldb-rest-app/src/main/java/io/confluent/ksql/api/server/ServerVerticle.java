@@ -16,12 +16,15 @@
 package io.confluent.ksql.api.server;
 
 import static io.confluent.ksql.api.server.InternalEndpointHandler.CONTEXT_DATA_IS_INTERNAL;
+import static io.confluent.ksql.api.server.OldApiUtils.handleInternalPullQueryRequest;
 import static io.confluent.ksql.api.server.OldApiUtils.handleOldApiRequest;
 import static io.netty.handler.codec.http.HttpResponseStatus.TEMPORARY_REDIRECT;
 
 import io.confluent.ksql.api.auth.ApiSecurityContext;
 import io.confluent.ksql.api.auth.DefaultApiSecurityContext;
 import io.confluent.ksql.api.spi.Endpoints;
+import io.confluent.ksql.rest.PullQueryCodec;
+import io.confluent.ksql.rest.QueryStreamBinaryFormat;
 import io.confluent.ksql.rest.entity.ClusterTerminateRequest;
 import io.confluent.ksql.rest.entity.HeartbeatMessage;
 import io.confluent.ksql.rest.entity.KsqlMediaType;
@@ -134,6 +137,7 @@ public class ServerVerticle extends AbstractVerticle {
     router.route(HttpMethod.POST, "/query-stream")
         .produces(DELIMITED_CONTENT_TYPE)
         .produces(JSON_CONTENT_TYPE)
+        .produces(QueryStreamBinaryFormat.CONTENT_TYPE)
         .handler(BodyHandler.create())
         .handler(new QueryStreamHandler(endpoints, connectionQueryManager, context, server));
     router.route(HttpMethod.POST, "/inserts-stream")
@@ -164,6 +168,10 @@ public class ServerVerticle extends AbstractVerticle {
         .produces(KsqlMediaType.KSQL_V1_JSON.mediaType())
         .produces(JSON_CONTENT_TYPE)
         .handler(this::handleQueryRequest);
+    router.route(HttpMethod.POST, "/pull-query-internal")
+        .handler(BodyHandler.create())
+        .produces(PullQueryCodec.CONTENT_TYPE)
+        .handler(this::handleInternalPullQueryRequest);
     router.route(HttpMethod.GET, "/info")
         .produces(KsqlMediaType.KSQL_V1_JSON.mediaType())
         .produces(JSON_CONTENT_TYPE)
@@ -194,6 +202,14 @@ public class ServerVerticle extends AbstractVerticle {
         .produces(KsqlMediaType.KSQL_V1_JSON.mediaType())
         .produces(JSON_CONTENT_TYPE)
         .handler(this::handleHealthcheckRequest);
+    router.route(HttpMethod.GET, "/queryProfiles")
+        .produces(KsqlMediaType.KSQL_V1_JSON.mediaType())
+        .produces(JSON_CONTENT_TYPE)
+        .handler(this::handleQueryProfilesRequest);
+    router.route(HttpMethod.GET, "/routing/:table")
+        .produces(KsqlMediaType.KSQL_V1_JSON.mediaType())
+        .produces(JSON_CONTENT_TYPE)
+        .handler(this::handleTableRoutingRequest);
     router.route(HttpMethod.GET, "/v1/metadata")
         .produces(KsqlMediaType.KSQL_V1_JSON.mediaType())
         .produces(JSON_CONTENT_TYPE)
@@ -245,6 +261,23 @@ public class ServerVerticle extends AbstractVerticle {
     );
   }
 
+  private void handleInternalPullQueryRequest(final RoutingContext routingContext) {
+
+    // Forwarded pull queries share HTTP/2 connections, so only the close of this request's
+    // response, and not of its connection, ends the query:
+    final CompletableFuture<Void> responseClosedFuture = new CompletableFuture<>();
+    routingContext.response().closeHandler(v -> responseClosedFuture.complete(null));
+    handleInternalPullQueryRequest(server, routingContext, responseClosedFuture, pullQueryMetrics,
+        request ->
+            endpoints
+                .executeInternalPullQueryRequest(
+                    request, server.getWorkerExecutor(), responseClosedFuture,
+                    DefaultApiSecurityContext.create(routingContext),
+                    isInternalRequest(routingContext)
+                )
+    );
+  }
+
   private void handleInfoRequest(final RoutingContext routingContext) {
     handleOldApiRequest(server, routingContext, null, Optional.empty(),
         (request, apiSecurityContext) ->
@@ -299,6 +332,21 @@ public class ServerVerticle extends AbstractVerticle {
     );
   }
 
+  private void handleQueryProfilesRequest(final RoutingContext routingContext) {
+    handleOldApiRequest(server, routingContext, null, Optional.empty(),
+        (request, apiSecurityContext) ->
+            endpoints.executeQueryProfiles(DefaultApiSecurityContext.create(routingContext))
+    );
+  }
+
+  private void handleTableRoutingRequest(final RoutingContext routingContext) {
+    final String table = routingContext.request().getParam("table");
+    handleOldApiRequest(server, routingContext, null, Optional.empty(),
+        (request, apiSecurityContext) ->
+            endpoints.executeTableRouting(table, DefaultApiSecurityContext.create(routingContext))
+    );
+  }
+
   private void handleServerMetadataRequest(final RoutingContext routingContext) {
     handleOldApiRequest(server, routingContext, null, Optional.empty(),
         (request, apiSecurityContext) ->
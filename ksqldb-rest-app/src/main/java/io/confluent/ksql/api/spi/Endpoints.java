@@ -85,6 +85,18 @@ public interface Endpoints {
       Optional<Boolean> isInternalRequest,
       KsqlMediaType mediaType);
 
+  /**
+   * Execute a pull query forwarded from another server, returning its rows in the binary format
+   * of {@link io.confluent.ksql.rest.PullQueryCodec}.
+   *
+   * @param responseClosedFuture completed once the response is closed, e.g. because the forwarding
+   *     server is no longer interested in the rows.
+   */
+  CompletableFuture<EndpointResponse> executeInternalPullQueryRequest(
+      KsqlRequest request, WorkerExecutor workerExecutor,
+      CompletableFuture<Void> responseClosedFuture, ApiSecurityContext apiSecurityContext,
+      Optional<Boolean> isInternalRequest);
+
   CompletableFuture<EndpointResponse> executeInfo(ApiSecurityContext apiSecurityContext);
 
   CompletableFuture<EndpointResponse> executeHeartbeat(HeartbeatMessage heartbeatMessage,
@@ -102,6 +114,11 @@ public interface Endpoints {
 
   CompletableFuture<EndpointResponse> executeCheckHealth(ApiSecurityContext apiSecurityContext);
 
+  CompletableFuture<EndpointResponse> executeQueryProfiles(ApiSecurityContext apiSecurityContext);
+
+  CompletableFuture<EndpointResponse> executeTableRouting(String table,
+      ApiSecurityContext apiSecurityContext);
+
   CompletableFuture<EndpointResponse> executeServerMetadata(ApiSecurityContext apiSecurityContext);
 
   CompletableFuture<EndpointResponse> executeServerMetadataClusterId(
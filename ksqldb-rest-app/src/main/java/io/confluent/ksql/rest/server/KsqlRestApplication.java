@@ -64,6 +64,8 @@ import io.confluent.ksql.rest.server.computation.CommandRunner;
 import io.confluent.ksql.rest.server.computation.CommandStore;
 import io.confluent.ksql.rest.server.computation.InteractiveStatementExecutor;
 import io.confluent.ksql.rest.server.computation.InternalTopicSerdes;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPoolMetrics;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutorMetrics;
 import io.confluent.ksql.rest.server.resources.ClusterStatusResource;
@@ -187,6 +189,7 @@ public final class KsqlRestApplication implements Executable {
   private final QueryMonitor queryMonitor;
   private final DenyListPropertyValidator denyListPropertyValidator;
   private final Optional<PullQueryExecutorMetrics> pullQueryMetrics;
+  private final InsertsProducerPool insertsProducerPool;
 
   // The startup thread that can be interrupted if necessary during shutdown.  This should only
   // happen if startup hangs.
@@ -224,7 +227,8 @@ public final class KsqlRestApplication implements Executable {
       final Vertx vertx,
       final QueryMonitor ksqlQueryMonitor,
       final DenyListPropertyValidator denyListPropertyValidator,
-      final Optional<PullQueryExecutorMetrics> pullQueryMetrics
+      final Optional<PullQueryExecutorMetrics> pullQueryMetrics,
+      final InsertsProducerPool insertsProducerPool
   ) {
     log.debug("Creating instance of ksqlDB API server");
     this.serviceContext = requireNonNull(serviceContext, "serviceContext");
@@ -278,6 +282,7 @@ public final class KsqlRestApplication implements Executable {
     this.queryMonitor = requireNonNull(ksqlQueryMonitor, "ksqlQueryMonitor");
     MetricCollectors.addConfigurableReporter(ksqlConfigNoPort);
     this.pullQueryMetrics = requireNonNull(pullQueryMetrics, "pullQueryMetrics");
+    this.insertsProducerPool = requireNonNull(insertsProducerPool, "insertsProducerPool");
     log.debug("ksqlDB API server instance created");
   }
 
@@ -338,7 +343,8 @@ public final class KsqlRestApplication implements Executable {
           healthCheckResource,
           serverMetadataResource,
           wsQueryEndpoint,
-          pullQueryMetrics
+          pullQueryMetrics,
+          insertsProducerPool
       );
       apiServer = new Server(vertx, ksqlRestConfig, endpoints, securityExtension,
           authenticationPlugin, serverState, pullQueryMetrics);
@@ -486,6 +492,12 @@ public final class KsqlRestApplication implements Executable {
       log.error("Exception while waiting for pull query metrics to close", e);
     }
 
+    try {
+      insertsProducerPool.close();
+    } catch (final Exception e) {
+      log.error("Exception while closing inserts producer pool", e);
+    }
+
     try {
       ksqlEngine.close();
     } catch (final Exception e) {
@@ -504,6 +516,12 @@ public final class KsqlRestApplication implements Executable {
       log.error("Exception while waiting for QueryMonitor thread to complete", e);
     }
 
+    try {
+      processingLogContext.close();
+    } catch (final Exception e) {
+      log.error("Exception while closing processing log", e);
+    }
+
     try {
       serviceContext.close();
     } catch (final Exception e) {
@@ -728,6 +746,13 @@ public final class KsqlRestApplication implements Executable {
         Time.SYSTEM))
         : Optional.empty();
 
+    final InsertsProducerPool insertsProducerPool = new InsertsProducerPool(
+        restConfig.getLong(KsqlRestConfig.KSQL_INSERTS_PRODUCER_POOL_MAX_IDLE_MS_CONFIG),
+        new InsertsProducerPoolMetrics(
+            ksqlEngine.getServiceId(),
+            ksqlConfig.getStringAsMap(KsqlConfig.KSQL_CUSTOM_METRICS_TAGS))
+    );
+
     final StreamedQueryResource streamedQueryResource = new StreamedQueryResource(
         ksqlEngine,
         commandStore,
@@ -761,7 +786,8 @@ public final class KsqlRestApplication implements Executable {
         InternalTopicSerdes.deserializer(Command.class),
         errorHandler,
         serviceContext.getTopicClient(),
-        commandTopicName
+        commandTopicName,
+        restConfig.getInt(KsqlRestConfig.KSQL_COMMAND_RESTORE_THREADS_CONFIG)
     );
   
     final KsqlResource ksqlResource = new KsqlResource(
@@ -771,7 +797,8 @@ public final class KsqlRestApplication implements Executable {
         versionChecker::updateLastRequestTime,
         authorizationValidator,
         errorHandler,
-        denyListPropertyValidator
+        denyListPropertyValidator,
+        insertsProducerPool
     );
 
     final QueryMonitor queryMonitor = new QueryMonitor(ksqlConfig, ksqlEngine);
@@ -815,7 +842,8 @@ public final class KsqlRestApplication implements Executable {
         vertx,
         queryMonitor,
         denyListPropertyValidator,
-        pullQueryMetrics
+        pullQueryMetrics,
+        insertsProducerPool
     );
   }
 
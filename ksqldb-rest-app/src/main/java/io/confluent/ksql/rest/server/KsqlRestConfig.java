@@ -231,6 +231,23 @@ public class KsqlRestConfig extends AbstractConfig {
   private static final String KSQL_COMMAND_RUNNER_BLOCKED_THRESHHOLD_ERROR_MS_DOC =
       "How long to wait for the command runner to process a command from the command topic "
           + "before reporting an error metric.";
+
+  public static final String KSQL_COMMAND_RESTORE_THREADS_CONFIG =
+      KSQL_CONFIG_PREFIX + "server.command.restore.threads";
+  private static final String KSQL_COMMAND_RESTORE_THREADS_DOC =
+      "The number of threads used to build the topologies of persistent queries when restoring "
+          + "the command topic on startup. The topologies of consecutive commands that start "
+          + "queries are built in parallel, once the DDL of the commands before them has been "
+          + "executed. A value of 1 restores the commands one at a time.";
+
+  public static final String KSQL_INSERTS_PRODUCER_POOL_MAX_IDLE_MS_CONFIG =
+      KSQL_CONFIG_PREFIX + "server.inserts.producer.pool.max.idle.ms";
+  private static final String KSQL_INSERTS_PRODUCER_POOL_MAX_IDLE_MS_DOC =
+      "How long a producer used to insert rows, by inserts streams and INSERT INTO ... VALUES "
+          + "statements, is kept open once no longer in use, so that it can be used by later "
+          + "inserts of the same user with the same config. A value of 0 closes producers as "
+          + "soon as they are no longer in use.";
+
   public static final String KSQL_HEARTBEAT_ENABLE_CONFIG =
       KSQL_CONFIG_PREFIX + "heartbeat.enable";
   private static final String KSQL_HEARTBEAT_ENABLE_DOC =
@@ -518,6 +535,20 @@ public class KsqlRestConfig extends AbstractConfig {
             15000L,
             Importance.LOW,
             KSQL_COMMAND_RUNNER_BLOCKED_THRESHHOLD_ERROR_MS_DOC
+        ).define(
+            KSQL_COMMAND_RESTORE_THREADS_CONFIG,
+            Type.INT,
+            1,
+            ConfigDef.Range.atLeast(1),
+            Importance.LOW,
+            KSQL_COMMAND_RESTORE_THREADS_DOC
+        ).define(
+            KSQL_INSERTS_PRODUCER_POOL_MAX_IDLE_MS_CONFIG,
+            Type.LONG,
+            60000L,
+            ConfigDef.Range.atLeast(0),
+            Importance.LOW,
+            KSQL_INSERTS_PRODUCER_POOL_MAX_IDLE_MS_DOC
         ).define(
             KSQL_SERVER_ERROR_MESSAGES,
             Type.CLASS,
@@ -32,6 +32,7 @@ import io.confluent.ksql.rest.entity.HeartbeatMessage;
 import io.confluent.ksql.rest.entity.KsqlMediaType;
 import io.confluent.ksql.rest.entity.KsqlRequest;
 import io.confluent.ksql.rest.entity.LagReportingMessage;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutorMetrics;
 import io.confluent.ksql.rest.server.resources.ClusterStatusResource;
@@ -39,9 +40,11 @@ import io.confluent.ksql.rest.server.resources.HealthCheckResource;
 import io.confluent.ksql.rest.server.resources.HeartbeatResource;
 import io.confluent.ksql.rest.server.resources.KsqlResource;
 import io.confluent.ksql.rest.server.resources.LagReportingResource;
+import io.confluent.ksql.rest.server.resources.QueryProfileResource;
 import io.confluent.ksql.rest.server.resources.ServerInfoResource;
 import io.confluent.ksql.rest.server.resources.ServerMetadataResource;
 import io.confluent.ksql.rest.server.resources.StatusResource;
+import io.confluent.ksql.rest.server.resources.TableRoutingResource;
 import io.confluent.ksql.rest.server.resources.streaming.StreamedQueryResource;
 import io.confluent.ksql.rest.server.resources.streaming.WSQueryEndpoint;
 import io.confluent.ksql.security.KsqlSecurityContext;
@@ -77,9 +80,12 @@ public class KsqlServerEndpoints implements Endpoints {
   private final StatusResource statusResource;
   private final Optional<LagReportingResource> lagReportingResource;
   private final HealthCheckResource healthCheckResource;
+  private final QueryProfileResource queryProfileResource;
+  private final TableRoutingResource tableRoutingResource;
   private final ServerMetadataResource serverMetadataResource;
   private final WSQueryEndpoint wsQueryEndpoint;
   private final Optional<PullQueryExecutorMetrics> pullQueryMetrics;
+  private final InsertsProducerPool insertsProducerPool;
 
   // CHECKSTYLE_RULES.OFF: ParameterNumber
   public KsqlServerEndpoints(
@@ -97,7 +103,8 @@ public class KsqlServerEndpoints implements Endpoints {
       final HealthCheckResource healthCheckResource,
       final ServerMetadataResource serverMetadataResource,
       final WSQueryEndpoint wsQueryEndpoint,
-      final Optional<PullQueryExecutorMetrics> pullQueryMetrics
+      final Optional<PullQueryExecutorMetrics> pullQueryMetrics,
+      final InsertsProducerPool insertsProducerPool
   ) {
 
     // CHECKSTYLE_RULES.ON: ParameterNumber
@@ -114,9 +121,12 @@ public class KsqlServerEndpoints implements Endpoints {
     this.statusResource = Objects.requireNonNull(statusResource);
     this.lagReportingResource = Objects.requireNonNull(lagReportingResource);
     this.healthCheckResource = Objects.requireNonNull(healthCheckResource);
+    this.queryProfileResource = new QueryProfileResource(ksqlEngine);
+    this.tableRoutingResource = new TableRoutingResource(pullQueryExecutor, ksqlConfig);
     this.serverMetadataResource = Objects.requireNonNull(serverMetadataResource);
     this.wsQueryEndpoint = Objects.requireNonNull(wsQueryEndpoint);
     this.pullQueryMetrics = Objects.requireNonNull(pullQueryMetrics);
+    this.insertsProducerPool = Objects.requireNonNull(insertsProducerPool);
   }
 
   @Override
@@ -150,9 +160,10 @@ public class KsqlServerEndpoints implements Endpoints {
       final WorkerExecutor workerExecutor,
       final ApiSecurityContext apiSecurityContext) {
     return executeOnWorker(
-        () -> new InsertsStreamEndpoint(ksqlEngine, ksqlConfig, reservedInternalTopics)
+        () -> new InsertsStreamEndpoint(ksqlEngine, ksqlConfig, reservedInternalTopics,
+            insertsProducerPool)
             .createInsertsSubscriber(target, properties, acksSubscriber, context, workerExecutor,
-                ksqlSecurityContextProvider.provide(apiSecurityContext).getServiceContext()),
+                ksqlSecurityContextProvider.provide(apiSecurityContext)),
         workerExecutor);
   }
 
@@ -186,6 +197,23 @@ public class KsqlServerEndpoints implements Endpoints {
         ), workerExecutor);
   }
 
+  @Override
+  public CompletableFuture<EndpointResponse> executeInternalPullQueryRequest(
+      final KsqlRequest request,
+      final WorkerExecutor workerExecutor,
+      final CompletableFuture<Void> responseClosedFuture,
+      final ApiSecurityContext apiSecurityContext,
+      final Optional<Boolean> isInternalRequest
+  ) {
+    return executeOldApiEndpointOnWorker(apiSecurityContext,
+        ksqlSecurityContext -> streamedQueryResource.streamInternalPullQuery(
+            ksqlSecurityContext,
+            request,
+            responseClosedFuture,
+            isInternalRequest
+        ), workerExecutor);
+  }
+
   @Override
   public CompletableFuture<EndpointResponse> executeTerminate(
       final ClusterTerminateRequest request,
@@ -253,6 +281,21 @@ public class KsqlServerEndpoints implements Endpoints {
         ksqlSecurityContext -> healthCheckResource.checkHealth());
   }
 
+  @Override
+  public CompletableFuture<EndpointResponse> executeQueryProfiles(
+      final ApiSecurityContext apiSecurityContext) {
+    return executeOldApiEndpoint(apiSecurityContext,
+        ksqlSecurityContext -> queryProfileResource.getProfiles());
+  }
+
+  @Override
+  public CompletableFuture<EndpointResponse> executeTableRouting(
+      final String table,
+      final ApiSecurityContext apiSecurityContext) {
+    return executeOldApiEndpoint(apiSecurityContext,
+        ksqlSecurityContext -> tableRoutingResource.getRouting(table));
+  }
+
   @Override
   public CompletableFuture<EndpointResponse> executeServerMetadata(
       final ApiSecurityContext apiSecurityContext) {
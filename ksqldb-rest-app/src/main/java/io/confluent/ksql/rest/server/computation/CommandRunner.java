@@ -16,8 +16,11 @@
 package io.confluent.ksql.rest.server.computation;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.rest.Errors;
 import io.confluent.ksql.rest.entity.ClusterTerminateRequest;
+import io.confluent.ksql.rest.server.computation.InteractiveStatementExecutor.DeferredRestore;
 import io.confluent.ksql.rest.server.resources.IncomaptibleKsqlCommandVersionException;
 import io.confluent.ksql.rest.server.state.ServerState;
 import io.confluent.ksql.rest.util.ClusterTerminator;
@@ -32,12 +35,15 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -70,6 +76,7 @@ public class CommandRunner implements Closeable {
   private final Function<List<QueuedCommand>, List<QueuedCommand>> compactor;
   private volatile boolean closed = false;
   private final int maxRetries;
+  private final int restoreThreads;
   private final ClusterTerminator clusterTerminator;
   private final ServerState serverState;
 
@@ -78,6 +85,10 @@ public class CommandRunner implements Closeable {
   private final AtomicReference<Instant> lastPollTime;
   private final Duration commandRunnerHealthTimeout;
   private final Clock clock;
+  private final AtomicInteger restoreCommandsTotal = new AtomicInteger();
+  private final AtomicInteger restoreCommandsRestored = new AtomicInteger();
+  private final AtomicReference<Instant> restoreStartTime = new AtomicReference<>(null);
+  private final AtomicReference<Instant> restoreEndTime = new AtomicReference<>(null);
 
   private final Deserializer<Command> commandDeserializer;
   private final Consumer<QueuedCommand> incompatibleCommandChecker;
@@ -143,7 +154,8 @@ public class CommandRunner implements Closeable {
       final Deserializer<Command> commandDeserializer,
       final Errors errorHandler,
       final KafkaTopicClient kafkaTopicClient,
-      final String commandTopicName
+      final String commandTopicName,
+      final int restoreThreads
   ) {
     this(
         statementExecutor,
@@ -163,7 +175,8 @@ public class CommandRunner implements Closeable {
         },
         commandDeserializer,
         errorHandler,
-        () -> kafkaTopicClient.isTopicExists(commandTopicName)
+        () -> kafkaTopicClient.isTopicExists(commandTopicName),
+        restoreThreads
     );
   }
 
@@ -184,12 +197,17 @@ public class CommandRunner implements Closeable {
       final Consumer<QueuedCommand> incompatibleCommandChecker,
       final Deserializer<Command> commandDeserializer,
       final Errors errorHandler,
-      final Supplier<Boolean> commandTopicExists
+      final Supplier<Boolean> commandTopicExists,
+      final int restoreThreads
   ) {
     // CHECKSTYLE_RULES.ON: ParameterNumberCheck
     this.statementExecutor = Objects.requireNonNull(statementExecutor, "statementExecutor");
     this.commandStore = Objects.requireNonNull(commandStore, "commandStore");
     this.maxRetries = maxRetries;
+    if (restoreThreads < 1) {
+      throw new IllegalArgumentException("restoreThreads must be positive: " + restoreThreads);
+    }
+    this.restoreThreads = restoreThreads;
     this.clusterTerminator = Objects.requireNonNull(clusterTerminator, "clusterTerminator");
     this.executor = Objects.requireNonNull(executor, "executor");
     this.serverState = Objects.requireNonNull(serverState, "serverState");
@@ -266,19 +284,18 @@ public class CommandRunner implements Closeable {
 
       final List<QueuedCommand> compacted = compactor.apply(compatibleCommands);
 
-      compacted.forEach(
-          command -> {
-            currentCommandRef.set(new Pair<>(command, clock.instant()));
-            RetryUtil.retryWithBackoff(
-                maxRetries,
-                STATEMENT_RETRY_MS,
-                MAX_STATEMENT_RETRY_MS,
-                () -> statementExecutor.handleRestore(command),
-                WakeupException.class
-            );
-            currentCommandRef.set(null);
-          }
-      );
+      restoreStartTime.set(clock.instant());
+      restoreCommandsTotal.set(compacted.size());
+
+      if (restoreThreads > 1) {
+        restoreInParallel(compacted);
+      } else {
+        compacted.forEach(this::restoreCommand);
+      }
+
+      restoreEndTime.set(clock.instant());
+      LOG.info("Restored {} commands in {} ms.",
+          compacted.size(), getRestoreDuration().toMillis());
 
       final List<PersistentQueryMetadata> queries = statementExecutor
           .getKsqlEngine()
@@ -296,6 +313,74 @@ public class CommandRunner implements Closeable {
     }
   }
 
+  private void restoreCommand(final QueuedCommand command) {
+    retryRestore(command, () -> statementExecutor.handleRestore(command));
+    restoreCommandsRestored.incrementAndGet();
+  }
+
+  /**
+   * Restore the commands, building the topologies of the queries of consecutive commands that
+   * start queries in parallel. Such commands are restored in two steps: their DDL is executed
+   * in order, as the topology of their query starts to be built on the restore threads, and then
+   * the built queries are registered with the engine, in order, before any other command is
+   * restored, or another command starts a query with the same id.
+   */
+  private void restoreInParallel(final List<QueuedCommand> commands) {
+    final ExecutorService buildExecutor = Executors.newFixedThreadPool(
+        restoreThreads,
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("CommandRunner-restore-%d")
+            .build()
+    );
+
+    try {
+      final Map<QueryId, Pair<QueuedCommand, DeferredRestore>> pending = new LinkedHashMap<>();
+      for (final QueuedCommand command : commands) {
+        final Optional<QueryId> queryId = statementExecutor.getQueryId(command);
+        if (!queryId.isPresent() || pending.containsKey(queryId.get())) {
+          completeRestores(pending);
+        }
+
+        if (!queryId.isPresent()) {
+          restoreCommand(command);
+          continue;
+        }
+
+        final AtomicReference<DeferredRestore> restore = new AtomicReference<>();
+        retryRestore(
+            command,
+            () -> restore.set(statementExecutor.handleDeferredRestore(command, buildExecutor))
+        );
+        pending.put(queryId.get(), new Pair<>(command, restore.get()));
+      }
+
+      completeRestores(pending);
+    } finally {
+      buildExecutor.shutdownNow();
+    }
+  }
+
+  private void completeRestores(final Map<QueryId, Pair<QueuedCommand, DeferredRestore>> pending) {
+    for (final Pair<QueuedCommand, DeferredRestore> restore : pending.values()) {
+      retryRestore(restore.getLeft(), restore.getRight()::complete);
+      restoreCommandsRestored.incrementAndGet();
+    }
+    pending.clear();
+  }
+
+  private void retryRestore(final QueuedCommand command, final Runnable restore) {
+    currentCommandRef.set(new Pair<>(command, clock.instant()));
+    RetryUtil.retryWithBackoff(
+        maxRetries,
+        STATEMENT_RETRY_MS,
+        MAX_STATEMENT_RETRY_MS,
+        restore,
+        WakeupException.class
+    );
+    currentCommandRef.set(null);
+  }
+
   void fetchAndRunCommands() {
     lastPollTime.set(clock.instant());
     final List<QueuedCommand> commands = commandStore.getNewCommands(NEW_CMDS_TIMEOUT);
@@ -389,6 +474,33 @@ public class CommandRunner implements Closeable {
     return commandStore;
   }
 
+  /**
+   * @return the number of commands to restore, once compacted.
+   */
+  public int getRestoreCommandsTotal() {
+    return restoreCommandsTotal.get();
+  }
+
+  /**
+   * @return the number of commands restored so far.
+   */
+  public int getRestoreCommandsRestored() {
+    return restoreCommandsRestored.get();
+  }
+
+  /**
+   * @return the time taken to restore the commands, or taken so far if still restoring.
+   */
+  public Duration getRestoreDuration() {
+    final Instant start = restoreStartTime.get();
+    if (start == null) {
+      return Duration.ZERO;
+    }
+
+    final Instant end = restoreEndTime.get();
+    return Duration.between(start, end == null ? clock.instant() : end);
+  }
+
   public CommandRunnerStatus checkCommandRunnerStatus() {
     if (state.getStatus() == CommandRunnerStatus.DEGRADED) {
       return CommandRunnerStatus.DEGRADED;
@@ -36,6 +36,9 @@ public class CommandRunnerMetrics implements Closeable {
   private final Metrics metrics;
   private final MetricName commandRunnerStatusMetricName;
   private final MetricName commandRunnerDegradedReasonMetricName;
+  private final MetricName restoreCommandsTotalMetricName;
+  private final MetricName restoreCommandsRestoredMetricName;
+  private final MetricName restoreDurationMetricName;
 
   CommandRunnerMetrics(
       final String ksqlServiceId,
@@ -72,10 +75,36 @@ public class CommandRunnerMetrics implements Closeable {
         Collections.emptyMap()
     );
 
+    this.restoreCommandsTotalMetricName = metrics.metricName(
+        "restore-commands-total",
+        ReservedInternalTopics.KSQL_INTERNAL_TOPIC_PREFIX + ksqlServiceId + metricGroupName,
+        "The number of compacted commands restored from the command topic on startup.",
+        Collections.emptyMap()
+    );
+    this.restoreCommandsRestoredMetricName = metrics.metricName(
+        "restore-commands-restored",
+        ReservedInternalTopics.KSQL_INTERNAL_TOPIC_PREFIX + ksqlServiceId + metricGroupName,
+        "The number of commands restored so far from the command topic on startup.",
+        Collections.emptyMap()
+    );
+    this.restoreDurationMetricName = metrics.metricName(
+        "restore-duration-ms",
+        ReservedInternalTopics.KSQL_INTERNAL_TOPIC_PREFIX + ksqlServiceId + metricGroupName,
+        "The time taken, in milliseconds, to restore the commands from the command topic on "
+            + "startup, or taken so far if still restoring.",
+        Collections.emptyMap()
+    );
+
     this.metrics.addMetric(commandRunnerStatusMetricName, (Gauge<String>)
         (config, now) -> commandRunner.checkCommandRunnerStatus().name());
     this.metrics.addMetric(commandRunnerDegradedReasonMetricName, (Gauge<String>)
         (config, now) -> commandRunner.getCommandRunnerDegradedReason().name());
+    this.metrics.addMetric(restoreCommandsTotalMetricName, (Gauge<Integer>)
+        (config, now) -> commandRunner.getRestoreCommandsTotal());
+    this.metrics.addMetric(restoreCommandsRestoredMetricName, (Gauge<Integer>)
+        (config, now) -> commandRunner.getRestoreCommandsRestored());
+    this.metrics.addMetric(restoreDurationMetricName, (Gauge<Long>)
+        (config, now) -> commandRunner.getRestoreDuration().toMillis());
   }
 
   /**
@@ -85,5 +114,8 @@ public class CommandRunnerMetrics implements Closeable {
   public void close() {
     metrics.removeMetric(commandRunnerStatusMetricName);
     metrics.removeMetric(commandRunnerDegradedReasonMetricName);
+    metrics.removeMetric(restoreCommandsTotalMetricName);
+    metrics.removeMetric(restoreCommandsRestoredMetricName);
+    metrics.removeMetric(restoreDurationMetricName);
   }
 }
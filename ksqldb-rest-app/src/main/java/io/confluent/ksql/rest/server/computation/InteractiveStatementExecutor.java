@@ -20,6 +20,7 @@ import io.confluent.ksql.KsqlExecutionContext.ExecuteResult;
 import io.confluent.ksql.config.SessionConfig;
 import io.confluent.ksql.engine.KsqlEngine;
 import io.confluent.ksql.engine.KsqlPlan;
+import io.confluent.ksql.engine.QueryPlan;
 import io.confluent.ksql.exception.ExceptionUtil;
 import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
 import io.confluent.ksql.parser.tree.CreateAsSelect;
@@ -42,7 +43,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.streams.StreamsConfig;
 import org.slf4j.Logger;
@@ -141,6 +146,61 @@ public class InteractiveStatementExecutor implements KsqlConfigurable {
     );
   }
 
+  /**
+   * @param queuedCommand the command.
+   * @return the id of the query the command starts, if its plan has one.
+   */
+  Optional<QueryId> getQueryId(final QueuedCommand queuedCommand) {
+    return queuedCommand.getAndDeserializeCommand(commandDeserializer).getPlan()
+        .flatMap(KsqlPlan::getQueryPlan)
+        .map(QueryPlan::getQueryId);
+  }
+
+  /**
+   * Restore a command that starts a query, as {@link #handleRestore} does, except that the
+   * topology of the query is built on {@code buildExecutor}. The DDL of the command is executed
+   * before returning, but the command is only restored once the returned restore is completed.
+   *
+   * <p>This allows the topologies of many queries to be built in parallel, as long as their
+   * restores are completed in command order, before any other command is restored.
+   *
+   * @param queuedCommand the command, which must start a query.
+   * @param buildExecutor the executor to build the topology of the query on.
+   * @return the restore, to be completed.
+   */
+  DeferredRestore handleDeferredRestore(
+      final QueuedCommand queuedCommand,
+      final Executor buildExecutor
+  ) {
+    throwIfNotConfigured();
+
+    final Command command = queuedCommand.getAndDeserializeCommand(commandDeserializer);
+    final CommandId commandId = queuedCommand.getAndDeserializeCommandId();
+    final Optional<CommandStatusFuture> commandStatusFuture = queuedCommand.getStatus();
+    final KsqlPlan plan = command.getPlan()
+        .orElseThrow(() -> new IllegalArgumentException("Command has no plan: " + command));
+
+    try {
+      final KsqlConfig mergedConfig = buildMergedConfig(command);
+      final ConfiguredKsqlPlan configured = ConfiguredKsqlPlan.of(
+          plan,
+          SessionConfig.of(mergedConfig, command.getOverwriteProperties())
+      );
+      putStatus(
+          commandId,
+          commandStatusFuture,
+          new CommandStatus(CommandStatus.Status.EXECUTING, "Executing statement")
+      );
+      final Supplier<PersistentQueryMetadata> query =
+          ksqlEngine.executeDeferringQuery(serviceContext, configured);
+      queryIdGenerator.setNextId(queuedCommand.getOffset() + 1);
+
+      return new DeferredRestore(command, commandId, commandStatusFuture, query, buildExecutor);
+    } catch (final KsqlException exception) {
+      throw failed(command, commandId, commandStatusFuture, exception);
+    }
+  }
+
   /**
    * Get details on the statuses of all the statements handled thus far.
    *
@@ -211,17 +271,26 @@ public class InteractiveStatementExecutor implements KsqlConfigurable {
       );
       executeStatement(statement, commandId, commandStatusFuture);
     } catch (final KsqlException exception) {
-      log.error("Failed to handle: " + command, exception);
-      
-      final CommandStatus errorStatus = new CommandStatus(
-          CommandStatus.Status.ERROR,
-          ExceptionUtil.stackTraceToString(exception)
-      );
-      putStatus(commandId, commandStatusFuture, errorStatus);
-      throw exception;
+      throw failed(command, commandId, commandStatusFuture, exception);
     }
   }
 
+  private KsqlException failed(
+      final Command command,
+      final CommandId commandId,
+      final Optional<CommandStatusFuture> commandStatusFuture,
+      final KsqlException exception
+  ) {
+    log.error("Failed to handle: " + command, exception);
+
+    final CommandStatus errorStatus = new CommandStatus(
+        CommandStatus.Status.ERROR,
+        ExceptionUtil.stackTraceToString(exception)
+    );
+    putStatus(commandId, commandStatusFuture, errorStatus);
+    return exception;
+  }
+
   private void executePlan(
       final Command command,
       final CommandId commandId,
@@ -311,4 +380,73 @@ public class InteractiveStatementExecutor implements KsqlConfigurable {
         + "Please see the upgrading guide to upgrade.");
   }
 
+  /**
+   * The restore of a command whose query is being built.
+   */
+  final class DeferredRestore {
+
+    private final Command command;
+    private final CommandId commandId;
+    private final Optional<CommandStatusFuture> commandStatusFuture;
+    private final Supplier<PersistentQueryMetadata> query;
+    private CompletableFuture<PersistentQueryMetadata> build;
+    private boolean completed;
+
+    private DeferredRestore(
+        final Command command,
+        final CommandId commandId,
+        final Optional<CommandStatusFuture> commandStatusFuture,
+        final Supplier<PersistentQueryMetadata> query,
+        final Executor buildExecutor
+    ) {
+      this.command = Objects.requireNonNull(command, "command");
+      this.commandId = Objects.requireNonNull(commandId, "commandId");
+      this.commandStatusFuture =
+          Objects.requireNonNull(commandStatusFuture, "commandStatusFuture");
+      this.query = Objects.requireNonNull(query, "query");
+      this.build = CompletableFuture.supplyAsync(query, buildExecutor);
+    }
+
+    /**
+     * Wait for the query to be built, then register it with the engine. If the build failed,
+     * the exception is thrown, and the next call builds the query again, on the calling thread.
+     */
+    void complete() {
+      if (completed) {
+        return;
+      }
+
+      try {
+        final ExecuteResult result = ksqlEngine.registerDeferredQuery(build());
+        completed = true;
+
+        final CommandStatus successStatus = new CommandStatus(
+            CommandStatus.Status.SUCCESS,
+            getSuccessMessage(result),
+            result.getQuery().map(QueryMetadata::getQueryId)
+        );
+        putFinalStatus(commandId, commandStatusFuture, successStatus);
+      } catch (final KsqlException exception) {
+        throw failed(command, commandId, commandStatusFuture, exception);
+      }
+    }
+
+    private PersistentQueryMetadata build() {
+      if (build == null) {
+        return query.get();
+      }
+
+      try {
+        return build.join();
+      } catch (final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      } finally {
+        build = null;
+      }
+    }
+  }
+
 }
@@ -55,12 +55,10 @@ public class QueuedCommand {
     this.offset = Objects.requireNonNull(offset, "offset");
   }
 
-  @VisibleForTesting
   byte[] getCommandId() {
     return Arrays.copyOf(commandId, commandId.length);
   }
 
-  @VisibleForTesting
   byte[] getCommand() {
     return  Arrays.copyOf(command, command.length);
   }
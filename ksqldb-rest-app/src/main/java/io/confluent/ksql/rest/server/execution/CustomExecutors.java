@@ -43,11 +43,21 @@ import io.confluent.ksql.rest.SessionProperties;
 import io.confluent.ksql.rest.entity.KsqlEntity;
 import io.confluent.ksql.services.ServiceContext;
 import io.confluent.ksql.statement.ConfiguredStatement;
+import io.confluent.ksql.util.KsqlException;
+import java.security.Principal;
+import java.time.Duration;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 
 /**
  * A suite of {@code StatementExecutor}s that do not need to be distributed.
@@ -81,6 +91,8 @@ public enum CustomExecutors {
   DESCRIBE_CONNECTOR(DescribeConnector.class, new DescribeConnectorExecutor()::execute)
   ;
 
+  private static final Duration MAX_SEND_TIMEOUT = Duration.ofSeconds(5);
+
   public static final Map<Class<? extends Statement>, StatementExecutor<?>> EXECUTOR_MAP =
       ImmutableMap.copyOf(
           EnumSet.allOf(CustomExecutors.class)
@@ -118,6 +130,20 @@ public enum CustomExecutors {
     return executor.execute(statement, sessionProperties, executionCtx, serviceCtx);
   }
 
+  /**
+   * @param insertsProducerPool the pool of producers to insert rows with.
+   * @return the executors, with {@code INSERT INTO ... VALUES} statements sending their rows with
+   *         the producers of the pool, and serializing them with its cached serdes.
+   */
+  public static Map<Class<? extends Statement>, StatementExecutor<?>> executorMap(
+      final InsertsProducerPool insertsProducerPool
+  ) {
+    final Map<Class<? extends Statement>, StatementExecutor<?>> executors =
+        new HashMap<>(EXECUTOR_MAP);
+    executors.put(InsertValues.class, pooledInsertValuesExecutor(insertsProducerPool));
+    return ImmutableMap.copyOf(executors);
+  }
+
   private static StatementExecutor insertValuesExecutor() {
     final InsertValuesExecutor executor = new InsertValuesExecutor();
 
@@ -126,4 +152,52 @@ public enum CustomExecutors {
       return Optional.empty();
     };
   }
+
+  private static StatementExecutor<InsertValues> pooledInsertValuesExecutor(
+      final InsertsProducerPool pool
+  ) {
+    Objects.requireNonNull(pool, "pool");
+
+    return (statement, sessionProperties, executionContext, serviceContext) -> {
+      final Optional<Principal> principal = sessionProperties.getUserPrincipal();
+      final InsertValuesExecutor executor = new InsertValuesExecutor(
+          (record, serviceCtx, producerProps) ->
+              sendRecord(pool.lease(principal, serviceCtx, producerProps), record),
+          pool.keySerdeFactory(principal),
+          pool.valueSerdeFactory(principal)
+      );
+
+      executor.execute(statement, sessionProperties, executionContext, serviceContext);
+      return Optional.empty();
+    };
+  }
+
+  private static void sendRecord(
+      final InsertsProducerPool.Lease lease,
+      final ProducerRecord<byte[], byte[]> record
+  ) {
+    final Future<RecordMetadata> producerCallResult;
+    try {
+      producerCallResult = lease.send(record, (metadata, exception) -> { });
+    } finally {
+      lease.release();
+    }
+
+    try {
+      // Check if the producer failed to write to the topic. This can happen if the
+      // ServiceContext does not have write permissions.
+      producerCallResult.get(MAX_SEND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e);
+    } catch (final TimeoutException e) {
+      throw new KsqlException("Timed out after " + MAX_SEND_TIMEOUT.getSeconds() + " seconds "
+          + "waiting for the row to be acknowledged. It may still be written.", e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
 }
@@ -0,0 +1,573 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.logging.processing.ProcessingLogContext;
+import io.confluent.ksql.schema.ksql.PersistenceSchema;
+import io.confluent.ksql.serde.FormatInfo;
+import io.confluent.ksql.serde.GenericKeySerDe;
+import io.confluent.ksql.serde.GenericRowSerDe;
+import io.confluent.ksql.serde.KeySerdeFactory;
+import io.confluent.ksql.serde.ValueSerdeFactory;
+import io.confluent.ksql.serde.WindowInfo;
+import io.confluent.ksql.serde.tracked.TrackedCallback;
+import io.confluent.ksql.services.ServiceContext;
+import io.confluent.ksql.util.KsqlConfig;
+import java.io.Closeable;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of the producers used to insert rows, shared by inserts streams and
+ * {@code INSERT INTO ... VALUES} statements, and a cache of the serdes used to serialize them.
+ *
+ * <p>Producers are keyed on the principal of the request and the producer config, as a producer
+ * holds the credentials it was created with. An inserts stream leases a producer for its life,
+ * an insert only while it sends its row. A producer is closed once it has not been leased for
+ * the max idle time. Idle producers are closed by a background sweep, run every max idle time, and
+ * when a producer is next leased or released, on the calling thread, as closing a producer can
+ * block.
+ *
+ * <p>Producers are created with {@link #THROUGHPUT_DEFAULTS} unless their config sets them, so
+ * that the rows of concurrent inserts, from one stream or many, are sent in batches.
+ *
+ * <p>Serdes are keyed on the principal, the format and the schema of the source inserted into,
+ * the config the serdes read, and the logger name prefix and processing log context they log
+ * with. They are safe to share, as the serdes of formats that hold state are thread local.
+ */
+public final class InsertsProducerPool implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(InsertsProducerPool.class);
+
+  static final Map<String, Object> THROUGHPUT_DEFAULTS = ImmutableMap.of(
+      ProducerConfig.LINGER_MS_CONFIG, 5,
+      ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024
+  );
+
+  private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+  private static final long MAX_CACHED_SERDES = 1000;
+  private static final long MIN_SWEEP_INTERVAL_MS = 1000;
+
+  private final long maxIdleMs;
+  private final InsertsProducerPoolMetrics metrics;
+  private final Time time;
+  private final Map<ProducerKey, PooledProducer> producers = new HashMap<>();
+  private final Cache<SerdeKey, Serde<?>> serdes;
+  private final KeySerdeFactory keySerdeFactory;
+  private final ValueSerdeFactory valueSerdeFactory;
+  private final ScheduledExecutorService sweeper;
+  private int leases;
+  private boolean closed;
+
+  public InsertsProducerPool(
+      final long maxIdleMs,
+      final InsertsProducerPoolMetrics metrics
+  ) {
+    this(
+        maxIdleMs,
+        metrics,
+        Time.SYSTEM,
+        new GenericKeySerDe(),
+        new GenericRowSerDe(),
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("inserts-producer-pool-sweeper-%d")
+                .build()
+        )
+    );
+  }
+
+  @VisibleForTesting
+  InsertsProducerPool(
+      final long maxIdleMs,
+      final InsertsProducerPoolMetrics metrics,
+      final Time time,
+      final KeySerdeFactory keySerdeFactory,
+      final ValueSerdeFactory valueSerdeFactory,
+      final ScheduledExecutorService sweeper
+  ) {
+    if (maxIdleMs < 0) {
+      throw new IllegalArgumentException("maxIdleMs must not be negative: " + maxIdleMs);
+    }
+    this.maxIdleMs = maxIdleMs;
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+    this.time = Objects.requireNonNull(time, "time");
+    this.keySerdeFactory = Objects.requireNonNull(keySerdeFactory, "keySerdeFactory");
+    this.valueSerdeFactory = Objects.requireNonNull(valueSerdeFactory, "valueSerdeFactory");
+    this.sweeper = Objects.requireNonNull(sweeper, "sweeper");
+    this.serdes = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_SERDES)
+        .build();
+
+    final long sweepIntervalMs = Math.max(maxIdleMs, MIN_SWEEP_INTERVAL_MS);
+    sweeper.scheduleWithFixedDelay(
+        this::closeExpired, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Lease a producer. The lease must be released once no more rows will be sent with it.
+   *
+   * @param principal the principal of the request, if authenticated.
+   * @param serviceContext the service context of the request, used to create the producer.
+   * @param producerProps the producer config.
+   * @return the lease.
+   */
+  public Lease lease(
+      final Optional<Principal> principal,
+      final ServiceContext serviceContext,
+      final Map<String, Object> producerProps
+  ) {
+    final ProducerKey key = new ProducerKey(principalName(principal), producerProps);
+
+    final PooledProducer pooled;
+    final List<PooledProducer> expired;
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Producer pool closed");
+      }
+
+      expired = removeExpired();
+
+      final PooledProducer existing = producers.get(key);
+      if (existing != null) {
+        pooled = existing;
+      } else {
+        pooled = new PooledProducer(createProducer(serviceContext, producerProps));
+        producers.put(key, pooled);
+        metrics.recordProducerCreated();
+        metrics.recordProducersOpen(producers.size());
+      }
+
+      pooled.leases++;
+      metrics.recordLeases(++leases);
+    }
+
+    closeAll(expired);
+    return new Lease(pooled);
+  }
+
+  /**
+   * @param principal the principal of the request, if authenticated.
+   * @return a key serde factory returning serdes from the cache.
+   */
+  public KeySerdeFactory keySerdeFactory(final Optional<Principal> principal) {
+    return new CachingKeySerdeFactory(principalName(principal));
+  }
+
+  /**
+   * @param principal the principal of the request, if authenticated.
+   * @return a value serde factory returning serdes from the cache.
+   */
+  public ValueSerdeFactory valueSerdeFactory(final Optional<Principal> principal) {
+    return new CachingValueSerdeFactory(principalName(principal));
+  }
+
+  @Override
+  public void close() {
+    final List<PooledProducer> all;
+    synchronized (this) {
+      closed = true;
+      all = new ArrayList<>(producers.values());
+      producers.clear();
+      metrics.recordProducersOpen(0);
+    }
+
+    sweeper.shutdownNow();
+    closeAll(all);
+    serdes.invalidateAll();
+    metrics.close();
+  }
+
+  @VisibleForTesting
+  synchronized int producersOpen() {
+    return producers.size();
+  }
+
+  private Producer<byte[], byte[]> createProducer(
+      final ServiceContext serviceContext,
+      final Map<String, Object> producerProps
+  ) {
+    final Map<String, Object> props = new HashMap<>(THROUGHPUT_DEFAULTS);
+    props.putAll(producerProps);
+    return serviceContext.getKafkaClientSupplier().getProducer(props);
+  }
+
+  private void release(final PooledProducer pooled) {
+    final List<PooledProducer> expired;
+    synchronized (this) {
+      metrics.recordLeases(--leases);
+      if (--pooled.leases == 0) {
+        pooled.idleSinceMs = time.milliseconds();
+      }
+      expired = removeExpired();
+    }
+
+    closeAll(expired);
+  }
+
+  private void closeExpired() {
+    final List<PooledProducer> expired;
+    synchronized (this) {
+      expired = removeExpired();
+    }
+
+    closeAll(expired);
+  }
+
+  private List<PooledProducer> removeExpired() {
+    final long now = time.milliseconds();
+    final List<PooledProducer> expired = new ArrayList<>();
+    final Iterator<PooledProducer> it = producers.values().iterator();
+    while (it.hasNext()) {
+      final PooledProducer pooled = it.next();
+      if (pooled.leases == 0 && now - pooled.idleSinceMs >= maxIdleMs) {
+        it.remove();
+        expired.add(pooled);
+      }
+    }
+
+    if (!expired.isEmpty()) {
+      metrics.recordProducersOpen(producers.size());
+    }
+    return expired;
+  }
+
+  private static void closeAll(final List<PooledProducer> toClose) {
+    for (final PooledProducer pooled : toClose) {
+      try {
+        pooled.producer.close(CLOSE_TIMEOUT);
+      } catch (final Exception e) {
+        LOG.warn("Failed to close pooled producer", e);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Serde<T> serde(
+      final SerdeKey key,
+      final Optional<TrackedCallback> tracker,
+      final Supplier<Serde<T>> factory
+  ) {
+    if (tracker.isPresent()) {
+      // Serdes that track their use are not shared:
+      return factory.get();
+    }
+
+    try {
+      return (Serde<T>) serdes.get(key, factory::get);
+    } catch (final ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private static Optional<String> principalName(final Optional<Principal> principal) {
+    return principal.map(Principal::getName);
+  }
+
+  /**
+   * A lease of a pooled producer.
+   */
+  public final class Lease {
+
+    private final PooledProducer pooled;
+    private boolean released;
+
+    private Lease(final PooledProducer pooled) {
+      this.pooled = Objects.requireNonNull(pooled, "pooled");
+    }
+
+    /**
+     * Send a record, recording the time taken for it to be acknowledged.
+     */
+    public Future<RecordMetadata> send(
+        final ProducerRecord<byte[], byte[]> record,
+        final Callback callback
+    ) {
+      final long startNanos = time.nanoseconds();
+      return pooled.producer.send(record, (metadata, exception) -> {
+        metrics.recordAckLatency(time.nanoseconds() - startNanos);
+        callback.onCompletion(metadata, exception);
+      });
+    }
+
+    /**
+     * Release the lease. Releasing a lease more than once has no effect.
+     */
+    public void release() {
+      synchronized (this) {
+        if (released) {
+          return;
+        }
+        released = true;
+      }
+
+      InsertsProducerPool.this.release(pooled);
+    }
+  }
+
+  private static final class PooledProducer {
+
+    private final Producer<byte[], byte[]> producer;
+    private int leases;
+    private long idleSinceMs;
+
+    PooledProducer(final Producer<byte[], byte[]> producer) {
+      this.producer = Objects.requireNonNull(producer, "producer");
+    }
+  }
+
+  private static final class ProducerKey {
+
+    private final Optional<String> principal;
+    private final Map<String, Object> producerProps;
+
+    ProducerKey(final Optional<String> principal, final Map<String, Object> producerProps) {
+      this.principal = Objects.requireNonNull(principal, "principal");
+      this.producerProps = new HashMap<>(Objects.requireNonNull(producerProps, "producerProps"));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final ProducerKey that = (ProducerKey) o;
+      return principal.equals(that.principal)
+          && producerProps.equals(that.producerProps);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(principal, producerProps);
+    }
+  }
+
+  private static final class SerdeKey {
+
+    private final Optional<String> principal;
+    private final boolean isKey;
+    private final FormatInfo format;
+    private final PersistenceSchema schema;
+    private final boolean keyFormatEnabled;
+    private final boolean jsonStreamingEnabled;
+    private final boolean avroDirectEnabled;
+    private final Map<String, Object> schemaRegistryConfig;
+    private final String loggerNamePrefix;
+    private final ProcessingLogContext processingLogContext;
+
+    SerdeKey(
+        final Optional<String> principal,
+        final boolean isKey,
+        final FormatInfo format,
+        final PersistenceSchema schema,
+        final KsqlConfig config,
+        final String loggerNamePrefix,
+        final ProcessingLogContext processingLogContext
+    ) {
+      this.principal = Objects.requireNonNull(principal, "principal");
+      this.isKey = isKey;
+      this.format = Objects.requireNonNull(format, "format");
+      this.schema = Objects.requireNonNull(schema, "schema");
+      // Only the config the serdes read, rather than every property of the request:
+      this.keyFormatEnabled = config.getBoolean(KsqlConfig.KSQL_KEY_FORMAT_ENABLED);
+      this.jsonStreamingEnabled =
+          config.getBoolean(KsqlConfig.KSQL_JSON_STREAMING_DESERIALIZER_ENABLED);
+      this.avroDirectEnabled = config.getBoolean(KsqlConfig.KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED);
+      this.schemaRegistryConfig =
+          config.originalsWithPrefix(KsqlConfig.KSQL_SCHEMA_REGISTRY_PREFIX);
+      this.schemaRegistryConfig.put(
+          KsqlConfig.SCHEMA_REGISTRY_URL_PROPERTY,
+          config.getString(KsqlConfig.SCHEMA_REGISTRY_URL_PROPERTY)
+      );
+      this.loggerNamePrefix = Objects.requireNonNull(loggerNamePrefix, "loggerNamePrefix");
+      this.processingLogContext =
+          Objects.requireNonNull(processingLogContext, "processingLogContext");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final SerdeKey that = (SerdeKey) o;
+      return isKey == that.isKey
+          && keyFormatEnabled == that.keyFormatEnabled
+          && jsonStreamingEnabled == that.jsonStreamingEnabled
+          && avroDirectEnabled == that.avroDirectEnabled
+          && principal.equals(that.principal)
+          && format.equals(that.format)
+          && schema.equals(that.schema)
+          && schemaRegistryConfig.equals(that.schemaRegistryConfig)
+          && loggerNamePrefix.equals(that.loggerNamePrefix)
+          && processingLogContext == that.processingLogContext;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(principal, isKey, format, schema, loggerNamePrefix);
+    }
+  }
+
+  private final class CachingKeySerdeFactory implements KeySerdeFactory {
+
+    private final Optional<String> principal;
+
+    CachingKeySerdeFactory(final Optional<String> principal) {
+      this.principal = Objects.requireNonNull(principal, "principal");
+    }
+
+    @Override
+    public Serde<Struct> create(
+        final FormatInfo format,
+        final PersistenceSchema schema,
+        final KsqlConfig ksqlConfig,
+        final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
+        final String loggerNamePrefix,
+        final ProcessingLogContext processingLogContext,
+        final Optional<TrackedCallback> tracker
+    ) {
+      return serde(
+          new SerdeKey(
+              principal,
+              true,
+              format,
+              schema,
+              ksqlConfig,
+              loggerNamePrefix,
+              processingLogContext
+          ),
+          tracker,
+          () -> keySerdeFactory.create(
+              format,
+              schema,
+              ksqlConfig,
+              schemaRegistryClientFactory,
+              loggerNamePrefix,
+              processingLogContext,
+              tracker
+          )
+      );
+    }
+
+    @Override
+    public Serde<Windowed<Struct>> create(
+        final FormatInfo format,
+        final WindowInfo window,
+        final PersistenceSchema schema,
+        final KsqlConfig ksqlConfig,
+        final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
+        final String loggerNamePrefix,
+        final ProcessingLogContext processingLogContext,
+        final Optional<TrackedCallback> tracker
+    ) {
+      // Rows can't be inserted into windowed sources, so these are never cached:
+      return keySerdeFactory.create(
+          format,
+          window,
+          schema,
+          ksqlConfig,
+          schemaRegistryClientFactory,
+          loggerNamePrefix,
+          processingLogContext,
+          tracker
+      );
+    }
+  }
+
+  private final class CachingValueSerdeFactory implements ValueSerdeFactory {
+
+    private final Optional<String> principal;
+
+    CachingValueSerdeFactory(final Optional<String> principal) {
+      this.principal = Objects.requireNonNull(principal, "principal");
+    }
+
+    @Override
+    public Serde<GenericRow> create(
+        final FormatInfo format,
+        final PersistenceSchema schema,
+        final KsqlConfig ksqlConfig,
+        final Supplier<SchemaRegistryClient> schemaRegistryClientFactory,
+        final String loggerNamePrefix,
+        final ProcessingLogContext processingLogContext,
+        final Optional<TrackedCallback> tracker
+    ) {
+      return serde(
+          new SerdeKey(
+              principal,
+              false,
+              format,
+              schema,
+              ksqlConfig,
+              loggerNamePrefix,
+              processingLogContext
+          ),
+          tracker,
+          () -> valueSerdeFactory.create(
+              format,
+              schema,
+              ksqlConfig,
+              schemaRegistryClientFactory,
+              loggerNamePrefix,
+              processingLogContext,
+              tracker
+          )
+      );
+    }
+  }
+}
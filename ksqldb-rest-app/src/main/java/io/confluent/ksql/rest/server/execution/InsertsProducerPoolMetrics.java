@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.confluent.ksql.metrics.MetricCollectors;
+import io.confluent.ksql.util.ReservedInternalTopics;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.CumulativeSum;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Value;
+
+/**
+ * Emits JMX metrics for the {@link InsertsProducerPool}.
+ */
+public class InsertsProducerPoolMetrics implements Closeable {
+
+  private static final String METRIC_GROUP = "inserts-producer-pool";
+
+  private final Metrics metrics;
+  private final String metricGroupName;
+  private final Map<String, String> customMetricsTags;
+  private final List<Sensor> sensors = new ArrayList<>();
+  private final Sensor producersCreatedSensor;
+  private final Sensor producersOpenSensor;
+  private final Sensor leasesSensor;
+  private final Sensor ackLatencySensor;
+
+  public InsertsProducerPoolMetrics(
+      final String ksqlServiceId,
+      final Map<String, String> customMetricsTags
+  ) {
+    this(MetricCollectors.getMetrics(), ksqlServiceId, customMetricsTags);
+  }
+
+  @VisibleForTesting
+  InsertsProducerPoolMetrics(
+      final Metrics metrics,
+      final String ksqlServiceId,
+      final Map<String, String> customMetricsTags
+  ) {
+    this.metrics = Objects.requireNonNull(metrics, "metrics");
+    this.metricGroupName = ReservedInternalTopics.KSQL_INTERNAL_TOPIC_PREFIX
+        + Objects.requireNonNull(ksqlServiceId, "ksqlServiceId")
+        + METRIC_GROUP;
+    this.customMetricsTags = Objects.requireNonNull(customMetricsTags, "customMetricsTags");
+
+    this.producersCreatedSensor = sensor("producers-created");
+    producersCreatedSensor.add(
+        metricName("producers-created-total", "Total number of producers created by the pool"),
+        new CumulativeSum()
+    );
+
+    this.producersOpenSensor = sensor("producers-open");
+    producersOpenSensor.add(
+        metricName("producers-open", "Number of producers in the pool, leased or idle"),
+        new Value()
+    );
+
+    this.leasesSensor = sensor("leases");
+    leasesSensor.add(
+        metricName("leases", "Number of inserts streams and inserts using a pooled producer"),
+        new Value()
+    );
+
+    this.ackLatencySensor = sensor("ack-latency");
+    ackLatencySensor.add(
+        metricName("ack-latency-avg", "Average time, in milliseconds, taken for an inserted row "
+            + "to be acknowledged by Kafka"),
+        new Avg()
+    );
+    ackLatencySensor.add(
+        metricName("ack-latency-max", "Maximum time, in milliseconds, taken for an inserted row "
+            + "to be acknowledged by Kafka"),
+        new Max()
+    );
+  }
+
+  @Override
+  public void close() {
+    sensors.forEach(sensor -> metrics.removeSensor(sensor.name()));
+  }
+
+  public void recordProducerCreated() {
+    producersCreatedSensor.record(1);
+  }
+
+  public void recordProducersOpen(final int producersOpen) {
+    producersOpenSensor.record(producersOpen);
+  }
+
+  public void recordLeases(final int leases) {
+    leasesSensor.record(leases);
+  }
+
+  public void recordAckLatency(final long latencyNanos) {
+    ackLatencySensor.record(latencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  private Sensor sensor(final String name) {
+    final Sensor sensor = metrics.sensor(metricGroupName + "-" + name);
+    sensors.add(sensor);
+    return sensor;
+  }
+
+  private MetricName metricName(
+      final String name,
+      final String description
+  ) {
+    return metrics.metricName(name, metricGroupName, description, customMetricsTags);
+  }
+}
@@ -15,6 +15,7 @@
 
 package io.confluent.ksql.rest.server.execution;
 
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
 import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -27,6 +28,7 @@ import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.KsqlExecutionContext;
 import io.confluent.ksql.analyzer.ImmutableAnalysis;
@@ -34,6 +36,7 @@ import io.confluent.ksql.analyzer.PullQueryValidator;
 import io.confluent.ksql.analyzer.QueryAnalyzer;
 import io.confluent.ksql.analyzer.RewrittenAnalysis;
 import io.confluent.ksql.config.SessionConfig;
+import io.confluent.ksql.engine.rewrite.ExpressionTreeRewriter;
 import io.confluent.ksql.engine.rewrite.ExpressionTreeRewriter.Context;
 import io.confluent.ksql.execution.context.QueryContext;
 import io.confluent.ksql.execution.context.QueryContext.Stacker;
@@ -59,6 +62,7 @@ import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
 import io.confluent.ksql.execution.streams.materialization.Locator.KsqlPartitionLocation;
 import io.confluent.ksql.execution.streams.materialization.Materialization;
 import io.confluent.ksql.execution.streams.materialization.MaterializationException;
+import io.confluent.ksql.execution.streams.materialization.MaterializedTable;
 import io.confluent.ksql.execution.streams.materialization.PullProcessingContext;
 import io.confluent.ksql.execution.streams.materialization.TableRow;
 import io.confluent.ksql.execution.transform.KsqlTransformer;
@@ -82,8 +86,8 @@ import io.confluent.ksql.rest.SessionProperties;
 import io.confluent.ksql.rest.client.RestResponse;
 import io.confluent.ksql.rest.entity.StreamedRow;
 import io.confluent.ksql.rest.entity.StreamedRow.Header;
-import io.confluent.ksql.rest.entity.TableRows;
 import io.confluent.ksql.rest.entity.TableRowsFactory;
+import io.confluent.ksql.rest.entity.TableRoutingInfo;
 import io.confluent.ksql.rest.server.resources.KsqlRestException;
 import io.confluent.ksql.schema.ksql.Column;
 import io.confluent.ksql.schema.ksql.DefaultSqlValueCoercer;
@@ -95,6 +99,7 @@ import io.confluent.ksql.schema.ksql.types.SqlType;
 import io.confluent.ksql.schema.utils.FormatOptions;
 import io.confluent.ksql.serde.connect.ConnectSchemas;
 import io.confluent.ksql.services.ServiceContext;
+import io.confluent.ksql.services.SimpleKsqlClient;
 import io.confluent.ksql.statement.ConfiguredStatement;
 import io.confluent.ksql.util.GrammaticalJoiner;
 import io.confluent.ksql.util.KsqlConfig;
@@ -108,6 +113,8 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,12 +122,18 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.kafka.connect.data.ConnectSchema;
 import org.apache.kafka.connect.data.Field;
@@ -153,6 +166,11 @@ public final class PullQueryExecutor {
   private final RoutingFilterFactory routingFilterFactory;
   private final RateLimiter rateLimiter;
   private final ExecutorService executorService;
+  private final RateLimiter scanRateLimiter;
+  private final ExecutorService scanExecutorService;
+  private final PullQueryPlanCache planCache;
+  private final PullQueryHostStats hostStats;
+  private final ScheduledExecutorService hedgeScheduler;
 
   public PullQueryExecutor(
       final KsqlExecutionContext executionContext,
@@ -165,6 +183,13 @@ public final class PullQueryExecutor {
         ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_PULL_MAX_QPS_CONFIG),
         Executors.newFixedThreadPool(
             ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_PULL_THREAD_POOL_SIZE_CONFIG)
+        ),
+        ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_CONFIG),
+        Executors.newFixedThreadPool(
+            ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_PULL_TABLE_SCAN_THREAD_POOL_SIZE_CONFIG)
+        ),
+        new PullQueryPlanCache(
+            ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_PULL_PLAN_CACHE_SIZE_CONFIG)
         )
     );
   }
@@ -173,12 +198,24 @@ public final class PullQueryExecutor {
   PullQueryExecutor(
       final KsqlExecutionContext executionContext,
       final RoutingFilterFactory routingFilterFactory,
-      final int maxQps, final ExecutorService executorService
+      final int maxQps, final ExecutorService executorService,
+      final int scanMaxQps, final ExecutorService scanExecutorService,
+      final PullQueryPlanCache planCache
   ) {
     this.executionContext = requireNonNull(executionContext, "executionContext");
     this.routingFilterFactory = requireNonNull(routingFilterFactory, "routingFilterFactory");
     this.rateLimiter = RateLimiter.create(maxQps);
     this.executorService = requireNonNull(executorService, "executorService");
+    this.scanRateLimiter = RateLimiter.create(scanMaxQps);
+    this.scanExecutorService = requireNonNull(scanExecutorService, "scanExecutorService");
+    this.planCache = requireNonNull(planCache, "planCache");
+    this.hostStats = new PullQueryHostStats();
+    this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("pull-query-hedge-thread-%d")
+            .build()
+    );
   }
 
   @SuppressWarnings("unused") // Needs to match validator API.
@@ -230,19 +267,37 @@ public final class PullQueryExecutor {
           // Trust the forward request option if isInternalRequest isn't available.
           && isInternalRequest.orElse(true);
 
-      // Only check the rate limit at the forwarding host
-      if (!isAlreadyForwarded) {
-        checkRateLimit();
-      }
-
-      final ImmutableAnalysis analysis = new RewrittenAnalysis(
-          analyze(statement, executionContext),
-          new ColumnReferenceRewriter()::process
+      final PullQueryPlan plan = planCache.plan(
+          statement,
+          executionContext,
+          pullQueryMetrics,
+          shape -> plan(shape, executionContext)
       );
 
-      final PersistentQueryMetadata query = findMaterializingQuery(executionContext, analysis);
+      final ImmutableAnalysis analysis = plan.getAnalysis();
+
+      final PersistentQueryMetadata query = plan.getQuery();
+
+      // The (possibly cached) plan was analyzed without the WHERE clause, so validate it here:
+      statement.getStatement().getWhere()
+          .ifPresent(where -> PullQueryValidator.validateWhere(analysis, where));
+
+      final WhereInfo whereInfo = extractWhereInfo(
+          statement, query, isTableScanEnabled(sessionConfig));
 
-      final WhereInfo whereInfo = extractWhereInfo(analysis, query);
+      // Only check the rate limit at the forwarding host. Scans are limited separately, so that
+      // they can not starve key lookups:
+      if (!isAlreadyForwarded) {
+        if (whereInfo.tableScan) {
+          checkScanRateLimit();
+        } else {
+          checkRateLimit();
+        }
+      }
+
+      if (whereInfo.tableScan) {
+        pullQueryMetrics.ifPresent(metrics -> metrics.recordScanRequests(1));
+      }
 
       final QueryId queryId = uniqueQueryId();
 
@@ -256,60 +311,145 @@ public final class PullQueryExecutor {
           .map(keyBound -> asKeyStruct(keyBound, query.getPhysicalSchema()))
           .collect(ImmutableList.toImmutableList());
 
-      final List<KsqlPartitionLocation> locations = mat.locator().locate(
-          keys,
-          routingOptions,
-          routingFilterFactory
-      );
+      final List<KsqlPartitionLocation> locatedLocations = whereInfo.tableScan
+          ? mat.locator().locateAll(routingOptions, routingFilterFactory)
+          : mat.locator().locate(keys, routingOptions, routingFilterFactory);
+
+      final List<KsqlPartitionLocation> locations = isLatencyAwareRoutingEnabled(sessionConfig)
+          ? hostStats.order(locatedLocations)
+          : locatedLocations;
+
+      final PullQueryPlan.Projection projection = plan.getProjection(() -> compileProjection(
+          mat.schema(), statement, executionContext, plan, mat));
+
+      final Function<TableRow, List<?>> mapper = projection.getMapper(
+          processingLogger(executionContext, contextStacker.push("PROJECT")));
+
+      final Optional<TableScan> tableScan = whereInfo.tableScan
+          ? Optional.of(plan.getTableScan(whereInfo.scanWhere, () -> TableScan.create(
+              whereInfo.scanWhere,
+              mat.schema(),
+              query.getResultTopic().getKeyFormat(),
+              statement.getSessionConfig().getConfig(true),
+              executionContext.getMetaStore(),
+              processingLogger(executionContext, contextStacker.push("FILTER"))
+          )))
+          : Optional.empty();
 
       final Function<List<KsqlPartitionLocation>, PullQueryContext> contextFactory
           = (locationsForHost) ->
           new PullQueryContext(
               locationsForHost,
               mat,
-              analysis,
+              projection,
+              mapper,
               whereInfo,
-              queryId,
-              contextStacker,
+              tableScan,
+              scanExecutorService,
               pullQueryMetrics);
 
-      return handlePullQuery(
+      final PullQueryQueue rowQueue = new PullQueryQueue(
+          statement.getStatement().getLimit(),
+          getLong(sessionConfig, KsqlConfig.KSQL_QUERY_PULL_MAX_BLOCKED_MS_CONFIG)
+      );
+
+      final CompletableFuture<Void> completion = handlePullQuery(
           statement,
           executionContext,
           serviceContext,
           routingOptions,
           contextFactory,
-          queryId,
           locations,
+          rowQueue,
           executorService,
-          PullQueryExecutor::routeQuery);
+          PullQueryExecutor::routeQuery,
+          new HostRouting(
+              hostStats,
+              hedgeScheduler,
+              getLong(sessionConfig, KsqlConfig.KSQL_QUERY_PULL_HEDGE_DELAY_MS_CONFIG),
+              pullQueryMetrics
+          )
+      ).exceptionally(t -> {
+        final Throwable e = t instanceof CompletionException && t.getCause() != null
+            ? t.getCause()
+            : t;
+        throw asStatementException(statement, e, pullQueryMetrics);
+      });
+
+      return new PullQueryResult(projection.getOutputSchema(), queryId, rowQueue, completion);
 
     } catch (final Exception e) {
-      pullQueryMetrics.ifPresent(metrics -> metrics.recordErrorRate(1));
-      throw new KsqlStatementException(
-          e.getMessage() == null ? "Server Error" : e.getMessage(),
-          statement.getStatementText(),
-          e
-      );
+      throw asStatementException(statement, e, pullQueryMetrics);
     }
   }
 
+  /**
+   * Get what a client needs to route pull queries for keys of a table straight to the hosts
+   * that store them.
+   *
+   * @param table the name of the materialized table.
+   * @param ksqlConfig the config to filter standby hosts by, e.g. by their lag.
+   * @return the routing info of the table.
+   * @throws KsqlException if the table is not materialized, or has more than one key column.
+   */
+  public TableRoutingInfo getRouting(final SourceName table, final KsqlConfig ksqlConfig) {
+    final PersistentQueryMetadata query = findMaterializingQuery(executionContext, table);
+
+    final Materialization mat = query
+        .getMaterialization(uniqueQueryId(), new Stacker())
+        .orElseThrow(() -> notMaterializedException(table));
+
+    final List<Column> keyColumns = query.getPhysicalSchema().keySchema().columns();
+    if (keyColumns.size() != 1) {
+      throw new KsqlException("Can't route pull queries for " + table
+          + " as it does not have a single key column.");
+    }
+
+    final RoutingOptions routingOptions =
+        new ConfigRoutingOptions(ksqlConfig, Collections.emptyMap(), Collections.emptyMap());
+
+    final List<List<String>> partitionHosts = mat.locator()
+        .locateAll(routingOptions, routingFilterFactory)
+        .stream()
+        .sorted(Comparator.comparingInt(KsqlPartitionLocation::getPartition))
+        .map(location -> location.getNodes().stream()
+            .map(node -> node.location().toString())
+            .collect(Collectors.toList()))
+        .collect(Collectors.toList());
+
+    return new TableRoutingInfo(
+        table.text(),
+        keyColumns.get(0).name().text(),
+        keyColumns.get(0).type().toString(),
+        query.getResultTopic().getKeyFormat().getFormat(),
+        mat.windowType().isPresent(),
+        partitionHosts
+    );
+  }
+
   public void close(final Duration timeout) {
     try {
       executorService.shutdown();
+      scanExecutorService.shutdown();
+      hedgeScheduler.shutdownNow();
       executorService.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      scanExecutorService.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
     } catch (final InterruptedException e) {
       Thread.currentThread().interrupt();
     }
   }
 
-  private static void validateSchemas(final List<LogicalSchema> schemas) {
-    final LogicalSchema schema = Iterables.getLast(schemas);
-    for (LogicalSchema s : schemas) {
-      if (!schema.equals(s)) {
-        throw new KsqlException("Schemas from different hosts should be identical");
-      }
-    }
+  private static KsqlStatementException asStatementException(
+      final ConfiguredStatement<Query> statement,
+      final Throwable e,
+      final Optional<PullQueryExecutorMetrics> pullQueryMetrics
+  ) {
+    pullQueryMetrics.ifPresent(metrics -> metrics.recordErrorRate(1));
+    return new KsqlStatementException(
+        e.getMessage() == null ? "Server Error" : e.getMessage(),
+        statement.getStatementText(),
+        e
+    );
   }
 
   @VisibleForTesting
@@ -320,29 +460,74 @@ public final class PullQueryExecutor {
     }
   }
 
+  @VisibleForTesting
+  void checkScanRateLimit() {
+    if (!scanRateLimiter.tryAcquire()) {
+      throw new KsqlException("Host is at rate limit for pull queries that scan tables. "
+          + "Currently set to " + scanRateLimiter.getRate() + " qps.");
+    }
+  }
+
+  private static boolean isTableScanEnabled(final SessionConfig sessionConfig) {
+    return getBoolean(sessionConfig, KsqlConfig.KSQL_QUERY_PULL_TABLE_SCAN_ENABLED);
+  }
+
+  private static boolean isLatencyAwareRoutingEnabled(final SessionConfig sessionConfig) {
+    return getBoolean(sessionConfig, KsqlConfig.KSQL_QUERY_PULL_ROUTING_LATENCY_AWARE_ENABLED);
+  }
+
+  private static long getLong(final SessionConfig sessionConfig, final String name) {
+    // Not using session.getConfig(true) due to performance issues, see execute:
+    final Object override = sessionConfig.getOverrides().get(name);
+
+    return override == null
+        ? sessionConfig.getConfig(false).getLong(name)
+        : Long.parseLong(override.toString());
+  }
+
+  private static boolean getBoolean(final SessionConfig sessionConfig, final String name) {
+    // Not using session.getConfig(true) due to performance issues, see execute:
+    final Object override = sessionConfig.getOverrides().get(name);
+
+    return override == null
+        ? sessionConfig.getConfig(false).getBoolean(name)
+        : Boolean.parseBoolean(override.toString());
+  }
+
   @VisibleForTesting
   interface RouteQuery {
-    TableRows routeQuery(
+    void routeQuery(
         KsqlNode node,
         ConfiguredStatement<Query> statement,
         KsqlExecutionContext executionContext,
         ServiceContext serviceContext,
-        PullQueryContext pullQueryContext
+        PullQueryContext pullQueryContext,
+        Predicate<List<?>> rowConsumer
     );
   }
 
+  /**
+   * Start reading the rows of the query from the hosts owning the required partitions, passing
+   * them to the supplied {@code rowQueue} as they arrive.
+   *
+   * @return a future that completes once all rows have been read, or the queue stops accepting
+   *     them, or that completes exceptionally if the query fails.
+   */
   @VisibleForTesting
-  static PullQueryResult handlePullQuery(
+  // CHECKSTYLE_RULES.OFF: ParameterNumberCheck
+  static CompletableFuture<Void> handlePullQuery(
       final ConfiguredStatement<Query> statement,
       final KsqlExecutionContext executionContext,
       final ServiceContext serviceContext,
       final RoutingOptions routingOptions,
       final Function<List<KsqlPartitionLocation>, PullQueryContext> contextFactory,
-      final QueryId queryId,
       final List<KsqlPartitionLocation> locations,
+      final PullQueryQueue rowQueue,
       final ExecutorService executorService,
-      final RouteQuery routeQuery
-  ) throws InterruptedException {
+      final RouteQuery routeQuery,
+      final HostRouting hostRouting
+  ) {
+    // CHECKSTYLE_RULES.ON: ParameterNumberCheck
     final boolean anyPartitionsEmpty = locations.stream()
         .anyMatch(location -> location.getNodes().isEmpty());
     if (anyPartitionsEmpty) {
@@ -353,75 +538,23 @@ public final class PullQueryExecutor {
           statement.getStatementText()));
     }
 
-    // The source nodes associated with each of the rows
-    final List<KsqlNode> sourceNodes = new ArrayList<>();
-    // Each of the table rows returned, aggregated across nodes
-    final List<List<?>> tableRows = new ArrayList<>();
-    // Each of the schemas returned, aggregated across nodes
-    final List<LogicalSchema> schemas = new ArrayList<>();
-    List<KsqlPartitionLocation> remainingLocations = ImmutableList.copyOf(locations);
-    // For each round, each set of partition location objects is grouped by host, and all
-    // keys associated with that host are batched together. For any requests that fail,
-    // the partition location objects will be added to remainingLocations, and the next round
-    // will attempt to fetch them from the next node in their prioritized list.
-    // For example, locations might be:
-    // [ Partition 0 <Host 1, Host 2>,
-    //   Partition 1 <Host 2, Host 1>,
-    //   Partition 2 <Host 1, Host 2> ]
-    // In Round 0, fetch from Host 1: [Partition 0, Partition 2], from Host 2: [Partition 1]
-    // If everything succeeds, we're done.  If Host 1 failed, then we'd have a Round 1:
-    // In Round 1, fetch from Host 2: [Partition 0, Partition 2].
-    for (int round = 0; ; round++) {
-      // Group all partition location objects by their nth round node
-      final Map<KsqlNode, List<KsqlPartitionLocation>> groupedByHost
-          = groupByHost(statement, remainingLocations, round);
-
-      // Make requests to each host, specifying the partitions we're interested in from
-      // this host.
-      final Map<KsqlNode, Future<PullQueryResult>> futures = new LinkedHashMap<>();
-      for (Map.Entry<KsqlNode, List<KsqlPartitionLocation>> entry : groupedByHost.entrySet()) {
-        final KsqlNode node = entry.getKey();
-        final PullQueryContext pullQueryContext = contextFactory.apply(entry.getValue());
-
-        futures.put(node, executorService.submit(() ->  {
-          final TableRows rows = routeQuery.routeQuery(
-              node, statement, executionContext, serviceContext, pullQueryContext);
-          final Optional<List<KsqlNode>> debugNodes = Optional.ofNullable(
-              routingOptions.isDebugRequest()
-                  ? Collections.nCopies(rows.getRows().size(), node) : null);
-          return new PullQueryResult(rows, debugNodes);
-        }));
-      }
+    final CompletableFuture<Void> completion = new CompletableFuture<>();
 
-      // Go through all of the results of the requests, either aggregating rows or adding
-      // the locations to the nextRoundRemaining list.
-      final ImmutableList.Builder<KsqlPartitionLocation> nextRoundRemaining
-          = ImmutableList.builder();
-      for (Map.Entry<KsqlNode, Future<PullQueryResult>>  entry : futures.entrySet()) {
-        final Future<PullQueryResult> future = entry.getValue();
-        final KsqlNode node = entry.getKey();
-        try {
-          final PullQueryResult result = future.get();
-          result.getSourceNodes().ifPresent(sourceNodes::addAll);
-          schemas.add(result.getTableRows().getSchema());
-          tableRows.addAll(result.getTableRows().getRows());
-        } catch (ExecutionException e) {
-          LOG.warn("Error routing query {} to host {} at timestamp {} with exception {}",
-              statement.getStatementText(), node, System.currentTimeMillis(), e.getCause());
-          nextRoundRemaining.addAll(groupedByHost.get(node));
-        }
-      }
-      remainingLocations = nextRoundRemaining.build();
-
-      // If there are no partition locations remaining, then we're done.
-      if (remainingLocations.size() == 0) {
-        validateSchemas(schemas);
-        return new PullQueryResult(
-            new TableRows(statement.getStatementText(), queryId, Iterables.getLast(schemas),
-                tableRows),
-            sourceNodes.isEmpty() ? Optional.empty() : Optional.of(sourceNodes));
-      }
-    }
+    final Round firstRound = new Round(
+        statement,
+        executionContext,
+        serviceContext,
+        routingOptions,
+        contextFactory,
+        rowQueue,
+        executorService,
+        routeQuery,
+        hostRouting,
+        completion
+    );
+
+    firstRound.execute(ImmutableList.copyOf(locations), 0);
+    return completion;
   }
 
   /**
@@ -450,115 +583,210 @@ public final class PullQueryExecutor {
     return groupedByHost;
   }
 
-  private static TableRows routeQuery(
+  private static void routeQuery(
       final KsqlNode node,
       final ConfiguredStatement<Query> statement,
       final KsqlExecutionContext executionContext,
       final ServiceContext serviceContext,
-      final PullQueryContext pullQueryContext
+      final PullQueryContext pullQueryContext,
+      final Predicate<List<?>> rowConsumer
   ) {
     if (node.isLocal()) {
       LOG.debug("Query {} executed locally at host {} at timestamp {}.",
                statement.getStatementText(), node.location(), System.currentTimeMillis());
       pullQueryContext.pullQueryMetrics
           .ifPresent(queryExecutorMetrics -> queryExecutorMetrics.recordLocalRequests(1));
-      return queryRowsLocally(
-          statement,
-          executionContext,
-          pullQueryContext);
+      queryRowsLocally(pullQueryContext, rowConsumer);
     } else {
       LOG.debug("Query {} routed to host {} at timestamp {}.",
                 statement.getStatementText(), node.location(), System.currentTimeMillis());
       pullQueryContext.pullQueryMetrics
           .ifPresent(queryExecutorMetrics -> queryExecutorMetrics.recordRemoteRequests(1));
-      return forwardTo(node, statement, serviceContext, pullQueryContext);
+      forwardTo(
+          node,
+          statement,
+          serviceContext,
+          pullQueryContext.locations,
+          pullQueryContext.projection.getOutputSchema(),
+          rowConsumer
+      );
     }
   }
 
-  private static TableRows queryRowsLocally(
-      final ConfiguredStatement<Query> statement,
-      final KsqlExecutionContext executionContext,
-      final PullQueryContext pullQueryContext
+  private static void queryRowsLocally(
+      final PullQueryContext pullQueryContext,
+      final Predicate<List<?>> rowConsumer
   ) {
-    final Result result;
-    if (pullQueryContext.whereInfo.windowBounds.isPresent()) {
-      final WindowBounds windowBounds = pullQueryContext.whereInfo.windowBounds.get();
-
-      final ImmutableList.Builder<TableRow> allRows = ImmutableList.builder();
-      for (KsqlPartitionLocation location : pullQueryContext.locations) {
-        if (!location.getKeys().isPresent()) {
-          throw new IllegalStateException("Window queries should be done with keys");
-        }
-        for (Struct key : location.getKeys().get()) {
-          final List<? extends TableRow> rows = pullQueryContext.mat.windowed()
-              .get(key, location.getPartition(), windowBounds.start,
-                  windowBounds.end);
-          allRows.addAll(rows);
-        }
+    final Function<TableRow, List<?>> mapper = pullQueryContext.mapper;
+    final Predicate<TableRow> projectingConsumer =
+        row -> rowConsumer.test(mapper.apply(row));
+
+    if (pullQueryContext.tableScan.isPresent()) {
+      scanLocally(pullQueryContext, pullQueryContext.tableScan.get(), projectingConsumer);
+      return;
+    }
+
+    for (KsqlPartitionLocation location : pullQueryContext.locations) {
+      if (!location.getKeys().isPresent()) {
+        throw new IllegalStateException("Pull queries should be done with keys");
       }
-      result = new Result(pullQueryContext.mat.schema(), allRows.build());
-    } else {
-      final ImmutableList.Builder<TableRow> allRows = ImmutableList.builder();
-      for (KsqlPartitionLocation location : pullQueryContext.locations) {
-        if (!location.getKeys().isPresent()) {
-          throw new IllegalStateException("Window queries should be done with keys");
-        }
-        for (Struct key : location.getKeys().get()) {
-          final List<? extends TableRow> rows = pullQueryContext.mat.nonWindowed()
-              .get(key, location.getPartition())
-              .map(ImmutableList::of)
-              .orElse(ImmutableList.of());
-          allRows.addAll(rows);
-        }
+      final List<Struct> keys = ImmutableList.copyOf(location.getKeys().get());
+      final boolean more = pullQueryContext.whereInfo.windowBounds.isPresent()
+          ? readWindowed(pullQueryContext, location.getPartition(), keys, projectingConsumer)
+          : readNonWindowed(pullQueryContext, location.getPartition(), keys, projectingConsumer);
+
+      if (!more) {
+        return;
       }
-      result = new Result(pullQueryContext.mat.schema(), allRows.build());
     }
+  }
 
-    final LogicalSchema outputSchema;
-    final List<List<?>> rows;
-    if (isSelectStar(statement.getStatement().getSelect())) {
-      outputSchema = TableRowsFactory.buildSchema(
-          result.schema, pullQueryContext.mat.windowType().isPresent());
-      rows = TableRowsFactory.createRows(result.rows);
-    } else {
-      final List<SelectExpression> projection = pullQueryContext.analysis.getSelectItems().stream()
-          .map(SingleColumn.class::cast)
-          .map(si -> SelectExpression
-              .of(si.getAlias().orElseThrow(IllegalStateException::new), si.getExpression()))
-          .collect(Collectors.toList());
+  /**
+   * Pass the rows of the supplied keys to {@code consumer}, reading window rows straight from the
+   * store's iterator rather than gathering them first.
+   *
+   * @return {@code false} if {@code consumer} asked for no more rows.
+   */
+  private static boolean readWindowed(
+      final PullQueryContext pullQueryContext,
+      final int partition,
+      final List<Struct> keys,
+      final Predicate<TableRow> consumer
+  ) {
+    final WindowBounds windowBounds = pullQueryContext.whereInfo.windowBounds.get();
 
-      outputSchema = selectOutputSchema(
-          result, executionContext, projection, pullQueryContext.mat.windowType());
+    for (final Struct key : keys) {
+      final boolean more = pullQueryContext.mat.windowed()
+          .forEach(key, partition, windowBounds.start, windowBounds.end, consumer);
 
-      rows = handleSelects(
-          result,
-          statement,
-          executionContext,
-          pullQueryContext.analysis,
-          outputSchema,
-          projection,
-          pullQueryContext.mat.windowType(),
-          pullQueryContext.queryId,
-          pullQueryContext.contextStacker
+      if (!more) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Pass the rows of the supplied keys to {@code consumer}, reading all the keys of the partition
+   * in a single batch, as each key has at most one row.
+   *
+   * @return {@code false} if {@code consumer} asked for no more rows.
+   */
+  private static boolean readNonWindowed(
+      final PullQueryContext pullQueryContext,
+      final int partition,
+      final List<Struct> keys,
+      final Predicate<TableRow> consumer
+  ) {
+    for (final TableRow row : pullQueryContext.mat.nonWindowed().get(keys, partition)) {
+      if (!consumer.test(row)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Scan the local partitions of the table in parallel, on the scan thread pool, passing the
+   * matching rows to {@code consumer} as they are read.
+   *
+   * <p>Once {@code consumer} asks for no more rows, e.g. because the query's {@code LIMIT} has
+   * been reached, or any partition fails, the scans of the other partitions stop too.
+   */
+  private static void scanLocally(
+      final PullQueryContext pullQueryContext,
+      final TableScan tableScan,
+      final Predicate<TableRow> consumer
+  ) {
+    final MaterializedTable table = pullQueryContext.mat.nonWindowed();
+    final AtomicBoolean stopped = new AtomicBoolean();
+    final LongAdder rowsScanned = new LongAdder();
+
+    final Predicate<TableRow> stoppableConsumer = row -> {
+      if (stopped.get()) {
+        return false;
+      }
+
+      if (!consumer.test(row)) {
+        stopped.set(true);
+        return false;
+      }
+      return true;
+    };
+
+    final CompletableFuture<?>[] scans = pullQueryContext.locations.stream()
+        .map(location -> CompletableFuture.runAsync(() -> {
+          try {
+            if (!stopped.get()) {
+              tableScan.scan(table, location.getPartition(), rowsScanned, stoppableConsumer);
+            }
+          } catch (final RuntimeException e) {
+            stopped.set(true);
+            throw e;
+          }
+        }, pullQueryContext.scanExecutorService))
+        .toArray(CompletableFuture<?>[]::new);
+
+    try {
+      CompletableFuture.allOf(scans).join();
+    } catch (final CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    } finally {
+      pullQueryContext.pullQueryMetrics
+          .ifPresent(metrics -> metrics.recordScanRows(rowsScanned.sum()));
+    }
+  }
+
+  private static PullQueryPlan.Projection compileProjection(
+      final LogicalSchema inputSchema,
+      final ConfiguredStatement<Query> statement,
+      final KsqlExecutionContext executionContext,
+      final PullQueryPlan plan,
+      final Materialization mat
+  ) {
+    if (isSelectStar(statement.getStatement().getSelect())) {
+      return new PullQueryPlan.Projection(
+          TableRowsFactory.buildSchema(inputSchema, mat.windowType().isPresent()),
+          logger -> TableRowsFactory::createRow
       );
     }
-    return new TableRows(
-        statement.getStatementText(),
-        pullQueryContext.queryId,
+
+    final List<SelectExpression> projection = plan.getAnalysis()
+        .getSelectItems().stream()
+        .map(SingleColumn.class::cast)
+        .map(si -> SelectExpression
+            .of(si.getAlias().orElseThrow(IllegalStateException::new), si.getExpression()))
+        .collect(Collectors.toList());
+
+    final LogicalSchema outputSchema = selectOutputSchema(
+        inputSchema, executionContext, projection, mat.windowType());
+
+    return new PullQueryPlan.Projection(
         outputSchema,
-        rows
+        handleSelects(
+            inputSchema,
+            statement,
+            executionContext,
+            plan.getAnalysis(),
+            outputSchema,
+            projection,
+            mat.windowType()
+        )
     );
   }
 
-  private static TableRows forwardTo(
+  @VisibleForTesting
+  static void forwardTo(
       final KsqlNode owner,
       final ConfiguredStatement<Query> statement,
       final ServiceContext serviceContext,
-      final PullQueryContext pullQueryContext
+      final List<KsqlPartitionLocation> locations,
+      final LogicalSchema outputSchema,
+      final Predicate<List<?>> rowConsumer
   ) {
     // Specify the partitions we specifically want to read.  This will prevent reading unintended
     // standby data when we are reading active for example.
-    final String partitions = pullQueryContext.locations.stream()
+    final String partitions = locations.stream()
         .map(location -> Integer.toString(location.getPartition()))
         .collect(Collectors.joining(","));
     // Add skip forward flag to properties
@@ -566,92 +794,543 @@ public final class PullQueryExecutor {
         KsqlRequestConfig.KSQL_REQUEST_QUERY_PULL_SKIP_FORWARDING, true,
         KsqlRequestConfig.KSQL_REQUEST_INTERNAL_REQUEST, true,
         KsqlRequestConfig.KSQL_REQUEST_QUERY_PULL_PARTITIONS, partitions);
-    final RestResponse<List<StreamedRow>> response = serviceContext
-        .getKsqlClient()
-        .makeQueryRequest(
-            owner.location(),
-            statement.getStatementText(),
-            statement.getSessionConfig().getOverrides(),
-            requestProperties
-        );
+    final SimpleKsqlClient client = serviceContext.getKsqlClient();
+    final ForwardedRowHandler rowHandler = new ForwardedRowHandler(
+        statement,
+        outputSchema,
+        rowConsumer
+    );
 
-    if (response.isErroneous()) {
-      throw new KsqlServerException("Forwarding attempt failed: " + response.getErrorMessage());
+    RestResponse<Integer> response = null;
+    if (getBoolean(statement.getSessionConfig(),
+        KsqlConfig.KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED)) {
+      response = client.makeInternalPullQueryRequest(
+          owner.location(),
+          statement.getStatementText(),
+          statement.getSessionConfig().getOverrides(),
+          requestProperties,
+          rowHandler
+      );
     }
 
-    final List<StreamedRow> streamedRows = response.getResponse();
-    if (streamedRows.isEmpty()) {
-      throw new KsqlServerException("Invalid empty response from forwarding call");
+    // Servers without the internal pull query endpoint respond with a 404:
+    if (response == null || response.getStatusCode() == NOT_FOUND.code()) {
+      response = client.makeQueryRequest(
+          owner.location(),
+          statement.getStatementText(),
+          statement.getSessionConfig().getOverrides(),
+          requestProperties,
+          rowHandler
+      );
     }
 
-    final Header header = streamedRows.get(0).getHeader()
-        .orElseThrow(() -> new KsqlServerException("Expected header in first row"));
-
-    final ImmutableList.Builder<List<?>> rows = ImmutableList.builder();
-
-    for (final StreamedRow row : streamedRows.subList(1, streamedRows.size())) {
-      if (row.getErrorMessage().isPresent()) {
-        throw new KsqlStatementException(
-            row.getErrorMessage().get().getMessage(),
-            statement.getStatementText()
-        );
-      }
-
-      if (!row.getRow().isPresent()) {
-        throw new KsqlServerException("Unexpected forwarding response");
-      }
-
-      rows.add(row.getRow().get().getColumns());
+    if (response.isErroneous()) {
+      throw new KsqlServerException("Forwarding attempt failed: " + response.getErrorMessage());
     }
 
-    return new TableRows(
-        statement.getStatementText(),
-        header.getQueryId(),
-        header.getSchema(),
-        rows.build()
-    );
+    if (response.getResponse() == 0) {
+      throw new KsqlServerException("Invalid empty response from forwarding call");
+    }
   }
 
   private static QueryId uniqueQueryId() {
     return new QueryId("query_" + System.currentTimeMillis());
   }
 
+  private static PullQueryPlan plan(
+      final Query query,
+      final KsqlExecutionContext executionContext
+  ) {
+    final ImmutableAnalysis analysis = new RewrittenAnalysis(
+        analyze(query, executionContext),
+        new ColumnReferenceRewriter()::process
+    );
+
+    final PersistentQueryMetadata materializingQuery =
+        findMaterializingQuery(executionContext, getSourceName(analysis));
+
+    return new PullQueryPlan(analysis, materializingQuery);
+  }
+
   private static ImmutableAnalysis analyze(
-      final ConfiguredStatement<Query> statement,
+      final Query query,
       final KsqlExecutionContext executionContext
   ) {
     final QueryAnalyzer queryAnalyzer = new QueryAnalyzer(executionContext.getMetaStore(), "");
 
-    return queryAnalyzer.analyze(statement.getStatement(), Optional.empty());
+    return queryAnalyzer.analyze(query, Optional.empty());
   }
 
   static final class PullQueryContext {
 
     private final List<KsqlPartitionLocation> locations;
     private final Materialization mat;
-    private final ImmutableAnalysis analysis;
+    private final PullQueryPlan.Projection projection;
+    private final Function<TableRow, List<?>> mapper;
     private final WhereInfo whereInfo;
-    private final QueryId queryId;
-    private final QueryContext.Stacker contextStacker;
+    private final Optional<TableScan> tableScan;
+    private final ExecutorService scanExecutorService;
     private final Optional<PullQueryExecutorMetrics> pullQueryMetrics;
 
     private PullQueryContext(
         final List<KsqlPartitionLocation> locations,
         final Materialization mat,
-        final ImmutableAnalysis analysis,
+        final PullQueryPlan.Projection projection,
+        final Function<TableRow, List<?>> mapper,
         final WhereInfo whereInfo,
-        final QueryId queryId,
-        final QueryContext.Stacker contextStacker,
+        final Optional<TableScan> tableScan,
+        final ExecutorService scanExecutorService,
         final Optional<PullQueryExecutorMetrics> pullQueryMetrics
     ) {
       this.locations = Objects.requireNonNull(locations, "locations");
       this.mat = Objects.requireNonNull(mat, "materialization");
-      this.analysis = Objects.requireNonNull(analysis, "analysis");
+      this.projection = Objects.requireNonNull(projection, "projection");
+      this.mapper = Objects.requireNonNull(mapper, "mapper");
       this.whereInfo = Objects.requireNonNull(whereInfo, "whereInfo");
-      this.queryId = Objects.requireNonNull(queryId, "queryId");
-      this.contextStacker = Objects.requireNonNull(contextStacker, "contextStacker");
+      this.tableScan = Objects.requireNonNull(tableScan, "tableScan");
+      this.scanExecutorService =
+          Objects.requireNonNull(scanExecutorService, "scanExecutorService");
+      this.pullQueryMetrics = Objects.requireNonNull(pullQueryMetrics, "pullQueryMetrics");
+    }
+  }
+
+  /**
+   * Where the requests of a pull query to hosts are recorded, and how long a request may go
+   * without returning a row before it is hedged. A delay of zero disables hedging.
+   */
+  @VisibleForTesting
+  static final class HostRouting {
+
+    private final PullQueryHostStats hostStats;
+    private final ScheduledExecutorService hedgeScheduler;
+    private final long hedgeDelayMs;
+    private final Optional<PullQueryExecutorMetrics> pullQueryMetrics;
+
+    HostRouting(
+        final PullQueryHostStats hostStats,
+        final ScheduledExecutorService hedgeScheduler,
+        final long hedgeDelayMs,
+        final Optional<PullQueryExecutorMetrics> pullQueryMetrics
+    ) {
+      this.hostStats = Objects.requireNonNull(hostStats, "hostStats");
+      this.hedgeScheduler = Objects.requireNonNull(hedgeScheduler, "hedgeScheduler");
+      this.hedgeDelayMs = hedgeDelayMs;
       this.pullQueryMetrics = Objects.requireNonNull(pullQueryMetrics, "pullQueryMetrics");
     }
+
+    private void requestStarted(final KsqlNode node) {
+      hostStats.requestStarted(node);
+      pullQueryMetrics.ifPresent(metrics ->
+          metrics.recordHostInFlight(node.location().toString(), hostStats.inFlight(node)));
+    }
+
+    private void requestCompleted(
+        final KsqlNode node,
+        final long latencyNanos,
+        final boolean succeeded
+    ) {
+      hostStats.requestCompleted(node, latencyNanos, succeeded);
+      pullQueryMetrics.ifPresent(metrics -> {
+        final String host = node.location().toString();
+        if (succeeded) {
+          metrics.recordHostLatency(host, latencyNanos);
+        }
+        metrics.recordHostInFlight(host, hostStats.inFlight(node));
+      });
+    }
+  }
+
+  /**
+   * One round of requests to hosts: each set of partition locations is grouped by the round-th
+   * host in its prioritized list, and all keys associated with that host are batched together.
+   *
+   * <p>For example, locations might be:
+   * <pre>
+   * [ Partition 0 &lt;Host 1, Host 2&gt;,
+   *   Partition 1 &lt;Host 2, Host 1&gt;,
+   *   Partition 2 &lt;Host 1, Host 2&gt; ]
+   * </pre>
+   * In Round 0, fetch from Host 1: [Partition 0, Partition 2], from Host 2: [Partition 1]. If
+   * everything succeeds, we're done. If Host 1 failed, then in Round 1 fetch from Host 2:
+   * [Partition 0, Partition 2].
+   *
+   * <p>Rows are passed on as they are read, so a host that fails after passing on some rows can
+   * not be retried on another host without duplicating them. Such a failure fails the query.
+   *
+   * <p>If hedging is enabled, a request that has not returned a row within the hedge delay is
+   * duplicated to the host the next round would use, as long as that is the same host for all
+   * the request's partitions. See {@link HedgedRequest}.
+   */
+  private static final class Round {
+
+    private final ConfiguredStatement<Query> statement;
+    private final KsqlExecutionContext executionContext;
+    private final ServiceContext serviceContext;
+    private final RoutingOptions routingOptions;
+    private final Function<List<KsqlPartitionLocation>, PullQueryContext> contextFactory;
+    private final PullQueryQueue rowQueue;
+    private final ExecutorService executorService;
+    private final RouteQuery routeQuery;
+    private final HostRouting hostRouting;
+    private final CompletableFuture<Void> completion;
+
+    // CHECKSTYLE_RULES.OFF: ParameterNumberCheck
+    private Round(
+        final ConfiguredStatement<Query> statement,
+        final KsqlExecutionContext executionContext,
+        final ServiceContext serviceContext,
+        final RoutingOptions routingOptions,
+        final Function<List<KsqlPartitionLocation>, PullQueryContext> contextFactory,
+        final PullQueryQueue rowQueue,
+        final ExecutorService executorService,
+        final RouteQuery routeQuery,
+        final HostRouting hostRouting,
+        final CompletableFuture<Void> completion
+    ) {
+      // CHECKSTYLE_RULES.ON: ParameterNumberCheck
+      this.statement = statement;
+      this.executionContext = executionContext;
+      this.serviceContext = serviceContext;
+      this.routingOptions = routingOptions;
+      this.contextFactory = contextFactory;
+      this.rowQueue = rowQueue;
+      this.executorService = executorService;
+      this.routeQuery = routeQuery;
+      this.hostRouting = hostRouting;
+      this.completion = completion;
+    }
+
+    void execute(final List<KsqlPartitionLocation> locations, final int round) {
+      final Map<KsqlNode, CompletableFuture<List<KsqlPartitionLocation>>> futures =
+          new LinkedHashMap<>();
+
+      try {
+        // Group all partition location objects by their nth round node
+        final Map<KsqlNode, List<KsqlPartitionLocation>> groupedByHost
+            = groupByHost(statement, locations, round);
+
+        // Make requests to each host, specifying the partitions we're interested in from
+        // this host.
+        for (Entry<KsqlNode, List<KsqlPartitionLocation>> entry : groupedByHost.entrySet()) {
+          final KsqlNode node = entry.getKey();
+          final PullQueryContext pullQueryContext = contextFactory.apply(entry.getValue());
+
+          futures.put(node, queryHost(node, entry.getValue(), pullQueryContext, round));
+        }
+      } catch (final Exception e) {
+        completion.completeExceptionally(e);
+        return;
+      }
+
+      CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+          .whenComplete((v, t) -> {
+            if (t != null) {
+              completion.completeExceptionally(
+                  t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+              return;
+            }
+
+            // Any partition locations whose requests failed are retried in the next round:
+            final ImmutableList.Builder<KsqlPartitionLocation> nextRoundRemaining
+                = ImmutableList.builder();
+            futures.values().forEach(future -> nextRoundRemaining.addAll(future.join()));
+            final List<KsqlPartitionLocation> remainingLocations = nextRoundRemaining.build();
+
+            // If there are no partition locations remaining, then we're done.
+            if (remainingLocations.isEmpty() || rowQueue.isClosed()) {
+              completion.complete(null);
+              return;
+            }
+
+            execute(remainingLocations, round + 1);
+          });
+    }
+
+    /**
+     * @return a future of the locations to retry on the next host, or empty on success.
+     */
+    private CompletableFuture<List<KsqlPartitionLocation>> queryHost(
+        final KsqlNode node,
+        final List<KsqlPartitionLocation> locations,
+        final PullQueryContext pullQueryContext,
+        final int round
+    ) {
+      final Optional<KsqlNode> hedgeNode = hedgeNode(node, locations, round);
+      if (hedgeNode.isPresent()) {
+        return new HedgedRequest(node, hedgeNode.get(), locations, pullQueryContext).start();
+      }
+
+      return CompletableFuture.supplyAsync(
+          () -> tryHost(node, locations, pullQueryContext, rowQueue::acceptRow),
+          executorService
+      );
+    }
+
+    /**
+     * @return the locations to retry on the next host, or empty on success.
+     */
+    private List<KsqlPartitionLocation> tryHost(
+        final KsqlNode node,
+        final List<KsqlPartitionLocation> locations,
+        final PullQueryContext pullQueryContext,
+        final Predicate<PullQueryRow> rowSink
+    ) {
+      final Optional<KsqlNode> sourceNode = routingOptions.isDebugRequest()
+          ? Optional.of(node)
+          : Optional.empty();
+
+      final AtomicBoolean anyRows = new AtomicBoolean();
+
+      final long startTimeNanos = System.nanoTime();
+      boolean succeeded = false;
+      hostRouting.requestStarted(node);
+      try {
+        routeQuery.routeQuery(
+            node, statement, executionContext, serviceContext, pullQueryContext,
+            row -> {
+              anyRows.set(true);
+              return rowSink.test(new PullQueryRow(row, sourceNode));
+            }
+        );
+        succeeded = true;
+        return ImmutableList.of();
+      } catch (final RuntimeException e) {
+        if (anyRows.get()) {
+          throw e;
+        }
+
+        LOG.warn("Error routing query {} to host {} at timestamp {} with exception {}",
+            statement.getStatementText(), node, System.currentTimeMillis(), e);
+        return locations;
+      } finally {
+        hostRouting.requestCompleted(node, System.nanoTime() - startTimeNanos, succeeded);
+      }
+    }
+
+    /**
+     * @return the host to hedge a request to {@code node} with: the host the next round would
+     *     use for all of {@code locations}, if hedging is enabled and there is one.
+     */
+    private Optional<KsqlNode> hedgeNode(
+        final KsqlNode node,
+        final List<KsqlPartitionLocation> locations,
+        final int round
+    ) {
+      if (hostRouting.hedgeDelayMs <= 0) {
+        return Optional.empty();
+      }
+
+      KsqlNode hedgeNode = null;
+      for (final KsqlPartitionLocation location : locations) {
+        if (round + 1 >= location.getNodes().size()) {
+          return Optional.empty();
+        }
+
+        final KsqlNode nextNode = location.getNodes().get(round + 1);
+        if (hedgeNode != null && !hedgeNode.equals(nextNode)) {
+          return Optional.empty();
+        }
+        hedgeNode = nextNode;
+      }
+
+      return Optional.ofNullable(hedgeNode)
+          .filter(hedge -> !hedge.equals(node));
+    }
+
+    /**
+     * A request to a host, duplicated to a second host if it has not answered within the hedge
+     * delay.
+     *
+     * <p>The first of the two requests to pass on a row, or to succeed without any, wins. Only
+     * the winner's rows are passed on, and the other request is cancelled: the thread running it
+     * is interrupted, which closes a forwarded request that is still waiting for a response, and
+     * it is stopped at its next row, if any. If the winner then fails, the query fails, as it
+     * would without hedging. If both requests fail without passing on any rows, the locations
+     * are left to the next round.
+     */
+    private final class HedgedRequest {
+
+      private final KsqlNode primaryNode;
+      private final KsqlNode hedgeNode;
+      private final List<KsqlPartitionLocation> locations;
+      private final PullQueryContext pullQueryContext;
+      private final AtomicReference<KsqlNode> winner = new AtomicReference<>();
+      private final CompletableFuture<List<KsqlPartitionLocation>> result =
+          new CompletableFuture<>();
+      private final Map<KsqlNode, Thread> attemptThreads = new HashMap<>();
+      private int running;
+      private boolean done;
+
+      private HedgedRequest(
+          final KsqlNode primaryNode,
+          final KsqlNode hedgeNode,
+          final List<KsqlPartitionLocation> locations,
+          final PullQueryContext pullQueryContext
+      ) {
+        this.primaryNode = primaryNode;
+        this.hedgeNode = hedgeNode;
+        this.locations = locations;
+        this.pullQueryContext = pullQueryContext;
+      }
+
+      CompletableFuture<List<KsqlPartitionLocation>> start() {
+        synchronized (this) {
+          running = 1;
+        }
+
+        final ScheduledFuture<?> hedge = hostRouting.hedgeScheduler.schedule(
+            this::startHedge, hostRouting.hedgeDelayMs, TimeUnit.MILLISECONDS);
+        result.whenComplete((r, t) -> hedge.cancel(false));
+
+        attempt(primaryNode);
+        return result;
+      }
+
+      private void startHedge() {
+        synchronized (this) {
+          if (done || winner.get() != null) {
+            return;
+          }
+          running++;
+        }
+
+        LOG.debug("Hedging query {} to host {} with host {}",
+            statement.getStatementText(), primaryNode, hedgeNode);
+        hostRouting.pullQueryMetrics.ifPresent(metrics -> metrics.recordHedgedRequests(1));
+        attempt(hedgeNode);
+      }
+
+      private void attempt(final KsqlNode node) {
+        CompletableFuture.supplyAsync(
+            () -> {
+              if (!attemptStarted(node)) {
+                return locations;
+              }
+              try {
+                return tryHost(node, locations, pullQueryContext,
+                    row -> claim(node) && rowQueue.acceptRow(row));
+              } finally {
+                attemptFinished(node);
+              }
+            },
+            executorService
+        ).whenComplete((remaining, t) -> onAttemptComplete(node, remaining, t));
+      }
+
+      /**
+       * @return {@code false} if the attempt has already lost, so should not be made.
+       */
+      private synchronized boolean attemptStarted(final KsqlNode node) {
+        final KsqlNode won = winner.get();
+        if (won != null && won != node) {
+          return false;
+        }
+        attemptThreads.put(node, Thread.currentThread());
+        return true;
+      }
+
+      private synchronized void attemptFinished(final KsqlNode node) {
+        attemptThreads.remove(node);
+        // Clear any interrupt cancelling the attempt, so it does not affect the thread's next task:
+        Thread.interrupted();
+      }
+
+      private boolean claim(final KsqlNode node) {
+        if (winner.compareAndSet(null, node)) {
+          if (node == hedgeNode) {
+            hostRouting.pullQueryMetrics.ifPresent(metrics -> metrics.recordHedgeWins(1));
+          }
+          cancelLosers(node);
+          return true;
+        }
+        return winner.get() == node;
+      }
+
+      private synchronized void cancelLosers(final KsqlNode won) {
+        attemptThreads.forEach((node, thread) -> {
+          if (node != won) {
+            thread.interrupt();
+          }
+        });
+      }
+
+      private void onAttemptComplete(
+          final KsqlNode node,
+          final List<KsqlPartitionLocation> remaining,
+          final Throwable t
+      ) {
+        // Attempts that fail only pass on rows if they have already won:
+        final boolean failed = t != null || !remaining.isEmpty();
+        final boolean won = failed ? winner.get() == node : claim(node);
+
+        final boolean allFailed;
+        synchronized (this) {
+          running--;
+          allFailed = running == 0 && winner.get() == null;
+          done = done || won || allFailed;
+        }
+
+        if (won) {
+          if (t == null) {
+            result.complete(ImmutableList.of());
+          } else {
+            result.completeExceptionally(
+                t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+          }
+        } else if (allFailed) {
+          result.complete(locations);
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks and unwraps the rows of a response to a forwarded request, passing the row values on.
+   */
+  private static final class ForwardedRowHandler implements Predicate<StreamedRow> {
+
+    private final ConfiguredStatement<Query> statement;
+    private final LogicalSchema expectedSchema;
+    private final Predicate<List<?>> rowConsumer;
+    private boolean receivedHeader;
+
+    private ForwardedRowHandler(
+        final ConfiguredStatement<Query> statement,
+        final LogicalSchema expectedSchema,
+        final Predicate<List<?>> rowConsumer
+    ) {
+      this.statement = Objects.requireNonNull(statement, "statement");
+      this.expectedSchema = Objects.requireNonNull(expectedSchema, "expectedSchema");
+      this.rowConsumer = Objects.requireNonNull(rowConsumer, "rowConsumer");
+    }
+
+    @Override
+    public boolean test(final StreamedRow row) {
+      if (!receivedHeader) {
+        final Header header = row.getHeader()
+            .orElseThrow(() -> new KsqlServerException("Expected header in first row"));
+
+        if (!header.getSchema().equals(expectedSchema)) {
+          throw new KsqlException("Schemas from different hosts should be identical");
+        }
+
+        receivedHeader = true;
+        return true;
+      }
+
+      if (row.getErrorMessage().isPresent()) {
+        throw new KsqlStatementException(
+            row.getErrorMessage().get().getMessage(),
+            statement.getStatementText()
+        );
+      }
+
+      if (!row.getRow().isPresent()) {
+        throw new KsqlServerException("Unexpected forwarding response");
+      }
+
+      return rowConsumer.test(row.getRow().get().getColumns());
+    }
   }
 
   private static final class WindowBounds {
@@ -672,6 +1351,8 @@ public final class PullQueryExecutor {
 
     private final List<Object> keysBound;
     private final Optional<WindowBounds> windowBounds;
+    private final boolean tableScan;
+    private final Optional<Expression> scanWhere;
 
     private WhereInfo(
         final List<Object> keysBound,
@@ -679,30 +1360,37 @@ public final class PullQueryExecutor {
     ) {
       this.keysBound = keysBound;
       this.windowBounds = Objects.requireNonNull(windowBounds);
+      this.tableScan = false;
+      this.scanWhere = Optional.empty();
     }
-  }
-
-  private static final class Result {
 
-    private final LogicalSchema schema;
-    private final List<? extends TableRow> rows;
-
-    private Result(
-        final LogicalSchema schema,
-        final List<? extends TableRow> rows
-    ) {
-      this.schema = Objects.requireNonNull(schema, "schema");
-      this.rows = Objects.requireNonNull(rows, "rows");
+    private WhereInfo(final Optional<Expression> scanWhere) {
+      this.keysBound = ImmutableList.of();
+      this.windowBounds = Optional.empty();
+      this.tableScan = true;
+      this.scanWhere = Objects.requireNonNull(scanWhere);
     }
   }
 
   private static WhereInfo extractWhereInfo(
-      final ImmutableAnalysis analysis,
-      final PersistentQueryMetadata query
+      final ConfiguredStatement<Query> statement,
+      final PersistentQueryMetadata query,
+      final boolean scansEnabled
   ) {
     final boolean windowed = query.getResultTopic().getKeyFormat().isWindowed();
 
-    final Expression where = analysis.getWhereExpression()
+    // The WHERE clause is taken from the statement rather than the (possibly cached) analysis,
+    // as it is the only part of the plan that varies between requests:
+    final Optional<Expression> optionalWhere = statement.getStatement().getWhere()
+        .map(exp -> ExpressionTreeRewriter
+            .rewriteWith(new ColumnReferenceRewriter()::process, exp));
+
+    if (scansEnabled && !windowed
+        && !TableScan.isKeyLookup(optionalWhere, query.getLogicalSchema())) {
+      return new WhereInfo(optionalWhere);
+    }
+
+    final Expression where = optionalWhere
         .orElseThrow(() -> invalidWhereClauseException("Missing WHERE clause", windowed));
 
     final KeyAndWindowBounds keyAndWindowBounds = extractComparisons(where, query);
@@ -1100,33 +1788,31 @@ public final class PullQueryExecutor {
     return someStars;
   }
 
-  private static List<List<?>> handleSelects(
-      final Result input,
+  private static Function<ProcessingLogger, Function<TableRow, List<?>>> handleSelects(
+      final LogicalSchema inputSchema,
       final ConfiguredStatement<Query> statement,
       final KsqlExecutionContext executionContext,
       final ImmutableAnalysis analysis,
       final LogicalSchema outputSchema,
       final List<SelectExpression> projection,
-      final Optional<WindowType> windowType,
-      final QueryId queryId,
-      final Stacker contextStacker
+      final Optional<WindowType> windowType
   ) {
     final boolean noSystemColumns = analysis.getSelectColumnNames().stream()
         .noneMatch(SystemColumns::isSystemColumn);
 
     final boolean noKeyColumns = analysis.getSelectColumnNames().stream()
-        .noneMatch(input.schema::isKeyColumn);
+        .noneMatch(inputSchema::isKeyColumn);
 
     final LogicalSchema intermediateSchema;
     final Function<TableRow, GenericRow> preSelectTransform;
     if (noSystemColumns && noKeyColumns) {
-      intermediateSchema = input.schema;
+      intermediateSchema = inputSchema;
       preSelectTransform = TableRow::value;
     } else {
       // SelectValueMapper requires the rowTime & key fields in the value schema :(
       final boolean windowed = windowType.isPresent();
 
-      intermediateSchema = input.schema
+      intermediateSchema = inputSchema
           .withPseudoAndKeyColsInValue(windowed);
 
       preSelectTransform = row -> {
@@ -1164,31 +1850,33 @@ public final class PullQueryExecutor {
         executionContext.getMetaStore()
     );
 
-    final ProcessingLogger logger = executionContext
+    return logger -> {
+      final KsqlTransformer<Object, GenericRow> transformer = select.getTransformer(logger);
+
+      return r -> {
+        final GenericRow intermediate = preSelectTransform.apply(r);
+
+        final GenericRow mapped = transformer.transform(
+            r.key(),
+            intermediate,
+            new PullProcessingContext(r.rowTime())
+        );
+        validateProjection(mapped, outputSchema);
+        return mapped.values();
+      };
+    };
+  }
+
+  private static ProcessingLogger processingLogger(
+      final KsqlExecutionContext executionContext,
+      final Stacker contextStacker
+  ) {
+    return executionContext
         .getProcessingLogContext()
         .getLoggerFactory()
         .getLogger(
-            QueryLoggerUtil.queryLoggerName(
-                QueryType.PULL_QUERY, contextStacker.push("PROJECT").getQueryContext())
+            QueryLoggerUtil.queryLoggerName(QueryType.PULL_QUERY, contextStacker.getQueryContext())
         );
-
-    final KsqlTransformer<Object, GenericRow> transformer = select
-        .getTransformer(logger);
-
-    final ImmutableList.Builder<List<?>> output = ImmutableList.builder();
-    input.rows.forEach(r -> {
-      final GenericRow intermediate = preSelectTransform.apply(r);
-
-      final GenericRow mapped = transformer.transform(
-          r.key(),
-          intermediate,
-          new PullProcessingContext(r.rowTime())
-      );
-      validateProjection(mapped, outputSchema);
-      output.add(mapped.values());
-    });
-
-    return output.build();
   }
 
   private static void validateProjection(
@@ -1206,7 +1894,7 @@ public final class PullQueryExecutor {
   }
 
   private static LogicalSchema selectOutputSchema(
-      final Result input,
+      final LogicalSchema inputSchema,
       final KsqlExecutionContext executionContext,
       final List<SelectExpression> selectExpressions,
       final Optional<WindowType> windowType
@@ -1214,7 +1902,7 @@ public final class PullQueryExecutor {
     final Builder schemaBuilder = LogicalSchema.builder();
 
     // Copy meta & key columns into the value schema as SelectValueMapper expects it:
-    final LogicalSchema schema = input.schema
+    final LogicalSchema schema = inputSchema
         .withPseudoAndKeyColsInValue(windowType.isPresent());
 
     final ExpressionTypeManager expressionTypeManager =
@@ -1223,7 +1911,7 @@ public final class PullQueryExecutor {
     for (final SelectExpression select : selectExpressions) {
       final SqlType type = expressionTypeManager.getExpressionSqlType(select.getExpression());
 
-      if (input.schema.isKeyColumn(select.getAlias())
+      if (inputSchema.isKeyColumn(select.getAlias())
           || select.getAlias().equals(SystemColumns.WINDOWSTART_NAME)
           || select.getAlias().equals(SystemColumns.WINDOWEND_NAME)
       ) {
@@ -1237,12 +1925,10 @@ public final class PullQueryExecutor {
 
   private static PersistentQueryMetadata findMaterializingQuery(
       final KsqlExecutionContext executionContext,
-      final ImmutableAnalysis analysis
+      final SourceName sourceName
   ) {
     final MetaStore metaStore = executionContext.getMetaStore();
 
-    final SourceName sourceName = getSourceName(analysis);
-
     final Set<String> queries = metaStore.getQueriesWithSink(sourceName);
     if (queries.isEmpty()) {
       throw notMaterializedException(sourceName);
@@ -15,6 +15,7 @@
 
 package io.confluent.ksql.rest.server.execution;
 
+import com.google.common.collect.ImmutableMap;
 import io.confluent.ksql.metrics.MetricCollectors;
 import io.confluent.ksql.util.ReservedInternalTopics;
 import java.io.Closeable;
@@ -22,7 +23,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.metrics.Sensor;
 import org.apache.kafka.common.metrics.stats.Avg;
@@ -33,6 +36,7 @@ import org.apache.kafka.common.metrics.stats.Percentile;
 import org.apache.kafka.common.metrics.stats.Percentiles;
 import org.apache.kafka.common.metrics.stats.Percentiles.BucketSizing;
 import org.apache.kafka.common.metrics.stats.Rate;
+import org.apache.kafka.common.metrics.stats.Value;
 import org.apache.kafka.common.metrics.stats.WindowedCount;
 import org.apache.kafka.common.utils.Time;
 
@@ -41,6 +45,13 @@ public class PullQueryExecutorMetrics implements Closeable {
 
   private static final String PULL_QUERY_METRIC_GROUP = "pull-query";
   private static final String PULL_REQUESTS = "pull-query-requests";
+  private static final String HOST_TAG = "host";
+
+  /**
+   * How long the sensors of a host are kept without any requests being routed to it, e.g. after
+   * it has left the cluster.
+   */
+  static final long IDLE_HOST_MS = TimeUnit.MINUTES.toMillis(10);
 
   private final List<Sensor> sensors;
   private final Sensor localRequestsSensor;
@@ -50,10 +61,18 @@ public class PullQueryExecutorMetrics implements Closeable {
   private final Sensor errorRateSensor;
   private final Sensor requestSizeSensor;
   private final Sensor responseSizeSensor;
+  private final Sensor planCacheHitSensor;
+  private final Sensor planCacheMissSensor;
+  private final Sensor scanRequestsSensor;
+  private final Sensor scanRowsSensor;
+  private final Sensor hedgedRequestsSensor;
+  private final Sensor hedgeWinsSensor;
+  private final Map<String, HostSensors> hostSensors = new ConcurrentHashMap<>();
   private final Metrics metrics;
   private final Map<String, String> customMetricsTags;
   private final String ksqlServiceId;
   private final Time time;
+  private final AtomicLong nextIdleCheckMs;
 
   public PullQueryExecutorMetrics(
       final String ksqlServiceId,
@@ -65,6 +84,7 @@ public class PullQueryExecutorMetrics implements Closeable {
     this.customMetricsTags = Objects.requireNonNull(customMetricsTags, "customMetricsTags");
     this.time = Objects.requireNonNull(time, "time");
     this.metrics = MetricCollectors.getMetrics();
+    this.nextIdleCheckMs = new AtomicLong(time.milliseconds() + IDLE_HOST_MS);
     this.sensors = new ArrayList<>();
     this.localRequestsSensor = configureLocalRequestsSensor();
     this.remoteRequestsSensor = configureRemoteRequestsSensor();
@@ -73,11 +93,18 @@ public class PullQueryExecutorMetrics implements Closeable {
     this.errorRateSensor = configureErrorRateSensor();
     this.requestSizeSensor = configureRequestSizeSensor();
     this.responseSizeSensor = configureResponseSizeSensor();
+    this.planCacheHitSensor = configurePlanCacheSensor("hit");
+    this.planCacheMissSensor = configurePlanCacheSensor("miss");
+    this.scanRequestsSensor = configureScanRequestsSensor();
+    this.scanRowsSensor = configureScanRowsSensor();
+    this.hedgedRequestsSensor = configureHedgeSensor("hedged", "hedged");
+    this.hedgeWinsSensor = configureHedgeSensor("hedge-wins", "won by their hedge");
   }
 
   @Override
   public void close() {
     sensors.forEach(sensor -> metrics.removeSensor(sensor.name()));
+    hostSensors.values().forEach(this::removeSensors);
   }
 
   public void recordLocalRequests(final double value) {
@@ -108,6 +135,44 @@ public class PullQueryExecutorMetrics implements Closeable {
     this.responseSizeSensor.record(value);
   }
 
+  public void recordPlanCacheHit(final double value) {
+    this.planCacheHitSensor.record(value);
+  }
+
+  public void recordPlanCacheMiss(final double value) {
+    this.planCacheMissSensor.record(value);
+  }
+
+  public void recordScanRequests(final double value) {
+    this.scanRequestsSensor.record(value);
+  }
+
+  public void recordScanRows(final double value) {
+    this.scanRowsSensor.record(value);
+  }
+
+  public void recordHedgedRequests(final double value) {
+    this.hedgedRequestsSensor.record(value);
+  }
+
+  public void recordHedgeWins(final double value) {
+    this.hedgeWinsSensor.record(value);
+  }
+
+  /**
+   * Record the latency of a successful request routed to {@code host}, at microsecond scale.
+   */
+  public void recordHostLatency(final String host, final long latencyNanos) {
+    hostSensors(host).latencySensor.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+  }
+
+  /**
+   * Record the number of requests routed to {@code host} that are still in flight.
+   */
+  public void recordHostInFlight(final String host, final long inFlight) {
+    hostSensors(host).inFlightSensor.record(inFlight);
+  }
+
   List<Sensor> getSensors() {
     return sensors;
   }
@@ -315,4 +380,213 @@ public class PullQueryExecutorMetrics implements Closeable {
     sensors.add(sensor);
     return sensor;
   }
+
+  private Sensor configurePlanCacheSensor(final String outcome) {
+    final Sensor sensor = metrics.sensor(
+        PULL_QUERY_METRIC_GROUP + "-" + PULL_REQUESTS + "-plan-cache-" + outcome);
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-plan-cache-" + outcome + "-count",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Count of pull query plan cache " + outcome + "es",
+            customMetricsTags
+        ),
+        new WindowedCount()
+    );
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-plan-cache-" + outcome + "-rate",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Rate of pull query plan cache " + outcome + "es",
+            customMetricsTags
+        ),
+        new Rate()
+    );
+    sensors.add(sensor);
+    return sensor;
+  }
+
+  private Sensor configureScanRequestsSensor() {
+    final Sensor sensor = metrics.sensor(
+        PULL_QUERY_METRIC_GROUP + "-" + PULL_REQUESTS + "-scan");
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-scan-count",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Count of pull query requests that scan a table",
+            customMetricsTags
+        ),
+        new WindowedCount()
+    );
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-scan-rate",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Rate of pull query requests that scan a table",
+            customMetricsTags
+        ),
+        new Rate()
+    );
+    sensors.add(sensor);
+    return sensor;
+  }
+
+  private Sensor configureScanRowsSensor() {
+    final Sensor sensor = metrics.sensor(
+        PULL_QUERY_METRIC_GROUP + "-" + PULL_REQUESTS + "-scan-rows");
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-scan-rows-total",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Total number of rows read from local state stores by table scans",
+            customMetricsTags
+        ),
+        new CumulativeSum()
+    );
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-scan-rows-rate",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Rate of rows read from local state stores by table scans",
+            customMetricsTags
+        ),
+        new Rate()
+    );
+    sensors.add(sensor);
+    return sensor;
+  }
+
+  private Sensor configureHedgeSensor(final String name, final String description) {
+    final Sensor sensor = metrics.sensor(
+        PULL_QUERY_METRIC_GROUP + "-" + PULL_REQUESTS + "-" + name);
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-" + name + "-count",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Count of pull query requests to hosts " + description,
+            customMetricsTags
+        ),
+        new WindowedCount()
+    );
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-" + name + "-rate",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Rate of pull query requests to hosts " + description,
+            customMetricsTags
+        ),
+        new Rate()
+    );
+    sensors.add(sensor);
+    return sensor;
+  }
+
+  private HostSensors hostSensors(final String host) {
+    final long nowMs = time.milliseconds();
+    removeIdleHosts(nowMs);
+
+    return hostSensors.compute(host, (h, existing) -> {
+      final HostSensors sensors = existing == null ? newHostSensors(h) : existing;
+      sensors.lastRecordedMs = nowMs;
+      return sensors;
+    });
+  }
+
+  private HostSensors newHostSensors(final String host) {
+    final Map<String, String> tags = ImmutableMap.<String, String>builder()
+        .putAll(customMetricsTags)
+        .put(HOST_TAG, host)
+        .build();
+
+    return new HostSensors(
+        configureHostLatencySensor(host, tags),
+        configureHostInFlightSensor(host, tags)
+    );
+  }
+
+  /**
+   * Remove the sensors of the hosts that have not been recorded for {@link #IDLE_HOST_MS}. Hosts
+   * are checked at most once per that period.
+   */
+  private void removeIdleHosts(final long nowMs) {
+    final long next = nextIdleCheckMs.get();
+    if (nowMs < next || !nextIdleCheckMs.compareAndSet(next, nowMs + IDLE_HOST_MS)) {
+      return;
+    }
+
+    for (final String host : hostSensors.keySet()) {
+      hostSensors.computeIfPresent(host, (h, sensors) -> {
+        if (nowMs - sensors.lastRecordedMs < IDLE_HOST_MS) {
+          return sensors;
+        }
+        removeSensors(sensors);
+        return null;
+      });
+    }
+  }
+
+  private void removeSensors(final HostSensors host) {
+    metrics.removeSensor(host.latencySensor.name());
+    metrics.removeSensor(host.inFlightSensor.name());
+  }
+
+  private Sensor configureHostLatencySensor(final String host, final Map<String, String> tags) {
+    final Sensor sensor = metrics.sensor(
+        PULL_QUERY_METRIC_GROUP + "-" + PULL_REQUESTS + "-host-latency-" + host);
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-host-latency-avg",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Average time for a successful pull query request routed to a host",
+            tags
+        ),
+        new Avg()
+    );
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-host-latency-max",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Max time for a successful pull query request routed to a host",
+            tags
+        ),
+        new Max()
+    );
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-host-rate",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Rate of pull query requests routed to a host",
+            tags
+        ),
+        new Rate()
+    );
+    return sensor;
+  }
+
+  private Sensor configureHostInFlightSensor(final String host, final Map<String, String> tags) {
+    final Sensor sensor = metrics.sensor(
+        PULL_QUERY_METRIC_GROUP + "-" + PULL_REQUESTS + "-host-in-flight-" + host);
+    sensor.add(
+        metrics.metricName(
+            PULL_REQUESTS + "-host-in-flight",
+            ksqlServiceId + PULL_QUERY_METRIC_GROUP,
+            "Number of pull query requests routed to a host that are still in flight",
+            tags
+        ),
+        new Value()
+    );
+    return sensor;
+  }
+
+  private static final class HostSensors {
+
+    private final Sensor latencySensor;
+    private final Sensor inFlightSensor;
+    private volatile long lastRecordedMs;
+
+    private HostSensors(final Sensor latencySensor, final Sensor inFlightSensor) {
+      this.latencySensor = Objects.requireNonNull(latencySensor, "latencySensor");
+      this.inFlightSensor = Objects.requireNonNull(inFlightSensor, "inFlightSensor");
+    }
+  }
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
+import io.confluent.ksql.execution.streams.materialization.Locator.KsqlPartitionLocation;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.apache.kafka.connect.data.Struct;
+
+/**
+ * Tracks the latency and load of the requests of pull queries to each host, and orders the hosts
+ * able to serve a partition by their expected latency.
+ *
+ * <p>The latency of each host is an exponentially weighted moving average of its recent
+ * successful requests. Failed requests are not included, as their latency says little about
+ * how long a request that succeeds would take. The expected latency of a request to a host is
+ * that average scaled by the number of requests already in flight to it, so a host that has
+ * slowed down, e.g. due to a GC pause, is avoided both once its slow requests complete and while
+ * they are still outstanding. Hosts not yet queried have no latency, so are tried first, to
+ * learn it.
+ *
+ * <p>Hosts that have not been sent a request for {@link #IDLE_HOST_NANOS}, e.g. because they have
+ * left the cluster, are forgotten.
+ */
+final class PullQueryHostStats {
+
+  /**
+   * The weight of the latest request in the moving average of a host's latency.
+   */
+  static final double LATENCY_WEIGHT = 0.2;
+
+  /**
+   * How long a host may go without requests before it is forgotten.
+   */
+  static final long IDLE_HOST_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+  private final Map<KsqlNode, HostStats> hosts = new ConcurrentHashMap<>();
+  private final LongSupplier nanoClock;
+  private final AtomicLong nextIdleCheckNanos;
+
+  PullQueryHostStats() {
+    this(System::nanoTime);
+  }
+
+  @VisibleForTesting
+  PullQueryHostStats(final LongSupplier nanoClock) {
+    this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+    this.nextIdleCheckNanos = new AtomicLong(nanoClock.getAsLong() + IDLE_HOST_NANOS);
+  }
+
+  /**
+   * Record the start of a request to {@code node}.
+   */
+  void requestStarted(final KsqlNode node) {
+    final long nowNanos = nanoClock.getAsLong();
+    removeIdleHosts(nowNanos);
+
+    hosts.compute(node, (n, existing) -> {
+      final HostStats stats = existing == null ? new HostStats() : existing;
+      stats.inFlight.incrementAndGet();
+      stats.lastRequestNanos = nowNanos;
+      return stats;
+    });
+  }
+
+  /**
+   * Record the end of a request to {@code node} previously started.
+   *
+   * @param node the node.
+   * @param latencyNanos the time taken by the request.
+   * @param succeeded whether the request succeeded. Only successful requests count towards the
+   *     latency of the host.
+   */
+  void requestCompleted(final KsqlNode node, final long latencyNanos, final boolean succeeded) {
+    // Hosts with requests in flight are never removed:
+    final HostStats stats = hosts.get(node);
+    if (stats == null) {
+      return;
+    }
+
+    stats.inFlight.decrementAndGet();
+    if (succeeded) {
+      stats.recordLatency(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+  }
+
+
+  /**
+   * @return the moving average of the latency of requests to {@code node}, in microseconds.
+   */
+  double latencyMicros(final KsqlNode node) {
+    final HostStats stats = hosts.get(node);
+    return stats == null ? 0 : stats.latencyMicros;
+  }
+
+  /**
+   * @return the number of requests to {@code node} started but not completed.
+   */
+  long inFlight(final KsqlNode node) {
+    final HostStats stats = hosts.get(node);
+    return stats == null ? 0 : stats.inFlight.get();
+  }
+
+  /**
+   * @return the expected latency of a request to {@code node}, in microseconds.
+   */
+  double expectedLatencyMicros(final KsqlNode node) {
+    return latencyMicros(node) * (inFlight(node) + 1);
+  }
+
+  /**
+   * Order the nodes of each of the supplied {@code locations} by their expected latency. Nodes
+   * with the same expected latency keep their order, e.g. active first.
+   *
+   * @param locations the locations, as returned by the locator.
+   * @return the locations, with their nodes reordered.
+   */
+  List<KsqlPartitionLocation> order(final List<KsqlPartitionLocation> locations) {
+    // Take one snapshot of the expected latencies, as they change while being sorted:
+    final Map<KsqlNode, Double> expectedLatencies = new HashMap<>();
+    final Comparator<KsqlNode> byExpectedLatency = Comparator.comparingDouble(
+        node -> expectedLatencies.computeIfAbsent(node, this::expectedLatencyMicros));
+
+    final ImmutableList.Builder<KsqlPartitionLocation> ordered = ImmutableList.builder();
+    for (final KsqlPartitionLocation location : locations) {
+      if (location.getNodes().size() < 2) {
+        ordered.add(location);
+        continue;
+      }
+
+      final List<KsqlNode> nodes = new ArrayList<>(location.getNodes());
+      nodes.sort(byExpectedLatency);
+      ordered.add(new OrderedLocation(location, nodes));
+    }
+    return ordered.build();
+  }
+
+  /**
+   * Forget the hosts that have had no requests for {@link #IDLE_HOST_NANOS}. Hosts are checked at
+   * most once per that period.
+   */
+  private void removeIdleHosts(final long nowNanos) {
+    final long next = nextIdleCheckNanos.get();
+    if (nowNanos - next < 0
+        || !nextIdleCheckNanos.compareAndSet(next, nowNanos + IDLE_HOST_NANOS)) {
+      return;
+    }
+
+    for (final KsqlNode node : hosts.keySet()) {
+      hosts.computeIfPresent(node, (n, stats) -> stats.inFlight.get() == 0
+          && nowNanos - stats.lastRequestNanos >= IDLE_HOST_NANOS ? null : stats);
+    }
+  }
+
+  private static final class HostStats {
+
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile long lastRequestNanos;
+    private volatile double latencyMicros;
+    private boolean sampled;
+
+    synchronized void recordLatency(final double micros) {
+      latencyMicros = sampled
+          ? LATENCY_WEIGHT * micros + (1 - LATENCY_WEIGHT) * latencyMicros
+          : micros;
+      sampled = true;
+    }
+  }
+
+  private static final class OrderedLocation implements KsqlPartitionLocation {
+
+    private final KsqlPartitionLocation location;
+    private final List<KsqlNode> nodes;
+
+    OrderedLocation(final KsqlPartitionLocation location, final List<KsqlNode> nodes) {
+      this.location = Objects.requireNonNull(location, "location");
+      this.nodes = ImmutableList.copyOf(nodes);
+    }
+
+    @Override
+    public List<KsqlNode> getNodes() {
+      return nodes;
+    }
+
+    @Override
+    public int getPartition() {
+      return location.getPartition();
+    }
+
+    @Override
+    public Optional<Set<Struct>> getKeys() {
+      return location.getKeys();
+    }
+  }
+}
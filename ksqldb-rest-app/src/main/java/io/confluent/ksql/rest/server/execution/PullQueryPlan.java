@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.KsqlExecutionContext;
+import io.confluent.ksql.analyzer.ImmutableAnalysis;
+import io.confluent.ksql.execution.expression.tree.Expression;
+import io.confluent.ksql.execution.streams.materialization.TableRow;
+import io.confluent.ksql.logging.processing.ProcessingLogger;
+import io.confluent.ksql.metastore.MetaStore;
+import io.confluent.ksql.metastore.model.DataSource;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.util.PersistentQueryMetadata;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The parts of a pull query's execution plan that do not depend on the key or window bounds
+ * in its {@code WHERE} clause, and can therefore be shared between requests that differ only
+ * in those literals.
+ *
+ * <p>The analysis held here is of the query without its {@code WHERE} clause: each request's
+ * clause must be validated and extracted from its own statement. The compiled projection is
+ * bound to a request's processing logger when used. Table scans, which do depend on the
+ * {@code WHERE} clause, are cached per clause, so repeated scans with the same clause are only
+ * compiled once.
+ */
+final class PullQueryPlan {
+
+  private static final int MAX_TABLE_SCANS = 64;
+
+  private final ImmutableAnalysis analysis;
+  private final PersistentQueryMetadata query;
+  private final DataSource source;
+  private volatile Projection projection;
+  private final Cache<Optional<Expression>, TableScan> tableScans = CacheBuilder.newBuilder()
+      .maximumSize(MAX_TABLE_SCANS)
+      .build();
+
+  PullQueryPlan(
+      final ImmutableAnalysis analysis,
+      final PersistentQueryMetadata query
+  ) {
+    this.analysis = requireNonNull(analysis, "analysis");
+    this.query = requireNonNull(query, "query");
+    this.source = analysis.getFrom().getDataSource();
+  }
+
+  ImmutableAnalysis getAnalysis() {
+    return analysis;
+  }
+
+  PersistentQueryMetadata getQuery() {
+    return query;
+  }
+
+  /**
+   * Returns the compiled projection, compiling it on first use.
+   *
+   * <p>Concurrent first uses may compile more than once; the last one wins.
+   */
+  Projection getProjection(final Supplier<Projection> compiler) {
+    Projection compiled = projection;
+    if (compiled == null) {
+      compiled = compiler.get();
+      projection = compiled;
+    }
+    return compiled;
+  }
+
+  /**
+   * Returns the compiled scan for the supplied {@code WHERE} clause, compiling it on first use.
+   *
+   * <p>Concurrent first uses may compile more than once; the last one wins.
+   */
+  TableScan getTableScan(final Optional<Expression> where, final Supplier<TableScan> compiler) {
+    TableScan compiled = tableScans.getIfPresent(where);
+    if (compiled == null) {
+      compiled = compiler.get();
+      tableScans.put(where, compiled);
+    }
+    return compiled;
+  }
+
+  /**
+   * @return {@code true} if the source and materializing query this plan was built against are
+   *     still the ones registered with the engine, i.e. they have not been dropped or replaced.
+   */
+  boolean isValid(final KsqlExecutionContext executionContext) {
+    final MetaStore metaStore = executionContext.getMetaStore();
+    if (metaStore.getSource(source.getName()) != source) {
+      return false;
+    }
+
+    if (!metaStore.getQueriesWithSink(source.getName())
+        .equals(ImmutableSet.of(query.getQueryId().toString()))) {
+      return false;
+    }
+
+    final Optional<PersistentQueryMetadata> current = executionContext
+        .getPersistentQuery(query.getQueryId());
+
+    return current.isPresent() && current.get() == query;
+  }
+
+  static final class Projection {
+
+    private final LogicalSchema outputSchema;
+    private final Function<ProcessingLogger, Function<TableRow, List<?>>> mapperFactory;
+
+    Projection(
+        final LogicalSchema outputSchema,
+        final Function<ProcessingLogger, Function<TableRow, List<?>>> mapperFactory
+    ) {
+      this.outputSchema = requireNonNull(outputSchema, "outputSchema");
+      this.mapperFactory = requireNonNull(mapperFactory, "mapperFactory");
+    }
+
+    LogicalSchema getOutputSchema() {
+      return outputSchema;
+    }
+
+    /**
+     * @param logger the logger for errors evaluating the projection in this request.
+     * @return the mapper of the request's rows to the projected values.
+     */
+    Function<TableRow, List<?>> getMapper(final ProcessingLogger logger) {
+      return mapperFactory.apply(logger);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.confluent.ksql.KsqlExecutionContext;
+import io.confluent.ksql.parser.tree.Query;
+import io.confluent.ksql.statement.ConfiguredStatement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of {@link PullQueryPlan}s.
+ *
+ * <p>Plans are keyed on the statement with its {@code WHERE} clause removed, plus the session's
+ * config overrides, so that lookups differing only in the key or window bounds share a plan.
+ * Plans are built from the statement without its {@code WHERE} clause, so a shared plan holds
+ * nothing specific to any one request's clause. A cached plan is discarded on lookup if the
+ * table or its materializing query has since been dropped or replaced.
+ */
+final class PullQueryPlanCache {
+
+  private final Cache<Key, PullQueryPlan> cache;
+
+  PullQueryPlanCache(final long maxSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  PullQueryPlan plan(
+      final ConfiguredStatement<Query> statement,
+      final KsqlExecutionContext executionContext,
+      final Optional<PullQueryExecutorMetrics> pullQueryMetrics,
+      final Function<Query, PullQueryPlan> planner
+  ) {
+    final Key key = Key.of(statement);
+
+    final PullQueryPlan cached = cache.getIfPresent(key);
+    if (cached != null && cached.isValid(executionContext)) {
+      pullQueryMetrics.ifPresent(metrics -> metrics.recordPlanCacheHit(1));
+      return cached;
+    }
+
+    pullQueryMetrics.ifPresent(metrics -> metrics.recordPlanCacheMiss(1));
+    final PullQueryPlan plan = planner.apply(key.shape);
+    cache.put(key, plan);
+    return plan;
+  }
+
+  @VisibleForTesting
+  long size() {
+    cache.cleanUp();
+    return cache.size();
+  }
+
+  private static final class Key {
+
+    private final Query shape;
+    private final Map<String, Object> overrides;
+
+    static Key of(final ConfiguredStatement<Query> statement) {
+      final Query query = statement.getStatement();
+      final Query shape = new Query(
+          Optional.empty(),
+          query.getSelect(),
+          query.getFrom(),
+          query.getWindow(),
+          Optional.empty(),
+          query.getGroupBy(),
+          query.getPartitionBy(),
+          query.getHaving(),
+          query.getRefinement(),
+          query.isPullQuery(),
+          query.getLimit()
+      );
+
+      return new Key(shape, statement.getSessionConfig().getOverrides());
+    }
+
+    private Key(final Query shape, final Map<String, ?> overrides) {
+      this.shape = Objects.requireNonNull(shape, "shape");
+      this.overrides = Collections.unmodifiableMap(new HashMap<>(overrides));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key that = (Key) o;
+      return Objects.equals(shape, that.shape)
+          && Objects.equals(overrides, that.overrides);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(shape, overrides);
+    }
+  }
+}
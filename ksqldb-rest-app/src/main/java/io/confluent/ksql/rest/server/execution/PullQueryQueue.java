@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Collection;
+import java.util.OptionalInt;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A queue of rows for pull queries, passing them from the threads reading them, locally or from
+ * other hosts, to the thread writing them to the client.
+ *
+ * <p>The queue is bounded: producers block while it is full, so rows are only read as fast as
+ * the client consumes them. Once the query's {@code LIMIT} is reached, or the queue is closed,
+ * {@link #acceptRow} returns {@code false} to tell producers to stop reading.
+ *
+ * <p>Producers run on thread pools shared by all pull queries, so the total time they may spend
+ * blocked on a query's queue is bounded. Once a slow client has used up that time, the query
+ * fails: {@link #acceptRow} throws, in every producer, freeing their threads.
+ */
+public final class PullQueryQueue {
+
+  public static final int BLOCKING_QUEUE_CAPACITY = 500;
+
+  private final BlockingQueue<PullQueryRow> rowQueue;
+  private final OptionalInt limit;
+  private final int offerTimeoutMs;
+  private final long maxBlockedMs;
+  private final AtomicInteger numAccepted = new AtomicInteger();
+  private final AtomicLong blockedNanos = new AtomicLong();
+  private volatile Runnable queuedCallback = () -> { };
+  private volatile boolean closed = false;
+  private volatile boolean blockedTooLong = false;
+
+  public PullQueryQueue(final OptionalInt limit) {
+    this(limit, KsqlConfig.KSQL_QUERY_PULL_MAX_BLOCKED_MS_DEFAULT);
+  }
+
+  /**
+   * @param limit the query's {@code LIMIT}, if any.
+   * @param maxBlockedMs the total time producers may block on the full queue before the query
+   *     fails.
+   */
+  public PullQueryQueue(final OptionalInt limit, final long maxBlockedMs) {
+    this(limit, BLOCKING_QUEUE_CAPACITY, 100, maxBlockedMs);
+  }
+
+  @VisibleForTesting
+  PullQueryQueue(
+      final OptionalInt limit,
+      final int queueSizeLimit,
+      final int offerTimeoutMs,
+      final long maxBlockedMs
+  ) {
+    this.limit = limit;
+    this.rowQueue = new ArrayBlockingQueue<>(queueSizeLimit);
+    this.offerTimeoutMs = offerTimeoutMs;
+    this.maxBlockedMs = maxBlockedMs;
+  }
+
+  /**
+   * @param queuedCallback called each time a row is queued.
+   */
+  public void setQueuedCallback(final Runnable queuedCallback) {
+    this.queuedCallback = queuedCallback;
+  }
+
+  public PullQueryRow poll(final long timeout, final TimeUnit unit)
+      throws InterruptedException {
+    return rowQueue.poll(timeout, unit);
+  }
+
+  public PullQueryRow poll() {
+    return rowQueue.poll();
+  }
+
+  public void drainTo(final Collection<? super PullQueryRow> collection) {
+    rowQueue.drainTo(collection);
+  }
+
+  public int size() {
+    return rowQueue.size();
+  }
+
+  public boolean isEmpty() {
+    return rowQueue.isEmpty();
+  }
+
+  /**
+   * Close the queue, e.g. because the client is no longer interested in the results. Any rows
+   * still queued are discarded and producers are told to stop.
+   */
+  public void close() {
+    closed = true;
+    rowQueue.clear();
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Queue a row, blocking while the queue is full.
+   *
+   * @param row the row to queue.
+   * @return {@code true} if the producer should continue to supply rows, or {@code false} if
+   *     the queue is closed or the limit has been reached.
+   * @throws KsqlException if producers have blocked on the queue for longer than allowed.
+   */
+  public boolean acceptRow(final PullQueryRow row) {
+    if (closed) {
+      return false;
+    }
+
+    throwIfBlockedTooLong();
+
+    final int num = numAccepted.incrementAndGet();
+    if (limit.isPresent() && num > limit.getAsInt()) {
+      return false;
+    }
+
+    if (rowQueue.offer(row)) {
+      return queued(num);
+    }
+
+    final long start = System.nanoTime();
+    try {
+      while (!closed) {
+        if (rowQueue.offer(row, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+          return queued(num);
+        }
+
+        final long blocked = blockedNanos.get() + System.nanoTime() - start;
+        if (blocked > TimeUnit.MILLISECONDS.toNanos(maxBlockedMs)) {
+          blockedTooLong = true;
+        }
+        throwIfBlockedTooLong();
+      }
+    } catch (final InterruptedException e) {
+      // Forced shutdown?
+      Thread.currentThread().interrupt();
+    } finally {
+      blockedNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    return false;
+  }
+
+  private boolean queued(final int num) {
+    queuedCallback.run();
+    return !limit.isPresent() || num < limit.getAsInt();
+  }
+
+  private void throwIfBlockedTooLong() {
+    if (blockedTooLong) {
+      throw new KsqlException("Pull query terminated as its client did not read its rows within "
+          + maxBlockedMs + "ms. See " + KsqlConfig.KSQL_QUERY_PULL_MAX_BLOCKED_MS_CONFIG + ".");
+    }
+  }
+}
@@ -15,29 +15,59 @@
 
 package io.confluent.ksql.rest.server.execution;
 
-import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
-import io.confluent.ksql.rest.entity.TableRows;
-import java.util.List;
-import java.util.Optional;
+import static java.util.Objects.requireNonNull;
 
-public class PullQueryResult {
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import java.util.concurrent.CompletableFuture;
 
-  private final TableRows tableRows;
-  private final Optional<List<KsqlNode>> sourceNodes;
+/**
+ * The result of a pull query, whose rows are made available through its queue as they are read,
+ * rather than once they have all been gathered.
+ */
+public final class PullQueryResult {
+
+  private final LogicalSchema schema;
+  private final QueryId queryId;
+  private final PullQueryQueue rowQueue;
+  private final CompletableFuture<Void> completion;
 
   public PullQueryResult(
-      final TableRows tableRowsEntity,
-      final Optional<List<KsqlNode>> sourceNodes) {
+      final LogicalSchema schema,
+      final QueryId queryId,
+      final PullQueryQueue rowQueue,
+      final CompletableFuture<Void> completion
+  ) {
+    this.schema = requireNonNull(schema, "schema");
+    this.queryId = requireNonNull(queryId, "queryId");
+    this.rowQueue = requireNonNull(rowQueue, "rowQueue");
+    this.completion = requireNonNull(completion, "completion");
+  }
+
+  public LogicalSchema getSchema() {
+    return schema;
+  }
+
+  public QueryId getQueryId() {
+    return queryId;
+  }
 
-    this.tableRows = tableRowsEntity;
-    this.sourceNodes = sourceNodes;
+  public PullQueryQueue getRowQueue() {
+    return rowQueue;
   }
 
-  public TableRows getTableRows() {
-    return tableRows;
+  /**
+   * @return a future that completes once every row of the result has been queued, or the limit
+   *     has been reached, and completes exceptionally if the query fails part way through.
+   */
+  public CompletableFuture<Void> getCompletion() {
+    return completion;
   }
 
-  public Optional<List<KsqlNode>> getSourceNodes() {
-    return sourceNodes;
+  /**
+   * Stop the query, e.g. because the client has gone away. No further rows are queued.
+   */
+  public void stop() {
+    rowQueue.close();
   }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static java.util.Objects.requireNonNull;
+
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
+import io.confluent.ksql.rest.entity.KsqlHostInfoEntity;
+import io.confluent.ksql.rest.entity.StreamedRow;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A single row of a pull query's result.
+ */
+public final class PullQueryRow {
+
+  private final List<?> row;
+  private final Optional<KsqlNode> sourceNode;
+
+  /**
+   * @param row the values of the row's columns.
+   * @param sourceNode the node the row was read from, if this is a debug request.
+   */
+  public PullQueryRow(final List<?> row, final Optional<KsqlNode> sourceNode) {
+    this.row = requireNonNull(row, "row");
+    this.sourceNode = requireNonNull(sourceNode, "sourceNode");
+  }
+
+  public List<?> getRow() {
+    return row;
+  }
+
+  public Optional<KsqlNode> getSourceNode() {
+    return sourceNode;
+  }
+
+  public GenericRow getGenericRow() {
+    return new GenericRow(row.size()).appendAll(row);
+  }
+
+  public StreamedRow toStreamedRow() {
+    return StreamedRow.pullRow(
+        getGenericRow(),
+        sourceNode.map(node ->
+            new KsqlHostInfoEntity(node.location().getHost(), node.location().getPort()))
+    );
+  }
+}
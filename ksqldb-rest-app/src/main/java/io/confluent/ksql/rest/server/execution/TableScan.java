@@ -0,0 +1,313 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.expression.tree.ComparisonExpression;
+import io.confluent.ksql.execution.expression.tree.ComparisonExpression.Type;
+import io.confluent.ksql.execution.expression.tree.Expression;
+import io.confluent.ksql.execution.expression.tree.InPredicate;
+import io.confluent.ksql.execution.expression.tree.Literal;
+import io.confluent.ksql.execution.expression.tree.LogicalBinaryExpression;
+import io.confluent.ksql.execution.expression.tree.StringLiteral;
+import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
+import io.confluent.ksql.execution.streams.materialization.MaterializedTable;
+import io.confluent.ksql.execution.streams.materialization.PullProcessingContext;
+import io.confluent.ksql.execution.streams.materialization.Row;
+import io.confluent.ksql.execution.streams.materialization.TableRow;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
+import io.confluent.ksql.execution.transform.sqlpredicate.SqlPredicate;
+import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.logging.processing.ProcessingLogger;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.schema.ksql.Column;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import io.confluent.ksql.serde.FormatFactory;
+import io.confluent.ksql.serde.KeyFormat;
+import io.confluent.ksql.serde.connect.ConnectSchemas;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import org.apache.kafka.connect.data.ConnectSchema;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+
+/**
+ * A pull query against a non-windowed table that is answered by scanning the table's partitions,
+ * rather than by looking up keys.
+ *
+ * <p>The {@code WHERE} clause, if any, is evaluated against each row as it is read, so only
+ * matching rows are passed on. Where the clause bounds a single {@code STRING} key column in the
+ * {@code KAFKA} format, only the part of the store that can match is read: such keys are stored
+ * as their UTF-8 bytes, whose order is the order of the strings as long as the bounds contain no
+ * characters from U+D800 upwards.
+ */
+final class TableScan {
+
+  private static final char MAX_ORDERED_CHAR = '\uD7FF';
+
+  private final Optional<Range<String>> keyRange;
+  private final Optional<KsqlTransformer<Object, Optional<GenericRow>>> filter;
+  private final ConnectSchema keySchema;
+
+  /**
+   * @param where the query's {@code WHERE} clause, if any.
+   * @param schema the schema of the materialized table.
+   * @param keyFormat the key format of the table.
+   * @param ksqlConfig the config to compile the {@code WHERE} clause with.
+   * @param functionRegistry the function registry.
+   * @param logger the logger for errors evaluating the {@code WHERE} clause.
+   * @return the scan.
+   */
+  static TableScan create(
+      final Optional<Expression> where,
+      final LogicalSchema schema,
+      final KeyFormat keyFormat,
+      final KsqlConfig ksqlConfig,
+      final FunctionRegistry functionRegistry,
+      final ProcessingLogger logger
+  ) {
+    final Optional<KsqlTransformer<Object, Optional<GenericRow>>> filter = where
+        .map(exp -> new SqlPredicate(
+            exp,
+            schema.withPseudoAndKeyColsInValue(false),
+            ksqlConfig,
+            functionRegistry
+        ).getTransformer(logger));
+
+    final Optional<Range<String>> keyRange = where
+        .filter(exp -> isOrderedStringKey(schema, keyFormat))
+        .flatMap(exp -> keyRange(exp, schema.key().get(0).name()));
+
+    return new TableScan(
+        keyRange,
+        filter,
+        ConnectSchemas.columnsToConnectSchema(schema.key())
+    );
+  }
+
+  /**
+   * @return {@code true} if the {@code WHERE} clause is a lookup of specific keys of the table,
+   *     i.e. a single comparison of the key column for equality with a literal, or a single
+   *     {@code IN} on the key column, that can be answered without a scan.
+   */
+  static boolean isKeyLookup(final Optional<Expression> where, final LogicalSchema schema) {
+    if (!where.isPresent() || schema.key().size() != 1) {
+      return false;
+    }
+
+    final Expression exp = where.get();
+    final ColumnName keyColumn = schema.key().get(0).name();
+
+    if (exp instanceof InPredicate) {
+      return isColumn(((InPredicate) exp).getValue(), keyColumn);
+    }
+
+    if (!(exp instanceof ComparisonExpression)) {
+      return false;
+    }
+
+    final ComparisonExpression comparison = (ComparisonExpression) exp;
+    if (comparison.getType() != Type.EQUAL) {
+      return false;
+    }
+
+    return (isColumn(comparison.getLeft(), keyColumn) && comparison.getRight() instanceof Literal)
+        || (isColumn(comparison.getRight(), keyColumn) && comparison.getLeft() instanceof Literal);
+  }
+
+  @VisibleForTesting
+  TableScan(
+      final Optional<Range<String>> keyRange,
+      final Optional<KsqlTransformer<Object, Optional<GenericRow>>> filter,
+      final ConnectSchema keySchema
+  ) {
+    this.keyRange = requireNonNull(keyRange, "keyRange");
+    this.filter = requireNonNull(filter, "filter");
+    this.keySchema = requireNonNull(keySchema, "keySchema");
+  }
+
+  @VisibleForTesting
+  Optional<Range<String>> getKeyRange() {
+    return keyRange;
+  }
+
+  /**
+   * Scan a partition of the table, passing the rows that match the {@code WHERE} clause to the
+   * {@code consumer} as they are read.
+   *
+   * @param table the table to scan.
+   * @param partition the partition to scan.
+   * @param rowsScanned incremented for each row read, whether it matches or not.
+   * @param consumer called with each matching row, returns {@code false} to stop the scan.
+   * @return {@code false} if the scan was stopped by the consumer.
+   */
+  boolean scan(
+      final MaterializedTable table,
+      final int partition,
+      final LongAdder rowsScanned,
+      final Predicate<? super TableRow> consumer
+  ) {
+    final Predicate<Row> filtered = row -> {
+      rowsScanned.increment();
+      return !matches(row) || consumer.test(row);
+    };
+
+    if (!keyRange.isPresent() || !keyRange.get().hasUpperBound()) {
+      return table.scan(partition, filtered);
+    }
+
+    final Range<String> range = keyRange.get();
+    if (range.isEmpty()) {
+      return true;
+    }
+
+    // The store's range is inclusive, and any open bounds are applied by the filter:
+    final String from = range.hasLowerBound() ? range.lowerEndpoint() : "";
+    return table.scan(partition, asKey(from), asKey(range.upperEndpoint()), filtered);
+  }
+
+  private boolean matches(final TableRow row) {
+    if (!filter.isPresent()) {
+      return true;
+    }
+
+    // The filter expects the rowTime & key fields in the value. Copy the value, as the
+    // projection appends these to the original:
+    final Struct key = row.key();
+    final List<Field> keyFields = key.schema().fields();
+    final GenericRow value = new GenericRow(row.value().size() + 1 + keyFields.size())
+        .appendAll(row.value().values())
+        .append(row.rowTime());
+
+    for (final Field field : keyFields) {
+      value.append(key.get(field));
+    }
+
+    return filter.get()
+        .transform(key, value, new PullProcessingContext(row.rowTime()))
+        .isPresent();
+  }
+
+  private Struct asKey(final String value) {
+    final Struct key = new Struct(keySchema);
+    key.put(keySchema.fields().get(0), value);
+    return key;
+  }
+
+  private static boolean isOrderedStringKey(final LogicalSchema schema, final KeyFormat format) {
+    final List<Column> key = schema.key();
+    return key.size() == 1
+        && key.get(0).type().equals(SqlTypes.STRING)
+        && format.getFormat().equals(FormatFactory.KAFKA.name());
+  }
+
+  private static Optional<Range<String>> keyRange(
+      final Expression where,
+      final ColumnName keyColumn
+  ) {
+    Range<String> range = Range.all();
+    boolean bounded = false;
+
+    for (final Expression conjunct : conjuncts(where)) {
+      final Optional<Range<String>> bound = keyBound(conjunct, keyColumn);
+      if (!bound.isPresent()) {
+        continue;
+      }
+
+      bounded = true;
+      if (!range.isConnected(bound.get())) {
+        return Optional.of(Range.closedOpen("", ""));
+      }
+      range = range.intersection(bound.get());
+    }
+
+    return bounded ? Optional.of(range) : Optional.empty();
+  }
+
+  private static List<Expression> conjuncts(final Expression exp) {
+    if (exp instanceof LogicalBinaryExpression
+        && ((LogicalBinaryExpression) exp).getType() == LogicalBinaryExpression.Type.AND) {
+      final LogicalBinaryExpression and = (LogicalBinaryExpression) exp;
+      return ImmutableList.<Expression>builder()
+          .addAll(conjuncts(and.getLeft()))
+          .addAll(conjuncts(and.getRight()))
+          .build();
+    }
+
+    return ImmutableList.of(exp);
+  }
+
+  private static Optional<Range<String>> keyBound(
+      final Expression exp,
+      final ColumnName keyColumn
+  ) {
+    if (!(exp instanceof ComparisonExpression)) {
+      return Optional.empty();
+    }
+
+    final ComparisonExpression comparison = (ComparisonExpression) exp;
+    final boolean inverted = isColumn(comparison.getRight(), keyColumn);
+    final Expression column = inverted ? comparison.getRight() : comparison.getLeft();
+    final Expression other = inverted ? comparison.getLeft() : comparison.getRight();
+
+    if (!isColumn(column, keyColumn) || !(other instanceof StringLiteral)) {
+      return Optional.empty();
+    }
+
+    final String value = ((StringLiteral) other).getValue();
+    if (value.chars().anyMatch(c -> c > MAX_ORDERED_CHAR)) {
+      return Optional.empty();
+    }
+
+    switch (comparison.getType()) {
+      case EQUAL:
+        return Optional.of(Range.singleton(value));
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+        return Optional.of(inverted
+            ? Range.downTo(value, boundType(comparison))
+            : Range.upTo(value, boundType(comparison)));
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+        return Optional.of(inverted
+            ? Range.upTo(value, boundType(comparison))
+            : Range.downTo(value, boundType(comparison)));
+      default:
+        return Optional.empty();
+    }
+  }
+
+  private static BoundType boundType(final ComparisonExpression comparison) {
+    return comparison.getType() == Type.LESS_THAN || comparison.getType() == Type.GREATER_THAN
+        ? BoundType.OPEN
+        : BoundType.CLOSED;
+  }
+
+  private static boolean isColumn(final Expression exp, final ColumnName column) {
+    return exp instanceof UnqualifiedColumnReferenceExp
+        && ((UnqualifiedColumnReferenceExp) exp).getColumnName().equals(column);
+  }
+}
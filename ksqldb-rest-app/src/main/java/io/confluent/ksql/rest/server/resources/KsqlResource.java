@@ -44,6 +44,7 @@ import io.confluent.ksql.rest.server.computation.DistributingExecutor;
 import io.confluent.ksql.rest.server.computation.ValidatedCommandFactory;
 import io.confluent.ksql.rest.server.execution.CustomExecutors;
 import io.confluent.ksql.rest.server.execution.DefaultCommandQueueSync;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
 import io.confluent.ksql.rest.server.execution.RequestHandler;
 import io.confluent.ksql.rest.server.validation.CustomValidators;
 import io.confluent.ksql.rest.server.validation.RequestValidator;
@@ -104,6 +105,7 @@ public class KsqlResource implements KsqlConfigurable {
   private final Optional<KsqlAuthorizationValidator> authorizationValidator;
   private final DenyListPropertyValidator denyListPropertyValidator;
   private final Supplier<String> commandRunnerWarning;
+  private final InsertsProducerPool insertsProducerPool;
   private RequestValidator validator;
   private RequestHandler handler;
   private final Errors errorHandler;
@@ -117,7 +119,8 @@ public class KsqlResource implements KsqlConfigurable {
       final ActivenessRegistrar activenessRegistrar,
       final Optional<KsqlAuthorizationValidator> authorizationValidator,
       final Errors errorHandler,
-      final DenyListPropertyValidator denyListPropertyValidator
+      final DenyListPropertyValidator denyListPropertyValidator,
+      final InsertsProducerPool insertsProducerPool
   ) {
     this(
         ksqlEngine,
@@ -128,10 +131,12 @@ public class KsqlResource implements KsqlConfigurable {
         authorizationValidator,
         errorHandler,
         denyListPropertyValidator,
-        commandRunner::getCommandRunnerDegradedWarning
+        commandRunner::getCommandRunnerDegradedWarning,
+        insertsProducerPool
     );
   }
 
+  // CHECKSTYLE_RULES.OFF: ParameterNumber
   KsqlResource(
       final KsqlEngine ksqlEngine,
       final CommandRunner commandRunner,
@@ -141,8 +146,10 @@ public class KsqlResource implements KsqlConfigurable {
       final Optional<KsqlAuthorizationValidator> authorizationValidator,
       final Errors errorHandler,
       final DenyListPropertyValidator denyListPropertyValidator,
-      final Supplier<String> commandRunnerWarning
+      final Supplier<String> commandRunnerWarning,
+      final InsertsProducerPool insertsProducerPool
   ) {
+    // CHECKSTYLE_RULES.ON: ParameterNumber
     this.ksqlEngine = Objects.requireNonNull(ksqlEngine, "ksqlEngine");
     this.commandRunner = Objects.requireNonNull(commandRunner, "commandRunner");
     this.distributedCmdResponseTimeout =
@@ -157,6 +164,8 @@ public class KsqlResource implements KsqlConfigurable {
         Objects.requireNonNull(denyListPropertyValidator, "denyListPropertyValidator");
     this.commandRunnerWarning =
         Objects.requireNonNull(commandRunnerWarning, "commandRunnerWarning");
+    this.insertsProducerPool =
+        Objects.requireNonNull(insertsProducerPool, "insertsProducerPool");
   }
 
   @Override
@@ -186,7 +195,7 @@ public class KsqlResource implements KsqlConfigurable {
     );
 
     this.handler = new RequestHandler(
-        CustomExecutors.EXECUTOR_MAP,
+        CustomExecutors.executorMap(insertsProducerPool),
         new DistributingExecutor(
             config,
             commandRunner.getCommandQueue(),
@@ -267,7 +276,8 @@ public class KsqlResource implements KsqlConfigurable {
               configProperties,
               localHost,
               localUrl,
-              requestConfig.getBoolean(KsqlRequestConfig.KSQL_REQUEST_INTERNAL_REQUEST)
+              requestConfig.getBoolean(KsqlRequestConfig.KSQL_REQUEST_INTERNAL_REQUEST),
+              securityContext.getUserPrincipal()
           ),
           request.getKsql()
       );
@@ -279,7 +289,8 @@ public class KsqlResource implements KsqlConfigurable {
               configProperties,
               localHost,
               localUrl,
-              requestConfig.getBoolean(KsqlRequestConfig.KSQL_REQUEST_INTERNAL_REQUEST)
+              requestConfig.getBoolean(KsqlRequestConfig.KSQL_REQUEST_INTERNAL_REQUEST),
+              securityContext.getUserPrincipal()
           )
       );
 
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.resources;
+
+import io.confluent.ksql.KsqlExecutionContext;
+import io.confluent.ksql.execution.profile.QueryProfile;
+import io.confluent.ksql.execution.profile.StepProfile;
+import io.confluent.ksql.rest.EndpointResponse;
+import io.confluent.ksql.rest.entity.QueryProfileInfo;
+import io.confluent.ksql.rest.entity.QueryProfilesResponse;
+import io.confluent.ksql.rest.entity.StepProfileInfo;
+import io.confluent.ksql.util.QueryMetadata;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks the profiled queries running on this server by their estimated processing time.
+ *
+ * <p>Queries are only profiled if {@code ksql.query.profiling.sample.interval} is set when they
+ * are started.
+ */
+public class QueryProfileResource {
+
+  private final KsqlExecutionContext ksqlEngine;
+
+  public QueryProfileResource(final KsqlExecutionContext ksqlEngine) {
+    this.ksqlEngine = Objects.requireNonNull(ksqlEngine, "ksqlEngine");
+  }
+
+  public EndpointResponse getProfiles() {
+    final List<QueryProfileInfo> profiles = ksqlEngine.getAllLiveQueries().stream()
+        .map(QueryMetadata::getQueryProfile)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .map(QueryProfileResource::toInfo)
+        .sorted(Comparator.comparingLong(QueryProfileInfo::getProcessingTimeNs).reversed())
+        .collect(Collectors.toList());
+
+    return EndpointResponse.ok(new QueryProfilesResponse(profiles));
+  }
+
+  private static QueryProfileInfo toInfo(final QueryProfile profile) {
+    return new QueryProfileInfo(
+        profile.getQueryId(),
+        profile.getEstimatedProcessingNanos(),
+        profile.getEstimatedCpuNanos(),
+        profile.getEstimatedAllocatedBytes(),
+        profile.getEstimatedSerdeNanos(),
+        profile.getSteps().stream()
+            .map(QueryProfileResource::toInfo)
+            .collect(Collectors.toList())
+    );
+  }
+
+  private static StepProfileInfo toInfo(final StepProfile step) {
+    return new StepProfileInfo(
+        step.getStepId(),
+        step.getRecordsIn(),
+        step.getRecordsOut(),
+        step.getEstimatedProcessingNanos(),
+        step.getEstimatedCpuNanos(),
+        step.getEstimatedAllocatedBytes(),
+        step.getEstimatedSerdeNanos()
+    );
+  }
+}
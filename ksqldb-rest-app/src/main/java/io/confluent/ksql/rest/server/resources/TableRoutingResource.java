@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.rest.server.resources;
+
+import io.confluent.ksql.name.SourceName;
+import io.confluent.ksql.rest.EndpointResponse;
+import io.confluent.ksql.rest.Errors;
+import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import java.util.Objects;
+
+/**
+ * Tells clients which hosts store each partition of a materialized table, and how its key is
+ * serialized, so that they can send pull queries for a key straight to a host that stores it.
+ */
+public class TableRoutingResource {
+
+  private final PullQueryExecutor pullQueryExecutor;
+  private final KsqlConfig ksqlConfig;
+
+  public TableRoutingResource(
+      final PullQueryExecutor pullQueryExecutor,
+      final KsqlConfig ksqlConfig
+  ) {
+    this.pullQueryExecutor = Objects.requireNonNull(pullQueryExecutor, "pullQueryExecutor");
+    this.ksqlConfig = Objects.requireNonNull(ksqlConfig, "ksqlConfig");
+  }
+
+  public EndpointResponse getRouting(final String table) {
+    try {
+      return EndpointResponse.ok(pullQueryExecutor.getRouting(SourceName.of(table), ksqlConfig));
+    } catch (final KsqlException e) {
+      return Errors.notFound(e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.resources.streaming;
+
+import io.confluent.ksql.api.server.StreamingOutput;
+import io.confluent.ksql.rest.Errors;
+import io.confluent.ksql.rest.PullQueryCodec;
+import io.confluent.ksql.rest.server.execution.PullQueryQueue;
+import io.confluent.ksql.rest.server.execution.PullQueryResult;
+import io.confluent.ksql.rest.server.execution.PullQueryRow;
+import io.confluent.ksql.util.KsqlException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the rows of a pull query forwarded from another server to the response as they are
+ * read, in the binary format of {@link PullQueryCodec}.
+ *
+ * <p>Rows already queued are written together, and only flushed once the queue is empty, so a
+ * result read faster than it can be sent goes out in fewer, larger writes.
+ */
+class BinaryPullQueryStreamWriter implements StreamingOutput {
+
+  private static final Logger log = LoggerFactory.getLogger(BinaryPullQueryStreamWriter.class);
+
+  private final PullQueryResult result;
+  private final long disconnectCheckInterval;
+  private volatile boolean responseClosed;
+  private boolean closed;
+
+  BinaryPullQueryStreamWriter(
+      final PullQueryResult result,
+      final long disconnectCheckInterval,
+      final CompletableFuture<Void> responseClosedFuture
+  ) {
+    this.result = Objects.requireNonNull(result, "result");
+    this.disconnectCheckInterval = disconnectCheckInterval;
+    responseClosedFuture.thenAccept(v -> {
+      responseClosed = true;
+      result.stop();
+    });
+  }
+
+  @Override
+  public void write(final OutputStream out) {
+    try {
+      out.write(PullQueryCodec.encodeHeader(result.getQueryId(), result.getSchema()));
+      out.flush();
+
+      final PullQueryQueue queue = result.getRowQueue();
+      final CompletableFuture<Void> completion = result.getCompletion();
+
+      while (!responseClosed) {
+        // Check for completion before polling, so no row queued before it completed is missed:
+        final boolean complete = completion.isDone();
+
+        final PullQueryRow row = queue.poll(disconnectCheckInterval, TimeUnit.MILLISECONDS);
+        if (row != null) {
+          out.write(PullQueryCodec.encodeRow(row.getRow()));
+          if (queue.isEmpty()) {
+            out.flush();
+          }
+        } else if (complete) {
+          break;
+        }
+      }
+
+      if (responseClosed) {
+        return;
+      }
+
+      try {
+        completion.join();
+      } catch (final CompletionException e) {
+        writeError(out, e.getCause() == null ? e : e.getCause());
+      }
+
+      out.flush();
+    } catch (final EOFException exception) {
+      // The forwarding server has stopped reading; we can stop writing
+      log.debug("Forwarded pull query terminated due to exception:" + exception.toString());
+    } catch (final InterruptedException exception) {
+      // The most likely cause of this is the server shutting down. Should just try to close
+      // gracefully, without writing any more to the connection stream.
+      log.warn("Interrupted while writing to connection stream");
+      Thread.currentThread().interrupt();
+    } catch (final Exception exception) {
+      log.error("Exception occurred while writing to connection stream: ", exception);
+    } finally {
+      close();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      result.stop();
+      closed = true;
+    }
+  }
+
+  private static void writeError(final OutputStream out, final Throwable exception)
+      throws IOException {
+    final Throwable cause = exception.getCause() instanceof KsqlException
+        ? exception.getCause()
+        : exception;
+
+    final String message = cause.getMessage() == null ? cause.toString() : cause.getMessage();
+    out.write(PullQueryCodec.encodeError(Errors.ERROR_CODE_SERVER_ERROR, message));
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2019 Confluent Inc.
+ * Copyright 2020 Confluent Inc.
  *
  * Licensed under the Confluent Community License (the "License"); you may not use
  * this file except in compliance with the License.  You may obtain a copy of the
@@ -18,31 +18,33 @@ package io.confluent.ksql.rest.server.resources.streaming;
 import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
-import io.confluent.ksql.GenericRow;
-import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import io.confluent.ksql.parser.tree.Query;
-import io.confluent.ksql.rest.entity.KsqlHostInfoEntity;
 import io.confluent.ksql.rest.entity.StreamedRow;
-import io.confluent.ksql.rest.entity.TableRows;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutorMetrics;
+import io.confluent.ksql.rest.server.execution.PullQueryQueue;
 import io.confluent.ksql.rest.server.execution.PullQueryResult;
+import io.confluent.ksql.rest.server.execution.PullQueryRow;
 import io.confluent.ksql.rest.server.resources.streaming.Flow.Subscriber;
 import io.confluent.ksql.services.ServiceContext;
 import io.confluent.ksql.statement.ConfiguredStatement;
-import io.confluent.ksql.util.Pair;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+@SuppressWarnings("UnstableApiUsage")
 class PullQueryPublisher implements Flow.Publisher<Collection<StreamedRow>> {
 
   private final ServiceContext serviceContext;
+  private final ListeningScheduledExecutorService exec;
   private final ConfiguredStatement<Query> query;
   private final PullQueryExecutor pullQueryExecutor;
   private final Optional<PullQueryExecutorMetrics> pullQueryMetrics;
@@ -51,12 +53,14 @@ class PullQueryPublisher implements Flow.Publisher<Collection<StreamedRow>> {
   @VisibleForTesting
   PullQueryPublisher(
       final ServiceContext serviceContext,
+      final ListeningScheduledExecutorService exec,
       final ConfiguredStatement<Query> query,
       final PullQueryExecutor pullQueryExecutor,
       final Optional<PullQueryExecutorMetrics> pullQueryMetrics,
       final long startTimeNanos
   ) {
     this.serviceContext = requireNonNull(serviceContext, "serviceContext");
+    this.exec = requireNonNull(exec, "exec");
     this.query = requireNonNull(query, "query");
     this.pullQueryExecutor = requireNonNull(pullQueryExecutor, "pullQueryExecutor");
     this.pullQueryMetrics = pullQueryMetrics;
@@ -66,13 +70,15 @@ class PullQueryPublisher implements Flow.Publisher<Collection<StreamedRow>> {
   @Override
   public synchronized void subscribe(final Subscriber<Collection<StreamedRow>> subscriber) {
     final PullQuerySubscription subscription = new PullQuerySubscription(
+        exec,
         subscriber,
         () -> {
           final PullQueryResult result = pullQueryExecutor.execute(
               query, ImmutableMap.of(), serviceContext, Optional.of(false), pullQueryMetrics);
           //Record latency at microsecond scale
-          pullQueryMetrics.ifPresent(pullQueryExecutorMetrics -> pullQueryExecutorMetrics
-              .recordLatency(startTimeNanos));
+          result.getCompletion().whenComplete((v, t) -> pullQueryMetrics
+              .ifPresent(pullQueryExecutorMetrics -> pullQueryExecutorMetrics
+                  .recordLatency(startTimeNanos)));
           return result;
         }
     );
@@ -80,61 +86,104 @@ class PullQueryPublisher implements Flow.Publisher<Collection<StreamedRow>> {
     subscriber.onSubscribe(subscription);
   }
 
-  private static final class PullQuerySubscription implements Flow.Subscription {
+  /**
+   * Passes on the rows of the pull query in batches, as they are read.
+   *
+   * <p>The query is only executed on the first poll, so that the schema can be sent once known.
+   */
+  static final class PullQuerySubscription
+      extends PollingSubscription<Collection<StreamedRow>> {
+
+    private static final long POLL_WAIT_MS = 100;
 
     private final Subscriber<Collection<StreamedRow>> subscriber;
     private final Callable<PullQueryResult> executor;
-    private boolean done = false;
+    private PullQueryResult result;
+    private boolean executed = false;
+    private boolean finished = false;
+    private boolean closed = false;
 
     private PullQuerySubscription(
+        final ListeningScheduledExecutorService exec,
         final Subscriber<Collection<StreamedRow>> subscriber,
         final Callable<PullQueryResult> executor
     ) {
+      super(exec, subscriber, null);
       this.subscriber = requireNonNull(subscriber, "subscriber");
       this.executor = requireNonNull(executor, "executor");
     }
 
     @Override
-    public void request(final long n) {
-      Preconditions.checkArgument(n == 1, "number of requested items must be 1");
+    Collection<StreamedRow> poll() {
+      if (!executed) {
+        executed = true;
+        try {
+          result = executor.call();
+        } catch (final Exception e) {
+          setError(e);
+          // Return an empty batch, rather than null, so the error is delivered without backoff:
+          return new ArrayList<>();
+        }
+
+        subscriber.onSchema(result.getSchema());
+      }
 
-      if (done) {
-        return;
+      if (result == null) {
+        return null;
       }
 
-      done = true;
+      final PullQueryQueue queue = result.getRowQueue();
+      final List<PullQueryRow> rows = new ArrayList<>();
 
       try {
-        final PullQueryResult result = executor.call();
-        final TableRows entity = result.getTableRows();
-        final Optional<List<KsqlHostInfoEntity>> hosts = result.getSourceNodes()
-            .map(list -> list.stream().map(KsqlNode::location)
-                .map(location -> new KsqlHostInfoEntity(location.getHost(), location.getPort()))
-                .collect(Collectors.toList()));
-
-        subscriber.onSchema(entity.getSchema());
-
-        hosts.ifPresent(h -> Preconditions.checkState(h.size() == entity.getRows().size()));
-        final List<StreamedRow> rows = IntStream.range(0, entity.getRows().size())
-            .mapToObj(i -> Pair.of(
-                PullQuerySubscription.toGenericRow(entity.getRows().get(i)),
-                hosts.map(h -> h.get(i))))
-            .map(pair -> StreamedRow.pullRow(pair.getLeft(), pair.getRight()))
-            .collect(Collectors.toList());
-
-        subscriber.onNext(rows);
-        subscriber.onComplete();
-      } catch (final Exception e) {
-        subscriber.onError(e);
+        // Wait briefly for the next row, rather than backing off, to keep latency low:
+        if (queue.isEmpty() && !result.getCompletion().isDone()) {
+          final PullQueryRow row = queue.poll(POLL_WAIT_MS, TimeUnit.MILLISECONDS);
+          if (row != null) {
+            rows.add(row);
+          }
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        setError(e);
+        return new ArrayList<>();
       }
+
+      // Check for completion before draining, so no row queued before it completed is missed:
+      final CompletableFuture<Void> completion = result.getCompletion();
+      final boolean complete = completion.isDone();
+
+      queue.drainTo(rows);
+
+      if (complete && !finished) {
+        finished = true;
+        try {
+          completion.join();
+          setDone();
+        } catch (final CompletionException e) {
+          setError(e.getCause() == null ? e : e.getCause());
+        }
+        // Return the batch even if empty, so completion is delivered without backoff:
+        return toStreamedRows(rows);
+      }
+
+      return rows.isEmpty() ? null : toStreamedRows(rows);
     }
 
     @Override
-    public void cancel() {
+    synchronized void close() {
+      if (!closed) {
+        closed = true;
+        if (result != null) {
+          result.stop();
+        }
+      }
     }
 
-    private static GenericRow toGenericRow(final List<?> values) {
-      return new GenericRow().appendAll(values);
+    private static Collection<StreamedRow> toStreamedRows(final List<PullQueryRow> rows) {
+      return rows.stream()
+          .map(PullQueryRow::toStreamedRow)
+          .collect(Collectors.toList());
     }
   }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.resources.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.confluent.ksql.api.server.StreamingOutput;
+import io.confluent.ksql.rest.Errors;
+import io.confluent.ksql.rest.entity.StreamedRow;
+import io.confluent.ksql.rest.server.execution.PullQueryQueue;
+import io.confluent.ksql.rest.server.execution.PullQueryResult;
+import io.confluent.ksql.rest.server.execution.PullQueryRow;
+import io.confluent.ksql.util.KsqlException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the rows of a pull query to the response as they are read, as a JSON array whose first
+ * element is the header.
+ *
+ * <p>Any failure once rows have started to be written is reported as a final error element.
+ */
+class PullQueryStreamWriter implements StreamingOutput {
+
+  private static final Logger log = LoggerFactory.getLogger(PullQueryStreamWriter.class);
+
+  private static final byte[] ROW_SEPARATOR = ("," + System.lineSeparator())
+      .getBytes(StandardCharsets.UTF_8);
+
+  private final PullQueryResult result;
+  private final long disconnectCheckInterval;
+  private final ObjectMapper objectMapper;
+  private volatile boolean connectionClosed;
+  private boolean closed;
+
+  PullQueryStreamWriter(
+      final PullQueryResult result,
+      final long disconnectCheckInterval,
+      final ObjectMapper objectMapper,
+      final CompletableFuture<Void> connectionClosedFuture
+  ) {
+    this.result = Objects.requireNonNull(result, "result");
+    this.disconnectCheckInterval = disconnectCheckInterval;
+    this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+    connectionClosedFuture.thenAccept(v -> {
+      connectionClosed = true;
+      result.stop();
+    });
+  }
+
+  @Override
+  public void write(final OutputStream out) {
+    try {
+      out.write("[".getBytes(StandardCharsets.UTF_8));
+      objectMapper.writeValue(out, StreamedRow.header(result.getQueryId(), result.getSchema()));
+
+      final PullQueryQueue queue = result.getRowQueue();
+      final CompletableFuture<Void> completion = result.getCompletion();
+
+      while (!connectionClosed) {
+        // Check for completion before polling, so no row queued before it completed is missed:
+        final boolean complete = completion.isDone();
+
+        final PullQueryRow row = queue.poll(disconnectCheckInterval, TimeUnit.MILLISECONDS);
+        if (row != null) {
+          writeRow(out, row.toStreamedRow());
+        } else if (complete) {
+          break;
+        }
+      }
+
+      if (connectionClosed) {
+        return;
+      }
+
+      try {
+        completion.join();
+      } catch (final CompletionException e) {
+        writeRow(out, toErrorRow(e.getCause() == null ? e : e.getCause()));
+      }
+
+      out.write("]".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+    } catch (final EOFException exception) {
+      // The user has terminated the connection; we can stop writing
+      log.warn("Pull query terminated due to exception:" + exception.toString());
+    } catch (final InterruptedException exception) {
+      // The most likely cause of this is the server shutting down. Should just try to close
+      // gracefully, without writing any more to the connection stream.
+      log.warn("Interrupted while writing to connection stream");
+      Thread.currentThread().interrupt();
+    } catch (final Exception exception) {
+      log.error("Exception occurred while writing to connection stream: ", exception);
+    } finally {
+      close();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      result.stop();
+      closed = true;
+    }
+  }
+
+  private void writeRow(final OutputStream out, final StreamedRow row) throws IOException {
+    out.write(ROW_SEPARATOR);
+    objectMapper.writeValue(out, row);
+    out.flush();
+  }
+
+  private static StreamedRow toErrorRow(final Throwable exception) {
+    return exception.getCause() instanceof KsqlException
+        ? StreamedRow.error(exception.getCause(), Errors.ERROR_CODE_SERVER_ERROR)
+        : StreamedRow.error(exception, Errors.ERROR_CODE_SERVER_ERROR);
+  }
+}
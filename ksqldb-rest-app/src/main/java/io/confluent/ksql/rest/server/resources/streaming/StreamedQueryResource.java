@@ -15,14 +15,10 @@
 
 package io.confluent.ksql.rest.server.resources.streaming;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Preconditions;
-import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.config.SessionConfig;
 import io.confluent.ksql.engine.KsqlEngine;
-import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
 import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
 import io.confluent.ksql.parser.tree.PrintTopic;
 import io.confluent.ksql.parser.tree.Query;
@@ -30,15 +26,13 @@ import io.confluent.ksql.properties.DenyListPropertyValidator;
 import io.confluent.ksql.rest.ApiJsonMapper;
 import io.confluent.ksql.rest.EndpointResponse;
 import io.confluent.ksql.rest.Errors;
-import io.confluent.ksql.rest.entity.KsqlHostInfoEntity;
 import io.confluent.ksql.rest.entity.KsqlMediaType;
 import io.confluent.ksql.rest.entity.KsqlRequest;
-import io.confluent.ksql.rest.entity.StreamedRow;
-import io.confluent.ksql.rest.entity.TableRows;
 import io.confluent.ksql.rest.server.StatementParser;
 import io.confluent.ksql.rest.server.computation.CommandQueue;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutorMetrics;
+import io.confluent.ksql.rest.server.execution.PullQueryQueue;
 import io.confluent.ksql.rest.server.execution.PullQueryResult;
 import io.confluent.ksql.rest.server.resources.KsqlConfigurable;
 import io.confluent.ksql.rest.server.resources.KsqlRestException;
@@ -50,19 +44,19 @@ import io.confluent.ksql.statement.ConfiguredStatement;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.KsqlStatementException;
-import io.confluent.ksql.util.Pair;
 import io.confluent.ksql.util.TransientQueryMetadata;
 import io.confluent.ksql.version.metrics.ActivenessRegistrar;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.apache.kafka.common.errors.TopicAuthorizationException;
 import org.apache.kafka.streams.StreamsConfig;
 import org.slf4j.Logger;
@@ -194,6 +188,48 @@ public class StreamedQueryResource implements KsqlConfigurable {
     }
   }
 
+  /**
+   * Stream the results of a pull query forwarded from another server, in the binary format of
+   * {@link io.confluent.ksql.rest.PullQueryCodec}.
+   *
+   * <p>The forwarding server has already waited for any command sequence number, so this does
+   * not wait again.
+   */
+  @SuppressWarnings("unchecked")
+  public EndpointResponse streamInternalPullQuery(
+      final KsqlSecurityContext securityContext,
+      final KsqlRequest request,
+      final CompletableFuture<Void> responseClosedFuture,
+      final Optional<Boolean> isInternalRequest
+  ) {
+    throwIfNotConfigured();
+    activenessRegistrar.updateLastRequestTime();
+
+    final PreparedStatement<?> statement = parseStatement(request);
+    if (!(statement.getStatement() instanceof Query)
+        || !((Query) statement.getStatement()).isPullQuery()) {
+      return Errors.badRequest("Only pull queries are supported by this resource");
+    }
+
+    return handleErrors(() -> {
+      validate(securityContext, request, statement);
+
+      final PullQueryResult result = executePullQuery(
+          securityContext.getServiceContext(),
+          (PreparedStatement<Query>) statement,
+          request.getConfigOverrides(),
+          request.getRequestProperties(),
+          isInternalRequest
+      );
+
+      return EndpointResponse.ok(new BinaryPullQueryStreamWriter(
+          result,
+          disconnectCheckInterval.toMillis(),
+          responseClosedFuture
+      ));
+    });
+  }
+
   @SuppressWarnings("unchecked")
   private EndpointResponse handleStatement(
       final KsqlSecurityContext securityContext,
@@ -203,16 +239,10 @@ public class StreamedQueryResource implements KsqlConfigurable {
       final Optional<Boolean> isInternalRequest,
       final KsqlMediaType mediaType
   ) {
-    try {
-      authorizationValidator.ifPresent(validator ->
-          validator.checkAuthorization(
-              securityContext,
-              ksqlEngine.getMetaStore(),
-              statement.getStatement())
-      );
+    return handleErrors(() -> {
+      validate(securityContext, request, statement);
 
       final Map<String, Object> configProperties = request.getConfigOverrides();
-      denyListPropertyValidator.validateAll(configProperties);
 
       if (statement.getStatement() instanceof Query) {
         final PreparedStatement<Query> queryStmt = (PreparedStatement<Query>) statement;
@@ -223,7 +253,7 @@ public class StreamedQueryResource implements KsqlConfigurable {
               configProperties,
               request.getRequestProperties(),
               isInternalRequest,
-              pullQueryMetrics
+              connectionClosedFuture
           );
         }
 
@@ -247,6 +277,27 @@ public class StreamedQueryResource implements KsqlConfigurable {
       return Errors.badRequest(String.format(
           "Statement type `%s' not supported for this resource",
           statement.getClass().getName()));
+    });
+  }
+
+  private void validate(
+      final KsqlSecurityContext securityContext,
+      final KsqlRequest request,
+      final PreparedStatement<?> statement
+  ) {
+    authorizationValidator.ifPresent(validator ->
+        validator.checkAuthorization(
+            securityContext,
+            ksqlEngine.getMetaStore(),
+            statement.getStatement())
+    );
+
+    denyListPropertyValidator.validateAll(request.getConfigOverrides());
+  }
+
+  private EndpointResponse handleErrors(final Supplier<EndpointResponse> handler) {
+    try {
+      return handler.get();
     } catch (final TopicAuthorizationException e) {
       return errorHandler.accessDeniedFromKafkaResponse(e);
     } catch (final KsqlStatementException e) {
@@ -262,39 +313,75 @@ public class StreamedQueryResource implements KsqlConfigurable {
       final Map<String, Object> configOverrides,
       final Map<String, Object> requestProperties,
       final Optional<Boolean> isInternalRequest,
-      final Optional<PullQueryExecutorMetrics> pullQueryMetrics
+      final CompletableFuture<Void> connectionClosedFuture
+  ) {
+    final PullQueryResult result = executePullQuery(
+        serviceContext, statement, configOverrides, requestProperties, isInternalRequest);
+
+    final PullQueryStreamWriter pullQueryStreamWriter = new PullQueryStreamWriter(
+        result,
+        disconnectCheckInterval.toMillis(),
+        OBJECT_MAPPER,
+        connectionClosedFuture
+    );
+
+    return EndpointResponse.ok(pullQueryStreamWriter);
+  }
+
+  private PullQueryResult executePullQuery(
+      final ServiceContext serviceContext,
+      final PreparedStatement<Query> statement,
+      final Map<String, Object> configOverrides,
+      final Map<String, Object> requestProperties,
+      final Optional<Boolean> isInternalRequest
   ) {
     final ConfiguredStatement<Query> configured = ConfiguredStatement
         .of(statement, SessionConfig.of(ksqlConfig, configOverrides));
 
     final PullQueryResult result = pullQueryExecutor.execute(
         configured, requestProperties, serviceContext, isInternalRequest, pullQueryMetrics);
-    final TableRows tableRows = result.getTableRows();
-    final Optional<List<KsqlHostInfoEntity>> hosts = result.getSourceNodes()
-        .map(list -> list.stream().map(KsqlNode::location)
-            .map(location -> new KsqlHostInfoEntity(location.getHost(), location.getPort()))
-            .collect(Collectors.toList()));
-
-    final StreamedRow header = StreamedRow.header(
-        tableRows.getQueryId(),
-        tableRows.getSchema()
-    );
 
-    hosts.ifPresent(h -> Preconditions.checkState(h.size() == tableRows.getRows().size()));
-    final List<StreamedRow> rows = IntStream.range(0, tableRows.getRows().size())
-        .mapToObj(i -> Pair.of(
-            StreamedQueryResource.toGenericRow(tableRows.getRows().get(i)),
-            hosts.map(h -> h.get(i))))
-        .map(pair -> StreamedRow.pullRow(pair.getLeft(), pair.getRight()))
-        .collect(Collectors.toList());
+    awaitFirstRow(result);
+    return result;
+  }
 
-    rows.add(0, header);
+  /**
+   * Wait until the first row of the pull query is available, or it has completed, so that a
+   * query that fails before reading any rows is still reported with an error status.
+   */
+  private static void awaitFirstRow(final PullQueryResult result) {
+    final PullQueryQueue queue = result.getRowQueue();
+    final CompletableFuture<Void> completion = result.getCompletion();
+
+    final CompletableFuture<Void> firstRowOrDone = new CompletableFuture<>();
+    queue.setQueuedCallback(() -> firstRowOrDone.complete(null));
+    completion.whenComplete((v, t) -> firstRowOrDone.complete(null));
+    if (!queue.isEmpty()) {
+      firstRowOrDone.complete(null);
+    }
 
-    final String data = rows.stream()
-        .map(StreamedQueryResource::writeValueAsString)
-        .collect(Collectors.joining("," + System.lineSeparator(), "[", "]"));
+    try {
+      firstRowOrDone.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result.stop();
+      throw new KsqlException("Interrupted while waiting for pull query results", e);
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      queue.setQueuedCallback(() -> { });
+    }
 
-    return EndpointResponse.ok(data);
+    if (queue.isEmpty() && completion.isCompletedExceptionally()) {
+      try {
+        completion.join();
+      } catch (final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
   }
 
   private EndpointResponse handlePushQuery(
@@ -321,14 +408,6 @@ public class StreamedQueryResource implements KsqlConfigurable {
     return EndpointResponse.ok(queryStreamWriter);
   }
 
-  private static String writeValueAsString(final Object object) {
-    try {
-      return OBJECT_MAPPER.writeValueAsString(object);
-    } catch (final JsonProcessingException e) {
-      throw new RuntimeException(e);
-    }
-  }
-
   private EndpointResponse handlePrintTopic(
       final ServiceContext serviceContext,
       final Map<String, Object> streamProperties,
@@ -385,8 +464,4 @@ public class StreamedQueryResource implements KsqlConfigurable {
         .filter(name -> name.equalsIgnoreCase(topicName))
         .collect(Collectors.toSet());
   }
-
-  private static GenericRow toGenericRow(final List<?> values) {
-    return new GenericRow().appendAll(values);
-  }
 }
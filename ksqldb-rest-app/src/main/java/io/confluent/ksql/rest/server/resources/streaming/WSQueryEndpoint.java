@@ -340,7 +340,7 @@ public class WSQueryEndpoint {
   private static void startPullQueryPublisher(
       final KsqlEngine ksqlEngine,
       final ServiceContext serviceContext,
-      final ListeningScheduledExecutorService ignored,
+      final ListeningScheduledExecutorService exec,
       final ConfiguredStatement<Query> query,
       final WebSocketSubscriber<StreamedRow> streamSubscriber,
       final PullQueryExecutor pullQueryExecutor,
@@ -349,6 +349,7 @@ public class WSQueryEndpoint {
   ) {
     new PullQueryPublisher(
         serviceContext,
+        exec,
         query,
         pullQueryExecutor,
         pullQueryMetrics,
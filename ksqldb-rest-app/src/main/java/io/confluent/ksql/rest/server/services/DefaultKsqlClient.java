@@ -33,10 +33,10 @@ import io.vertx.core.Vertx;
 import io.vertx.core.net.SocketAddress;
 import java.net.URI;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,18 +88,41 @@ final class DefaultKsqlClient implements SimpleKsqlClient {
   }
 
   @Override
-  public RestResponse<List<StreamedRow>> makeQueryRequest(
+  public RestResponse<Integer> makeQueryRequest(
       final URI serverEndPoint,
       final String sql,
       final Map<String, ?> configOverrides,
-      final Map<String, ?> requestProperties
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer
   ) {
     final KsqlTarget target = sharedClient
         .target(serverEndPoint)
         .properties(configOverrides);
 
-    final RestResponse<List<StreamedRow>> resp = getTarget(target, authHeader)
-        .postQueryRequest(sql, requestProperties, Optional.empty());
+    final RestResponse<Integer> resp = getTarget(target, authHeader)
+        .postQueryRequest(sql, requestProperties, Optional.empty(), rowConsumer);
+
+    if (resp.isErroneous()) {
+      return RestResponse.erroneous(resp.getStatusCode(), resp.getErrorMessage());
+    }
+
+    return RestResponse.successful(resp.getStatusCode(), resp.getResponse());
+  }
+
+  @Override
+  public RestResponse<Integer> makeInternalPullQueryRequest(
+      final URI serverEndPoint,
+      final String sql,
+      final Map<String, ?> configOverrides,
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer
+  ) {
+    final KsqlTarget target = sharedClient
+        .http2Target(serverEndPoint)
+        .properties(configOverrides);
+
+    final RestResponse<Integer> resp = getTarget(target, authHeader)
+        .postInternalPullQueryRequest(sql, requestProperties, rowConsumer);
 
     if (resp.isErroneous()) {
       return RestResponse.erroneous(resp.getStatusCode(), resp.getErrorMessage());
@@ -32,8 +32,8 @@ import io.confluent.ksql.services.SimpleKsqlClient;
 import io.confluent.ksql.util.KsqlHostInfo;
 import java.net.URI;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * A KSQL client implementation that sends requests to KsqlResource directly, rather than going
@@ -73,11 +73,23 @@ public class ServerInternalKsqlClient implements SimpleKsqlClient {
   }
 
   @Override
-  public RestResponse<List<StreamedRow>> makeQueryRequest(
+  public RestResponse<Integer> makeQueryRequest(
       final URI serverEndpoint,
       final String sql,
       final Map<String, ?> configOverrides,
-      final Map<String, ?> requestProperties
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer
+  ) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public RestResponse<Integer> makeInternalPullQueryRequest(
+      final URI serverEndpoint,
+      final String sql,
+      final Map<String, ?> configOverrides,
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer
   ) {
     throw new UnsupportedOperationException();
   }
@@ -32,6 +32,7 @@ import io.confluent.ksql.api.utils.QueryResponse;
 import io.confluent.ksql.api.utils.ReceiveStream;
 import io.confluent.ksql.api.utils.SendStream;
 import io.confluent.ksql.parser.exception.ParseFailedException;
+import io.confluent.ksql.rest.QueryStreamBinaryFormat;
 import io.confluent.ksql.rest.entity.PushQueryId;
 import io.confluent.ksql.util.AppInfo;
 import io.confluent.ksql.util.VertxCompletableFuture;
@@ -668,6 +669,39 @@ public class ApiTest extends BaseApiTest {
     }
   }
 
+  @Test
+  public void shouldUseBinaryFormatWhenBinaryAcceptHeaderQuery() throws Exception {
+    // When
+    JsonObject requestBody = new JsonObject().put("sql", DEFAULT_PULL_QUERY);
+    VertxCompletableFuture<HttpResponse<Buffer>> requestFuture = new VertxCompletableFuture<>();
+    client
+        .post("/query-stream")
+        .putHeader("accept", QueryStreamBinaryFormat.CONTENT_TYPE)
+        .sendBuffer(requestBody.toBuffer(), requestFuture);
+
+    // Then
+    HttpResponse<Buffer> response = requestFuture.get();
+    assertThat(response.statusCode(), is(200));
+    assertThat(response.getHeader("content-type"), is(QueryStreamBinaryFormat.CONTENT_TYPE));
+    List<Buffer> frames = new ArrayList<>();
+    Buffer body = response.body();
+    int pos = 0;
+    while (pos < body.length()) {
+      int size = body.getInt(pos);
+      frames.add(body.slice(pos + 4, pos + 4 + size));
+      pos += 4 + size;
+    }
+    assertThat(frames, hasSize(DEFAULT_JSON_ROWS.size() + 1));
+    assertThat(frames.get(0).getByte(0), is(QueryStreamBinaryFormat.METADATA_FRAME));
+    JsonObject metaData = frames.get(0).slice(1, frames.get(0).length()).toJsonObject();
+    assertThat(metaData.getJsonArray("columnNames"), is(DEFAULT_COLUMN_NAMES));
+    assertThat(metaData.getJsonArray("columnTypes"), is(DEFAULT_COLUMN_TYPES));
+    for (int i = 1; i < frames.size(); i++) {
+      assertThat(frames.get(i).getByte(0), is(QueryStreamBinaryFormat.ROW_FRAME));
+      assertThat(frames.get(i).getInt(1), is(DEFAULT_COLUMN_NAMES.size()));
+    }
+  }
+
   @Test
   public void shouldUseDelimitedFormatWhenNoAcceptHeaderInserts() throws Exception {
     // When
@@ -147,6 +147,13 @@ public class TestEndpoints implements Endpoints {
     return null;
   }
 
+  @Override
+  public CompletableFuture<EndpointResponse> executeInternalPullQueryRequest(KsqlRequest request,
+      WorkerExecutor workerExecutor, CompletableFuture<Void> responseClosedFuture,
+      ApiSecurityContext apiSecurityContext, Optional<Boolean> isInternalRequest) {
+    return null;
+  }
+
   @Override
   public synchronized CompletableFuture<EndpointResponse> executeInfo(ApiSecurityContext apiSecurityContext) {
     this.lastApiSecurityContext = apiSecurityContext;
@@ -191,6 +198,18 @@ public class TestEndpoints implements Endpoints {
     return null;
   }
 
+  @Override
+  public CompletableFuture<EndpointResponse> executeQueryProfiles(
+      ApiSecurityContext apiSecurityContext) {
+    return null;
+  }
+
+  @Override
+  public CompletableFuture<EndpointResponse> executeTableRouting(String table,
+      ApiSecurityContext apiSecurityContext) {
+    return null;
+  }
+
   @Override
   public CompletableFuture<EndpointResponse> executeServerMetadata(
       ApiSecurityContext apiSecurityContext) {
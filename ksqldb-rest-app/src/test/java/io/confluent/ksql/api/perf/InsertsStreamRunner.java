@@ -196,6 +196,13 @@ public class InsertsStreamRunner extends BasePerfRunner {
       return null;
     }
 
+    @Override
+    public CompletableFuture<EndpointResponse> executeInternalPullQueryRequest(KsqlRequest request,
+        WorkerExecutor workerExecutor, CompletableFuture<Void> responseClosedFuture,
+        ApiSecurityContext apiSecurityContext, Optional<Boolean> isInternalRequest) {
+      return null;
+    }
+
     @Override
     public CompletableFuture<EndpointResponse> executeInfo(ApiSecurityContext apiSecurityContext) {
       return null;
@@ -237,6 +244,18 @@ public class InsertsStreamRunner extends BasePerfRunner {
       return null;
     }
 
+    @Override
+    public CompletableFuture<EndpointResponse> executeQueryProfiles(
+        ApiSecurityContext apiSecurityContext) {
+      return null;
+    }
+
+    @Override
+    public CompletableFuture<EndpointResponse> executeTableRouting(String table,
+        ApiSecurityContext apiSecurityContext) {
+      return null;
+    }
+
     @Override
     public CompletableFuture<EndpointResponse> executeServerMetadata(
         ApiSecurityContext apiSecurityContext) {
@@ -23,8 +23,8 @@ import io.confluent.ksql.rest.entity.StreamedRow;
 import io.confluent.ksql.services.SimpleKsqlClient;
 import io.confluent.ksql.util.KsqlHostInfo;
 import java.net.URI;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,12 +61,25 @@ public class FaultyKsqlClient implements SimpleKsqlClient {
   }
 
   @Override
-  public RestResponse<List<StreamedRow>> makeQueryRequest(
+  public RestResponse<Integer> makeQueryRequest(
       final URI serverEndPoint,
       final String sql,
       final Map<String, ?> configOverrides,
-      final Map<String, ?> requestProperties) {
-    return getClient().makeQueryRequest(serverEndPoint, sql, configOverrides, requestProperties);
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer) {
+    return getClient().makeQueryRequest(
+        serverEndPoint, sql, configOverrides, requestProperties, rowConsumer);
+  }
+
+  @Override
+  public RestResponse<Integer> makeInternalPullQueryRequest(
+      final URI serverEndPoint,
+      final String sql,
+      final Map<String, ?> configOverrides,
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer) {
+    return getClient().makeInternalPullQueryRequest(
+        serverEndPoint, sql, configOverrides, requestProperties, rowConsumer);
   }
 
   @Override
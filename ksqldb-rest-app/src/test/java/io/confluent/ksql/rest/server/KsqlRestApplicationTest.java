@@ -50,6 +50,7 @@ import io.confluent.ksql.rest.entity.SourceInfo;
 import io.confluent.ksql.rest.entity.StreamsList;
 import io.confluent.ksql.rest.server.computation.CommandRunner;
 import io.confluent.ksql.rest.server.computation.CommandStore;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
 import io.confluent.ksql.rest.server.resources.KsqlResource;
 import io.confluent.ksql.rest.server.resources.StatusResource;
@@ -144,6 +145,8 @@ public class KsqlRestApplicationTest {
 
   @Mock
   private Vertx vertx;
+  @Mock
+  private InsertsProducerPool insertsProducerPool;
 
   private String logCreateStatement;
   private KsqlRestApplication app;
@@ -232,6 +235,24 @@ public class KsqlRestApplicationTest {
     verify(queryMonitor).close();
   }
 
+  @Test
+  public void shouldCloseInsertsProducerPoolOnClose() {
+    // When:
+    app.shutdown();
+
+    // Then:
+    verify(insertsProducerPool).close();
+  }
+
+  @Test
+  public void shouldCloseProcessingLogContextOnClose() {
+    // When:
+    app.shutdown();
+
+    // Then:
+    verify(processingLogContext).close();
+  }
+
   @Test
   public void shouldAddConfigurableMetricsReportersIfPresentInKsqlConfig() {
     // When:
@@ -500,7 +521,8 @@ public class KsqlRestApplicationTest {
         vertx,
         queryMonitor,
         denyListPropertyValidator,
-        Optional.empty()
+        Optional.empty(),
+        insertsProducerPool
     );
   }
 
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
 import java.util.Collections;
 import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.metrics.Gauge;
@@ -44,6 +45,12 @@ public class CommandRunnerMetricsTest {
       new MetricName("bob", "g1", "d1", ImmutableMap.of());
   private static final MetricName METRIC_NAME_2 =
       new MetricName("jill", "g1", "d2", ImmutableMap.of());
+  private static final MetricName RESTORE_TOTAL_METRIC_NAME =
+      new MetricName("restore-total", "g1", "d3", ImmutableMap.of());
+  private static final MetricName RESTORE_RESTORED_METRIC_NAME =
+      new MetricName("restore-restored", "g1", "d4", ImmutableMap.of());
+  private static final MetricName RESTORE_DURATION_METRIC_NAME =
+      new MetricName("restore-duration", "g1", "d5", ImmutableMap.of());
   private static final String KSQL_SERVICE_ID = "kcql-1-";
 
   @Mock
@@ -52,6 +59,8 @@ public class CommandRunnerMetricsTest {
   private CommandRunner commandRunner;
   @Captor
   private ArgumentCaptor<Gauge<String>> gaugeCaptor;
+  @Captor
+  private ArgumentCaptor<Gauge<Object>> restoreGaugeCaptor;
 
   private CommandRunnerMetrics commandRunnerMetrics;
 
@@ -59,7 +68,10 @@ public class CommandRunnerMetricsTest {
   public void setUp() {
     when(metrics.metricName(any(), any(), any(), anyMap()))
         .thenReturn(METRIC_NAME_1)
-        .thenReturn(METRIC_NAME_2);
+        .thenReturn(METRIC_NAME_2)
+        .thenReturn(RESTORE_TOTAL_METRIC_NAME)
+        .thenReturn(RESTORE_RESTORED_METRIC_NAME)
+        .thenReturn(RESTORE_DURATION_METRIC_NAME);
     when(commandRunner.checkCommandRunnerStatus()).thenReturn(CommandRunner.CommandRunnerStatus.RUNNING);
     when(commandRunner.getCommandRunnerDegradedReason()).thenReturn(CommandRunner.CommandRunnerDegradedReason.NONE);
 
@@ -83,6 +95,41 @@ public class CommandRunnerMetricsTest {
     verify(metrics).addMetric(eq(METRIC_NAME_2), isA(Gauge.class));
   }
 
+  @Test
+  public void shouldAddRestoreMetricsOnCreation() {
+    // When:
+    // Listener created in setup
+
+    // Then:
+    verify(metrics).metricName("restore-commands-total",
+        "_confluent-ksql-kcql-1-rest-command-runner",
+        "The number of compacted commands restored from the command topic on startup.",
+        Collections.emptyMap());
+    verify(metrics).metricName("restore-commands-restored",
+        "_confluent-ksql-kcql-1-rest-command-runner",
+        "The number of commands restored so far from the command topic on startup.",
+        Collections.emptyMap());
+    verify(metrics).metricName(eq("restore-duration-ms"),
+        eq("_confluent-ksql-kcql-1-rest-command-runner"), any(), eq(Collections.emptyMap()));
+
+    verify(metrics).addMetric(eq(RESTORE_TOTAL_METRIC_NAME), isA(Gauge.class));
+    verify(metrics).addMetric(eq(RESTORE_RESTORED_METRIC_NAME), isA(Gauge.class));
+    verify(metrics).addMetric(eq(RESTORE_DURATION_METRIC_NAME), isA(Gauge.class));
+  }
+
+  @Test
+  public void shouldReportRestoreProgress() {
+    // When:
+    when(commandRunner.getRestoreCommandsTotal()).thenReturn(10);
+    when(commandRunner.getRestoreCommandsRestored()).thenReturn(4);
+    when(commandRunner.getRestoreDuration()).thenReturn(Duration.ofSeconds(3));
+
+    // Then:
+    assertThat(restoreGaugeValue(RESTORE_TOTAL_METRIC_NAME), is(10));
+    assertThat(restoreGaugeValue(RESTORE_RESTORED_METRIC_NAME), is(4));
+    assertThat(restoreGaugeValue(RESTORE_DURATION_METRIC_NAME), is(3000L));
+  }
+
   @Test
   public void shouldInitiallyBeCommandRunnerStatusRunningState() {
     // When:
@@ -145,6 +192,9 @@ public class CommandRunnerMetricsTest {
     // Then:
     verify(metrics).removeMetric(METRIC_NAME_1);
     verify(metrics).removeMetric(METRIC_NAME_2);
+    verify(metrics).removeMetric(RESTORE_TOTAL_METRIC_NAME);
+    verify(metrics).removeMetric(RESTORE_RESTORED_METRIC_NAME);
+    verify(metrics).removeMetric(RESTORE_DURATION_METRIC_NAME);
   }
 
   private String commandRunnerStatusGaugeValue() {
@@ -152,6 +202,11 @@ public class CommandRunnerMetricsTest {
     return gaugeCaptor.getValue().value(null, 0L);
   }
 
+  private Object restoreGaugeValue(final MetricName metricName) {
+    verify(metrics).addMetric(eq(metricName), restoreGaugeCaptor.capture());
+    return restoreGaugeCaptor.getValue().value(null, 0L);
+  }
+
   private String commandRunnerDegradedReasonGaugeValue() {
     verify(metrics).addMetric(eq(METRIC_NAME_2), gaugeCaptor.capture());
     return gaugeCaptor.getValue().value(null, 0L);
@@ -37,7 +37,9 @@ import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 import com.google.common.collect.ImmutableList;
 import io.confluent.ksql.engine.KsqlEngine;
 import io.confluent.ksql.metrics.MetricCollectors;
+import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.rest.Errors;
+import io.confluent.ksql.rest.server.computation.InteractiveStatementExecutor.DeferredRestore;
 import io.confluent.ksql.rest.server.resources.IncomaptibleKsqlCommandVersionException;
 import io.confluent.ksql.rest.server.state.ServerState;
 import io.confluent.ksql.rest.util.ClusterTerminator;
@@ -48,6 +50,7 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
@@ -108,6 +111,10 @@ public class CommandRunnerTest {
   private Supplier<Boolean> commandTopicExists;
   @Mock
   private Errors errorHandler;
+  @Mock
+  private DeferredRestore deferredRestore1;
+  @Mock
+  private DeferredRestore deferredRestore2;
   @Captor
   private ArgumentCaptor<Runnable> threadTaskCaptor;
   private CommandRunner commandRunner;
@@ -151,7 +158,8 @@ public class CommandRunnerTest {
         incompatibleCommandChecker,
         commandDeserializer,
         errorHandler,
-        commandTopicExists
+        commandTopicExists,
+        1
     );
   }
 
@@ -229,6 +237,91 @@ public class CommandRunnerTest {
     verify(statementExecutor, never()).handleRestore(queuedCommand2);
   }
 
+  @Test
+  public void shouldBuildQueriesInParallelOnRestore() {
+    // Given:
+    givenParallelRestore();
+    when(statementExecutor.getQueryId(queuedCommand1)).thenReturn(Optional.of(new QueryId("q1")));
+    when(statementExecutor.getQueryId(queuedCommand2)).thenReturn(Optional.of(new QueryId("q2")));
+    when(statementExecutor.getQueryId(queuedCommand3)).thenReturn(Optional.empty());
+    when(statementExecutor.handleDeferredRestore(eq(queuedCommand1), any()))
+        .thenReturn(deferredRestore1);
+    when(statementExecutor.handleDeferredRestore(eq(queuedCommand2), any()))
+        .thenReturn(deferredRestore2);
+
+    // When:
+    commandRunner.processPriorCommands();
+
+    // Then:
+    final InOrder inOrder = inOrder(statementExecutor, deferredRestore1, deferredRestore2);
+    inOrder.verify(statementExecutor).handleDeferredRestore(eq(queuedCommand1), any());
+    inOrder.verify(statementExecutor).handleDeferredRestore(eq(queuedCommand2), any());
+    inOrder.verify(deferredRestore1).complete();
+    inOrder.verify(deferredRestore2).complete();
+    inOrder.verify(statementExecutor).handleRestore(queuedCommand3);
+
+    verify(statementExecutor, never()).handleRestore(queuedCommand1);
+    verify(statementExecutor, never()).handleRestore(queuedCommand2);
+  }
+
+  @Test
+  public void shouldCompleteRestoreOfQueryBeforeRestoringAnotherWithSameId() {
+    // Given:
+    givenParallelRestore();
+    givenQueuedCommands(queuedCommand1, queuedCommand2);
+    when(statementExecutor.getQueryId(any())).thenReturn(Optional.of(new QueryId("q1")));
+    when(statementExecutor.handleDeferredRestore(eq(queuedCommand1), any()))
+        .thenReturn(deferredRestore1);
+    when(statementExecutor.handleDeferredRestore(eq(queuedCommand2), any()))
+        .thenReturn(deferredRestore2);
+
+    // When:
+    commandRunner.processPriorCommands();
+
+    // Then:
+    final InOrder inOrder = inOrder(statementExecutor, deferredRestore1, deferredRestore2);
+    inOrder.verify(statementExecutor).handleDeferredRestore(eq(queuedCommand1), any());
+    inOrder.verify(deferredRestore1).complete();
+    inOrder.verify(statementExecutor).handleDeferredRestore(eq(queuedCommand2), any());
+    inOrder.verify(deferredRestore2).complete();
+  }
+
+  @Test
+  public void shouldRetryFailedCompletionOfParallelRestore() {
+    // Given:
+    givenParallelRestore();
+    givenQueuedCommands(queuedCommand1);
+    when(statementExecutor.getQueryId(queuedCommand1)).thenReturn(Optional.of(new QueryId("q1")));
+    when(statementExecutor.handleDeferredRestore(eq(queuedCommand1), any()))
+        .thenReturn(deferredRestore1);
+    doThrow(new RuntimeException("build failed"))
+        .doNothing()
+        .when(deferredRestore1).complete();
+
+    // When:
+    commandRunner.processPriorCommands();
+
+    // Then:
+    verify(deferredRestore1, times(2)).complete();
+    assertThat(commandRunner.getRestoreCommandsRestored(), is(1));
+  }
+
+  @Test
+  public void shouldReportRestoreProgress() {
+    // Given:
+    when(clock.instant())
+        .thenReturn(Instant.ofEpochMilli(1000))
+        .thenReturn(Instant.ofEpochMilli(3500));
+
+    // When:
+    commandRunner.processPriorCommands();
+
+    // Then:
+    assertThat(commandRunner.getRestoreCommandsTotal(), is(3));
+    assertThat(commandRunner.getRestoreCommandsRestored(), is(3));
+    assertThat(commandRunner.getRestoreDuration(), is(Duration.ofMillis(2500)));
+  }
+
   @Test
   public void shouldProcessPartialListOfCommandsOnDeserializationExceptionInRestore() {
     // Given:
@@ -593,6 +686,28 @@ public class CommandRunnerTest {
     return threadTaskCaptor.getValue();
   }
 
+  private void givenParallelRestore() {
+    MetricCollectors.initialize();
+    commandRunner = new CommandRunner(
+        statementExecutor,
+        commandStore,
+        3,
+        clusterTerminator,
+        executor,
+        serverState,
+        "ksql-service-id",
+        Duration.ofMillis(COMMAND_RUNNER_HEALTH_TIMEOUT),
+        "",
+        clock,
+        compactor,
+        incompatibleCommandChecker,
+        commandDeserializer,
+        errorHandler,
+        commandTopicExists,
+        2
+    );
+  }
+
   private void givenQueuedCommands(final QueuedCommand... cmds) {
     when(commandStore.getRestoreCommands()).thenReturn(Arrays.asList(cmds));
     when(commandStore.getNewCommands(any())).thenReturn(Arrays.asList(cmds));
@@ -28,6 +28,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -76,6 +77,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import kafka.zookeeper.ZooKeeperClientException;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.streams.StreamsConfig;
@@ -405,6 +407,33 @@ public class InteractiveStatementExecutorTest {
     verify(mockQueryMetadata).start();
   }
 
+  @Test
+  public void shouldKeepFusedProjectionSettingOfPlannedCommandWhenServerSettingChanges() {
+    // Given:
+    plannedCommand = new Command(
+        CREATE_STREAM_FOO_STATEMENT,
+        emptyMap(),
+        ImmutableMap.of(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED, "false"),
+        Optional.of(plan)
+    );
+    givenMockPlannedQuery();
+    statementExecutorWithMocks.configure(ksqlConfig.cloneWithPropertyOverwrite(
+        ImmutableMap.of(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED, true)));
+
+    // When:
+    handleStatement(statementExecutorWithMocks, plannedCommand, COMMAND_ID, Optional.empty(), 0L);
+
+    // Then:
+    final ArgumentCaptor<ConfiguredKsqlPlan> planCaptor =
+        ArgumentCaptor.forClass(ConfiguredKsqlPlan.class);
+    verify(mockEngine).execute(any(), planCaptor.capture());
+    assertThat(
+        planCaptor.getValue().getConfig().getConfig(false)
+            .getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED),
+        is(false)
+    );
+  }
+
   @Test
   @SuppressFBWarnings("RV_RETURN_VALUE_IGNORED_INFERRED")
   public void shouldExecutePlannedCommandWithMergedConfig() {
@@ -639,6 +668,71 @@ public class InteractiveStatementExecutorTest {
     verify(mockQueryIdGenerator).setNextId(3L);
   }
 
+  @Test
+  public void shouldDeferBuildOfQueryWhenRestoringInParallel() {
+    // Given:
+    when(mockQueryMetadata.getQueryId()).thenReturn(QUERY_ID);
+    when(mockEngine.executeDeferringQuery(any(), any())).thenReturn(() -> mockQueryMetadata);
+    when(mockEngine.registerDeferredQuery(mockQueryMetadata))
+        .thenReturn(ExecuteResult.of(mockQueryMetadata));
+    when(commandDeserializer.deserialize(any(), any())).thenReturn(plannedCommand);
+    final QueuedCommand restoreCommand =
+        new QueuedCommand(COMMAND_ID, plannedCommand, Optional.of(status), 2L);
+
+    // When:
+    final InteractiveStatementExecutor.DeferredRestore restore =
+        statementExecutorWithMocks.handleDeferredRestore(restoreCommand, Runnable::run);
+
+    // Then:
+    final KsqlConfig expectedConfig = ksqlConfig.overrideBreakingConfigsWithOriginalValues(
+        plannedCommand.getOriginalProperties());
+    verify(mockEngine).executeDeferringQuery(
+        serviceContext,
+        ConfiguredKsqlPlan.of(plan, SessionConfig.of(expectedConfig, emptyMap()))
+    );
+    verify(mockQueryIdGenerator).setNextId(3L);
+    verify(mockEngine, never()).registerDeferredQuery(any());
+
+    // When:
+    restore.complete();
+
+    // Then:
+    verify(mockEngine).registerDeferredQuery(mockQueryMetadata);
+    verify(status).setFinalStatus(
+        new CommandStatus(Status.SUCCESS, "Created query with ID qid", Optional.of(QUERY_ID)));
+    verify(mockQueryMetadata, never()).start();
+  }
+
+  @Test
+  public void shouldBuildDeferredQueryAgainIfBuildFailed() {
+    // Given:
+    final AtomicInteger builds = new AtomicInteger();
+    when(mockQueryMetadata.getQueryId()).thenReturn(QUERY_ID);
+    when(mockEngine.executeDeferringQuery(any(), any())).thenReturn(() -> {
+      if (builds.incrementAndGet() == 1) {
+        throw new KsqlException("build failed");
+      }
+      return mockQueryMetadata;
+    });
+    when(mockEngine.registerDeferredQuery(mockQueryMetadata))
+        .thenReturn(ExecuteResult.of(mockQueryMetadata));
+    when(commandDeserializer.deserialize(any(), any())).thenReturn(plannedCommand);
+    final InteractiveStatementExecutor.DeferredRestore restore = statementExecutorWithMocks
+        .handleDeferredRestore(
+            new QueuedCommand(COMMAND_ID, plannedCommand, Optional.of(status), 0L),
+            Runnable::run
+        );
+
+    // When:
+    final Exception e = assertThrows(KsqlException.class, restore::complete);
+    restore.complete();
+
+    // Then:
+    assertThat(e.getMessage(), containsString("build failed"));
+    assertThat(builds.get(), is(2));
+    verify(mockEngine).registerDeferredQuery(mockQueryMetadata);
+  }
+
   @Test
   public void shouldSkipStartWhenReplayingLog() {
     // Given:
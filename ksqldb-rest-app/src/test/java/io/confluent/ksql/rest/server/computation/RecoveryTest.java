@@ -44,6 +44,7 @@ import io.confluent.ksql.rest.EndpointResponse;
 import io.confluent.ksql.rest.Errors;
 import io.confluent.ksql.rest.entity.CommandId;
 import io.confluent.ksql.rest.entity.KsqlRequest;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
 import io.confluent.ksql.rest.server.resources.KsqlResource;
 import io.confluent.ksql.rest.server.state.ServerState;
 import io.confluent.ksql.rest.util.ClusterTerminator;
@@ -234,7 +235,8 @@ public class RecoveryTest {
           InternalTopicSerdes.deserializer(Command.class),
           errorHandler,
           topicClient,
-          "command_topic"
+          "command_topic",
+          1
       );
 
       this.ksqlResource = new KsqlResource(
@@ -244,7 +246,8 @@ public class RecoveryTest {
           ()->{},
           Optional.of((sc, metastore, statement) -> { }),
           errorHandler,
-          denyListPropertyValidator
+          denyListPropertyValidator,
+          mock(InsertsProducerPool.class)
       );
 
       this.statementExecutor.configure(ksqlConfig);
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.ksql.logging.processing.NoopProcessingLogContext;
+import io.confluent.ksql.logging.processing.ProcessingLogContext;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool.Lease;
+import io.confluent.ksql.schema.ksql.PersistenceSchema;
+import io.confluent.ksql.serde.FormatInfo;
+import io.confluent.ksql.serde.KeySerdeFactory;
+import io.confluent.ksql.serde.ValueSerdeFactory;
+import io.confluent.ksql.services.ServiceContext;
+import io.confluent.ksql.util.KsqlConfig;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KafkaClientSupplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InsertsProducerPoolTest {
+
+  private static final long MAX_IDLE_MS = 1000;
+  private static final Map<String, Object> PRODUCER_PROPS =
+      ImmutableMap.of(ProducerConfig.ACKS_CONFIG, "all");
+  private static final ProducerRecord<byte[], byte[]> RECORD =
+      new ProducerRecord<>("topic", new byte[]{1}, new byte[]{2});
+
+  private final Principal alice = () -> "alice";
+  private final Principal bob = () -> "bob";
+
+  @Mock
+  private InsertsProducerPoolMetrics metrics;
+  @Mock
+  private Time time;
+  @Mock
+  private KeySerdeFactory keySerdeFactory;
+  @Mock
+  private ValueSerdeFactory valueSerdeFactory;
+  @Mock
+  private ServiceContext serviceContext;
+  @Mock
+  private KafkaClientSupplier kafkaClientSupplier;
+  @Mock
+  private Producer<byte[], byte[]> producer1;
+  @Mock
+  private Producer<byte[], byte[]> producer2;
+  @Mock
+  private Serde<Struct> keySerde;
+  @Mock
+  private Serde<Struct> otherKeySerde;
+  @Mock
+  private ProcessingLogContext otherContext;
+  @Mock
+  private Supplier<SchemaRegistryClient> srClientFactory;
+  @Mock
+  private PersistenceSchema schema;
+  @Mock
+  private Callback callback;
+  @Mock
+  private ScheduledExecutorService sweeper;
+
+  private InsertsProducerPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new InsertsProducerPool(
+        MAX_IDLE_MS, metrics, time, keySerdeFactory, valueSerdeFactory, sweeper);
+  }
+
+  @Test
+  public void shouldShareProducerBetweenLeasesOfSameUserAndConfig() {
+    // Given:
+    givenProducers();
+    final Lease lease1 = pool.lease(Optional.of(alice), serviceContext, PRODUCER_PROPS);
+
+    // When:
+    final Lease lease2 = pool.lease(Optional.of(alice), serviceContext, PRODUCER_PROPS);
+    lease1.send(RECORD, callback);
+    lease2.send(RECORD, callback);
+
+    // Then:
+    verify(kafkaClientSupplier, times(1)).getProducer(anyMap());
+    verify(producer1, times(2)).send(any(), any());
+    verify(metrics).recordLeases(2);
+    assertThat(pool.producersOpen(), is(1));
+  }
+
+  @Test
+  public void shouldNotShareProducerBetweenUsers() {
+    // Given:
+    givenProducers();
+    final Lease aliceLease = pool.lease(Optional.of(alice), serviceContext, PRODUCER_PROPS);
+
+    // When:
+    final Lease bobLease = pool.lease(Optional.of(bob), serviceContext, PRODUCER_PROPS);
+    aliceLease.send(RECORD, callback);
+    bobLease.send(RECORD, callback);
+
+    // Then:
+    verify(producer1).send(any(), any());
+    verify(producer2).send(any(), any());
+    assertThat(pool.producersOpen(), is(2));
+  }
+
+  @Test
+  public void shouldNotShareProducerBetweenConfigs() {
+    // Given:
+    givenProducers();
+    pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS);
+
+    // When:
+    pool.lease(Optional.empty(), serviceContext, ImmutableMap.of(ProducerConfig.ACKS_CONFIG, "1"));
+
+    // Then:
+    verify(kafkaClientSupplier, times(2)).getProducer(anyMap());
+    verify(metrics, times(2)).recordProducerCreated();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldCreateProducersWithThroughputDefaultsUnlessConfigured() {
+    // Given:
+    givenProducers();
+
+    // When:
+    pool.lease(Optional.empty(), serviceContext,
+        ImmutableMap.of(ProducerConfig.LINGER_MS_CONFIG, 20));
+
+    // Then:
+    final ArgumentCaptor<Map<String, Object>> props = ArgumentCaptor.forClass(Map.class);
+    verify(kafkaClientSupplier).getProducer(props.capture());
+    assertThat(props.getValue(), hasEntry(ProducerConfig.LINGER_MS_CONFIG, 20));
+    assertThat(props.getValue(), hasEntry(ProducerConfig.BATCH_SIZE_CONFIG,
+        InsertsProducerPool.THROUGHPUT_DEFAULTS.get(ProducerConfig.BATCH_SIZE_CONFIG)));
+  }
+
+  @Test
+  public void shouldKeepReleasedProducerOpenUntilIdleForMaxIdle() {
+    // Given:
+    givenProducers();
+    pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS).release();
+    when(time.milliseconds()).thenReturn(10_000L + MAX_IDLE_MS - 1);
+
+    // When:
+    final Lease lease = pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS);
+    lease.send(RECORD, callback);
+
+    // Then:
+    verify(producer1, never()).close(any(Duration.class));
+    verify(producer1).send(any(), any());
+  }
+
+  @Test
+  public void shouldCloseProducerIdleForMaxIdle() {
+    // Given:
+    givenProducers();
+    pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS).release();
+    when(time.milliseconds()).thenReturn(10_000L + MAX_IDLE_MS);
+
+    // When:
+    final Lease lease = pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS);
+    lease.send(RECORD, callback);
+
+    // Then:
+    verify(producer1).close(any(Duration.class));
+    verify(producer2).send(any(), any());
+    assertThat(pool.producersOpen(), is(1));
+  }
+
+  @Test
+  public void shouldSweepProducersIdleForMaxIdle() {
+    // Given:
+    givenProducers();
+    pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS).release();
+    when(time.milliseconds()).thenReturn(10_000L + MAX_IDLE_MS);
+    final ArgumentCaptor<Runnable> sweep = ArgumentCaptor.forClass(Runnable.class);
+    verify(sweeper).scheduleWithFixedDelay(
+        sweep.capture(), eq(MAX_IDLE_MS), eq(MAX_IDLE_MS), eq(TimeUnit.MILLISECONDS));
+
+    // When:
+    sweep.getValue().run();
+
+    // Then:
+    verify(producer1).close(any(Duration.class));
+    assertThat(pool.producersOpen(), is(0));
+  }
+
+  @Test
+  public void shouldNotCloseProducerStillLeased() {
+    // Given:
+    givenProducers();
+    final Lease lease = pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS);
+    pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS).release();
+    when(time.milliseconds()).thenReturn(10_000L + MAX_IDLE_MS);
+
+    // When:
+    pool.lease(Optional.of(alice), serviceContext, PRODUCER_PROPS);
+
+    // Then:
+    verify(producer1, never()).close(any(Duration.class));
+    lease.send(RECORD, callback);
+    verify(producer1).send(any(), any());
+  }
+
+  @Test
+  public void shouldIgnoreSecondReleaseOfLease() {
+    // Given:
+    givenProducers();
+    final Lease lease = pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS);
+    pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS);
+    lease.release();
+
+    // When:
+    lease.release();
+
+    // Then:
+    verify(metrics, times(2)).recordLeases(1);
+    verify(metrics, never()).recordLeases(0);
+  }
+
+  @Test
+  public void shouldCloseAllProducersOnClose() {
+    // Given:
+    givenProducers();
+    pool.lease(Optional.of(alice), serviceContext, PRODUCER_PROPS);
+    pool.lease(Optional.of(bob), serviceContext, PRODUCER_PROPS);
+
+    // When:
+    pool.close();
+
+    // Then:
+    verify(producer1).close(any(Duration.class));
+    verify(producer2).close(any(Duration.class));
+    verify(sweeper).shutdownNow();
+    verify(metrics).close();
+  }
+
+  @Test
+  public void shouldRecordAckLatency() {
+    // Given:
+    givenProducers();
+    when(time.nanoseconds()).thenReturn(1_000L, 3_000L);
+    final Lease lease = pool.lease(Optional.empty(), serviceContext, PRODUCER_PROPS);
+    lease.send(RECORD, callback);
+    final ArgumentCaptor<Callback> producerCallback = ArgumentCaptor.forClass(Callback.class);
+    verify(producer1).send(any(), producerCallback.capture());
+
+    // When:
+    producerCallback.getValue().onCompletion(null, null);
+
+    // Then:
+    verify(metrics).recordAckLatency(2_000L);
+    verify(callback).onCompletion(null, null);
+  }
+
+  @Test
+  public void shouldCacheSerdesPerUser() {
+    // Given:
+    when(keySerdeFactory.create(any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(keySerde);
+    final KsqlConfig config = new KsqlConfig(Collections.emptyMap());
+
+    // When:
+    final Serde<Struct> serde1 = createKeySerde(pool.keySerdeFactory(Optional.of(alice)), config);
+    final Serde<Struct> serde2 = createKeySerde(pool.keySerdeFactory(Optional.of(alice)), config);
+    createKeySerde(pool.keySerdeFactory(Optional.of(bob)), config);
+
+    // Then:
+    assertThat(serde1, is(sameInstance(keySerde)));
+    assertThat(serde2, is(sameInstance(keySerde)));
+    verify(keySerdeFactory, times(2)).create(any(), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void shouldCacheSerdesAcrossConfigsDifferingOnlyInPropertiesSerdesDoNotRead() {
+    // Given:
+    when(keySerdeFactory.create(any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(keySerde);
+    final KsqlConfig config1 = new KsqlConfig(ImmutableMap.of("auto.offset.reset", "earliest"));
+    final KsqlConfig config2 = new KsqlConfig(ImmutableMap.of("auto.offset.reset", "latest"));
+
+    // When:
+    createKeySerde(pool.keySerdeFactory(Optional.of(alice)), config1);
+    createKeySerde(pool.keySerdeFactory(Optional.of(alice)), config2);
+
+    // Then:
+    verify(keySerdeFactory, times(1)).create(any(), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void shouldNotCacheSerdesAcrossSchemaRegistryConfigs() {
+    // Given:
+    when(keySerdeFactory.create(any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(keySerde);
+    final KsqlConfig config1 = new KsqlConfig(
+        ImmutableMap.of(KsqlConfig.SCHEMA_REGISTRY_URL_PROPERTY, "http://sr1:8081"));
+    final KsqlConfig config2 = new KsqlConfig(
+        ImmutableMap.of(KsqlConfig.SCHEMA_REGISTRY_URL_PROPERTY, "http://sr2:8081"));
+
+    // When:
+    createKeySerde(pool.keySerdeFactory(Optional.of(alice)), config1);
+    createKeySerde(pool.keySerdeFactory(Optional.of(alice)), config2);
+
+    // Then:
+    verify(keySerdeFactory, times(2)).create(any(), any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void shouldNotCacheSerdesAcrossProcessingLoggers() {
+    // Given:
+    when(keySerdeFactory.create(any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(keySerde, otherKeySerde);
+    final KsqlConfig config = new KsqlConfig(Collections.emptyMap());
+
+    // When:
+    final Serde<Struct> serde1 = createKeySerde(
+        pool.keySerdeFactory(Optional.empty()), config, "", NoopProcessingLogContext.INSTANCE);
+    final Serde<Struct> serde2 = createKeySerde(
+        pool.keySerdeFactory(Optional.empty()), config, "", otherContext);
+    createKeySerde(pool.keySerdeFactory(Optional.empty()), config, "prefix", otherContext);
+
+    // Then:
+    assertThat(serde1, is(sameInstance(keySerde)));
+    assertThat(serde2, is(sameInstance(otherKeySerde)));
+    verify(keySerdeFactory, times(3)).create(any(), any(), any(), any(), any(), any(), any());
+  }
+
+  private void givenProducers() {
+    when(serviceContext.getKafkaClientSupplier()).thenReturn(kafkaClientSupplier);
+    when(kafkaClientSupplier.getProducer(anyMap())).thenReturn(producer1, producer2);
+    when(time.milliseconds()).thenReturn(10_000L);
+  }
+
+  private Serde<Struct> createKeySerde(final KeySerdeFactory factory, final KsqlConfig config) {
+    return createKeySerde(factory, config, "", NoopProcessingLogContext.INSTANCE);
+  }
+
+  private Serde<Struct> createKeySerde(
+      final KeySerdeFactory factory,
+      final KsqlConfig config,
+      final String loggerNamePrefix,
+      final ProcessingLogContext processingLogContext
+  ) {
+    return factory.create(
+        FormatInfo.of("KAFKA"),
+        schema,
+        config,
+        srClientFactory,
+        loggerNamePrefix,
+        processingLogContext,
+        Optional.empty()
+    );
+  }
+}
@@ -19,6 +19,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
@@ -149,14 +150,121 @@ public class PullQueryExecutorMetricsTest {
     assertThat(total, is(1.0));
   }
 
+  @Test
+  public void shouldRecordPlanCacheHitsAndMisses() {
+    // Given:
+    pullMetrics.recordPlanCacheHit(1);
+    pullMetrics.recordPlanCacheHit(1);
+    pullMetrics.recordPlanCacheMiss(1);
+
+    // When:
+    final double hits = getMetricValue("-plan-cache-hit-count");
+    final double misses = getMetricValue("-plan-cache-miss-count");
+
+    // Then:
+    assertThat(hits, equalTo(2.0));
+    assertThat(misses, equalTo(1.0));
+  }
+
+  @Test
+  public void shouldRecordScanRequestsAndRows() {
+    // Given:
+    pullMetrics.recordScanRequests(1);
+    pullMetrics.recordScanRows(10);
+    pullMetrics.recordScanRows(5);
+
+    // When:
+    final double scans = getMetricValue("-scan-count");
+    final double rows = getMetricValue("-scan-rows-total");
+
+    // Then:
+    assertThat(scans, equalTo(1.0));
+    assertThat(rows, equalTo(15.0));
+  }
+
+  @Test
+  public void shouldRecordHedgedRequestsAndWins() {
+    // Given:
+    pullMetrics.recordHedgedRequests(1);
+    pullMetrics.recordHedgedRequests(1);
+    pullMetrics.recordHedgeWins(1);
+
+    // When:
+    final double hedged = getMetricValue("-hedged-count");
+    final double wins = getMetricValue("-hedge-wins-count");
+
+    // Then:
+    assertThat(hedged, equalTo(2.0));
+    assertThat(wins, equalTo(1.0));
+  }
+
+  @Test
+  public void shouldRecordLatencyAndInFlightRequestsPerHost() {
+    // Given:
+    pullMetrics.recordHostLatency("http://host1:8088", 3000);
+    pullMetrics.recordHostLatency("http://host1:8088", 5000);
+    pullMetrics.recordHostLatency("http://host2:8088", 9000);
+    pullMetrics.recordHostInFlight("http://host1:8088", 2);
+
+    // When:
+    final double host1Avg = getHostMetricValue("-host-latency-avg", "http://host1:8088");
+    final double host2Max = getHostMetricValue("-host-latency-max", "http://host2:8088");
+    final double host1InFlight = getHostMetricValue("-host-in-flight", "http://host1:8088");
+
+    // Then:
+    assertThat(host1Avg, is(4.0));
+    assertThat(host2Max, is(9.0));
+    assertThat(host1InFlight, is(2.0));
+  }
+
+  @Test
+  public void shouldRemoveHostSensorsOnClose() {
+    // Given:
+    pullMetrics.recordHostLatency("http://host1:8088", 3000);
+
+    // When:
+    pullMetrics.close();
+
+    // Then:
+    assertThat(pullMetrics.getMetrics().getSensor(
+        "pull-query-pull-query-requests-host-latency-http://host1:8088"), is(nullValue()));
+  }
+
+  @Test
+  public void shouldRemoveSensorsOfIdleHosts() {
+    // Given:
+    pullMetrics.recordHostLatency("http://host1:8088", 3000);
+    when(time.milliseconds()).thenReturn(PullQueryExecutorMetrics.IDLE_HOST_MS);
+
+    // When:
+    pullMetrics.recordHostLatency("http://host2:8088", 3000);
+
+    // Then:
+    assertThat(pullMetrics.getMetrics().getSensor(
+        "pull-query-pull-query-requests-host-latency-http://host1:8088"), is(nullValue()));
+    assertThat(pullMetrics.getMetrics().getSensor(
+        "pull-query-pull-query-requests-host-latency-http://host2:8088"), is(notNullValue()));
+  }
+
   private double getMetricValue(final String metricName) {
+    return getMetricValue(metricName, CUSTOM_TAGS);
+  }
+
+  private double getHostMetricValue(final String metricName, final String host) {
+    return getMetricValue(metricName, ImmutableMap.<String, String>builder()
+        .putAll(CUSTOM_TAGS)
+        .put("host", host)
+        .build());
+  }
+
+  private double getMetricValue(final String metricName, final Map<String, String> tags) {
     final Metrics metrics = pullMetrics.getMetrics();
     return Double.valueOf(
         metrics.metric(
             metrics.metricName(
                 "pull-query-requests" + metricName,
                 "_confluent-ksql-" + ksqlEngine.getServiceId()+ "pull-query",
-                CUSTOM_TAGS)
+                tags)
         ).metricValue().toString()
     );
   }
@@ -20,55 +20,89 @@ import static io.confluent.ksql.rest.entity.KsqlStatementErrorMessageMatchers.st
 import static io.confluent.ksql.rest.server.resources.KsqlRestExceptionMatchers.exceptionStatementErrorMessage;
 import static io.confluent.ksql.rest.server.resources.KsqlRestExceptionMatchers.exceptionStatusCode;
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.KsqlExecutionContext;
 import io.confluent.ksql.config.SessionConfig;
+import io.confluent.ksql.execution.ddl.commands.KsqlTopic;
 import io.confluent.ksql.execution.streams.RoutingFilter.RoutingFilterFactory;
 import io.confluent.ksql.execution.streams.RoutingFilters;
 import io.confluent.ksql.execution.streams.RoutingOptions;
 import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
 import io.confluent.ksql.execution.streams.materialization.Locator.KsqlPartitionLocation;
 import io.confluent.ksql.execution.streams.materialization.MaterializationException;
+import io.confluent.ksql.function.InternalFunctionRegistry;
+import io.confluent.ksql.metastore.MetaStoreImpl;
+import io.confluent.ksql.metastore.MutableMetaStore;
+import io.confluent.ksql.metastore.model.DataSource.DataSourceType;
+import io.confluent.ksql.metastore.model.KsqlTable;
 import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.name.SourceName;
+import io.confluent.ksql.parser.DefaultKsqlParser;
 import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
 import io.confluent.ksql.parser.tree.Query;
 import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.rest.SessionProperties;
-import io.confluent.ksql.rest.entity.TableRows;
+import io.confluent.ksql.rest.client.RestResponse;
+import io.confluent.ksql.rest.entity.StreamedRow;
 import io.confluent.ksql.rest.server.TemporaryEngine;
+import io.confluent.ksql.rest.server.execution.PullQueryExecutor.HostRouting;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor.PullQueryContext;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor.RouteQuery;
 import io.confluent.ksql.rest.server.resources.KsqlRestException;
 import io.confluent.ksql.rest.server.validation.CustomValidators;
-import io.confluent.ksql.schema.ksql.Column;
-import io.confluent.ksql.schema.ksql.Column.Namespace;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import io.confluent.ksql.serde.FormatFactory;
+import io.confluent.ksql.serde.FormatInfo;
+import io.confluent.ksql.serde.KeyFormat;
+import io.confluent.ksql.serde.SerdeFeatures;
+import io.confluent.ksql.serde.ValueFormat;
 import io.confluent.ksql.services.ServiceContext;
+import io.confluent.ksql.services.SimpleKsqlClient;
 import io.confluent.ksql.statement.ConfiguredStatement;
 import io.confluent.ksql.util.KsqlConfig;
 import io.confluent.ksql.util.KsqlException;
+import io.confluent.ksql.util.KsqlServerException;
 import io.confluent.ksql.util.KsqlStatementException;
+import io.confluent.ksql.util.PersistentQueryMetadata;
+import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import org.apache.kafka.common.utils.Time;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -76,6 +110,7 @@ import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 @RunWith(Enclosed.class)
 public class PullQueryExecutorTest {
@@ -152,7 +187,10 @@ public class PullQueryExecutorTest {
 
     @Rule
     public final TemporaryEngine engine = new TemporaryEngine()
-        .withConfigs(ImmutableMap.of(KsqlConfig.KSQL_QUERY_PULL_MAX_QPS_CONFIG, 2));
+        .withConfigs(ImmutableMap.of(
+            KsqlConfig.KSQL_QUERY_PULL_MAX_QPS_CONFIG, 2,
+            KsqlConfig.KSQL_QUERY_PULL_TABLE_SCAN_MAX_QPS_CONFIG, 2
+        ));
 
     @Mock
     private Time time;
@@ -167,12 +205,117 @@ public class PullQueryExecutorTest {
       pullQueryExecutor.checkRateLimit();
       assertThrows(KsqlException.class, pullQueryExecutor::checkRateLimit);
     }
+
+    @Test
+    public void shouldRateLimitScansSeparately() {
+      // Given:
+      PullQueryExecutor pullQueryExecutor = new PullQueryExecutor(
+          engine.getEngine(), ROUTING_FILTER_FACTORY, engine.getKsqlConfig()
+      );
+      pullQueryExecutor.checkScanRateLimit();
+
+      // When:
+      final Exception e = assertThrows(KsqlException.class, pullQueryExecutor::checkScanRateLimit);
+
+      // Then:
+      assertThat(e.getMessage(), containsString(
+          "Host is at rate limit for pull queries that scan tables"));
+      pullQueryExecutor.checkRateLimit();
+    }
+  }
+
+  @RunWith(MockitoJUnitRunner.class)
+  public static class PlanCache {
+
+    private static final SourceName TABLE = SourceName.of("T");
+    private static final QueryId QUERY_ID = new QueryId("CTAS_T_0");
+    private static final KsqlTopic TOPIC = new KsqlTopic(
+        "t",
+        KeyFormat.nonWindowed(FormatInfo.of(FormatFactory.KAFKA.name()), SerdeFeatures.of()),
+        ValueFormat.of(FormatInfo.of(FormatFactory.JSON.name()), SerdeFeatures.of())
+    );
+
+    @Mock
+    private KsqlExecutionContext executionContext;
+    @Mock
+    private PersistentQueryMetadata query;
+    @Mock
+    private ServiceContext serviceContext;
+    @Mock
+    private ExecutorService executorService;
+    @Mock
+    private PullQueryExecutorMetrics metrics;
+    private MutableMetaStore metaStore;
+    private PullQueryExecutor executor;
+
+    @Before
+    public void setUp() {
+      metaStore = new MetaStoreImpl(new InternalFunctionRegistry());
+      metaStore.putSource(new KsqlTable<>(
+          "sql", TABLE, TemporaryEngine.SCHEMA, Optional.empty(), false, TOPIC), false);
+      metaStore.updateForPersistentQuery(
+          QUERY_ID.toString(), ImmutableSet.of(), ImmutableSet.of(TABLE));
+
+      when(executionContext.getMetaStore()).thenReturn(metaStore);
+      when(executionContext.getPersistentQuery(QUERY_ID)).thenReturn(Optional.of(query));
+      when(query.getQueryId()).thenReturn(QUERY_ID);
+      when(query.getDataSourceType()).thenReturn(DataSourceType.KTABLE);
+      when(query.getResultTopic()).thenReturn(TOPIC);
+      when(query.getLogicalSchema()).thenReturn(TemporaryEngine.SCHEMA);
+      when(query.getMaterialization(any(), any())).thenReturn(Optional.empty());
+
+      executor = new PullQueryExecutor(executionContext, ROUTING_FILTER_FACTORY, 10,
+          executorService, 10, executorService, new PullQueryPlanCache(10));
+    }
+
+    @Test
+    public void shouldValidateWhereClauseOfRequestSharingCachedPlan() {
+      // Given:
+      final Exception first = assertThrows(
+          KsqlStatementException.class,
+          () -> execute("SELECT * FROM T WHERE ROWKEY = 'a';")
+      );
+      assertThat(first.getMessage(), containsString("not a materialized table"));
+
+      // When:
+      final Exception e = assertThrows(
+          KsqlStatementException.class,
+          () -> execute("SELECT * FROM T WHERE ROWKEY = 'a' AND UNKNOWN = 1;")
+      );
+
+      // Then:
+      verify(metrics).recordPlanCacheHit(1);
+      assertThat(e.getMessage(), containsString("WHERE column 'UNKNOWN' cannot be resolved"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void execute(final String sql) {
+      final DefaultKsqlParser parser = new DefaultKsqlParser();
+      final PreparedStatement<Query> prepared = (PreparedStatement<Query>) parser
+          .prepare(parser.parse(sql).get(0), metaStore);
+
+      executor.execute(
+          ConfiguredStatement.of(
+              prepared,
+              SessionConfig.of(new KsqlConfig(ImmutableMap.of()), ImmutableMap.of())
+          ),
+          ImmutableMap.of(),
+          serviceContext,
+          Optional.empty(),
+          Optional.of(metrics)
+      );
+    }
   }
 
   @RunWith(MockitoJUnitRunner.class)
   public static class UnitTests {
     private static final List<?> ROW1 = ImmutableList.of("a", "b");
     private static final List<?> ROW2 = ImmutableList.of("c", "d");
+    private static final LogicalSchema SCHEMA = LogicalSchema.builder()
+        .keyColumn(ColumnName.of("K"), SqlTypes.STRING)
+        .valueColumn(ColumnName.of("V"), SqlTypes.STRING)
+        .build();
+    private static final URI NODE1_LOCATION = URI.create("http://node1:8088");
 
     @Mock
     private ConfiguredStatement<Query> statement;
@@ -185,8 +328,6 @@ public class PullQueryExecutorTest {
     @Mock
     private PullQueryContext pullQueryContext;
     @Mock
-    private QueryId queryId;
-    @Mock
     private RouteQuery routeQuery;
     @Mock
     private KsqlPartitionLocation location1;
@@ -201,11 +342,15 @@ public class PullQueryExecutorTest {
     @Mock
     private KsqlNode node2;
     @Mock
-    private LogicalSchema logicalSchema;
-    @Mock
     private ExecutorService executorService;
     @Mock
+    private ExecutorService scanExecutorService;
+    @Mock
     private RoutingFilterFactory routingFilterFactory;
+    @Mock
+    private SimpleKsqlClient ksqlClient;
+    private ScheduledExecutorService hedgeScheduler;
+    private HostRouting hostRouting;
 
     @Before
     public void setUp() {
@@ -214,100 +359,127 @@ public class PullQueryExecutorTest {
       when(location2.getNodes()).thenReturn(ImmutableList.of(node2, node1));
       when(location3.getNodes()).thenReturn(ImmutableList.of(node1, node2));
       when(location4.getNodes()).thenReturn(ImmutableList.of(node2, node1));
-      when(logicalSchema.key()).thenReturn(ImmutableList.of(Column.of(ColumnName.of("ID"),
-          SqlTypes.STRING, Namespace.KEY, 0)));
-      when(logicalSchema.value()).thenReturn(ImmutableList.of(Column.of(ColumnName.of("VAL"),
-          SqlTypes.STRING, Namespace.VALUE, 1)));
+
+      hedgeScheduler = Executors.newSingleThreadScheduledExecutor();
+      hostRouting = hedgedRouting(0);
+    }
+
+    @After
+    public void tearDown() {
+      hedgeScheduler.shutdownNow();
     }
 
     @Test
-    public void shouldCallRouteQuery_success() throws InterruptedException {
-      TableRows rows = new TableRows("", queryId, logicalSchema, ImmutableList.of(ROW1));
-      when(routeQuery.routeQuery(eq(node1), any(), any(), any(), any())).thenReturn(rows);
-      rows = new TableRows("", queryId, logicalSchema, ImmutableList.of(ROW2));
-      when(routeQuery.routeQuery(eq(node2), any(), any(), any(), any())).thenReturn(rows);
+    public void shouldCallRouteQuery_success() throws Exception {
+      givenRouteQueryReturns(node1, ROW1);
+      givenRouteQueryReturns(node2, ROW2);
       List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location2, location3, location4);
       List<List<KsqlPartitionLocation>> locationsQueried = new ArrayList<>();
-      PullQueryResult result = PullQueryExecutor.handlePullQuery(
+      PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
           statement, executionContext, serviceContext, routingOptions, (l) -> {
             locationsQueried.add(l);
             return pullQueryContext;
-          }, queryId, locations, Executors.newSingleThreadExecutor(), routeQuery);
-      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any());
+          }, locations, rowQueue, Executors.newSingleThreadExecutor(), routeQuery, hostRouting);
+      future.get();
+      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
       assertThat(locationsQueried.get(0).get(0), is(location1));
       assertThat(locationsQueried.get(0).get(1), is(location3));
-      verify(routeQuery).routeQuery(eq(node2), any(), any(), any(), any());
+      verify(routeQuery).routeQuery(eq(node2), any(), any(), any(), any(), any());
       assertThat(locationsQueried.get(1).get(0), is(location2));
       assertThat(locationsQueried.get(1).get(1), is(location4));
 
-      assertThat(result.getTableRows().getRows().size(), is(2));
-      assertThat(result.getTableRows().getRows().get(0), is(ROW1));
-      assertThat(result.getTableRows().getRows().get(1), is(ROW2));
+      assertThat(drain(rowQueue), contains(ROW1, ROW2));
     }
 
     @Test
-    public void shouldCallRouteQuery_twoRound() throws InterruptedException {
-      when(routeQuery.routeQuery(eq(node1), any(), any(), any(), any()))
-          .thenThrow(new RuntimeException("Error!"));
-      TableRows rows1 = new TableRows("", queryId, logicalSchema, ImmutableList.of(ROW1));
-      TableRows rows2 = new TableRows("", queryId, logicalSchema, ImmutableList.of(ROW2));
-      when(routeQuery.routeQuery(eq(node2), any(), any(), any(), any()))
-          .thenReturn(rows2)
-          .thenReturn(rows1);
+    public void shouldCallRouteQuery_twoRound() throws Exception {
+      givenRouteQueryThrows(node1);
+      doAnswer(returnRows(ROW2))
+          .doAnswer(returnRows(ROW1))
+          .when(routeQuery).routeQuery(eq(node2), any(), any(), any(), any(), any());
       List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location2, location3, location4);
       List<List<KsqlPartitionLocation>> locationsQueried = new ArrayList<>();
-      PullQueryResult result = PullQueryExecutor.handlePullQuery(
+      PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
           statement, executionContext, serviceContext, routingOptions, (l) -> {
             locationsQueried.add(l);
             return pullQueryContext;
-          }, queryId, locations, Executors.newSingleThreadExecutor(), routeQuery);
-      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any());
+          }, locations, rowQueue, Executors.newSingleThreadExecutor(), routeQuery, hostRouting);
+      future.get();
+      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
       assertThat(locationsQueried.get(0).get(0), is(location1));
       assertThat(locationsQueried.get(0).get(1), is(location3));
-      verify(routeQuery, times(2)).routeQuery(eq(node2), any(), any(), any(), any());
+      verify(routeQuery, times(2)).routeQuery(eq(node2), any(), any(), any(), any(), any());
       assertThat(locationsQueried.get(1).get(0), is(location2));
       assertThat(locationsQueried.get(1).get(1), is(location4));
       assertThat(locationsQueried.get(2).get(0), is(location1));
       assertThat(locationsQueried.get(2).get(1), is(location3));
 
-      assertThat(result.getTableRows().getRows().size(), is(2));
-      assertThat(result.getTableRows().getRows().get(0), is(ROW2));
-      assertThat(result.getTableRows().getRows().get(1), is(ROW1));
+      assertThat(drain(rowQueue), contains(ROW2, ROW1));
     }
 
     @Test
     public void shouldCallRouteQuery_allFail() {
-      when(routeQuery.routeQuery(eq(node1), any(), any(), any(), any()))
-          .thenThrow(new RuntimeException("Error!"));
-      TableRows rows2 = new TableRows("", queryId, logicalSchema, ImmutableList.of(ROW2));
-      when(routeQuery.routeQuery(eq(node2), any(), any(), any(), any()))
-          .thenReturn(rows2)
-          .thenThrow(new RuntimeException("Error!"));
+      givenRouteQueryThrows(node1);
+      doAnswer(returnRows(ROW2))
+          .doThrow(new RuntimeException("Error!"))
+          .when(routeQuery).routeQuery(eq(node2), any(), any(), any(), any(), any());
       List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location2, location3, location4);
       List<List<KsqlPartitionLocation>> locationsQueried = new ArrayList<>();
+      PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
 
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
+          statement, executionContext, serviceContext, routingOptions, (l) -> {
+            locationsQueried.add(l);
+            return pullQueryContext;
+          }, locations, rowQueue, Executors.newSingleThreadExecutor(), routeQuery, hostRouting);
       final Exception e = assertThrows(
-          MaterializationException.class,
-          () -> PullQueryExecutor.handlePullQuery(
-              statement, executionContext, serviceContext, routingOptions, (l) -> {
-                locationsQueried.add(l);
-                return pullQueryContext;
-              }, queryId, locations, Executors.newSingleThreadExecutor(), routeQuery)
+          ExecutionException.class,
+          future::get
       );
 
-      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any());
+      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
       assertThat(locationsQueried.get(0).get(0), is(location1));
       assertThat(locationsQueried.get(0).get(1), is(location3));
-      verify(routeQuery, times(2)).routeQuery(eq(node2), any(), any(), any(), any());
+      verify(routeQuery, times(2)).routeQuery(eq(node2), any(), any(), any(), any(), any());
       assertThat(locationsQueried.get(1).get(0), is(location2));
       assertThat(locationsQueried.get(1).get(1), is(location4));
       assertThat(locationsQueried.get(2).get(0), is(location1));
       assertThat(locationsQueried.get(2).get(1), is(location3));
 
-      assertThat(e.getMessage(), containsString("Unable to execute pull query: foo. "
+      assertThat(e.getCause(), instanceOf(MaterializationException.class));
+      assertThat(e.getCause().getMessage(), containsString("Unable to execute pull query: foo. "
           + "Exhausted standby hosts to try."));
     }
 
+    @Test
+    public void shouldNotRetryHostThatFailsAfterReturningRows() {
+      // Given:
+      givenRouteQueryReturns(node1, ROW1);
+      doAnswer(invocation -> {
+        final Predicate<List<?>> rowConsumer = invocation.getArgument(5);
+        rowConsumer.test(ROW2);
+        throw new RuntimeException("Error!");
+      }).when(routeQuery).routeQuery(eq(node2), any(), any(), any(), any(), any());
+      List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location2, location3, location4);
+      PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
+
+      // When:
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
+          statement, executionContext, serviceContext, routingOptions, (l) -> pullQueryContext,
+          locations, rowQueue, Executors.newSingleThreadExecutor(), routeQuery, hostRouting);
+      final Exception e = assertThrows(
+          ExecutionException.class,
+          future::get
+      );
+
+      // Then:
+      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
+      verify(routeQuery).routeQuery(eq(node2), any(), any(), any(), any(), any());
+      assertThat(e.getCause().getMessage(), is("Error!"));
+    }
+
     @Test
     public void shouldCallRouteQuery_allFiltered() {
       when(location1.getNodes()).thenReturn(ImmutableList.of());
@@ -320,18 +492,122 @@ public class PullQueryExecutorTest {
               statement, executionContext, serviceContext, routingOptions, (l) -> {
                 locationsQueried.add(l);
                 return pullQueryContext;
-              }, queryId, locations, Executors.newSingleThreadExecutor(), routeQuery)
+              }, locations, new PullQueryQueue(OptionalInt.empty()),
+              Executors.newSingleThreadExecutor(), routeQuery, hostRouting)
       );
 
       assertThat(e.getMessage(), containsString("Unable to execute pull query foo. "
           + "All nodes are dead or exceed max allowed lag."));
     }
 
+    @Test
+    public void shouldHedgeSlowRequestToNextHost() throws Exception {
+      // Given:
+      final CountDownLatch node1Blocked = new CountDownLatch(1);
+      doAnswer(invocation -> {
+        node1Blocked.await();
+        return returnRows(ROW1).answer(invocation);
+      }).when(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
+      givenRouteQueryReturns(node2, ROW2);
+      List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location3);
+      PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
+
+      // When:
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
+          statement, executionContext, serviceContext, routingOptions, (l) -> pullQueryContext,
+          locations, rowQueue, Executors.newCachedThreadPool(), routeQuery, hedgedRouting(10));
+      future.get(30, TimeUnit.SECONDS);
+      node1Blocked.countDown();
+
+      // Then:
+      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
+      verify(routeQuery).routeQuery(eq(node2), any(), any(), any(), any(), any());
+      assertThat(drain(rowQueue), contains(ROW2));
+    }
+
+    @Test
+    public void shouldCancelHedgedRequestThatLoses() throws Exception {
+      // Given:
+      final CountDownLatch node1Cancelled = new CountDownLatch(1);
+      doAnswer(invocation -> {
+        try {
+          new CountDownLatch(1).await();
+        } catch (final InterruptedException e) {
+          node1Cancelled.countDown();
+        }
+        throw new RuntimeException("Cancelled");
+      }).when(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
+      givenRouteQueryReturns(node2, ROW2);
+      List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location3);
+      PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
+
+      // When:
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
+          statement, executionContext, serviceContext, routingOptions, (l) -> pullQueryContext,
+          locations, rowQueue, Executors.newCachedThreadPool(), routeQuery, hedgedRouting(10));
+      future.get(30, TimeUnit.SECONDS);
+
+      // Then:
+      assertThat(node1Cancelled.await(30, TimeUnit.SECONDS), is(true));
+      assertThat(drain(rowQueue), contains(ROW2));
+    }
+
+    @Test
+    public void shouldNotHedgeRequestThatAnswersWithinDelay() throws Exception {
+      // Given:
+      givenRouteQueryReturns(node1, ROW1);
+      List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location3);
+      PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
+
+      // When:
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
+          statement, executionContext, serviceContext, routingOptions, (l) -> pullQueryContext,
+          locations, rowQueue, Executors.newCachedThreadPool(), routeQuery,
+          hedgedRouting(60_000));
+      future.get(30, TimeUnit.SECONDS);
+
+      // Then:
+      verify(routeQuery, never()).routeQuery(eq(node2), any(), any(), any(), any(), any());
+      assertThat(drain(rowQueue), contains(ROW1));
+    }
+
+    @Test
+    public void shouldMoveToNextRoundIfBothHedgedRequestsFail() {
+      // Given:
+      final CountDownLatch node2Failed = new CountDownLatch(1);
+      doAnswer(invocation -> {
+        node2Failed.await();
+        throw new RuntimeException("Error!");
+      }).when(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
+      doAnswer(invocation -> {
+        node2Failed.countDown();
+        throw new RuntimeException("Error!");
+      }).when(routeQuery).routeQuery(eq(node2), any(), any(), any(), any(), any());
+      List<KsqlPartitionLocation> locations = ImmutableList.of(location1, location3);
+
+      // When:
+      CompletableFuture<Void> future = PullQueryExecutor.handlePullQuery(
+          statement, executionContext, serviceContext, routingOptions, (l) -> pullQueryContext,
+          locations, new PullQueryQueue(OptionalInt.empty()), Executors.newCachedThreadPool(),
+          routeQuery, hedgedRouting(10));
+      final Exception e = assertThrows(
+          ExecutionException.class,
+          () -> future.get(30, TimeUnit.SECONDS)
+      );
+
+      // Then:
+      verify(routeQuery).routeQuery(eq(node1), any(), any(), any(), any(), any());
+      verify(routeQuery, times(2)).routeQuery(eq(node2), any(), any(), any(), any(), any());
+      assertThat(e.getCause(), instanceOf(MaterializationException.class));
+      assertThat(e.getCause().getMessage(), containsString("Exhausted standby hosts to try."));
+    }
+
     @Test
     public void shouldCloseExecutorOnClose() throws Exception {
       // Given:
       final PullQueryExecutor executor =
-          new PullQueryExecutor(executionContext, routingFilterFactory, 10, executorService);
+          new PullQueryExecutor(executionContext, routingFilterFactory, 10, executorService,
+              10, scanExecutorService, new PullQueryPlanCache(10));
 
       // When:
       executor.close(Duration.ofSeconds(30));
@@ -339,6 +615,137 @@ public class PullQueryExecutorTest {
       // Then:
       verify(executorService).shutdown();
       verify(executorService).awaitTermination(30_000, TimeUnit.MILLISECONDS);
+      verify(scanExecutorService).shutdown();
+      verify(scanExecutorService).awaitTermination(30_000, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldForwardToInternalEndpoint() {
+      // Given:
+      givenForwarding(ImmutableMap.of());
+      when(ksqlClient.makeInternalPullQueryRequest(
+          eq(NODE1_LOCATION), any(), any(), any(), any())).thenAnswer(respondWith(ROW1));
+      final List<List<?>> rows = new ArrayList<>();
+
+      // When:
+      PullQueryExecutor.forwardTo(node1, statement, serviceContext,
+          ImmutableList.of(location1), SCHEMA, rows::add);
+
+      // Then:
+      verify(ksqlClient, never()).makeQueryRequest(any(), any(), any(), any(), any());
+      assertThat(rows, contains(ROW1));
+    }
+
+    @Test
+    public void shouldFallBackToRestIfInternalEndpointNotFound() {
+      // Given:
+      givenForwarding(ImmutableMap.of());
+      when(ksqlClient.makeInternalPullQueryRequest(
+          eq(NODE1_LOCATION), any(), any(), any(), any()))
+          .thenReturn(RestResponse.erroneous(NOT_FOUND.code(), "Not found"));
+      when(ksqlClient.makeQueryRequest(eq(NODE1_LOCATION), any(), any(), any(), any()))
+          .thenAnswer(respondWith(ROW1, ROW2));
+      final List<List<?>> rows = new ArrayList<>();
+
+      // When:
+      PullQueryExecutor.forwardTo(node1, statement, serviceContext,
+          ImmutableList.of(location1), SCHEMA, rows::add);
+
+      // Then:
+      verify(ksqlClient).makeInternalPullQueryRequest(any(), any(), any(), any(), any());
+      assertThat(rows, contains(ROW1, ROW2));
+    }
+
+    @Test
+    public void shouldOnlyForwardOverRestIfBinaryFormatDisabled() {
+      // Given:
+      givenForwarding(ImmutableMap.of(
+          KsqlConfig.KSQL_QUERY_PULL_INTERNAL_BINARY_ENABLED, false));
+      when(ksqlClient.makeQueryRequest(eq(NODE1_LOCATION), any(), any(), any(), any()))
+          .thenAnswer(respondWith(ROW1));
+      final List<List<?>> rows = new ArrayList<>();
+
+      // When:
+      PullQueryExecutor.forwardTo(node1, statement, serviceContext,
+          ImmutableList.of(location1), SCHEMA, rows::add);
+
+      // Then:
+      verify(ksqlClient, never())
+          .makeInternalPullQueryRequest(any(), any(), any(), any(), any());
+      assertThat(rows, contains(ROW1));
+    }
+
+    @Test
+    public void shouldFailForwardingIfRestFallbackFails() {
+      // Given:
+      givenForwarding(ImmutableMap.of());
+      when(ksqlClient.makeInternalPullQueryRequest(
+          eq(NODE1_LOCATION), any(), any(), any(), any()))
+          .thenReturn(RestResponse.erroneous(NOT_FOUND.code(), "Not found"));
+      when(ksqlClient.makeQueryRequest(eq(NODE1_LOCATION), any(), any(), any(), any()))
+          .thenReturn(RestResponse.erroneous(BAD_REQUEST.code(), "Boom"));
+
+      // When:
+      final Exception e = assertThrows(
+          KsqlServerException.class,
+          () -> PullQueryExecutor.forwardTo(node1, statement, serviceContext,
+              ImmutableList.of(location1), SCHEMA, row -> true)
+      );
+
+      // Then:
+      assertThat(e.getMessage(), containsString("Forwarding attempt failed: Boom"));
+    }
+
+    private void givenForwarding(final Map<String, ?> overrides) {
+      when(node1.location()).thenReturn(NODE1_LOCATION);
+      when(serviceContext.getKsqlClient()).thenReturn(ksqlClient);
+      when(statement.getSessionConfig()).thenReturn(
+          SessionConfig.of(new KsqlConfig(ImmutableMap.of()), overrides));
+    }
+
+    private static Answer<RestResponse<Integer>> respondWith(final List<?>... rows) {
+      return invocation -> {
+        final Predicate<StreamedRow> rowConsumer = invocation.getArgument(4);
+        rowConsumer.test(StreamedRow.header(new QueryId("query_1"), SCHEMA));
+        for (final List<?> row : rows) {
+          rowConsumer.test(StreamedRow.pullRow(
+              GenericRow.fromList(new ArrayList<>(row)), Optional.empty()));
+        }
+        return RestResponse.successful(200, rows.length + 1);
+      };
+    }
+
+    private HostRouting hedgedRouting(final long hedgeDelayMs) {
+      return new HostRouting(
+          new PullQueryHostStats(), hedgeScheduler, hedgeDelayMs, Optional.empty());
+    }
+
+    private void givenRouteQueryReturns(final KsqlNode node, final List<?> row) {
+      doAnswer(returnRows(row))
+          .when(routeQuery).routeQuery(eq(node), any(), any(), any(), any(), any());
+    }
+
+    private void givenRouteQueryThrows(final KsqlNode node) {
+      doThrow(new RuntimeException("Error!"))
+          .when(routeQuery).routeQuery(eq(node), any(), any(), any(), any(), any());
+    }
+
+    private static Answer<Void> returnRows(final List<?>... rows) {
+      return invocation -> {
+        final Predicate<List<?>> rowConsumer = invocation.getArgument(5);
+        for (final List<?> row : rows) {
+          rowConsumer.test(row);
+        }
+        return null;
+      };
+    }
+
+    private static List<List<?>> drain(final PullQueryQueue rowQueue) {
+      final List<PullQueryRow> rows = new ArrayList<>();
+      rowQueue.drainTo(rows);
+      return rows.stream()
+          .map(PullQueryRow::getRow)
+          .collect(Collectors.toList());
     }
   }
 }
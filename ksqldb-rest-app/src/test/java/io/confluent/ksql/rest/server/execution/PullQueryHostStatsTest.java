@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.execution.streams.materialization.Locator.KsqlNode;
+import io.confluent.ksql.execution.streams.materialization.Locator.KsqlPartitionLocation;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PullQueryHostStatsTest {
+
+  @Mock
+  private KsqlNode active;
+  @Mock
+  private KsqlNode standby;
+  @Mock
+  private KsqlPartitionLocation location;
+  @Mock
+  private Struct key;
+
+  private PullQueryHostStats hostStats;
+  private long nowNanos;
+
+  @Before
+  public void setUp() {
+    when(location.getNodes()).thenReturn(ImmutableList.of(active, standby));
+    hostStats = new PullQueryHostStats(() -> nowNanos);
+  }
+
+  @Test
+  public void shouldKeepOrderOfHostsWithoutRequests() {
+    // When:
+    final List<KsqlPartitionLocation> result = hostStats.order(ImmutableList.of(location));
+
+    // Then:
+    assertThat(result.get(0).getNodes(), contains(active, standby));
+  }
+
+  @Test
+  public void shouldOrderHostsByLatency() {
+    // Given:
+    givenRequest(active, 10);
+    givenRequest(standby, 2);
+
+    // When:
+    final List<KsqlPartitionLocation> result = hostStats.order(ImmutableList.of(location));
+
+    // Then:
+    assertThat(result.get(0).getNodes(), contains(standby, active));
+  }
+
+  @Test
+  public void shouldOrderHostsByRequestsInFlight() {
+    // Given:
+    givenRequest(active, 2);
+    givenRequest(standby, 3);
+    hostStats.requestStarted(active);
+    hostStats.requestStarted(active);
+
+    // When:
+    final List<KsqlPartitionLocation> result = hostStats.order(ImmutableList.of(location));
+
+    // Then:
+    assertThat(hostStats.inFlight(active), is(2L));
+    assertThat(result.get(0).getNodes(), contains(standby, active));
+  }
+
+  @Test
+  public void shouldAverageLatencyWeightedTowardsLatestRequests() {
+    // Given:
+    givenRequest(active, 10);
+
+    // When:
+    givenRequest(active, 20);
+
+    // Then:
+    assertThat(hostStats.latencyMicros(active), is(closeTo(12_000.0, 0.1)));
+    assertThat(hostStats.inFlight(active), is(0L));
+  }
+
+  @Test
+  public void shouldNotAverageLatencyOfFailedRequests() {
+    // Given:
+    givenRequest(active, 10);
+    hostStats.requestStarted(active);
+
+    // When:
+    hostStats.requestCompleted(active, TimeUnit.MILLISECONDS.toNanos(1), false);
+
+    // Then:
+    assertThat(hostStats.latencyMicros(active), is(closeTo(10_000.0, 0.1)));
+    assertThat(hostStats.inFlight(active), is(0L));
+  }
+
+  @Test
+  public void shouldForgetHostsWithoutRecentRequests() {
+    // Given:
+    givenRequest(active, 10);
+    nowNanos += PullQueryHostStats.IDLE_HOST_NANOS / 2;
+    givenRequest(standby, 10);
+
+    // When:
+    nowNanos += PullQueryHostStats.IDLE_HOST_NANOS * 3 / 4;
+    hostStats.requestStarted(standby);
+
+    // Then:
+    assertThat(hostStats.latencyMicros(active), is(0.0));
+    assertThat(hostStats.latencyMicros(standby), is(closeTo(10_000.0, 0.1)));
+  }
+
+  @Test
+  public void shouldNotForgetHostsWithRequestsInFlight() {
+    // Given:
+    givenRequest(active, 10);
+    hostStats.requestStarted(active);
+
+    // When:
+    nowNanos += 2 * PullQueryHostStats.IDLE_HOST_NANOS;
+    hostStats.requestStarted(standby);
+
+    // Then:
+    assertThat(hostStats.latencyMicros(active), is(closeTo(10_000.0, 0.1)));
+    assertThat(hostStats.inFlight(active), is(1L));
+  }
+
+  @Test
+  public void shouldKeepPartitionAndKeysOfOrderedLocation() {
+    // Given:
+    when(location.getPartition()).thenReturn(3);
+    when(location.getKeys()).thenReturn(Optional.of(ImmutableSet.of(key)));
+    givenRequest(active, 10);
+    givenRequest(standby, 2);
+
+    // When:
+    final KsqlPartitionLocation result = hostStats.order(ImmutableList.of(location)).get(0);
+
+    // Then:
+    assertThat(result.getPartition(), is(3));
+    assertThat(result.getKeys(), is(Optional.of(ImmutableSet.of(key))));
+  }
+
+  private void givenRequest(final KsqlNode node, final long latencyMillis) {
+    hostStats.requestStarted(node);
+    hostStats.requestCompleted(node, TimeUnit.MILLISECONDS.toNanos(latencyMillis), true);
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.KsqlExecutionContext;
+import io.confluent.ksql.analyzer.Analysis.AliasedDataSource;
+import io.confluent.ksql.analyzer.ImmutableAnalysis;
+import io.confluent.ksql.config.SessionConfig;
+import io.confluent.ksql.execution.expression.tree.ComparisonExpression;
+import io.confluent.ksql.execution.expression.tree.IntegerLiteral;
+import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
+import io.confluent.ksql.metastore.MetaStore;
+import io.confluent.ksql.metastore.model.DataSource;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.name.SourceName;
+import io.confluent.ksql.parser.KsqlParser.PreparedStatement;
+import io.confluent.ksql.parser.tree.AllColumns;
+import io.confluent.ksql.parser.tree.Query;
+import io.confluent.ksql.parser.tree.Select;
+import io.confluent.ksql.parser.tree.Table;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.statement.ConfiguredStatement;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.PersistentQueryMetadata;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PullQueryPlanCacheTest {
+
+  private static final SourceName TABLE = SourceName.of("T");
+  private static final QueryId QUERY_ID = new QueryId("CTAS_T_0");
+  private static final KsqlConfig KSQL_CONFIG = new KsqlConfig(ImmutableMap.of());
+
+  @Mock
+  private KsqlExecutionContext executionContext;
+  @Mock
+  private MetaStore metaStore;
+  @Mock
+  private DataSource source;
+  @Mock
+  private ImmutableAnalysis analysis;
+  @Mock
+  private PersistentQueryMetadata query;
+  @Mock
+  private PullQueryExecutorMetrics metrics;
+  @Mock
+  private Function<Query, PullQueryPlan> planner;
+
+  private PullQueryPlanCache cache;
+
+  @Before
+  public void setUp() {
+    when(analysis.getFrom()).thenReturn(new AliasedDataSource(TABLE, source));
+    when(planner.apply(any())).thenAnswer(inv -> new PullQueryPlan(analysis, query));
+
+    cache = new PullQueryPlanCache(10);
+  }
+
+  @Test
+  public void shouldShareCachedPlanBetweenStatementsDifferingOnlyInKey() {
+    // Given:
+    givenRegistered(source, query);
+    final PullQueryPlan first = plan(statement(1, ImmutableMap.of()));
+
+    // When:
+    final PullQueryPlan second = plan(statement(2, ImmutableMap.of()));
+
+    // Then:
+    assertThat(second, is(sameInstance(first)));
+    verify(metrics).recordPlanCacheMiss(1);
+    verify(metrics).recordPlanCacheHit(1);
+  }
+
+  @Test
+  public void shouldPlanStatementWithoutWhereClause() {
+    // When:
+    plan(statement(1, ImmutableMap.of()));
+
+    // Then:
+    final ArgumentCaptor<Query> shape = ArgumentCaptor.forClass(Query.class);
+    verify(planner).apply(shape.capture());
+    assertThat(shape.getValue().getWhere(), is(Optional.empty()));
+    assertThat(shape.getValue().getFrom(), is(new Table(TABLE)));
+  }
+
+  @Test
+  public void shouldNotShareCachedPlanBetweenDifferentOverrides() {
+    // Given:
+    final PullQueryPlan first = plan(statement(1, ImmutableMap.of()));
+
+    // When:
+    final PullQueryPlan second = plan(statement(1, ImmutableMap.of(
+        KsqlConfig.KSQL_QUERY_PULL_MAX_ALLOWED_OFFSET_LAG_CONFIG, 10L)));
+
+    // Then:
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(cache.size(), is(2L));
+  }
+
+  @Test
+  public void shouldReplanIfMaterializingQueryReplaced() {
+    // Given:
+    final PullQueryPlan first = plan(statement(1, ImmutableMap.of()));
+    givenRegistered(source, mock(PersistentQueryMetadata.class));
+
+    // When:
+    final PullQueryPlan second = plan(statement(1, ImmutableMap.of()));
+
+    // Then:
+    assertThat(second, is(not(sameInstance(first))));
+  }
+
+  @Test
+  public void shouldReplanIfSourceDropped() {
+    // Given:
+    final PullQueryPlan first = plan(statement(1, ImmutableMap.of()));
+    when(source.getName()).thenReturn(TABLE);
+    when(executionContext.getMetaStore()).thenReturn(metaStore);
+    when(metaStore.getSource(TABLE)).thenReturn(null);
+
+    // When:
+    final PullQueryPlan second = plan(statement(1, ImmutableMap.of()));
+
+    // Then:
+    assertThat(second, is(not(sameInstance(first))));
+  }
+
+  @Test
+  public void shouldNotRetainPlansIfSizeIsZero() {
+    // Given:
+    cache = new PullQueryPlanCache(0);
+
+    // When:
+    plan(statement(1, ImmutableMap.of()));
+
+    // Then:
+    assertThat(cache.size(), is(0L));
+  }
+
+  private void givenRegistered(
+      final DataSource currentSource,
+      final PersistentQueryMetadata currentQuery
+  ) {
+    when(source.getName()).thenReturn(TABLE);
+    when(query.getQueryId()).thenReturn(QUERY_ID);
+    when(executionContext.getMetaStore()).thenReturn(metaStore);
+    when(metaStore.getSource(TABLE)).thenReturn(currentSource);
+    when(metaStore.getQueriesWithSink(TABLE)).thenReturn(ImmutableSet.of(QUERY_ID.toString()));
+    when(executionContext.getPersistentQuery(QUERY_ID)).thenReturn(Optional.of(currentQuery));
+  }
+
+  private PullQueryPlan plan(final ConfiguredStatement<Query> statement) {
+    return cache.plan(statement, executionContext, Optional.of(metrics), planner);
+  }
+
+  private static ConfiguredStatement<Query> statement(
+      final int key,
+      final Map<String, ?> overrides
+  ) {
+    final Query query = new Query(
+        Optional.empty(),
+        new Select(ImmutableList.of(new AllColumns(Optional.empty()))),
+        new Table(TABLE),
+        Optional.empty(),
+        Optional.of(new ComparisonExpression(
+            ComparisonExpression.Type.EQUAL,
+            new UnqualifiedColumnReferenceExp(ColumnName.of("ID")),
+            new IntegerLiteral(key)
+        )),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        true,
+        OptionalInt.empty()
+    );
+
+    return ConfiguredStatement.of(
+        PreparedStatement.of("SELECT * FROM T WHERE ID=" + key + ";", query),
+        SessionConfig.of(KSQL_CONFIG, overrides)
+    );
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.confluent.ksql.analyzer.Analysis.AliasedDataSource;
+import io.confluent.ksql.analyzer.ImmutableAnalysis;
+import io.confluent.ksql.execution.expression.tree.ComparisonExpression;
+import io.confluent.ksql.execution.expression.tree.Expression;
+import io.confluent.ksql.execution.expression.tree.IntegerLiteral;
+import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
+import io.confluent.ksql.metastore.model.DataSource;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.name.SourceName;
+import io.confluent.ksql.util.PersistentQueryMetadata;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PullQueryPlanTest {
+
+  @Mock
+  private ImmutableAnalysis analysis;
+  @Mock
+  private PersistentQueryMetadata query;
+  @Mock
+  private DataSource source;
+  @Mock
+  private Supplier<TableScan> compiler;
+  @Mock
+  private Supplier<TableScan> otherCompiler;
+
+  private PullQueryPlan plan;
+
+  @Before
+  public void setUp() {
+    when(analysis.getFrom()).thenReturn(new AliasedDataSource(SourceName.of("T"), source));
+    when(compiler.get()).thenAnswer(inv -> mock(TableScan.class));
+
+    plan = new PullQueryPlan(analysis, query);
+  }
+
+  @Test
+  public void shouldOnlyCompileScanOncePerWhereClause() {
+    // Given:
+    final TableScan first = plan.getTableScan(where(1), compiler);
+
+    // When:
+    final TableScan second = plan.getTableScan(where(1), otherCompiler);
+
+    // Then:
+    assertThat(second, is(sameInstance(first)));
+    verify(otherCompiler, never()).get();
+  }
+
+  @Test
+  public void shouldCompileScanForEachDifferentWhereClause() {
+    // Given:
+    final TableScan first = plan.getTableScan(where(1), compiler);
+
+    // When:
+    final TableScan second = plan.getTableScan(where(2), compiler);
+
+    // Then:
+    assertThat(second, is(not(sameInstance(first))));
+  }
+
+  @Test
+  public void shouldCacheScanWithoutWhereClause() {
+    // Given:
+    final TableScan first = plan.getTableScan(Optional.empty(), compiler);
+
+    // When:
+    final TableScan second = plan.getTableScan(Optional.empty(), compiler);
+
+    // Then:
+    assertThat(second, is(sameInstance(first)));
+  }
+
+  private static Optional<Expression> where(final int value) {
+    return Optional.of(new ComparisonExpression(
+        ComparisonExpression.Type.GREATER_THAN,
+        new UnqualifiedColumnReferenceExp(ColumnName.of("V")),
+        new IntegerLiteral(value)
+    ));
+  }
+}
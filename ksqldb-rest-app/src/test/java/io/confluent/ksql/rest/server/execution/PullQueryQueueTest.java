@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PullQueryQueueTest {
+
+  private static final PullQueryRow ROW1 =
+      new PullQueryRow(ImmutableList.of("a", 1), Optional.empty());
+  private static final PullQueryRow ROW2 =
+      new PullQueryRow(ImmutableList.of("b", 2), Optional.empty());
+  private static final PullQueryRow ROW3 =
+      new PullQueryRow(ImmutableList.of("c", 3), Optional.empty());
+
+  @Mock
+  private Runnable queuedCallback;
+
+  @Test
+  public void shouldQueueRowsInOrder() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.empty());
+
+    // When:
+    queue.acceptRow(ROW1);
+    queue.acceptRow(ROW2);
+
+    // Then:
+    assertThat(drain(queue), contains(ROW1, ROW2));
+  }
+
+  @Test
+  public void shouldCallCallbackOnEachRowQueued() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.empty());
+    queue.setQueuedCallback(queuedCallback);
+
+    // When:
+    queue.acceptRow(ROW1);
+    queue.acceptRow(ROW2);
+
+    // Then:
+    verify(queuedCallback, times(2)).run();
+  }
+
+  @Test
+  public void shouldAskForMoreRowsUntilLimitReached() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.of(2));
+
+    // Then:
+    assertThat(queue.acceptRow(ROW1), is(true));
+    assertThat(queue.acceptRow(ROW2), is(false));
+  }
+
+  @Test
+  public void shouldNotQueueRowsBeyondLimit() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.of(2));
+    queue.acceptRow(ROW1);
+    queue.acceptRow(ROW2);
+
+    // When:
+    final boolean result = queue.acceptRow(ROW3);
+
+    // Then:
+    assertThat(result, is(false));
+    assertThat(drain(queue), contains(ROW1, ROW2));
+  }
+
+  @Test
+  public void shouldNotQueueRowsOnceClosed() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.empty());
+    queue.setQueuedCallback(queuedCallback);
+    queue.close();
+
+    // When:
+    final boolean result = queue.acceptRow(ROW1);
+
+    // Then:
+    assertThat(result, is(false));
+    assertThat(queue.isEmpty(), is(true));
+    verify(queuedCallback, never()).run();
+  }
+
+  @Test
+  public void shouldDiscardQueuedRowsOnClose() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.empty());
+    queue.acceptRow(ROW1);
+
+    // When:
+    queue.close();
+
+    // Then:
+    assertThat(queue.isClosed(), is(true));
+    assertThat(queue.isEmpty(), is(true));
+  }
+
+  @Test
+  public void shouldUnblockProducerWhenClosed() throws Exception {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.empty(), 1, 10, 10_000);
+    queue.acceptRow(ROW1);
+    final Thread closer = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      queue.close();
+    });
+    closer.start();
+
+    // When:
+    final boolean result = queue.acceptRow(ROW2);
+
+    // Then:
+    assertThat(result, is(false));
+    closer.join();
+  }
+
+  @Test
+  public void shouldFailProducersOnceBlockedForTooLong() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.empty(), 1, 10, 50);
+    queue.acceptRow(ROW1);
+
+    // When:
+    final Exception e = assertThrows(KsqlException.class, () -> queue.acceptRow(ROW2));
+
+    // Then:
+    assertThat(e.getMessage(), containsString(KsqlConfig.KSQL_QUERY_PULL_MAX_BLOCKED_MS_CONFIG));
+    assertThrows(KsqlException.class, () -> queue.acceptRow(ROW2));
+  }
+
+  @Test
+  public void shouldCountBlockedTimeAcrossRows() {
+    // Given:
+    final PullQueryQueue queue = new PullQueryQueue(OptionalInt.empty(), 1, 10, 100);
+    queue.acceptRow(ROW1);
+    final Thread consumer = new Thread(() -> {
+      try {
+        Thread.sleep(70);
+        queue.poll();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    consumer.start();
+    queue.acceptRow(ROW2);
+
+    // When:
+    final Exception e = assertThrows(KsqlException.class, () -> queue.acceptRow(ROW1));
+
+    // Then:
+    assertThat(e.getMessage(), containsString("did not read its rows"));
+  }
+
+  private static List<PullQueryRow> drain(final PullQueryQueue queue) {
+    final List<PullQueryRow> rows = new ArrayList<>();
+    queue.drainTo(rows);
+    return rows;
+  }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.execution;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.expression.tree.ComparisonExpression;
+import io.confluent.ksql.execution.expression.tree.Expression;
+import io.confluent.ksql.execution.expression.tree.InListExpression;
+import io.confluent.ksql.execution.expression.tree.InPredicate;
+import io.confluent.ksql.execution.expression.tree.IntegerLiteral;
+import io.confluent.ksql.execution.expression.tree.LogicalBinaryExpression;
+import io.confluent.ksql.execution.expression.tree.StringLiteral;
+import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
+import io.confluent.ksql.execution.streams.materialization.MaterializedTable;
+import io.confluent.ksql.execution.streams.materialization.Row;
+import io.confluent.ksql.execution.streams.materialization.TableRow;
+import io.confluent.ksql.execution.util.StructKeyUtil;
+import io.confluent.ksql.function.FunctionRegistry;
+import io.confluent.ksql.logging.processing.ProcessingLogger;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import io.confluent.ksql.serde.FormatFactory;
+import io.confluent.ksql.serde.FormatInfo;
+import io.confluent.ksql.serde.KeyFormat;
+import io.confluent.ksql.serde.SerdeFeatures;
+import io.confluent.ksql.serde.connect.ConnectSchemas;
+import io.confluent.ksql.util.KsqlConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TableScanTest {
+
+  private static final ColumnName ID = ColumnName.of("ID");
+  private static final ColumnName COUNT = ColumnName.of("COUNT");
+
+  private static final LogicalSchema SCHEMA = LogicalSchema.builder()
+      .keyColumn(ID, SqlTypes.STRING)
+      .valueColumn(COUNT, SqlTypes.BIGINT)
+      .build();
+
+  private static final LogicalSchema INT_KEY_SCHEMA = LogicalSchema.builder()
+      .keyColumn(ID, SqlTypes.INTEGER)
+      .valueColumn(COUNT, SqlTypes.BIGINT)
+      .build();
+
+  private static final KeyFormat KAFKA_FORMAT = KeyFormat
+      .nonWindowed(FormatInfo.of(FormatFactory.KAFKA.name()), SerdeFeatures.of());
+
+  private static final KeyFormat JSON_FORMAT = KeyFormat
+      .nonWindowed(FormatInfo.of(FormatFactory.JSON.name()), SerdeFeatures.of());
+
+  private static final int PARTITION = 2;
+
+  private static final Row ROW_A = row("a", 1L);
+  private static final Row ROW_B = row("b", 2L);
+
+  @Mock
+  private MaterializedTable table;
+  @Mock
+  private FunctionRegistry functionRegistry;
+  @Mock
+  private ProcessingLogger logger;
+
+  @Test
+  public void shouldTreatKeyEqualityAsKeyLookup() {
+    assertThat(TableScan.isKeyLookup(
+        Optional.of(keyComparison(ComparisonExpression.Type.EQUAL, "a")), SCHEMA), is(true));
+  }
+
+  @Test
+  public void shouldTreatKeyEqualityWithLiteralOnLeftAsKeyLookup() {
+    // Given:
+    final Expression where = new ComparisonExpression(
+        ComparisonExpression.Type.EQUAL,
+        new StringLiteral("a"),
+        new UnqualifiedColumnReferenceExp(ID)
+    );
+
+    // Then:
+    assertThat(TableScan.isKeyLookup(Optional.of(where), SCHEMA), is(true));
+  }
+
+  @Test
+  public void shouldTreatKeyInAsKeyLookup() {
+    // Given:
+    final Expression where = new InPredicate(
+        new UnqualifiedColumnReferenceExp(ID),
+        new InListExpression(ImmutableList.of(new StringLiteral("a"), new StringLiteral("b")))
+    );
+
+    // Then:
+    assertThat(TableScan.isKeyLookup(Optional.of(where), SCHEMA), is(true));
+  }
+
+  @Test
+  public void shouldNotTreatMissingWhereAsKeyLookup() {
+    assertThat(TableScan.isKeyLookup(Optional.empty(), SCHEMA), is(false));
+  }
+
+  @Test
+  public void shouldNotTreatKeyRangeAsKeyLookup() {
+    assertThat(TableScan.isKeyLookup(
+        Optional.of(keyComparison(ComparisonExpression.Type.GREATER_THAN, "a")), SCHEMA),
+        is(false));
+  }
+
+  @Test
+  public void shouldNotTreatKeyEqualityWithOtherConditionsAsKeyLookup() {
+    // Given:
+    final Expression where = and(
+        keyComparison(ComparisonExpression.Type.EQUAL, "a"),
+        countGreaterThan(1)
+    );
+
+    // Then:
+    assertThat(TableScan.isKeyLookup(Optional.of(where), SCHEMA), is(false));
+  }
+
+  @Test
+  public void shouldExtractKeyRange() {
+    // Given:
+    final Expression where = and(
+        keyComparison(ComparisonExpression.Type.GREATER_THAN, "10"),
+        keyComparison(ComparisonExpression.Type.LESS_THAN_OR_EQUAL, "8")
+    );
+
+    // When:
+    final TableScan scan = create(where, SCHEMA, KAFKA_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange(), is(Optional.of(Range.openClosed("10", "8"))));
+  }
+
+  @Test
+  public void shouldExtractKeyRangeWithLiteralOnLeft() {
+    // Given:
+    final Expression where = new ComparisonExpression(
+        ComparisonExpression.Type.GREATER_THAN,
+        new StringLiteral("m"),
+        new UnqualifiedColumnReferenceExp(ID)
+    );
+
+    // When:
+    final TableScan scan = create(where, SCHEMA, KAFKA_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange(), is(Optional.of(Range.lessThan("m"))));
+  }
+
+  @Test
+  public void shouldExtractKeyRangeAlongsideOtherConditions() {
+    // Given:
+    final Expression where = and(
+        countGreaterThan(1),
+        keyComparison(ComparisonExpression.Type.EQUAL, "a")
+    );
+
+    // When:
+    final TableScan scan = create(where, SCHEMA, KAFKA_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange(), is(Optional.of(Range.singleton("a"))));
+  }
+
+  @Test
+  public void shouldExtractEmptyKeyRangeForDisjointBounds() {
+    // Given:
+    final Expression where = and(
+        keyComparison(ComparisonExpression.Type.GREATER_THAN, "b"),
+        keyComparison(ComparisonExpression.Type.LESS_THAN, "a")
+    );
+
+    // When:
+    final TableScan scan = create(where, SCHEMA, KAFKA_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange().map(Range::isEmpty), is(Optional.of(true)));
+  }
+
+  @Test
+  public void shouldNotExtractKeyRangeFromDisjunction() {
+    // Given:
+    final Expression where = new LogicalBinaryExpression(
+        LogicalBinaryExpression.Type.OR,
+        keyComparison(ComparisonExpression.Type.GREATER_THAN, "b"),
+        keyComparison(ComparisonExpression.Type.LESS_THAN, "a")
+    );
+
+    // When:
+    final TableScan scan = create(where, SCHEMA, KAFKA_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange(), is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldNotExtractKeyRangeIfNotKafkaFormat() {
+    // When:
+    final TableScan scan = create(
+        keyComparison(ComparisonExpression.Type.LESS_THAN, "a"), SCHEMA, JSON_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange(), is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldNotExtractKeyRangeIfNotStringKey() {
+    // Given:
+    final Expression where = new ComparisonExpression(
+        ComparisonExpression.Type.LESS_THAN,
+        new UnqualifiedColumnReferenceExp(ID),
+        new IntegerLiteral(10)
+    );
+
+    // When:
+    final TableScan scan = create(where, INT_KEY_SCHEMA, KAFKA_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange(), is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldNotExtractKeyRangeIfBytesMayBeOutOfOrder() {
+    // When:
+    final TableScan scan = create(
+        keyComparison(ComparisonExpression.Type.LESS_THAN, "a\uE000"), SCHEMA, KAFKA_FORMAT);
+
+    // Then:
+    assertThat(scan.getKeyRange(), is(Optional.empty()));
+  }
+
+  @Test
+  public void shouldScanWholePartitionWithoutUpperBound() {
+    // Given:
+    final TableScan scan = create(
+        keyComparison(ComparisonExpression.Type.GREATER_THAN, "a"), SCHEMA, KAFKA_FORMAT);
+    givenScanReturns(ROW_A, ROW_B);
+    final List<TableRow> rows = new ArrayList<>();
+
+    // When:
+    scan.scan(table, PARTITION, new LongAdder(), rows::add);
+
+    // Then:
+    verify(table, never()).scan(anyInt(), any(), any(), any());
+    assertThat(rows, contains(ROW_B));
+  }
+
+  @Test
+  public void shouldScanKeyRange() {
+    // Given:
+    final Expression where = and(
+        keyComparison(ComparisonExpression.Type.GREATER_THAN_OR_EQUAL, "a"),
+        keyComparison(ComparisonExpression.Type.LESS_THAN, "b")
+    );
+    final TableScan scan = create(where, SCHEMA, KAFKA_FORMAT);
+    when(table.scan(eq(PARTITION), eq(key("a")), eq(key("b")), any()))
+        .thenAnswer(inv -> {
+          final Predicate<Row> consumer = inv.getArgument(3);
+          return consumer.test(ROW_A) && consumer.test(ROW_B);
+        });
+    final List<TableRow> rows = new ArrayList<>();
+
+    // When:
+    scan.scan(table, PARTITION, new LongAdder(), rows::add);
+
+    // Then:
+    assertThat(rows, contains(ROW_A));
+  }
+
+  @Test
+  public void shouldScanFromEmptyKeyWithoutLowerBound() {
+    // Given:
+    final TableScan scan = create(
+        keyComparison(ComparisonExpression.Type.LESS_THAN_OR_EQUAL, "b"), SCHEMA, KAFKA_FORMAT);
+
+    // When:
+    scan.scan(table, PARTITION, new LongAdder(), row -> true);
+
+    // Then:
+    verify(table).scan(eq(PARTITION), eq(key("")), eq(key("b")), any());
+  }
+
+  @Test
+  public void shouldNotScanEmptyKeyRange() {
+    // Given:
+    final Expression where = and(
+        keyComparison(ComparisonExpression.Type.GREATER_THAN, "b"),
+        keyComparison(ComparisonExpression.Type.LESS_THAN, "a")
+    );
+    final TableScan scan = create(where, SCHEMA, KAFKA_FORMAT);
+
+    // When:
+    final boolean result = scan.scan(table, PARTITION, new LongAdder(), row -> true);
+
+    // Then:
+    assertThat(result, is(true));
+    verifyNoInteractions(table);
+  }
+
+  @Test
+  public void shouldFilterOnValueColumns() {
+    // Given:
+    final TableScan scan = create(countGreaterThan(1), SCHEMA, KAFKA_FORMAT);
+    givenScanReturns(ROW_A, ROW_B);
+    final List<TableRow> rows = new ArrayList<>();
+
+    // When:
+    scan.scan(table, PARTITION, new LongAdder(), rows::add);
+
+    // Then:
+    assertThat(rows, contains(ROW_B));
+  }
+
+  @Test
+  public void shouldNotModifyRowsWhenFiltering() {
+    // Given:
+    final TableScan scan = create(countGreaterThan(0), SCHEMA, KAFKA_FORMAT);
+    final Row row = row("a", 1L);
+    givenScanReturns(row);
+
+    // When:
+    scan.scan(table, PARTITION, new LongAdder(), r -> true);
+
+    // Then:
+    assertThat(row.value(), is(GenericRow.genericRow(1L)));
+  }
+
+  @Test
+  public void shouldCountAllRowsScanned() {
+    // Given:
+    final TableScan scan = create(countGreaterThan(1), SCHEMA, KAFKA_FORMAT);
+    givenScanReturns(ROW_A, ROW_B);
+    final LongAdder rowsScanned = new LongAdder();
+
+    // When:
+    scan.scan(table, PARTITION, rowsScanned, row -> true);
+
+    // Then:
+    assertThat(rowsScanned.sum(), is(2L));
+  }
+
+  @Test
+  public void shouldStopWhenConsumerReturnsFalse() {
+    // Given:
+    final TableScan scan = new TableScan(
+        Optional.empty(), Optional.empty(), ConnectSchemas.columnsToConnectSchema(SCHEMA.key()));
+    givenScanReturns(ROW_A, ROW_B);
+    final List<TableRow> rows = new ArrayList<>();
+
+    // When:
+    final boolean result = scan.scan(table, PARTITION, new LongAdder(), row -> {
+      rows.add(row);
+      return false;
+    });
+
+    // Then:
+    assertThat(result, is(false));
+    assertThat(rows, contains(ROW_A));
+  }
+
+  private TableScan create(
+      final Expression where,
+      final LogicalSchema schema,
+      final KeyFormat keyFormat
+  ) {
+    return TableScan.create(
+        Optional.of(where),
+        schema,
+        keyFormat,
+        new KsqlConfig(ImmutableMap.of()),
+        functionRegistry,
+        logger
+    );
+  }
+
+  private void givenScanReturns(final Row... rows) {
+    when(table.scan(eq(PARTITION), any())).thenAnswer(inv -> {
+      final Predicate<Row> consumer = inv.getArgument(1);
+      for (final Row row : rows) {
+        if (!consumer.test(row)) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  private static Expression keyComparison(
+      final ComparisonExpression.Type type,
+      final String value
+  ) {
+    return new ComparisonExpression(
+        type,
+        new UnqualifiedColumnReferenceExp(ID),
+        new StringLiteral(value)
+    );
+  }
+
+  private static Expression countGreaterThan(final int value) {
+    return new ComparisonExpression(
+        ComparisonExpression.Type.GREATER_THAN,
+        new UnqualifiedColumnReferenceExp(COUNT),
+        new IntegerLiteral(value)
+    );
+  }
+
+  private static Expression and(final Expression left, final Expression right) {
+    return new LogicalBinaryExpression(LogicalBinaryExpression.Type.AND, left, right);
+  }
+
+  private static Struct key(final String id) {
+    return StructKeyUtil.keyBuilder(SCHEMA).build(id);
+  }
+
+  private static Row row(final String id, final long count) {
+    return Row.of(SCHEMA, key(id), GenericRow.genericRow(count), 0L);
+  }
+}
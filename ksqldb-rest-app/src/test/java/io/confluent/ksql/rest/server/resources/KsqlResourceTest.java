@@ -137,6 +137,7 @@ import io.confluent.ksql.rest.server.computation.CommandRunner;
 import io.confluent.ksql.rest.server.computation.CommandStatusFuture;
 import io.confluent.ksql.rest.server.computation.CommandStore;
 import io.confluent.ksql.rest.server.computation.QueuedCommandStatus;
+import io.confluent.ksql.rest.server.execution.InsertsProducerPool;
 import io.confluent.ksql.rest.util.EntityUtil;
 import io.confluent.ksql.rest.util.TerminateCluster;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
@@ -303,6 +304,8 @@ public class KsqlResourceTest {
   private DenyListPropertyValidator denyListPropertyValidator;
   @Mock
   private Supplier<String> commandRunnerWarning;
+  @Mock
+  private InsertsProducerPool insertsProducerPool;
 
   private KsqlResource ksqlResource;
   private SchemaRegistryClient schemaRegistryClient;
@@ -416,7 +419,8 @@ public class KsqlResourceTest {
         Optional.of(authorizationValidator),
         errorsHandler,
         denyListPropertyValidator,
-        commandRunnerWarning
+        commandRunnerWarning,
+        insertsProducerPool
     );
 
     // When:
@@ -448,7 +452,8 @@ public class KsqlResourceTest {
         Optional.of(authorizationValidator),
         errorsHandler,
         denyListPropertyValidator,
-        commandRunnerWarning
+        commandRunnerWarning,
+        insertsProducerPool
     );
 
     // When:
@@ -2243,7 +2248,8 @@ public class KsqlResourceTest {
         Optional.of(authorizationValidator),
         errorsHandler,
         denyListPropertyValidator,
-        commandRunnerWarning
+        commandRunnerWarning,
+        insertsProducerPool
     );
 
     ksqlResource.configure(ksqlConfig);
@@ -2288,7 +2294,8 @@ public class KsqlResourceTest {
         Optional.of(authorizationValidator),
         errorsHandler,
         denyListPropertyValidator,
-        commandRunnerWarning
+        commandRunnerWarning,
+        insertsProducerPool
     );
     final Map<String, Object> props = new HashMap<>(ksqlRestConfig.getKsqlConfigProperties());
     props.put(KsqlConfig.KSQL_PROPERTIES_OVERRIDES_DENYLIST,
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.server.resources;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.KsqlExecutionContext;
+import io.confluent.ksql.execution.profile.QueryProfile;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.rest.EndpointResponse;
+import io.confluent.ksql.rest.entity.QueryProfileInfo;
+import io.confluent.ksql.rest.entity.QueryProfilesResponse;
+import io.confluent.ksql.util.PersistentQueryMetadata;
+import io.confluent.ksql.util.TransientQueryMetadata;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueryProfileResourceTest {
+
+  private static final QueryId CHEAP_QUERY_ID = new QueryId("CSAS_1");
+  private static final QueryId COSTLY_QUERY_ID = new QueryId("CSAS_2");
+
+  @Mock
+  private KsqlExecutionContext ksqlEngine;
+  @Mock
+  private PersistentQueryMetadata cheapQuery;
+  @Mock
+  private PersistentQueryMetadata costlyQuery;
+  @Mock
+  private TransientQueryMetadata unprofiledQuery;
+  @Mock
+  private QueryProfile cheapProfile;
+  @Mock
+  private QueryProfile costlyProfile;
+
+  private QueryProfileResource resource;
+
+  @Before
+  public void setUp() {
+    when(cheapQuery.getQueryProfile()).thenReturn(Optional.of(cheapProfile));
+    when(costlyQuery.getQueryProfile()).thenReturn(Optional.of(costlyProfile));
+    when(unprofiledQuery.getQueryProfile()).thenReturn(Optional.empty());
+    when(cheapProfile.getQueryId()).thenReturn(CHEAP_QUERY_ID);
+    when(costlyProfile.getQueryId()).thenReturn(COSTLY_QUERY_ID);
+    when(cheapProfile.getEstimatedProcessingNanos()).thenReturn(10L);
+    when(costlyProfile.getEstimatedProcessingNanos()).thenReturn(20L);
+
+    when(ksqlEngine.getAllLiveQueries())
+        .thenReturn(ImmutableList.of(cheapQuery, unprofiledQuery, costlyQuery));
+
+    resource = new QueryProfileResource(ksqlEngine);
+  }
+
+  @Test
+  public void shouldRankProfiledQueriesByProcessingTime() {
+    // When:
+    final EndpointResponse response = resource.getProfiles();
+
+    // Then:
+    assertThat(response.getStatus(), is(200));
+    final QueryProfilesResponse profiles = (QueryProfilesResponse) response.getEntity();
+    assertThat(
+        profiles.getQueries().stream()
+            .map(QueryProfileInfo::getQueryId)
+            .collect(Collectors.toList()),
+        contains(COSTLY_QUERY_ID, CHEAP_QUERY_ID)
+    );
+  }
+}
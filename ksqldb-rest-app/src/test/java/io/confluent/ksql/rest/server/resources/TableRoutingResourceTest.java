@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.rest.server.resources;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.name.SourceName;
+import io.confluent.ksql.rest.EndpointResponse;
+import io.confluent.ksql.rest.entity.TableRoutingInfo;
+import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
+import io.confluent.ksql.util.KsqlConfig;
+import io.confluent.ksql.util.KsqlException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TableRoutingResourceTest {
+
+  private static final TableRoutingInfo ROUTING = new TableRoutingInfo(
+      "USERS",
+      "ID",
+      "STRING",
+      "KAFKA",
+      false,
+      ImmutableList.of(
+          ImmutableList.of("http://host1:8088/", "http://host2:8088/"),
+          ImmutableList.of("http://host2:8088/")
+      )
+  );
+
+  private final KsqlConfig ksqlConfig = new KsqlConfig(ImmutableMap.of());
+
+  @Mock
+  private PullQueryExecutor pullQueryExecutor;
+
+  private TableRoutingResource resource;
+
+  @Before
+  public void setUp() {
+    resource = new TableRoutingResource(pullQueryExecutor, ksqlConfig);
+  }
+
+  @Test
+  public void shouldReturnRoutingOfTable() {
+    // Given:
+    when(pullQueryExecutor.getRouting(SourceName.of("USERS"), ksqlConfig)).thenReturn(ROUTING);
+
+    // When:
+    final EndpointResponse response = resource.getRouting("USERS");
+
+    // Then:
+    assertThat(response.getStatus(), is(200));
+    assertThat(response.getEntity(), is(ROUTING));
+  }
+
+  @Test
+  public void shouldReturnNotFoundIfTableCanNotBeRouted() {
+    // Given:
+    when(pullQueryExecutor.getRouting(any(), any()))
+        .thenThrow(new KsqlException("not a materialized table"));
+
+    // When:
+    final EndpointResponse response = resource.getRouting("USERS");
+
+    // Then:
+    assertThat(response.getStatus(), is(NOT_FOUND.code()));
+  }
+}
@@ -15,6 +15,8 @@
 
 package io.confluent.ksql.rest.server.resources.streaming;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
@@ -23,14 +25,16 @@ import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import io.confluent.ksql.GenericRow;
-import io.confluent.ksql.engine.KsqlEngine;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.parser.tree.Query;
+import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.rest.entity.StreamedRow;
-import io.confluent.ksql.rest.entity.TableRows;
 import io.confluent.ksql.rest.server.execution.PullQueryExecutor;
+import io.confluent.ksql.rest.server.execution.PullQueryQueue;
 import io.confluent.ksql.rest.server.execution.PullQueryResult;
+import io.confluent.ksql.rest.server.execution.PullQueryRow;
 import io.confluent.ksql.rest.server.resources.streaming.Flow.Subscriber;
 import io.confluent.ksql.rest.server.resources.streaming.Flow.Subscription;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
@@ -39,6 +43,8 @@ import io.confluent.ksql.services.ServiceContext;
 import io.confluent.ksql.statement.ConfiguredStatement;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -58,23 +64,21 @@ public class PullQueryPublisherTest {
       .valueColumn(ColumnName.of("bob"), SqlTypes.BIGINT)
       .build();
 
-  @Mock
-  private KsqlEngine engine;
   @Mock
   private ServiceContext serviceContext;
   @Mock
+  private ListeningScheduledExecutorService exec;
+  @Mock
   private ConfiguredStatement<Query> statement;
   @Mock
   private Subscriber<Collection<StreamedRow>> subscriber;
   @Mock
   private PullQueryExecutor pullQueryExecutor;
-  @Mock
-  private TableRows entity;
-  @Mock
-  private PullQueryResult pullQueryResult;
   @Captor
   private ArgumentCaptor<Subscription> subscriptionCaptor;
 
+  private final PullQueryQueue rowQueue = new PullQueryQueue(OptionalInt.empty());
+  private final CompletableFuture<Void> completion = new CompletableFuture<>();
   private Subscription subscription;
   private PullQueryPublisher publisher;
 
@@ -82,15 +86,20 @@ public class PullQueryPublisherTest {
   public void setUp() {
     publisher = new PullQueryPublisher(
         serviceContext,
+        exec,
         statement,
         pullQueryExecutor,
         Optional.empty(),
         TIME_NANOS);
 
-    when(pullQueryResult.getTableRows()).thenReturn(entity);
-    when(pullQueryResult.getSourceNodes()).thenReturn(Optional.empty());
+    final PullQueryResult pullQueryResult =
+        new PullQueryResult(SCHEMA, new QueryId("query"), rowQueue, completion);
     when(pullQueryExecutor.execute(any(), any(), any(), any(), any())).thenReturn(pullQueryResult);
-    when(entity.getSchema()).thenReturn(SCHEMA);
+
+    doAnswer(inv -> {
+      ((Runnable) inv.getArgument(0)).run();
+      return null;
+    }).when(exec).submit(any(Runnable.class));
 
     doAnswer(callRequestAgain()).when(subscriber).onNext(any());
   }
@@ -108,6 +117,7 @@ public class PullQueryPublisherTest {
   public void shouldRunQueryWithCorrectParams() {
     // Given:
     givenSubscribed();
+    completion.complete(null);
 
     // When:
     subscription.request(1);
@@ -120,6 +130,8 @@ public class PullQueryPublisherTest {
   public void shouldOnlyExecuteOnce() {
     // Given:
     givenSubscribed();
+    givenRowsQueued();
+    completion.complete(null);
 
     // When:
     subscription.request(1);
@@ -133,6 +145,8 @@ public class PullQueryPublisherTest {
   public void shouldCallOnSchemaThenOnNextThenOnCompleteOnSuccess() {
     // Given:
     givenSubscribed();
+    givenRowsQueued();
+    completion.complete(null);
 
     // When:
     subscription.request(1);
@@ -148,6 +162,7 @@ public class PullQueryPublisherTest {
   public void shouldPassSchema() {
     // Given:
     givenSubscribed();
+    completion.complete(null);
 
     // When:
     subscription.request(1);
@@ -171,16 +186,28 @@ public class PullQueryPublisherTest {
   }
 
   @Test
-  public void shouldBuildStreamingRows() {
+  public void shouldCallOnErrorIfQueryFailsWhileReadingRows() {
     // Given:
     givenSubscribed();
+    givenRowsQueued();
+    final Exception e = new RuntimeException("Boom!");
+    completion.completeExceptionally(e);
 
-    when(entity.getRows()).thenReturn(ImmutableList.of(
-        ImmutableList.of("a", 1, 2L, 3.0f),
-        ImmutableList.of("b", 1, 2L, 3.0f)
-    ));
-    when(pullQueryResult.getSourceNodes())
-        .thenReturn(Optional.empty());
+    // When:
+    subscription.request(1);
+
+    // Then:
+    final InOrder inOrder = inOrder(subscriber);
+    inOrder.verify(subscriber).onNext(any());
+    inOrder.verify(subscriber).onError(e);
+  }
+
+  @Test
+  public void shouldBuildStreamingRows() {
+    // Given:
+    givenSubscribed();
+    givenRowsQueued();
+    completion.complete(null);
 
     // When:
     subscription.request(1);
@@ -192,6 +219,25 @@ public class PullQueryPublisherTest {
     ));
   }
 
+  @Test
+  public void shouldStopQueryOnCancel() {
+    // Given:
+    givenSubscribed();
+    givenRowsQueued();
+    subscription.request(1);
+
+    // When:
+    subscription.cancel();
+
+    // Then:
+    assertThat(rowQueue.isClosed(), is(true));
+  }
+
+  private void givenRowsQueued() {
+    rowQueue.acceptRow(new PullQueryRow(ImmutableList.of("a", 1, 2L, 3.0f), Optional.empty()));
+    rowQueue.acceptRow(new PullQueryRow(ImmutableList.of("b", 1, 2L, 3.0f), Optional.empty()));
+  }
+
   private Answer<Void> callRequestAgain() {
     return inv -> {
       subscription.request(1);
@@ -204,4 +250,4 @@ public class PullQueryPublisherTest {
     verify(subscriber).onSubscribe(subscriptionCaptor.capture());
     subscription = subscriptionCaptor.getValue();
   }
-}
\ No newline at end of file
+}
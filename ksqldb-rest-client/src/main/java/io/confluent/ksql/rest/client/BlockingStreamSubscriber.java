@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.client;
+
+import io.confluent.ksql.reactive.BaseSubscriber;
+import io.vertx.core.Context;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.reactivestreams.Subscription;
+
+/**
+ * Subscriber that allows a thread other than the Vert.x context to consume a stream, blocking
+ * until each value is available.
+ *
+ * <p>Values are requested in batches, and the next batch is only requested once the previous one
+ * has been consumed, so that a slow consumer applies back pressure to the publisher.
+ *
+ * @param <T> The type of the value
+ */
+final class BlockingStreamSubscriber<T> extends BaseSubscriber<T> {
+
+  private static final int REQUEST_BATCH_SIZE = 100;
+  private static final Object END = new Object();
+
+  private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+  private int consumed;
+
+  BlockingStreamSubscriber(final Context context) {
+    super(context);
+  }
+
+  /**
+   * Get the next value, blocking until it is available.
+   *
+   * @return the next value, or empty once the stream is complete.
+   * @throws KsqlRestClientException if the stream failed.
+   */
+  @SuppressWarnings("unchecked")
+  Optional<T> next() {
+    final Object next;
+    try {
+      next = queue.take();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new KsqlRestClientException("Interrupted while reading response", e);
+    }
+
+    if (next == END) {
+      // Leave the marker in place for any further calls:
+      queue.add(END);
+      return Optional.empty();
+    }
+
+    if (next instanceof Failure) {
+      queue.add(next);
+      throw new KsqlRestClientException("Error reading response", ((Failure) next).cause);
+    }
+
+    if (++consumed == REQUEST_BATCH_SIZE) {
+      consumed = 0;
+      context.runOnContext(v -> makeRequest(REQUEST_BATCH_SIZE));
+    }
+
+    return Optional.of((T) next);
+  }
+
+  @Override
+  protected void afterSubscribe(final Subscription subscription) {
+    makeRequest(REQUEST_BATCH_SIZE);
+  }
+
+  @Override
+  protected void handleValue(final T value) {
+    queue.add(value);
+  }
+
+  @Override
+  protected void handleComplete() {
+    queue.add(END);
+  }
+
+  @Override
+  protected void handleError(final Throwable t) {
+    queue.add(new Failure(t));
+  }
+
+  private static final class Failure {
+
+    private final Throwable cause;
+
+    Failure(final Throwable cause) {
+      this.cause = cause;
+    }
+  }
+}
@@ -23,6 +23,7 @@ import io.vertx.core.Vertx;
 import io.vertx.core.VertxException;
 import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.net.JksOptions;
 import io.vertx.core.net.SocketAddress;
 import java.net.URI;
@@ -45,6 +46,8 @@ public final class KsqlClient implements AutoCloseable {
   private final Vertx vertx;
   private final HttpClient httpNonTlsClient;
   private final HttpClient httpTlsClient;
+  private final HttpClient http2NonTlsClient;
+  private final HttpClient http2TlsClient;
   private final LocalProperties localProperties;
   private final Optional<String> basicAuthHeader;
   private final BiFunction<Integer, String, SocketAddress> socketAddressFactory;
@@ -70,6 +73,8 @@ public final class KsqlClient implements AutoCloseable {
     this.socketAddressFactory = SocketAddress::inetSocketAddress;
     this.httpNonTlsClient = createHttpClient(vertx, clientProps, httpClientOptions, false);
     this.httpTlsClient = createHttpClient(vertx, clientProps, httpClientOptions, true);
+    this.http2NonTlsClient = createHttp2Client(vertx, httpClientOptions, false);
+    this.http2TlsClient = createHttp2Client(vertx, httpClientOptions, true);
     this.ownedVertx = true;
   }
 
@@ -98,6 +103,9 @@ public final class KsqlClient implements AutoCloseable {
         socketAddressFactory, "socketAddressFactory");
     this.httpNonTlsClient = createHttpClient(vertx, httpClientOptionsFactory, false);
     this.httpTlsClient = createHttpClient(vertx, httpClientOptionsFactory, true);
+    this.http2NonTlsClient =
+        createHttp2Client(vertx, httpClientOptionsFactory.apply(false), false);
+    this.http2TlsClient = createHttp2Client(vertx, httpClientOptionsFactory.apply(true), true);
     this.ownedVertx = false;
   }
 
@@ -109,6 +117,22 @@ public final class KsqlClient implements AutoCloseable {
         basicAuthHeader, server.getHost());
   }
 
+  /**
+   * A target whose requests are made over HTTP/2, so that concurrent requests to the same server
+   * are multiplexed over a single pooled connection rather than each taking a connection of
+   * their own.
+   *
+   * <p>Only the endpoints of the internal API that stream their responses without chunked
+   * encoding, such as {@link KsqlTarget#postInternalPullQueryRequest}, support HTTP/2.
+   */
+  public KsqlTarget http2Target(final URI server) {
+    final boolean isUriTls = server.getScheme().equalsIgnoreCase("https");
+    final HttpClient client = isUriTls ? http2TlsClient : http2NonTlsClient;
+    return new KsqlTarget(client,
+        socketAddressFactory.apply(server.getPort(), server.getHost()), localProperties,
+        basicAuthHeader, server.getHost());
+  }
+
   @VisibleForTesting
   public static void initialize() {
     ApiJsonMapper.INSTANCE.get().registerModule(new KsqlTypesDeserializationModule());
@@ -125,6 +149,16 @@ public final class KsqlClient implements AutoCloseable {
     } catch (Exception ignore) {
       // Ignore
     }
+    try {
+      http2TlsClient.close();
+    } catch (Exception ignore) {
+      // Ignore
+    }
+    try {
+      http2NonTlsClient.close();
+    } catch (Exception ignore) {
+      // Ignore
+    }
     if (vertx != null && ownedVertx) {
       vertx.close();
     }
@@ -176,4 +210,22 @@ public final class KsqlClient implements AutoCloseable {
       throw new KsqlRestClientException(e.getMessage(), e);
     }
   }
+
+  private static HttpClient createHttp2Client(
+      final Vertx vertx,
+      final HttpClientOptions httpClientOptions,
+      final boolean tls
+  ) {
+    // Connect with prior knowledge of HTTP/2, rather than upgrading each new connection:
+    final HttpClientOptions http2Options = new HttpClientOptions(httpClientOptions)
+        .setProtocolVersion(HttpVersion.HTTP_2)
+        .setSsl(tls)
+        .setUseAlpn(tls)
+        .setHttp2ClearTextUpgrade(false);
+    try {
+      return vertx.createHttpClient(http2Options);
+    } catch (VertxException e) {
+      throw new KsqlRestClientException(e.getMessage(), e);
+    }
+  }
 }
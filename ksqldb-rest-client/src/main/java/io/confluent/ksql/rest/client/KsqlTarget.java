@@ -20,6 +20,8 @@ import static io.confluent.ksql.rest.client.KsqlClientUtil.serialize;
 import static java.util.Objects.requireNonNull;
 
 import io.confluent.ksql.properties.LocalProperties;
+import io.confluent.ksql.reactive.BufferedPublisher;
+import io.confluent.ksql.rest.PullQueryCodec;
 import io.confluent.ksql.rest.entity.ClusterStatusResponse;
 import io.confluent.ksql.rest.entity.CommandStatus;
 import io.confluent.ksql.rest.entity.CommandStatuses;
@@ -52,6 +54,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,11 +66,13 @@ public final class KsqlTarget {
   private static final String STATUS_PATH = "/status";
   private static final String KSQL_PATH = "/ksql";
   private static final String QUERY_PATH = "/query";
+  private static final String INTERNAL_PULL_QUERY_PATH = "/pull-query-internal";
   private static final String HEARTBEAT_PATH = "/heartbeat";
   private static final String CLUSTERSTATUS_PATH = "/clusterStatus";
   private static final String LAG_REPORT_PATH = "/lag";
   private static final String SERVER_METADATA_PATH = "/v1/metadata";
   private static final String SERVER_METADATA_ID_PATH = "/v1/metadata/id";
+  private static final String JSON_CONTENT_TYPE = "application/json";
 
   private final HttpClient httpClient;
   private final SocketAddress socketAddress;
@@ -183,19 +188,90 @@ public final class KsqlTarget {
     );
   }
 
+  /**
+   * Issue a query request, passing each row of the response to {@code rowConsumer} as it is
+   * received, rather than waiting for the complete response.
+   *
+   * <p>{@code rowConsumer} is called on the calling thread. Rows are only read from the
+   * connection as fast as it consumes them. If it returns {@code false}, the connection is closed
+   * and no further rows are read.
+   *
+   * @return the number of rows passed to {@code rowConsumer}.
+   */
+  public RestResponse<Integer> postQueryRequest(
+      final String ksql,
+      final Map<String, ?> requestProperties,
+      final Optional<Long> previousCommandSeqNum,
+      final Predicate<StreamedRow> rowConsumer
+  ) {
+    final RestResponse<StreamPublisher<StreamedRow>> response =
+        executeQueryRequestWithStreamResponse(ksql, requestProperties, previousCommandSeqNum,
+            buff -> deserialize(buff, StreamedRow.class));
+
+    if (response.isErroneous()) {
+      return RestResponse.erroneous(response.getStatusCode(), response.getErrorMessage());
+    }
+
+    final StreamPublisher<StreamedRow> publisher = response.getResponse();
+    final int numRows = consumeRows(publisher, publisher::close, rowConsumer);
+    return RestResponse.successful(response.getStatusCode(), numRows);
+  }
+
+  /**
+   * Issue a pull query request to the internal API of another server, passing each row of the
+   * response to {@code rowConsumer} as it is received.
+   *
+   * <p>The request and response use the binary format of {@link PullQueryCodec}, rather than
+   * JSON. Targets from {@link KsqlClient#http2Target} multiplex concurrent requests to the same
+   * server over one connection, and cancel only their own request if {@code rowConsumer} stops
+   * reading early.
+   *
+   * @return the number of rows passed to {@code rowConsumer}.
+   */
+  public RestResponse<Integer> postInternalPullQueryRequest(
+      final String ksql,
+      final Map<String, ?> requestProperties,
+      final Predicate<StreamedRow> rowConsumer
+  ) {
+    final Buffer requestBody = Buffer.buffer(PullQueryCodec.encodeRequest(
+        createKsqlRequest(ksql, requestProperties, Optional.empty())));
+
+    final AtomicReference<PullQueryFramePublisher> pubRef = new AtomicReference<>();
+    final RestResponse<PullQueryFramePublisher> response = executeSync(
+        HttpMethod.POST, INTERNAL_PULL_QUERY_PATH, PullQueryCodec.CONTENT_TYPE, requestBody,
+        resp -> pubRef.get(),
+        (resp, vcf) -> {
+          if (resp.statusCode() == 200) {
+            pubRef.set(new PullQueryFramePublisher(Vertx.currentContext(), resp, vcf));
+            vcf.complete(new ResponseWithBody(resp));
+          } else {
+            resp.bodyHandler(body -> vcf.complete(new ResponseWithBody(resp, body)));
+          }
+        });
+
+    if (response.isErroneous()) {
+      return RestResponse.erroneous(response.getStatusCode(), response.getErrorMessage());
+    }
+
+    final PullQueryFramePublisher publisher = response.getResponse();
+    final int numRows = consumeRows(publisher, publisher::close, rowConsumer);
+    return RestResponse.successful(response.getStatusCode(), numRows);
+  }
+
   public RestResponse<StreamPublisher<StreamedRow>> postQueryRequestStreamed(
       final String sql,
       final Optional<Long> previousCommandSeqNum
   ) {
-    return executeQueryRequestWithStreamResponse(sql, previousCommandSeqNum,
-        buff -> deserialize(buff, StreamedRow.class));
+    return executeQueryRequestWithStreamResponse(sql, Collections.emptyMap(),
+        previousCommandSeqNum, buff -> deserialize(buff, StreamedRow.class));
   }
 
   public RestResponse<StreamPublisher<String>> postPrintTopicRequest(
       final String ksql,
       final Optional<Long> previousCommandSeqNum
   ) {
-    return executeQueryRequestWithStreamResponse(ksql, previousCommandSeqNum, Object::toString);
+    return executeQueryRequestWithStreamResponse(ksql, Collections.emptyMap(),
+        previousCommandSeqNum, Object::toString);
   }
 
   private KsqlRequest createKsqlRequest(
@@ -211,6 +287,42 @@ public final class KsqlTarget {
     );
   }
 
+  /**
+   * Pass the rows of a streamed response to {@code rowConsumer} on the calling thread.
+   *
+   * @param close called to stop the response if {@code rowConsumer} stops reading early.
+   * @return the number of rows passed to {@code rowConsumer}.
+   */
+  private static int consumeRows(
+      final BufferedPublisher<StreamedRow> publisher,
+      final Runnable close,
+      final Predicate<StreamedRow> rowConsumer
+  ) {
+    final BlockingStreamSubscriber<StreamedRow> subscriber =
+        new BlockingStreamSubscriber<>(publisher.getContext());
+    publisher.subscribe(subscriber);
+
+    int numRows = 0;
+    boolean done = false;
+    try {
+      Optional<StreamedRow> row = subscriber.next();
+      while (row.isPresent()) {
+        numRows++;
+        if (!rowConsumer.test(row.get())) {
+          break;
+        }
+        row = subscriber.next();
+      }
+      done = !row.isPresent();
+    } finally {
+      if (!done) {
+        close.run();
+      }
+    }
+
+    return numRows;
+  }
+
   private <T> RestResponse<T> get(final String path, final Class<T> type) {
     return executeRequestSync(HttpMethod.GET, path, null, r -> deserialize(r.getBody(), type));
   }
@@ -229,7 +341,7 @@ public final class KsqlTarget {
       final Object jsonEntity,
       final Function<ResponseWithBody, T> mapper
   ) {
-    return executeAsync(httpMethod, path, jsonEntity, mapper, (resp, vcf) -> {
+    return executeAsync(httpMethod, path, JSON_CONTENT_TYPE, jsonEntity, mapper, (resp, vcf) -> {
       resp.bodyHandler(buff -> vcf.complete(new ResponseWithBody(resp, buff)));
     });
   }
@@ -240,20 +352,22 @@ public final class KsqlTarget {
       final Object requestBody,
       final Function<ResponseWithBody, T> mapper
   ) {
-    return executeSync(httpMethod, path, requestBody, mapper, (resp, vcf) -> {
+    return executeSync(httpMethod, path, JSON_CONTENT_TYPE, requestBody, mapper, (resp, vcf) -> {
       resp.bodyHandler(buff -> vcf.complete(new ResponseWithBody(resp, buff)));
     });
   }
 
   private <T> RestResponse<StreamPublisher<T>> executeQueryRequestWithStreamResponse(
       final String ksql,
+      final Map<String, ?> requestProperties,
       final Optional<Long> previousCommandSeqNum,
       final Function<Buffer, T> mapper
   ) {
     final KsqlRequest ksqlRequest = createKsqlRequest(
-        ksql, Collections.emptyMap(), previousCommandSeqNum);
+        ksql, requestProperties, previousCommandSeqNum);
     final AtomicReference<StreamPublisher<T>> pubRef = new AtomicReference<>();
-    return executeSync(HttpMethod.POST, QUERY_PATH, ksqlRequest, resp -> pubRef.get(),
+    return executeSync(HttpMethod.POST, QUERY_PATH, JSON_CONTENT_TYPE, ksqlRequest,
+        resp -> pubRef.get(),
         (resp, vcf) -> {
           if (resp.statusCode() == 200) {
             pubRef.set(new StreamPublisher<>(Vertx.currentContext(),
@@ -268,12 +382,13 @@ public final class KsqlTarget {
   private <T> RestResponse<T> executeSync(
       final HttpMethod httpMethod,
       final String path,
+      final String contentType,
       final Object requestBody,
       final Function<ResponseWithBody, T> mapper,
       final BiConsumer<HttpClientResponse, CompletableFuture<ResponseWithBody>> responseHandler
   ) {
     final CompletableFuture<ResponseWithBody> vcf =
-        execute(httpMethod, path, requestBody, responseHandler);
+        execute(httpMethod, path, contentType, requestBody, responseHandler);
 
     final ResponseWithBody response;
     try {
@@ -288,18 +403,24 @@ public final class KsqlTarget {
   private <T> CompletableFuture<RestResponse<T>> executeAsync(
       final HttpMethod httpMethod,
       final String path,
+      final String contentType,
       final Object requestBody,
       final Function<ResponseWithBody, T> mapper,
       final BiConsumer<HttpClientResponse, CompletableFuture<ResponseWithBody>> responseHandler
   ) {
     final CompletableFuture<ResponseWithBody> vcf =
-        execute(httpMethod, path, requestBody, responseHandler);
+        execute(httpMethod, path, contentType, requestBody, responseHandler);
     return vcf.thenApply(response -> KsqlClientUtil.toRestResponse(response, path, mapper));
   }
 
+  /**
+   * @param contentType the type of the request body, which is also the type accepted in
+   *     response. Request bodies that are not already a {@link Buffer} are sent as JSON.
+   */
   private CompletableFuture<ResponseWithBody> execute(
       final HttpMethod httpMethod,
       final String path,
+      final String contentType,
       final Object requestBody,
       final BiConsumer<HttpClientResponse, CompletableFuture<ResponseWithBody>> responseHandler
   ) {
@@ -311,10 +432,13 @@ public final class KsqlTarget {
         resp -> responseHandler.accept(resp, vcf))
         .exceptionHandler(vcf::completeExceptionally);
 
-    httpClientRequest.putHeader("Accept", "application/json");
+    httpClientRequest.putHeader("Accept", contentType);
     authHeader.ifPresent(v -> httpClientRequest.putHeader("Authorization", v));
 
-    if (requestBody != null) {
+    if (requestBody instanceof Buffer) {
+      httpClientRequest.putHeader("Content-Type", contentType);
+      httpClientRequest.end((Buffer) requestBody);
+    } else if (requestBody != null) {
       httpClientRequest.end(serialize(requestBody));
     } else {
       httpClientRequest.end();
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.client;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.confluent.ksql.metastore.TypeRegistry;
+import io.confluent.ksql.parser.SchemaParser;
+import io.confluent.ksql.reactive.BufferedPublisher;
+import io.confluent.ksql.rest.PullQueryCodec;
+import io.confluent.ksql.rest.entity.StreamedRow;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.vertx.core.Context;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.parsetools.RecordParser;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes the rows of a pull query response in the binary format of {@link PullQueryCodec}.
+ *
+ * <p>The parser alternates between reading the fixed size prefix of a frame and reading its
+ * payload, whose size the prefix gives.
+ *
+ * <p>The schemas of headers are cached, as every query forwarded for the same table is sent the
+ * same schema, and parsing it is comparatively expensive.
+ */
+public class PullQueryFramePublisher extends BufferedPublisher<StreamedRow> {
+
+  private static final int MAX_SCHEMAS = 1000;
+  private static final Cache<String, LogicalSchema> SCHEMAS = CacheBuilder.newBuilder()
+      .maximumSize(MAX_SCHEMAS)
+      .build();
+
+  private final HttpClientResponse response;
+  private boolean drainHandlerSet;
+  private byte frameType;
+  private boolean readingPayload;
+
+  PullQueryFramePublisher(
+      final Context context,
+      final HttpClientResponse response,
+      final CompletableFuture<ResponseWithBody> bodyFuture
+  ) {
+    super(context);
+    this.response = response;
+    final RecordParser recordParser = RecordParser
+        .newFixed(PullQueryCodec.FRAME_PREFIX_SIZE, response);
+    recordParser.exceptionHandler(t -> {
+      bodyFuture.completeExceptionally(t);
+      sendError(t instanceof Exception ? (Exception) t : new RuntimeException(t));
+    })
+        .handler(buff -> {
+          final byte[] payload;
+          if (readingPayload) {
+            payload = buff.getBytes();
+            readingPayload = false;
+            recordParser.fixedSizeMode(PullQueryCodec.FRAME_PREFIX_SIZE);
+          } else {
+            frameType = buff.getByte(0);
+            final int payloadSize = buff.getInt(1);
+            if (payloadSize != 0) {
+              readingPayload = true;
+              recordParser.fixedSizeMode(payloadSize);
+              return;
+            }
+            payload = new byte[0];
+          }
+
+          final StreamedRow row = PullQueryCodec
+              .decodeFrame(frameType, payload, PullQueryFramePublisher::parseSchema);
+
+          if (!accept(row)) {
+            if (!drainHandlerSet) {
+              recordParser.pause();
+              drainHandlerSet = true;
+              drainHandler(() -> {
+                drainHandlerSet = false;
+                recordParser.resume();
+              });
+            }
+          }
+        })
+        .endHandler(v -> complete());
+  }
+
+  /**
+   * Stop the response. Only this request's stream is reset, so other requests sharing the same
+   * HTTP/2 connection are unaffected.
+   */
+  public void close() {
+    response.request().reset();
+  }
+
+  static LogicalSchema parseSchema(final String schema) {
+    LogicalSchema parsed = SCHEMAS.getIfPresent(schema);
+    if (parsed == null) {
+      parsed = SchemaParser.parse(schema, TypeRegistry.EMPTY).toLogicalSchema();
+      SCHEMAS.put(schema, parsed);
+    }
+    return parsed;
+  }
+}
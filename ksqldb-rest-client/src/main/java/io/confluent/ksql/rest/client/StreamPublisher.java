@@ -35,13 +35,13 @@ public class StreamPublisher<T> extends BufferedPublisher<T> {
     if (responseLine.getByte(0) == (byte) '[') {
       start = 1;
     }
-    if (responseLine.getByte(end) == (byte) ']') {
+    if (end >= start && responseLine.getByte(end) == (byte) ']') {
       end -= 1;
     }
-    if (responseLine.getByte(end) == (byte) ',') {
+    if (end >= start && responseLine.getByte(end) == (byte) ',') {
       end -= 1;
     }
-    return responseLine.slice(start, end + 1);
+    return responseLine.slice(start, Math.max(start, end + 1));
   }
 
   StreamPublisher(final Context context, final HttpClientResponse response,
@@ -50,13 +50,20 @@ public class StreamPublisher<T> extends BufferedPublisher<T> {
     super(context);
     this.response = response;
     final RecordParser recordParser = RecordParser.newDelimited("\n", response);
-    recordParser.exceptionHandler(bodyFuture::completeExceptionally)
+    recordParser.exceptionHandler(t -> {
+      bodyFuture.completeExceptionally(t);
+      sendError(t instanceof Exception ? (Exception) t : new RuntimeException(t));
+    })
         .handler(buff -> {
           if (buff.length() == 0) {
             // Ignore empty buffer - the server can insert random newlines!
             return;
           }
           final Buffer jsonMsg = toJsonMsg(buff);
+          if (jsonMsg.length() == 0) {
+            // Ignore the closing bracket of the array, when on its own line
+            return;
+          }
           if (!accept(mapper.apply(jsonMsg))) {
             if (!drainHandlerSet) {
               recordParser.pause();
@@ -24,8 +24,11 @@ import static org.junit.Assert.assertThrows;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.properties.LocalProperties;
+import io.confluent.ksql.query.QueryId;
 import io.confluent.ksql.reactive.BaseSubscriber;
+import io.confluent.ksql.rest.PullQueryCodec;
 import io.confluent.ksql.rest.entity.ClusterStatusResponse;
 import io.confluent.ksql.rest.entity.CommandStatus;
 import io.confluent.ksql.rest.entity.CommandStatus.Status;
@@ -42,6 +45,8 @@ import io.confluent.ksql.rest.entity.KsqlRequest;
 import io.confluent.ksql.rest.entity.ServerInfo;
 import io.confluent.ksql.rest.entity.StreamedRow;
 import io.confluent.ksql.rest.entity.TopicDescription;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
 import io.confluent.ksql.test.util.secure.ClientTrustStore;
 import io.confluent.ksql.test.util.secure.ServerKeyStore;
 import io.confluent.ksql.util.VertxCompletableFuture;
@@ -333,6 +338,103 @@ public class KsqlClientTest {
     )));
   }
 
+  @Test
+  public void shouldPostQueryRequestWithRowConsumer() {
+
+    // Given:
+    List<StreamedRow> expectedResponse = setQueryStreamResponse(10, false);
+    String sql = "some sql";
+    List<StreamedRow> rows = new ArrayList<>();
+
+    // When:
+    KsqlTarget target = ksqlClient.target(serverUri);
+    RestResponse<Integer> response = target.postQueryRequest(
+        sql, ImmutableMap.of("foo", "bar"), Optional.of(321L), rows::add);
+
+    // Then:
+    assertThat(server.getHttpMethod(), is(HttpMethod.POST));
+
+    assertThat(server.getPath(), is("/query"));
+    assertThat(server.getHeaders().get("Accept"), is("application/json"));
+    assertThat(getKsqlRequest(),
+        is(new KsqlRequest(sql, properties, ImmutableMap.of("foo", "bar"), 321L)));
+    assertThat(response.getResponse(), is(10));
+    assertThat(rows, is(expectedResponse));
+  }
+
+  @Test
+  public void shouldStopReadingQueryResponseWhenRowConsumerReturnsFalse() throws Exception {
+
+    // Given:
+    List<StreamedRow> expectedResponse = setQueryStreamResponse(10, false);
+    List<StreamedRow> rows = new ArrayList<>();
+
+    // When:
+    KsqlTarget target = ksqlClient.target(serverUri);
+    RestResponse<Integer> response = target.postQueryRequest(
+        "some sql", Collections.emptyMap(), Optional.empty(), row -> {
+          rows.add(row);
+          return rows.size() < 3;
+        });
+
+    // Then:
+    assertThat(response.getResponse(), is(3));
+    assertThat(rows, is(expectedResponse.subList(0, 3)));
+    assertThatEventually(() -> server.isConnectionClosed(), is(true));
+  }
+
+  @Test
+  public void shouldPostInternalPullQueryRequestOverHttp2() {
+
+    // Given:
+    List<StreamedRow> expectedResponse = setInternalPullQueryResponse(10);
+    String sql = "some sql";
+    List<StreamedRow> rows = new ArrayList<>();
+
+    // When:
+    KsqlTarget target = ksqlClient.http2Target(serverUri);
+    RestResponse<Integer> response = target.postInternalPullQueryRequest(
+        sql, ImmutableMap.of("foo", "bar"), rows::add);
+
+    // Then:
+    assertThat(server.getHttpMethod(), is(HttpMethod.POST));
+    assertThat(server.getPath(), is("/pull-query-internal"));
+    assertThat(server.getHeaders().get("Accept"), is(PullQueryCodec.CONTENT_TYPE));
+    assertThat(server.getHeaders().get("Content-Type"), is(PullQueryCodec.CONTENT_TYPE));
+    assertThat(PullQueryCodec.decodeRequest(server.getBody().getBytes()),
+        is(new KsqlRequest(sql, properties, ImmutableMap.of("foo", "bar"), null)));
+    assertThat(response.getResponse(), is(11));
+    assertThat(rows, is(expectedResponse));
+  }
+
+  @Test
+  public void shouldNotCloseConnectionWhenInternalPullQueryRowConsumerReturnsFalse() {
+
+    // Given:
+    List<StreamedRow> expectedResponse = setInternalPullQueryResponse(10);
+    List<StreamedRow> rows = new ArrayList<>();
+    KsqlTarget target = ksqlClient.http2Target(serverUri);
+
+    // When:
+    RestResponse<Integer> response = target.postInternalPullQueryRequest(
+        "some sql", Collections.emptyMap(), row -> {
+          rows.add(row);
+          return rows.size() < 3;
+        });
+
+    // Then:
+    assertThat(response.getResponse(), is(3));
+    assertThat(rows, is(expectedResponse.subList(0, 3)));
+
+    // When:
+    rows.clear();
+    target.postInternalPullQueryRequest("some sql", Collections.emptyMap(), rows::add);
+
+    // Then:
+    assertThat(rows, is(expectedResponse));
+    assertThat(server.isConnectionClosed(), is(false));
+  }
+
   @Test
   public void shouldPostQueryRequestStreamed() throws Exception {
 
@@ -698,6 +800,25 @@ public class KsqlClientTest {
     return expectedResponse;
   }
 
+  private List<StreamedRow> setInternalPullQueryResponse(int numRows) {
+    LogicalSchema schema = LogicalSchema.builder()
+        .keyColumn(ColumnName.of("K"), SqlTypes.STRING)
+        .valueColumn(ColumnName.of("V0"), SqlTypes.BIGINT)
+        .build();
+    QueryId queryId = new QueryId("query_1");
+
+    List<StreamedRow> expectedResponse = new ArrayList<>();
+    expectedResponse.add(StreamedRow.header(queryId, schema));
+    Buffer responseBuffer = Buffer.buffer(PullQueryCodec.encodeHeader(queryId, schema));
+    for (int i = 0; i < numRows; i++) {
+      GenericRow row = GenericRow.genericRow("key-" + i, (long) i);
+      expectedResponse.add(StreamedRow.pullRow(row, Optional.empty()));
+      responseBuffer.appendBytes(PullQueryCodec.encodeRow(row.values()));
+    }
+    server.setResponseBuffer(responseBuffer);
+    return expectedResponse;
+  }
+
   private List<String> setupPrintTopicResponse(int numRows) {
     List<String> expectedResponse = new ArrayList<>();
     Buffer responseBuffer = Buffer.buffer();
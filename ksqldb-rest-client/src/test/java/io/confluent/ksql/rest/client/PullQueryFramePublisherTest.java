@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import org.junit.Test;
+
+public class PullQueryFramePublisherTest {
+
+  private static final LogicalSchema SCHEMA = LogicalSchema.builder()
+      .keyColumn(ColumnName.of("K"), SqlTypes.STRING)
+      .valueColumn(ColumnName.of("V"), SqlTypes.BIGINT)
+      .build();
+
+  @Test
+  public void shouldParseHeaderSchema() {
+    // When:
+    final LogicalSchema parsed = PullQueryFramePublisher.parseSchema(SCHEMA.toString());
+
+    // Then:
+    assertThat(parsed, is(SCHEMA));
+  }
+
+  @Test
+  public void shouldReuseParsedHeaderSchema() {
+    // Given:
+    final LogicalSchema first = PullQueryFramePublisher.parseSchema(SCHEMA.toString());
+
+    // When:
+    final LogicalSchema second = PullQueryFramePublisher.parseSchema(SCHEMA.toString());
+
+    // Then:
+    assertThat(second, is(sameInstance(first)));
+  }
+}
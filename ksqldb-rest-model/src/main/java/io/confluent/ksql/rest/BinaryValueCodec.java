@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest;
+
+import io.confluent.ksql.util.KsqlException;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+
+/**
+ * The encoding of the values of the binary formats, shared by {@link PullQueryCodec} and
+ * {@link QueryStreamBinaryFormat}.
+ *
+ * <p>Each value is a one byte type tag, followed by:
+ * <ul>
+ *   <li>{@link #NULL}: nothing.</li>
+ *   <li>{@link #BOOLEAN}: one byte, non-zero for true.</li>
+ *   <li>{@link #INT}: four bytes. Shorts and bytes are written as ints.</li>
+ *   <li>{@link #LONG}: eight bytes.</li>
+ *   <li>{@link #DOUBLE}: eight bytes. Floats are written as doubles.</li>
+ *   <li>{@link #STRING}: the four byte size of the UTF-8 encoded string, then the string.</li>
+ *   <li>{@link #DECIMAL}: the four byte scale, the four byte size of the unscaled value, then
+ *   the big-endian two's-complement unscaled value.</li>
+ *   <li>{@link #ARRAY}: the four byte number of elements, then each element.</li>
+ *   <li>{@link #MAP}: the four byte number of entries, then the key and value of each entry.</li>
+ *   <li>{@link #STRUCT}: the four byte number of fields, then the name of each field, as a
+ *   string without a type tag, and its value.</li>
+ * </ul>
+ *
+ * <p>All numbers are big-endian. Structs are read back as maps of field name to value, as they
+ * are from JSON.
+ *
+ * <p>Values are read from a stream holding the rest of the payload, such as a byte array, so
+ * that each size can be checked against the bytes that remain before anything is allocated for
+ * it. A negative size, or one larger than the remaining bytes could hold, fails the read.
+ */
+public final class BinaryValueCodec {
+
+  public static final byte NULL = 0;
+  public static final byte BOOLEAN = 1;
+  public static final byte INT = 2;
+  public static final byte LONG = 3;
+  public static final byte DOUBLE = 4;
+  public static final byte STRING = 5;
+  public static final byte DECIMAL = 6;
+  public static final byte ARRAY = 7;
+  public static final byte MAP = 8;
+  public static final byte STRUCT = 9;
+
+  private BinaryValueCodec() {
+  }
+
+  public static void writeValue(final DataOutput out, final Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      out.writeByte(INT);
+      out.writeInt(((Number) value).intValue());
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double || value instanceof Float) {
+      out.writeByte(DOUBLE);
+      out.writeDouble(((Number) value).doubleValue());
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof BigDecimal) {
+      final BigDecimal decimal = (BigDecimal) value;
+      final byte[] unscaled = decimal.unscaledValue().toByteArray();
+      out.writeByte(DECIMAL);
+      out.writeInt(decimal.scale());
+      out.writeInt(unscaled.length);
+      out.write(unscaled);
+    } else if (value instanceof List) {
+      final List<?> list = (List<?>) value;
+      out.writeByte(ARRAY);
+      out.writeInt(list.size());
+      for (final Object element : list) {
+        writeValue(out, element);
+      }
+    } else if (value instanceof Map) {
+      final Map<?, ?> map = (Map<?, ?>) value;
+      out.writeByte(MAP);
+      out.writeInt(map.size());
+      for (final Map.Entry<?, ?> entry : map.entrySet()) {
+        writeValue(out, entry.getKey());
+        writeValue(out, entry.getValue());
+      }
+    } else if (value instanceof Struct) {
+      final Struct struct = (Struct) value;
+      final List<Field> fields = struct.schema().fields();
+      out.writeByte(STRUCT);
+      out.writeInt(fields.size());
+      for (final Field field : fields) {
+        writeString(out, field.name());
+        writeValue(out, struct.get(field));
+      }
+    } else {
+      throw new KsqlException("Unsupported value type: " + value.getClass().getName());
+    }
+  }
+
+  public static Object readValue(final DataInputStream in) throws IOException {
+    final byte type = in.readByte();
+    switch (type) {
+      case NULL:
+        return null;
+      case BOOLEAN:
+        return in.readBoolean();
+      case INT:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case STRING:
+        return readString(in);
+      case DECIMAL:
+        final int scale = in.readInt();
+        final byte[] unscaled = new byte[readSize(in, 1)];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+      case ARRAY:
+        final int numElements = readSize(in, 1);
+        final List<Object> list = new ArrayList<>(numElements);
+        for (int i = 0; i != numElements; ++i) {
+          list.add(readValue(in));
+        }
+        return list;
+      case MAP:
+        final int numEntries = readSize(in, 2);
+        final Map<Object, Object> map = new HashMap<>(numEntries * 2);
+        for (int i = 0; i != numEntries; ++i) {
+          map.put(readValue(in), readValue(in));
+        }
+        return map;
+      case STRUCT:
+        final int numFields = readSize(in, 5);
+        final Map<String, Object> struct = new LinkedHashMap<>(numFields * 2);
+        for (int i = 0; i != numFields; ++i) {
+          struct.put(readString(in), readValue(in));
+        }
+        return struct;
+      default:
+        throw new KsqlException("Unknown value type: " + type);
+    }
+  }
+
+  public static void writeString(final DataOutput out, final String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  public static String readString(final DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[readSize(in, 1)];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read the four byte size of a string, or the number of items in a collection.
+   *
+   * @param in the stream holding the rest of the payload.
+   * @param minItemSize the fewest bytes each item can be written in.
+   * @return the size.
+   * @throws KsqlException if the size is negative, or the remaining bytes can not hold as many
+   *     items.
+   */
+  public static int readSize(final DataInputStream in, final int minItemSize) throws IOException {
+    final int size = in.readInt();
+    final int remaining = in.available();
+    if (size < 0 || (long) size * minItemSize > remaining) {
+      throw new KsqlException("Invalid size: " + size + ", with " + remaining
+          + " bytes remaining");
+    }
+    return size;
+  }
+}
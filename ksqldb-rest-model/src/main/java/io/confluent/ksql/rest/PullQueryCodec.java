@@ -0,0 +1,217 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest;
+
+import static io.confluent.ksql.rest.BinaryValueCodec.readSize;
+import static io.confluent.ksql.rest.BinaryValueCodec.readString;
+import static io.confluent.ksql.rest.BinaryValueCodec.readValue;
+import static io.confluent.ksql.rest.BinaryValueCodec.writeString;
+import static io.confluent.ksql.rest.BinaryValueCodec.writeValue;
+
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.rest.entity.KsqlRequest;
+import io.confluent.ksql.rest.entity.StreamedRow;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.util.KsqlException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The binary format of pull queries forwarded between servers over the internal API.
+ *
+ * <p>The request is a {@link KsqlRequest}. The response is a sequence of frames, each a one byte
+ * frame type and a four byte payload size followed by the payload: a header frame, then a frame
+ * per row, then an error frame if the query failed part way through. Values are written by
+ * {@link BinaryValueCodec} with a one byte type tag, so rows are read back without parsing text
+ * or knowing the schema up front. Sizes and counts are checked against the bytes remaining in
+ * the payload, so a truncated or corrupt payload fails with a {@link KsqlException}.
+ */
+public final class PullQueryCodec {
+
+  public static final String CONTENT_TYPE = "application/vnd.ksql.internal.v1+binary";
+
+  public static final byte HEADER_FRAME = 1;
+  public static final byte ROW_FRAME = 2;
+  public static final byte ERROR_FRAME = 3;
+
+  /**
+   * The size of the start of each frame, which holds its type and the size of its payload.
+   */
+  public static final int FRAME_PREFIX_SIZE = 5;
+
+  private PullQueryCodec() {
+  }
+
+  public static byte[] encodeRequest(final KsqlRequest request) {
+    return encode(out -> {
+      writeString(out, request.getKsql());
+      writeProperties(out, request.getConfigOverrides());
+      writeProperties(out, request.getRequestProperties());
+      writeValue(out, request.getCommandSequenceNumber().orElse(null));
+    });
+  }
+
+  public static KsqlRequest decodeRequest(final byte[] bytes) {
+    return decode(bytes, in -> new KsqlRequest(
+        readString(in),
+        readProperties(in),
+        readProperties(in),
+        (Long) readValue(in)
+    ));
+  }
+
+  public static byte[] encodeHeader(final QueryId queryId, final LogicalSchema schema) {
+    return encodeFrame(HEADER_FRAME, out -> {
+      writeString(out, queryId.toString());
+      writeString(out, schema.toString());
+    });
+  }
+
+  public static byte[] encodeRow(final List<?> columns) {
+    return encodeFrame(ROW_FRAME, out -> {
+      out.writeInt(columns.size());
+      for (final Object column : columns) {
+        writeValue(out, column);
+      }
+    });
+  }
+
+  public static byte[] encodeError(final int errorCode, final String message) {
+    return encodeFrame(ERROR_FRAME, out -> {
+      out.writeInt(errorCode);
+      writeString(out, message);
+    });
+  }
+
+  /**
+   * @param frameType the type of the frame, from its prefix.
+   * @param payload the payload of the frame.
+   * @param schemaParser parses the schema of the header.
+   * @return the frame as the equivalent row of the JSON response.
+   */
+  public static StreamedRow decodeFrame(
+      final byte frameType,
+      final byte[] payload,
+      final Function<String, LogicalSchema> schemaParser
+  ) {
+    return decode(payload, in -> {
+      switch (frameType) {
+        case HEADER_FRAME:
+          final QueryId queryId = new QueryId(readString(in));
+          return StreamedRow.header(queryId, schemaParser.apply(readString(in)));
+        case ROW_FRAME:
+          final int size = readSize(in, 1);
+          final GenericRow row = new GenericRow(size);
+          for (int i = 0; i != size; ++i) {
+            row.append(readValue(in));
+          }
+          return StreamedRow.pullRow(row, Optional.empty());
+        case ERROR_FRAME:
+          final int errorCode = in.readInt();
+          return StreamedRow.error(new KsqlException(readString(in)), errorCode);
+        default:
+          throw new KsqlException("Unknown frame type: " + frameType);
+      }
+    });
+  }
+
+  private static byte[] encodeFrame(final byte frameType, final Writer writer) {
+    final byte[] payload = encode(writer);
+    final byte[] frame = new byte[FRAME_PREFIX_SIZE + payload.length];
+    frame[0] = frameType;
+    frame[1] = (byte) (payload.length >>> 24);
+    frame[2] = (byte) (payload.length >>> 16);
+    frame[3] = (byte) (payload.length >>> 8);
+    frame[4] = (byte) payload.length;
+    System.arraycopy(payload, 0, frame, FRAME_PREFIX_SIZE, payload.length);
+    return frame;
+  }
+
+  private static byte[] encode(final Writer writer) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writer.write(out);
+    } catch (final IOException e) {
+      throw new KsqlException("Failed to encode pull query", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static <T> T decode(final byte[] bytes, final Reader<T> reader) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      return reader.read(in);
+    } catch (final IOException | ClassCastException | KsqlException e) {
+      throw new KsqlException("Failed to decode pull query", e);
+    }
+  }
+
+  /**
+   * Properties are written as text, which {@link KsqlRequest} parses back to the right types.
+   */
+  private static void writeProperties(
+      final DataOutputStream out,
+      final Map<String, Object> properties
+  ) throws IOException {
+    out.writeInt(properties.size());
+    for (final Map.Entry<String, Object> property : properties.entrySet()) {
+      writeString(out, property.getKey());
+      writeValue(out, propertyText(property.getValue()));
+    }
+  }
+
+  private static Map<String, Object> readProperties(final DataInputStream in) throws IOException {
+    // Each property is at least the size of its name and the type tag of its value:
+    final int size = readSize(in, 5);
+    final Map<String, Object> properties = new HashMap<>(size * 2);
+    for (int i = 0; i != size; ++i) {
+      properties.put(readString(in), readValue(in));
+    }
+    return properties;
+  }
+
+  private static String propertyText(final Object value) {
+    if (value == null) {
+      return null;
+    }
+    if (value instanceof Class) {
+      return ((Class<?>) value).getCanonicalName();
+    }
+    if (value instanceof List) {
+      return ((List<?>) value).stream()
+          .map(String::valueOf)
+          .collect(Collectors.joining(","));
+    }
+    return String.valueOf(value);
+  }
+
+  private interface Writer {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private interface Reader<T> {
+    T read(DataInputStream in) throws IOException;
+  }
+}
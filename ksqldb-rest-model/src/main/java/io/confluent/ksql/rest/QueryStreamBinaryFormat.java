@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest;
+
+/**
+ * The binary format of the query-stream endpoint's response, shared by the server and the Java
+ * client.
+ *
+ * <p>The response is a sequence of frames. Each frame starts with the four byte size of the rest
+ * of the frame, followed by a one byte frame type and the frame body. The first frame is a
+ * metadata frame, whose body is the JSON query response metadata. Each subsequent frame is a row
+ * frame, whose body is the four byte number of columns followed by the value of each column, or
+ * an error frame, whose body is the JSON error message.
+ *
+ * <p>Values are encoded by {@link BinaryValueCodec}, as they are by {@link PullQueryCodec}.
+ */
+public final class QueryStreamBinaryFormat {
+
+  public static final String CONTENT_TYPE = "application/vnd.ksqlapi.binary.v1";
+
+  public static final byte METADATA_FRAME = 1;
+  public static final byte ROW_FRAME = 2;
+  public static final byte ERROR_FRAME = 3;
+
+  /**
+   * The size of the field holding the size of the rest of each frame.
+   */
+  public static final int FRAME_SIZE_SIZE = 4;
+
+  private QueryStreamBinaryFormat() {
+  }
+}
@@ -17,10 +17,12 @@ package io.confluent.ksql.rest;
 
 import io.confluent.ksql.util.KsqlHostInfo;
 import java.net.URL;
+import java.security.Principal;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.TreeMap;
 
 /**
@@ -35,6 +37,7 @@ public class SessionProperties {
   private final URL localUrl;
   private final boolean internalRequest;
   private final Map<String, String> sessionVariables;
+  private final Optional<Principal> userPrincipal;
 
   /**
    * @param mutableScopedProperties   The streamsProperties of the incoming request
@@ -47,6 +50,23 @@ public class SessionProperties {
       final KsqlHostInfo ksqlHostInfo,
       final URL localUrl,
       final boolean internalRequest
+  ) {
+    this(mutableScopedProperties, ksqlHostInfo, localUrl, internalRequest, Optional.empty());
+  }
+
+  /**
+   * @param mutableScopedProperties   The streamsProperties of the incoming request
+   * @param ksqlHostInfo              The ksqlHostInfo of the server that handles the request
+   * @param localUrl                  The url of the server that handles the request
+   * @param internalRequest           Flag indicating if request is from within the KSQL cluster
+   * @param userPrincipal             The authenticated user making the request, if any
+   */
+  public SessionProperties(
+      final Map<String, Object> mutableScopedProperties,
+      final KsqlHostInfo ksqlHostInfo,
+      final URL localUrl,
+      final boolean internalRequest,
+      final Optional<Principal> userPrincipal
   ) {
     this.mutableScopedProperties = 
         new HashMap<>(Objects.requireNonNull(mutableScopedProperties, "mutableScopedProperties"));
@@ -54,6 +74,7 @@ public class SessionProperties {
     this.localUrl = Objects.requireNonNull(localUrl, "localUrl");
     this.internalRequest = internalRequest;
     this.sessionVariables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    this.userPrincipal = Objects.requireNonNull(userPrincipal, "userPrincipal");
   }
 
   public Map<String, Object> getMutableScopedProperties() {
@@ -72,6 +93,10 @@ public class SessionProperties {
     return internalRequest;
   }
 
+  public Optional<Principal> getUserPrincipal() {
+    return userPrincipal;
+  }
+
   public Map<String, String> getSessionVariables() {
     return Collections.unmodifiableMap(sessionVariables);
   }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.query.QueryId;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The profile of a query: the totals of, and profiles of, its instrumented steps. Times and
+ * allocations are estimated from sampled records.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class QueryProfileInfo {
+
+  private final QueryId queryId;
+  private final long processingTimeNs;
+  private final long cpuTimeNs;
+  private final long allocatedBytes;
+  private final long serdeTimeNs;
+  private final List<StepProfileInfo> steps;
+
+  @JsonCreator
+  public QueryProfileInfo(
+      @JsonProperty("queryId") final QueryId queryId,
+      @JsonProperty("processingTimeNs") final long processingTimeNs,
+      @JsonProperty("cpuTimeNs") final long cpuTimeNs,
+      @JsonProperty("allocatedBytes") final long allocatedBytes,
+      @JsonProperty("serdeTimeNs") final long serdeTimeNs,
+      @JsonProperty("steps") final List<StepProfileInfo> steps
+  ) {
+    this.queryId = Objects.requireNonNull(queryId, "queryId");
+    this.processingTimeNs = processingTimeNs;
+    this.cpuTimeNs = cpuTimeNs;
+    this.allocatedBytes = allocatedBytes;
+    this.serdeTimeNs = serdeTimeNs;
+    this.steps = ImmutableList.copyOf(Objects.requireNonNull(steps, "steps"));
+  }
+
+  public QueryId getQueryId() {
+    return queryId;
+  }
+
+  public long getProcessingTimeNs() {
+    return processingTimeNs;
+  }
+
+  public long getCpuTimeNs() {
+    return cpuTimeNs;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public long getSerdeTimeNs() {
+    return serdeTimeNs;
+  }
+
+  public List<StepProfileInfo> getSteps() {
+    return steps;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final QueryProfileInfo that = (QueryProfileInfo) o;
+    return processingTimeNs == that.processingTimeNs
+        && cpuTimeNs == that.cpuTimeNs
+        && allocatedBytes == that.allocatedBytes
+        && serdeTimeNs == that.serdeTimeNs
+        && Objects.equals(queryId, that.queryId)
+        && Objects.equals(steps, that.steps);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(queryId, processingTimeNs, cpuTimeNs, allocatedBytes, serdeTimeNs, steps);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The profiles of the profiled queries running on a server, most expensive first.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class QueryProfilesResponse {
+
+  private final List<QueryProfileInfo> queries;
+
+  @JsonCreator
+  public QueryProfilesResponse(
+      @JsonProperty("queries") final List<QueryProfileInfo> queries
+  ) {
+    this.queries = ImmutableList.copyOf(Objects.requireNonNull(queries, "queries"));
+  }
+
+  public List<QueryProfileInfo> getQueries() {
+    return queries;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final QueryProfilesResponse that = (QueryProfilesResponse) o;
+    return Objects.equals(queries, that.queries);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(queries);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Objects;
+
+/**
+ * The profile of one step of a query. Times and allocations are estimated from sampled records.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StepProfileInfo {
+
+  private final String stepId;
+  private final long recordsIn;
+  private final long recordsOut;
+  private final long processingTimeNs;
+  private final long cpuTimeNs;
+  private final long allocatedBytes;
+  private final long serdeTimeNs;
+
+  @JsonCreator
+  public StepProfileInfo(
+      @JsonProperty("stepId") final String stepId,
+      @JsonProperty("recordsIn") final long recordsIn,
+      @JsonProperty("recordsOut") final long recordsOut,
+      @JsonProperty("processingTimeNs") final long processingTimeNs,
+      @JsonProperty("cpuTimeNs") final long cpuTimeNs,
+      @JsonProperty("allocatedBytes") final long allocatedBytes,
+      @JsonProperty("serdeTimeNs") final long serdeTimeNs
+  ) {
+    this.stepId = Objects.requireNonNull(stepId, "stepId");
+    this.recordsIn = recordsIn;
+    this.recordsOut = recordsOut;
+    this.processingTimeNs = processingTimeNs;
+    this.cpuTimeNs = cpuTimeNs;
+    this.allocatedBytes = allocatedBytes;
+    this.serdeTimeNs = serdeTimeNs;
+  }
+
+  public String getStepId() {
+    return stepId;
+  }
+
+  public long getRecordsIn() {
+    return recordsIn;
+  }
+
+  public long getRecordsOut() {
+    return recordsOut;
+  }
+
+  public long getProcessingTimeNs() {
+    return processingTimeNs;
+  }
+
+  public long getCpuTimeNs() {
+    return cpuTimeNs;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public long getSerdeTimeNs() {
+    return serdeTimeNs;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final StepProfileInfo that = (StepProfileInfo) o;
+    return recordsIn == that.recordsIn
+        && recordsOut == that.recordsOut
+        && processingTimeNs == that.processingTimeNs
+        && cpuTimeNs == that.cpuTimeNs
+        && allocatedBytes == that.allocatedBytes
+        && serdeTimeNs == that.serdeTimeNs
+        && Objects.equals(stepId, that.stepId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        stepId, recordsIn, recordsOut, processingTimeNs, cpuTimeNs, allocatedBytes, serdeTimeNs);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.rest.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What a client needs to send a pull query for a key of a materialized table straight to a host
+ * that stores the key: the key column and how it is serialized, from which the client computes
+ * the partition of the key, and the hosts that can serve each partition.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TableRoutingInfo {
+
+  private final String table;
+  private final String keyColumn;
+  private final String keyType;
+  private final String keyFormat;
+  private final boolean windowed;
+  private final List<List<String>> partitionHosts;
+
+  @JsonCreator
+  public TableRoutingInfo(
+      @JsonProperty("table") final String table,
+      @JsonProperty("keyColumn") final String keyColumn,
+      @JsonProperty("keyType") final String keyType,
+      @JsonProperty("keyFormat") final String keyFormat,
+      @JsonProperty("windowed") final boolean windowed,
+      @JsonProperty("partitionHosts") final List<List<String>> partitionHosts
+  ) {
+    this.table = Objects.requireNonNull(table, "table");
+    this.keyColumn = Objects.requireNonNull(keyColumn, "keyColumn");
+    this.keyType = Objects.requireNonNull(keyType, "keyType");
+    this.keyFormat = Objects.requireNonNull(keyFormat, "keyFormat");
+    this.windowed = windowed;
+    this.partitionHosts = Objects.requireNonNull(partitionHosts, "partitionHosts").stream()
+        .map(ImmutableList::copyOf)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  public String getTable() {
+    return table;
+  }
+
+  public String getKeyColumn() {
+    return keyColumn;
+  }
+
+  public String getKeyType() {
+    return keyType;
+  }
+
+  public String getKeyFormat() {
+    return keyFormat;
+  }
+
+  public boolean isWindowed() {
+    return windowed;
+  }
+
+  /**
+   * @return for each partition of the table, in order, the base URLs of the hosts that can serve
+   *     it, the active host first and then the standbys that are not too far behind.
+   */
+  public List<List<String>> getPartitionHosts() {
+    return partitionHosts;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final TableRoutingInfo that = (TableRoutingInfo) o;
+    return windowed == that.windowed
+        && Objects.equals(table, that.table)
+        && Objects.equals(keyColumn, that.keyColumn)
+        && Objects.equals(keyType, that.keyType)
+        && Objects.equals(keyFormat, that.keyFormat)
+        && Objects.equals(partitionHosts, that.partitionHosts);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(table, keyColumn, keyType, keyFormat, windowed, partitionHosts);
+  }
+
+  @Override
+  public String toString() {
+    return "TableRoutingInfo{"
+        + "table='" + table + '\''
+        + ", keyColumn='" + keyColumn + '\''
+        + ", keyType='" + keyType + '\''
+        + ", keyFormat='" + keyFormat + '\''
+        + ", windowed=" + windowed
+        + ", partitionHosts=" + partitionHosts
+        + '}';
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.rest;
+
+import static io.confluent.ksql.GenericRow.genericRow;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.name.ColumnName;
+import io.confluent.ksql.query.QueryId;
+import io.confluent.ksql.rest.entity.KsqlRequest;
+import io.confluent.ksql.rest.entity.StreamedRow;
+import io.confluent.ksql.schema.ksql.LogicalSchema;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import io.confluent.ksql.util.KsqlException;
+import io.confluent.ksql.util.KsqlRequestConfig;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.Test;
+
+public class PullQueryCodecTest {
+
+  private static final LogicalSchema SCHEMA = LogicalSchema.builder()
+      .keyColumn(ColumnName.of("K"), SqlTypes.STRING)
+      .valueColumn(ColumnName.of("V0"), SqlTypes.BIGINT)
+      .build();
+
+  private static final Function<String, LogicalSchema> SCHEMA_PARSER = text -> {
+    assertThat(text, is(SCHEMA.toString()));
+    return SCHEMA;
+  };
+
+  @Test
+  public void shouldRoundTripRequest() {
+    // Given:
+    final KsqlRequest request = new KsqlRequest(
+        "SELECT * FROM T WHERE K='a';",
+        ImmutableMap.of("auto.offset.reset", "earliest"),
+        ImmutableMap.of(KsqlRequestConfig.KSQL_REQUEST_QUERY_PULL_PARTITIONS, "1,2"),
+        12L
+    );
+
+    // When:
+    final KsqlRequest result = PullQueryCodec.decodeRequest(PullQueryCodec.encodeRequest(request));
+
+    // Then:
+    assertThat(result, is(request));
+  }
+
+  @Test
+  public void shouldRoundTripRequestWithoutSequenceNumber() {
+    // Given:
+    final KsqlRequest request = new KsqlRequest(
+        "SELECT * FROM T WHERE K='a';", ImmutableMap.of(), ImmutableMap.of(), null);
+
+    // When:
+    final KsqlRequest result = PullQueryCodec.decodeRequest(PullQueryCodec.encodeRequest(request));
+
+    // Then:
+    assertThat(result, is(request));
+  }
+
+  @Test
+  public void shouldRoundTripHeader() {
+    // Given:
+    final QueryId queryId = new QueryId("query_1");
+
+    // When:
+    final StreamedRow result = decode(PullQueryCodec.encodeHeader(queryId, SCHEMA));
+
+    // Then:
+    assertThat(result, is(StreamedRow.header(queryId, SCHEMA)));
+  }
+
+  @Test
+  public void shouldRoundTripRowOfAllTypes() {
+    // Given:
+    final GenericRow row = genericRow(
+        null,
+        true,
+        10,
+        11L,
+        12.5,
+        "héllo",
+        new BigDecimal("-123.4500"),
+        Arrays.asList(1, null, 3),
+        ImmutableMap.of("a", 1L, "b", 2L),
+        ImmutableList.of(ImmutableList.of("nested"))
+    );
+
+    // When:
+    final StreamedRow result = decode(PullQueryCodec.encodeRow(row.values()));
+
+    // Then:
+    assertThat(result, is(StreamedRow.pullRow(row, Optional.empty())));
+  }
+
+  @Test
+  public void shouldDecodeStructAsMapOfFields() {
+    // Given:
+    final Schema schema = SchemaBuilder.struct()
+        .field("F0", Schema.OPTIONAL_INT32_SCHEMA)
+        .field("F1", Schema.OPTIONAL_STRING_SCHEMA)
+        .build();
+    final Struct struct = new Struct(schema).put("F0", 1).put("F1", "x");
+
+    // When:
+    final StreamedRow result = decode(PullQueryCodec.encodeRow(ImmutableList.of(struct)));
+
+    // Then:
+    assertThat(result.getRow().get().getColumns(),
+        is(ImmutableList.of(ImmutableMap.of("F0", 1, "F1", "x"))));
+  }
+
+  @Test
+  public void shouldRoundTripError() {
+    // When:
+    final StreamedRow result = decode(PullQueryCodec.encodeError(50000, "Boom"));
+
+    // Then:
+    assertThat(result.getErrorMessage().get().getErrorCode(), is(50000));
+    assertThat(result.getErrorMessage().get().getMessage(), is("Boom"));
+  }
+
+  @Test
+  public void shouldThrowOnUnsupportedType() {
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.encodeRow(ImmutableList.of(new Object()))
+    );
+
+    // Then:
+    assertThat(e.getMessage(), containsString("Unsupported type in pull query"));
+  }
+
+  @Test
+  public void shouldThrowOnTruncatedFrame() {
+    // Given:
+    final byte[] frame = PullQueryCodec.encodeRow(ImmutableList.of("some value"));
+    final byte[] payload = Arrays.copyOfRange(frame, PullQueryCodec.FRAME_PREFIX_SIZE,
+        frame.length - 1);
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeFrame(PullQueryCodec.ROW_FRAME, payload, SCHEMA_PARSER)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+  }
+
+  @Test
+  public void shouldThrowOnTruncatedRequest() {
+    // Given:
+    final byte[] bytes = PullQueryCodec.encodeRequest(new KsqlRequest(
+        "SELECT * FROM T WHERE K='a';", ImmutableMap.of(), ImmutableMap.of(), 12L));
+    final byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeRequest(truncated)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+  }
+
+  @Test
+  public void shouldThrowOnNegativeNumberOfPropertiesInRequest() {
+    // Given:
+    final byte[] bytes = ByteBuffer.allocate(9)
+        .putInt(1)
+        .put((byte) 'x')
+        .putInt(-1)
+        .array();
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeRequest(bytes)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+    assertThat(e.getCause().getMessage(), containsString("Invalid size: -1"));
+  }
+
+  @Test
+  public void shouldThrowOnRequestStringLongerThanRequest() {
+    // Given:
+    final byte[] bytes = ByteBuffer.allocate(6)
+        .putInt(Integer.MAX_VALUE)
+        .put("ab".getBytes(StandardCharsets.UTF_8))
+        .array();
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeRequest(bytes)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+    assertThat(e.getCause().getMessage(), containsString("Invalid size: " + Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void shouldThrowOnNegativeNumberOfColumnsInRow() {
+    // Given:
+    final byte[] payload = ByteBuffer.allocate(4).putInt(-1).array();
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeFrame(PullQueryCodec.ROW_FRAME, payload, SCHEMA_PARSER)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+    assertThat(e.getCause().getMessage(), containsString("Invalid size: -1"));
+  }
+
+  @Test
+  public void shouldThrowOnMoreColumnsThanRowHolds() {
+    // Given:
+    final byte[] payload = ByteBuffer.allocate(5)
+        .putInt(Integer.MAX_VALUE)
+        .put(BinaryValueCodec.NULL)
+        .array();
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeFrame(PullQueryCodec.ROW_FRAME, payload, SCHEMA_PARSER)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+    assertThat(e.getCause().getMessage(), containsString("Invalid size: " + Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void shouldThrowOnDecimalLongerThanRow() {
+    // Given:
+    final byte[] payload = ByteBuffer.allocate(14)
+        .putInt(1)
+        .put(BinaryValueCodec.DECIMAL)
+        .putInt(2)
+        .putInt(1_000_000)
+        .put((byte) 1)
+        .array();
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeFrame(PullQueryCodec.ROW_FRAME, payload, SCHEMA_PARSER)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+    assertThat(e.getCause().getMessage(), containsString("Invalid size: 1000000"));
+  }
+
+  @Test
+  public void shouldThrowOnMapWithMoreEntriesThanRowHolds() {
+    // Given:
+    final byte[] payload = ByteBuffer.allocate(11)
+        .putInt(1)
+        .put(BinaryValueCodec.MAP)
+        .putInt(3)
+        .put(BinaryValueCodec.NULL)
+        .put(BinaryValueCodec.NULL)
+        .array();
+
+    // When:
+    final Exception e = assertThrows(
+        KsqlException.class,
+        () -> PullQueryCodec.decodeFrame(PullQueryCodec.ROW_FRAME, payload, SCHEMA_PARSER)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), is("Failed to decode pull query"));
+    assertThat(e.getCause().getMessage(), containsString("Invalid size: 3"));
+  }
+
+  private static StreamedRow decode(final byte[] frame) {
+    assertThat(frame.length > PullQueryCodec.FRAME_PREFIX_SIZE, is(true));
+
+    final int payloadSize = ((frame[1] & 0xFF) << 24) | ((frame[2] & 0xFF) << 16)
+        | ((frame[3] & 0xFF) << 8) | (frame[4] & 0xFF);
+    assertThat(payloadSize, is(frame.length - PullQueryCodec.FRAME_PREFIX_SIZE));
+
+    final byte[] payload = Arrays.copyOfRange(frame, PullQueryCodec.FRAME_PREFIX_SIZE,
+        frame.length);
+    return PullQueryCodec.decodeFrame(frame[0], payload, SCHEMA_PARSER);
+  }
+}
@@ -0,0 +1,462 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.avro;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.avro.io.Decoder;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+
+/**
+ * Builds readers that decode binary Avro straight into ksqlDB values.
+ *
+ * <p>Reading through Connect decodes each value into an Avro record, converts that to a Connect
+ * struct, then converts that to ksqlDB types. A reader does all three at once, with the
+ * differences between the writer's schema and ksqlDB's resolved when it is built: which writer
+ * fields map to which ksqlDB fields, how each value is coerced, and which fields are skipped.
+ * The values read are the same as through Connect.
+ *
+ * <p>Readers are only built for writer schemas whose conversion through Connect is a plain
+ * mapping of Avro types. Others, for example unions of more than one type, recursive records, or
+ * schemas written by Connect with type hints, are left to Connect, as are writer schemas not
+ * compatible with ksqlDB's, so that the errors are the same.
+ */
+final class AvroValueReaders {
+
+  private static final String LOGICAL_TYPE_PROP = "logicalType";
+  private static final String DECIMAL_LOGICAL_TYPE = "decimal";
+  private static final String DECIMAL_SCALE_PROP = "scale";
+  private static final String TIME_MILLIS_LOGICAL_TYPE = "time-millis";
+  private static final String CONNECT_NAME_PROP = "connect.name";
+  private static final String CONNECT_TYPE_PROP = "connect.type";
+  private static final String CONNECT_INTERNAL_TYPE_PROP = "connect.internal.type";
+
+  private AvroValueReaders() {
+  }
+
+  /**
+   * Reads a value from binary Avro.
+   */
+  interface AvroValueReader {
+    Object read(Decoder in) throws IOException;
+  }
+
+  private interface Skipper {
+    void skip(Decoder in) throws IOException;
+  }
+
+  /**
+   * @param writerSchema the schema the value was written with.
+   * @param avroCompatibleSchema the Avro compatible version of the ksqlDB schema.
+   * @param ksqlSchema the ksqlDB schema.
+   * @return the reader, or empty if values of the writer schema should be read through Connect.
+   */
+  static Optional<AvroValueReader> create(
+      final org.apache.avro.Schema writerSchema,
+      final Schema avroCompatibleSchema,
+      final Schema ksqlSchema
+  ) {
+    if (!isSupported(writerSchema, new HashSet<>())) {
+      return Optional.empty();
+    }
+
+    return Optional.ofNullable(reader(writerSchema, avroCompatibleSchema, ksqlSchema));
+  }
+
+  private static boolean isSupported(
+      final org.apache.avro.Schema schema,
+      final Set<String> enclosingRecords
+  ) {
+    if (schema.getProp(CONNECT_TYPE_PROP) != null
+        || schema.getProp(CONNECT_INTERNAL_TYPE_PROP) != null) {
+      return false;
+    }
+
+    switch (schema.getType()) {
+      case RECORD:
+        if (!enclosingRecords.add(schema.getFullName())) {
+          return false;
+        }
+        for (final org.apache.avro.Schema.Field field : schema.getFields()) {
+          if (!isSupported(field.schema(), enclosingRecords)) {
+            return false;
+          }
+        }
+        enclosingRecords.remove(schema.getFullName());
+        return true;
+      case UNION:
+        for (final org.apache.avro.Schema type : schema.getTypes()) {
+          if (!isSupported(type, enclosingRecords)) {
+            return false;
+          }
+        }
+        return true;
+      case ARRAY:
+        return isSupported(schema.getElementType(), enclosingRecords);
+      case MAP:
+        return isSupported(schema.getValueType(), enclosingRecords);
+      default:
+        return true;
+    }
+  }
+
+  // CHECKSTYLE_RULES.OFF: CyclomaticComplexity
+  private static AvroValueReader reader(
+      final org.apache.avro.Schema writer,
+      final Schema compatible,
+      final Schema ksql
+  ) {
+    // CHECKSTYLE_RULES.ON: CyclomaticComplexity
+    if (writer.getType() == org.apache.avro.Schema.Type.UNION) {
+      return optionalReader(writer, compatible, ksql);
+    }
+
+    switch (ksql.type()) {
+      case BOOLEAN:
+        return writer.getType() == org.apache.avro.Schema.Type.BOOLEAN
+            ? Decoder::readBoolean
+            : null;
+      case INT32:
+        return writer.getType() == org.apache.avro.Schema.Type.INT
+            ? intReader(writer)
+            : null;
+      case INT64:
+        return longReader(writer);
+      case FLOAT64:
+        return doubleReader(writer);
+      case STRING:
+        return stringReader(writer);
+      case BYTES:
+        return decimalReader(writer);
+      case ARRAY:
+        return arrayReader(writer, compatible, ksql);
+      case MAP:
+        return mapReader(writer, compatible, ksql);
+      case STRUCT:
+        return structReader(writer, compatible, ksql);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Connect reads a union of null and one other type as an optional value of the other type.
+   */
+  private static AvroValueReader optionalReader(
+      final org.apache.avro.Schema writer,
+      final Schema compatible,
+      final Schema ksql
+  ) {
+    final List<org.apache.avro.Schema> types = writer.getTypes();
+    if (types.size() != 2) {
+      return null;
+    }
+
+    final int nullIndex;
+    if (types.get(0).getType() == org.apache.avro.Schema.Type.NULL) {
+      nullIndex = 0;
+    } else if (types.get(1).getType() == org.apache.avro.Schema.Type.NULL) {
+      nullIndex = 1;
+    } else {
+      return null;
+    }
+
+    final org.apache.avro.Schema valueType = types.get(1 - nullIndex);
+    if (valueType.getType() == org.apache.avro.Schema.Type.NULL
+        || valueType.getType() == org.apache.avro.Schema.Type.UNION) {
+      return null;
+    }
+
+    final AvroValueReader valueReader = reader(valueType, compatible, ksql);
+    if (valueReader == null) {
+      return null;
+    }
+
+    return in -> in.readIndex() == nullIndex ? null : valueReader.read(in);
+  }
+
+  private static AvroValueReader intReader(final org.apache.avro.Schema writer) {
+    if (TIME_MILLIS_LOGICAL_TYPE.equals(writer.getProp(LOGICAL_TYPE_PROP))
+        || Time.LOGICAL_NAME.equals(writer.getProp(CONNECT_NAME_PROP))) {
+      // Connect rejects times outside of a day:
+      return in -> Time.fromLogical(Time.SCHEMA, Time.toLogical(Time.SCHEMA, in.readInt()));
+    }
+
+    return Decoder::readInt;
+  }
+
+  private static AvroValueReader longReader(final org.apache.avro.Schema writer) {
+    switch (writer.getType()) {
+      case INT:
+        final AvroValueReader intReader = intReader(writer);
+        return in -> ((Integer) intReader.read(in)).longValue();
+      case LONG:
+        return Decoder::readLong;
+      default:
+        return null;
+    }
+  }
+
+  private static AvroValueReader doubleReader(final org.apache.avro.Schema writer) {
+    switch (writer.getType()) {
+      case FLOAT:
+        return in -> (double) in.readFloat();
+      case DOUBLE:
+        return Decoder::readDouble;
+      default:
+        return null;
+    }
+  }
+
+  private static AvroValueReader stringReader(final org.apache.avro.Schema writer) {
+    switch (writer.getType()) {
+      case STRING:
+        return Decoder::readString;
+      case ENUM:
+        final List<String> symbols = writer.getEnumSymbols();
+        return in -> symbols.get(in.readEnum());
+      case BOOLEAN:
+        return in -> String.valueOf(in.readBoolean());
+      case INT:
+        final AvroValueReader intReader = intReader(writer);
+        return in -> String.valueOf(intReader.read(in));
+      case LONG:
+        return in -> String.valueOf(in.readLong());
+      case FLOAT:
+        return in -> String.valueOf(in.readFloat());
+      case DOUBLE:
+        return in -> String.valueOf(in.readDouble());
+      default:
+        return null;
+    }
+  }
+
+  private static AvroValueReader decimalReader(final org.apache.avro.Schema writer) {
+    if (writer.getType() != org.apache.avro.Schema.Type.BYTES
+        || !DECIMAL_LOGICAL_TYPE.equals(writer.getProp(LOGICAL_TYPE_PROP))) {
+      return null;
+    }
+
+    final Object scale = writer.getObjectProp(DECIMAL_SCALE_PROP);
+    if (!(scale instanceof Integer)) {
+      return null;
+    }
+
+    final Schema decimalSchema = Decimal.schema((Integer) scale);
+    return in -> {
+      final ByteBuffer buffer = in.readBytes(null);
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return Decimal.toLogical(decimalSchema, bytes);
+    };
+  }
+
+  private static AvroValueReader arrayReader(
+      final org.apache.avro.Schema writer,
+      final Schema compatible,
+      final Schema ksql
+  ) {
+    if (writer.getType() != org.apache.avro.Schema.Type.ARRAY) {
+      return null;
+    }
+
+    final AvroValueReader elementReader = reader(
+        writer.getElementType(), compatible.valueSchema(), ksql.valueSchema());
+    if (elementReader == null) {
+      return null;
+    }
+
+    return in -> {
+      final List<Object> array = new ArrayList<>();
+      for (long size = in.readArrayStart(); size != 0; size = in.arrayNext()) {
+        for (long i = 0; i != size; ++i) {
+          array.add(elementReader.read(in));
+        }
+      }
+      return array;
+    };
+  }
+
+  private static AvroValueReader mapReader(
+      final org.apache.avro.Schema writer,
+      final Schema compatible,
+      final Schema ksql
+  ) {
+    if (writer.getType() != org.apache.avro.Schema.Type.MAP) {
+      return null;
+    }
+
+    final AvroValueReader valueReader = reader(
+        writer.getValueType(), compatible.valueSchema(), ksql.valueSchema());
+    if (valueReader == null) {
+      return null;
+    }
+
+    return in -> {
+      final Map<String, Object> map = new HashMap<>();
+      for (long size = in.readMapStart(); size != 0; size = in.mapNext()) {
+        for (long i = 0; i != size; ++i) {
+          final String key = in.readString();
+          map.put(key, valueReader.read(in));
+        }
+      }
+      return map;
+    };
+  }
+
+  /**
+   * Writer fields are matched to ksqlDB fields as Connect does: by name, falling back to the
+   * upper-cased name. The names matched are those of the Avro compatible schema, while the
+   * struct read has the ksqlDB schema, whose fields are in the same order.
+   */
+  private static AvroValueReader structReader(
+      final org.apache.avro.Schema writer,
+      final Schema compatible,
+      final Schema ksql
+  ) {
+    if (writer.getType() != org.apache.avro.Schema.Type.RECORD) {
+      return null;
+    }
+
+    final List<org.apache.avro.Schema.Field> writerFields = writer.getFields();
+    final Field[] targetFields = new Field[writerFields.size()];
+    final AvroValueReader[] fieldReaders = new AvroValueReader[writerFields.size()];
+    final Skipper[] fieldSkippers = new Skipper[writerFields.size()];
+
+    for (final org.apache.avro.Schema.Field writerField : writerFields) {
+      Field compatibleField = compatible.field(writerField.name());
+      if (compatibleField == null) {
+        compatibleField = compatible.field(writerField.name().toUpperCase());
+      }
+
+      final int pos = writerField.pos();
+      if (compatibleField == null) {
+        fieldSkippers[pos] = skipper(writerField.schema());
+        continue;
+      }
+
+      final Field ksqlField = ksql.fields().get(compatibleField.index());
+      fieldReaders[pos] = reader(
+          writerField.schema(), compatibleField.schema(), ksqlField.schema());
+      if (fieldReaders[pos] == null) {
+        return null;
+      }
+      targetFields[pos] = ksqlField;
+    }
+
+    // Connect sets every field, so a required field the writer does not have fails to read:
+    final List<Field> requiredFields = new ArrayList<>();
+    for (final Field field : ksql.fields()) {
+      if (!field.schema().isOptional()) {
+        requiredFields.add(field);
+      }
+    }
+
+    return in -> {
+      final Struct struct = new Struct(ksql);
+      for (int i = 0; i != fieldReaders.length; ++i) {
+        if (fieldReaders[i] == null) {
+          fieldSkippers[i].skip(in);
+        } else {
+          struct.put(targetFields[i], fieldReaders[i].read(in));
+        }
+      }
+
+      for (final Field field : requiredFields) {
+        if (struct.get(field) == null) {
+          struct.put(field, null);
+        }
+      }
+      return struct;
+    };
+  }
+
+  private static Skipper skipper(final org.apache.avro.Schema writer) {
+    switch (writer.getType()) {
+      case NULL:
+        return Decoder::readNull;
+      case BOOLEAN:
+        return Decoder::readBoolean;
+      case INT:
+        return Decoder::readInt;
+      case LONG:
+        return Decoder::readLong;
+      case FLOAT:
+        return Decoder::readFloat;
+      case DOUBLE:
+        return Decoder::readDouble;
+      case STRING:
+        return Decoder::skipString;
+      case BYTES:
+        return Decoder::skipBytes;
+      case ENUM:
+        return Decoder::readEnum;
+      case FIXED:
+        final int fixedSize = writer.getFixedSize();
+        return in -> in.skipFixed(fixedSize);
+      case ARRAY:
+        final Skipper elementSkipper = skipper(writer.getElementType());
+        return in -> {
+          for (long size = in.skipArray(); size != 0; size = in.skipArray()) {
+            for (long i = 0; i != size; ++i) {
+              elementSkipper.skip(in);
+            }
+          }
+        };
+      case MAP:
+        final Skipper valueSkipper = skipper(writer.getValueType());
+        return in -> {
+          for (long size = in.skipMap(); size != 0; size = in.skipMap()) {
+            for (long i = 0; i != size; ++i) {
+              in.skipString();
+              valueSkipper.skip(in);
+            }
+          }
+        };
+      case UNION:
+        final List<org.apache.avro.Schema> types = writer.getTypes();
+        final Skipper[] typeSkippers = new Skipper[types.size()];
+        for (int i = 0; i != typeSkippers.length; ++i) {
+          typeSkippers[i] = skipper(types.get(i));
+        }
+        return in -> typeSkippers[in.readIndex()].skip(in);
+      case RECORD:
+        final List<org.apache.avro.Schema.Field> fields = writer.getFields();
+        final Skipper[] fieldSkippers = new Skipper[fields.size()];
+        for (int i = 0; i != fieldSkippers.length; ++i) {
+          fieldSkippers[i] = skipper(fields.get(i).schema());
+        }
+        return in -> {
+          for (final Skipper fieldSkipper : fieldSkippers) {
+            fieldSkipper.skip(in);
+          }
+        };
+      default:
+        throw new IllegalArgumentException("Unexpected Avro type: " + writer.getType());
+    }
+  }
+}
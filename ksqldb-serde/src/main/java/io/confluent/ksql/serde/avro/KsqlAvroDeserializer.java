@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.avro;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.ksql.serde.SerdeUtils;
+import io.confluent.ksql.serde.avro.AvroValueReaders.AvroValueReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.connect.data.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deserializes Avro values written in the schema registry format straight to ksqlDB values.
+ *
+ * <p>The writer schema of each schema id is looked up once, and the {@link AvroValueReader} for
+ * it built and cached. Values whose writer schema has no reader, or that are not in the schema
+ * registry format, are read by the Connect deserializer instead.
+ *
+ * <p>Instances are not thread safe.
+ */
+class KsqlAvroDeserializer<T> implements Deserializer<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KsqlAvroDeserializer.class);
+
+  private static final byte MAGIC_BYTE = 0x0;
+  private static final int SIZE_OF_PREFIX = Byte.BYTES + Integer.BYTES;
+
+  private final Deserializer<T> connectDeserializer;
+  private final SchemaRegistryClient srClient;
+  private final Schema ksqlSchema;
+  private final Schema avroCompatibleSchema;
+  private final Class<T> targetType;
+  private final Map<Integer, Optional<AvroValueReader>> readers = new HashMap<>();
+  private BinaryDecoder decoder;
+
+  KsqlAvroDeserializer(
+      final Deserializer<T> connectDeserializer,
+      final SchemaRegistryClient srClient,
+      final Schema ksqlSchema,
+      final Schema avroCompatibleSchema,
+      final Class<T> targetType
+  ) {
+    this.connectDeserializer = Objects.requireNonNull(connectDeserializer, "connectDeserializer");
+    this.srClient = Objects.requireNonNull(srClient, "srClient");
+    this.ksqlSchema = Objects.requireNonNull(ksqlSchema, "ksqlSchema");
+    this.avroCompatibleSchema =
+        Objects.requireNonNull(avroCompatibleSchema, "avroCompatibleSchema");
+    this.targetType = Objects.requireNonNull(targetType, "targetType");
+  }
+
+  @Override
+  public void configure(final Map<String, ?> configs, final boolean isKey) {
+    connectDeserializer.configure(configs, isKey);
+  }
+
+  @Override
+  public T deserialize(final String topic, final byte[] bytes) {
+    if (bytes == null || bytes.length < SIZE_OF_PREFIX || bytes[0] != MAGIC_BYTE) {
+      return connectDeserializer.deserialize(topic, bytes);
+    }
+
+    final int schemaId = ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16)
+        | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+
+    final Optional<AvroValueReader> reader = getReader(schemaId);
+    if (!reader.isPresent()) {
+      return connectDeserializer.deserialize(topic, bytes);
+    }
+
+    try {
+      decoder = DecoderFactory.get()
+          .binaryDecoder(bytes, SIZE_OF_PREFIX, bytes.length - SIZE_OF_PREFIX, decoder);
+
+      return SerdeUtils.castToTargetType(reader.get().read(decoder), targetType);
+    } catch (final Exception e) {
+      throw new SerializationException(
+          "Error deserializing message from topic: " + topic, e);
+    }
+  }
+
+  private Optional<AvroValueReader> getReader(final int schemaId) {
+    final Optional<AvroValueReader> cached = readers.get(schemaId);
+    if (cached != null) {
+      return cached;
+    }
+
+    final ParsedSchema writerSchema;
+    try {
+      writerSchema = srClient.getSchemaById(schemaId);
+    } catch (final Exception e) {
+      // Leave the Connect deserializer to report the error, and try again next time:
+      LOG.debug("Failed to get schema with id {}", schemaId, e);
+      return Optional.empty();
+    }
+
+    final Optional<AvroValueReader> reader = writerSchema instanceof AvroSchema
+        ? AvroValueReaders.create(
+            ((AvroSchema) writerSchema).rawSchema(), avroCompatibleSchema, ksqlSchema)
+        : Optional.empty();
+
+    readers.put(schemaId, reader);
+    return reader;
+  }
+
+  @Override
+  public void close() {
+    connectDeserializer.close();
+  }
+}
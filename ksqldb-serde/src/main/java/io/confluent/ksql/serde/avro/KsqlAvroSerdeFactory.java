@@ -111,13 +111,31 @@ class KsqlAvroSerdeFactory {
       final Class<T> targetType,
       final boolean isKey
   ) {
+    final boolean direct =
+        ksqlConfig.getBoolean(KsqlConfig.KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED);
+
     return () -> {
       final AvroDataTranslator translator = createAvroTranslator(schema);
 
+      final SchemaRegistryClient srClient = srFactory.get();
+
       final AvroConverter avroConverter =
-          getAvroConverter(srFactory.get(), ksqlConfig, isKey);
+          getAvroConverter(srClient, ksqlConfig, isKey);
+
+      final Deserializer<T> connectDeserializer =
+          new KsqlConnectDeserializer<>(avroConverter, translator, targetType);
 
-      return new KsqlConnectDeserializer<>(avroConverter, translator, targetType);
+      if (!direct) {
+        return connectDeserializer;
+      }
+
+      return new KsqlAvroDeserializer<>(
+          connectDeserializer,
+          srClient,
+          schema,
+          translator.getAvroCompatibleSchema(),
+          targetType
+      );
     };
   }
 
@@ -51,13 +51,7 @@ public final class JsonSerdeUtils {
       final ObjectMapper mapper,
       final Class<? extends T> clazz
   ) throws IOException {
-    if (!hasMagicByte(jsonWithMagic)) {
-      // don't log contents of jsonWithMagic to avoid leaking data into the logs
-      throw new KsqlException(
-          "Got unexpected JSON serialization format that did not start with the magic byte. If "
-              + "this stream was not serialized using the JsonSchemaConverter, then make sure "
-              + "the stream is declared with JSON format (not JSON_SR).");
-    }
+    throwOnMissingMagicByte(jsonWithMagic);
 
     return mapper.readValue(
         jsonWithMagic,
@@ -67,6 +61,16 @@ public final class JsonSerdeUtils {
     );
   }
 
+  static void throwOnMissingMagicByte(@Nonnull final byte[] jsonWithMagic) {
+    if (!hasMagicByte(jsonWithMagic)) {
+      // don't log contents of jsonWithMagic to avoid leaking data into the logs
+      throw new KsqlException(
+          "Got unexpected JSON serialization format that did not start with the magic byte. If "
+              + "this stream was not serialized using the JsonSchemaConverter, then make sure "
+              + "the stream is declared with JSON format (not JSON_SR).");
+    }
+  }
+
   /**
    * @param json the serialized JSON
    * @return whether or not this JSON contains the magic schema registry byte
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.serde.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.confluent.ksql.util.DecimalUtil;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+/**
+ * Reads the JSON values of a schema a token at a time, without first reading them into a
+ * {@link JsonNode} tree.
+ *
+ * <p>A reader is created once per schema. Objects are matched to the fields of a struct through
+ * a lookup built up front, and fields not in the schema are skipped over without being read.
+ * Values whose JSON type already matches the schema are read straight from their token. Any
+ * other value is read into a {@link JsonNode} and coerced by {@link KsqlJsonDeserializer}, so
+ * coercion, and the errors of values that can not be coerced, are the same as for the tree.
+ */
+abstract class JsonStreamingReader {
+
+  final Schema schema;
+
+  JsonStreamingReader(final Schema schema) {
+    this.schema = Objects.requireNonNull(schema, "schema");
+  }
+
+  static JsonStreamingReader create(final Schema schema) {
+    switch (schema.type()) {
+      case BOOLEAN:
+        return new BooleanReader(schema);
+      case INT32:
+        return new IntegerReader(schema);
+      case INT64:
+        return new LongReader(schema);
+      case FLOAT64:
+        return new DoubleReader(schema);
+      case STRING:
+        return new StringReader(schema);
+      case BYTES:
+        return DecimalUtil.isDecimal(schema)
+            ? new DecimalReader(schema)
+            : new TreeReader(schema);
+      case ARRAY:
+        return new ArrayReader(schema);
+      case MAP:
+        return new MapReader(schema);
+      case STRUCT:
+        return new StructReader(schema);
+      default:
+        return new TreeReader(schema);
+    }
+  }
+
+  /**
+   * Read the value starting at the current token of the parser, leaving the parser on the last
+   * token of the value.
+   *
+   * @param parser the parser.
+   * @return the value, coerced to the schema.
+   * @throws IOException on invalid JSON.
+   */
+  final Object read(final JsonParser parser) throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_NULL) {
+      return null;
+    }
+
+    return readValue(parser);
+  }
+
+  abstract Object readValue(JsonParser parser) throws IOException;
+
+  final Object coerce(final JsonParser parser) throws IOException {
+    final JsonNode value = KsqlJsonDeserializer.MAPPER.readTree(parser);
+    return KsqlJsonDeserializer.coerce(value, schema);
+  }
+
+  /**
+   * Coerce a value already read into a tree, as {@link #read} would have coerced it.
+   *
+   * @param value the value.
+   * @return the value, coerced to the schema.
+   */
+  final Object coerce(final JsonNode value) {
+    return value.isNull() ? null : KsqlJsonDeserializer.coerce(value, schema);
+  }
+
+  private static final class TreeReader extends JsonStreamingReader {
+
+    TreeReader(final Schema schema) {
+      super(schema);
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      return coerce(parser);
+    }
+  }
+
+  private static final class BooleanReader extends JsonStreamingReader {
+
+    BooleanReader(final Schema schema) {
+      super(schema);
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      switch (parser.currentToken()) {
+        case VALUE_TRUE:
+          return true;
+        case VALUE_FALSE:
+          return false;
+        default:
+          return coerce(parser);
+      }
+    }
+  }
+
+  private static final class IntegerReader extends JsonStreamingReader {
+
+    IntegerReader(final Schema schema) {
+      super(schema);
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+          && parser.getNumberType() == NumberType.INT) {
+        return parser.getIntValue();
+      }
+
+      return coerce(parser);
+    }
+  }
+
+  private static final class LongReader extends JsonStreamingReader {
+
+    LongReader(final Schema schema) {
+      super(schema);
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+          && parser.getNumberType() != NumberType.BIG_INTEGER) {
+        return parser.getLongValue();
+      }
+
+      return coerce(parser);
+    }
+  }
+
+  private static final class DoubleReader extends JsonStreamingReader {
+
+    DoubleReader(final Schema schema) {
+      super(schema);
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+        // The tree reads floats as decimals, which have no negative zero:
+        final double value = parser.getDoubleValue();
+        return value == 0 ? 0.0 : value;
+      }
+
+      if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+          && parser.getNumberType() != NumberType.BIG_INTEGER) {
+        return (double) parser.getLongValue();
+      }
+
+      return coerce(parser);
+    }
+  }
+
+  private static final class StringReader extends JsonStreamingReader {
+
+    StringReader(final Schema schema) {
+      super(schema);
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (parser.currentToken() == JsonToken.VALUE_STRING) {
+        return parser.getText();
+      }
+
+      return coerce(parser);
+    }
+  }
+
+  private static final class DecimalReader extends JsonStreamingReader {
+
+    DecimalReader(final Schema schema) {
+      super(schema);
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (parser.currentToken().isNumeric()) {
+        return DecimalUtil.ensureFit(parser.getDecimalValue(), schema);
+      }
+
+      return coerce(parser);
+    }
+  }
+
+  private static final class ArrayReader extends JsonStreamingReader {
+
+    private final JsonStreamingReader elementReader;
+
+    ArrayReader(final Schema schema) {
+      super(schema);
+      this.elementReader = create(schema.valueSchema());
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (parser.currentToken() != JsonToken.START_ARRAY) {
+        return coerce(parser);
+      }
+
+      final List<Object> array = new ArrayList<>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        try {
+          array.add(elementReader.read(parser));
+        } catch (final RuntimeException e) {
+          throw KsqlJsonDeserializer.withPath("[" + array.size() + "]", e);
+        }
+      }
+      return array;
+    }
+  }
+
+  private static final class MapReader extends JsonStreamingReader {
+
+    private final JsonStreamingReader valueReader;
+
+    MapReader(final Schema schema) {
+      super(schema);
+      this.valueReader = create(schema.valueSchema());
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (parser.currentToken() != JsonToken.START_OBJECT) {
+        return coerce(parser);
+      }
+
+      final Map<String, Object> map = new HashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String key = parser.getCurrentName();
+        parser.nextToken();
+
+        try {
+          map.put(key, valueReader.read(parser));
+        } catch (final RuntimeException e) {
+          throw KsqlJsonDeserializer.withPath("." + key + ".value", e);
+        }
+      }
+      return map;
+    }
+  }
+
+  /**
+   * Matches fields as the tree does: by their exact name first, falling back to the upper-cased
+   * name of the JSON field, so unquoted fields are matched case insensitively. A case insensitive
+   * match is only read into a tree, and is coerced once the object has been read only if no
+   * field matched exactly, so a value the exact match replaces can not fail the read.
+   */
+  private static final class StructReader extends JsonStreamingReader {
+
+    private static final byte UNMATCHED = 0;
+    private static final byte CASE_INSENSITIVE_MATCH = 1;
+    private static final byte EXACT_MATCH = 2;
+
+    private final List<Field> fields;
+    private final JsonStreamingReader[] fieldReaders;
+    private final String[] pathParts;
+    private final Map<String, Integer> fieldIndexes;
+    private final boolean readAsTree;
+
+    StructReader(final Schema schema) {
+      super(schema);
+      this.fields = schema.fields();
+      this.fieldReaders = new JsonStreamingReader[fields.size()];
+      this.pathParts = new String[fields.size()];
+      this.fieldIndexes = new HashMap<>();
+
+      for (final Field field : fields) {
+        fieldReaders[field.index()] = create(field.schema());
+        pathParts[field.index()] = "." + field.name();
+        fieldIndexes.put(field.name(), field.index());
+      }
+
+      this.readAsTree = hasFieldsDifferingOnlyInCase(fieldIndexes.keySet());
+    }
+
+    @Override
+    Object readValue(final JsonParser parser) throws IOException {
+      if (readAsTree || parser.currentToken() != JsonToken.START_OBJECT) {
+        return coerce(parser);
+      }
+
+      final Struct struct = new Struct(schema);
+      final byte[] matches = new byte[fields.size()];
+      JsonNode[] caseInsensitiveValues = null;
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        parser.nextToken();
+
+        byte match = EXACT_MATCH;
+        Integer index = fieldIndexes.get(name);
+        if (index == null) {
+          match = CASE_INSENSITIVE_MATCH;
+          index = fieldIndexes.get(name.toUpperCase());
+        }
+
+        if (index == null || matches[index] > match) {
+          parser.skipChildren();
+          continue;
+        }
+
+        matches[index] = match;
+
+        if (match == CASE_INSENSITIVE_MATCH) {
+          if (caseInsensitiveValues == null) {
+            caseInsensitiveValues = new JsonNode[fields.size()];
+          }
+          caseInsensitiveValues[index] = KsqlJsonDeserializer.MAPPER.readTree(parser);
+          continue;
+        }
+
+        final Object value;
+        try {
+          value = fieldReaders[index].read(parser);
+        } catch (final RuntimeException e) {
+          throw KsqlJsonDeserializer.withPath(pathParts[index], e);
+        }
+
+        struct.put(fields.get(index), value);
+      }
+
+      for (int i = 0; i != matches.length; ++i) {
+        if (matches[i] == UNMATCHED) {
+          struct.put(fields.get(i), null);
+        } else if (matches[i] == CASE_INSENSITIVE_MATCH) {
+          struct.put(fields.get(i), coerceField(i, caseInsensitiveValues[i]));
+        }
+      }
+
+      return struct;
+    }
+
+    private Object coerceField(final int index, final JsonNode value) {
+      try {
+        return fieldReaders[index].coerce(value);
+      } catch (final RuntimeException e) {
+        throw KsqlJsonDeserializer.withPath(pathParts[index], e);
+      }
+    }
+
+    /**
+     * A JSON field matching one field exactly may match another case insensitively, in which
+     * case it is the value of both. Such structs are rare, so are left to the tree.
+     */
+    private static boolean hasFieldsDifferingOnlyInCase(final Set<String> names) {
+      for (final String name : names) {
+        final String upper = name.toUpperCase();
+        if (!upper.equals(name) && names.contains(upper)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
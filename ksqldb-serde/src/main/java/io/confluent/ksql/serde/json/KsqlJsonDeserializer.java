@@ -15,6 +15,7 @@
 
 package io.confluent.ksql.serde.json;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -33,6 +34,7 @@ import io.confluent.ksql.schema.connect.SqlSchemaFormatter;
 import io.confluent.ksql.serde.SerdeUtils;
 import io.confluent.ksql.util.DecimalUtil;
 import io.confluent.ksql.util.KsqlException;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -54,11 +56,18 @@ import org.apache.kafka.connect.data.Struct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Deserializes JSON values of a {@link ConnectSchema}, coercing them to the schema's types.
+ *
+ * <p>By default values are read a token at a time by a {@link JsonStreamingReader} compiled for
+ * the schema. Otherwise each value is first read into a {@link JsonNode} tree, which is then
+ * walked to coerce its fields. Both give the same results and errors.
+ */
 public class KsqlJsonDeserializer<T> implements Deserializer<T> {
 
   private static final Logger LOG = LoggerFactory.getLogger(KsqlJsonDeserializer.class);
   private static final SqlSchemaFormatter FORMATTER = new SqlSchemaFormatter(word -> false);
-  private static final ObjectMapper MAPPER = new ObjectMapper()
+  static final ObjectMapper MAPPER = new ObjectMapper()
       .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
       .setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
 
@@ -81,16 +90,27 @@ public class KsqlJsonDeserializer<T> implements Deserializer<T> {
   private final ConnectSchema schema;
   private final boolean isJsonSchema;
   private final Class<T> targetType;
+  private final JsonStreamingReader streamingReader;
   private String target = "?";
 
   KsqlJsonDeserializer(
       final ConnectSchema schema,
       final boolean isJsonSchema,
       final Class<T> targetType
+  ) {
+    this(schema, isJsonSchema, targetType, true);
+  }
+
+  KsqlJsonDeserializer(
+      final ConnectSchema schema,
+      final boolean isJsonSchema,
+      final Class<T> targetType,
+      final boolean streaming
   ) {
     this.schema = validateSchema(Objects.requireNonNull(schema, "schema"));
     this.isJsonSchema = isJsonSchema;
     this.targetType = Objects.requireNonNull(targetType, "targetType");
+    this.streamingReader = streaming ? JsonStreamingReader.create(schema) : null;
 
     SerdeUtils.throwOnSchemaJavaTypeMismatch(schema, targetType);
   }
@@ -110,14 +130,9 @@ public class KsqlJsonDeserializer<T> implements Deserializer<T> {
       // don't use the JsonSchemaConverter to read this data because
       // we require that the MAPPER enables USE_BIG_DECIMAL_FOR_FLOATS,
       // which is not currently available in the standard converters
-      final JsonNode value = isJsonSchema
-          ? JsonSerdeUtils.readJsonSR(bytes, MAPPER, JsonNode.class)
-          : MAPPER.readTree(bytes);
-
-      final Object coerced = enforceFieldType(
-          "$",
-          new JsonValueContext(value, schema)
-      );
+      final Object coerced = streamingReader == null
+          ? readTree(bytes)
+          : readStreaming(bytes);
 
       if (LOG.isTraceEnabled()) {
         LOG.trace("Deserialized {}. topic:{}, row:{}", target, topic, coerced);
@@ -134,6 +149,45 @@ public class KsqlJsonDeserializer<T> implements Deserializer<T> {
     return MAPPER.reader();
   }
 
+  private Object readTree(final byte[] bytes) throws IOException {
+    final JsonNode value = isJsonSchema
+        ? JsonSerdeUtils.readJsonSR(bytes, MAPPER, JsonNode.class)
+        : MAPPER.readTree(bytes);
+
+    return enforceFieldType(
+        "$",
+        new JsonValueContext(value, schema)
+    );
+  }
+
+  private Object readStreaming(final byte[] bytes) throws IOException {
+    final int offset;
+    if (isJsonSchema) {
+      JsonSerdeUtils.throwOnMissingMagicByte(bytes);
+      offset = JsonSerdeUtils.SIZE_OF_SR_PREFIX;
+    } else {
+      offset = 0;
+    }
+
+    if (bytes.length <= offset) {
+      // Leave the handling of empty values to the tree, so it is unchanged:
+      return readTree(bytes);
+    }
+
+    try (JsonParser parser = MAPPER.getFactory()
+        .createParser(bytes, offset, bytes.length - offset)) {
+      if (parser.nextToken() == null) {
+        return readTree(bytes);
+      }
+
+      try {
+        return streamingReader.read(parser);
+      } catch (final RuntimeException e) {
+        throw withPath("$", e);
+      }
+    }
+  }
+
   private static Object enforceFieldType(
       final String pathPart,
       final JsonValueContext context
@@ -143,17 +197,40 @@ public class KsqlJsonDeserializer<T> implements Deserializer<T> {
     }
 
     try {
-      final Function<JsonValueContext, Object> handler = HANDLERS.getOrDefault(
-          context.schema.type(),
-          type -> {
-            throw new KsqlException("Type is not supported: " + type);
-          });
-      return handler.apply(context);
-    } catch (final CoercionException e) {
-      throw new CoercionException(e.getRawMessage(), pathPart + e.getPath(), e);
+      return coerce(context.val, context.schema);
     } catch (final Exception e) {
-      throw new CoercionException(e.getMessage(), pathPart, e);
+      throw withPath(pathPart, e);
+    }
+  }
+
+  /**
+   * Coerce a non-null value to a schema.
+   *
+   * @param value the value to coerce.
+   * @param schema the schema to coerce it to.
+   * @return the coerced value.
+   */
+  static Object coerce(final JsonNode value, final Schema schema) {
+    final Function<JsonValueContext, Object> handler = HANDLERS.getOrDefault(
+        schema.type(),
+        type -> {
+          throw new KsqlException("Type is not supported: " + type);
+        });
+    return handler.apply(new JsonValueContext(value, schema));
+  }
+
+  /**
+   * @param pathPart the part of the path to the value that failed to coerce.
+   * @param e the failure.
+   * @return the failure, with the part added to the start of its path.
+   */
+  static CoercionException withPath(final String pathPart, final Exception e) {
+    if (e instanceof CoercionException) {
+      final CoercionException coercionException = (CoercionException) e;
+      return new CoercionException(
+          coercionException.getRawMessage(), pathPart + coercionException.getPath(), e);
     }
+    return new CoercionException(e.getMessage(), pathPart, e);
   }
 
   private static String processString(final JsonValueContext context) {
@@ -300,7 +377,7 @@ public class KsqlJsonDeserializer<T> implements Deserializer<T> {
     }
   }
 
-  private static final class CoercionException extends RuntimeException {
+  static final class CoercionException extends RuntimeException {
 
     private final String path;
     private final String message;
@@ -64,7 +64,7 @@ class KsqlJsonSerdeFactory {
         isKey
     );
 
-    final Deserializer<T> deserializer = createDeserializer(schema, targetType);
+    final Deserializer<T> deserializer = createDeserializer(schema, ksqlConfig, targetType);
 
     // Sanity check:
     serializer.get();
@@ -96,12 +96,14 @@ class KsqlJsonSerdeFactory {
 
   private <T> Deserializer<T> createDeserializer(
       final ConnectSchema schema,
+      final KsqlConfig ksqlConfig,
       final Class<T> targetType
   ) {
     return new KsqlJsonDeserializer<>(
         schema,
         useSchemaRegistryFormat,
-        targetType
+        targetType,
+        ksqlConfig.getBoolean(KsqlConfig.KSQL_JSON_STREAMING_DESERIALIZER_ENABLED)
     );
   }
 
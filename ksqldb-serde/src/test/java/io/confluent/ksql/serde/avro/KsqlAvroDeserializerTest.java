@@ -66,10 +66,12 @@ import org.apache.kafka.connect.data.Struct;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.junit.MockitoJUnitRunner;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
 @SuppressWarnings("rawtypes")
-@RunWith(MockitoJUnitRunner.class)
+@RunWith(Parameterized.class)
 public class KsqlAvroDeserializerTest {
 
   private static final org.apache.avro.Schema BOOLEAN_AVRO_SCHEMA =
@@ -191,8 +193,16 @@ public class KsqlAvroDeserializerTest {
       .put("mapCol", Collections.singletonMap("key1", 10.0))
       .build();
 
-  private static final KsqlConfig KSQL_CONFIG = new KsqlConfig(Collections.singletonMap(
-      KsqlConfig.SCHEMA_REGISTRY_URL_PROPERTY, "fake-schema-registry-url"));
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> data() {
+    return Arrays.asList(new Object[][]{{"Direct", true}, {"Connect", false}});
+  }
+
+  @Parameter
+  public String suiteName;
+
+  @Parameter(1)
+  public boolean direct;
 
   private SchemaRegistryClient schemaRegistryClient;
   private AvroConverter converter;
@@ -343,6 +353,42 @@ public class KsqlAvroDeserializerTest {
     assertThat(result, is(expectedResult));
   }
 
+  @Test
+  public void shouldDeserializeIfThereAreRedundantNestedFields() {
+    // Given:
+    final org.apache.avro.Schema innerSchema = org.apache.avro.SchemaBuilder.record("inner")
+        .fields()
+        .name("a").type().optional().stringType()
+        .name("b").type().array().items().map().values().longType().noDefault()
+        .name("c").type().fixed("three").size(3).noDefault()
+        .endRecord();
+
+    final org.apache.avro.Schema avroSchema = org.apache.avro.SchemaBuilder.record("outer")
+        .fields()
+        .name("skipped").type(innerSchema).noDefault()
+        .name("field0").type().intType().noDefault()
+        .endRecord();
+
+    final GenericRecord inner = new GenericData.Record(innerSchema);
+    inner.put("a", "x");
+    inner.put("b", ImmutableList.of(ImmutableMap.of("k", 1L), ImmutableMap.of()));
+    inner.put("c", new GenericData.Fixed(innerSchema.getField("c").schema(), new byte[]{1, 2, 3}));
+
+    final GenericRecord record = new GenericData.Record(avroSchema);
+    record.put("skipped", inner);
+    record.put("field0", 10);
+
+    final Schema ksqlSchema = SchemaBuilder.struct()
+        .field("FIELD0", Schema.OPTIONAL_INT32_SCHEMA)
+        .build();
+
+    // When:
+    final Struct result = serializeDeserializeAvroRecord(ksqlSchema, SOME_TOPIC, record);
+
+    // Then:
+    assertThat(result, is(new Struct(ksqlSchema).put("FIELD0", 10)));
+  }
+
   @Test
   public void shouldDeserializeWithMissingFields() {
     // Given:
@@ -1524,7 +1570,10 @@ public class KsqlAvroDeserializerTest {
 
     final Deserializer<T> deserializer = serdeFactory.createSerde(
         schema,
-        KSQL_CONFIG,
+        new KsqlConfig(ImmutableMap.of(
+            KsqlConfig.SCHEMA_REGISTRY_URL_PROPERTY, "fake-schema-registry-url",
+            KsqlConfig.KSQL_AVRO_DIRECT_DESERIALIZER_ENABLED, direct
+        )),
         () -> schemaRegistryClient,
         targetType,
         false).deserializer();
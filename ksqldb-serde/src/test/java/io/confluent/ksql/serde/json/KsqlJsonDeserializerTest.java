@@ -105,7 +105,12 @@ public class KsqlJsonDeserializerTest {
 
   @Parameters(name = "{0}")
   public static Collection<Object[]> data() {
-    return Arrays.asList(new Object[][]{{"Plain JSON", false}, {"Magic byte prefixed", true}});
+    return Arrays.asList(new Object[][]{
+        {"Plain JSON", false, true},
+        {"Magic byte prefixed", true, true},
+        {"Plain JSON tree", false, false},
+        {"Magic byte prefixed tree", true, false}
+    });
   }
 
   @Parameter
@@ -114,6 +119,9 @@ public class KsqlJsonDeserializerTest {
   @Parameter(1)
   public boolean useSchemas;
 
+  @Parameter(2)
+  public boolean streaming;
+
   private Struct expectedOrder;
   private KsqlJsonDeserializer<Struct> deserializer;
 
@@ -224,6 +232,73 @@ public class KsqlJsonDeserializerTest {
     assertThat(result, is(expectedOrder));
   }
 
+  @Test
+  public void shouldDeserializeJsonObjectWithNestedRedundantFields() {
+    // Given:
+    final Map<String, Object> orderRow = new HashMap<>(AN_ORDER);
+    orderRow.put("extraObject", ImmutableMap.of("a", ImmutableList.of(1, true, "x")));
+    orderRow.put("extraArray", ImmutableList.of(ImmutableMap.of("b", 2.5)));
+
+    final byte[] bytes = serializeJson(orderRow);
+
+    // When:
+    final Struct result = deserializer.deserialize(SOME_TOPIC, bytes);
+
+    // Then:
+    assertThat(result, is(expectedOrder));
+  }
+
+  @Test
+  public void shouldPreferExactFieldNameOverCaseInsensitiveMatch() {
+    // Given:
+    final byte[] bytes = addMagic(("{"
+        + "\"ORDERTIME\": 1,"
+        + "\"ordertime\": 2"
+        + "}").getBytes(StandardCharsets.UTF_8));
+
+    // When:
+    final Struct result = deserializer.deserialize(SOME_TOPIC, bytes);
+
+    // Then:
+    assertThat(result.get(ORDERTIME), is(1L));
+  }
+
+  @Test
+  public void shouldIgnoreInvalidCaseInsensitiveMatchBeforeExactFieldName() {
+    // Given:
+    final byte[] bytes = addMagic(("{"
+        + "\"ordertime\": \"x\","
+        + "\"ORDERTIME\": 1"
+        + "}").getBytes(StandardCharsets.UTF_8));
+
+    // When:
+    final Struct result = deserializer.deserialize(SOME_TOPIC, bytes);
+
+    // Then:
+    assertThat(result.get(ORDERTIME), is(1L));
+  }
+
+  @Test
+  public void shouldDeserializeFieldsDifferingOnlyInCase() {
+    // Given:
+    final KsqlJsonDeserializer<Struct> deserializer = givenDeserializerForSchema(
+        SchemaBuilder.struct()
+            .field("f0", Schema.OPTIONAL_INT32_SCHEMA)
+            .field("F0", Schema.OPTIONAL_STRING_SCHEMA)
+            .build(),
+        Struct.class
+    );
+
+    final byte[] bytes = addMagic("{\"f0\": 1}".getBytes(StandardCharsets.UTF_8));
+
+    // When:
+    final Struct result = deserializer.deserialize(SOME_TOPIC, bytes);
+
+    // Then:
+    assertThat(result.get("f0"), is(1));
+    assertThat(result.get("F0"), is("1"));
+  }
+
   @Test
   public void shouldDeserializeJsonObjectWithMissingFields() {
     // Given:
@@ -910,7 +985,7 @@ public class KsqlJsonDeserializerTest {
       final Schema schema, 
       final Class<T> type
   ) {
-    return new KsqlJsonDeserializer<>((ConnectSchema) schema, useSchemas, type);
+    return new KsqlJsonDeserializer<>((ConnectSchema) schema, useSchemas, type, streaming);
   }
 
   private byte[] serializeJson(final Object expected) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.streams;
+
+import static java.util.Objects.requireNonNull;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.internals.InternalProcessorContext;
+import org.apache.kafka.streams.processor.internals.ProcessorNode;
+import org.apache.kafka.streams.processor.internals.ProcessorRecordContext;
+
+/**
+ * Lets a processor forward records outside the processing of any record, e.g. when one of its
+ * state stores is flushed before the task commits.
+ *
+ * <p>Kafka Streams only sets the current node and record context of a task while it processes
+ * a record or punctuates, and has no public API to set them at other times. The caching stores
+ * of KTables set them through the internal processor context, as this does. All use of the
+ * internal API is kept to this class.
+ */
+final class FlushForwarder {
+
+  // Raw, as the generics of these internal types differ between Kafka Streams versions:
+  @SuppressWarnings("rawtypes")
+  private final InternalProcessorContext context;
+  @SuppressWarnings("rawtypes")
+  private final ProcessorNode node;
+
+  /**
+   * @param context the context of the processor, passed to its {@code init} method.
+   */
+  FlushForwarder(final ProcessorContext context) {
+    this.context = (InternalProcessorContext) requireNonNull(context, "context");
+    this.node = this.context.currentNode();
+  }
+
+  /**
+   * Run {@code forwards} as the processor this was created for.
+   *
+   * <p>The record context has no timestamp, so {@code forwards} must forward each record with
+   * its own timestamp.
+   *
+   * @param forwards the code that forwards the records.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  void run(final Runnable forwards) {
+    final ProcessorNode previousNode = context.currentNode();
+    final ProcessorRecordContext previousContext = context.recordContext();
+    context.setCurrentNode(node);
+    context.setRecordContext(
+        new ProcessorRecordContext(-1L, -1L, -1, null, new RecordHeaders()));
+    try {
+      forwards.run();
+    } finally {
+      context.setRecordContext(previousContext);
+      context.setCurrentNode(previousNode);
+    }
+  }
+}
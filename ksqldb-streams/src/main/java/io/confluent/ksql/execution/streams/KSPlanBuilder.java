@@ -16,6 +16,7 @@
 package io.confluent.ksql.execution.streams;
 
 import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
+import io.confluent.ksql.execution.plan.ExecutionStep;
 import io.confluent.ksql.execution.plan.KGroupedStreamHolder;
 import io.confluent.ksql.execution.plan.KGroupedTableHolder;
 import io.confluent.ksql.execution.plan.KStreamHolder;
@@ -45,6 +46,7 @@ import io.confluent.ksql.execution.plan.TableTableJoin;
 import io.confluent.ksql.execution.plan.WindowedStreamSource;
 import io.confluent.ksql.execution.plan.WindowedTableSource;
 import io.confluent.ksql.execution.transform.sqlpredicate.SqlPredicate;
+import io.confluent.ksql.util.KsqlConfig;
 import java.util.Objects;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.kstream.Windowed;
@@ -114,7 +116,13 @@ public final class KSPlanBuilder implements PlanBuilder {
   @Override
   public KTableHolder<Struct> visitStreamAggregate(
       final StreamAggregate streamAggregate) {
-    final KGroupedStreamHolder source = streamAggregate.getSource().build(this);
+    final ExecutionStep<KGroupedStreamHolder> groupBy = streamAggregate.getSource();
+    final boolean combine = groupBy instanceof StreamGroupBy
+        && queryBuilder.getKsqlConfig().getBoolean(KsqlConfig.KSQL_QUERY_AGGREGATE_COMBINE_ENABLED)
+        && PartialAggregator.canCombine(streamAggregate.getAggregationFunctions());
+    final KGroupedStreamHolder source = combine
+        ? buildCombined((StreamGroupBy<?>) groupBy, streamAggregate)
+        : groupBy.build(this);
     return StreamAggregateBuilder.build(
         source,
         streamAggregate,
@@ -124,9 +132,45 @@ public final class KSPlanBuilder implements PlanBuilder {
     );
   }
 
+  private <K> KGroupedStreamHolder buildCombined(
+      final StreamGroupBy<K> streamGroupBy,
+      final StreamAggregate streamAggregate
+  ) {
+    final KStreamHolder<K> source = streamGroupBy.getSource().build(this);
+    return new StreamGroupByBuilder(
+        queryBuilder,
+        streamsFactories.getGroupedFactory()
+    ).buildCombined(
+        source,
+        streamGroupBy,
+        schema -> aggregateParamFactory.create(
+            schema,
+            streamAggregate.getNonAggregateColumns(),
+            queryBuilder.getFunctionRegistry(),
+            streamAggregate.getAggregationFunctions(),
+            false
+        )
+    );
+  }
+
   @Override
   public <K> KStreamHolder<K> visitStreamSelect(
       final StreamSelect<K> streamSelect) {
+    final boolean fused = queryBuilder.getKsqlConfig()
+        .getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED);
+    if (fused && streamSelect.getSource() instanceof StreamFilter) {
+      // Evaluate the filter and the projection in the same processor:
+      final StreamFilter<K> filter = (StreamFilter<K>) streamSelect.getSource();
+      final KStreamHolder<K> source = filter.getSource().build(this);
+      return StreamSelectBuilder.buildFiltered(
+          source,
+          filter,
+          streamSelect,
+          queryBuilder,
+          sqlPredicateFactory
+      );
+    }
+
     final KStreamHolder<K> source = streamSelect.getSource().build(this);
     return StreamSelectBuilder.build(source, streamSelect, queryBuilder);
   }
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.streams;
+
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.collect.ImmutableSet;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.expression.tree.FunctionCall;
+import io.confluent.ksql.name.FunctionName;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Aggregator;
+import org.apache.kafka.streams.kstream.Initializer;
+import org.apache.kafka.streams.kstream.Transformer;
+import org.apache.kafka.streams.processor.ProcessorContext;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.To;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+/**
+ * Combines the records of each new key of a stream into partial aggregates before the stream is
+ * repartitioned, so that only the partial aggregates are written to the repartition topic.
+ *
+ * <p>The partial aggregates are held in memory, in a {@link Buffer} store, and put out, and
+ * dropped, once the buffered records or the estimated size of the partial aggregates reach
+ * their limit, once the interval has passed, and whenever the task commits. The last is done
+ * when Kafka Streams flushes the store before committing, as the caching stores of KTables do,
+ * so no partial aggregate is lost if the task fails after committing the offsets of its records.
+ *
+ * <p>Nothing else holds the partial aggregates until they are put out, so the aggregator may
+ * update them in place.
+ *
+ * <p>Partial aggregates are merged in whatever order they arrive after the repartition, so only
+ * aggregate functions whose merge does not depend on that order can be combined: see
+ * {@link #canCombine}.
+ *
+ * @param <K> the type of the key of the stream, before it is re-keyed.
+ */
+final class PartialAggregator<K>
+    implements Transformer<K, GenericRow, KeyValue<Struct, GenericRow>> {
+
+  private static final int OBJECT_OVERHEAD = 16;
+
+  private static final Set<FunctionName> COMBINABLE_FUNCTIONS = ImmutableSet.of(
+      FunctionName.of("SUM"),
+      FunctionName.of("COUNT"),
+      FunctionName.of("MIN"),
+      FunctionName.of("MAX"),
+      FunctionName.of("AVG")
+  );
+
+  private final Function<GenericRow, Struct> keyMapper;
+  private final Initializer<GenericRow> initializer;
+  private final Aggregator<Struct, GenericRow, GenericRow> aggregator;
+  private final String storeName;
+  private final int maxRecords;
+  private final long maxBytes;
+  private final Duration interval;
+
+  private ProcessorContext context;
+  private FlushForwarder flushForwarder;
+  private Buffer buffer;
+
+  PartialAggregator(
+      final Function<GenericRow, Struct> keyMapper,
+      final Initializer<GenericRow> initializer,
+      final Aggregator<Struct, GenericRow, GenericRow> aggregator,
+      final String storeName,
+      final int maxRecords,
+      final long maxBytes,
+      final Duration interval
+  ) {
+    this.keyMapper = requireNonNull(keyMapper, "keyMapper");
+    this.initializer = requireNonNull(initializer, "initializer");
+    this.aggregator = requireNonNull(aggregator, "aggregator");
+    this.storeName = requireNonNull(storeName, "storeName");
+    this.maxRecords = maxRecords;
+    this.maxBytes = maxBytes;
+    this.interval = requireNonNull(interval, "interval");
+  }
+
+  /**
+   * @param name the name of the store.
+   * @return a builder of the store a partial aggregator of the given name buffers in.
+   */
+  static StoreBuilder<Buffer> bufferBuilder(final String name) {
+    return new BufferBuilder(name);
+  }
+
+  /**
+   * @param functions the aggregate functions of an aggregation.
+   * @return whether the records of the aggregation can be combined into partial aggregates, which
+   *         is only the case if every function merges partial aggregates independently of the
+   *         order they are merged in.
+   */
+  static boolean canCombine(final List<FunctionCall> functions) {
+    return functions.stream()
+        .map(FunctionCall::getName)
+        .allMatch(COMBINABLE_FUNCTIONS::contains);
+  }
+
+  @Override
+  public void init(final ProcessorContext processorContext) {
+    this.context = processorContext;
+    this.flushForwarder = new FlushForwarder(processorContext);
+    this.buffer = (Buffer) context.getStateStore(storeName);
+    buffer.onFlush(() -> flushForwarder.run(this::emit));
+    context.schedule(interval, PunctuationType.WALL_CLOCK_TIME, now -> emit());
+  }
+
+  @Override
+  public KeyValue<Struct, GenericRow> transform(final K key, final GenericRow row) {
+    final Struct newKey = keyMapper.apply(row);
+    if (newKey == null) {
+      // As when grouping, records with a null key are dropped:
+      return null;
+    }
+
+    final PartialAggregate partial = buffer.partials.get(newKey);
+    if (partial == null) {
+      final GenericRow aggregate = aggregator.apply(newKey, row, initializer.apply());
+      buffer.partials.put(newKey, new PartialAggregate(aggregate, context.timestamp()));
+      buffer.bytes += estimateSize(newKey) + estimateSize(aggregate);
+    } else {
+      partial.aggregate = aggregator.apply(newKey, row, partial.aggregate);
+      partial.timestamp = Math.max(partial.timestamp, context.timestamp());
+    }
+
+    if (++buffer.records >= maxRecords || buffer.bytes >= maxBytes) {
+      emit();
+    }
+    return null;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  private void emit() {
+    if (buffer.partials.isEmpty()) {
+      return;
+    }
+
+    final List<Map.Entry<Struct, PartialAggregate>> partials =
+        new ArrayList<>(buffer.partials.entrySet());
+    buffer.clear();
+
+    for (final Map.Entry<Struct, PartialAggregate> e : partials) {
+      context.forward(
+          e.getKey(),
+          e.getValue().aggregate,
+          To.all().withTimestamp(e.getValue().timestamp)
+      );
+    }
+  }
+
+  /**
+   * @return a rough estimate of the heap the value takes up.
+   */
+  private static long estimateSize(final Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof String) {
+      return OBJECT_OVERHEAD + 2L * ((String) value).length();
+    }
+    if (value instanceof BigDecimal) {
+      return OBJECT_OVERHEAD * 2 + ((BigDecimal) value).unscaledValue().bitLength() / 8;
+    }
+    if (value instanceof GenericRow) {
+      return estimateSize(((GenericRow) value).values());
+    }
+    if (value instanceof List) {
+      long size = OBJECT_OVERHEAD;
+      for (final Object element : (List<?>) value) {
+        size += estimateSize(element);
+      }
+      return size;
+    }
+    if (value instanceof Map) {
+      long size = OBJECT_OVERHEAD;
+      for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += OBJECT_OVERHEAD + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+    }
+    if (value instanceof Struct) {
+      final Struct struct = (Struct) value;
+      long size = OBJECT_OVERHEAD;
+      for (final Field field : struct.schema().fields()) {
+        size += estimateSize(struct.get(field));
+      }
+      return size;
+    }
+    return OBJECT_OVERHEAD;
+  }
+
+  private static final class PartialAggregate {
+
+    private GenericRow aggregate;
+    private long timestamp;
+
+    PartialAggregate(final GenericRow aggregate, final long timestamp) {
+      this.aggregate = aggregate;
+      this.timestamp = timestamp;
+    }
+  }
+
+  /**
+   * The in-memory store of the partial aggregates of a task. It is not logged, as every partial
+   * aggregate is put out before the task commits.
+   */
+  static final class Buffer implements StateStore {
+
+    private final String name;
+    private final Map<Struct, PartialAggregate> partials = new LinkedHashMap<>();
+    private Runnable flushListener = () -> { };
+    private int records;
+    private long bytes;
+    private boolean open;
+
+    private Buffer(final String name) {
+      this.name = requireNonNull(name, "name");
+    }
+
+    void onFlush(final Runnable listener) {
+      this.flushListener = requireNonNull(listener, "listener");
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @SuppressWarnings("deprecation") // Still the init every store must implement
+    @Override
+    public void init(final ProcessorContext context, final StateStore root) {
+      context.register(root, (key, value) -> { });
+      open = true;
+    }
+
+    @Override
+    public void flush() {
+      flushListener.run();
+    }
+
+    @Override
+    public void close() {
+      clear();
+      open = false;
+    }
+
+    @Override
+    public boolean persistent() {
+      return false;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    private void clear() {
+      partials.clear();
+      records = 0;
+      bytes = 0;
+    }
+  }
+
+  private static final class BufferBuilder implements StoreBuilder<Buffer> {
+
+    private final String name;
+
+    BufferBuilder(final String name) {
+      this.name = requireNonNull(name, "name");
+    }
+
+    @Override
+    public StoreBuilder<Buffer> withCachingEnabled() {
+      return this;
+    }
+
+    @Override
+    public StoreBuilder<Buffer> withCachingDisabled() {
+      return this;
+    }
+
+    @Override
+    public StoreBuilder<Buffer> withLoggingEnabled(final Map<String, String> config) {
+      return this;
+    }
+
+    @Override
+    public StoreBuilder<Buffer> withLoggingDisabled() {
+      return this;
+    }
+
+    @Override
+    public Buffer build() {
+      return new Buffer(name);
+    }
+
+    @Override
+    public Map<String, String> logConfig() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public boolean loggingEnabled() {
+      return false;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+  }
+}
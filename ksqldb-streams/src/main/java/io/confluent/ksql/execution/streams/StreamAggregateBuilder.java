@@ -26,6 +26,7 @@ import io.confluent.ksql.execution.plan.KTableHolder;
 import io.confluent.ksql.execution.plan.KeySerdeFactory;
 import io.confluent.ksql.execution.plan.StreamAggregate;
 import io.confluent.ksql.execution.plan.StreamWindowedAggregate;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.streams.transform.KsTransformer;
 import io.confluent.ksql.execution.transform.KsqlProcessingContext;
 import io.confluent.ksql.execution.transform.KsqlTransformer;
@@ -40,6 +41,7 @@ import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.PhysicalSchema;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.connect.data.Struct;
@@ -99,11 +101,13 @@ public final class StreamAggregateBuilder {
 
     final KudafAggregator<Struct> aggregator = aggregateParams.getAggregator();
 
-    final KTable<Struct, GenericRow> aggregated = groupedStream.getGroupedStream().aggregate(
-        aggregateParams.getInitializer(),
-        aggregateParams.getAggregator(),
-        materialized
-    );
+    final KTable<Struct, GenericRow> aggregated = groupedStream.hasPartialAggregates()
+        ? groupedStream.getGroupedStream().reduce(aggregator.getPartialMerger(), materialized)
+        : groupedStream.getGroupedStream().aggregate(
+            aggregateParams.getInitializer(),
+            aggregateParams.getAggregator(),
+            materialized
+        );
 
     final MaterializationInfo.Builder materializationBuilder =
         AggregateBuilderUtils.materializationInfoBuilder(
@@ -113,11 +117,13 @@ public final class StreamAggregateBuilder {
             resultSchema
         );
 
+    final QueryContext outputContext = AggregateBuilderUtils.outputContext(aggregate);
+    final Optional<StepProfile> profile = queryBuilder.getStepProfile(outputContext);
+
     final KTable<Struct, GenericRow> result = aggregated
         .transformValues(
-            () -> new KsTransformer<>(aggregator.getResultMapper()),
-            Named.as(StreamsUtil.buildOpName(
-                AggregateBuilderUtils.outputContext(aggregate)))
+            () -> new KsTransformer<>(aggregator.getResultMapper(), profile),
+            Named.as(StreamsUtil.buildOpName(outputContext))
         );
 
     return KTableHolder.materialized(
@@ -151,6 +157,10 @@ public final class StreamAggregateBuilder {
       final MaterializedFactory materializedFactory,
       final AggregateParamsFactory aggregateParamsFactory
   ) {
+    if (groupedStream.hasPartialAggregates()) {
+      throw new IllegalStateException("Windowed aggregates do not merge partial aggregates");
+    }
+
     final LogicalSchema sourceSchema = groupedStream.getSchema();
     final List<ColumnName> nonFuncColumns = aggregate.getNonAggregateColumns();
     final AggregateParams aggregateParams = aggregateParamsFactory.create(
@@ -177,9 +187,12 @@ public final class StreamAggregateBuilder {
 
     final KudafAggregator<Windowed<Struct>> aggregator = aggregateParams.getAggregator();
 
+    final QueryContext outputContext = AggregateBuilderUtils.outputContext(aggregate);
+    final Optional<StepProfile> profile = queryBuilder.getStepProfile(outputContext);
+
     KTable<Windowed<Struct>, GenericRow> reduced = aggregated.transformValues(
-        () -> new KsTransformer<>(aggregator.getResultMapper()),
-        Named.as(StreamsUtil.buildOpName(AggregateBuilderUtils.outputContext(aggregate)))
+        () -> new KsTransformer<>(aggregator.getResultMapper(), profile),
+        Named.as(StreamsUtil.buildOpName(outputContext))
     );
 
     final MaterializationInfo.Builder materializationBuilder =
@@ -19,6 +19,7 @@ import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
 import io.confluent.ksql.execution.plan.KStreamHolder;
 import io.confluent.ksql.execution.plan.StreamFilter;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.streams.transform.KsTransformer;
 import io.confluent.ksql.execution.transform.KsqlTransformer;
 import io.confluent.ksql.execution.transform.sqlpredicate.SqlPredicate;
@@ -57,9 +58,12 @@ public final class StreamFilterBuilder {
     final ProcessingLogger processingLogger = queryBuilder
         .getProcessingLogger(step.getProperties().getQueryContext());
 
+    final Optional<StepProfile> profile = queryBuilder
+        .getStepProfile(step.getProperties().getQueryContext());
+
     final KStream<K, GenericRow> filtered = stream.getStream()
         .flatTransformValues(
-            () -> toFlatMapTransformer(predicate.getTransformer(processingLogger)),
+            () -> toFlatMapTransformer(predicate.getTransformer(processingLogger), profile),
             Named.as(StreamsUtil.buildOpName(step.getProperties().getQueryContext()))
         );
 
@@ -69,15 +73,16 @@ public final class StreamFilterBuilder {
     );
   }
 
-  private static <K> ValueTransformerWithKey<
+  static <K> ValueTransformerWithKey<
       K,
       GenericRow,
       Iterable<GenericRow>
       > toFlatMapTransformer(
-          final KsqlTransformer<K, Optional<GenericRow>> transformer
+          final KsqlTransformer<K, Optional<GenericRow>> transformer,
+          final Optional<StepProfile> profile
   ) {
     final ValueTransformerWithKey<K, GenericRow, Optional<GenericRow>> delegate =
-        new KsTransformer<>(transformer);
+        new KsTransformer<>(transformer, profile);
 
     return new ValueTransformerWithKey<K, GenericRow, Iterable<GenericRow>>() {
       @Override
@@ -29,6 +29,7 @@ import io.confluent.ksql.execution.function.udtf.KudtfFlatMapper;
 import io.confluent.ksql.execution.function.udtf.TableFunctionApplier;
 import io.confluent.ksql.execution.plan.KStreamHolder;
 import io.confluent.ksql.execution.plan.StreamFlatMap;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.streams.transform.KsTransformer;
 import io.confluent.ksql.execution.util.ExpressionTypeManager;
 import io.confluent.ksql.function.FunctionRegistry;
@@ -41,6 +42,7 @@ import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.types.SqlType;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Named;
 
@@ -85,8 +87,13 @@ public final class StreamFlatMapBuilder {
     final ImmutableList<TableFunctionApplier> tableFunctionAppliers = tableFunctionAppliersBuilder
         .build();
 
+    final Optional<StepProfile> profile = queryBuilder.getStepProfile(queryContext);
+
     final KStream<K, GenericRow> mapped = stream.getStream().flatTransformValues(
-        () -> new KsTransformer<>(new KudtfFlatMapper<>(tableFunctionAppliers, processingLogger)),
+        () -> new KsTransformer<>(
+            new KudtfFlatMapper<>(tableFunctionAppliers, processingLogger),
+            profile
+        ),
         Named.as(StreamsUtil.buildOpName(queryContext))
     );
 
@@ -31,14 +31,21 @@ import io.confluent.ksql.execution.plan.StreamGroupByKey;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.PhysicalSchema;
+import io.confluent.ksql.util.KsqlConfig;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.kstream.Grouped;
 import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.Named;
 
 public final class StreamGroupByBuilder {
 
+  private static final String COMBINE_OP = "Combine";
+  private static final String BUFFER_OP = "Buffer";
+
   private final KsqlQueryBuilder queryBuilder;
   private final GroupedFactory groupedFactory;
   private final ParamsFactory paramsFactory;
@@ -82,36 +89,107 @@ public final class StreamGroupByBuilder {
       final KStreamHolder<K> stream,
       final StreamGroupBy<K> step
   ) {
-    final LogicalSchema sourceSchema = stream.getSchema();
     final QueryContext queryContext = step.getProperties().getQueryContext();
     final Formats formats = step.getInternalFormats();
+    final GroupByParams params = buildParams(stream, step);
 
-    final List<ExpressionMetadata> groupBy = CodeGenRunner.compileExpressions(
-        step.getGroupByExpressions().stream(),
-        "Group By",
-        sourceSchema,
-        queryBuilder.getKsqlConfig(),
-        queryBuilder.getFunctionRegistry()
+    final Grouped<Struct, GenericRow> grouped = buildGrouped(
+        formats,
+        params.getSchema(),
+        queryContext,
+        queryBuilder,
+        groupedFactory
     );
 
-    final ProcessingLogger logger = queryBuilder.getProcessingLogger(queryContext);
+    final KGroupedStream<Struct, GenericRow> groupedStream = stream.getStream()
+        .filter((k, v) -> v != null)
+        .groupBy((k, v) -> params.getMapper().apply(v), grouped);
 
-    final GroupByParams params = paramsFactory
-        .build(sourceSchema, groupBy, logger);
+    return KGroupedStreamHolder.of(groupedStream, params.getSchema());
+  }
+
+  /**
+   * Build the group by of a stream that is then aggregated, first combining the records of each
+   * new key into partial aggregates, so that only these are written to the repartition topic.
+   *
+   * @param stream the stream to group.
+   * @param step the group by step.
+   * @param aggregateParamsFactory creates the params of the aggregation from the schema of the
+   *     grouped stream.
+   * @return the grouped stream of partial aggregates.
+   */
+  public <K> KGroupedStreamHolder buildCombined(
+      final KStreamHolder<K> stream,
+      final StreamGroupBy<K> step,
+      final Function<LogicalSchema, AggregateParams> aggregateParamsFactory
+  ) {
+    final QueryContext queryContext = step.getProperties().getQueryContext();
+    final Formats formats = step.getInternalFormats();
+    final GroupByParams params = buildParams(stream, step);
+    final AggregateParams aggregateParams = aggregateParamsFactory.apply(params.getSchema());
 
+    // The repartition topic holds partial aggregates:
     final Grouped<Struct, GenericRow> grouped = buildGrouped(
         formats,
-        params.getSchema(),
+        aggregateParams.getAggregateSchema(),
         queryContext,
         queryBuilder,
         groupedFactory
     );
 
+    final QueryContext combineContext = QueryContext.Stacker.of(queryContext)
+        .push(COMBINE_OP)
+        .getQueryContext();
+    final String storeName = StreamsUtil.buildOpName(
+        QueryContext.Stacker.of(combineContext).push(BUFFER_OP).getQueryContext());
+    queryBuilder.getStreamsBuilder().addStateStore(PartialAggregator.bufferBuilder(storeName));
+
+    final KsqlConfig ksqlConfig = queryBuilder.getKsqlConfig();
+    final int maxRecords =
+        ksqlConfig.getInt(KsqlConfig.KSQL_QUERY_AGGREGATE_COMBINE_MAX_RECORDS);
+    final long maxBytes =
+        ksqlConfig.getLong(KsqlConfig.KSQL_QUERY_AGGREGATE_COMBINE_MAX_BYTES);
+    final Duration interval = Duration.ofMillis(
+        ksqlConfig.getLong(KsqlConfig.KSQL_QUERY_AGGREGATE_COMBINE_INTERVAL_MS));
+
     final KGroupedStream<Struct, GenericRow> groupedStream = stream.getStream()
         .filter((k, v) -> v != null)
-        .groupBy((k, v) -> params.getMapper().apply(v), grouped);
+        .<Struct, GenericRow>transform(
+            () -> new PartialAggregator<K>(
+                params.getMapper(),
+                aggregateParams.getInitializer(),
+                aggregateParams.<Struct>getAggregator().getInPlaceAggregator(),
+                storeName,
+                maxRecords,
+                maxBytes,
+                interval
+            ),
+            Named.as(StreamsUtil.buildOpName(combineContext)),
+            storeName
+        )
+        .groupByKey(grouped);
+
+    return KGroupedStreamHolder.ofPartialAggregates(groupedStream, params.getSchema());
+  }
 
-    return KGroupedStreamHolder.of(groupedStream, params.getSchema());
+  private <K> GroupByParams buildParams(
+      final KStreamHolder<K> stream,
+      final StreamGroupBy<K> step
+  ) {
+    final LogicalSchema sourceSchema = stream.getSchema();
+    final QueryContext queryContext = step.getProperties().getQueryContext();
+
+    final List<ExpressionMetadata> groupBy = CodeGenRunner.compileExpressions(
+        step.getGroupByExpressions().stream(),
+        "Group By",
+        sourceSchema,
+        queryBuilder.getKsqlConfig(),
+        queryBuilder.getFunctionRegistry()
+    );
+
+    final ProcessingLogger logger = queryBuilder.getProcessingLogger(queryContext);
+
+    return paramsFactory.build(sourceSchema, groupBy, logger);
   }
 
   private static Grouped<Struct, GenericRow> buildGrouped(
@@ -15,15 +15,21 @@
 
 package io.confluent.ksql.execution.streams;
 
+import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
 import io.confluent.ksql.execution.context.QueryContext;
 import io.confluent.ksql.execution.plan.KStreamHolder;
+import io.confluent.ksql.execution.plan.StreamFilter;
 import io.confluent.ksql.execution.plan.StreamSelect;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.streams.transform.KsTransformer;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
 import io.confluent.ksql.execution.transform.select.SelectValueMapper;
 import io.confluent.ksql.execution.transform.select.Selection;
+import io.confluent.ksql.execution.transform.sqlpredicate.SqlPredicate;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
+import java.util.Optional;
 import org.apache.kafka.streams.kstream.Named;
 
 public final class StreamSelectBuilder {
@@ -51,15 +57,86 @@ public final class StreamSelectBuilder {
 
     final ProcessingLogger logger = queryBuilder.getProcessingLogger(queryContext);
 
+    final Optional<StepProfile> profile = queryBuilder.getStepProfile(queryContext);
+
     final Named selectName =
         Named.as(StreamsUtil.buildOpName(queryContext));
 
     return stream.withStream(
         stream.getStream().transformValues(
-            () -> new KsTransformer<>(selectMapper.getTransformer(logger)),
+            () -> new KsTransformer<>(selectMapper.getTransformer(logger), profile),
+            selectName
+        ),
+        selection.getSchema()
+    );
+  }
+
+  /**
+   * Build a select whose source is a filter as a single processor, which evaluates the filter
+   * and then the select on each row, rather than as one processor for each step.
+   *
+   * @param stream the source of the filter.
+   * @param filter the filter step.
+   * @param step the select step, whose source is {@code filter}.
+   * @param queryBuilder the query builder.
+   * @param predicateFactory the factory of the filter's predicate.
+   * @return the filtered and selected stream.
+   */
+  static <K> KStreamHolder<K> buildFiltered(
+      final KStreamHolder<K> stream,
+      final StreamFilter<K> filter,
+      final StreamSelect<K> step,
+      final KsqlQueryBuilder queryBuilder,
+      final SqlPredicateFactory predicateFactory
+  ) {
+    final QueryContext queryContext = step.getProperties().getQueryContext();
+
+    final SqlPredicate predicate = predicateFactory.create(
+        filter.getFilterExpression(),
+        stream.getSchema(),
+        queryBuilder.getKsqlConfig(),
+        queryBuilder.getFunctionRegistry()
+    );
+
+    final Selection<K> selection = Selection.of(
+        stream.getSchema(),
+        step.getKeyColumnNames(),
+        step.getSelectExpressions(),
+        queryBuilder.getKsqlConfig(),
+        queryBuilder.getFunctionRegistry()
+    );
+
+    final SelectValueMapper<K> selectMapper = selection.getMapper();
+
+    final ProcessingLogger filterLogger =
+        queryBuilder.getProcessingLogger(filter.getProperties().getQueryContext());
+    final ProcessingLogger selectLogger = queryBuilder.getProcessingLogger(queryContext);
+
+    final Optional<StepProfile> profile = queryBuilder.getStepProfile(queryContext);
+
+    final Named selectName =
+        Named.as(StreamsUtil.buildOpName(queryContext));
+
+    return stream.withStream(
+        stream.getStream().flatTransformValues(
+            () -> StreamFilterBuilder.toFlatMapTransformer(
+                filterThenSelect(
+                    predicate.getTransformer(filterLogger),
+                    selectMapper.getTransformer(selectLogger)
+                ),
+                profile
+            ),
             selectName
         ),
         selection.getSchema()
     );
   }
+
+  private static <K> KsqlTransformer<K, Optional<GenericRow>> filterThenSelect(
+      final KsqlTransformer<K, Optional<GenericRow>> filter,
+      final KsqlTransformer<K, GenericRow> select
+  ) {
+    return (key, value, ctx) -> filter.transform(key, value, ctx)
+        .map(row -> select.transform(key, row, ctx));
+  }
 }
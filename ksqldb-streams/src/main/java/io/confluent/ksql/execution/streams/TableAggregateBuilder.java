@@ -17,15 +17,18 @@ package io.confluent.ksql.execution.streams;
 
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
+import io.confluent.ksql.execution.context.QueryContext;
 import io.confluent.ksql.execution.materialization.MaterializationInfo;
 import io.confluent.ksql.execution.plan.KGroupedTableHolder;
 import io.confluent.ksql.execution.plan.KTableHolder;
 import io.confluent.ksql.execution.plan.KeySerdeFactory;
 import io.confluent.ksql.execution.plan.TableAggregate;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.streams.transform.KsTransformer;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import java.util.List;
+import java.util.Optional;
 import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.kstream.KTable;
@@ -76,14 +79,19 @@ public final class TableAggregateBuilder {
             queryBuilder,
             materializedFactory
         );
+    final QueryContext outputContext = AggregateBuilderUtils.outputContext(aggregate);
+    final Optional<StepProfile> profile = queryBuilder.getStepProfile(outputContext);
     final KTable<Struct, GenericRow> aggregated = groupedTable.getGroupedTable().aggregate(
         aggregateParams.getInitializer(),
         aggregateParams.getAggregator(),
         aggregateParams.getUndoAggregator().get(),
         materialized
     ).transformValues(
-        () -> new KsTransformer<>(aggregateParams.<Struct>getAggregator().getResultMapper()),
-        Named.as(StreamsUtil.buildOpName(AggregateBuilderUtils.outputContext(aggregate)))
+        () -> new KsTransformer<>(
+            aggregateParams.<Struct>getAggregator().getResultMapper(),
+            profile
+        ),
+        Named.as(StreamsUtil.buildOpName(outputContext))
     );
 
     final MaterializationInfo.Builder materializationBuilder =
@@ -20,6 +20,7 @@ import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
 import io.confluent.ksql.execution.context.QueryContext.Stacker;
 import io.confluent.ksql.execution.plan.KTableHolder;
 import io.confluent.ksql.execution.plan.TableFilter;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.streams.transform.KsTransformer;
 import io.confluent.ksql.execution.transform.sqlpredicate.SqlPredicate;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
@@ -59,10 +60,13 @@ public final class TableFilterBuilder {
     final ProcessingLogger processingLogger = queryBuilder
         .getProcessingLogger(step.getProperties().getQueryContext());
 
+    final Optional<StepProfile> profile = queryBuilder
+        .getStepProfile(step.getProperties().getQueryContext());
+
     final Stacker stacker = Stacker.of(step.getProperties().getQueryContext());
     final KTable<K, GenericRow> filtered = table.getTable()
         .transformValues(
-            () -> new KsTransformer<>(predicate.getTransformer(processingLogger)),
+            () -> new KsTransformer<>(predicate.getTransformer(processingLogger), profile),
             Named.as(StreamsUtil.buildOpName(stacker.push(PRE_PROCESS_OP).getQueryContext()))
         )
         .filter(
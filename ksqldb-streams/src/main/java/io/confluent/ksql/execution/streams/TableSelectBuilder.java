@@ -20,12 +20,14 @@ import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
 import io.confluent.ksql.execution.context.QueryContext;
 import io.confluent.ksql.execution.plan.KTableHolder;
 import io.confluent.ksql.execution.plan.TableSelect;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.streams.transform.KsTransformer;
 import io.confluent.ksql.execution.transform.KsqlTransformer;
 import io.confluent.ksql.execution.transform.select.SelectValueMapper;
 import io.confluent.ksql.execution.transform.select.Selection;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
+import java.util.Optional;
 import org.apache.kafka.streams.kstream.Named;
 
 public final class TableSelectBuilder {
@@ -54,12 +56,14 @@ public final class TableSelectBuilder {
 
     final ProcessingLogger logger = queryBuilder.getProcessingLogger(queryContext);
 
+    final Optional<StepProfile> profile = queryBuilder.getStepProfile(queryContext);
+
     final Named selectName = Named.as(StreamsUtil.buildOpName(queryContext));
 
     return table
         .withTable(
             table.getTable().transformValues(
-                () -> new KsTransformer<>(selectMapper.getTransformer(logger)),
+                () -> new KsTransformer<>(selectMapper.getTransformer(logger), profile),
                 selectName
             ),
             selection.getSchema()
@@ -28,6 +28,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Struct;
 
 /**
@@ -109,13 +110,11 @@ class KsqlMaterialization implements Materialization {
       final GenericRow value,
       final long rowTime
   ) {
+    final KsqlProcessingContext context = new PullProcessingContext(rowTime);
+
     GenericRow intermediate = value;
     for (final Transform transform : transforms) {
-      final Optional<GenericRow> result = transform.apply(
-          key,
-          intermediate,
-          new PullProcessingContext(rowTime)
-      );
+      final Optional<GenericRow> result = transform.apply(key, intermediate, context);
 
       if (!result.isPresent()) {
         return Optional.empty();
@@ -140,6 +139,40 @@ class KsqlMaterialization implements Materialization {
               .map(v -> row.withValue(v, schema()))
           );
     }
+
+    @Override
+    public List<Row> get(final List<Struct> keys, final int partition) {
+      final LogicalSchema schema = schema();
+      final Builder<Row> builder = ImmutableList.builder();
+
+      for (final Row row : table.get(keys, partition)) {
+        filterAndTransform(row.key(), row.value(), row.rowTime())
+            .ifPresent(v -> builder.add(row.withValue(v, schema)));
+      }
+
+      return builder.build();
+    }
+
+    @Override
+    public boolean scan(final int partition, final Predicate<? super Row> consumer) {
+      return table.scan(partition, row -> transformAndConsume(row, consumer));
+    }
+
+    @Override
+    public boolean scan(
+        final int partition,
+        final Struct from,
+        final Struct to,
+        final Predicate<? super Row> consumer
+    ) {
+      return table.scan(partition, from, to, row -> transformAndConsume(row, consumer));
+    }
+
+    private boolean transformAndConsume(final Row row, final Predicate<? super Row> consumer) {
+      final Optional<GenericRow> value = filterAndTransform(row.key(), row.value(), row.rowTime());
+
+      return !value.isPresent() || consumer.test(row.withValue(value.get(), schema()));
+    }
   }
 
   final class KsqlMaterializedWindowedTable implements MaterializedWindowedTable {
@@ -168,6 +201,39 @@ class KsqlMaterialization implements Materialization {
 
       return builder.build();
     }
+
+    @Override
+    public List<WindowedRow> get(
+        final List<Struct> keys,
+        final int partition,
+        final Range<Instant> windowStart,
+        final Range<Instant> windowEnd
+    ) {
+      final LogicalSchema schema = schema();
+      final Builder<WindowedRow> builder = ImmutableList.builder();
+
+      for (final WindowedRow row : table.get(keys, partition, windowStart, windowEnd)) {
+        filterAndTransform(row.windowedKey(), row.value(), row.rowTime())
+            .ifPresent(v -> builder.add(row.withValue(v, schema)));
+      }
+
+      return builder.build();
+    }
+
+    @Override
+    public boolean forEach(
+        final Struct key,
+        final int partition,
+        final Range<Instant> windowStart,
+        final Range<Instant> windowEnd,
+        final Predicate<? super WindowedRow> consumer
+    ) {
+      return table.forEach(key, partition, windowStart, windowEnd, row -> {
+        final Optional<GenericRow> value =
+            filterAndTransform(row.windowedKey(), row.value(), row.rowTime());
+
+        return !value.isPresent() || consumer.test(row.withValue(value.get(), schema()));
+      });
+    }
   }
 }
-
@@ -46,6 +46,17 @@ public interface Locator {
       RoutingFilterFactory routingFilterFactory
   );
 
+  /**
+   * Locate which KSQL nodes store each partition of the table, e.g. for queries that scan the
+   * table rather than looking up keys.
+   *
+   * @return the partitions, without keys, and the nodes that can potentially serve each.
+   */
+  List<KsqlPartitionLocation> locateAll(
+      RoutingOptions routingOptions,
+      RoutingFilterFactory routingFilterFactory
+  );
+
   interface KsqlNode {
 
     /**
@@ -15,7 +15,10 @@
 
 package io.confluent.ksql.execution.streams.materialization;
 
+import com.google.common.collect.ImmutableList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Struct;
 
 /**
@@ -31,4 +34,50 @@ public interface MaterializedTable {
    * @return the value, if one is exists.
    */
   Optional<Row> get(Struct key, int partition);
+
+  /**
+   * Get the values, where they exist, of the supplied {@code keys}.
+   *
+   * <p>Implementations may read the keys in any order, e.g. to make better use of the underlying
+   * store, but the returned rows are in the order of the supplied keys.
+   *
+   * @param keys the keys to look up.
+   * @param partition partition to limit the get to
+   * @return the values of the keys that exist.
+   */
+  default List<Row> get(final List<Struct> keys, final int partition) {
+    final ImmutableList.Builder<Row> builder = ImmutableList.builder();
+    for (final Struct key : keys) {
+      get(key, partition).ifPresent(builder::add);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Scan all the rows in the supplied {@code partition}, in the order of the store.
+   *
+   * <p>Rows are passed to the {@code consumer} as they are read, so the whole partition is never
+   * held in memory. The scan stops as soon as the consumer returns {@code false}, e.g. once a
+   * query's {@code LIMIT} is reached.
+   *
+   * @param partition partition to scan.
+   * @param consumer called with each row, returns {@code false} to stop the scan.
+   * @return {@code false} if the scan was stopped by the consumer.
+   */
+  boolean scan(int partition, Predicate<? super Row> consumer);
+
+  /**
+   * Scan the rows in the supplied {@code partition} whose keys are between {@code from} and
+   * {@code to}, inclusive, in the order of the store.
+   *
+   * <p>The range is in terms of the store's order, i.e. the order of the serialized keys.
+   *
+   * @param partition partition to scan.
+   * @param from the lowest key to return.
+   * @param to the highest key to return.
+   * @param consumer called with each row, returns {@code false} to stop the scan.
+   * @return {@code false} if the scan was stopped by the consumer.
+   * @see #scan(int, Predicate)
+   */
+  boolean scan(int partition, Struct from, Struct to, Predicate<? super Row> consumer);
 }
@@ -15,9 +15,11 @@
 
 package io.confluent.ksql.execution.streams.materialization;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Range;
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Struct;
 
 /**
@@ -37,4 +39,59 @@ public interface MaterializedWindowedTable {
    */
   List<WindowedRow> get(Struct key, int partition, Range<Instant> windowStart,
       Range<Instant> windowEnd);
+
+  /**
+   * Get the values in table of the supplied {@code keys}, where the window start time is within
+   * the supplied {@code lower} and {@code upper} bounds.
+   *
+   * <p>Implementations may read the keys in any order, e.g. to make better use of the underlying
+   * store, but the returned rows are grouped by key, in the order of the supplied keys.
+   *
+   * @param keys the keys to look up.
+   * @param partition partition to limit the get to
+   * @param windowStart the bounds on the window's start time.
+   * @param windowEnd the bounds on the window's end time.
+   * @return the rows for the keys that exist within the range.
+   */
+  default List<WindowedRow> get(
+      final List<Struct> keys,
+      final int partition,
+      final Range<Instant> windowStart,
+      final Range<Instant> windowEnd
+  ) {
+    final ImmutableList.Builder<WindowedRow> builder = ImmutableList.builder();
+    for (final Struct key : keys) {
+      builder.addAll(get(key, partition, windowStart, windowEnd));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Pass the values in table of the supplied {@code key}, where the window start time is within
+   * the supplied {@code lower} and {@code upper} bounds, to {@code consumer} as they are read.
+   *
+   * <p>Unlike {@link #get}, this does not hold all the rows in memory at once, and can stop part
+   * way through.
+   *
+   * @param key the key to look up.
+   * @param partition partition to limit the get to
+   * @param windowStart the bounds on the window's start time.
+   * @param windowEnd the bounds on the window's end time.
+   * @param consumer called with each row, returning {@code false} to stop reading further rows.
+   * @return {@code false} if {@code consumer} stopped the read, {@code true} otherwise.
+   */
+  default boolean forEach(
+      final Struct key,
+      final int partition,
+      final Range<Instant> windowStart,
+      final Range<Instant> windowEnd,
+      final Predicate<? super WindowedRow> consumer
+  ) {
+    for (final WindowedRow row : get(key, partition, windowStart, windowEnd)) {
+      if (!consumer.test(row)) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -36,12 +36,14 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.processor.StreamPartitioner;
 import org.apache.kafka.streams.state.HostInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -124,6 +126,46 @@ final class KsLocator implements Locator {
         .collect(ImmutableList.toImmutableList());
   }
 
+  @Override
+  public List<KsqlPartitionLocation> locateAll(
+      final RoutingOptions routingOptions,
+      final RoutingFilterFactory routingFilterFactory
+  ) {
+    // Kafka Streams only exposes the hosts of a partition via the partition of a key, so pass the
+    // partition itself as the key, and have the partitioner return it:
+    final AtomicInteger numPartitions = new AtomicInteger();
+    final StreamPartitioner<Integer, Object> partitioner = (topic, partition, value, num) -> {
+      numPartitions.set(num);
+      return partition;
+    };
+
+    final ImmutableList.Builder<KsqlPartitionLocation> locations = ImmutableList.builder();
+    final Set<Integer> filterPartitions = routingOptions.getPartitions();
+    int partition = 0;
+    do {
+      final KeyQueryMetadata metadata = kafkaStreams
+          .queryMetadataForKey(stateStoreName, partition, partitioner);
+
+      // Fail fast if Streams not ready. Let client handle it
+      if (metadata == KeyQueryMetadata.NOT_AVAILABLE) {
+        LOG.debug("KeyQueryMetadata not available for state store {} and partition {}",
+            stateStoreName, partition);
+        throw new MaterializationException(String.format(
+            "KeyQueryMetadata not available for state store %s and partition %d",
+            stateStoreName, partition));
+      }
+
+      if (filterPartitions.isEmpty() || filterPartitions.contains(partition)) {
+        final List<KsqlNode> filteredHosts = getFilteredHosts(routingOptions,
+            routingFilterFactory, metadata.activeHost(), metadata.standbyHosts(), partition);
+
+        locations.add(new PartitionLocation(Optional.empty(), partition, filteredHosts));
+      }
+    } while (++partition < numPartitions.get());
+
+    return locations.build();
+  }
+
   private List<KsqlNode> getFilteredHosts(
       final RoutingOptions routingOptions,
       final RoutingFilterFactory routingFilterFactory,
@@ -64,7 +64,7 @@ public final class KsMaterializationFactory {
    *
    * @param stateStoreName the name of the state store in the Kafka Streams instance.
    * @param kafkaStreams the Kafka Streams instance.
-   * @param keySerializer the key serializer - used purely for location lookups.
+   * @param keySerializer the key serializer - used for location lookups and ordering key reads.
    * @param windowInfo the window type of the key.
    * @param streamsProperties the Kafka Streams properties.
    * @return the new instance if the streams props support IQ.
@@ -98,6 +98,7 @@ public final class KsMaterializationFactory {
         stateStoreName,
         kafkaStreams,
         schema,
+        keySerializer,
         ksqlConfig
     );
 
@@ -140,6 +141,7 @@ public final class KsMaterializationFactory {
         String stateStoreName,
         KafkaStreams kafkaStreams,
         LogicalSchema schema,
+        Serializer<Struct> keySerializer,
         KsqlConfig ksqlConfig
     );
   }
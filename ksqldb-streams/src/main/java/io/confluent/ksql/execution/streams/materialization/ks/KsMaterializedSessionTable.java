@@ -24,8 +24,11 @@ import io.confluent.ksql.execution.streams.materialization.MaterializedWindowedT
 import io.confluent.ksql.execution.streams.materialization.WindowedRow;
 import io.confluent.ksql.execution.streams.materialization.ks.SessionStoreCacheBypass.SessionStoreCacheBypassFetcher;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.kstream.Window;
@@ -54,26 +57,71 @@ class KsMaterializedSessionTable implements MaterializedWindowedTable {
       final int partition,
       final Range<Instant> windowStart,
       final Range<Instant> windowEnd
+  ) {
+    final Builder<WindowedRow> builder = ImmutableList.builder();
+
+    forEach(key, partition, windowStart, windowEnd, row -> {
+      builder.add(row);
+      return true;
+    });
+
+    return builder.build();
+  }
+
+  @Override
+  public boolean forEach(
+      final Struct key,
+      final int partition,
+      final Range<Instant> windowStart,
+      final Range<Instant> windowEnd,
+      final Predicate<? super WindowedRow> consumer
   ) {
     try {
       final ReadOnlySessionStore<Struct, GenericRow> store = stateStore
           .store(QueryableStoreTypes.sessionStore(), partition);
 
-      return findSession(store, key, windowStart, windowEnd);
+      return findSessions(store, key, windowStart, windowEnd, consumer);
     } catch (final Exception e) {
       throw new MaterializationException("Failed to get value from materialized table", e);
     }
   }
 
-  private List<WindowedRow> findSession(
-      final ReadOnlySessionStore<Struct, GenericRow> store,
-      final Struct key,
+  @Override
+  public List<WindowedRow> get(
+      final List<Struct> keys,
+      final int partition,
       final Range<Instant> windowStart,
       final Range<Instant> windowEnd
   ) {
-    try (KeyValueIterator<Windowed<Struct>, GenericRow> it = cacheBypassFetcher.fetch(store, key)) {
+    try {
+      final ReadOnlySessionStore<Struct, GenericRow> store = stateStore
+          .store(QueryableStoreTypes.sessionStore(), partition);
+
+      final List<List<WindowedRow>> rowsByKey = new ArrayList<>(
+          Collections.nCopies(keys.size(), ImmutableList.<WindowedRow>of()));
+
+      for (final int idx : stateStore.storeOrder(keys)) {
+        final List<WindowedRow> rows = new ArrayList<>();
+        findSessions(store, keys.get(idx), windowStart, windowEnd, rows::add);
+        rowsByKey.set(idx, rows);
+      }
 
       final Builder<WindowedRow> builder = ImmutableList.builder();
+      rowsByKey.forEach(builder::addAll);
+      return builder.build();
+    } catch (final Exception e) {
+      throw new MaterializationException("Failed to get value from materialized table", e);
+    }
+  }
+
+  private boolean findSessions(
+      final ReadOnlySessionStore<Struct, GenericRow> store,
+      final Struct key,
+      final Range<Instant> windowStart,
+      final Range<Instant> windowEnd,
+      final Predicate<? super WindowedRow> consumer
+  ) {
+    try (KeyValueIterator<Windowed<Struct>, GenericRow> it = cacheBypassFetcher.fetch(store, key)) {
 
       while (it.hasNext()) {
         final KeyValue<Windowed<Struct>, GenericRow> next = it.next();
@@ -96,10 +144,12 @@ class KsMaterializedSessionTable implements MaterializedWindowedTable {
             rowTime
         );
 
-        builder.add(row);
+        if (!consumer.test(row)) {
+          return false;
+        }
       }
 
-      return builder.build();
+      return true;
     }
   }
 }
@@ -15,13 +15,18 @@
 
 package io.confluent.ksql.execution.streams.materialization.ks;
 
+import com.google.common.collect.ImmutableList;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.execution.streams.materialization.MaterializationException;
 import io.confluent.ksql.execution.streams.materialization.MaterializedTable;
 import io.confluent.ksql.execution.streams.materialization.Row;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.QueryableStoreTypes;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 import org.apache.kafka.streams.state.ValueAndTimestamp;
@@ -52,4 +57,86 @@ class KsMaterializedTable implements MaterializedTable {
       throw new MaterializationException("Failed to get value from materialized table", e);
     }
   }
+
+  @Override
+  public List<Row> get(
+      final List<Struct> keys,
+      final int partition
+  ) {
+    try {
+      final ReadOnlyKeyValueStore<Struct, ValueAndTimestamp<GenericRow>> store = stateStore
+          .store(QueryableStoreTypes.timestampedKeyValueStore(), partition);
+
+      final Row[] rows = new Row[keys.size()];
+      for (final int idx : stateStore.storeOrder(keys)) {
+        final Struct key = keys.get(idx);
+        final ValueAndTimestamp<GenericRow> value = store.get(key);
+        if (value != null) {
+          rows[idx] = Row.of(stateStore.schema(), key, value.value(), value.timestamp());
+        }
+      }
+
+      final ImmutableList.Builder<Row> builder = ImmutableList.builder();
+      for (final Row row : rows) {
+        if (row != null) {
+          builder.add(row);
+        }
+      }
+      return builder.build();
+    } catch (final Exception e) {
+      throw new MaterializationException("Failed to get value from materialized table", e);
+    }
+  }
+
+  @Override
+  public boolean scan(
+      final int partition,
+      final Predicate<? super Row> consumer
+  ) {
+    try {
+      final ReadOnlyKeyValueStore<Struct, ValueAndTimestamp<GenericRow>> store = stateStore
+          .store(QueryableStoreTypes.timestampedKeyValueStore(), partition);
+
+      try (KeyValueIterator<Struct, ValueAndTimestamp<GenericRow>> it = store.all()) {
+        return consume(it, consumer);
+      }
+    } catch (final Exception e) {
+      throw new MaterializationException("Failed to scan materialized table", e);
+    }
+  }
+
+  @Override
+  public boolean scan(
+      final int partition,
+      final Struct from,
+      final Struct to,
+      final Predicate<? super Row> consumer
+  ) {
+    try {
+      final ReadOnlyKeyValueStore<Struct, ValueAndTimestamp<GenericRow>> store = stateStore
+          .store(QueryableStoreTypes.timestampedKeyValueStore(), partition);
+
+      try (KeyValueIterator<Struct, ValueAndTimestamp<GenericRow>> it = store.range(from, to)) {
+        return consume(it, consumer);
+      }
+    } catch (final Exception e) {
+      throw new MaterializationException("Failed to scan materialized table", e);
+    }
+  }
+
+  private boolean consume(
+      final KeyValueIterator<Struct, ValueAndTimestamp<GenericRow>> it,
+      final Predicate<? super Row> consumer
+  ) {
+    while (it.hasNext()) {
+      final KeyValue<Struct, ValueAndTimestamp<GenericRow>> next = it.next();
+      final Row row = Row.of(
+          stateStore.schema(), next.key, next.value.value(), next.value.timestamp());
+
+      if (!consumer.test(row)) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
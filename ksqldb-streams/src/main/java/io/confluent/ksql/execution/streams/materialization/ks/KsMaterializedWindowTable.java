@@ -25,8 +25,11 @@ import io.confluent.ksql.execution.streams.materialization.WindowedRow;
 import io.confluent.ksql.execution.streams.materialization.ks.WindowStoreCacheBypass.WindowStoreCacheBypassFetcher;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.kstream.Windowed;
@@ -58,50 +61,106 @@ class KsMaterializedWindowTable implements MaterializedWindowedTable {
       final int partition,
       final Range<Instant> windowStartBounds,
       final Range<Instant> windowEndBounds
+  ) {
+    final Builder<WindowedRow> builder = ImmutableList.builder();
+
+    forEach(key, partition, windowStartBounds, windowEndBounds, row -> {
+      builder.add(row);
+      return true;
+    });
+
+    return builder.build();
+  }
+
+  @Override
+  public boolean forEach(
+      final Struct key,
+      final int partition,
+      final Range<Instant> windowStartBounds,
+      final Range<Instant> windowEndBounds,
+      final Predicate<? super WindowedRow> consumer
   ) {
     try {
       final ReadOnlyWindowStore<Struct, ValueAndTimestamp<GenericRow>> store = stateStore
           .store(QueryableStoreTypes.timestampedWindowStore(), partition);
 
-      final Instant lower = calculateLowerBound(windowStartBounds, windowEndBounds);
+      return findWindows(store, key, windowStartBounds, windowEndBounds, consumer);
+    } catch (final Exception e) {
+      throw new MaterializationException("Failed to get value from materialized table", e);
+    }
+  }
+
+  @Override
+  public List<WindowedRow> get(
+      final List<Struct> keys,
+      final int partition,
+      final Range<Instant> windowStartBounds,
+      final Range<Instant> windowEndBounds
+  ) {
+    try {
+      final ReadOnlyWindowStore<Struct, ValueAndTimestamp<GenericRow>> store = stateStore
+          .store(QueryableStoreTypes.timestampedWindowStore(), partition);
 
-      final Instant upper = calculateUpperBound(windowStartBounds, windowEndBounds);
+      final List<List<WindowedRow>> rowsByKey = new ArrayList<>(
+          Collections.nCopies(keys.size(), ImmutableList.<WindowedRow>of()));
 
-      try (WindowStoreIterator<ValueAndTimestamp<GenericRow>> it
-          = cacheBypassFetcher.fetch(store, key, lower, upper)) {
+      for (final int idx : stateStore.storeOrder(keys)) {
+        final List<WindowedRow> rows = new ArrayList<>();
+        findWindows(store, keys.get(idx), windowStartBounds, windowEndBounds, rows::add);
+        rowsByKey.set(idx, rows);
+      }
 
-        final Builder<WindowedRow> builder = ImmutableList.builder();
+      final Builder<WindowedRow> builder = ImmutableList.builder();
+      rowsByKey.forEach(builder::addAll);
+      return builder.build();
+    } catch (final Exception e) {
+      throw new MaterializationException("Failed to get value from materialized table", e);
+    }
+  }
 
-        while (it.hasNext()) {
-          final KeyValue<Long, ValueAndTimestamp<GenericRow>> next = it.next();
+  private boolean findWindows(
+      final ReadOnlyWindowStore<Struct, ValueAndTimestamp<GenericRow>> store,
+      final Struct key,
+      final Range<Instant> windowStartBounds,
+      final Range<Instant> windowEndBounds,
+      final Predicate<? super WindowedRow> consumer
+  ) {
+    final Instant lower = calculateLowerBound(windowStartBounds, windowEndBounds);
 
-          final Instant windowStart = Instant.ofEpochMilli(next.key);
-          if (!windowStartBounds.contains(windowStart)) {
-            continue;
-          }
+    final Instant upper = calculateUpperBound(windowStartBounds, windowEndBounds);
 
-          final Instant windowEnd = windowStart.plus(windowSize);
-          if (!windowEndBounds.contains(windowEnd)) {
-            continue;
-          }
+    try (WindowStoreIterator<ValueAndTimestamp<GenericRow>> it
+        = cacheBypassFetcher.fetch(store, key, lower, upper)) {
 
-          final TimeWindow window =
-              new TimeWindow(windowStart.toEpochMilli(), windowEnd.toEpochMilli());
+      while (it.hasNext()) {
+        final KeyValue<Long, ValueAndTimestamp<GenericRow>> next = it.next();
 
-          final WindowedRow row = WindowedRow.of(
-              stateStore.schema(),
-              new Windowed<>(key, window),
-              next.value.value(),
-              next.value.timestamp()
-          );
+        final Instant windowStart = Instant.ofEpochMilli(next.key);
+        if (!windowStartBounds.contains(windowStart)) {
+          continue;
+        }
 
-          builder.add(row);
+        final Instant windowEnd = windowStart.plus(windowSize);
+        if (!windowEndBounds.contains(windowEnd)) {
+          continue;
         }
 
-        return builder.build();
+        final TimeWindow window =
+            new TimeWindow(windowStart.toEpochMilli(), windowEnd.toEpochMilli());
+
+        final WindowedRow row = WindowedRow.of(
+            stateStore.schema(),
+            new Windowed<>(key, window),
+            next.value.value(),
+            next.value.timestamp()
+        );
+
+        if (!consumer.test(row)) {
+          return false;
+        }
       }
-    } catch (final Exception e) {
-      throw new MaterializationException("Failed to get value from materialized table", e);
+
+      return true;
     }
   }
 
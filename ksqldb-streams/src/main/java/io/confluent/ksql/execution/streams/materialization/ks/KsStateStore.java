@@ -22,6 +22,12 @@ import io.confluent.ksql.execution.streams.materialization.MaterializationExcept
 import io.confluent.ksql.execution.streams.materialization.NotRunningException;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.util.KsqlConfig;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KafkaStreams.State;
 import org.apache.kafka.streams.StoreQueryParameters;
@@ -35,6 +41,7 @@ class KsStateStore {
   private final String stateStoreName;
   private final KafkaStreams kafkaStreams;
   private final LogicalSchema schema;
+  private final Serializer<Struct> keySerializer;
   private final KsqlConfig ksqlConfig;
 
   @VisibleForTesting
@@ -42,11 +49,13 @@ class KsStateStore {
       final String stateStoreName,
       final KafkaStreams kafkaStreams,
       final LogicalSchema schema,
+      final Serializer<Struct> keySerializer,
       final KsqlConfig ksqlConfig
   ) {
     this.kafkaStreams = requireNonNull(kafkaStreams, "kafkaStreams");
     this.stateStoreName = requireNonNull(stateStoreName, "stateStoreName");
     this.schema = requireNonNull(schema, "schema");
+    this.keySerializer = requireNonNull(keySerializer, "keySerializer");
     this.ksqlConfig = requireNonNull(ksqlConfig, "ksqlConfig");
   }
 
@@ -54,6 +63,27 @@ class KsStateStore {
     return schema;
   }
 
+  /**
+   * Order the supplied {@code keys} as the store holds them, i.e. by their serialized bytes.
+   *
+   * <p>Reading keys in this order, rather than the order they were supplied, means consecutive
+   * reads hit neighbouring blocks of the underlying RocksDB store.
+   *
+   * @param keys the keys to order.
+   * @return the indexes of {@code keys}, in store order.
+   */
+  int[] storeOrder(final List<Struct> keys) {
+    final Bytes[] serialized = new Bytes[keys.size()];
+    final Integer[] order = new Integer[keys.size()];
+    for (int i = 0; i != serialized.length; ++i) {
+      serialized[i] = Bytes.wrap(keySerializer.serialize(null, keys.get(i)));
+      order[i] = i;
+    }
+
+    Arrays.sort(order, Comparator.comparing(i -> serialized[i]));
+    return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+  }
+
   <T> T store(final QueryableStoreType<T> queryableStoreType, final int partition) {
     try {
       final StoreQueryParameters<T> parameters = StoreQueryParameters.fromNameAndType(
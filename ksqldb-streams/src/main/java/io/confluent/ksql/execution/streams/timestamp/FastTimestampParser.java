@@ -0,0 +1,259 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.streams.timestamp;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Parses timestamps of the common ISO-8601 layouts straight from the characters of the string,
+ * without going through a {@code DateTimeFormatter}.
+ *
+ * <p>Supported formats are {@code yyyy-MM-dd}, optionally followed by {@code 'T'} or a space and
+ * {@code HH:mm}, {@code HH:mm:ss} or {@code HH:mm:ss.SSS}, optionally followed by {@code XXX}.
+ * Only text that exactly matches the layout, is a valid date and time, and has an offset or is
+ * in a zone with a fixed offset, is parsed. Any other text is left for the caller to parse with
+ * the full parser, so the results are always the same as that parser's. Parsing allocates
+ * nothing.
+ */
+final class FastTimestampParser {
+
+  /**
+   * Returned by {@link #parse} if the text is not one the parser can parse.
+   */
+  static final long UNPARSED = Long.MIN_VALUE;
+
+  private static final String DATE = "yyyy-MM-dd";
+  private static final String OFFSET = "XXX";
+  private static final int DATE_LENGTH = 10;
+  private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+  private static final int DAYS_0000_TO_1970 = 719468;
+  private static final int DAYS_PER_CYCLE = 146097;
+  private static final int MAX_OFFSET_HOURS = 18;
+
+  private final TimeLayout timeLayout;
+  private final char separator;
+  private final boolean hasOffset;
+  private final int length;
+
+  private enum TimeLayout {
+    NONE("", 0),
+    MINUTES("HH:mm", 5),
+    SECONDS("HH:mm:ss", 8),
+    MILLIS("HH:mm:ss.SSS", 12);
+
+    private final String pattern;
+    private final int length;
+
+    TimeLayout(final String pattern, final int length) {
+      this.pattern = pattern;
+      this.length = length;
+    }
+  }
+
+  /**
+   * @param format the format of the timestamps.
+   * @return a parser for the format, if it is one of the supported formats.
+   */
+  static Optional<FastTimestampParser> forFormat(final String format) {
+    Objects.requireNonNull(format, "format");
+    if (!format.startsWith(DATE) && !format.startsWith("uuuu-MM-dd")) {
+      return Optional.empty();
+    }
+
+    String rest = format.substring(DATE.length());
+    final boolean hasOffset = rest.endsWith(OFFSET);
+    if (hasOffset) {
+      rest = rest.substring(0, rest.length() - OFFSET.length());
+    }
+
+    if (rest.isEmpty()) {
+      return hasOffset
+          ? Optional.empty()
+          : Optional.of(new FastTimestampParser(TimeLayout.NONE, ' ', false));
+    }
+
+    final char separator;
+    if (rest.startsWith("'T'")) {
+      separator = 'T';
+      rest = rest.substring(3);
+    } else if (rest.startsWith(" ")) {
+      separator = ' ';
+      rest = rest.substring(1);
+    } else {
+      return Optional.empty();
+    }
+
+    for (final TimeLayout layout : TimeLayout.values()) {
+      if (layout != TimeLayout.NONE && layout.pattern.equals(rest)) {
+        return Optional.of(new FastTimestampParser(layout, separator, hasOffset));
+      }
+    }
+    return Optional.empty();
+  }
+
+  private FastTimestampParser(
+      final TimeLayout timeLayout,
+      final char separator,
+      final boolean hasOffset
+  ) {
+    this.timeLayout = timeLayout;
+    this.separator = separator;
+    this.hasOffset = hasOffset;
+    this.length = timeLayout == TimeLayout.NONE
+        ? DATE_LENGTH
+        : DATE_LENGTH + 1 + timeLayout.length;
+  }
+
+  /**
+   * @param text the text to parse.
+   * @param zone the zone of the timestamp, if the text has no offset.
+   * @return the millis since epoch that {@code text} represents, or {@link #UNPARSED}.
+   */
+  long parse(final String text, final ZoneId zone) {
+    if (text == null || (hasOffset ? text.length() <= length : text.length() != length)) {
+      return UNPARSED;
+    }
+
+    final int year = digits(text, 0, 4);
+    final int month = digits(text, 5, 2);
+    final int day = digits(text, 8, 2);
+    if (text.charAt(4) != '-' || text.charAt(7) != '-'
+        || year < 1 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+      return UNPARSED;
+    }
+
+    int hour = 0;
+    int minute = 0;
+    int second = 0;
+    int millis = 0;
+    if (timeLayout != TimeLayout.NONE) {
+      if (text.charAt(DATE_LENGTH) != separator || text.charAt(13) != ':') {
+        return UNPARSED;
+      }
+      hour = digits(text, 11, 2);
+      minute = digits(text, 14, 2);
+      if (timeLayout != TimeLayout.MINUTES) {
+        if (text.charAt(16) != ':') {
+          return UNPARSED;
+        }
+        second = digits(text, 17, 2);
+      }
+      if (timeLayout == TimeLayout.MILLIS) {
+        if (text.charAt(19) != '.') {
+          return UNPARSED;
+        }
+        millis = digits(text, 20, 3);
+      }
+      if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+          || millis < 0) {
+        return UNPARSED;
+      }
+    }
+
+    final long localSeconds = epochDay(year, month, day) * SECONDS_PER_DAY
+        + hour * 3600 + minute * 60 + second;
+
+    final int offsetSeconds;
+    if (hasOffset) {
+      offsetSeconds = parseOffset(text);
+    } else {
+      offsetSeconds = offsetSeconds(zone);
+    }
+
+    if (offsetSeconds == Integer.MIN_VALUE) {
+      return UNPARSED;
+    }
+    return (localSeconds - offsetSeconds) * 1000 + millis;
+  }
+
+  private int parseOffset(final String text) {
+    if (text.length() == length + 1 && text.charAt(length) == 'Z') {
+      return 0;
+    }
+
+    if (text.length() != length + 6 || text.charAt(length + 3) != ':') {
+      return Integer.MIN_VALUE;
+    }
+
+    final char sign = text.charAt(length);
+    final int hours = digits(text, length + 1, 2);
+    final int minutes = digits(text, length + 4, 2);
+    if ((sign != '+' && sign != '-')
+        || hours < 0 || hours > MAX_OFFSET_HOURS || minutes < 0 || minutes > 59
+        || (hours == MAX_OFFSET_HOURS && minutes != 0)) {
+      return Integer.MIN_VALUE;
+    }
+
+    final int offset = hours * 3600 + minutes * 60;
+    return sign == '+' ? offset : -offset;
+  }
+
+  private static int offsetSeconds(final ZoneId zone) {
+    // The full parser resolves the local time field by field from 1970-01-01, so in zones with
+    // daylight savings rules its result can depend on transitions on the way:
+    final ZoneRules rules = zone.getRules();
+    return rules.isFixedOffset()
+        ? rules.getOffset(Instant.EPOCH).getTotalSeconds()
+        : Integer.MIN_VALUE;
+  }
+
+  /**
+   * @return the value of the digits, or a negative number if any char is not a digit.
+   */
+  private static int digits(final String text, final int start, final int count) {
+    int value = 0;
+    for (int i = start; i != start + count; ++i) {
+      final int digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int daysInMonth(final int year, final int month) {
+    switch (month) {
+      case 2:
+        return isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  private static boolean isLeapYear(final int year) {
+    return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+  }
+
+  private static long epochDay(final int year, final int month, final int day) {
+    // Days since 0000-03-01, as the leap day is then the last day of the year:
+    final int y = month <= 2 ? year - 1 : year;
+    final int era = y / 400;
+    final int yearOfEra = y - era * 400;
+    final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return (long) era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970;
+  }
+}
@@ -20,25 +20,65 @@ import static java.util.Objects.requireNonNull;
 import io.confluent.ksql.GenericRow;
 import io.confluent.ksql.util.KsqlException;
 import io.confluent.ksql.util.timestamp.StringToTimestampParser;
+import java.time.ZoneId;
+import java.util.Optional;
 
+/**
+ * Extracts the timestamp from a string column of the given format.
+ *
+ * <p>Timestamps of common ISO-8601 formats are parsed by a {@link FastTimestampParser}, chosen
+ * when the extractor is created, and any others by a {@link StringToTimestampParser}. As
+ * producers often send batches of records with the same timestamp, the most recently parsed
+ * timestamps are cached by their text.
+ */
 public class StringTimestampExtractor implements KsqlTimestampExtractor {
 
+  private static final int CACHE_SIZE = 64;
+
   private final StringToTimestampParser timestampParser;
+  private final Optional<FastTimestampParser> fastParser;
   private final ColumnExtractor extractor;
   private final String format;
+  private final ZoneId zoneId;
+  // Shared by stream threads. Entries are immutable, so a racing thread at worst misses:
+  private final ParsedTimestamp[] cache = new ParsedTimestamp[CACHE_SIZE];
 
   StringTimestampExtractor(final String format, final ColumnExtractor extractor) {
     this.format = requireNonNull(format, "format can't be null");
     this.extractor = requireNonNull(extractor, "extractor");
     this.timestampParser = new StringToTimestampParser(format);
+    this.fastParser = FastTimestampParser.forFormat(format);
+    this.zoneId = ZoneId.systemDefault();
   }
 
   @Override
   public long extract(final Object key, final GenericRow value) {
     final String colValue = (String) extractor.extract(key, value);
+    if (colValue == null) {
+      return parse(null, value);
+    }
+
+    final int index = colValue.hashCode() & (CACHE_SIZE - 1);
+    final ParsedTimestamp cached = cache[index];
+    if (cached != null && cached.text.equals(colValue)) {
+      return cached.timestamp;
+    }
+
+    final long timestamp = parse(colValue, value);
+    cache[index] = new ParsedTimestamp(colValue, timestamp);
+    return timestamp;
+  }
+
+  private long parse(final String colValue, final GenericRow value) {
+    if (fastParser.isPresent()) {
+      final long timestamp = fastParser.get().parse(colValue, zoneId);
+      if (timestamp != FastTimestampParser.UNPARSED) {
+        return timestamp;
+      }
+    }
 
     try {
-      return timestampParser.parse(colValue);
+      return timestampParser.parse(colValue, zoneId);
     } catch (final KsqlException e) {
       throw new KsqlException("Unable to parse string timestamp."
           + " timestamp=" + value
@@ -46,4 +86,15 @@ public class StringTimestampExtractor implements KsqlTimestampExtractor {
           e);
     }
   }
+
+  private static final class ParsedTimestamp {
+
+    private final String text;
+    private final long timestamp;
+
+    ParsedTimestamp(final String text, final long timestamp) {
+      this.text = text;
+      this.timestamp = timestamp;
+    }
+  }
 }
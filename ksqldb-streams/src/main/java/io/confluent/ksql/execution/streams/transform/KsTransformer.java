@@ -18,8 +18,10 @@ package io.confluent.ksql.execution.streams.transform;
 import static java.util.Objects.requireNonNull;
 
 import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.transform.KsqlProcessingContext;
 import io.confluent.ksql.execution.transform.KsqlTransformer;
+import java.util.Collection;
 import java.util.Optional;
 import org.apache.kafka.streams.kstream.ValueTransformerWithKey;
 import org.apache.kafka.streams.processor.ProcessorContext;
@@ -30,26 +32,56 @@ import org.apache.kafka.streams.processor.ProcessorContext;
  * <p>Maps a implementation agnostic {@link KsqlTransformer} to a implementation specific {@link
  * ValueTransformerWithKey}.
  *
+ * <p>If given the profile of its step, records the records it processes in the profile. An
+ * {@code Optional} result counts as one record out if present, a collection as its size.
+ *
  * @param <K> the type of the key
  * @param <R> the return type
  */
 public class KsTransformer<K, R> implements ValueTransformerWithKey<K, GenericRow, R> {
 
   private final KsqlTransformer<K, R> delegate;
+  private final Optional<StepProfile> profile;
   private Optional<KsProcessingContext> context;
+  private Optional<StepProfile.Recorder> recorder;
 
   public KsTransformer(final KsqlTransformer<K, R> delegate) {
+    this(delegate, Optional.empty());
+  }
+
+  public KsTransformer(
+      final KsqlTransformer<K, R> delegate,
+      final Optional<StepProfile> profile
+  ) {
     this.delegate = requireNonNull(delegate, "delegate");
+    this.profile = requireNonNull(profile, "profile");
     this.context = Optional.empty();
+    this.recorder = Optional.empty();
   }
 
   @Override
   public void init(final ProcessorContext processorContext) {
     this.context = Optional.of(new KsProcessingContext(processorContext));
+    this.recorder = profile.map(StepProfile::newRecorder);
   }
 
   @Override
   public R transform(final K readOnlyKey, final GenericRow value) {
+    if (!recorder.isPresent()) {
+      return doTransform(readOnlyKey, value);
+    }
+
+    recorder.get().start();
+    final R result = doTransform(readOnlyKey, value);
+    recorder.get().end(numOut(result));
+    return result;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  private R doTransform(final K readOnlyKey, final GenericRow value) {
     return delegate.transform(
         readOnlyKey,
         value,
@@ -57,8 +89,17 @@ public class KsTransformer<K, R> implements ValueTransformerWithKey<K, GenericRo
     );
   }
 
-  @Override
-  public void close() {
+  private static int numOut(final Object result) {
+    if (result == null) {
+      return 0;
+    }
+    if (result instanceof Optional) {
+      return ((Optional<?>) result).isPresent() ? 1 : 0;
+    }
+    if (result instanceof Collection) {
+      return ((Collection<?>) result).size();
+    }
+    return 1;
   }
 
   private static final class KsProcessingContext implements KsqlProcessingContext {
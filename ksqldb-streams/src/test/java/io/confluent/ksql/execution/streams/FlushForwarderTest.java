@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.streams;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.kafka.streams.processor.internals.InternalProcessorContext;
+import org.apache.kafka.streams.processor.internals.ProcessorNode;
+import org.apache.kafka.streams.processor.internals.ProcessorRecordContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+@RunWith(MockitoJUnitRunner.class)
+public class FlushForwarderTest {
+
+  @Mock
+  private InternalProcessorContext context;
+  @Mock
+  private ProcessorNode node;
+  @Mock
+  private ProcessorNode otherNode;
+  @Mock
+  private ProcessorRecordContext otherRecordContext;
+  @Mock
+  private Runnable forwards;
+  @Captor
+  private ArgumentCaptor<ProcessorRecordContext> recordContextCaptor;
+
+  private FlushForwarder forwarder;
+
+  @Before
+  public void setUp() {
+    when(context.currentNode()).thenReturn(node);
+    forwarder = new FlushForwarder(context);
+    when(context.currentNode()).thenReturn(otherNode);
+    when(context.recordContext()).thenReturn(otherRecordContext);
+  }
+
+  @Test
+  public void shouldRunAsProcessorNode() {
+    // When:
+    forwarder.run(forwards);
+
+    // Then:
+    final InOrder inOrder = inOrder(context, forwards);
+    inOrder.verify(context).setCurrentNode(node);
+    inOrder.verify(context).setRecordContext(recordContextCaptor.capture());
+    inOrder.verify(forwards).run();
+    assertThat(recordContextCaptor.getValue().timestamp(), is(-1L));
+    assertThat(recordContextCaptor.getValue().offset(), is(-1L));
+  }
+
+  @Test
+  public void shouldRestoreNodeAndRecordContext() {
+    // When:
+    forwarder.run(forwards);
+
+    // Then:
+    final InOrder inOrder = inOrder(context, forwards);
+    inOrder.verify(forwards).run();
+    inOrder.verify(context).setRecordContext(otherRecordContext);
+    inOrder.verify(context).setCurrentNode(otherNode);
+  }
+
+  @Test
+  public void shouldRestoreNodeAndRecordContextIfForwardingFails() {
+    // Given:
+    doThrow(new IllegalStateException("boom")).when(forwards).run();
+
+    // When:
+    assertThrows(IllegalStateException.class, () -> forwarder.run(forwards));
+
+    // Then:
+    verify(context).setRecordContext(otherRecordContext);
+    verify(context).setCurrentNode(otherNode);
+  }
+}
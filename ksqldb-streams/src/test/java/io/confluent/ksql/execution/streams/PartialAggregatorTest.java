@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package io.confluent.ksql.execution.streams;
+
+import static io.confluent.ksql.GenericRow.genericRow;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.expression.tree.FunctionCall;
+import io.confluent.ksql.execution.util.StructKeyUtil;
+import io.confluent.ksql.execution.util.StructKeyUtil.KeyBuilder;
+import io.confluent.ksql.name.FunctionName;
+import io.confluent.ksql.schema.ksql.SystemColumns;
+import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import java.time.Duration;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.To;
+import org.apache.kafka.streams.processor.internals.InternalProcessorContext;
+import org.apache.kafka.streams.processor.internals.ProcessorNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+@RunWith(MockitoJUnitRunner.class)
+public class PartialAggregatorTest {
+
+  private static final KeyBuilder KEY_BUILDER = StructKeyUtil
+      .keyBuilder(SystemColumns.ROWKEY_NAME, SqlTypes.STRING);
+  private static final Struct KEY_A = KEY_BUILDER.build("a");
+  private static final Struct KEY_B = KEY_BUILDER.build("b");
+  private static final String STORE_NAME = "foo-Combine-Buffer";
+  private static final Duration INTERVAL = Duration.ofSeconds(1);
+
+  @Mock
+  private InternalProcessorContext context;
+  @Mock
+  private ProcessorNode node;
+
+  private PartialAggregator.Buffer buffer;
+  private PartialAggregator<Struct> partialAggregator;
+
+  @Before
+  public void setUp() {
+    buffer = PartialAggregator.bufferBuilder(STORE_NAME).build();
+    partialAggregator = givenPartialAggregator(10);
+  }
+
+  @Test
+  public void shouldScheduleEmitOnInterval() {
+    // Given:
+    when(context.getStateStore(STORE_NAME)).thenReturn(buffer);
+
+    // When:
+    partialAggregator.init(context);
+
+    // Then:
+    verify(context).schedule(eq(INTERVAL), eq(PunctuationType.WALL_CLOCK_TIME), any());
+  }
+
+  @Test
+  public void shouldCombineRecordsOfEachKeyUntilFlushed() {
+    // Given:
+    givenInitialized();
+    when(context.timestamp()).thenReturn(10L, 30L, 20L);
+
+    // When:
+    final KeyValue<Struct, GenericRow> result = transform(genericRow(1L, "a"));
+    transform(genericRow(2L, "b"));
+    transform(genericRow(3L, "a"));
+
+    // Then:
+    assertThat(result, is(nullValue()));
+    verify(context, never()).forward(any(), any(), any(To.class));
+
+    // When:
+    buffer.flush();
+
+    // Then:
+    final InOrder inOrder = Mockito.inOrder(context);
+    inOrder.verify(context).forward(KEY_A, genericRow(4L), To.all().withTimestamp(20L));
+    inOrder.verify(context).forward(KEY_B, genericRow(2L), To.all().withTimestamp(30L));
+  }
+
+  @Test
+  public void shouldForwardPartialAggregatesWithLatestTimestampOfTheirRecords() {
+    // Given:
+    givenInitialized();
+    when(context.timestamp()).thenReturn(10L, 30L, 20L);
+    transform(genericRow(1L, "a"));
+    transform(genericRow(2L, "a"));
+    transform(genericRow(3L, "a"));
+
+    // When:
+    buffer.flush();
+
+    // Then:
+    verify(context).forward(KEY_A, genericRow(6L), To.all().withTimestamp(30L));
+  }
+
+  @Test
+  public void shouldForwardAsProcessorNodeWhenFlushed() {
+    // Given:
+    givenInitialized();
+    transform(genericRow(1L, "a"));
+
+    // When:
+    buffer.flush();
+
+    // Then:
+    final InOrder inOrder = Mockito.inOrder(context);
+    inOrder.verify(context).setCurrentNode(node);
+    inOrder.verify(context).forward(any(), any(), any(To.class));
+  }
+
+  @Test
+  public void shouldCombineOrderInsensitiveFunctions() {
+    // When:
+    final boolean combinable = PartialAggregator.canCombine(ImmutableList.of(
+        functionCall("SUM"),
+        functionCall("COUNT"),
+        functionCall("MIN"),
+        functionCall("MAX"),
+        functionCall("AVG")
+    ));
+
+    // Then:
+    assertThat(combinable, is(true));
+  }
+
+  @Test
+  public void shouldNotCombineIfAnyFunctionIsOrderSensitive() {
+    // When:
+    final boolean combinable = PartialAggregator.canCombine(ImmutableList.of(
+        functionCall("SUM"),
+        functionCall("LATEST_BY_OFFSET")
+    ));
+
+    // Then:
+    assertThat(combinable, is(false));
+  }
+
+  @Test
+  public void shouldEmitOnceMaxRecordsBuffered() {
+    // Given:
+    partialAggregator = givenPartialAggregator(2);
+    givenInitialized();
+
+    // When:
+    transform(genericRow(1L, "a"));
+    transform(genericRow(2L, "a"));
+
+    // Then:
+    verify(context).forward(KEY_A, genericRow(3L), To.all().withTimestamp(0L));
+  }
+
+  @Test
+  public void shouldNotEmitPartialAggregatesTwice() {
+    // Given:
+    givenInitialized();
+    transform(genericRow(1L, "a"));
+    buffer.flush();
+
+    // When:
+    buffer.flush();
+
+    // Then:
+    verify(context).forward(any(), any(), any(To.class));
+  }
+
+  @Test
+  public void shouldDropRecordsWithNullKey() {
+    // Given:
+    givenInitialized();
+
+    // When:
+    transform(genericRow(1L, null));
+    buffer.flush();
+
+    // Then:
+    verify(context, never()).forward(any(), any(), any(To.class));
+  }
+
+  private PartialAggregator<Struct> givenPartialAggregator(final int maxRecords) {
+    return new PartialAggregator<>(
+        row -> row.get(1) == null ? null : KEY_BUILDER.build(row.get(1)),
+        () -> genericRow(0L),
+        (key, row, agg) -> genericRow((Long) agg.get(0) + (Long) row.get(0)),
+        STORE_NAME,
+        maxRecords,
+        Long.MAX_VALUE,
+        INTERVAL
+    );
+  }
+
+  private void givenInitialized() {
+    when(context.currentNode()).thenReturn(node);
+    when(context.getStateStore(STORE_NAME)).thenReturn(buffer);
+    partialAggregator.init(context);
+  }
+
+  private static FunctionCall functionCall(final String name) {
+    return new FunctionCall(FunctionName.of(name), ImmutableList.of());
+  }
+
+  private KeyValue<Struct, GenericRow> transform(final GenericRow row) {
+    return partialAggregator.transform(KEY_A, row);
+  }
+}
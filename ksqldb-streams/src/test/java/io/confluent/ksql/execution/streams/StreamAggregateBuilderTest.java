@@ -25,6 +25,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -75,6 +76,7 @@ import org.apache.kafka.streams.kstream.KTable;
 import org.apache.kafka.streams.kstream.Materialized;
 import org.apache.kafka.streams.kstream.Merger;
 import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Reducer;
 import org.apache.kafka.streams.kstream.SessionWindowedKStream;
 import org.apache.kafka.streams.kstream.SessionWindows;
 import org.apache.kafka.streams.kstream.TimeWindowedKStream;
@@ -175,6 +177,8 @@ public class StreamAggregateBuilderTest {
   @Mock
   private Merger<Struct, GenericRow> merger;
   @Mock
+  private Reducer<GenericRow> partialMerger;
+  @Mock
   private MaterializedFactory materializedFactory;
   @Mock
   private Serde<Struct> keySerde;
@@ -336,6 +340,25 @@ public class StreamAggregateBuilderTest {
     inOrder.verifyNoMoreInteractions();
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldReducePartialAggregatesOfUnwindowedAggregate() {
+    // Given:
+    givenUnwindowedAggregate();
+    when(sourceStep.build(any()))
+        .thenReturn(KGroupedStreamHolder.ofPartialAggregates(groupedStream, INPUT_SCHEMA));
+    when(aggregator.getPartialMerger()).thenReturn(partialMerger);
+    when(groupedStream.reduce(any(), any(Materialized.class))).thenReturn(aggregated);
+
+    // When:
+    final KTableHolder<Struct> result = aggregate.build(planBuilder);
+
+    // Then:
+    assertThat(result.getTable(), is(aggregatedWithResults));
+    verify(groupedStream).reduce(partialMerger, materialized);
+    verify(groupedStream, never()).aggregate(any(), any(), any(Materialized.class));
+  }
+
   @Test
   public void shouldBuildUnwindowedAggregateWithCorrectSchema() {
     // Given:
@@ -1,6 +1,7 @@
 package io.confluent.ksql.execution.streams;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -16,6 +17,8 @@ import io.confluent.ksql.execution.builder.KsqlQueryBuilder;
 import io.confluent.ksql.execution.context.QueryContext;
 import io.confluent.ksql.execution.expression.tree.Expression;
 import io.confluent.ksql.execution.expression.tree.UnqualifiedColumnReferenceExp;
+import io.confluent.ksql.execution.function.udaf.KudafAggregator;
+import io.confluent.ksql.execution.function.udaf.KudafInitializer;
 import io.confluent.ksql.execution.plan.ExecutionStep;
 import io.confluent.ksql.execution.plan.ExecutionStepPropertiesV1;
 import io.confluent.ksql.execution.plan.Formats;
@@ -41,11 +44,18 @@ import java.util.List;
 import java.util.function.Function;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Aggregator;
 import org.apache.kafka.streams.kstream.Grouped;
 import org.apache.kafka.streams.kstream.KGroupedStream;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.NamedTestAccessor;
 import org.apache.kafka.streams.kstream.Predicate;
+import org.apache.kafka.streams.kstream.TransformerSupplier;
+import org.apache.kafka.streams.state.StoreBuilder;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -77,6 +87,14 @@ public class StreamGroupByBuilderTest {
   private static final PhysicalSchema REKEYED_PHYSICAL_SCHEMA =
       PhysicalSchema.from(REKEYED_SCHEMA, SerdeFeatures.of(), SerdeFeatures.of());
 
+  private static final LogicalSchema AGGREGATE_SCHEMA = LogicalSchema.builder()
+      .keyColumn(SystemColumns.ROWKEY_NAME, SqlTypes.STRING)
+      .valueColumn(ColumnName.of("PAC"), SqlTypes.BIGINT)
+      .valueColumn(ColumnName.of("KSQL_AGG_VARIABLE_0"), SqlTypes.BIGINT)
+      .build();
+
+  private static final String BUFFER_STORE_NAME = "foo-groupby-Combine-Buffer";
+
   private static final List<Expression> GROUP_BY_EXPRESSIONS = ImmutableList.of(
       columnReference("PAC"),
       columnReference("MAN")
@@ -130,6 +148,27 @@ public class StreamGroupByBuilderTest {
   private GroupByParams groupByParams;
   @Mock
   private Function<GenericRow, Struct> mapper;
+  @Mock
+  private Function<LogicalSchema, AggregateParams> aggregateParamsFactory;
+  @Mock
+  private AggregateParams aggregateParams;
+  @Mock
+  private KudafAggregator<Struct> aggregator;
+  @Mock
+  private KudafInitializer initializer;
+  @Mock
+  private Aggregator<Struct, GenericRow, GenericRow> inPlaceAggregator;
+  @Mock
+  private StreamsBuilder streamsBuilder;
+  @Mock
+  private KStream<Struct, GenericRow> combinedStream;
+  @Captor
+  private ArgumentCaptor<TransformerSupplier<Struct, GenericRow, KeyValue<Struct, GenericRow>>>
+      transformerCaptor;
+  @Captor
+  private ArgumentCaptor<Named> nameCaptor;
+  @Captor
+  private ArgumentCaptor<StoreBuilder<?>> storeBuilderCaptor;
 
   private StreamGroupBy<Struct> groupBy;
   private StreamGroupByKey groupByKey;
@@ -316,6 +355,88 @@ public class StreamGroupByBuilderTest {
     );
   }
 
+  @Test
+  public void shouldCombineRecordsBeforeRepartitionWhenCombined() {
+    // Given:
+    givenCombined();
+
+    // When:
+    final KGroupedStreamHolder result = builder.buildCombined(
+        streamHolder,
+        groupBy,
+        aggregateParamsFactory
+    );
+
+    // Then:
+    assertThat(result.getGroupedStream(), is(groupedStream));
+    assertThat(result.hasPartialAggregates(), is(true));
+    assertThat(result.getSchema(), is(REKEYED_SCHEMA));
+    verify(sourceStream).filter(any());
+    verify(filteredStream).transform(
+        transformerCaptor.capture(),
+        nameCaptor.capture(),
+        eq(BUFFER_STORE_NAME)
+    );
+    assertThat(NamedTestAccessor.getName(nameCaptor.getValue()), is("foo-groupby-Combine"));
+    assertThat(transformerCaptor.getValue().get(), instanceOf(PartialAggregator.class));
+    verify(combinedStream).groupByKey(grouped);
+  }
+
+  @Test
+  public void shouldAddBufferStoreWhenCombined() {
+    // Given:
+    givenCombined();
+
+    // When:
+    builder.buildCombined(streamHolder, groupBy, aggregateParamsFactory);
+
+    // Then:
+    verify(streamsBuilder).addStateStore(storeBuilderCaptor.capture());
+    assertThat(storeBuilderCaptor.getValue().name(), is(BUFFER_STORE_NAME));
+    assertThat(storeBuilderCaptor.getValue().loggingEnabled(), is(false));
+  }
+
+  @Test
+  public void shouldBuildAggregateParamsFromRekeyedSchemaWhenCombined() {
+    // Given:
+    givenCombined();
+
+    // When:
+    builder.buildCombined(streamHolder, groupBy, aggregateParamsFactory);
+
+    // Then:
+    verify(aggregateParamsFactory).apply(REKEYED_SCHEMA);
+  }
+
+  @Test
+  public void shouldBuildSerdesOfPartialAggregatesWhenCombined() {
+    // Given:
+    givenCombined();
+    final PhysicalSchema aggregateSchema =
+        PhysicalSchema.from(AGGREGATE_SCHEMA, SerdeFeatures.of(), SerdeFeatures.of());
+
+    // When:
+    builder.buildCombined(streamHolder, groupBy, aggregateParamsFactory);
+
+    // Then:
+    verify(queryBuilder).buildKeySerde(FORMATS.getKeyFormat(), aggregateSchema, STEP_CTX);
+    verify(queryBuilder).buildValueSerde(FORMATS.getValueFormat(), aggregateSchema, STEP_CTX);
+    verify(groupedFactory).create("foo-groupby", keySerde, valueSerde);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenCombined() {
+    when(aggregateParamsFactory.apply(any())).thenReturn(aggregateParams);
+    when(aggregateParams.getAggregateSchema()).thenReturn(AGGREGATE_SCHEMA);
+    when(aggregateParams.getInitializer()).thenReturn(initializer);
+    when(aggregateParams.<Struct>getAggregator()).thenReturn(aggregator);
+    when(aggregator.getInPlaceAggregator()).thenReturn(inPlaceAggregator);
+    when(queryBuilder.getStreamsBuilder()).thenReturn(streamsBuilder);
+    when(filteredStream.transform(any(TransformerSupplier.class), any(Named.class), any()))
+        .thenReturn(combinedStream);
+    when(combinedStream.groupByKey(any(Grouped.class))).thenReturn(groupedStream);
+  }
+
   private static Expression columnReference(final String column) {
     return new UnqualifiedColumnReferenceExp(ColumnName.of(column));
   }
@@ -15,10 +15,12 @@
 
 package io.confluent.ksql.execution.streams;
 
+import static io.confluent.ksql.GenericRow.genericRow;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,7 +37,10 @@ import io.confluent.ksql.execution.plan.KStreamHolder;
 import io.confluent.ksql.execution.plan.KeySerdeFactory;
 import io.confluent.ksql.execution.plan.PlanBuilder;
 import io.confluent.ksql.execution.plan.SelectExpression;
+import io.confluent.ksql.execution.plan.StreamFilter;
 import io.confluent.ksql.execution.plan.StreamSelect;
+import io.confluent.ksql.execution.transform.KsqlTransformer;
+import io.confluent.ksql.execution.transform.sqlpredicate.SqlPredicate;
 import io.confluent.ksql.function.FunctionRegistry;
 import io.confluent.ksql.logging.processing.ProcessingLogger;
 import io.confluent.ksql.name.ColumnName;
@@ -43,12 +48,16 @@ import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.SystemColumns;
 import io.confluent.ksql.schema.ksql.types.SqlTypes;
 import io.confluent.ksql.util.KsqlConfig;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Named;
 import org.apache.kafka.streams.kstream.NamedTestAccessor;
+import org.apache.kafka.streams.kstream.ValueTransformerWithKey;
 import org.apache.kafka.streams.kstream.ValueTransformerWithKeySupplier;
+import org.apache.kafka.streams.processor.ProcessorContext;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -94,14 +103,35 @@ public class StreamSelectBuilderTest {
   private KeySerdeFactory<Struct> keySerdeFactory;
   @Mock
   private ProcessingLogger processingLogger;
+  @Mock
+  private FunctionRegistry functionRegistry;
+  @Mock
+  private SqlPredicateFactory predicateFactory;
+  @Mock
+  private SqlPredicate sqlPredicate;
+  @Mock
+  private KsqlTransformer<Struct, Optional<GenericRow>> predicate;
+  @Mock
+  private Expression filterExpression;
+  @Mock
+  private ProcessingLogger filterProcessingLogger;
+  @Mock
+  private ProcessorContext processorContext;
+  @Mock
+  private Struct key;
   @Captor
   private ArgumentCaptor<Named> nameCaptor;
+  @Captor
+  private ArgumentCaptor<ValueTransformerWithKeySupplier<Struct, GenericRow, Iterable<GenericRow>>>
+      supplierCaptor;
 
   @Rule
   public final MockitoRule mockitoRule = MockitoJUnit.rule();
 
   private final QueryContext context =
       new QueryContext.Stacker().push("foo").push("bar").getQueryContext();
+  private final QueryContext filterContext =
+      new QueryContext.Stacker().push("foo").push("filter").getQueryContext();
 
   private PlanBuilder planBuilder;
   private StreamSelect<Struct> step;
@@ -109,12 +139,17 @@ public class StreamSelectBuilderTest {
   @Before
   public void setup() {
     when(properties.getQueryContext()).thenReturn(context);
-    when(queryBuilder.getFunctionRegistry()).thenReturn(mock(FunctionRegistry.class));
+    when(queryBuilder.getFunctionRegistry()).thenReturn(functionRegistry);
     when(queryBuilder.getProcessingLogger(any())).thenReturn(processingLogger);
     when(queryBuilder.getKsqlConfig()).thenReturn(ksqlConfig);
     when(sourceKStream
         .transformValues(any(ValueTransformerWithKeySupplier.class), any(Named.class)))
         .thenReturn(resultKStream);
+    when(sourceKStream
+        .flatTransformValues(any(ValueTransformerWithKeySupplier.class), any(Named.class)))
+        .thenReturn(resultKStream);
+    when(predicateFactory.create(any(), any(), any(), any())).thenReturn(sqlPredicate);
+    when(sqlPredicate.getTransformer(any())).thenReturn((KsqlTransformer) predicate);
     final KStreamHolder<Struct> sourceStream
         = new KStreamHolder<>(sourceKStream, SCHEMA, keySerdeFactory);
     when(sourceStep.build(any())).thenReturn(sourceStream);
@@ -126,7 +161,7 @@ public class StreamSelectBuilderTest {
     );
     planBuilder = new KSPlanBuilder(
         queryBuilder,
-        mock(SqlPredicateFactory.class),
+        predicateFactory,
         mock(AggregateParamsFactory.class),
         mock(StreamsFactories.class)
     );
@@ -204,4 +239,98 @@ public class StreamSelectBuilderTest {
     // Then:
     verify(queryBuilder).getProcessingLogger(context);
   }
+
+  @Test
+  public void shouldFuseFilterIntoSelectIfFusedProjectionEnabled() {
+    // Given:
+    givenFilteredSelect();
+
+    // When:
+    final KStreamHolder<Struct> result = step.build(planBuilder);
+
+    // Then:
+    assertThat(result.getStream(), is(resultKStream));
+    verify(sourceKStream).flatTransformValues(
+        any(ValueTransformerWithKeySupplier.class),
+        nameCaptor.capture()
+    );
+    assertThat(NamedTestAccessor.getName(nameCaptor.getValue()), is(SELECT_STEP_NAME));
+    verify(sourceKStream, never())
+        .transformValues(any(ValueTransformerWithKeySupplier.class), any(Named.class));
+    verify(predicateFactory).create(
+        filterExpression,
+        SCHEMA,
+        ksqlConfig,
+        functionRegistry
+    );
+  }
+
+  @Test
+  public void shouldNotFuseFilterIntoSelectIfFusedProjectionDisabled() {
+    // Given:
+    givenFilteredSelect();
+    when(ksqlConfig.getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED))
+        .thenReturn(false);
+
+    // When:
+    step.build(planBuilder);
+
+    // Then:
+    verify(sourceKStream)
+        .flatTransformValues(any(ValueTransformerWithKeySupplier.class), any(Named.class));
+    verify(resultKStream)
+        .transformValues(any(ValueTransformerWithKeySupplier.class), any(Named.class));
+  }
+
+  @Test
+  public void shouldLogFilterErrorsToFilterProcessingLoggerWhenFused() {
+    // Given:
+    givenFilteredSelect();
+
+    // When:
+    step.build(planBuilder);
+
+    // Then:
+    verify(sqlPredicate).getTransformer(filterProcessingLogger);
+  }
+
+  @Test
+  public void shouldOnlySelectRowsThatPassFilterWhenFused() {
+    // Given:
+    givenFilteredSelect();
+    final GenericRow passes = genericRow("a", 1L);
+    final GenericRow fails = genericRow("b", 2L);
+    when(predicate.transform(any(), any(), any())).thenAnswer(inv ->
+        inv.getArgument(1) == passes ? Optional.of(passes) : Optional.empty());
+    step.build(planBuilder);
+    verify(sourceKStream).flatTransformValues(supplierCaptor.capture(), any(Named.class));
+    final ValueTransformerWithKey<Struct, GenericRow, Iterable<GenericRow>> transformer =
+        supplierCaptor.getValue().get();
+    transformer.init(processorContext);
+
+    // When:
+    final Iterable<GenericRow> passed = transformer.transform(key, passes);
+    final Iterable<GenericRow> failed = transformer.transform(key, fails);
+
+    // Then:
+    assertThat(passed, is(Collections.singletonList(genericRow("baz", 123))));
+    assertThat(failed, is(Collections.emptyList()));
+  }
+
+  private void givenFilteredSelect() {
+    when(ksqlConfig.getBoolean(KsqlConfig.KSQL_CODEGEN_FUSED_PROJECTION_ENABLED))
+        .thenReturn(true);
+    when(queryBuilder.getProcessingLogger(filterContext)).thenReturn(filterProcessingLogger);
+    final StreamFilter<Struct> filter = new StreamFilter<>(
+        new ExecutionStepPropertiesV1(filterContext),
+        sourceStep,
+        filterExpression
+    );
+    step = new StreamSelect<>(
+        properties,
+        filter,
+        ImmutableList.of(),
+        SELECT_EXPRESSIONS
+    );
+  }
 }
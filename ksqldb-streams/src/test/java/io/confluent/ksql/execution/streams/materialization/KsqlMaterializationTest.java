@@ -16,6 +16,7 @@
 package io.confluent.ksql.execution.streams.materialization;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
@@ -24,8 +25,10 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,8 +46,10 @@ import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.types.SqlTypes;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.kstream.Windowed;
 import org.apache.kafka.streams.kstream.internals.SessionWindow;
@@ -126,8 +131,8 @@ public class KsqlMaterializationTest {
     when(inner.nonWindowed()).thenReturn(innerNonWindowed);
     when(inner.windowed()).thenReturn(innerWindowed);
 
-    when(innerNonWindowed.get(any(), anyInt())).thenReturn(Optional.of(ROW));
-    when(innerWindowed.get(any(), anyInt(), any(), any())).thenReturn(ImmutableList.of(WINDOWED_ROW));
+    when(innerNonWindowed.get(any(Struct.class), anyInt())).thenReturn(Optional.of(ROW));
+    when(innerWindowed.get(any(Struct.class), anyInt(), any(), any())).thenReturn(ImmutableList.of(WINDOWED_ROW));
   }
 
   @SuppressWarnings("UnstableApiUsage")
@@ -250,7 +255,7 @@ public class KsqlMaterializationTest {
   public void shouldReturnEmptyIfInnerNonWindowedReturnsEmpty() {
     // Given:
     final MaterializedTable table = materialization.nonWindowed();
-    when(innerNonWindowed.get(any(), anyInt())).thenReturn(Optional.empty());
+    when(innerNonWindowed.get(any(Struct.class), anyInt())).thenReturn(Optional.empty());
     givenNoopTransforms();
 
     // When:
@@ -264,7 +269,7 @@ public class KsqlMaterializationTest {
   public void shouldReturnEmptyIfInnerWindowedReturnsEmpty() {
     // Given:
     final MaterializedWindowedTable table = materialization.windowed();
-    when(innerWindowed.get(any(), anyInt(), any(), any())).thenReturn(ImmutableList.of());
+    when(innerWindowed.get(any(Struct.class), anyInt(), any(), any())).thenReturn(ImmutableList.of());
     givenNoopTransforms();
 
     // When:
@@ -422,7 +427,7 @@ public class KsqlMaterializationTest {
         WindowedRow.of(SCHEMA, new Windowed<>(A_KEY, window3), A_VALUE, A_ROWTIME)
     );
 
-    when(innerWindowed.get(any(), anyInt(), any(), any())).thenReturn(rows);
+    when(innerWindowed.get(any(Struct.class), anyInt(), any(), any())).thenReturn(rows);
 
     // When:
     final List<WindowedRow> result = table.get(A_KEY, PARTITION, WINDOW_START_BOUNDS,
@@ -435,6 +440,150 @@ public class KsqlMaterializationTest {
     assertThat(result.get(2).windowedKey().window(), is(window3));
   }
 
+  @Test
+  public void shouldGetBatchFromInnerNonWindowed() {
+    // Given:
+    final MaterializedTable table = materialization.nonWindowed();
+    givenNoopTransforms();
+    when(innerNonWindowed.get(ImmutableList.of(A_KEY), PARTITION))
+        .thenReturn(ImmutableList.of(ROW));
+
+    // When:
+    final List<Row> result = table.get(ImmutableList.of(A_KEY), PARTITION);
+
+    // Then:
+    assertThat(result, contains(ROW));
+    verify(innerNonWindowed, never()).get(any(Struct.class), anyInt());
+  }
+
+  @Test
+  public void shouldTransformBatchFromNonWindowed() {
+    // Given:
+    final MaterializedTable table = materialization.nonWindowed();
+    givenNoopFilter();
+    when(project.apply(any(), any(), any())).thenReturn(Optional.of(TRANSFORMED));
+    when(innerNonWindowed.get(ImmutableList.of(A_KEY), PARTITION))
+        .thenReturn(ImmutableList.of(ROW));
+
+    // When:
+    final List<Row> result = table.get(ImmutableList.of(A_KEY), PARTITION);
+
+    // Then:
+    verify(project).apply(A_KEY, A_VALUE, new PullProcessingContext(A_ROWTIME));
+    assertThat(result, hasSize(1));
+    assertThat(result.get(0).key(), is(A_KEY));
+    assertThat(result.get(0).value(), is(TRANSFORMED));
+  }
+
+  @Test
+  public void shouldFilterBatchFromNonWindowed() {
+    // Given:
+    final MaterializedTable table = materialization.nonWindowed();
+    givenNoopProject();
+    when(filter.apply(any(), any(), any())).thenReturn(Optional.empty());
+    when(innerNonWindowed.get(ImmutableList.of(A_KEY), PARTITION))
+        .thenReturn(ImmutableList.of(ROW));
+
+    // When:
+    final List<Row> result = table.get(ImmutableList.of(A_KEY), PARTITION);
+
+    // Then:
+    assertThat(result, is(empty()));
+  }
+
+  @Test
+  public void shouldTransformBatchFromWindowed() {
+    // Given:
+    final MaterializedWindowedTable table = materialization.windowed();
+    givenNoopFilter();
+    when(project.apply(any(), any(), any())).thenReturn(Optional.of(TRANSFORMED));
+    when(innerWindowed.get(
+        ImmutableList.of(A_KEY), PARTITION, WINDOW_START_BOUNDS, WINDOW_END_BOUNDS)
+    ).thenReturn(ImmutableList.of(WINDOWED_ROW));
+
+    // When:
+    final List<WindowedRow> result = table.get(
+        ImmutableList.of(A_KEY), PARTITION, WINDOW_START_BOUNDS, WINDOW_END_BOUNDS);
+
+    // Then:
+    assertThat(result, hasSize(1));
+    assertThat(result.get(0).window(), is(Optional.of(A_WINDOW)));
+    assertThat(result.get(0).value(), is(TRANSFORMED));
+  }
+
+  @Test
+  public void shouldTransformScanFromNonWindowed() {
+    // Given:
+    final MaterializedTable table = materialization.nonWindowed();
+    givenNoopFilter();
+    when(project.apply(any(), any(), any())).thenReturn(Optional.of(TRANSFORMED));
+    givenInnerScan();
+    final List<Row> rows = new ArrayList<>();
+
+    // When:
+    final boolean result = table.scan(PARTITION, rows::add);
+
+    // Then:
+    verify(project).apply(A_KEY, A_VALUE, new PullProcessingContext(A_ROWTIME));
+    assertThat(result, is(true));
+    assertThat(rows, hasSize(1));
+    assertThat(rows.get(0).key(), is(A_KEY));
+    assertThat(rows.get(0).value(), is(TRANSFORMED));
+  }
+
+  @Test
+  public void shouldFilterScanFromNonWindowed() {
+    // Given:
+    final MaterializedTable table = materialization.nonWindowed();
+    givenNoopProject();
+    when(filter.apply(any(), any(), any())).thenReturn(Optional.empty());
+    givenInnerScan();
+    final List<Row> rows = new ArrayList<>();
+
+    // When:
+    final boolean result = table.scan(PARTITION, rows::add);
+
+    // Then:
+    assertThat(result, is(true));
+    assertThat(rows, is(empty()));
+  }
+
+  @Test
+  public void shouldStopScanIfConsumerReturnsFalse() {
+    // Given:
+    final MaterializedTable table = materialization.nonWindowed();
+    givenNoopTransforms();
+    givenInnerScan();
+
+    // When:
+    final boolean result = table.scan(PARTITION, row -> false);
+
+    // Then:
+    assertThat(result, is(false));
+  }
+
+  @Test
+  public void shouldPassRangeToInnerScan() {
+    // Given:
+    final MaterializedTable table = materialization.nonWindowed();
+    givenNoopTransforms();
+    when(innerNonWindowed.scan(eq(PARTITION), eq(A_KEY), eq(A_KEY), any()))
+        .thenAnswer(inv -> inv.<Predicate<Row>>getArgument(3).test(ROW));
+    final List<Row> rows = new ArrayList<>();
+
+    // When:
+    table.scan(PARTITION, A_KEY, A_KEY, rows::add);
+
+    // Then:
+    assertThat(rows, hasSize(1));
+    assertThat(rows.get(0).key(), is(A_KEY));
+  }
+
+  private void givenInnerScan() {
+    when(innerNonWindowed.scan(eq(PARTITION), any()))
+        .thenAnswer(inv -> inv.<Predicate<Row>>getArgument(1).test(ROW));
+  }
+
   private void givenNoopFilter() {
     when(filter.apply(any(), any(), any()))
         .thenAnswer(inv -> Optional.of(inv.getArgument(1)));
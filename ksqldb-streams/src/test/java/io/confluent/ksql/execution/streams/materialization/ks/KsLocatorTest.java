@@ -51,6 +51,7 @@ import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.processor.StreamPartitioner;
 import org.apache.kafka.streams.state.HostInfo;
 import org.junit.Before;
 import org.junit.Test;
@@ -386,6 +387,69 @@ public class KsLocatorTest {
     assertThat(nodeList.get(1), is(standByNode1));
   }
 
+  @Test
+  public void shouldLocateAllPartitions() {
+    // Given:
+    givenPartitionMetadata(3);
+
+    // When:
+    final List<KsqlPartitionLocation> result = locator.locateAll(routingOptions,
+        routingFilterFactoryStandby);
+
+    // Then:
+    assertThat(result.size(), is(3));
+    for (int partition = 0; partition != 3; ++partition) {
+      assertThat(result.get(partition).getPartition(), is(partition));
+      assertThat(result.get(partition).getKeys(), is(Optional.empty()));
+      assertThat(result.get(partition).getNodes(), contains(activeNode, standByNode1));
+    }
+  }
+
+  @Test
+  public void shouldLocateOnlyRequestedPartitions() {
+    // Given:
+    givenPartitionMetadata(3);
+    when(routingOptions.getPartitions()).thenReturn(ImmutableSet.of(1));
+
+    // When:
+    final List<KsqlPartitionLocation> result = locator.locateAll(routingOptions,
+        routingFilterFactoryStandby);
+
+    // Then:
+    assertThat(result.size(), is(1));
+    assertThat(result.get(0).getPartition(), is(1));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void shouldThrowIfPartitionMetadataNotAvailable() {
+    // Given:
+    when(kafkaStreams.queryMetadataForKey(any(), any(), any(StreamPartitioner.class)))
+        .thenReturn(KeyQueryMetadata.NOT_AVAILABLE);
+
+    // When:
+    final Exception e = assertThrows(
+        MaterializationException.class,
+        () -> locator.locateAll(routingOptions, routingFilterFactoryActive)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), containsString(
+        "KeyQueryMetadata not available for state store someStoreName and partition 0"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenPartitionMetadata(final int numPartitions) {
+    when(kafkaStreams.queryMetadataForKey(any(), any(), any(StreamPartitioner.class)))
+        .thenAnswer(inv -> {
+          final StreamPartitioner<Object, Object> partitioner = inv.getArgument(2);
+          final int partition = partitioner
+              .partition("topic", inv.getArgument(1), null, numPartitions);
+          return new KeyQueryMetadata(
+              activeHostInfo, ImmutableSet.of(standByHostInfo1), partition);
+        });
+  }
+
   @SuppressWarnings("unchecked")
   private void getEmtpyMetadata() {
     when(kafkaStreams.queryMetadataForKey(any(), any(), any(Serializer.class)))
@@ -90,7 +90,7 @@ public class KsMaterializationFactoryTest {
     );
 
     when(locatorFactory.create(any(), any(), any(), any(), any())).thenReturn(locator);
-    when(storeFactory.create(any(), any(), any(), any())).thenReturn(stateStore);
+    when(storeFactory.create(any(), any(), any(), any(), any())).thenReturn(stateStore);
     when(materializationFactory.create(any(), any(), any())).thenReturn(materialization);
 
     streamsProperties.clear();
@@ -147,6 +147,7 @@ public class KsMaterializationFactoryTest {
         STORE_NAME,
         kafkaStreams,
         SCHEMA,
+        keySerializer,
         ksqlConfig
     );
   }
@@ -16,15 +16,20 @@
 package io.confluent.ksql.execution.streams.materialization.ks;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.testing.NullPointerTester;
 import com.google.common.testing.NullPointerTester.Visibility;
 import io.confluent.ksql.GenericRow;
@@ -35,8 +40,12 @@ import io.confluent.ksql.execution.util.StructKeyUtil;
 import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.types.SqlTypes;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.KeyValueIterator;
 import org.apache.kafka.streams.state.QueryableStoreType;
 import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
 import org.apache.kafka.streams.state.ValueAndTimestamp;
@@ -45,6 +54,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -58,12 +68,16 @@ public class KsMaterializedTableTest {
 
   private static final Struct A_KEY = StructKeyUtil
       .keyBuilder(ColumnName.of("K0"), SqlTypes.STRING).build("x");
+  private static final Struct B_KEY = StructKeyUtil
+      .keyBuilder(ColumnName.of("K0"), SqlTypes.STRING).build("y");
   private static final int PARTITION = 0;
 
   @Mock
   private KsStateStore stateStore;
   @Mock
   private ReadOnlyKeyValueStore<Struct, ValueAndTimestamp<GenericRow>> tableStore;
+  @Mock
+  private KeyValueIterator<Struct, ValueAndTimestamp<GenericRow>> iterator;
   @Captor
   private ArgumentCaptor<QueryableStoreType<?>> storeTypeCaptor;
 
@@ -160,4 +174,170 @@ public class KsMaterializedTableTest {
     // Then:
     assertThat(result, is(Optional.of(Row.of(SCHEMA, A_KEY, value, rowTime))));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldGetStoreOnceForBatch() {
+    // Given:
+    when(stateStore.storeOrder(any())).thenReturn(new int[]{0, 1});
+
+    // When:
+    table.get(ImmutableList.of(A_KEY, B_KEY), PARTITION);
+
+    // Then:
+    verify(stateStore, times(1)).store(any(), eq(PARTITION));
+  }
+
+  @Test
+  public void shouldGetBatchInStoreOrder() {
+    // Given:
+    when(stateStore.storeOrder(ImmutableList.of(A_KEY, B_KEY))).thenReturn(new int[]{1, 0});
+
+    // When:
+    table.get(ImmutableList.of(A_KEY, B_KEY), PARTITION);
+
+    // Then:
+    final InOrder inOrder = inOrder(tableStore);
+    inOrder.verify(tableStore).get(B_KEY);
+    inOrder.verify(tableStore).get(A_KEY);
+  }
+
+  @Test
+  public void shouldReturnBatchInKeyOrder() {
+    // Given:
+    final GenericRow value0 = GenericRow.genericRow("col0");
+    final GenericRow value1 = GenericRow.genericRow("col1");
+    when(stateStore.storeOrder(any())).thenReturn(new int[]{1, 0});
+    when(tableStore.get(A_KEY)).thenReturn(ValueAndTimestamp.make(value0, 1L));
+    when(tableStore.get(B_KEY)).thenReturn(ValueAndTimestamp.make(value1, 2L));
+
+    // When:
+    final List<Row> result = table.get(ImmutableList.of(A_KEY, B_KEY), PARTITION);
+
+    // Then:
+    assertThat(result, contains(
+        Row.of(SCHEMA, A_KEY, value0, 1L),
+        Row.of(SCHEMA, B_KEY, value1, 2L)
+    ));
+  }
+
+  @Test
+  public void shouldSkipMissingKeysInBatch() {
+    // Given:
+    final GenericRow value = GenericRow.genericRow("col0");
+    when(stateStore.storeOrder(any())).thenReturn(new int[]{0, 1});
+    when(tableStore.get(B_KEY)).thenReturn(ValueAndTimestamp.make(value, 1L));
+
+    // When:
+    final List<Row> result = table.get(ImmutableList.of(A_KEY, B_KEY), PARTITION);
+
+    // Then:
+    assertThat(result, contains(Row.of(SCHEMA, B_KEY, value, 1L)));
+  }
+
+  @Test
+  public void shouldThrowIfBatchStoreGetFails() {
+    // Given:
+    when(stateStore.storeOrder(any())).thenReturn(new int[]{0});
+    when(tableStore.get(any())).thenThrow(new MaterializationTimeOutException("Boom"));
+
+    // When:
+    final Exception e = assertThrows(
+        MaterializationException.class,
+        () -> table.get(ImmutableList.of(A_KEY), PARTITION)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), containsString(
+        "Failed to get value from materialized table"));
+    assertThat(e.getCause(), (instanceOf(MaterializationTimeOutException.class)));
+  }
+
+  @Test
+  public void shouldScanAllRows() {
+    // Given:
+    final GenericRow value0 = GenericRow.genericRow("col0");
+    final GenericRow value1 = GenericRow.genericRow("col1");
+    givenIterator(tableStore.all(), value0, value1);
+    final List<Row> rows = new ArrayList<>();
+
+    // When:
+    final boolean result = table.scan(PARTITION, rows::add);
+
+    // Then:
+    assertThat(result, is(true));
+    assertThat(rows, contains(
+        Row.of(SCHEMA, A_KEY, value0, 1L),
+        Row.of(SCHEMA, B_KEY, value1, 2L)
+    ));
+    verify(iterator).close();
+  }
+
+  @Test
+  public void shouldScanRange() {
+    // Given:
+    final GenericRow value0 = GenericRow.genericRow("col0");
+    final GenericRow value1 = GenericRow.genericRow("col1");
+    givenIterator(tableStore.range(A_KEY, B_KEY), value0, value1);
+    final List<Row> rows = new ArrayList<>();
+
+    // When:
+    final boolean result = table.scan(PARTITION, A_KEY, B_KEY, rows::add);
+
+    // Then:
+    assertThat(result, is(true));
+    assertThat(rows, contains(
+        Row.of(SCHEMA, A_KEY, value0, 1L),
+        Row.of(SCHEMA, B_KEY, value1, 2L)
+    ));
+    verify(iterator).close();
+  }
+
+  @Test
+  public void shouldStopScanWhenConsumerReturnsFalse() {
+    // Given:
+    final GenericRow value0 = GenericRow.genericRow("col0");
+    givenIterator(tableStore.all(), value0, GenericRow.genericRow("col1"));
+    final List<Row> rows = new ArrayList<>();
+
+    // When:
+    final boolean result = table.scan(PARTITION, row -> {
+      rows.add(row);
+      return false;
+    });
+
+    // Then:
+    assertThat(result, is(false));
+    assertThat(rows, contains(Row.of(SCHEMA, A_KEY, value0, 1L)));
+    verify(iterator).close();
+  }
+
+  @Test
+  public void shouldThrowIfScanFails() {
+    // Given:
+    when(tableStore.all()).thenThrow(new MaterializationTimeOutException("Boom"));
+
+    // When:
+    final Exception e = assertThrows(
+        MaterializationException.class,
+        () -> table.scan(PARTITION, row -> true)
+    );
+
+    // Then:
+    assertThat(e.getMessage(), containsString("Failed to scan materialized table"));
+    assertThat(e.getCause(), (instanceOf(MaterializationTimeOutException.class)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void givenIterator(
+      final KeyValueIterator<Struct, ValueAndTimestamp<GenericRow>> call,
+      final GenericRow value0,
+      final GenericRow value1
+  ) {
+    when(call).thenReturn(iterator);
+    when(iterator.hasNext()).thenReturn(true, true, false);
+    when(iterator.next()).thenReturn(
+        KeyValue.pair(A_KEY, ValueAndTimestamp.make(value0, 1L)),
+        KeyValue.pair(B_KEY, ValueAndTimestamp.make(value1, 2L))
+    );
+  }
+}
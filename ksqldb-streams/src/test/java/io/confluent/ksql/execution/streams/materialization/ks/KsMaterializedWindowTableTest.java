@@ -42,6 +42,7 @@ import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.types.SqlTypes;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.KeyValue;
@@ -312,6 +313,30 @@ public class KsMaterializedWindowTableTest {
     verify(fetchIterator).close();
   }
 
+  @Test
+  public void shouldStopReadingOnceConsumerReturnsFalse() {
+    // Given:
+    when(fetchIterator.hasNext()).thenReturn(true);
+    when(fetchIterator.next())
+        .thenReturn(new KeyValue<>(NOW.toEpochMilli(), VALUE_1))
+        .thenThrow(new AssertionError());
+
+    final List<WindowedRow> consumed = new ArrayList<>();
+
+    // When:
+    final boolean result = table.forEach(A_KEY, PARTITION, Range.all(), Range.all(), row -> {
+      consumed.add(row);
+      return false;
+    });
+
+    // Then:
+    assertThat(result, is(false));
+    assertThat(consumed, contains(
+        WindowedRow.of(SCHEMA, windowedKey(NOW), VALUE_1.value(), VALUE_1.timestamp())
+    ));
+    verify(fetchIterator).close();
+  }
+
   @Test
   public void shouldReturnEmptyIfKeyNotPresent() {
     // When:
@@ -30,6 +30,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.testing.NullPointerTester;
 import com.google.common.testing.NullPointerTester.Visibility;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -38,6 +39,8 @@ import io.confluent.ksql.name.ColumnName;
 import io.confluent.ksql.schema.ksql.LogicalSchema;
 import io.confluent.ksql.schema.ksql.types.SqlTypes;
 import io.confluent.ksql.util.KsqlConfig;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.KafkaStreams.State;
 import org.apache.kafka.streams.StoreQueryParameters;
@@ -67,13 +70,15 @@ public class KsStateStoreTest {
   @Mock
   private KafkaStreams kafkaStreams;
   @Mock
+  private Serializer<Struct> keySerializer;
+  @Mock
   private KsqlConfig ksqlConfig;
 
   private KsStateStore store;
 
   @Before
   public void setUp() {
-    store = new KsStateStore(STORE_NAME, kafkaStreams, SCHEMA, ksqlConfig);
+    store = new KsStateStore(STORE_NAME, kafkaStreams, SCHEMA, keySerializer, ksqlConfig);
     when(kafkaStreams.state()).thenReturn(State.RUNNING);
   }
 
@@ -83,6 +88,7 @@ public class KsStateStoreTest {
     new NullPointerTester()
         .setDefault(KafkaStreams.class, kafkaStreams)
         .setDefault(LogicalSchema.class, SCHEMA)
+        .setDefault(Serializer.class, keySerializer)
         .setDefault(KsqlConfig.class, ksqlConfig)
         .testConstructors(KsStateStore.class, Visibility.PACKAGE);
   }
@@ -186,4 +192,21 @@ public class KsStateStoreTest {
     // Then:
     assertThat(result, is(windowStore));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldOrderKeysBySerializedBytes() {
+    // Given:
+    final Struct k0 = mock(Struct.class);
+    final Struct k1 = mock(Struct.class);
+    final Struct k2 = mock(Struct.class);
+    when(keySerializer.serialize(null, k0)).thenReturn(new byte[]{2});
+    when(keySerializer.serialize(null, k1)).thenReturn(new byte[]{(byte) 0x80});
+    when(keySerializer.serialize(null, k2)).thenReturn(new byte[]{1, 5});
+
+    // When:
+    final int[] result = store.storeOrder(ImmutableList.of(k0, k1, k2));
+
+    // Then:
+    assertThat(result, is(new int[]{2, 0, 1}));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 Confluent Inc.
+ *
+ * Licensed under the Confluent Community License (the "License"); you may not use
+ * this file except in compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ * http://www.confluent.io/confluent-community-license
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package io.confluent.ksql.execution.streams.timestamp;
+
+import static io.confluent.ksql.execution.streams.timestamp.FastTimestampParser.UNPARSED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import io.confluent.ksql.util.timestamp.StringToTimestampParser;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.Test;
+
+public class FastTimestampParserTest {
+
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+  private static final ZoneId PLUS_TWO = ZoneOffset.ofHours(2);
+
+  @Test
+  public void shouldOnlySupportCommonIsoFormats() {
+    assertThat(FastTimestampParser.forFormat("yyyy-MM-dd").isPresent(), is(true));
+    assertThat(FastTimestampParser.forFormat("yyyy-MM-dd'T'HH:mm").isPresent(), is(true));
+    assertThat(FastTimestampParser.forFormat("yyyy-MM-dd HH:mm:ss").isPresent(), is(true));
+    assertThat(FastTimestampParser.forFormat("uuuu-MM-dd'T'HH:mm:ss.SSSXXX").isPresent(), is(true));
+    assertThat(FastTimestampParser.forFormat("yyyy-MMM-dd").isPresent(), is(false));
+    assertThat(FastTimestampParser.forFormat("yyyy-MM-ddXXX").isPresent(), is(false));
+    assertThat(FastTimestampParser.forFormat("yyyy-MM-dd'T'HH:mm:ss.SS").isPresent(), is(false));
+    assertThat(FastTimestampParser.forFormat("dd/MM/yyyy").isPresent(), is(false));
+  }
+
+  @Test
+  public void shouldParseSameAsFullParser() {
+    assertSameAsFullParser("yyyy-MM-dd", "2020-02-29", ZoneOffset.UTC);
+    assertSameAsFullParser("yyyy-MM-dd", "1969-12-31", PLUS_TWO);
+    assertSameAsFullParser("yyyy-MM-dd'T'HH:mm", "2020-07-01T12:34", ZoneId.of("UTC"));
+    assertSameAsFullParser("yyyy-MM-dd HH:mm:ss", "2000-03-01 23:59:59", PLUS_TWO);
+    assertSameAsFullParser("yyyy-MM-dd'T'HH:mm:ss.SSS", "1900-01-01T00:00:00.001", PLUS_TWO);
+    assertSameAsFullParser("yyyy-MM-dd'T'HH:mm:ss.SSSXXX", "2020-10-25T01:30:00.500Z", LONDON);
+    assertSameAsFullParser("yyyy-MM-dd'T'HH:mm:ssXXX", "2020-01-01T00:00:00-05:30", LONDON);
+  }
+
+  @Test
+  public void shouldLeaveTextNotOfLayoutToFullParser() {
+    // Given:
+    final FastTimestampParser parser = FastTimestampParser
+        .forFormat("yyyy-MM-dd'T'HH:mm:ss").get();
+
+    // Then:
+    assertThat(parser.parse(null, ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-01-01T00:00", ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-01-01 00:00:00", ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-01-01T00:00:00Z", ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-01-0AT00:00:00", ZoneOffset.UTC), is(UNPARSED));
+  }
+
+  @Test
+  public void shouldLeaveInvalidDatesAndTimesToFullParser() {
+    // Given:
+    final FastTimestampParser parser = FastTimestampParser
+        .forFormat("yyyy-MM-dd HH:mm:ssXXX").get();
+
+    // Then:
+    assertThat(parser.parse("2019-02-29 00:00:00Z", ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-13-01 00:00:00Z", ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-01-01 24:00:00Z", ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-01-01 00:00:60Z", ZoneOffset.UTC), is(UNPARSED));
+    assertThat(parser.parse("2020-01-01 00:00:00+19:00", ZoneOffset.UTC), is(UNPARSED));
+  }
+
+  @Test
+  public void shouldLeaveLocalTimesInZonesWithoutFixedOffsetToFullParser() {
+    // Given:
+    final FastTimestampParser parser = FastTimestampParser
+        .forFormat("yyyy-MM-dd HH:mm:ss").get();
+
+    // Then:
+    assertThat(parser.parse("2020-01-01 00:00:00", LONDON), is(UNPARSED));
+    assertThat(parser.parse("2020-03-29 01:30:00", LONDON), is(UNPARSED));
+  }
+
+  private static void assertSameAsFullParser(
+      final String format,
+      final String text,
+      final ZoneId zoneId
+  ) {
+    final long expected = new StringToTimestampParser(format).parse(text, zoneId);
+    final long actual = FastTimestampParser.forFormat(format).get().parse(text, zoneId);
+    assertThat(format + ": " + text, actual, is(expected));
+  }
+}
@@ -78,6 +78,21 @@ public class StringTimestampExtractorTest {
     assertThat(actualTime, equalTo(expectedTime));
   }
 
+  @Test
+  public void shouldExtractTimestampFromIsoString() {
+    // Given:
+    extractor = new StringTimestampExtractor("yyyy-MM-dd'T'HH:mm:ss.SSSXXX", columnExtractor);
+    when(columnExtractor.extract(any(), any())).thenReturn("2020-01-01T01:00:00.123+01:00");
+
+    // When:
+    final long first = extractor.extract(key, value);
+    final long second = extractor.extract(key, value);
+
+    // Then:
+    assertThat(first, equalTo(1577836800123L));
+    assertThat(second, equalTo(1577836800123L));
+  }
+
   @Test
   public void shouldThrowIfStringDoesNotMatchFormat() {
     // Given:
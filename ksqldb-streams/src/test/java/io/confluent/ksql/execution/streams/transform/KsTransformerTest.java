@@ -16,6 +16,7 @@
 package io.confluent.ksql.execution.streams.transform;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -23,8 +24,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.confluent.ksql.GenericRow;
+import io.confluent.ksql.execution.profile.StepProfile;
 import io.confluent.ksql.execution.transform.KsqlProcessingContext;
 import io.confluent.ksql.execution.transform.KsqlTransformer;
+import java.util.Optional;
 import org.apache.kafka.streams.processor.ProcessorContext;
 import org.junit.Before;
 import org.junit.Test;
@@ -106,6 +109,41 @@ public class KsTransformerTest {
     assertThat(rowTime, is(ROWTIME));
   }
 
+  @Test
+  public void shouldRecordRecordsInProfile() {
+    // Given:
+    final StepProfile profile = new StepProfile("step", 1);
+    ksTransformer = new KsTransformer<>(ksqlTransformer, Optional.of(profile));
+    ksTransformer.init(ctx);
+
+    // When:
+    ksTransformer.transform(KEY, VALUE);
+    ksTransformer.transform(KEY, VALUE);
+
+    // Then:
+    assertThat(profile.getRecordsIn(), is(2L));
+    assertThat(profile.getRecordsOut(), is(2L));
+    assertThat(profile.getEstimatedProcessingNanos(), is(greaterThanOrEqualTo(0L)));
+  }
+
+  @Test
+  public void shouldNotCountEmptyResultAsRecordOut() {
+    // Given:
+    final StepProfile profile = new StepProfile("step", 1);
+    final KsTransformer<Long, Optional<String>> filter = new KsTransformer<>(
+        (key, value, context) -> Optional.empty(),
+        Optional.of(profile)
+    );
+    filter.init(ctx);
+
+    // When:
+    filter.transform(KEY, VALUE);
+
+    // Then:
+    assertThat(profile.getRecordsIn(), is(1L));
+    assertThat(profile.getRecordsOut(), is(0L));
+  }
+
   private KsqlProcessingContext getKsqlProcessingContext() {
     verify(ksqlTransformer).transform(
         any(),